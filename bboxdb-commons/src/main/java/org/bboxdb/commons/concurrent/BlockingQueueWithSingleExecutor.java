@@ -55,6 +55,12 @@ public class BlockingQueueWithSingleExecutor {
 	private final static Logger logger = LoggerFactory.getLogger(BlockingQueueWithSingleExecutor.class);
 	
 	public BlockingQueueWithSingleExecutor(final String name, final int maxQueueSize) {
+		this(name, maxQueueSize, false);
+	}
+	
+	public BlockingQueueWithSingleExecutor(final String name, final int maxQueueSize, 
+			final boolean daemon) {
+		
 		pendingRunables = new LinkedBlockingQueue<>(maxQueueSize);
 		executorRunnable = new ExceptionSafeRunnable() {
 			
@@ -87,6 +93,7 @@ public class BlockingQueueWithSingleExecutor {
 		shutdown = false;
 		executor = new Thread(executorRunnable);
 		executor.setName(name);
+		executor.setDaemon(daemon);
 		executor.start();
 	}
 	
@@ -121,6 +128,14 @@ public class BlockingQueueWithSingleExecutor {
 		pendingRunables.put(RED_PILL);
 	}
 	
+	/**
+	 * Get the amount of pending runnables
+	 * @return
+	 */
+	public int getQueueSize() {
+		return pendingRunables.size();
+	}
+	
 	/**
 	 * Is the executor active
 	 * @return
@@ -20,6 +20,7 @@ package org.bboxdb.commons.io;
 import java.io.DataInput;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
@@ -128,6 +129,23 @@ public class DataEncoderHelper {
 		return byteBuffer;		
 	}
 	
+	/**
+	 * Write an integer in the application byte order (big endian) to 
+	 * a stream, without allocating a buffer
+	 * 
+	 * @param intValue
+	 * @param outputStream
+	 * @throws IOException
+	 */
+	public static void writeIntToStream(final int intValue, final OutputStream outputStream) 
+			throws IOException {
+		
+		outputStream.write(intValue >>> 24);
+		outputStream.write(intValue >>> 16);
+		outputStream.write(intValue >>> 8);
+		outputStream.write(intValue);
+	}
+	
 	/**
 	 * Encode a short into a byte buffer
 	 * @param shortValue
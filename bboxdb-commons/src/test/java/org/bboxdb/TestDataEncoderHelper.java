@@ -18,6 +18,7 @@
 package org.bboxdb;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.IOException;
@@ -87,6 +88,10 @@ public class TestDataEncoderHelper {
 		final DataInput dis = new DataInputStream(new ByteArrayInputStream(byteValue.array()));
 		final int dataInputInt = DataEncoderHelper.readIntFromDataInput(dis);
 		Assert.assertEquals(intValue, dataInputInt);
+		
+		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		DataEncoderHelper.writeIntToStream(intValue, byteArrayOutputStream);
+		Assert.assertArrayEquals(byteValue.array(), byteArrayOutputStream.toByteArray());
 	}
 	
 	@Test(timeout=60000)
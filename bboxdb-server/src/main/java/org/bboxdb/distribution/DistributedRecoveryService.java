@@ -24,6 +24,7 @@ import org.bboxdb.commons.RejectedException;
 import org.bboxdb.distribution.membership.BBoxDBInstance;
 import org.bboxdb.distribution.membership.BBoxDBInstanceState;
 import org.bboxdb.distribution.membership.MembershipConnectionService;
+import org.bboxdb.distribution.membership.MembershipConnectionService.TrafficClass;
 import org.bboxdb.distribution.membership.ZookeeperBBoxDBInstanceAdapter;
 import org.bboxdb.distribution.partitioner.SpacePartitioner;
 import org.bboxdb.distribution.partitioner.SpacePartitionerCache;
@@ -190,7 +191,7 @@ public class DistributedRecoveryService implements BBoxDBService {
 			final BBoxDBInstance newestInstance = outdatedDistributionRegion.getNewestInstance();
 			
 			final BBoxDBConnection connection = MembershipConnectionService.getInstance()
-					.getConnectionForInstance(newestInstance);
+					.getConnectionForInstance(newestInstance, TrafficClass.BULK);
 			
 			if(connection == null) {
 				logger.error("Unable to get connection for {}", newestInstance.getInetSocketAddress());
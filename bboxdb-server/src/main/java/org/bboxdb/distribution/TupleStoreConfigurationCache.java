@@ -26,6 +26,7 @@ import org.bboxdb.commons.DuplicateResolver;
 import org.bboxdb.distribution.zookeeper.TupleStoreAdapter;
 import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
 import org.bboxdb.distribution.zookeeper.ZookeeperException;
+import org.bboxdb.storage.entity.GeometryEncoding;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreConfiguration;
 import org.bboxdb.storage.entity.TupleStoreName;
@@ -50,6 +51,11 @@ public class TupleStoreConfigurationCache {
 	 */
 	protected final Map<String, DuplicateResolver<Tuple>> cache;
 	
+	/**
+	 * The geometry encoding cache
+	 */
+	protected final Map<String, GeometryEncoding> geometryEncodingCache;
+	
 	/**
 	 * The tuple store name cache
 	 */
@@ -79,6 +85,7 @@ public class TupleStoreConfigurationCache {
 	private TupleStoreConfigurationCache() {
 		// private singleton constructor
 		cache = new HashMap<>();
+		geometryEncodingCache = new HashMap<>();
 	}
 	
 	@Override
@@ -127,6 +134,36 @@ public class TupleStoreConfigurationCache {
 		return duplicateResolver;
 	}
 	
+	/**
+	 * Get the geometry encoding of the tuple store
+	 * @param tupleStorename
+	 * @return the encoding or null if the configuration could not be read
+	 */
+	public synchronized GeometryEncoding getGeometryEncodingForTupleStore(final String tupleStorename) {
+		
+		if(!geometryEncodingCache.containsKey(tupleStorename)) {
+			try {
+				final TupleStoreAdapter tupleStoreAdapter = ZookeeperClientFactory
+						.getZookeeperClient().getTupleStoreAdapter();
+				
+				final TupleStoreName tupleStoreNameObject = new TupleStoreName(tupleStorename);
+
+				if(! tupleStoreAdapter.isTableKnown(tupleStoreNameObject)) {
+					logger.error("Table {} is not known, unable to get geometry encoding", tupleStorename);
+					return null;
+				}
+				
+				final TupleStoreConfiguration tupleStoreConfiguration = tupleStoreAdapter.readTuplestoreConfiguration(tupleStoreNameObject);
+				geometryEncodingCache.put(tupleStorename, tupleStoreConfiguration.getGeometryEncoding());
+			} catch (ZookeeperException e) {
+				logger.error("Exception while reading zookeeper data", e);
+				return null;
+			}
+		}
+		
+		return geometryEncodingCache.get(tupleStorename);
+	}
+	
 	/**
 	 * Is the tuple store known
 	 * @param tupleStoreName
@@ -145,6 +182,7 @@ public class TupleStoreConfigurationCache {
 	 */
 	public synchronized void clear() {
 		cache.clear();
+		geometryEncodingCache.clear();
 	}
 
 }
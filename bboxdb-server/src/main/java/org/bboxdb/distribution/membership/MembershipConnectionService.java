@@ -27,6 +27,8 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 
+import org.bboxdb.misc.BBoxDBConfiguration;
+import org.bboxdb.misc.BBoxDBConfigurationManager;
 import org.bboxdb.misc.BBoxDBService;
 import org.bboxdb.network.client.BBoxDBClient;
 import org.bboxdb.network.client.connection.BBoxDBConnection;
@@ -41,6 +43,11 @@ public class MembershipConnectionService implements BBoxDBService {
 		LAZY;
 	}
 	
+	public enum TrafficClass {
+		LATENCY_SENSITIVE,
+		BULK;
+	}
+	
 	/**
 	 * The create connection strategy
 	 */
@@ -49,7 +56,17 @@ public class MembershipConnectionService implements BBoxDBService {
 	/**
 	 * The server connections
 	 */
-	private final Map<InetSocketAddress, BBoxDBConnection> serverConnections;
+	private final Map<InetSocketAddress, PeerConnectionPool> serverConnections;
+	
+	/**
+	 * The amount of connections per instance for latency sensitive traffic
+	 */
+	private final int latencyConnectionsPerInstance;
+	
+	/**
+	 * The amount of connections per instance for bulk traffic
+	 */
+	private final int bulkConnectionsPerInstance;
 
 	/**
 	 * The known instances
@@ -71,6 +88,11 @@ public class MembershipConnectionService implements BBoxDBService {
 	 */
 	private short tuplesPerPage;
 
+	/**
+	 * Request the profile of the executed queries
+	 */
+	private boolean queryProfilingEnabled;
+
 	/**
 	 * The tuple store manager registry (used for gossip, between server<->server connections)
 	 */
@@ -97,7 +119,12 @@ public class MembershipConnectionService implements BBoxDBService {
 		this.knownInstances = new ConcurrentHashMap<>();
 		this.pagingEnabled = false;
 		this.tuplesPerPage = 0;
+		this.queryProfilingEnabled = false;
 		this.blacklist = new HashSet<>();
+		
+		final BBoxDBConfiguration configuration = BBoxDBConfigurationManager.getConfiguration();
+		this.latencyConnectionsPerInstance = configuration.getPeerConnections();
+		this.bulkConnectionsPerInstance = configuration.getPeerBulkConnections();
 	}
 
 	/**
@@ -174,11 +201,11 @@ public class MembershipConnectionService implements BBoxDBService {
 
 		// Close all connections
 		synchronized (serverConnections) {
-			for(final Entry<InetSocketAddress, BBoxDBConnection> entry : serverConnections.entrySet()) {
+			for(final Entry<InetSocketAddress, PeerConnectionPool> entry : serverConnections.entrySet()) {
 				final InetSocketAddress instance = entry.getKey();
-				final BBoxDBConnection client = entry.getValue();
-				logger.info("Closing connection to server: {}", instance);
-				client.disconnect();
+				final PeerConnectionPool connectionPool = entry.getValue();
+				logger.info("Closing connections to server: {}", instance);
+				connectionPool.disconnect();
 			}
 
 			serverConnections.clear();
@@ -230,18 +257,16 @@ public class MembershipConnectionService implements BBoxDBService {
 			return;
 		}
 
-		final BBoxDBConnection connection = new BBoxDBConnection(distributedInstance.getInetSocketAddress());
-		final BBoxDBClient client = connection.getBboxDBClient();
-
-		client.setPagingEnabled(pagingEnabled);
-		client.setTuplesPerPage(tuplesPerPage);
-		client.setTupleStoreManagerRegistry(tupleStoreManagerRegistry);
+		final PeerConnectionPool connectionPool = new PeerConnectionPool(
+				distributedInstance.getInetSocketAddress(), latencyConnectionsPerInstance, 
+				bulkConnectionsPerInstance, () -> createConnection(distributedInstance.getInetSocketAddress()));
 		
 		if(connectionStrategy == ConnectionStrategy.DIRECT) {
-			final boolean connectResult = connection.openNetworkConnection();
+			final boolean connectResult = connectionPool.openConnections();
 			
 			if(! connectResult) {
 				logger.error("Unable to create connection to {}", instanceName);
+				connectionPool.terminateConnections();
 				return;
 			} else {
 				logger.info("Opened a connection to {}", instanceName);
@@ -249,10 +274,27 @@ public class MembershipConnectionService implements BBoxDBService {
 		}
 		
 		logger.info("Connection successfully registered: {}", instanceName);
-		serverConnections.put(distributedInstance.getInetSocketAddress(), connection);
+		serverConnections.put(distributedInstance.getInetSocketAddress(), connectionPool);
 		knownInstances.put(distributedInstance.getInetSocketAddress(), distributedInstance);
 	}
 
+	/**
+	 * Create a new connection with the settings of the service
+	 * @param address
+	 * @return
+	 */
+	private BBoxDBConnection createConnection(final InetSocketAddress address) {
+		final BBoxDBConnection connection = new BBoxDBConnection(address);
+		final BBoxDBClient client = connection.getBboxDBClient();
+
+		client.setPagingEnabled(pagingEnabled);
+		client.setTuplesPerPage(tuplesPerPage);
+		client.setQueryProfilingEnabled(queryProfilingEnabled);
+		client.setTupleStoreManagerRegistry(tupleStoreManagerRegistry);
+		
+		return connection;
+	}
+
 	/**
 	 * Terminate the connection to a missing bboxdb system
 	 * @param distributedInstance
@@ -268,21 +310,49 @@ public class MembershipConnectionService implements BBoxDBService {
 		logger.info("Closing connection to dead instance: {}", instanceName);
 
 		knownInstances.remove(distributedInstance.getInetSocketAddress());
-		final BBoxDBConnection connection = serverConnections.remove(distributedInstance.getInetSocketAddress());
-		connection.terminateConnection();
+		final PeerConnectionPool connectionPool = serverConnections.remove(distributedInstance.getInetSocketAddress());
+		connectionPool.terminateConnections();
 	}
 
 	/**
-	 * Get the connection for the instance
+	 * Get the primary connection for the instance. The connection is the same for all 
+	 * calls, so it has to be used for operations that depend on the state of the 
+	 * connection on the server (e.g., locks).
+	 * 
 	 * @param instance
 	 * @return
 	 */
 	public BBoxDBConnection getConnectionForInstance(final BBoxDBInstance instance) {
-		return serverConnections.get(instance.getInetSocketAddress());
+		final PeerConnectionPool connectionPool = serverConnections.get(instance.getInetSocketAddress());
+		
+		if(connectionPool == null) {
+			return null;
+		}
+		
+		return connectionPool.getPrimaryConnection();
+	}
+	
+	/**
+	 * Get the least loaded connection of the traffic class for the instance
+	 * 
+	 * @param instance
+	 * @param trafficClass
+	 * @return
+	 */
+	public BBoxDBConnection getConnectionForInstance(final BBoxDBInstance instance, 
+			final TrafficClass trafficClass) {
+		
+		final PeerConnectionPool connectionPool = serverConnections.get(instance.getInetSocketAddress());
+		
+		if(connectionPool == null) {
+			return null;
+		}
+		
+		return connectionPool.getConnection(trafficClass);
 	}
 
 	/**
-	 * Return the number of connections
+	 * Return the number of instances with connections
 	 * @return
 	 */
 	public int getNumberOfConnections() {
@@ -294,7 +364,9 @@ public class MembershipConnectionService implements BBoxDBService {
 	 * @return
 	 */
 	public List<BBoxDBConnection> getAllConnections() {
-		return new ArrayList<>(serverConnections.values());
+		final List<BBoxDBConnection> connections = new ArrayList<>();
+		serverConnections.values().forEach(p -> connections.addAll(p.getAllConnections()));
+		return connections;
 	}
 
 	/**
@@ -305,6 +377,23 @@ public class MembershipConnectionService implements BBoxDBService {
 		return new ArrayList<>(knownInstances.values());
 	}
 
+	/**
+	 * Get the known instance for the given address
+	 * @param address
+	 * @return the instance or null if the instance is unknown
+	 */
+	public BBoxDBInstance getKnownInstance(final InetSocketAddress address) {
+		return knownInstances.get(address);
+	}
+
+	/**
+	 * Are instances known (false for a direct connection without the membership service)
+	 * @return
+	 */
+	public boolean hasKnownInstances() {
+		return ! knownInstances.isEmpty();
+	}
+
 	/**
 	 * Is the paging for queries enables
 	 * @return
@@ -319,7 +408,7 @@ public class MembershipConnectionService implements BBoxDBService {
 	 */
 	public void setPagingEnabled(final boolean pagingEnabled) {
 		this.pagingEnabled = pagingEnabled;
-		serverConnections.values().forEach(c -> c.getBboxDBClient().setPagingEnabled(pagingEnabled));
+		getAllConnections().forEach(c -> c.getBboxDBClient().setPagingEnabled(pagingEnabled));
 	}
 
 	/**
@@ -336,7 +425,24 @@ public class MembershipConnectionService implements BBoxDBService {
 	 */
 	public void setTuplesPerPage(final short tuplesPerPage) {
 		this.tuplesPerPage = tuplesPerPage;
-		serverConnections.values().forEach(c -> c.getBboxDBClient().setTuplesPerPage(tuplesPerPage));
+		getAllConnections().forEach(c -> c.getBboxDBClient().setTuplesPerPage(tuplesPerPage));
+	}
+
+	/**
+	 * Is the profiling for queries enabled
+	 * @return
+	 */
+	public boolean isQueryProfilingEnabled() {
+		return queryProfilingEnabled;
+	}
+
+	/**
+	 * Enable or disable the profiling of queries
+	 * @param queryProfilingEnabled
+	 */
+	public void setQueryProfilingEnabled(final boolean queryProfilingEnabled) {
+		this.queryProfilingEnabled = queryProfilingEnabled;
+		getAllConnections().forEach(c -> c.getBboxDBClient().setQueryProfilingEnabled(queryProfilingEnabled));
 	}
 
 	/**
@@ -0,0 +1,245 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.distribution.membership;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.bboxdb.distribution.membership.MembershipConnectionService.TrafficClass;
+import org.bboxdb.network.client.connection.BBoxDBConnection;
+
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+
+/**
+ * The connections to one BBoxDB instance. The connections are separated by traffic 
+ * class, so large bulk transfers (e.g., redistribution) do not block latency 
+ * sensitive packages (e.g., routed inserts) in the same socket.
+ */
+public class PeerConnectionPool {
+
+	/**
+	 * The address of the peer
+	 */
+	private final InetSocketAddress peerAddress;
+	
+	/**
+	 * The connections per traffic class
+	 */
+	private final Map<TrafficClass, List<BBoxDBConnection>> connections;
+	
+	/**
+	 * The selected connections
+	 */
+	private final static Counter connectionSelectionsTotal = Counter.build()
+			.name("bboxdb_peer_connection_selections_total")
+			.help("Total amount of selections of a peer connection")
+			.labelNames("peer", "class", "connection").register();
+	
+	/**
+	 * The in flight calls of the connections
+	 */
+	private final static Gauge connectionInFlightCalls = Gauge.build()
+			.name("bboxdb_peer_connection_in_flight_calls")
+			.help("The in flight calls of a peer connection (updated on selection)")
+			.labelNames("peer", "class", "connection").register();
+
+	/**
+	 * @param peerAddress
+	 * @param latencyConnections - the amount of connections for latency sensitive traffic (min 1)
+	 * @param bulkConnections - the amount of connections for bulk traffic, 0 to share the 
+	 *                          latency sensitive connections
+	 * @param connectionSupplier
+	 */
+	public PeerConnectionPool(final InetSocketAddress peerAddress, final int latencyConnections, 
+			final int bulkConnections, final Supplier<BBoxDBConnection> connectionSupplier) {
+		
+		this.peerAddress = peerAddress;
+		this.connections = new EnumMap<>(TrafficClass.class);
+		
+		final List<BBoxDBConnection> latencyConnectionList = createConnections(
+				Math.max(1, latencyConnections), connectionSupplier);
+		
+		connections.put(TrafficClass.LATENCY_SENSITIVE, latencyConnectionList);
+		
+		if(bulkConnections > 0) {
+			connections.put(TrafficClass.BULK, createConnections(bulkConnections, connectionSupplier));
+		} else {
+			connections.put(TrafficClass.BULK, latencyConnectionList);
+		}
+	}
+
+	/**
+	 * Create the given amount of connections
+	 * @param amount
+	 * @param connectionSupplier
+	 * @return
+	 */
+	private List<BBoxDBConnection> createConnections(final int amount, 
+			final Supplier<BBoxDBConnection> connectionSupplier) {
+		
+		final List<BBoxDBConnection> result = new ArrayList<>(amount);
+		
+		for(int i = 0; i < amount; i++) {
+			result.add(connectionSupplier.get());
+		}
+		
+		return Collections.unmodifiableList(result);
+	}
+	
+	/**
+	 * Get the primary connection. The connection is used for all operations 
+	 * that depend on the state of a connection on the server (e.g., locks, 
+	 * continuous queries).
+	 * 
+	 * @return
+	 */
+	public BBoxDBConnection getPrimaryConnection() {
+		return connections.get(TrafficClass.LATENCY_SENSITIVE).get(0);
+	}
+	
+	/**
+	 * Get the least loaded connection of the traffic class
+	 * @param trafficClass
+	 * @return
+	 */
+	public BBoxDBConnection getConnection(final TrafficClass trafficClass) {
+		final List<BBoxDBConnection> classConnections = connections.get(trafficClass);
+		
+		int selectedConnection = 0;
+		int selectedInFlightCalls = classConnections.get(0).getInFlightCalls();
+		
+		for(int i = 1; i < classConnections.size() && selectedInFlightCalls > 0; i++) {
+			final int inFlightCalls = classConnections.get(i).getInFlightCalls();
+			
+			if(inFlightCalls < selectedInFlightCalls) {
+				selectedConnection = i;
+				selectedInFlightCalls = inFlightCalls;
+			}
+		}
+		
+		final String[] labels = getLabels(trafficClass, selectedConnection);
+		connectionSelectionsTotal.labels(labels).inc();
+		connectionInFlightCalls.labels(labels).set(selectedInFlightCalls);
+		
+		return classConnections.get(selectedConnection);
+	}
+	
+	/**
+	 * Get the labels of the performance counter
+	 * @param trafficClass
+	 * @param connection
+	 * @return
+	 */
+	private String[] getLabels(final TrafficClass trafficClass, final int connection) {
+		return new String[] {peerAddress.toString(), trafficClass.name().toLowerCase(), 
+				Integer.toString(connection)};
+	}
+	
+	/**
+	 * Get all connections of the pool
+	 * @return
+	 */
+	public List<BBoxDBConnection> getAllConnections() {
+		final List<BBoxDBConnection> result = new ArrayList<>(connections.get(TrafficClass.LATENCY_SENSITIVE));
+		
+		if(connections.get(TrafficClass.BULK) != connections.get(TrafficClass.LATENCY_SENSITIVE)) {
+			result.addAll(connections.get(TrafficClass.BULK));
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Open all connections of the pool
+	 * @return true if all connections could be opened
+	 */
+	public boolean openConnections() {
+		for(final BBoxDBConnection connection : getAllConnections()) {
+			if(! connection.openNetworkConnection()) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Disconnect all connections of the pool
+	 */
+	public void disconnect() {
+		getAllConnections().forEach(c -> c.disconnect());
+		removePerformanceCounter();
+	}
+	
+	/**
+	 * Terminate all connections of the pool
+	 */
+	public void terminateConnections() {
+		for(final BBoxDBConnection connection : getAllConnections()) {
+			// Lazy connection, never opened
+			if(connection.getConnectionState().isInNewState()) {
+				continue;
+			}
+			
+			connection.terminateConnection();
+		}
+		
+		removePerformanceCounter();
+	}
+
+	/**
+	 * Remove the performance counter of the connections
+	 */
+	private void removePerformanceCounter() {
+		for(final TrafficClass trafficClass : TrafficClass.values()) {
+			for(int i = 0; i < connections.get(trafficClass).size(); i++) {
+				final String[] labels = getLabels(trafficClass, i);
+				connectionSelectionsTotal.remove(labels);
+				connectionInFlightCalls.remove(labels);
+			}
+		}
+	}
+	
+	/**
+	 * Get the amount of connections of the traffic class
+	 * @param trafficClass
+	 * @return
+	 */
+	public int getNumberOfConnections(final TrafficClass trafficClass) {
+		return connections.get(trafficClass).size();
+	}
+	
+	/**
+	 * Get the address of the peer
+	 * @return
+	 */
+	public InetSocketAddress getPeerAddress() {
+		return peerAddress;
+	}
+
+	@Override
+	public String toString() {
+		return "PeerConnectionPool [peerAddress=" + peerAddress + ", connections=" + connections + "]";
+	}
+}
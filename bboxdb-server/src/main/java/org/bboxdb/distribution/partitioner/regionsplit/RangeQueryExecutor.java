@@ -26,6 +26,7 @@ import java.util.function.Consumer;
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.distribution.membership.BBoxDBInstance;
 import org.bboxdb.distribution.membership.MembershipConnectionService;
+import org.bboxdb.distribution.membership.MembershipConnectionService.TrafficClass;
 import org.bboxdb.distribution.partitioner.SpacePartitioner;
 import org.bboxdb.distribution.partitioner.SpacePartitionerCache;
 import org.bboxdb.distribution.region.DistributionRegion;
@@ -250,7 +251,7 @@ public class RangeQueryExecutor {
 		final BBoxDBInstance firstSystem = systems.get(0);
 
 		final BBoxDBConnection connection = MembershipConnectionService.getInstance()
-				.getConnectionForInstance(firstSystem);
+				.getConnectionForInstance(firstSystem, TrafficClass.BULK);
 
 		assert (connection != null) : "Connection can not be null: " + firstSystem.getStringValue();
 
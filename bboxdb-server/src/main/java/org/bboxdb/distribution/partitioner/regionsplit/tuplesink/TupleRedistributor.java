@@ -26,6 +26,7 @@ import java.util.Map.Entry;
 
 import org.bboxdb.distribution.membership.BBoxDBInstance;
 import org.bboxdb.distribution.membership.MembershipConnectionService;
+import org.bboxdb.distribution.membership.MembershipConnectionService.TrafficClass;
 import org.bboxdb.distribution.region.DistributionRegion;
 import org.bboxdb.distribution.zookeeper.TupleStoreAdapter;
 import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
@@ -135,7 +136,8 @@ public class TupleRedistributor {
 				sinks.add(tupleSink);
 				logger.info("Redistributing data to local table {}", localTableName.getFullname());
 			} else {
-				final BBoxDBConnection connection = membershipConnectionService.getConnectionForInstance(instance);				
+				final BBoxDBConnection connection = membershipConnectionService
+					.getConnectionForInstance(instance, TrafficClass.BULK);				
 				final NetworkTupleSink tupleSink = new NetworkTupleSink(tupleStoreName, connection);
 				sinks.add(tupleSink);
 				logger.info("Redistributing data to remote system {}", instance.getInetSocketAddress());
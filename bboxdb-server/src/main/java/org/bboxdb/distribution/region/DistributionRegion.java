@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 
 import org.bboxdb.commons.math.Hyperrectangle;
@@ -67,6 +68,12 @@ public class DistributionRegion {
 	 */
 	private final long regionid;
 
+	/**
+	 * The version of the tree, only maintained by the root element.
+	 * Incremented on every change of the tree.
+	 */
+	private final AtomicLong treeVersion;
+
 	/**
 	 * The root pointer of the root element of the tree
 	 */
@@ -94,6 +101,7 @@ public class DistributionRegion {
 		this.regionid = regionid;
 		this.systems = new ArrayList<>();
 		this.children = new ConcurrentHashMap<>();
+		this.treeVersion = new AtomicLong(0);
 	}
 
 	/**
@@ -182,6 +190,7 @@ public class DistributionRegion {
 	 */
 	public void merge() {
 		children.clear();
+		treeChanged();
 	}
 
 	/**
@@ -198,6 +207,7 @@ public class DistributionRegion {
 	 */
 	public void setState(final DistributionRegionState state) {
 		this.state = state;
+		treeChanged();
 	}
 
 	/**
@@ -280,6 +290,7 @@ public class DistributionRegion {
 		}
 
 		children.put(childNumber, newChild);
+		treeChanged();
 	}
 
 	/**
@@ -312,6 +323,7 @@ public class DistributionRegion {
 	 */
 	public void removeAllChildren() {
 		children.clear();
+		treeChanged();
 	}
 
 	/**
@@ -319,7 +331,9 @@ public class DistributionRegion {
 	 * @return
 	 */
 	public DistributionRegion removeChildren(final long childrenNumber) {
-		return children.remove(childrenNumber);
+		final DistributionRegion removedChild = children.remove(childrenNumber);
+		treeChanged();
+		return removedChild;
 	}
 
 	/**
@@ -385,6 +399,7 @@ public class DistributionRegion {
 	 */
 	public void addSystem(final BBoxDBInstance system) {
 		systems.add(system);
+		treeChanged();
 	}
 
 	/**
@@ -395,6 +410,7 @@ public class DistributionRegion {
 
 		if(newSystems == null || newSystems.isEmpty()) {
 			systems.clear();
+			treeChanged();
 			return;
 		}
 
@@ -403,6 +419,24 @@ public class DistributionRegion {
 
 		// Replace systems atomically
 		this.systems = newSystemsList;
+		treeChanged();
+	}
+
+	/**
+	 * Increment the version of the tree
+	 */
+	private void treeChanged() {
+		getRootRegion().treeVersion.incrementAndGet();
+	}
+
+	/**
+	 * Get the version of the tree. The version changes on every modification of a
+	 * region of the tree (e.g., state, systems, children), so it can be used to
+	 * detect outdated data that is derived from the tree.
+	 * @return
+	 */
+	public long getTreeVersion() {
+		return getRootRegion().treeVersion.get();
 	}
 
 	/**
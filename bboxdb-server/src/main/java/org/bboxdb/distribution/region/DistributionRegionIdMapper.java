@@ -26,12 +26,15 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.misc.Const;
 import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.sstable.spatialindex.UpdatableSpatialIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,6 +47,21 @@ public class DistributionRegionIdMapper {
 	 */
 	private final Map<Long, Hyperrectangle> regions;
 	
+	/**
+	 * The spatial index over the spaces of the regions (region id, region id)
+	 */
+	private final UpdatableSpatialIndex<Long, Long> regionIndex;
+	
+	/**
+	 * The regions that cover the full space (not contained in the spatial index)
+	 */
+	private final Set<Long> fullSpaceRegions;
+	
+	/**
+	 * The lock for the mappings and the index
+	 */
+	private final ReadWriteLock lock;
+	
 	/**
 	 * The distribution group name
 	 */
@@ -62,6 +80,9 @@ public class DistributionRegionIdMapper {
 	public DistributionRegionIdMapper(final String distributionGroup) {		
 		this.distributionGroup = distributionGroup;
 		this.regions = new ConcurrentHashMap<>();
+		this.regionIndex = new UpdatableSpatialIndex<>();
+		this.fullSpaceRegions = new HashSet<>();
+		this.lock = new ReentrantReadWriteLock();
 		this.MUTEX = new Object();
 	}
 	
@@ -69,11 +90,16 @@ public class DistributionRegionIdMapper {
 	 * Search the region ids that are overlapped by the bounding box
 	 */
 	public Set<Long> getRegionIdsForRegion(final Hyperrectangle region) {
-		return regions.entrySet()
-			.stream()
-			.filter(e -> e.getValue().intersects(region))
-			.map(e -> e.getKey())
-			.collect(Collectors.toSet());
+		
+		lock.readLock().lock();
+		
+		try {
+			final Set<Long> result = new HashSet<>(regionIndex.getValuesForRegion(region));
+			result.addAll(fullSpaceRegions);
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
 	}
 	
 	/**
@@ -168,17 +194,30 @@ public class DistributionRegionIdMapper {
 	 * @param boundingBox
 	 */
 	public boolean addMapping(final long regionId, final Hyperrectangle boundingBox) {
+		
+		lock.writeLock().lock();
+		
+		try {
+			if(regions.containsKey(regionId)) {
+				logger.debug("Mapping for region {} / {} already exists, ignoring", 
+						regionId, distributionGroup);
 				
-		if(regions.containsKey(regionId)) {
-			logger.debug("Mapping for region {} / {} already exists, ignoring", 
-					regionId, distributionGroup);
+				return false;
+			}
+			
+			logger.info("Add local mapping for: {} / {}", regionId, distributionGroup);
 			
-			return false;
+			regions.put(regionId, boundingBox);
+			
+			// The covering box of the R-tree nodes ignores the full space
+			if(boundingBox.getDimension() == 0) {
+				fullSpaceRegions.add(regionId);
+			} else {
+				regionIndex.put(regionId, boundingBox, regionId);
+			}
+		} finally {
+			lock.writeLock().unlock();
 		}
-		
-		logger.info("Add local mapping for: {} / {}", regionId, distributionGroup);
-		
-		regions.put(regionId, boundingBox);
 			
 		synchronized (MUTEX) {
 			MUTEX.notifyAll();
@@ -193,8 +232,17 @@ public class DistributionRegionIdMapper {
 	 */
 	public boolean removeMapping(final long regionId) {
 		
-		final boolean removed = regions.containsKey(regionId);
-		regions.remove(regionId);
+		boolean removed = false;
+		
+		lock.writeLock().lock();
+		
+		try {
+			removed = (regions.remove(regionId) != null);
+			regionIndex.remove(regionId);
+			fullSpaceRegions.remove(regionId);
+		} finally {
+			lock.writeLock().unlock();
+		}
 		
 		if(removed) {
 			logger.info("Mapping for region id {} / {} removed", regionId, distributionGroup);
@@ -213,7 +261,15 @@ public class DistributionRegionIdMapper {
 	public void clear() {
 		logger.info("Clear all local mappings in {}", distributionGroup);
 		
-		regions.clear();
+		lock.writeLock().lock();
+		
+		try {
+			regions.clear();
+			regionIndex.clear();
+			fullSpaceRegions.clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
 		
 		synchronized (MUTEX) {
 			MUTEX.notifyAll();
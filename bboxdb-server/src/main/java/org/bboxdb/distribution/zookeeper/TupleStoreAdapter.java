@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.zookeeper.Watcher;
+import org.bboxdb.storage.entity.GeometryEncoding;
 import org.bboxdb.storage.entity.TupleStoreConfiguration;
 import org.bboxdb.storage.entity.TupleStoreName;
 import org.slf4j.Logger;
@@ -52,6 +53,11 @@ public class TupleStoreAdapter {
 	 * The duplicate ttl
 	 */
 	public static final String ZOOKEEPER_DUPLICATES_TTL = "duplicate_ttl";
+	
+	/**
+	 * The geometry encoding
+	 */
+	public static final String ZOOKEEPER_GEOMETRY_ENCODING = "geometry_encoding";
 
 	/**
 	 * The zookeeper client
@@ -108,6 +114,11 @@ public class TupleStoreAdapter {
 		zookeeperClient.createPersistentNode(getDuplicateVersionsPath(tupleStoreName), 
 				versionsString.getBytes());
 		
+		final GeometryEncoding geometryEncoding = tupleStoreConfiguration.getGeometryEncoding();
+		final String geometryEncodingString = geometryEncoding.getEncodingString();
+		zookeeperClient.createPersistentNode(getGeometryEncodingPath(tupleStoreName), 
+				geometryEncodingString.getBytes());
+		
 		NodeMutationHelper.markNodeMutationAsComplete(zookeeperClient, tablePath);
 		
 		final String allTablesPath = getAllTablesPath(tupleStoreName.getDistributionGroup());
@@ -227,6 +238,14 @@ public class TupleStoreAdapter {
 			
 			final Integer duplicateVersionsInteger = Integer.parseInt(duplicateVersions);
 			tupleStoreConfiguration.setVersions(duplicateVersionsInteger);
+			
+			// Tables created by older versions don't have a geometry encoding node
+			final String geometryEncodingPath = getGeometryEncodingPath(tupleStoreName);
+			
+			if(zookeeperClient.exists(geometryEncodingPath)) {
+				final String geometryEncoding = zookeeperClient.readPathAndReturnString(geometryEncodingPath);
+				tupleStoreConfiguration.setGeometryEncoding(GeometryEncoding.fromString(geometryEncoding));
+			}
 		} catch (ZookeeperNotFoundException | NumberFormatException e) {
 			throw new ZookeeperException(e);
 		}
@@ -257,6 +276,16 @@ public class TupleStoreAdapter {
 		NodeMutationHelper.markNodeMutationAsComplete(zookeeperClient, allTablesPath);
 	}
 
+	/**
+	 * The geometry encoding path
+	 * @param tupleStoreName
+	 * @return
+	 */
+	private String getGeometryEncodingPath(final TupleStoreName tupleStoreName) {
+		final String tablePath = getTablePath(tupleStoreName);
+		return tablePath + "/" + ZOOKEEPER_GEOMETRY_ENCODING;
+	}
+
 	/**
 	 * The duplicate versions path
 	 * @param tupleStoreName
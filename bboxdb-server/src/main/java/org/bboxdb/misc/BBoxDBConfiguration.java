@@ -21,6 +21,7 @@ import java.net.SocketException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.bboxdb.commons.NetworkInterfaceHelper;
 import org.slf4j.Logger;
@@ -77,15 +78,55 @@ public class BBoxDBConfiguration {
 	 */
 	private boolean storageWriteAheadLog = false;
 	
+	/**
+	 * The threads that execute the insert callbacks (0 = one per core)
+	 */
+	private int insertCallbackThreads = 0;
+	
+	/**
+	 * The queue size per insert callback thread
+	 */
+	private int insertCallbackQueueSize = 1024;
+	
 	/**
 	 * The port for client requests
 	 */
 	private int networkListenPort = 50505;
 
 	/**
-	 *  The amount of threads to handle client connections
+	 *  The amount of threads to handle the requests of the client connections
 	 */
 	private int networkConnectionThreads = 25;
+
+	/**
+	 *  The amount of threads that perform the network IO (event loops)
+	 */
+	private int networkIOThreads = 2;
+
+	/**
+	 *  The amount of threads to execute queries and routed packages
+	 */
+	private int networkQueryThreads = 256;
+
+	/**
+	 *  The max amount of pooled network buffers per buffer size
+	 */
+	private int networkBufferPoolSize = 64;
+
+	/**
+	 *  Track the allocated bytes per network package type
+	 */
+	private boolean networkAllocationTracking = false;
+
+	/**
+	 *  The amount of connections per instance for latency sensitive traffic
+	 */
+	private int peerConnections = 1;
+
+	/**
+	 *  The amount of connections per instance for bulk traffic
+	 */
+	private int peerBulkConnections = 1;
 	
 	/**
 	 * The queue size for continuous clients
@@ -97,6 +138,49 @@ public class BBoxDBConfiguration {
 	 */
 	private boolean allowContinuousClientQueueDiscard = true;
 	
+	/**
+	 * Coalesce the pending results of continuous clients per key (latest wins)
+	 */
+	private boolean continuousClientCoalesceResults = false;
+	
+	/**
+	 * The max amount of tuples per result page of continuous clients
+	 */
+	private int continuousClientBatchSize = 1000;
+	
+	/**
+	 * The max time (in ms) before a result page of continuous clients is flushed
+	 */
+	private int continuousClientFlushInterval = 1000;
+	
+	/**
+	 * The max amount of tuples of a local join table that are kept in memory 
+	 * for continuous spatial joins (0 = disabled)
+	 */
+	private int continuousSpatialJoinCacheEntries = 0;
+	
+	/**
+	 * The max estimated size of the state of a continuous query in bytes (0 = unlimited)
+	 */
+	private long continuousQueryStateMaxBytes = 67108864;
+	
+	/**
+	 * The time (in seconds) after the not updated keys are removed from the 
+	 * state of a continuous query (0 = disabled)
+	 */
+	private int continuousQueryStateTTL = 0;
+	
+	/**
+	 * The unit of the version timestamps of the stream tuples and 
+	 * watermarks, used to apply the state TTL
+	 */
+	private String continuousQueryTimestampUnit = "MILLISECONDS";
+	
+	/**
+	 * The unit of the version timestamps as ENUM
+	 */
+	private TimeUnit continuousQueryTimestampUnitENUM = TimeUnit.MILLISECONDS;
+	
 	/**
 	 * The name of the cluster
 	 */
@@ -117,6 +201,21 @@ public class BBoxDBConfiguration {
 	 */
 	private int sstableKeyCacheEntries = 1000;
 	
+	/**
+	 * The number of parsed geometries that are cached for user defined filters
+	 */
+	private int udfGeometryCacheEntries = 10000;
+	
+	/**
+	 * The number of user defined filter instances that are cached (per class and custom data)
+	 */
+	private int udfInstanceCacheEntries = 1000;
+	
+	/**
+	 * The estimated selectivity above which a full scan is used instead of the spatial index
+	 */
+	private double queryFullScanSelectivity = 0.3;
+	
 	/**
 	 * The port where the performance counter will be exposed
 	 */
@@ -177,6 +276,54 @@ public class BBoxDBConfiguration {
 		this.networkConnectionThreads = networkConnectionThreads;
 	}
 
+	public int getNetworkIOThreads() {
+		return networkIOThreads;
+	}
+
+	public void setNetworkIOThreads(final int networkIOThreads) {
+		this.networkIOThreads = networkIOThreads;
+	}
+
+	public int getNetworkQueryThreads() {
+		return networkQueryThreads;
+	}
+
+	public void setNetworkQueryThreads(final int networkQueryThreads) {
+		this.networkQueryThreads = networkQueryThreads;
+	}
+
+	public int getNetworkBufferPoolSize() {
+		return networkBufferPoolSize;
+	}
+
+	public void setNetworkBufferPoolSize(final int networkBufferPoolSize) {
+		this.networkBufferPoolSize = networkBufferPoolSize;
+	}
+
+	public boolean isNetworkAllocationTracking() {
+		return networkAllocationTracking;
+	}
+
+	public void setNetworkAllocationTracking(final boolean networkAllocationTracking) {
+		this.networkAllocationTracking = networkAllocationTracking;
+	}
+
+	public int getPeerConnections() {
+		return peerConnections;
+	}
+
+	public void setPeerConnections(final int peerConnections) {
+		this.peerConnections = peerConnections;
+	}
+
+	public int getPeerBulkConnections() {
+		return peerBulkConnections;
+	}
+
+	public void setPeerBulkConnections(final int peerBulkConnections) {
+		this.peerBulkConnections = peerBulkConnections;
+	}
+
 	public String getClustername() {
 		return clustername;
 	}
@@ -249,6 +396,30 @@ public class BBoxDBConfiguration {
 		this.sstableKeyCacheEntries = sstableKeyCacheEntries;
 	}
 
+	public int getUdfGeometryCacheEntries() {
+		return udfGeometryCacheEntries;
+	}
+
+	public void setUdfGeometryCacheEntries(final int udfGeometryCacheEntries) {
+		this.udfGeometryCacheEntries = udfGeometryCacheEntries;
+	}
+
+	public int getUdfInstanceCacheEntries() {
+		return udfInstanceCacheEntries;
+	}
+
+	public void setUdfInstanceCacheEntries(final int udfInstanceCacheEntries) {
+		this.udfInstanceCacheEntries = udfInstanceCacheEntries;
+	}
+
+	public double getQueryFullScanSelectivity() {
+		return queryFullScanSelectivity;
+	}
+
+	public void setQueryFullScanSelectivity(final double queryFullScanSelectivity) {
+		this.queryFullScanSelectivity = queryFullScanSelectivity;
+	}
+
 	public int getPerformanceCounterPort() {
 		return performanceCounterPort;
 	}
@@ -265,6 +436,22 @@ public class BBoxDBConfiguration {
 		this.storageWriteAheadLog = storageWriteAheadLog;
 	}
 
+	public int getInsertCallbackThreads() {
+		return insertCallbackThreads;
+	}
+
+	public void setInsertCallbackThreads(final int insertCallbackThreads) {
+		this.insertCallbackThreads = insertCallbackThreads;
+	}
+
+	public int getInsertCallbackQueueSize() {
+		return insertCallbackQueueSize;
+	}
+
+	public void setInsertCallbackQueueSize(final int insertCallbackQueueSize) {
+		this.insertCallbackQueueSize = insertCallbackQueueSize;
+	}
+
 	public String getContinuousSpatialJoinFetchMode() {
 		return continuousSpatialJoinFetchMode;
 	}
@@ -298,5 +485,71 @@ public class BBoxDBConfiguration {
 	public void setAllowContinuousClientQueueDiscard(final boolean allowContinuousClientQueueDiscard) {
 		this.allowContinuousClientQueueDiscard = allowContinuousClientQueueDiscard;
 	}
+
+	public boolean isContinuousClientCoalesceResults() {
+		return continuousClientCoalesceResults;
+	}
+
+	public void setContinuousClientCoalesceResults(final boolean continuousClientCoalesceResults) {
+		this.continuousClientCoalesceResults = continuousClientCoalesceResults;
+	}
+
+	public int getContinuousClientBatchSize() {
+		return continuousClientBatchSize;
+	}
+
+	public void setContinuousClientBatchSize(final int continuousClientBatchSize) {
+		this.continuousClientBatchSize = continuousClientBatchSize;
+	}
+
+	public int getContinuousClientFlushInterval() {
+		return continuousClientFlushInterval;
+	}
+
+	public void setContinuousClientFlushInterval(final int continuousClientFlushInterval) {
+		this.continuousClientFlushInterval = continuousClientFlushInterval;
+	}
+
+	public int getContinuousSpatialJoinCacheEntries() {
+		return continuousSpatialJoinCacheEntries;
+	}
+
+	public void setContinuousSpatialJoinCacheEntries(final int continuousSpatialJoinCacheEntries) {
+		this.continuousSpatialJoinCacheEntries = continuousSpatialJoinCacheEntries;
+	}
+
+	public long getContinuousQueryStateMaxBytes() {
+		return continuousQueryStateMaxBytes;
+	}
+
+	public void setContinuousQueryStateMaxBytes(final long continuousQueryStateMaxBytes) {
+		this.continuousQueryStateMaxBytes = continuousQueryStateMaxBytes;
+	}
+
+	public int getContinuousQueryStateTTL() {
+		return continuousQueryStateTTL;
+	}
+
+	public void setContinuousQueryStateTTL(final int continuousQueryStateTTL) {
+		this.continuousQueryStateTTL = continuousQueryStateTTL;
+	}
+
+	public String getContinuousQueryTimestampUnit() {
+		return continuousQueryTimestampUnit;
+	}
+
+	public void setContinuousQueryTimestampUnit(final String continuousQueryTimestampUnit) {
+		this.continuousQueryTimestampUnit = continuousQueryTimestampUnit;
+		this.continuousQueryTimestampUnitENUM = TimeUnit.valueOf(continuousQueryTimestampUnit);
+	}
+
+	public TimeUnit getContinuousQueryTimestampUnitENUM() {
+		return continuousQueryTimestampUnitENUM;
+	}
+
+	public void setContinuousQueryTimestampUnitENUM(final TimeUnit continuousQueryTimestampUnitENUM) {
+		this.continuousQueryTimestampUnitENUM = continuousQueryTimestampUnitENUM;
+		this.continuousQueryTimestampUnit = continuousQueryTimestampUnitENUM.name();
+	}
 	
 }
@@ -0,0 +1,233 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network;
+
+import java.nio.ByteBuffer;
+
+import org.bboxdb.misc.BBoxDBConfigurationManager;
+import org.bboxdb.misc.Const;
+
+import io.prometheus.client.Counter;
+
+public class NetworkBufferPool {
+
+	/**
+	 * The instance
+	 */
+	private static NetworkBufferPool instance;
+
+	/**
+	 * The pooled buffers, one array backed stack per buffer size (2^n bytes). 
+	 * The stack is also the lock for the buffer size, so releasing a buffer 
+	 * does not allocate a queue node.
+	 */
+	private final ByteBuffer[][] pooledBuffers;
+
+	/**
+	 * The amount of pooled buffers per buffer size, guarded by the stack
+	 */
+	private final int[] pooledBufferCount;
+
+	/**
+	 * The smallest pooled buffer (2^8 = 256 bytes)
+	 */
+	private final static int MIN_BUFFER_SIZE_EXPONENT = 8;
+
+	/**
+	 * The largest pooled buffer (2^20 = 1 MiB), larger buffers are not pooled
+	 */
+	private final static int MAX_BUFFER_SIZE_EXPONENT = 20;
+
+	/**
+	 * The allocated buffers
+	 */
+	private final static Counter allocatedBuffersTotal = Counter.build()
+			.name("bboxdb_network_buffer_allocations_total")
+			.help("Total amount of allocated network buffers").register();
+
+	/**
+	 * The reused buffers
+	 */
+	private final static Counter reusedBuffersTotal = Counter.build()
+			.name("bboxdb_network_buffer_reuses_total")
+			.help("Total amount of reused network buffers").register();
+
+	static {
+		final int buffersPerSize = BBoxDBConfigurationManager.getConfiguration().getNetworkBufferPoolSize();
+		instance = new NetworkBufferPool(buffersPerSize);
+	}
+
+	private NetworkBufferPool(final int maxBuffersPerSize) {
+		// private singleton constructor
+		final int sizes = MAX_BUFFER_SIZE_EXPONENT - MIN_BUFFER_SIZE_EXPONENT + 1;
+		this.pooledBuffers = new ByteBuffer[sizes][Math.max(0, maxBuffersPerSize)];
+		this.pooledBufferCount = new int[sizes];
+	}
+
+	@Override
+	protected Object clone() throws CloneNotSupportedException {
+		throw new IllegalArgumentException("Unable to clone a singleton");
+	}
+
+	/**
+	 * Return the instance
+	 * @return
+	 */
+	public static NetworkBufferPool getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Get a buffer with at least the given capacity. The buffer uses the
+	 * application byte order, the position is 0 and the limit is the requested
+	 * capacity. The buffer has to be returned with release() after usage.
+	 *
+	 * @param capacity
+	 * @return
+	 */
+	public ByteBuffer acquire(final int capacity) {
+		final int sizeIndex = getSizeIndex(capacity);
+
+		if(sizeIndex < 0) {
+			allocatedBuffersTotal.inc();
+			return allocateBuffer(capacity, capacity);
+		}
+
+		final ByteBuffer pooledBuffer = pop(sizeIndex);
+
+		if(pooledBuffer == null) {
+			allocatedBuffersTotal.inc();
+			final int bufferSize = 1 << (sizeIndex + MIN_BUFFER_SIZE_EXPONENT);
+			return allocateBuffer(bufferSize, capacity);
+		}
+
+		reusedBuffersTotal.inc();
+
+		pooledBuffer.clear();
+		pooledBuffer.limit(capacity);
+		return pooledBuffer;
+	}
+
+	/**
+	 * Return the buffer to the pool. The buffer must not be used afterwards.
+	 *
+	 * @param buffer
+	 */
+	public void release(final ByteBuffer buffer) {
+		if(buffer == null || ! buffer.hasArray()) {
+			return;
+		}
+
+		final int sizeIndex = getSizeIndex(buffer.capacity());
+
+		// Not a buffer of the pool
+		if(sizeIndex < 0 || buffer.capacity() != 1 << (sizeIndex + MIN_BUFFER_SIZE_EXPONENT)) {
+			return;
+		}
+
+		final ByteBuffer[] stack = pooledBuffers[sizeIndex];
+
+		synchronized (stack) {
+			// Pool is full, the buffer is left to the garbage collector
+			if(pooledBufferCount[sizeIndex] >= stack.length) {
+				return;
+			}
+
+			stack[pooledBufferCount[sizeIndex]++] = buffer;
+		}
+	}
+
+	/**
+	 * Take a buffer from the stack of the given size
+	 * @param sizeIndex
+	 * @return the buffer or null if no buffer is pooled
+	 */
+	private ByteBuffer pop(final int sizeIndex) {
+		final ByteBuffer[] stack = pooledBuffers[sizeIndex];
+
+		synchronized (stack) {
+			if(pooledBufferCount[sizeIndex] == 0) {
+				return null;
+			}
+
+			final int position = --pooledBufferCount[sizeIndex];
+			final ByteBuffer buffer = stack[position];
+			stack[position] = null;
+			return buffer;
+		}
+	}
+
+	/**
+	 * Allocate a new buffer
+	 * @param bufferSize
+	 * @param limit
+	 * @return
+	 */
+	private ByteBuffer allocateBuffer(final int bufferSize, final int limit) {
+		final ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+		buffer.order(Const.APPLICATION_BYTE_ORDER);
+		buffer.limit(limit);
+		return buffer;
+	}
+
+	/**
+	 * Get the index of the smallest buffer size that can hold the capacity
+	 * @param capacity
+	 * @return the index or -1 if the buffer is too large to be pooled
+	 */
+	private static int getSizeIndex(final int capacity) {
+		if(capacity <= 1 << MIN_BUFFER_SIZE_EXPONENT) {
+			return 0;
+		}
+
+		final int exponent = 32 - Integer.numberOfLeadingZeros(capacity - 1);
+
+		if(exponent > MAX_BUFFER_SIZE_EXPONENT) {
+			return -1;
+		}
+
+		return exponent - MIN_BUFFER_SIZE_EXPONENT;
+	}
+
+	/**
+	 * Get the amount of pooled buffers
+	 * @return
+	 */
+	public int getPooledBuffers() {
+		int buffers = 0;
+
+		for(int i = 0; i < pooledBuffers.length; i++) {
+			synchronized (pooledBuffers[i]) {
+				buffers += pooledBufferCount[i];
+			}
+		}
+
+		return buffers;
+	}
+
+	/**
+	 * Remove all pooled buffers
+	 */
+	public void clear() {
+		for(int i = 0; i < pooledBuffers.length; i++) {
+			while(pop(i) != null) {
+				// Drain the stack
+			}
+		}
+	}
+}
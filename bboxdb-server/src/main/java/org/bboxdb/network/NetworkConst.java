@@ -19,10 +19,30 @@ package org.bboxdb.network;
 
 public class NetworkConst {
 	
+	/**
+	 * The first version of the network protocol (16 bit sequence numbers)
+	 */
+	public static final byte PROTOCOL_VERSION_1 = 0x01;
+	
+	/**
+	 * The second version of the network protocol (32 bit sequence numbers)
+	 */
+	public static final byte PROTOCOL_VERSION_2 = 0x02;
+	
 	/**
 	 * The version of the network protocol
 	 */
-	public static final byte PROTOCOL_VERSION = 0x01;
+	public static final byte PROTOCOL_VERSION = PROTOCOL_VERSION_2;
+	
+	/**
+	 * The length of the package header (sequence number, package type, body length)
+	 */
+	public static final int PACKAGE_HEADER_LENGTH = 14;
+	
+	/**
+	 * The length of the package header in protocol version 1
+	 */
+	public static final int PACKAGE_HEADER_LENGTH_V1 = 12;
 	
 	/**
 	 * Value of an unused byte
@@ -98,6 +118,11 @@ public class NetworkConst {
 	 * Request the continuous query state
 	 */
 	public static final short REQUEST_CONTINUOUS_QUERY_STATE = 0x14;
+
+	/**
+	 * Request type insert multiple tuples
+	 */
+	public static final short REQUEST_TYPE_INSERT_TUPLES = 0x15;
 	
 	/**
 	 * Query type key
@@ -134,6 +159,11 @@ public class NetworkConst {
 	 */
 	public static final byte REQUEST_QUERY_JOIN = 0x07;
 	
+	/**
+	 * Query type multiple keys
+	 */
+	public static final byte REQUEST_QUERY_MULTI_KEY = 0x08;
+	
 	/**
 	 * Response type hello
 	 */
@@ -194,12 +224,22 @@ public class NetworkConst {
 	 */
 	public static final short RESPONSE_CONTINUOUS_QUERY_STATE = 0x11;
 	
+	/**
+	 * The profile of an executed query
+	 */
+	public static final short RESPONSE_TYPE_QUERY_PROFILE = 0x12;
+	
 	
 	/**
 	 * The gzip compression type
 	 */
 	public final static byte COMPRESSION_TYPE_GZIP = 0x00;
 	
+	/**
+	 * The snappy compression type
+	 */
+	public final static byte COMPRESSION_TYPE_SNAPPY = 0x01;
+	
 
 	/**
 	 * The thread wakeup time (100 ms) to flush the pending compression packages
@@ -17,11 +17,7 @@
  *******************************************************************************/
 package org.bboxdb.network;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.util.zip.GZIPInputStream;
-
+import org.bboxdb.network.compression.CompressionCodecHelper;
 import org.bboxdb.network.packages.PackageEncodeException;
 
 public class NetworkHelper {
@@ -36,23 +32,7 @@ public class NetworkHelper {
 	public static byte[] uncompressBytes(final byte compressionType, 
 			final byte[] compressedBytes) throws PackageEncodeException {
 		
-		try {
-			final ByteArrayInputStream bais = new ByteArrayInputStream(compressedBytes);
-			final GZIPInputStream inputStream = new GZIPInputStream(bais);
-			final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
-			final byte[] buffer = new byte[10240];
-			for (int length = 0; (length = inputStream.read(buffer)) > 0; ) {
-				baos.write(buffer, 0, length);
-			}
-
-			inputStream.close();
-			baos.close();
-			
-			return baos.toByteArray();
-		} catch (IOException e) {
-			throw new PackageEncodeException(e);
-		}
+		return CompressionCodecHelper.uncompress(compressionType, compressedBytes);
 	}
 
 }
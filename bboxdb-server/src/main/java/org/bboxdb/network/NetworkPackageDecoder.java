@@ -68,13 +68,13 @@ public class NetworkPackageDecoder {
 		bb.position(0);
 		
 		// Buffer is to short to contain valid data
-		if(bb.remaining() < 12) {
+		if(bb.remaining() < NetworkConst.PACKAGE_HEADER_LENGTH) {
 			logger.warn("Package header is to small: " + bb.remaining());
 			return false;
 		}
 		
 		// Read request id
-		bb.getShort();
+		bb.getInt();
 		
 		// Check package type
 		final short readPackageType = bb.getShort();
@@ -94,12 +94,12 @@ public class NetworkPackageDecoder {
 	 * @param bb
 	 * @return the request id
 	 */
-	public static short getRequestIDFromResponsePackage(final ByteBuffer bb) {
+	public static int getRequestIDFromResponsePackage(final ByteBuffer bb) {
 		// Reset position (Request Type)
 		bb.position(0);
 		
 		// Read request id
-		return bb.getShort();
+		return bb.getInt();
 	}
 	
 	/**
@@ -114,13 +114,13 @@ public class NetworkPackageDecoder {
 		bb.position(0);
 		
 		// Buffer is to short to contain valid data
-		if(bb.remaining() < 12) {
+		if(bb.remaining() < NetworkConst.PACKAGE_HEADER_LENGTH) {
 			logger.warn("Package header is to small: " + bb.remaining());
 			return false;
 		}
 		
 		// Read request id
-		bb.getShort();
+		bb.getInt();
 		
 		// Check package type
 		final short readPackageType = bb.getShort();
@@ -143,12 +143,12 @@ public class NetworkPackageDecoder {
 	 * @param bb
 	 * @return the request id
 	 */
-	public static short getRequestIDFromRequestPackage(final ByteBuffer bb) {
+	public static int getRequestIDFromRequestPackage(final ByteBuffer bb) {
 		// Reset position (Request Type)
 		bb.position(0);
 		
 		// Read request id
-		return bb.getShort();
+		return bb.getInt();
 	}
 	
 	/**
@@ -159,7 +159,7 @@ public class NetworkPackageDecoder {
 	 * @throws PackageEncodeException 
 	 */
 	public static RoutingHeader getRoutingHeaderFromRequestPackage(final ByteBuffer bb) throws IOException, PackageEncodeException {
-		bb.position(12);
+		bb.position(NetworkConst.PACKAGE_HEADER_LENGTH);
 		return RoutingHeaderParser.decodeRoutingHeader(bb);
 	}
 	
@@ -170,7 +170,7 @@ public class NetworkPackageDecoder {
 	 */
 	public static long getBodyLengthFromRequestPackage(final ByteBuffer bb) {
 		// Set position
-		bb.position(4);
+		bb.position(6);
 		
 		// Read the body length
 		return bb.getLong();
@@ -183,7 +183,7 @@ public class NetworkPackageDecoder {
 	 */
 	public static byte getQueryTypeFromRequest(final ByteBuffer bb) {
 		// Set the position
-		bb.position(12);
+		bb.position(NetworkConst.PACKAGE_HEADER_LENGTH);
 		RoutingHeaderParser.skipRoutingHeader(bb);
 		return bb.get();
 	}
@@ -194,7 +194,7 @@ public class NetworkPackageDecoder {
 	 * @return
 	 */
 	public static short getPackageTypeFromRequest(final ByteBuffer bb) {
-		bb.position(2);
+		bb.position(4);
 		
 		return bb.getShort();
 	}
@@ -205,7 +205,7 @@ public class NetworkPackageDecoder {
 	 * @return
 	 */
 	public static short getPackageTypeFromResponse(final ByteBuffer bb) {
-		bb.position(2);
+		bb.position(4);
 		
 		return bb.getShort();
 	}
@@ -217,7 +217,7 @@ public class NetworkPackageDecoder {
 	 */
 	public static long getBodyLengthFromResponsePackage(final ByteBuffer bb) {
 		// Set position
-		bb.position(4);
+		bb.position(6);
 		
 		// Read the body length
 		return bb.getLong();
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.bboxdb.misc.BBoxDBConfigurationManager;
+import org.bboxdb.network.packages.NetworkPackage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.prometheus.client.Counter;
+
+public class PackageAllocationTracker {
+
+	/**
+	 * The thread bean that provides the allocated bytes per thread,
+	 * null if the JVM does not support the allocation counter
+	 */
+	private final static com.sun.management.ThreadMXBean threadMXBean;
+
+	/**
+	 * Is the tracking enabled
+	 */
+	private static volatile boolean enabled;
+
+	/**
+	 * The allocated bytes per package type
+	 */
+	private final static Counter allocatedBytesTotal = Counter.build()
+			.name("bboxdb_network_package_allocated_bytes_total")
+			.help("Total allocated bytes while encoding network packages")
+			.labelNames("type").register();
+
+	/**
+	 * The tracked packages per package type
+	 */
+	private final static Counter trackedPackagesTotal = Counter.build()
+			.name("bboxdb_network_package_tracked_total")
+			.help("Total amount of network packages with tracked allocations")
+			.labelNames("type").register();
+
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(PackageAllocationTracker.class);
+
+	static {
+		threadMXBean = getAllocationCountingBean();
+		setEnabled(BBoxDBConfigurationManager.getConfiguration().isNetworkAllocationTracking());
+	}
+
+	/**
+	 * Get the thread bean if it supports the allocation counter
+	 * @return
+	 */
+	private static com.sun.management.ThreadMXBean getAllocationCountingBean() {
+		final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+		if(! (bean instanceof com.sun.management.ThreadMXBean)) {
+			return null;
+		}
+
+		final com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+
+		if(! sunBean.isThreadAllocatedMemorySupported()) {
+			return null;
+		}
+
+		return sunBean;
+	}
+
+	/**
+	 * Enable or disable the tracking
+	 * @param enableTracking
+	 */
+	public static void setEnabled(final boolean enableTracking) {
+		if(enableTracking && threadMXBean == null) {
+			logger.warn("The JVM does not support the tracking of allocated bytes per thread");
+			enabled = false;
+			return;
+		}
+
+		if(enableTracking) {
+			threadMXBean.setThreadAllocatedMemoryEnabled(true);
+		}
+
+		enabled = enableTracking;
+	}
+
+	/**
+	 * Is the tracking enabled
+	 * @return
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Get the allocated bytes of the current thread, called before a package is encoded
+	 * @return the allocated bytes or -1 if the tracking is disabled
+	 */
+	public static long getAllocatedBytes() {
+		if(! enabled) {
+			return -1;
+		}
+
+		return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Record the bytes that are allocated by the current thread since the
+	 * start value was determined
+	 *
+	 * @param networkPackage
+	 * @param startAllocatedBytes - the result of getAllocatedBytes()
+	 */
+	public static void recordAllocations(final NetworkPackage networkPackage, final long startAllocatedBytes) {
+		if(startAllocatedBytes < 0 || ! enabled) {
+			return;
+		}
+
+		final long allocatedBytes = getAllocatedBytes() - startAllocatedBytes;
+		final String packageType = networkPackage.getClass().getSimpleName();
+
+		allocatedBytesTotal.labels(packageType).inc(Math.max(0, allocatedBytes));
+		trackedPackagesTotal.labels(packageType).inc();
+	}
+
+	/**
+	 * Get the allocated bytes for the package type
+	 * @param packageClass
+	 * @return
+	 */
+	public static double getAllocatedBytes(final Class<? extends NetworkPackage> packageClass) {
+		return allocatedBytesTotal.labels(packageClass.getSimpleName()).get();
+	}
+
+	/**
+	 * Get the amount of tracked packages for the package type
+	 * @param packageClass
+	 * @return
+	 */
+	public static double getTrackedPackages(final Class<? extends NetworkPackage> packageClass) {
+		return trackedPackagesTotal.labels(packageClass.getSimpleName()).get();
+	}
+}
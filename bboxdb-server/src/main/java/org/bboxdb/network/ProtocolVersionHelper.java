@@ -0,0 +1,198 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.bboxdb.misc.Const;
+import org.bboxdb.network.packages.NetworkPackage;
+import org.bboxdb.network.packages.PackageEncodeException;
+
+/**
+ * The packages are encoded and decoded in the format of the current protocol 
+ * version. Peers that only speak protocol version 1 (16 bit sequence numbers) 
+ * are supported by converting the package header on the connection.
+ *
+ */
+public class ProtocolVersionHelper {
+
+	/**
+	 * Get the protocol version that is used with a peer 
+	 * @param peerProtocolVersion
+	 * @return
+	 */
+	public static int negotiateProtocolVersion(final int peerProtocolVersion) {
+		final int protocolVersion = Math.min(peerProtocolVersion, NetworkConst.PROTOCOL_VERSION);
+		return Math.max(protocolVersion, NetworkConst.PROTOCOL_VERSION_1);
+	}
+	
+	/**
+	 * Are 32 bit sequence numbers supported by the protocol version
+	 * @param protocolVersion
+	 * @return
+	 */
+	public static boolean hasWideSequenceNumbers(final int protocolVersion) {
+		return protocolVersion >= NetworkConst.PROTOCOL_VERSION_2;
+	}
+	
+	/**
+	 * Is the snappy capability bit understood by peers of the protocol version. 
+	 * Peers of protocol version 1 echo unknown capability bits.
+	 * @param protocolVersion
+	 * @return
+	 */
+	public static boolean supportsSnappyCompression(final int protocolVersion) {
+		return protocolVersion >= NetworkConst.PROTOCOL_VERSION_2;
+	}
+	
+	/**
+	 * Get the length of the package header (without the routing header)
+	 * @param protocolVersion
+	 * @return
+	 */
+	public static int getHeaderLength(final int protocolVersion) {
+		if(hasWideSequenceNumbers(protocolVersion)) {
+			return NetworkConst.PACKAGE_HEADER_LENGTH;
+		}
+		
+		return NetworkConst.PACKAGE_HEADER_LENGTH_V1;
+	}
+	
+	/**
+	 * Write the package in the format of the given protocol version
+	 * @param networkPackage
+	 * @param outputStream
+	 * @param protocolVersion
+	 * @return written bytes
+	 * @throws PackageEncodeException
+	 */
+	public static long writePackage(final NetworkPackage networkPackage, 
+			final OutputStream outputStream, final int protocolVersion) throws PackageEncodeException {
+		
+		if(hasWideSequenceNumbers(protocolVersion)) {
+			return networkPackage.writeToOutputStream(outputStream);
+		}
+		
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		networkPackage.writeToOutputStream(bos);
+		final byte[] encodedPackage = convertToProtocolVersion1(bos.toByteArray());
+
+		try {
+			outputStream.write(encodedPackage);
+		} catch (IOException e) {
+			throw new PackageEncodeException(e);
+		}
+		
+		return encodedPackage.length;
+	}
+	
+	/**
+	 * Get the length of an encoded sequence number
+	 * @param protocolVersion
+	 * @return
+	 */
+	public static int getSequenceNumberLength(final int protocolVersion) {
+		if(hasWideSequenceNumbers(protocolVersion)) {
+			return Integer.BYTES;
+		}
+		
+		return Short.BYTES;
+	}
+	
+	/**
+	 * Read a sequence number that is the last field of a package body. Packages 
+	 * of protocol version 1 contain a 16 bit sequence number.
+	 * @param bb
+	 * @return
+	 */
+	public static int getSequenceNumber(final ByteBuffer bb) {
+		if(bb.remaining() == Short.BYTES) {
+			return bb.getShort();
+		}
+		
+		return bb.getInt();
+	}
+	
+	/**
+	 * Write the sequence number in the format of the protocol version into the buffer
+	 * @param bb
+	 * @param sequenceNumber
+	 * @param protocolVersion
+	 * @throws PackageEncodeException
+	 */
+	public static void putSequenceNumber(final ByteBuffer bb, final int sequenceNumber, 
+			final int protocolVersion) throws PackageEncodeException {
+		
+		if(hasWideSequenceNumbers(protocolVersion)) {
+			bb.putInt(sequenceNumber);
+			return;
+		}
+		
+		if(sequenceNumber != (short) sequenceNumber) {
+			throw new PackageEncodeException("Sequence number " + sequenceNumber 
+					+ " can not be encoded in protocol version " + protocolVersion);
+		}
+		
+		bb.putShort((short) sequenceNumber);
+	}
+	
+	/**
+	 * Convert the header of the encoded package into the protocol version 1 format 
+	 * @param encodedPackage
+	 * @return
+	 * @throws PackageEncodeException
+	 */
+	public static byte[] convertToProtocolVersion1(final byte[] encodedPackage) 
+			throws PackageEncodeException {
+		
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedPackage);
+		final int sequenceNumber = bb.getInt();
+		
+		final int sizeDifference = NetworkConst.PACKAGE_HEADER_LENGTH - NetworkConst.PACKAGE_HEADER_LENGTH_V1;
+		
+		final ByteBuffer result = ByteBuffer.allocate(encodedPackage.length - sizeDifference);
+		result.order(Const.APPLICATION_BYTE_ORDER);
+		putSequenceNumber(result, sequenceNumber, NetworkConst.PROTOCOL_VERSION_1);
+		result.put(encodedPackage, 4, encodedPackage.length - 4);
+		
+		return result.array();
+	}
+	
+	/**
+	 * Convert the header of the package in the protocol version 1 format 
+	 * into the format of the current version. 
+	 * @param encodedPackage
+	 * @return
+	 */
+	public static byte[] convertFromProtocolVersion1(final byte[] encodedPackage) {
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedPackage);
+		final short sequenceNumber = bb.getShort();
+
+		final int sizeDifference = NetworkConst.PACKAGE_HEADER_LENGTH - NetworkConst.PACKAGE_HEADER_LENGTH_V1;
+
+		final ByteBuffer result = ByteBuffer.allocate(encodedPackage.length + sizeDifference);
+		result.order(Const.APPLICATION_BYTE_ORDER);
+		result.putInt(sequenceNumber);
+		result.put(encodedPackage, 2, encodedPackage.length - 2);
+		
+		return result.array();
+	}
+}
@@ -19,6 +19,8 @@ package org.bboxdb.network.capabilities;
 
 import java.nio.ByteBuffer;
 
+import org.bboxdb.network.NetworkConst;
+
 public class PeerCapabilities {
 
 	protected final ByteBuffer capabilities;
@@ -28,6 +30,11 @@ public class PeerCapabilities {
 	 */
 	public final static short CAPABILITY_COMPRESSION_GZIP = 0;
 	
+	/**
+	 * The snappy compression flag
+	 */
+	public final static short CAPABILITY_COMPRESSION_SNAPPY = 1;
+	
 	/**
 	 * The readonly flag
 	 */
@@ -83,6 +90,56 @@ public class PeerCapabilities {
 		clearBit(CAPABILITY_COMPRESSION_GZIP);
 	}
 
+	/**
+	 * Is the snappy compression bit set?
+	 * 
+	 * @return
+	 */
+	public boolean hasSnappyCompression() {
+		return getBit(CAPABILITY_COMPRESSION_SNAPPY);
+	}
+
+	/**
+	 * Set the snappy compression bit
+	 */
+	public void setSnappyCompression() {
+		setBit(CAPABILITY_COMPRESSION_SNAPPY);
+	}
+
+	/**
+	 * Clear the snappy compression bit
+	 */
+	public void clearSnappyCompression() {
+		clearBit(CAPABILITY_COMPRESSION_SNAPPY);
+	}
+	
+	/**
+	 * Is any compression enabled?
+	 * 
+	 * @return
+	 */
+	public boolean hasCompression() {
+		return hasGZipCompression() || hasSnappyCompression();
+	}
+	
+	/**
+	 * Get the preferred compression type of the enabled compressions. 
+	 * Snappy needs less CPU time than gzip and is preferred.
+	 * 
+	 * @return
+	 */
+	public byte getCompressionType() {
+		if(hasSnappyCompression()) {
+			return NetworkConst.COMPRESSION_TYPE_SNAPPY;
+		}
+		
+		if(hasGZipCompression()) {
+			return NetworkConst.COMPRESSION_TYPE_GZIP;
+		}
+		
+		throw new IllegalStateException("No compression is enabled");
+	}
+
 	/**
 	 * Set the bit
 	 * 
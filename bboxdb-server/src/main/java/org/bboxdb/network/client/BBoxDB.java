@@ -21,12 +21,15 @@ import java.io.Closeable;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.network.client.future.client.EmptyResultFuture;
 import org.bboxdb.network.client.future.client.JoinedTupleListFuture;
 import org.bboxdb.network.client.future.client.TupleListFuture;
+import org.bboxdb.network.client.future.publisher.Flow;
+import org.bboxdb.network.client.future.publisher.ListFuturePublisher;
 import org.bboxdb.network.routing.DistributionRegionHandlingFlag;
 import org.bboxdb.query.ContinuousQueryPlan;
 import org.bboxdb.query.filter.UserDefinedFilterDefinition;
@@ -82,6 +85,26 @@ public interface BBoxDB extends Closeable {
 	 */
 	public EmptyResultFuture insertTuple(final String table, final Tuple tuple,
 			final EnumSet<DistributionRegionHandlingFlag> insertOptions) throws BBoxDBException;
+
+	/**
+	 * Insert the tuples into the given table. Tuples that target the same
+	 * regions are send in one batch.
+	 * @param table
+	 * @param tuples
+	 * @return
+	 */
+	public EmptyResultFuture insertTuples(final String table, final List<Tuple> tuples) 
+			throws BBoxDBException;
+
+	/**
+	 * Insert the tuples with the given options
+	 * @param table
+	 * @param tuples
+	 * @param insertOptions
+	 * @return
+	 */
+	public EmptyResultFuture insertTuples(final String table, final List<Tuple> tuples,
+			final EnumSet<DistributionRegionHandlingFlag> insertOptions) throws BBoxDBException;
 	
 	/**
 	 * Lock tuple
@@ -147,6 +170,14 @@ public interface BBoxDB extends Closeable {
 	 */
 	public TupleListFuture queryKey(final String table, final String key) throws BBoxDBException;
 
+	/**
+	 * Query the given table for multiple keys (one request per node)
+	 * @param table
+	 * @param keys
+	 * @return
+	 */
+	public TupleListFuture queryKeys(final String table, final List<String> keys) throws BBoxDBException;
+
 	/**
 	 * Execute a hyperrectangle query on the given table
 	 * @param table - The table to query
@@ -204,9 +235,104 @@ public interface BBoxDB extends Closeable {
 	 * Cancel a given query
 	 * @param future
 	 */
-	public void cancelQuery(final Map<BBoxDBClient, List<Short>> cancelData) 
+	public void cancelQuery(final Map<BBoxDBClient, List<Integer>> cancelData) 
 			throws BBoxDBException, InterruptedException;
 
+	/**
+	 * Insert a new tuple into the given table without blocking the calling thread
+	 * @param table
+	 * @param tuple
+	 * @return A future that is completed exceptionally if the operation has failed
+	 */
+	public default CompletableFuture<Void> insertTupleAsync(final String table, final Tuple tuple) {
+		try {
+			return insertTuple(table, tuple).getCompletableFuture();
+		} catch (BBoxDBException e) {
+			final CompletableFuture<Void> future = new CompletableFuture<>();
+			future.completeExceptionally(e);
+			return future;
+		}
+	}
+	
+	/**
+	 * Insert the tuples into the given table without blocking the calling thread
+	 * @param table
+	 * @param tuples
+	 * @return A future that is completed exceptionally if the operation has failed
+	 */
+	public default CompletableFuture<Void> insertTuplesAsync(final String table, final List<Tuple> tuples) {
+		try {
+			return insertTuples(table, tuples).getCompletableFuture();
+		} catch (BBoxDBException e) {
+			final CompletableFuture<Void> future = new CompletableFuture<>();
+			future.completeExceptionally(e);
+			return future;
+		}
+	}
+	
+	/**
+	 * Delete the given key from the table without blocking the calling thread
+	 * @param table
+	 * @param key
+	 * @return A future that is completed exceptionally if the operation has failed
+	 */
+	public default CompletableFuture<Void> deleteTupleAsync(final String table, final String key) {
+		try {
+			return deleteTuple(table, key).getCompletableFuture();
+		} catch (BBoxDBException e) {
+			final CompletableFuture<Void> future = new CompletableFuture<>();
+			future.completeExceptionally(e);
+			return future;
+		}
+	}
+	
+	/**
+	 * Publish the result of a key query. The query is executed when the first 
+	 * tuple is requested and the pages are fetched on demand of the subscriber.
+	 * @param table
+	 * @param key
+	 * @return
+	 */
+	public default Flow.Publisher<Tuple> queryKeyPublisher(final String table, final String key) {
+		return new ListFuturePublisher<>(() -> queryKey(table, key));
+	}
+	
+	/**
+	 * Publish the result of a hyperrectangle query. The query is executed when the first 
+	 * tuple is requested and the pages are fetched on demand of the subscriber.
+	 * @param table
+	 * @param boundingBox
+	 * @param udfs
+	 * @return
+	 */
+	public default Flow.Publisher<Tuple> queryRectanglePublisher(final String table, 
+			final Hyperrectangle boundingBox, final List<UserDefinedFilterDefinition> udfs) {
+		
+		return new ListFuturePublisher<>(() -> queryRectangle(table, boundingBox, udfs));
+	}
+	
+	/**
+	 * Publish the result of a version time query. The query is executed when the first 
+	 * tuple is requested and the pages are fetched on demand of the subscriber.
+	 * @param table
+	 * @param timestamp
+	 * @return
+	 */
+	public default Flow.Publisher<Tuple> queryVersionTimePublisher(final String table, final long timestamp) {
+		return new ListFuturePublisher<>(() -> queryVersionTime(table, timestamp));
+	}
+	
+	/**
+	 * Publish the result of an inserted time query. The query is executed when the first 
+	 * tuple is requested and the pages are fetched on demand of the subscriber.
+	 * @param table
+	 * @param timestamp
+	 * @return
+	 */
+	public default Flow.Publisher<Tuple> queryInsertedTimePublisher(final String table, final long timestamp) {
+		return new ListFuturePublisher<>(() -> queryInsertedTime(table, timestamp));
+	}
+
 	/**
 	 * Is the client connected?
 	 * @return
@@ -243,4 +369,17 @@ public interface BBoxDB extends Closeable {
 	 */
 	public void setTuplesPerPage(final short tuplesPerPage);
 
+	/**
+	 * Is the profiling for queries enabled? The profile of the bounding box 
+	 * and join queries can be fetched via getQueryProfile() of the future
+	 * @return
+	 */
+	public boolean isQueryProfilingEnabled();
+
+	/**
+	 * Enable or disable the profiling of queries
+	 * @param queryProfilingEnabled
+	 */
+	public void setQueryProfilingEnabled(final boolean queryProfilingEnabled);
+
 }
\ No newline at end of file
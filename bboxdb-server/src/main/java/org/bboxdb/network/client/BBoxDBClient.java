@@ -20,6 +20,7 @@ package org.bboxdb.network.client;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -49,6 +50,7 @@ import org.bboxdb.network.packages.request.CreateTableRequest;
 import org.bboxdb.network.packages.request.DeleteDistributionGroupRequest;
 import org.bboxdb.network.packages.request.DeleteTableRequest;
 import org.bboxdb.network.packages.request.InsertTupleRequest;
+import org.bboxdb.network.packages.request.InsertTuplesRequest;
 import org.bboxdb.network.packages.request.KeepAliveRequest;
 import org.bboxdb.network.packages.request.LockTupleRequest;
 import org.bboxdb.network.packages.request.NextPageRequest;
@@ -58,6 +60,7 @@ import org.bboxdb.network.packages.request.QueryHyperrectangleTimeRequest;
 import org.bboxdb.network.packages.request.QueryInsertTimeRequest;
 import org.bboxdb.network.packages.request.QueryJoinRequest;
 import org.bboxdb.network.packages.request.QueryKeyRequest;
+import org.bboxdb.network.packages.request.QueryMultiKeyRequest;
 import org.bboxdb.network.packages.request.QueryVersionTimeRequest;
 import org.bboxdb.network.routing.DistributionRegionHandlingFlag;
 import org.bboxdb.network.routing.RoutingHeader;
@@ -69,6 +72,7 @@ import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreConfiguration;
 import org.bboxdb.storage.entity.TupleStoreName;
 import org.bboxdb.storage.sstable.duplicateresolver.DoNothingDuplicateResolver;
+import org.bboxdb.storage.sstable.duplicateresolver.KeyGroupingDuplicateResolver;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
 
 public class BBoxDBClient implements BBoxDB {
@@ -88,6 +92,11 @@ public class BBoxDBClient implements BBoxDB {
 	 */
 	private short tuplesPerPage;
 
+	/**
+	 * Request the profile of the executed queries
+	 */
+	private boolean queryProfilingEnabled;
+
 	/**
 	 * The tuple store manager registry (used for gossip)
 	 */
@@ -97,6 +106,7 @@ public class BBoxDBClient implements BBoxDB {
 		this.connection = Objects.requireNonNull(connection);
 		this.pagingEnabled = true;
 		this.tuplesPerPage = 50;
+		this.queryProfilingEnabled = false;
 	}
 
 	/* (non-Javadoc)
@@ -120,7 +130,7 @@ public class BBoxDBClient implements BBoxDB {
 			final TupleStoreConfiguration configuration) {
 
 		final NetworkOperationFutureImpl future = new NetworkOperationFutureImpl(connection, () -> {
-			final short nextSequenceNumber = connection.getNextSequenceNumber();
+			final int nextSequenceNumber = connection.getNextSequenceNumber();
 			return new CreateTableRequest(nextSequenceNumber, table, configuration);
 		});
 		
@@ -147,7 +157,7 @@ public class BBoxDBClient implements BBoxDB {
 	public Supplier<List<NetworkOperationFuture>> getDeleteTableSupplier(final String table) {
 
 		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
-			final short nextSequenceNumber = connection.getNextSequenceNumber();
+			final int nextSequenceNumber = connection.getNextSequenceNumber();
 			return new DeleteTableRequest(nextSequenceNumber, table);
 		};
 
@@ -198,6 +208,63 @@ public class BBoxDBClient implements BBoxDB {
 		return new EmptyResultFuture(future);
 	}
 
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.BBoxDB#insertTuples(java.lang.String, java.util.List)
+	 */
+	@Override
+	public EmptyResultFuture insertTuples(final String table, final List<Tuple> tuples) 
+			throws BBoxDBException {
+		
+		return insertTuples(table, tuples, EnumSet.noneOf(DistributionRegionHandlingFlag.class));
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.BBoxDB#insertTuples(java.lang.String, java.util.List, java.util.EnumSet)
+	 */
+	@Override
+	public EmptyResultFuture insertTuples(final String table, final List<Tuple> tuples,
+			final EnumSet<DistributionRegionHandlingFlag> insertOptions) throws BBoxDBException {
+		
+		// Tuples with the same local routing header are send in one package
+		final Map<RoutingHeader, List<Tuple>> tuplesPerRoutingHeader = new LinkedHashMap<>();
+		
+		for(final Tuple tuple : tuples) {
+			final RoutingHeader routingHeader = RoutingHeaderHelper.getRoutingHeaderForLocalSystemWriteNE(
+					table, tuple.getBoundingBox(), false, connection.getServerAddress(), insertOptions);
+			
+			if(routingHeader == null) {
+				throw new BBoxDBException("Unable to get routing header for tuple " + tuple.getKey());
+			}
+			
+			tuplesPerRoutingHeader.computeIfAbsent(routingHeader, r -> new ArrayList<>()).add(tuple);
+		}
+		
+		final List<Supplier<List<NetworkOperationFuture>>> futures = tuplesPerRoutingHeader.entrySet()
+				.stream()
+				.map(e -> getInsertTuplesFuture(table, e.getValue(), e.getKey()))
+				.collect(Collectors.toList());
+		
+		return new EmptyResultFuture(() -> futures.stream()
+				.flatMap(f -> f.get().stream())
+				.collect(Collectors.toList()));
+	}
+	
+	/**
+	 * Insert the tuples with the given routing header
+	 * @param table
+	 * @param tuples
+	 * @param routingHeader
+	 * @return
+	 */
+	public EmptyResultFuture insertTuples(final String table, final List<Tuple> tuples,
+			final RoutingHeader routingHeader) {
+
+		final Supplier<List<NetworkOperationFuture>> future = 
+				getInsertTuplesFuture(table, tuples, routingHeader);
+
+		return new EmptyResultFuture(future);
+	}
+
 	@Override
 	public EmptyResultFuture lockTuple(final String table, final Tuple tuple,
 			final boolean deleteOnTimeout) throws BBoxDBException {
@@ -226,7 +293,7 @@ public class BBoxDBClient implements BBoxDB {
 			final boolean deleteOnTimeout, final RoutingHeader routingHeader) {
 
 		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
-			final short nextSequenceNumber = connection.getNextSequenceNumber();
+			final int nextSequenceNumber = connection.getNextSequenceNumber();
 
 			final String key = tuple.getKey();
 			final long timestamp = tuple.getVersionTimestamp();
@@ -249,7 +316,7 @@ public class BBoxDBClient implements BBoxDB {
 
 		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
 			final TupleStoreName ssTableName = new TupleStoreName(table);
-			final short sequenceNumber = connection.getNextSequenceNumber();
+			final int sequenceNumber = connection.getNextSequenceNumber();
 
 			return new InsertTupleRequest(sequenceNumber, routingHeader, ssTableName, tuple);
 		};
@@ -257,6 +324,25 @@ public class BBoxDBClient implements BBoxDB {
 		return () -> Arrays.asList(new NetworkOperationFutureImpl(connection, packageSupplier));
 	}
 
+	/**
+	 * @param table
+	 * @param tuples
+	 * @param routingHeader
+	 * @return
+	 */
+	public Supplier<List<NetworkOperationFuture>> getInsertTuplesFuture(final String table, 
+			final List<Tuple> tuples, final RoutingHeader routingHeader) {
+
+		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
+			final TupleStoreName ssTableName = new TupleStoreName(table);
+			final int sequenceNumber = connection.getNextSequenceNumber();
+
+			return new InsertTuplesRequest(sequenceNumber, routingHeader, ssTableName, tuples);
+		};
+
+		return () -> Arrays.asList(new NetworkOperationFutureImpl(connection, packageSupplier));
+	}
+
 	/* (non-Javadoc)
 	 * @see org.bboxdb.network.client.BBoxDB#deleteTuple(java.lang.String, java.lang.String)
 	 */
@@ -310,7 +396,7 @@ public class BBoxDBClient implements BBoxDB {
 			final DistributionGroupConfiguration distributionGroupConfiguration) {
 
 		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
-			final short nextSequenceNumber = connection.getNextSequenceNumber();
+			final int nextSequenceNumber = connection.getNextSequenceNumber();
 
 			return new CreateDistributionGroupRequest(
 					nextSequenceNumber, distributionGroup,
@@ -338,7 +424,7 @@ public class BBoxDBClient implements BBoxDB {
 	public Supplier<List<NetworkOperationFuture>> getDeleteDistributionGroupFuture(final String distributionGroup) {
 
 		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
-			final short nextSequenceNumber = connection.getNextSequenceNumber();
+			final int nextSequenceNumber = connection.getNextSequenceNumber();
 			return new DeleteDistributionGroupRequest(nextSequenceNumber, distributionGroup);
 		};
 
@@ -378,7 +464,7 @@ public class BBoxDBClient implements BBoxDB {
 			final RoutingHeader routingHeader) {
 
 		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
-			final short nextSequenceNumber = connection.getNextSequenceNumber();
+			final int nextSequenceNumber = connection.getNextSequenceNumber();
 
 			return new QueryKeyRequest(nextSequenceNumber,
 					routingHeader, table, key, pagingEnabled, tuplesPerPage);
@@ -387,6 +473,41 @@ public class BBoxDBClient implements BBoxDB {
 		return () -> Arrays.asList(new NetworkOperationFutureImpl(connection, packageSupplier));
 	}
 
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.BBoxDB#queryKeys(java.lang.String, java.util.List)
+	 */
+	@Override
+	public TupleListFuture queryKeys(final String table, final List<String> keys) {
+
+		final RoutingHeader routingHeader = RoutingHeaderHelper.getRoutingHeaderForLocalSystemReadNE(
+				table, Hyperrectangle.FULL_SPACE, true, connection.getServerAddress());
+
+		final Supplier<List<NetworkOperationFuture>> future = getQueryKeysFuture(table, keys, routingHeader);
+
+		final DuplicateResolver<Tuple> duplicateResolver = new KeyGroupingDuplicateResolver(
+				TupleStoreConfigurationCache.getInstance().getDuplicateResolverForTupleStore(table));
+
+		return new TupleListFuture(future, duplicateResolver, table);
+	}
+
+	/**
+	 * @param table
+	 * @param keys
+	 * @return
+	 */
+	public Supplier<List<NetworkOperationFuture>> getQueryKeysFuture(final String table, final List<String> keys,
+			final RoutingHeader routingHeader) {
+
+		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
+			final int nextSequenceNumber = connection.getNextSequenceNumber();
+
+			return new QueryMultiKeyRequest(nextSequenceNumber,
+					routingHeader, table, keys, pagingEnabled, tuplesPerPage);
+		};
+
+		return () -> Arrays.asList(new NetworkOperationFutureImpl(connection, packageSupplier));
+	}
+
 	/* (non-Javadoc)
 	 * @see org.bboxdb.network.client.BBoxDB#queryBoundingBox(java.lang.String, org.bboxdb.storage.entity.BoundingBox)
 	 */
@@ -416,11 +537,11 @@ public class BBoxDBClient implements BBoxDB {
 			final List<UserDefinedFilterDefinition> udfs) {
 
 		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
-			final short nextSequenceNumber = connection.getNextSequenceNumber();
+			final int nextSequenceNumber = connection.getNextSequenceNumber();
 
 			return new QueryHyperrectangleRequest(nextSequenceNumber,
 					routingHeader, table, boundingBox, udfs, 
-					pagingEnabled, tuplesPerPage);
+					pagingEnabled, tuplesPerPage, queryProfilingEnabled);
 		};
 
 		return () -> Arrays.asList(new NetworkOperationFutureImpl(connection, packageSupplier));
@@ -450,7 +571,7 @@ public class BBoxDBClient implements BBoxDB {
 			final RoutingHeader routingHeaderSupplier = RoutingHeaderHelper.getRoutingHeaderForLocalSystemReadNE(
 					queryPlan.getStreamTable(), queryPlan.getQueryRange(), false, connection.getServerAddress());
 
-			final short nextSequenceNumber = connection.getNextSequenceNumber();
+			final int nextSequenceNumber = connection.getNextSequenceNumber();
 	
 			return new QueryContinuousRequest(
 					nextSequenceNumber, routingHeaderSupplier, queryPlan);
@@ -494,7 +615,7 @@ public class BBoxDBClient implements BBoxDB {
 			final long timestamp, RoutingHeader routingHeader) {
 
 		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
-			final short nextSequenceNumber = connection.getNextSequenceNumber();
+			final int nextSequenceNumber = connection.getNextSequenceNumber();
 
 			return new QueryHyperrectangleTimeRequest(nextSequenceNumber,
 					routingHeader, table, boundingBox, timestamp, pagingEnabled, tuplesPerPage);
@@ -527,7 +648,7 @@ public class BBoxDBClient implements BBoxDB {
 			final RoutingHeader routingHeader) {
 
 		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
-			final short nextSequenceNumber = connection.getNextSequenceNumber();
+			final int nextSequenceNumber = connection.getNextSequenceNumber();
 
 			return new QueryVersionTimeRequest(nextSequenceNumber,
 					routingHeader, table, timestamp, pagingEnabled, tuplesPerPage);
@@ -560,7 +681,7 @@ public class BBoxDBClient implements BBoxDB {
 			final RoutingHeader routingHeader) {
 
 		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
-			final short nextSequenceNumber = connection.getNextSequenceNumber();
+			final int nextSequenceNumber = connection.getNextSequenceNumber();
 			return new QueryInsertTimeRequest(nextSequenceNumber,
 					routingHeader, table, timestamp, pagingEnabled, tuplesPerPage);
 		};
@@ -603,10 +724,10 @@ public class BBoxDBClient implements BBoxDB {
 					.map(t -> new TupleStoreName(t))
 					.collect(Collectors.toList());
 
-			final short nextSequenceNumber = connection.getNextSequenceNumber();
+			final int nextSequenceNumber = connection.getNextSequenceNumber();
 
 			return new QueryJoinRequest(nextSequenceNumber, routingHeader, tupleStoreNames, 
-					boundingBox, udfs, pagingEnabled, tuplesPerPage);
+					boundingBox, udfs, pagingEnabled, tuplesPerPage, queryProfilingEnabled);
 		};
 
 		return () -> Arrays.asList(new NetworkOperationFutureImpl(connection, packageSupplier));
@@ -643,7 +764,7 @@ public class BBoxDBClient implements BBoxDB {
 	 */
 	public Supplier<List<NetworkOperationFuture>> getKeepAliveFuture(final String tablename, final List<Tuple> tuples) {
 		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
-			final short nextSequenceNumber = connection.getNextSequenceNumber();
+			final int nextSequenceNumber = connection.getNextSequenceNumber();
 			return new KeepAliveRequest(nextSequenceNumber, tablename, tuples);
 		};
 
@@ -655,7 +776,7 @@ public class BBoxDBClient implements BBoxDB {
 	 * @param queryPackageId
 	 * @return
 	 */
-	public OperationFuture getNextPage(final short queryPackageId) {
+	public OperationFuture getNextPage(final int queryPackageId) {
 		final Supplier<List<NetworkOperationFuture>> future = getNextPageFuture(queryPackageId);
 
 		return new TupleListFuture(future, new DoNothingDuplicateResolver(), "");
@@ -666,9 +787,9 @@ public class BBoxDBClient implements BBoxDB {
 	 * @param queryPackageId
 	 * @return
 	 */
-	private Supplier<List<NetworkOperationFuture>> getNextPageFuture(final short queryPackageId) {
+	private Supplier<List<NetworkOperationFuture>> getNextPageFuture(final int queryPackageId) {
 		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
-			final short nextSequenceNumber = connection.getNextSequenceNumber();
+			final int nextSequenceNumber = connection.getNextSequenceNumber();
 
 			return new NextPageRequest(nextSequenceNumber, queryPackageId);
 		};
@@ -681,7 +802,7 @@ public class BBoxDBClient implements BBoxDB {
 	 * @param queryPackageId
 	 * @return
 	 */
-	public EmptyResultFuture cancelRequest(final short queryPackageId) {
+	public EmptyResultFuture cancelRequest(final int queryPackageId) {
 		final Supplier<List<NetworkOperationFuture>> future = getCancelQueryFuture(queryPackageId);
 		return new EmptyResultFuture(future, FutureRetryPolicy.RETRY_POLICY_NONE);
 	}
@@ -690,9 +811,9 @@ public class BBoxDBClient implements BBoxDB {
 	 * @param queryPackageId
 	 * @return
 	 */
-	public Supplier<List<NetworkOperationFuture>> getCancelQueryFuture(final short queryPackageId) {
+	public Supplier<List<NetworkOperationFuture>> getCancelQueryFuture(final int queryPackageId) {
 		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
-			final short nextSequenceNumber = connection.getNextSequenceNumber();
+			final int nextSequenceNumber = connection.getNextSequenceNumber();
 			return new CancelRequest(nextSequenceNumber, queryPackageId);
 		};
 
@@ -702,7 +823,7 @@ public class BBoxDBClient implements BBoxDB {
 	/**
 	 * Cancel the given query
 	 */
-	public void cancelQuery(final Map<BBoxDBClient, List<Short>> cancelData)
+	public void cancelQuery(final Map<BBoxDBClient, List<Integer>> cancelData)
 			throws BBoxDBException, InterruptedException {
 
 		BBoxDBClientHelper.cancelQuery(cancelData);
@@ -714,7 +835,7 @@ public class BBoxDBClient implements BBoxDB {
 	public ContinuousQueryServerStateFuture getContinuousQueryState(final TupleStoreName tupleStore) {
 		
 		final Supplier<NetworkRequestPackage> packageSupplier = () -> {
-			final short nextSequenceNumber = connection.getNextSequenceNumber();
+			final int nextSequenceNumber = connection.getNextSequenceNumber();
 			return new ContinuousQueryStateRequest(nextSequenceNumber, tupleStore);
 		};
 
@@ -761,6 +882,22 @@ public class BBoxDBClient implements BBoxDB {
 		this.tuplesPerPage = tuplesPerPage;
 	}
 
+	/**
+	 * Is the profiling for queries enabled
+	 * @return
+	 */
+	public boolean isQueryProfilingEnabled() {
+		return queryProfilingEnabled;
+	}
+
+	/**
+	 * Enable or disable the profiling of queries
+	 * @param queryProfilingEnabled
+	 */
+	public void setQueryProfilingEnabled(final boolean queryProfilingEnabled) {
+		this.queryProfilingEnabled = queryProfilingEnabled;
+	}
+
 	@Override
 	public boolean connect() {
 		return true;
@@ -42,15 +42,15 @@ public class BBoxDBClientHelper {
 	 * @param future
 	 * @throws InterruptedException
 	 */
-	public static void cancelQuery(final Map<BBoxDBClient, List<Short>> cancelData)
+	public static void cancelQuery(final Map<BBoxDBClient, List<Integer>> cancelData)
 			throws BBoxDBException, InterruptedException {
 		
-		for(Entry<BBoxDBClient, List<Short>> entry : cancelData.entrySet()) {
+		for(Entry<BBoxDBClient, List<Integer>> entry : cancelData.entrySet()) {
 			
 			final BBoxDBClient client = entry.getKey();
-			final List<Short> values = entry.getValue();
+			final List<Integer> values = entry.getValue();
 			
-			for(final short queryId : values) {	
+			for(final int queryId : values) {	
 				final EmptyResultFuture cancelResult = client.cancelRequest(queryId);
 	
 				cancelResult.waitForCompletion();
@@ -70,10 +70,10 @@ public class BBoxDBClientHelper {
 	public static void cancelQuery(final AbstractListFuture<? extends Object> future)
 			throws BBoxDBException, InterruptedException {
 		
-		final Map<BBoxDBClient, List<Short>> cancelData = new HashMap<>();
+		final Map<BBoxDBClient, List<Integer>> cancelData = new HashMap<>();
 
 		for(int i = 0; i < future.getNumberOfResultObjects(); i++) {
-			final short queryId = future.getRequestId(i);
+			final int queryId = future.getRequestId(i);
 			logger.info("Canceling query: {}", queryId);
 
 			final BBoxDBConnection connection = future.getConnection(i);
@@ -22,8 +22,10 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
@@ -58,6 +60,8 @@ import org.bboxdb.network.client.tools.AbtractClusterFutureBuilder;
 import org.bboxdb.network.client.tools.ClusterOperationType;
 import org.bboxdb.network.routing.DistributionRegionHandlingFlag;
 import org.bboxdb.network.routing.RoutingHeader;
+import org.bboxdb.network.routing.RoutingHop;
+import org.bboxdb.network.routing.RoutingHopHelper;
 import org.bboxdb.query.ContinuousQueryPlan;
 import org.bboxdb.query.filter.UserDefinedFilterDefinition;
 import org.bboxdb.storage.StorageManagerException;
@@ -67,6 +71,7 @@ import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreConfiguration;
 import org.bboxdb.storage.entity.TupleStoreName;
 import org.bboxdb.storage.sstable.duplicateresolver.DoNothingDuplicateResolver;
+import org.bboxdb.storage.sstable.duplicateresolver.KeyGroupingDuplicateResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -247,6 +252,70 @@ public class BBoxDBCluster implements BBoxDB {
 		return new EmptyResultFuture(builder.getSupplier());
 	}
 
+	@Override
+	public EmptyResultFuture insertTuples(final String table, final List<Tuple> tuples) 
+			throws BBoxDBException {
+		
+		return insertTuples(table, tuples, EnumSet.noneOf(DistributionRegionHandlingFlag.class));
+	}
+
+	/**
+	 * Insert the tuples. The tuples that target the same regions on the same
+	 * instance are send in one batch insert package.
+	 * 
+	 * @param table
+	 * @param tuples
+	 * @param insertOptions
+	 * @return
+	 * @throws BBoxDBException
+	 */
+	@Override
+	public EmptyResultFuture insertTuples(final String table, final List<Tuple> tuples,
+			final EnumSet<DistributionRegionHandlingFlag> insertOptions) throws BBoxDBException {
+		
+		if(! TupleStoreConfigurationCache.getInstance().isTupleStoreKnown(table)) {
+			throw new BBoxDBException("Table " + table + " is unknown");
+		}
+		
+		final DistributionRegion rootNode = SpacePartitionerHelper.getRootNode(table);
+		
+		final Supplier<List<NetworkOperationFuture>> supplier = () -> {
+			
+			final Map<RoutingHop, List<Tuple>> tuplesPerHop = new LinkedHashMap<>();
+			
+			for(final Tuple tuple : tuples) {
+				final List<RoutingHop> hops = RoutingHopHelper.getRoutingHopsForWrite(rootNode, 
+						tuple.getBoundingBox(), insertOptions);
+				
+				if(hops.isEmpty()) {
+					logger.error("Got empty hop list by bbox {} for batch insert", tuple.getBoundingBox());
+				}
+				
+				for(final RoutingHop hop : hops) {
+					tuplesPerHop.computeIfAbsent(hop, h -> new ArrayList<>()).add(tuple);
+				}
+			}
+			
+			final List<NetworkOperationFuture> futures = new ArrayList<>();
+
+			for(final Entry<RoutingHop, List<Tuple>> entry : tuplesPerHop.entrySet()) {
+				final RoutingHop hop = entry.getKey();
+				
+				final BBoxDBConnection connection
+					= membershipConnectionService.getConnectionForInstance(hop.getDistributedInstance());
+				
+				final RoutingHeader routingHeader = new RoutingHeader((short) 0, Arrays.asList(hop));
+				
+				futures.addAll(connection.getBboxDBClient().getInsertTuplesFuture(
+						table, entry.getValue(), routingHeader).get());
+			}
+			
+			return futures;
+		};
+
+		return new EmptyResultFuture(supplier);
+	}
+
 	@Override
 	public EmptyResultFuture deleteTuple(final String table, final String key) throws BBoxDBException {
 		final long timestamp = MicroSecondTimestampProvider.getNewTimestamp();
@@ -374,6 +443,30 @@ public class BBoxDBCluster implements BBoxDB {
 		return new TupleListFuture(builder.getSupplier(), duplicateResolver, table);
 	}
 
+	@Override
+	public TupleListFuture queryKeys(final String table, final List<String> keys) throws BBoxDBException {
+
+		if(logger.isDebugEnabled()) {
+			logger.debug("Query by for {} keys in table {}", keys.size(), table);
+		}
+
+		final AbtractClusterFutureBuilder builder = new AbtractClusterFutureBuilder(
+				ClusterOperationType.READ_FROM_NODES, table, Hyperrectangle.FULL_SPACE, EnumSet.noneOf(DistributionRegionHandlingFlag.class)) {
+
+			@Override
+			protected Supplier<List<NetworkOperationFuture>> buildFuture(final BBoxDBConnection connection,
+					final RoutingHeader routingHeader) {
+
+				return connection.getBboxDBClient().getQueryKeysFuture(table, keys, routingHeader);
+			}
+		};
+
+		final DuplicateResolver<Tuple> duplicateResolver = new KeyGroupingDuplicateResolver(
+				TupleStoreConfigurationCache.getInstance().getDuplicateResolverForTupleStore(table));
+
+		return new TupleListFuture(builder.getSupplier(), duplicateResolver, table);
+	}
+
 	@Override
 	public TupleListFuture queryRectangle(final String table, final Hyperrectangle boundingBox,
 			final List<UserDefinedFilterDefinition> udfs) throws BBoxDBException {
@@ -614,7 +707,7 @@ public class BBoxDBCluster implements BBoxDB {
 			return false;
 		}
 
-		final Map<BBoxDBClient, List<Short>> cancelData = future.getAllConnections();
+		final Map<BBoxDBClient, List<Integer>> cancelData = future.getAllConnections();
 				
 		cancelQuery(cancelData);
 		
@@ -633,7 +726,7 @@ public class BBoxDBCluster implements BBoxDB {
 	/**
 	 * Cancel the given query
 	 */
-	public void cancelQuery(final Map<BBoxDBClient, List<Short>> cancelData)
+	public void cancelQuery(final Map<BBoxDBClient, List<Integer>> cancelData)
 			throws BBoxDBException, InterruptedException {
 
 		BBoxDBClientHelper.cancelQuery(cancelData);
@@ -676,6 +769,22 @@ public class BBoxDBCluster implements BBoxDB {
 		membershipConnectionService.setTuplesPerPage(tuplesPerPage);
 	}
 
+	/**
+	 * Is the profiling for queries enabled
+	 * @return
+	 */
+	public boolean isQueryProfilingEnabled() {
+		return membershipConnectionService.isQueryProfilingEnabled();
+	}
+
+	/**
+	 * Enable or disable the profiling of queries
+	 * @param queryProfilingEnabled
+	 */
+	public void setQueryProfilingEnabled(final boolean queryProfilingEnabled) {
+		membershipConnectionService.setQueryProfilingEnabled(queryProfilingEnabled);
+	}
+
 	@Override
 	public int getInFlightCalls() {
 		return membershipConnectionService
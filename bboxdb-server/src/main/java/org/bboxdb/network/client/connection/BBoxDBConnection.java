@@ -45,12 +45,16 @@ import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.misc.Const;
 import org.bboxdb.network.NetworkConst;
 import org.bboxdb.network.NetworkPackageDecoder;
+import org.bboxdb.network.PackageAllocationTracker;
+import org.bboxdb.network.ProtocolVersionHelper;
 import org.bboxdb.network.capabilities.PeerCapabilities;
 import org.bboxdb.network.client.BBoxDBClient;
 import org.bboxdb.network.client.future.client.HelloFuture;
 import org.bboxdb.network.client.future.network.NetworkOperationFuture;
 import org.bboxdb.network.client.future.network.NetworkOperationFutureImpl;
 import org.bboxdb.network.client.response.CompressionHandler;
+import org.bboxdb.network.compression.AdaptiveCompressionPolicy;
+import org.bboxdb.network.compression.CompressionCodecHelper;
 import org.bboxdb.network.client.response.ContinuousQueryStateHandler;
 import org.bboxdb.network.client.response.ErrorHandler;
 import org.bboxdb.network.client.response.HelloHandler;
@@ -59,6 +63,7 @@ import org.bboxdb.network.client.response.LockedTupleHandler;
 import org.bboxdb.network.client.response.MultipleTupleEndHandler;
 import org.bboxdb.network.client.response.MultipleTupleStartHandler;
 import org.bboxdb.network.client.response.PageEndHandler;
+import org.bboxdb.network.client.response.QueryProfileHandler;
 import org.bboxdb.network.client.response.ServerResponseHandler;
 import org.bboxdb.network.client.response.SuccessHandler;
 import org.bboxdb.network.client.response.TupleHandler;
@@ -101,7 +106,7 @@ public class BBoxDBConnection {
 	/**
 	 * The pending calls
 	 */
-	private final Map<Short, NetworkOperationFutureImpl> pendingCalls;
+	private final Map<Integer, NetworkOperationFutureImpl> pendingCalls;
 
 	/**
 	 * The server response reader
@@ -134,16 +139,38 @@ public class BBoxDBConnection {
 	private final ServiceState connectionState;
 
 	/**
-	 * The maximum amount of in flight requests. Needs to be lower than Short.MAX_VALUE to
-	 * prevent two in flight requests with the same id.
+	 * The default amount of in flight requests
 	 */
-	public final static short MAX_IN_FLIGHT_CALLS = 2048;
+	public final static int DEFAULT_MAX_IN_FLIGHT_CALLS = 2048;
+
+	/**
+	 * The maximum amount of in flight requests with 16 bit sequence numbers (protocol
+	 * version 1). Needs to be lower than Short.MAX_VALUE to prevent two in flight
+	 * requests with the same id.
+	 */
+	public final static int MAX_IN_FLIGHT_CALLS_PROTOCOL_1 = 2048;
+
+	/**
+	 * The maximum amount of in flight requests with 32 bit sequence numbers
+	 */
+	public final static int MAX_IN_FLIGHT_CALLS = 1024 * 1024;
 
 	/**
 	 * The number of in flight requests
 	 * @return
 	 */
-	private volatile short maxInFlightCalls = MAX_IN_FLIGHT_CALLS;
+	private volatile int maxInFlightCalls = DEFAULT_MAX_IN_FLIGHT_CALLS;
+
+	/**
+	 * The protocol version of the connection, the handshake is performed with
+	 * protocol version 1
+	 */
+	private volatile int protocolVersion = NetworkConst.PROTOCOL_VERSION_1;
+
+	/**
+	 * The protocol version that is offered to the server in the handshake
+	 */
+	private int clientProtocolVersion = NetworkConst.PROTOCOL_VERSION;
 
 	/**
 	 * The capabilities of the connection
@@ -155,6 +182,11 @@ public class BBoxDBConnection {
 	 */
 	private PeerCapabilities clientCapabilities = new PeerCapabilities();
 
+	/**
+	 * The compression policy of the connection
+	 */
+	private final AdaptiveCompressionPolicy compressionPolicy;
+
 	/**
 	 * The pending packages for compression
 	 */
@@ -211,8 +243,14 @@ public class BBoxDBConnection {
 		this.connectionState = new ServiceState();
 		connectionState.registerCallback((c) -> { if(c.isInFailedState() ) { killPendingCalls(); } });
 
-		// Default: Enable gzip compression
+		// Default: Enable gzip and snappy compression
 		this.clientCapabilities.setGZipCompression();
+		
+		if(CompressionCodecHelper.isCodecAvailable(NetworkConst.COMPRESSION_TYPE_SNAPPY)) {
+			this.clientCapabilities.setSnappyCompression();
+		}
+		
+		this.compressionPolicy = new AdaptiveCompressionPolicy();
 
 		// No concurrent access
 		this.serverResponseHandler = new HashMap<>();
@@ -241,6 +279,7 @@ public class BBoxDBConnection {
 		serverResponseHandler.put(NetworkConst.RESPONSE_TYPE_JOINED_TUPLE, new JoinedTupleHandler());
 		serverResponseHandler.put(NetworkConst.RESPONSE_TYPE_TUPLE_LOCK_SUCCESS, new LockedTupleHandler());
 		serverResponseHandler.put(NetworkConst.RESPONSE_CONTINUOUS_QUERY_STATE, new ContinuousQueryStateHandler());
+		serverResponseHandler.put(NetworkConst.RESPONSE_TYPE_QUERY_PROFILE, new QueryProfileHandler());
 
 	}
 
@@ -275,6 +314,7 @@ public class BBoxDBConnection {
 			}
 
 			clientSocket = socketRetryer.getResult();
+			setProtocolVersion(NetworkConst.PROTOCOL_VERSION_1);
 
 			inputStream = new BufferedInputStream(clientSocket.getInputStream());
 			outputStream = new BufferedOutputStream(clientSocket.getOutputStream());
@@ -317,7 +357,7 @@ public class BBoxDBConnection {
 	 * Get the next sequence number
 	 * @return
 	 */
-	public short getNextSequenceNumber() {
+	public int getNextSequenceNumber() {
 		return sequenceNumberGenerator.getNextSequenceNummber();
 	}
 
@@ -338,7 +378,7 @@ public class BBoxDBConnection {
 
 		final NetworkOperationFutureImpl operationFuture = new NetworkOperationFutureImpl(this, () -> {
 			return new HelloRequest(getNextSequenceNumber(),
-					NetworkConst.PROTOCOL_VERSION, clientCapabilities);
+					clientProtocolVersion, clientCapabilities);
 		});
 
 		final HelloFuture helloFuture = new HelloFuture(() -> Arrays.asList(operationFuture));
@@ -349,7 +389,17 @@ public class BBoxDBConnection {
 		}
 
 		final HelloResponse helloResponse = helloFuture.get(0);
-		connectionCapabilities = helloResponse.getPeerCapabilities();
+		final byte[] capabilityBytes = helloResponse.getPeerCapabilities().toByteArray();
+		final PeerCapabilities peerCapabilities = new PeerCapabilities(
+				Arrays.copyOf(capabilityBytes, capabilityBytes.length));
+		
+		// Servers of protocol version 1 echo the capabilities without knowing the snappy bit
+		if(! ProtocolVersionHelper.supportsSnappyCompression(helloResponse.getProtocolVersion())) {
+			peerCapabilities.clearSnappyCompression();
+		}
+		
+		peerCapabilities.freeze();
+		connectionCapabilities = peerCapabilities;
 
 		connectionState.dispatchToRunning();
 		logger.debug("Handshaking with {} done", getConnectionName());
@@ -446,7 +496,7 @@ public class BBoxDBConnection {
 			
 			logger.warn("Socket is closed unexpected, killing pending calls: {}", pendingCalls);
 
-			for(final short requestId : pendingCalls.keySet()) {
+			for(final int requestId : pendingCalls.keySet()) {
 				final NetworkOperationFuture future = pendingCalls.get(requestId);
 				future.setFailedState();
 				future.fireCompleteEvent();
@@ -505,18 +555,70 @@ public class BBoxDBConnection {
 		}
 	}
 
-	/* (non-Javadoc)
-	 * @see org.bboxdb.network.client.BBoxDB#getMaxInFlightCalls()
+	/**
+	 * Get the max amount of in flight calls. The amount is limited by the 
+	 * sequence numbers of the negotiated protocol version.
+	 * @return
 	 */
-	public short getMaxInFlightCalls() {
-		return maxInFlightCalls;
+	public int getMaxInFlightCalls() {
+		if(ProtocolVersionHelper.hasWideSequenceNumbers(protocolVersion)) {
+			return maxInFlightCalls;
+		}
+		
+		return Math.min(maxInFlightCalls, MAX_IN_FLIGHT_CALLS_PROTOCOL_1);
 	}
 
-	/* (non-Javadoc)
-	 * @see org.bboxdb.network.client.BBoxDB#setMaxInFlightCalls(short)
+	/**
+	 * Set the max amount of in flight calls (the in flight window) of the connection
+	 * @param maxInFlightCalls
+	 */
+	public void setMaxInFlightCalls(final int maxInFlightCalls) {
+		if(maxInFlightCalls <= 0) {
+			throw new IllegalArgumentException("Invalid amount of in flight calls: " + maxInFlightCalls);
+		}
+		
+		this.maxInFlightCalls = Math.min(maxInFlightCalls, MAX_IN_FLIGHT_CALLS);
+		
+		synchronized (pendingCalls) {
+			pendingCalls.notifyAll();
+		}
+	}
+
+	/**
+	 * Get the protocol version of the connection
+	 * @return
+	 */
+	public int getProtocolVersion() {
+		return protocolVersion;
+	}
+
+	/**
+	 * Get the protocol version that is offered to the server
+	 * @return
 	 */
-	public void setMaxInFlightCalls(short maxInFlightCalls) {
-		this.maxInFlightCalls = (short) Math.min(maxInFlightCalls, MAX_IN_FLIGHT_CALLS);
+	public int getClientProtocolVersion() {
+		return clientProtocolVersion;
+	}
+
+	/**
+	 * Set the protocol version that is offered to the server, needs to 
+	 * be called before the connection is opened
+	 * @param clientProtocolVersion
+	 */
+	public void setClientProtocolVersion(final int clientProtocolVersion) {
+		this.clientProtocolVersion = clientProtocolVersion;
+	}
+
+	/**
+	 * Set the protocol version of the connection. Called by the response reader 
+	 * when the handshake response is received.
+	 * @param protocolVersion
+	 */
+	public void setProtocolVersion(final int protocolVersion) {
+		this.protocolVersion = protocolVersion;
+		
+		final boolean wideSequenceNumbers = ProtocolVersionHelper.hasWideSequenceNumbers(protocolVersion);
+		sequenceNumberGenerator.setWideSequenceNumbers(wideSequenceNumbers);
 	}
 
 	/**
@@ -528,7 +630,7 @@ public class BBoxDBConnection {
 	public void sendPackageToServer(final NetworkRequestPackage requestPackage,
 			final NetworkOperationFuture future) {
 
-		final short sequenceNumber = requestPackage.getSequenceNumber();
+		final int sequenceNumber = requestPackage.getSequenceNumber();
 		final boolean result = testPackageSend(requestPackage, future);
 
 		// Package don't need to be send
@@ -537,7 +639,7 @@ public class BBoxDBConnection {
 			return;
 		}
 
-		if(connectionCapabilities.hasGZipCompression()) {
+		if(connectionCapabilities.hasCompression()) {
 			writePackageWithCompression(requestPackage, future);
 		} else {
 			writePackageUncompressed(requestPackage, future);
@@ -637,7 +739,8 @@ public class BBoxDBConnection {
 		final long writtenPackges = packagesToWrite.size();
 		
 		final NetworkRequestPackage compressionEnvelopeRequest
-			= new CompressionEnvelopeRequest(NetworkConst.COMPRESSION_TYPE_GZIP, packagesToWrite);
+			= new CompressionEnvelopeRequest(connectionCapabilities.getCompressionType(), 
+					packagesToWrite, compressionPolicy);
 
 		try {
 			writePackageToSocket(compressionEnvelopeRequest);
@@ -670,7 +773,9 @@ public class BBoxDBConnection {
 		}
 		
 		synchronized (outputStream) {
-			requestPackage.writeToOutputStream(outputStream);
+			final long allocatedBytes = PackageAllocationTracker.getAllocatedBytes();
+			requestPackage.writeToOutputStream(outputStream, protocolVersion);
+			PackageAllocationTracker.recordAllocations(requestPackage, allocatedBytes);
 			outputStream.flush();
 		}
 	
@@ -683,10 +788,10 @@ public class BBoxDBConnection {
 	 * @param future
 	 * @return
 	 */
-	public short registerPackageCallback(final NetworkRequestPackage requestPackage,
+	public int registerPackageCallback(final NetworkRequestPackage requestPackage,
 			final NetworkOperationFutureImpl future) {
 
-		final short sequenceNumber = requestPackage.getSequenceNumber();
+		final int sequenceNumber = requestPackage.getSequenceNumber();
 
 		synchronized (pendingCalls) {
 			assert (! pendingCalls.containsKey(sequenceNumber))
@@ -699,7 +804,7 @@ public class BBoxDBConnection {
 		try {
 			synchronized (pendingCalls) {
 				// Ensure that not more then maxInFlightCalls are active
-				while(pendingCalls.size() > maxInFlightCalls) {
+				while(pendingCalls.size() > getMaxInFlightCalls()) {
 					logger.info("Wait queue for={} is full ({})", serverAddress, pendingCalls.size());
 					logger.debug("Pending calls for server={} are={}", serverAddress, pendingCalls.keySet());
 					pendingCalls.wait();
@@ -721,13 +826,13 @@ public class BBoxDBConnection {
 	 * @throws InterruptedException 
 	 */
 	public void handleResultPackage(final ByteBuffer encodedPackage) throws PackageEncodeException, InterruptedException {
-		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
+		final int sequenceNumber = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
 		final short packageType = NetworkPackageDecoder.getPackageTypeFromResponse(encodedPackage);
 
 		NetworkOperationFuture future = null;
 		
 		synchronized (pendingCalls) {
-			future = pendingCalls.get(Short.valueOf(sequenceNumber));
+			future = pendingCalls.get(Integer.valueOf(sequenceNumber));
 		}
 
 		if(! serverResponseHandler.containsKey(packageType)) {
@@ -755,10 +860,10 @@ public class BBoxDBConnection {
 	 *
 	 * @param sequenceNumber
 	 */
-	private void removeFutureAndReleaseSequencenumber(final short sequenceNumber) {
+	private void removeFutureAndReleaseSequencenumber(final int sequenceNumber) {
 		synchronized (pendingCalls) {
 			sequenceNumberGenerator.releaseNumber(sequenceNumber);
-			pendingCalls.remove(Short.valueOf(sequenceNumber));
+			pendingCalls.remove(Integer.valueOf(sequenceNumber));
 			pendingCalls.notifyAll();
 		}
 	}
@@ -31,7 +31,13 @@ public class SequenceNumberGenerator {
 	/**
 	 * The used numbers
 	 */
-	protected final Set<Short> usedNumbers = new HashSet<>();
+	protected final Set<Integer> usedNumbers = new HashSet<>();
+	
+	/**
+	 * Are 32 bit sequence numbers used (protocol version 2) or
+	 * 16 bit sequence numbers (protocol version 1)
+	 */
+	private volatile boolean wideSequenceNumbers = false;
 	
 	/**
 	 * The amount of tried to find an empty sequence number
@@ -47,8 +53,8 @@ public class SequenceNumberGenerator {
 	 * 
 	 * @return The sequence number
 	 */
-	public synchronized short getNextSequenceNummber() {
-		short nextNumber = (short) sequenceNumber.getAndIncrement();
+	public synchronized int getNextSequenceNummber() {
+		int nextNumber = generateNumber();
 		int numberTry = 1;
 				
 		// Check if sequence number is unused
@@ -58,7 +64,7 @@ public class SequenceNumberGenerator {
 				throw new IllegalArgumentException("Unable to get sequence number with tries: " + MAX_TRIES);
 			}
 			
-			nextNumber = (short) sequenceNumber.getAndIncrement();
+			nextNumber = generateNumber();
 			numberTry++;
 		}
 		
@@ -66,21 +72,58 @@ public class SequenceNumberGenerator {
 		return nextNumber;
 	}
 	
+	/**
+	 * Generate the next number, 16 bit sequence numbers wrap around
+	 * after Short.MAX_VALUE
+	 * @return
+	 */
+	private int generateNumber() {
+		final int nextNumber = sequenceNumber.getAndIncrement();
+		
+		if(wideSequenceNumbers) {
+			return nextNumber;
+		}
+		
+		return (short) nextNumber;
+	}
+	
 	/**
 	 * Get the current sequence number
 	 * 
 	 * @return The sequence number
 	 */
-	public short getLastGeneratedNumber() {
+	public int getLastGeneratedNumber() {
+		
+		if(wideSequenceNumbers) {
+			return sequenceNumber.get();
+		}
+		
 		return sequenceNumber.shortValue();
 	}
 	
+	/**
+	 * Use 32 bit sequence numbers (protocol version 2) or 16 bit
+	 * sequence numbers (protocol version 1)
+	 * @param wideSequenceNumbers
+	 */
+	public void setWideSequenceNumbers(final boolean wideSequenceNumbers) {
+		this.wideSequenceNumbers = wideSequenceNumbers;
+	}
+	
+	/**
+	 * Are 32 bit sequence numbers used
+	 * @return
+	 */
+	public boolean isWideSequenceNumbers() {
+		return wideSequenceNumbers;
+	}
+	
 	/**
 	 * Release the given sequence number
 	 * @param sequenceNumber
 	 * @return
 	 */
-	public synchronized boolean releaseNumber(final short sequenceNumber) {
+	public synchronized boolean releaseNumber(final int sequenceNumber) {
 		return usedNumbers.remove(sequenceNumber);
 	}
 	
@@ -22,6 +22,9 @@ import java.io.InputStream;
 import java.nio.ByteBuffer;
 
 import org.bboxdb.commons.concurrent.ExceptionSafeRunnable;
+import org.bboxdb.misc.Const;
+import org.bboxdb.network.NetworkConst;
+import org.bboxdb.network.ProtocolVersionHelper;
 import org.bboxdb.network.packages.PackageEncodeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +42,11 @@ public class ServerResponseReaderRunnable extends ExceptionSafeRunnable {
 	 */
 	protected final BBoxDBConnection bboxDBConnection;
 	
+	/**
+	 * The buffer for the package header, reused for all packages
+	 */
+	private final ByteBuffer packageHeader;
+	
 	/**
 	 * The Logger
 	 */
@@ -46,17 +54,32 @@ public class ServerResponseReaderRunnable extends ExceptionSafeRunnable {
 	
 	public ServerResponseReaderRunnable(final BBoxDBConnection bboxDBConnection) {
 		this.bboxDBConnection = bboxDBConnection;
+		this.packageHeader = ByteBuffer.allocate(NetworkConst.PACKAGE_HEADER_LENGTH);
+		this.packageHeader.order(Const.APPLICATION_BYTE_ORDER);
 	}
 	
 	/**
-	 * Read the next response package header from the server
+	 * Read the next response package header from the server. The header is read into 
+	 * a reused buffer, it is valid until the next header is read.
+	 * 
 	 * @return 
 	 * @throws IOException 
 	 */
 	protected ByteBuffer readNextResponsePackageHeader(final InputStream inputStream) throws IOException {
-		final ByteBuffer bb = ByteBuffer.allocate(12);
-		ByteStreams.readFully(inputStream, bb.array(), 0, bb.limit());
-		return bb;
+		packageHeader.clear();
+		final byte[] header = packageHeader.array();
+		
+		// The protocol version is negotiated with the first package (handshake)
+		if(! ProtocolVersionHelper.hasWideSequenceNumbers(bboxDBConnection.getProtocolVersion())) {
+			// Read the version 1 header behind the 2 additional sequence number bytes
+			final int sizeDifference = NetworkConst.PACKAGE_HEADER_LENGTH - NetworkConst.PACKAGE_HEADER_LENGTH_V1;
+			ByteStreams.readFully(inputStream, header, sizeDifference, NetworkConst.PACKAGE_HEADER_LENGTH_V1);
+			packageHeader.putInt(0, packageHeader.getShort(sizeDifference));
+			return packageHeader;
+		}
+		
+		ByteStreams.readFully(inputStream, header, 0, header.length);
+		return packageHeader;
 	}
 	
 	/**
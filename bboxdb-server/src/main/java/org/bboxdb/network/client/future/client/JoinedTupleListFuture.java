@@ -46,14 +46,7 @@ public class JoinedTupleListFuture extends AbstractListFuture<MultiTuple>{
 		final List<MultiTuple> allTuples = getListWithAllResults();
 		final TimeBasedEntityDuplicateTracker entityDuplicateTracker = new TimeBasedEntityDuplicateTracker();
 
-		final Iterator<MultiTuple> iterator = allTuples.iterator();
-		while(iterator.hasNext()) {
-			final MultiTuple nextElement = iterator.next();
-
-			if(entityDuplicateTracker.isElementAlreadySeen(nextElement)) {
-				iterator.remove();
-			}
-		}
+		allTuples.removeIf(t -> entityDuplicateTracker.isElementAlreadySeen(t));
 		
 		runShutdownCallbacks();
 		
@@ -64,13 +57,13 @@ public class JoinedTupleListFuture extends AbstractListFuture<MultiTuple>{
 	 * Get all used connections
 	 * @return
 	 */
-	public Map<BBoxDBClient, List<Short>> getAllConnections() {
+	public Map<BBoxDBClient, List<Integer>> getAllConnections() {
 		
-		final Map<BBoxDBClient, List<Short>> result = new HashMap<>();
+		final Map<BBoxDBClient, List<Integer>> result = new HashMap<>();
 		
 		for(final NetworkOperationFuture future : futures) {
 			final BBoxDBClient key = future.getConnection().getBboxDBClient();
-			result.computeIfAbsent(key, k -> new ArrayList<Short>());
+			result.computeIfAbsent(key, k -> new ArrayList<Integer>());
 			result.get(key).add(future.getTransmittedPackage().getSequenceNumber());
 		}
 		
@@ -23,6 +23,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import org.bboxdb.network.client.connection.BBoxDBConnection;
+import org.bboxdb.network.entity.OperatorProfile;
 
 public interface OperationFuture {
 
@@ -30,7 +31,7 @@ public interface OperationFuture {
 	 * Get the request id of the operation
 	 * @return
 	 */
-	public short getRequestId(final int resultId);
+	public int getRequestId(final int resultId);
 
 	/**
 	 * Get the additional message
@@ -39,6 +40,14 @@ public interface OperationFuture {
 	 */
 	public String getMessage(final int resultId);
 
+	/**
+	 * Get the profile of the executed query, null if the
+	 * query was executed without profiling
+	 * @param resultId
+	 * @return
+	 */
+	public OperatorProfile getQueryProfile(final int resultId);
+
 	/**
 	 * Is the given result complete?
 	 * @param resultId
@@ -21,18 +21,23 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.network.client.BBoxDBClient;
 import org.bboxdb.network.client.connection.BBoxDBConnection;
 import org.bboxdb.network.client.future.network.NetworkOperationFuture;
+import org.bboxdb.network.entity.OperatorProfile;
 import org.bboxdb.network.packages.NetworkRequestPackage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -76,14 +81,15 @@ public class OperationFutureImpl<T> implements OperationFuture, FutureErrorCallb
 	private Supplier<List<NetworkOperationFuture>> futureSupplier;
 	
 	/**
-	 * The success callbacks
+	 * The success callbacks, callbacks might be added while the network 
+	 * thread completes the future
 	 */
-	protected final List<Consumer<OperationFuture>> completeCallbacks = new ArrayList<>();
+	protected final List<Consumer<OperationFuture>> completeCallbacks = new CopyOnWriteArrayList<>();
 
 	/**
 	 * The shutdown callbacks
 	 */
-	protected final List<Consumer<OperationFuture>> shutdownCallbacks = new ArrayList<>();
+	protected final List<Consumer<OperationFuture>> shutdownCallbacks = new CopyOnWriteArrayList<>();
 	
 	/**
 	 * The error history of the future
@@ -189,13 +195,58 @@ public class OperationFutureImpl<T> implements OperationFuture, FutureErrorCallb
 		shutdownCallbacks.add(consumer);
 	}
 
+	/**
+	 * Run the consumer once when the future is done (successful or failed). The consumer 
+	 * is executed immediately, when the future is already done. Otherwise, the consumer
+	 * is executed by the thread that completes the future (e.g., a network thread), so
+	 * it should not block.
+	 * 
+	 * @param consumer
+	 */
+	public void addDoneCallbackConsumer(final Consumer<OperationFuture> consumer) {
+		final AtomicBoolean executed = new AtomicBoolean(false);
+		
+		final Consumer<OperationFuture> executeOnceConsumer = (f) -> {
+			if(executed.compareAndSet(false, true)) {
+				consumer.accept(f);
+			}
+		};
+		
+		completeCallbacks.add(executeOnceConsumer);
+		
+		// The future might be completed before the consumer was added
+		if(isDone()) {
+			executeOnceConsumer.accept(this);
+		}
+	}
+	
+	/**
+	 * Get a completable future that is completed when this future is done. The
+	 * completable future is completed exceptionally if this future has failed.
+	 * 
+	 * @return
+	 */
+	public CompletableFuture<Void> getCompletableFuture() {
+		final CompletableFuture<Void> completableFuture = new CompletableFuture<>();
+		
+		addDoneCallbackConsumer((f) -> {
+			if(f.isFailed()) {
+				completableFuture.completeExceptionally(new BBoxDBException(f.getAllMessages()));
+			} else {
+				completableFuture.complete(null);
+			}
+		});
+		
+		return completableFuture;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
 	 * @see org.bboxdb.network.client.future.OperationFuture#getRequestId(int)
 	 */
 	@Override
-	public short getRequestId(final int resultId) {
+	public int getRequestId(final int resultId) {
 		checkFutureSize(resultId);
 
 		return futures.get(resultId).getRequestId();
@@ -213,6 +264,13 @@ public class OperationFutureImpl<T> implements OperationFuture, FutureErrorCallb
 		return futures.get(resultId).getMessage();
 	}
 
+	@Override
+	public OperatorProfile getQueryProfile(final int resultId) {
+		checkFutureSize(resultId);
+
+		return futures.get(resultId).getQueryProfile();
+	}
+
 	@Override
 	public BBoxDBConnection getConnection(final int resultId) {
 		checkFutureSize(resultId);
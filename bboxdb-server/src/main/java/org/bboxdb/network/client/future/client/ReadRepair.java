@@ -17,8 +17,16 @@
  *******************************************************************************/
 package org.bboxdb.network.client.future.client;
 
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.bboxdb.distribution.zookeeper.ZookeeperException;
 import org.bboxdb.misc.BBoxDBException;
@@ -43,11 +51,36 @@ public class ReadRepair {
 	 * The futures
 	 */
 	private List<NetworkOperationFuture> futures;
+	
+	/**
+	 * The amount of tuples that are checked in one task
+	 */
+	private final static int BATCH_SIZE = 1000;
+	
+	/**
+	 * The max amount of read repairs that wait for execution
+	 */
+	private final static int MAX_PENDING_READ_REPAIRS = 16;
+	
+	/**
+	 * The executor for the read repair. The thread is terminated when 
+	 * no read repair is pending. When too many read repairs are pending, 
+	 * new read repairs are skipped.
+	 */
+	private final static ThreadPoolExecutor executor;
 
 	/**
 	 * The Logger
 	 */
 	private final static Logger logger = LoggerFactory.getLogger(ReadRepair.class);
+	
+	static {
+		executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, 
+				new ArrayBlockingQueue<>(MAX_PENDING_READ_REPAIRS), 
+				(r, e) -> logger.warn("Too many pending read repairs, skipping read repair"));
+		
+		executor.allowCoreThreadTimeOut(true);
+	}
 
 	public ReadRepair(final String tablename, final List<NetworkOperationFuture> futures) {
 		this.tablename = tablename;
@@ -55,41 +88,72 @@ public class ReadRepair {
 	}
 	
 	/**
-	 * Perform read repair by checking all results
+	 * Perform the read repair in the background. The tuples are checked in
+	 * batches, so the result sets of the servers are only build once.
+	 * 
+	 * The list is read by the read repair and must not be modified by 
+	 * the caller afterwards.
+	 * 
+	 * @param allTuples
 	 */
-	public void performReadRepair(final List<Tuple> allTuples) {
-
+	public void performReadRepairAsync(final List<Tuple> allTuples) {
+		
 		// Unable to perform read repair on only one result object
 		if(futures.size() < 2) {
 			return;
 		}
-
-		try {
-			for(int resultId = 0; resultId < futures.size(); resultId++) {
-				performReadRepairForResult(allTuples, resultId);
+		
+		final List<Tuple> tuples = allTuples;
+		
+		executor.execute(() -> {
+			try {
+				for(int resultId = 0; resultId < futures.size(); resultId++) {
+					final Set<Tuple> tupleResult = getResultSet(resultId);
+					
+					for(int pos = 0; pos < tuples.size(); pos = pos + BATCH_SIZE) {
+						final List<Tuple> batch = tuples.subList(pos, Math.min(pos + BATCH_SIZE, tuples.size()));
+						performReadRepairForResult(batch, tupleResult, resultId);
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (Exception e) {
+				logger.error("Got exception during read repair", e);
 			}
-		} catch (InterruptedException e) {
-			Thread.currentThread().interrupt();
-			return;
-		} catch (BBoxDBException | ZookeeperException e) {
-			logger.error("Got exception during read repair", e);
+		});
+	}
+	
+	/**
+	 * Get the tuples of the given result
+	 * @param resultId
+	 * @return
+	 * @throws InterruptedException
+	 */
+	@SuppressWarnings("unchecked")
+	private Set<Tuple> getResultSet(final int resultId) throws InterruptedException {
+		final List<Tuple> tupleResult = (List<Tuple>) futures.get(resultId).get(true);
+		
+		if(tupleResult == null) {
+			return new HashSet<>();
 		}
+		
+		return new HashSet<>(tupleResult);
 	}
 
 	/**
-	 * Perform read repair for the given result
+	 * Perform read repair for the given result. The missing tuples with the same 
+	 * route are send in one insert package.
 	 *
 	 * @param allTuples
+	 * @param tupleResult
 	 * @param resultId
 	 * @throws InterruptedException
 	 * @throws BBoxDBException
 	 * @throws ZookeeperException
 	 */
-	private void performReadRepairForResult(final List<Tuple> allTuples, int resultId)
-			throws InterruptedException, BBoxDBException, ZookeeperException {
+	private void performReadRepairForResult(final List<Tuple> allTuples, final Set<Tuple> tupleResult, 
+			final int resultId) throws InterruptedException, BBoxDBException, ZookeeperException {
 
-		@SuppressWarnings("unchecked")
-		final List<Tuple> tupleResult = (List<Tuple>) futures.get(resultId).get(true);
 		final BBoxDBConnection bboxDBConnection = futures.get(resultId).getConnection();
 
 		if(bboxDBConnection == null) {
@@ -97,23 +161,37 @@ public class ReadRepair {
 			return;
 		}
 
+		final Map<RoutingHeader, List<Tuple>> missingTuples = new LinkedHashMap<>();
+		
 		for(final Tuple tuple : allTuples) {
+			
+			if(tupleResult.contains(tuple)) {
+				continue;
+			}
+			
 			final RoutingHeader routingHeader = RoutingHeaderHelper.getRoutingHeaderForLocalSystem(
 					tablename, tuple.getBoundingBox(), true, bboxDBConnection.getServerAddress(), true, EnumSet.noneOf(DistributionRegionHandlingFlag.class));
 
 			// System is not responsible for the tuple
 			if(routingHeader.getHopCount() == 0) {
-				return;
+				continue;
 			}
 
-			if(! tupleResult.contains(tuple)) {
-
-				logger.info("Tuple {} is not contained in result {} from server {}, "
-						+ "performing read repair", tuple, tupleResult,
-						bboxDBConnection.getConnectionName());
+			logger.info("Tuple {} is not contained in result from server {}, "
+					+ "performing read repair", tuple, bboxDBConnection.getConnectionName());
 
-				final BBoxDBClient bboxDBClient = bboxDBConnection.getBboxDBClient();
-				bboxDBClient.insertTuple(tablename, tuple, routingHeader);
+			missingTuples.computeIfAbsent(routingHeader, r -> new ArrayList<>()).add(tuple);
+		}
+		
+		final BBoxDBClient bboxDBClient = bboxDBConnection.getBboxDBClient();
+		
+		for(final Map.Entry<RoutingHeader, List<Tuple>> entry : missingTuples.entrySet()) {
+			final List<Tuple> tuples = entry.getValue();
+			
+			if(tuples.size() == 1) {
+				bboxDBClient.insertTuple(tablename, tuples.get(0), entry.getKey());
+			} else {
+				bboxDBClient.insertTuples(tablename, tuples, entry.getKey());
 			}
 		}
 	}
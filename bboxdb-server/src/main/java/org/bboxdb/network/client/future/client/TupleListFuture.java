@@ -17,6 +17,7 @@
  *******************************************************************************/
 package org.bboxdb.network.client.future.client;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.function.Supplier;
@@ -24,8 +25,8 @@ import java.util.function.Supplier;
 import org.bboxdb.commons.DuplicateResolver;
 import org.bboxdb.network.client.future.client.helper.ThreadedTupleListFutureIterator;
 import org.bboxdb.network.client.future.network.NetworkOperationFuture;
+import org.bboxdb.storage.entity.EntityIdentifier;
 import org.bboxdb.storage.entity.Tuple;
-import org.bboxdb.storage.util.TimeBasedEntityDuplicateTracker;
 import org.bboxdb.storage.util.TupleHelper;
 
 public class TupleListFuture extends AbstractListFuture<Tuple> {
@@ -72,21 +73,24 @@ public class TupleListFuture extends AbstractListFuture<Tuple> {
 		// Remove duplicates
 		duplicateResolver.removeDuplicates(allTuples);
 
-		// Perform read repair
+		// Perform read repair in the background
 		final ReadRepair readRepair = new ReadRepair(tablename, futures);
-		readRepair.performReadRepair(allTuples);
-
-		final TimeBasedEntityDuplicateTracker entityDuplicateTracker = new TimeBasedEntityDuplicateTracker();
-
-		final Iterator<Tuple> iterator = allTuples.iterator();
-		while(iterator.hasNext()) {
-			final Tuple nextElement = iterator.next();
-
-			if(entityDuplicateTracker.isElementAlreadySeen(nextElement)) {
-				iterator.remove();
+		readRepair.performReadRepairAsync(allTuples);
+
+		// The tuples are sorted by key and version, so the tuples received from 
+		// multiple instances are adjacent and can be removed without tracking them
+		final List<Tuple> uniqueTuples = new ArrayList<>(allTuples.size());
+		EntityIdentifier lastIdentifier = null;
+		
+		for(final Tuple tuple : allTuples) {
+			final EntityIdentifier identifier = tuple.getEntityIdentifier();
+			
+			if(! identifier.equals(lastIdentifier)) {
+				uniqueTuples.add(tuple);
+				lastIdentifier = identifier;
 			}
 		}
 
-		return allTuples.iterator();
+		return uniqueTuples.iterator();
 	}
 }
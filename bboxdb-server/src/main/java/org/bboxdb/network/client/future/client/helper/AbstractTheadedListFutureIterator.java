@@ -81,7 +81,8 @@ public abstract class AbstractTheadedListFutureIterator<T extends PagedTransfera
 	/**
 	 * The tuple duplicate remover
 	 */
-	protected final TimeBasedEntityDuplicateTracker tupleDuplicateRemover = new TimeBasedEntityDuplicateTracker();
+	protected final TimeBasedEntityDuplicateTracker tupleDuplicateRemover 
+		= new TimeBasedEntityDuplicateTracker(TimeBasedEntityDuplicateTracker.STREAM_MAX_ENTRIES);
 
 	/**
 	 * The Logger
@@ -153,7 +154,7 @@ public abstract class AbstractTheadedListFutureIterator<T extends PagedTransfera
 					return;
 				}
 
-				final short queryRequestId = abstractListFuture.getRequestId(resultId);
+				final int queryRequestId = abstractListFuture.getRequestId(resultId);
 				final BBoxDBClient bbBoxDBClient = bboxdbConnection.getBboxDBClient();
 
 				AbstractListFuture<T> nextPage = null;
@@ -23,6 +23,7 @@ import java.util.function.Consumer;
 
 import org.bboxdb.network.client.connection.BBoxDBConnection;
 import org.bboxdb.network.client.future.client.FutureErrorCallback;
+import org.bboxdb.network.entity.OperatorProfile;
 import org.bboxdb.network.packages.NetworkRequestPackage;
 
 public interface NetworkOperationFuture {
@@ -48,7 +49,7 @@ public interface NetworkOperationFuture {
 	/**
 	 * Returns the request id
 	 */
-	public short getRequestId();
+	public int getRequestId();
 
 	/**
 	 * Set the result of the operation
@@ -83,6 +84,18 @@ public interface NetworkOperationFuture {
 	 */
 	public void setMessage(final String message);
 
+	/**
+	 * Get the profile of the executed query (if requested)
+	 * @return
+	 */
+	public OperatorProfile getQueryProfile();
+
+	/**
+	 * Set the profile of the executed query
+	 * @param queryProfile
+	 */
+	public void setQueryProfile(final OperatorProfile queryProfile);
+
 	/**
 	 * Is the given result complete?
 	 * @return
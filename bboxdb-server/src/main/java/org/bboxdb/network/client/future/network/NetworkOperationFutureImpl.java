@@ -28,6 +28,7 @@ import java.util.stream.Collectors;
 
 import org.bboxdb.network.client.connection.BBoxDBConnection;
 import org.bboxdb.network.client.future.client.FutureErrorCallback;
+import org.bboxdb.network.entity.OperatorProfile;
 import org.bboxdb.network.packages.NetworkRequestPackage;
 import org.bboxdb.network.routing.RoutingHop;
 import org.slf4j.Logger;
@@ -40,7 +41,7 @@ public class NetworkOperationFutureImpl implements NetworkOperationFuture {
 	/**
 	 * The id of the operation
 	 */
-	private short requestId;
+	private int requestId;
 
 	/**
 	 * The result of the operation
@@ -97,6 +98,11 @@ public class NetworkOperationFutureImpl implements NetworkOperationFuture {
 	 */
 	private int totalRetries = 50;
 
+	/**
+	 * The profile of the executed query
+	 */
+	private volatile OperatorProfile queryProfile;
+
 	/**
 	 * The last send package
 	 */
@@ -156,7 +162,7 @@ public class NetworkOperationFutureImpl implements NetworkOperationFuture {
 		final NetworkRequestPackage nextPackage = packageSupplier.get();
 		
 		if(connection.getConnectionState().isInFinishedState()) {
-			final short packageId = (nextPackage != null) ? nextPackage.getSequenceNumber() : -1;
+			final int packageId = (nextPackage != null) ? nextPackage.getSequenceNumber() : -1;
 			final String packageClass = (nextPackage != null) ? nextPackage.getClass().toString() : "undefined";
 			
 			logger.error("Don't execute future because connection is closed: [connection={}, seq={}, package={}]", 
@@ -196,7 +202,7 @@ public class NetworkOperationFutureImpl implements NetworkOperationFuture {
 	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#getRequestId()
 	 */
 	@Override
-	public short getRequestId() {
+	public int getRequestId() {
 		return requestId;
 	}
 
@@ -271,6 +277,22 @@ public class NetworkOperationFutureImpl implements NetworkOperationFuture {
 		this.message = message;
 	}
 
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.network.NetworkOperationFuture#getQueryProfile()
+	 */
+	@Override
+	public OperatorProfile getQueryProfile() {
+		return queryProfile;
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.network.NetworkOperationFuture#setQueryProfile(org.bboxdb.network.entity.OperatorProfile)
+	 */
+	@Override
+	public void setQueryProfile(final OperatorProfile queryProfile) {
+		this.queryProfile = queryProfile;
+	}
+
 	/* (non-Javadoc)
 	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#isCompleteResult()
 	 */
@@ -26,6 +26,7 @@ import java.util.stream.Collectors;
 
 import org.bboxdb.network.client.connection.BBoxDBConnection;
 import org.bboxdb.network.client.future.client.FutureErrorCallback;
+import org.bboxdb.network.entity.OperatorProfile;
 import org.bboxdb.network.packages.NetworkRequestPackage;
 
 public class NetworkOperationFutureMultiImpl implements NetworkOperationFuture {
@@ -86,7 +87,7 @@ public class NetworkOperationFutureMultiImpl implements NetworkOperationFuture {
 					continue;
 				}
 				
-				final short requestId = futureToCancel.getRequestId();
+				final int requestId = futureToCancel.getRequestId();
 				
 				connection.getBboxDBClient().cancelRequest(requestId);
 			}
@@ -142,7 +143,7 @@ public class NetworkOperationFutureMultiImpl implements NetworkOperationFuture {
 	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#getRequestId()
 	 */
 	@Override
-	public short getRequestId() {
+	public int getRequestId() {
 		 return getReadyFuture().getRequestId();
 	}
 
@@ -195,6 +196,22 @@ public class NetworkOperationFutureMultiImpl implements NetworkOperationFuture {
 		throw new IllegalArgumentException("Unable to setMessage on multi future");
 	}
 
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.network.NetworkOperationFuture#getQueryProfile()
+	 */
+	@Override
+	public OperatorProfile getQueryProfile() {
+		return getReadyFuture().getQueryProfile();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.bboxdb.network.client.future.network.NetworkOperationFuture#setQueryProfile(org.bboxdb.network.entity.OperatorProfile)
+	 */
+	@Override
+	public void setQueryProfile(final OperatorProfile queryProfile) {
+		throw new IllegalArgumentException("Unable to setQueryProfile on multi future");
+	}
+
 	/* (non-Javadoc)
 	 * @see org.bboxdb.network.client.future.NetworkOperationFuture#isCompleteResult()
 	 */
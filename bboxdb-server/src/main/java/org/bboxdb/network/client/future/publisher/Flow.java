@@ -0,0 +1,93 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.client.future.publisher;
+
+/**
+ * The interfaces of a reactive stream with demand-driven backpressure. The 
+ * interfaces have the same signatures and contracts as java.util.concurrent.Flow, 
+ * which is not available in Java 8.
+ */
+public final class Flow {
+
+	private Flow() {
+		// Only the interfaces are used
+	}
+	
+	/**
+	 * A producer of elements for subscribers
+	 *
+	 * @param <T>
+	 */
+	@FunctionalInterface
+	public static interface Publisher<T> {
+		
+		/**
+		 * Add the subscriber
+		 * @param subscriber
+		 */
+		public void subscribe(final Subscriber<? super T> subscriber);
+	}
+	
+	/**
+	 * A receiver of elements
+	 *
+	 * @param <T>
+	 */
+	public static interface Subscriber<T> {
+		
+		/**
+		 * Called before any other method of the subscriber
+		 * @param subscription
+		 */
+		public void onSubscribe(final Subscription subscription);
+		
+		/**
+		 * The next element of the subscription, only called for requested elements
+		 * @param item
+		 */
+		public void onNext(final T item);
+		
+		/**
+		 * The subscription has failed, no further methods are called
+		 * @param throwable
+		 */
+		public void onError(final Throwable throwable);
+		
+		/**
+		 * All elements are received, no further methods are called
+		 */
+		public void onComplete();
+	}
+	
+	/**
+	 * The link between a publisher and a subscriber
+	 */
+	public static interface Subscription {
+		
+		/**
+		 * Request the given amount of additional elements
+		 * @param n
+		 */
+		public void request(final long n);
+		
+		/**
+		 * Stop receiving elements
+		 */
+		public void cancel();
+	}
+}
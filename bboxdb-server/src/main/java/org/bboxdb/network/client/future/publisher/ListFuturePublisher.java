@@ -0,0 +1,575 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.client.future.publisher;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.network.client.connection.BBoxDBConnection;
+import org.bboxdb.network.client.future.client.AbstractListFuture;
+import org.bboxdb.network.client.future.publisher.Flow.Publisher;
+import org.bboxdb.network.client.future.publisher.Flow.Subscriber;
+import org.bboxdb.network.client.future.publisher.Flow.Subscription;
+import org.bboxdb.storage.entity.PagedTransferableEntity;
+import org.bboxdb.storage.util.TimeBasedEntityDuplicateTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publish the results of a query without blocking threads. The query is executed 
+ * when the subscriber requests the first element. The next page of a paged result 
+ * is only requested from the server, when the subscriber has requested more 
+ * elements than are buffered, so the server paging is driven by the demand of
+ * the subscriber.
+ * 
+ * The elements are emitted by the thread that requests them or by the network 
+ * thread that receives them, so the subscriber should not block. The state of 
+ * the paged results is only changed by the emitting thread. The page requests 
+ * are sent by a separate executor, because sending can block when the in flight 
+ * window of the connection is full.
+ *
+ * @param <T>
+ */
+public class ListFuturePublisher<T extends PagedTransferableEntity> implements Publisher<T> {
+	
+	/**
+	 * The query to execute
+	 */
+	private final Callable<? extends AbstractListFuture<T>> query;
+	
+	/**
+	 * Is the publisher subscribed
+	 */
+	private final AtomicBoolean subscribed;
+	
+	/**
+	 * The executor that sends the page requests and cancels the paged queries. 
+	 * Idle threads are terminated.
+	 */
+	private final static ExecutorService requestExecutor;
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(ListFuturePublisher.class);
+
+	static {
+		requestExecutor = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 30, TimeUnit.SECONDS, 
+				new SynchronousQueue<>(), r -> {
+					final Thread thread = new Thread(r, "List future publisher request thread");
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+	
+	public ListFuturePublisher(final Callable<? extends AbstractListFuture<T>> query) {
+		this.query = Objects.requireNonNull(query);
+		this.subscribed = new AtomicBoolean(false);
+	}
+
+	@Override
+	public void subscribe(final Subscriber<? super T> subscriber) {
+		Objects.requireNonNull(subscriber);
+		
+		// The query is executed only once
+		if(! subscribed.compareAndSet(false, true)) {
+			subscriber.onSubscribe(new Subscription() {
+				@Override
+				public void request(final long n) {
+					// Subscription is already failed
+				}
+				
+				@Override
+				public void cancel() {
+					// Subscription is already failed
+				}
+			});
+			
+			subscriber.onError(new IllegalStateException("The publisher is already subscribed"));
+			return;
+		}
+		
+		subscriber.onSubscribe(new QuerySubscription(subscriber));
+	}
+	
+	/**
+	 * The paged result of one server
+	 */
+	private static class PagedResult {
+		
+		/**
+		 * The connection
+		 */
+		private final BBoxDBConnection connection;
+		
+		/**
+		 * The id of the query request
+		 */
+		private final int requestId;
+		
+		/**
+		 * Is a page requested (only accessed by the emitting thread)
+		 */
+		private boolean pageRequested;
+		
+		/**
+		 * Are all pages received (only accessed by the emitting thread)
+		 */
+		private boolean complete;
+
+		public PagedResult(final BBoxDBConnection connection, final int requestId) {
+			this.connection = connection;
+			this.requestId = requestId;
+			this.pageRequested = false;
+			this.complete = false;
+		}
+	}
+
+	/**
+	 * The subscription of the query result
+	 */
+	private class QuerySubscription implements Subscription {
+		
+		/**
+		 * The subscriber
+		 */
+		private final Subscriber<? super T> subscriber;
+		
+		/**
+		 * The received but not emitted elements
+		 */
+		private final Queue<T> buffer;
+		
+		/**
+		 * The requested but not emitted elements
+		 */
+		private final AtomicLong requested;
+		
+		/**
+		 * The work in progress counter, only one thread emits elements
+		 */
+		private final AtomicInteger workInProgress;
+		
+		/**
+		 * Is the query executed
+		 */
+		private final AtomicBoolean queryExecuted;
+		
+		/**
+		 * The paged results
+		 */
+		private final List<PagedResult> pagedResults;
+		
+		/**
+		 * The received pages, applied to the paged results by the emitting thread
+		 */
+		private final Queue<Runnable> receivedPages;
+		
+		/**
+		 * Removes the elements that are received from multiple servers
+		 */
+		private final TimeBasedEntityDuplicateTracker duplicateTracker;
+		
+		/**
+		 * The future of the query
+		 */
+		private volatile AbstractListFuture<T> future;
+		
+		/**
+		 * Is the first page received
+		 */
+		private volatile boolean firstPageReceived;
+		
+		/**
+		 * The error of the query, signaled after the buffered elements are emitted
+		 */
+		private volatile Throwable error;
+		
+		/**
+		 * The error of an invalid request, signaled immediately
+		 */
+		private volatile Throwable requestError;
+		
+		/**
+		 * Is the subscription cancelled
+		 */
+		private volatile boolean cancelled;
+		
+		/**
+		 * Is the subscription terminated (only accessed by the emitting thread)
+		 */
+		private boolean terminated;
+
+		public QuerySubscription(final Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+			this.buffer = new ConcurrentLinkedQueue<>();
+			this.requested = new AtomicLong(0);
+			this.workInProgress = new AtomicInteger(0);
+			this.queryExecuted = new AtomicBoolean(false);
+			this.pagedResults = new CopyOnWriteArrayList<>();
+			this.receivedPages = new ConcurrentLinkedQueue<>();
+			this.duplicateTracker = new TimeBasedEntityDuplicateTracker(
+					TimeBasedEntityDuplicateTracker.STREAM_MAX_ENTRIES);
+			this.firstPageReceived = false;
+			this.cancelled = false;
+			this.terminated = false;
+		}
+		
+		@Override
+		public void request(final long n) {
+			if(n <= 0) {
+				requestError = new IllegalArgumentException("Non positive amount of elements requested: " + n);
+				emitElements();
+				return;
+			}
+			
+			requested.getAndUpdate(r -> (r + n < 0) ? Long.MAX_VALUE : r + n);
+			
+			if(queryExecuted.compareAndSet(false, true)) {
+				executeQuery();
+			} else {
+				emitElements();
+			}
+		}
+
+		@Override
+		public void cancel() {
+			if(cancelled) {
+				return;
+			}
+			
+			cancelled = true;
+			emitElements();
+		}
+		
+		/**
+		 * Execute the query
+		 */
+		private void executeQuery() {
+			try {
+				final AbstractListFuture<T> queryFuture = query.call();
+				future = queryFuture;
+				queryFuture.addDoneCallbackConsumer(f -> handleFirstPage(queryFuture));
+			} catch (Exception e) {
+				handleError(e);
+			}
+		}
+		
+		/**
+		 * Handle the first page of all servers
+		 * @param queryFuture
+		 */
+		private void handleFirstPage(final AbstractListFuture<T> queryFuture) {
+			if(queryFuture.isFailed()) {
+				handleError(new BBoxDBException(queryFuture.getAllMessages()));
+				return;
+			}
+			
+			try {
+				boolean paged = false;
+				
+				for(int resultId = 0; resultId < queryFuture.getNumberOfResultObjects(); resultId++) {
+					if(! queryFuture.isCompleteResult(resultId)) {
+						paged = true;
+					}
+				}
+				
+				if(! paged) {
+					// Complete result, the iterator removes duplicates and performs read repair
+					final Iterator<T> iterator = queryFuture.iterator();
+					iterator.forEachRemaining(buffer::add);
+				} else {
+					for(int resultId = 0; resultId < queryFuture.getNumberOfResultObjects(); resultId++) {
+						addElements(queryFuture.get(resultId));
+						
+						if(! queryFuture.isCompleteResult(resultId)) {
+							addPagedResult(queryFuture, resultId);
+						}
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				handleError(e);
+				return;
+			} 
+			
+			firstPageReceived = true;
+			emitElements();
+		}
+
+		/**
+		 * Add the paged result for the given result id
+		 * @param queryFuture
+		 * @param resultId
+		 */
+		private void addPagedResult(final AbstractListFuture<T> queryFuture, final int resultId) {
+			final BBoxDBConnection connection = queryFuture.getConnection(resultId);
+			
+			if(connection == null) {
+				logger.error("Unable to get connection for paging: {}", resultId);
+				return;
+			}
+			
+			pagedResults.add(new PagedResult(connection, queryFuture.getRequestId(resultId)));
+		}
+		
+		/**
+		 * Request the next page for all paged results without a pending request. 
+		 * Called by the emitting thread.
+		 */
+		private void requestNextPages() {
+			final List<PagedResult> pagesToRequest = new ArrayList<>();
+			
+			for(final PagedResult pagedResult : pagedResults) {
+				if(pagedResult.complete || pagedResult.pageRequested) {
+					continue;
+				}
+				
+				pagedResult.pageRequested = true;
+				pagesToRequest.add(pagedResult);
+			}
+			
+			if(pagesToRequest.isEmpty()) {
+				return;
+			}
+			
+			requestExecutor.execute(() -> {
+				for(final PagedResult pagedResult : pagesToRequest) {
+					requestNextPage(pagedResult);
+				}
+			});
+		}
+
+		/**
+		 * Send the request for the next page of the paged result
+		 * @param pagedResult
+		 */
+		@SuppressWarnings("unchecked")
+		private void requestNextPage(final PagedResult pagedResult) {
+			if(logger.isDebugEnabled()) {
+				logger.debug("Requesting next page for {}", pagedResult.requestId);
+			}
+			
+			final AbstractListFuture<T> nextPage = (AbstractListFuture<T>) pagedResult.connection
+					.getBboxDBClient().getNextPage(pagedResult.requestId);
+			
+			nextPage.addDoneCallbackConsumer(f -> handleNextPage(pagedResult, nextPage));
+		}
+		
+		/**
+		 * Handle the next page of a paged result. The page is applied to the 
+		 * paged result by the emitting thread.
+		 * @param pagedResult
+		 * @param nextPage
+		 */
+		private void handleNextPage(final PagedResult pagedResult, final AbstractListFuture<T> nextPage) {
+			if(nextPage.isFailed()) {
+				handleError(new BBoxDBException("Requesting next page failed, query result is incomplete: " 
+						+ nextPage.getAllMessages()));
+				return;
+			}
+			
+			final List<T> elements;
+			
+			try {
+				// Query is send to one server, so the number of result objects is 1
+				elements = nextPage.get(0);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				handleError(e);
+				return;
+			}
+			
+			final boolean complete = nextPage.isCompleteResult(0);
+			
+			receivedPages.add(() -> {
+				addElements(elements);
+				pagedResult.complete = complete;
+				pagedResult.pageRequested = false;
+			});
+			
+			emitElements();
+		}
+		
+		/**
+		 * Apply the received pages. Called by the emitting thread.
+		 */
+		private void applyReceivedPages() {
+			Runnable receivedPage;
+			
+			while((receivedPage = receivedPages.poll()) != null) {
+				receivedPage.run();
+			}
+		}
+		
+		/**
+		 * Stop the paging on the servers. Called by the emitting thread.
+		 */
+		private void cancelPagedResults() {
+			final List<PagedResult> pagesToCancel = new ArrayList<>();
+			
+			for(final PagedResult pagedResult : pagedResults) {
+				if(! pagedResult.complete) {
+					pagesToCancel.add(pagedResult);
+				}
+			}
+			
+			if(pagesToCancel.isEmpty()) {
+				return;
+			}
+			
+			requestExecutor.execute(() -> {
+				for(final PagedResult pagedResult : pagesToCancel) {
+					pagedResult.connection.getBboxDBClient().cancelRequest(pagedResult.requestId);
+				}
+			});
+		}
+		
+		/**
+		 * Add the elements to the buffer
+		 * @param elements
+		 */
+		private void addElements(final List<T> elements) {
+			synchronized (duplicateTracker) {
+				for(final T element : elements) {
+					// Element was received from another instance
+					if(! duplicateTracker.isElementAlreadySeen(element)) {
+						buffer.add(element);
+					}
+				}
+			}
+		}
+		
+		/**
+		 * Handle an error of the query
+		 * @param throwable
+		 */
+		private void handleError(final Throwable throwable) {
+			if(error == null) {
+				error = throwable;
+			}
+			
+			emitElements();
+		}
+		
+		/**
+		 * Are all elements received. Called by the emitting thread.
+		 * @return
+		 */
+		private boolean isResultComplete() {
+			return firstPageReceived && pagedResults.stream().allMatch(r -> r.complete);
+		}
+		
+		/**
+		 * Emit the requested elements. The method is executed by only one thread at 
+		 * the same time, calls from other threads are handled by the emitting thread.
+		 */
+		private void emitElements() {
+			if(workInProgress.getAndIncrement() != 0) {
+				return;
+			}
+			
+			int missed = 1;
+			
+			do {
+				if(terminated) {
+					return;
+				}
+				
+				applyReceivedPages();
+				
+				if(cancelled) {
+					cancelPagedResults();
+					terminate();
+					return;
+				}
+				
+				if(requestError != null) {
+					terminate();
+					subscriber.onError(requestError);
+					return;
+				}
+				
+				long emitted = 0;
+				final long currentRequested = requested.get();
+				
+				while(emitted < currentRequested && ! cancelled) {
+					final T element = buffer.poll();
+					
+					if(element == null) {
+						break;
+					}
+					
+					subscriber.onNext(element);
+					emitted++;
+				}
+				
+				if(emitted > 0 && currentRequested != Long.MAX_VALUE) {
+					requested.addAndGet(-emitted);
+				}
+				
+				// The error is signaled after all received elements are emitted
+				if(buffer.isEmpty() && error != null && ! cancelled) {
+					terminate();
+					subscriber.onError(error);
+					return;
+				}
+				
+				if(buffer.isEmpty() && isResultComplete() && ! cancelled) {
+					terminate();
+					subscriber.onComplete();
+					return;
+				}
+				
+				// Request the next pages only if the subscriber needs more elements
+				if(buffer.isEmpty() && requested.get() > 0 && firstPageReceived && ! cancelled) {
+					requestNextPages();
+				}
+				
+				missed = workInProgress.addAndGet(-missed);
+			} while(missed != 0);
+		}
+
+		/**
+		 * Terminate the subscription
+		 */
+		private void terminate() {
+			terminated = true;
+			buffer.clear();
+			receivedPages.clear();
+			
+			if(future != null) {
+				future.runShutdownCallbacks();
+			}
+		}
+	}
+}
@@ -19,6 +19,7 @@ package org.bboxdb.network.client.response;
 
 import java.nio.ByteBuffer;
 
+import org.bboxdb.network.ProtocolVersionHelper;
 import org.bboxdb.network.client.connection.BBoxDBConnection;
 import org.bboxdb.network.client.future.network.NetworkOperationFuture;
 import org.bboxdb.network.packages.PackageEncodeException;
@@ -48,6 +49,12 @@ public class HelloHandler implements ServerResponseHandler {
 				
 		final HelloResponse helloResponse = HelloResponse.decodePackage(encodedPackage);
 		
+		// Switch the protocol version before the next package is read
+		final int protocolVersion = ProtocolVersionHelper.negotiateProtocolVersion(
+				helloResponse.getProtocolVersion());
+		
+		bBoxDBConnection.setProtocolVersion(protocolVersion);
+		
 		if(future != null) {
 			future.setOperationResult(helloResponse);
 			future.fireCompleteEvent();
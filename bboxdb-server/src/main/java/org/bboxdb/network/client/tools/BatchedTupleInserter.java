@@ -0,0 +1,131 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.client.tools;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.network.client.BBoxDB;
+import org.bboxdb.network.client.future.client.EmptyResultFuture;
+import org.bboxdb.network.routing.DistributionRegionHandlingFlag;
+import org.bboxdb.storage.entity.Tuple;
+
+/**
+ * Collect the inserted tuples and send them as batch insert. The
+ * futures of the batches are tracked by the future store.
+ *
+ */
+public class BatchedTupleInserter {
+
+	/**
+	 * The BBoxDB connection
+	 */
+	private final BBoxDB bboxDB;
+
+	/**
+	 * The table
+	 */
+	private final String table;
+
+	/**
+	 * The insert options
+	 */
+	private final EnumSet<DistributionRegionHandlingFlag> insertOptions;
+
+	/**
+	 * The future store
+	 */
+	private final FixedSizeFutureStore futureStore;
+
+	/**
+	 * The batch size
+	 */
+	private final int batchSize;
+
+	/**
+	 * The buffered tuples
+	 */
+	private final List<Tuple> bufferedTuples;
+
+	/**
+	 * The default batch size
+	 */
+	public final static int DEFAULT_BATCH_SIZE = 100;
+
+	public BatchedTupleInserter(final BBoxDB bboxDB, final String table,
+			final FixedSizeFutureStore futureStore) {
+
+		this(bboxDB, table, EnumSet.noneOf(DistributionRegionHandlingFlag.class),
+				futureStore, DEFAULT_BATCH_SIZE);
+	}
+
+	public BatchedTupleInserter(final BBoxDB bboxDB, final String table,
+			final EnumSet<DistributionRegionHandlingFlag> insertOptions,
+			final FixedSizeFutureStore futureStore, final int batchSize) {
+
+		if(batchSize <= 0) {
+			throw new IllegalArgumentException("Batch size has to be > 0: " + batchSize);
+		}
+
+		this.bboxDB = bboxDB;
+		this.table = table;
+		this.insertOptions = insertOptions;
+		this.futureStore = futureStore;
+		this.batchSize = batchSize;
+		this.bufferedTuples = new ArrayList<>(batchSize);
+	}
+
+	/**
+	 * Insert the tuple, the tuples are send when the batch is full
+	 * @param tuple
+	 * @throws BBoxDBException
+	 */
+	public synchronized void insertTuple(final Tuple tuple) throws BBoxDBException {
+		bufferedTuples.add(tuple);
+
+		if(bufferedTuples.size() >= batchSize) {
+			flush();
+		}
+	}
+
+	/**
+	 * Send the buffered tuples
+	 * @throws BBoxDBException
+	 */
+	public synchronized void flush() throws BBoxDBException {
+		if(bufferedTuples.isEmpty()) {
+			return;
+		}
+
+		final List<Tuple> tuples = new ArrayList<>(bufferedTuples);
+		bufferedTuples.clear();
+
+		final EmptyResultFuture future = bboxDB.insertTuples(table, tuples, insertOptions);
+		futureStore.put(future);
+	}
+
+	/**
+	 * Get the amount of buffered tuples
+	 * @return
+	 */
+	public synchronized int getBufferedTuples() {
+		return bufferedTuples.size();
+	}
+}
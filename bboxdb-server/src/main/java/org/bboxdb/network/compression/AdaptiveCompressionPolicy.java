@@ -0,0 +1,121 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.compression;
+
+import io.prometheus.client.Counter;
+
+/**
+ * Decide per connection if a compression envelope is worth the CPU time. Small
+ * envelopes are not compressed. When an envelope could not be compressed, the
+ * following envelopes are send uncompressed. The amount of skipped envelopes
+ * grows as long as the data stays incompressible.
+ *
+ */
+public class AdaptiveCompressionPolicy {
+
+	/**
+	 * The amount of envelopes that are send uncompressed
+	 */
+	private int envelopesToSkip;
+
+	/**
+	 * The amount of envelopes to skip after the next incompressible envelope
+	 */
+	private int skipBackoff;
+
+	/**
+	 * The min size of the data to compress
+	 */
+	private final int minCompressionBytes;
+
+	/**
+	 * Envelopes that are below this ratio (compressed / uncompressed) are
+	 * considered as compressible
+	 */
+	public final static double MAX_COMPRESSION_RATIO = 0.9;
+
+	/**
+	 * The max amount of skipped envelopes
+	 */
+	public final static int MAX_SKIPPED_ENVELOPES = 64;
+
+	/**
+	 * The default min size of the data to compress
+	 */
+	public final static int DEFAULT_MIN_COMPRESSION_BYTES = 512;
+
+	/**
+	 * The uncompressed send envelopes
+	 */
+	private final static Counter skippedEnvelopesTotal = Counter.build()
+			.name("bboxdb_network_compression_skipped_envelopes_total")
+			.help("Total amount of envelopes that are send uncompressed")
+			.labelNames("reason").register();
+
+	public AdaptiveCompressionPolicy() {
+		this(DEFAULT_MIN_COMPRESSION_BYTES);
+	}
+
+	public AdaptiveCompressionPolicy(final int minCompressionBytes) {
+		this.minCompressionBytes = minCompressionBytes;
+		this.envelopesToSkip = 0;
+		this.skipBackoff = 1;
+	}
+
+	/**
+	 * Should the data be compressed
+	 * @param uncompressedBytes
+	 * @return
+	 */
+	public synchronized boolean shouldCompress(final int uncompressedBytes) {
+
+		if(uncompressedBytes < minCompressionBytes) {
+			skippedEnvelopesTotal.labels("small").inc();
+			return false;
+		}
+
+		if(envelopesToSkip > 0) {
+			envelopesToSkip--;
+			skippedEnvelopesTotal.labels("incompressible").inc();
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Register the result of a compression
+	 * @param uncompressedBytes
+	 * @param compressedBytes
+	 * @return is the compressed data worth to be send
+	 */
+	public synchronized boolean isCompressionUseful(final int uncompressedBytes,
+			final int compressedBytes) {
+
+		if(compressedBytes <= uncompressedBytes * MAX_COMPRESSION_RATIO) {
+			skipBackoff = 1;
+			return true;
+		}
+
+		envelopesToSkip = skipBackoff;
+		skipBackoff = Math.min(skipBackoff * 2, MAX_SKIPPED_ENVELOPES);
+		skippedEnvelopesTotal.labels("incompressible").inc();
+
+		return false;
+	}
+}
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.compression;
+
+import java.io.IOException;
+
+public interface CompressionCodec {
+
+	/**
+	 * Get the compression type of the codec
+	 * @return
+	 */
+	public byte getCompressionType();
+
+	/**
+	 * Get the name of the codec
+	 * @return
+	 */
+	public String getName();
+
+	/**
+	 * Is the codec usable on this system
+	 * @return
+	 */
+	public boolean isAvailable();
+
+	/**
+	 * Compress the data
+	 * @param uncompressedBytes
+	 * @return
+	 * @throws IOException
+	 */
+	public byte[] compress(final byte[] uncompressedBytes) throws IOException;
+
+	/**
+	 * Uncompress the data
+	 * @param compressedBytes
+	 * @return
+	 * @throws IOException
+	 */
+	public byte[] uncompress(final byte[] compressedBytes) throws IOException;
+
+}
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.compression;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.bboxdb.network.packages.PackageEncodeException;
+
+import io.prometheus.client.Counter;
+
+public class CompressionCodecHelper {
+
+	/**
+	 * The known codecs
+	 */
+	private final static Map<Byte, CompressionCodec> codecs;
+
+	/**
+	 * The time needed to compress data
+	 */
+	private final static Counter compressSecondsTotal = Counter.build()
+			.name("bboxdb_network_compress_seconds_total")
+			.help("Total CPU time spent on compressing network packages")
+			.labelNames("codec").register();
+
+	/**
+	 * The time needed to uncompress data
+	 */
+	private final static Counter uncompressSecondsTotal = Counter.build()
+			.name("bboxdb_network_uncompress_seconds_total")
+			.help("Total CPU time spent on uncompressing network packages")
+			.labelNames("codec").register();
+
+	/**
+	 * The uncompressed bytes
+	 */
+	private final static Counter uncompressedBytesTotal = Counter.build()
+			.name("bboxdb_network_compression_uncompressed_bytes_total")
+			.help("Total amount of bytes before compression")
+			.labelNames("codec").register();
+
+	/**
+	 * The compressed bytes
+	 */
+	private final static Counter compressedBytesTotal = Counter.build()
+			.name("bboxdb_network_compression_compressed_bytes_total")
+			.help("Total amount of bytes after compression")
+			.labelNames("codec").register();
+
+	static {
+		codecs = new HashMap<>();
+		registerCodec(new GZipCompressionCodec());
+		registerCodec(new SnappyCompressionCodec());
+	}
+
+	/**
+	 * Register the codec
+	 * @param codec
+	 */
+	private static void registerCodec(final CompressionCodec codec) {
+		codecs.put(codec.getCompressionType(), codec);
+	}
+
+	/**
+	 * Get the codec for the compression type
+	 * @param compressionType
+	 * @return
+	 * @throws PackageEncodeException
+	 */
+	public static CompressionCodec getCodec(final byte compressionType) throws PackageEncodeException {
+		final CompressionCodec codec = codecs.get(compressionType);
+
+		if(codec == null) {
+			throw new PackageEncodeException("Unknown compression type: " + compressionType);
+		}
+
+		return codec;
+	}
+
+	/**
+	 * Is the compression type known and usable on this system
+	 * @param compressionType
+	 * @return
+	 */
+	public static boolean isCodecAvailable(final byte compressionType) {
+		final CompressionCodec codec = codecs.get(compressionType);
+		return codec != null && codec.isAvailable();
+	}
+
+	/**
+	 * Compress the bytes with the given codec
+	 * @param compressionType
+	 * @param uncompressedBytes
+	 * @return
+	 * @throws PackageEncodeException
+	 */
+	public static byte[] compress(final byte compressionType, final byte[] uncompressedBytes)
+			throws PackageEncodeException {
+
+		final CompressionCodec codec = getCodec(compressionType);
+		final long startTime = System.nanoTime();
+
+		try {
+			final byte[] compressedBytes = codec.compress(uncompressedBytes);
+
+			compressSecondsTotal.labels(codec.getName()).inc((System.nanoTime() - startTime) / 1e9);
+			uncompressedBytesTotal.labels(codec.getName()).inc(uncompressedBytes.length);
+			compressedBytesTotal.labels(codec.getName()).inc(compressedBytes.length);
+
+			return compressedBytes;
+		} catch (IOException e) {
+			throw new PackageEncodeException(e);
+		}
+	}
+
+	/**
+	 * Uncompress the bytes with the given codec
+	 * @param compressionType
+	 * @param compressedBytes
+	 * @return
+	 * @throws PackageEncodeException
+	 */
+	public static byte[] uncompress(final byte compressionType, final byte[] compressedBytes)
+			throws PackageEncodeException {
+
+		final CompressionCodec codec = getCodec(compressionType);
+		final long startTime = System.nanoTime();
+
+		try {
+			final byte[] uncompressedBytes = codec.uncompress(compressedBytes);
+			uncompressSecondsTotal.labels(codec.getName()).inc((System.nanoTime() - startTime) / 1e9);
+			return uncompressedBytes;
+		} catch (IOException e) {
+			throw new PackageEncodeException(e);
+		}
+	}
+}
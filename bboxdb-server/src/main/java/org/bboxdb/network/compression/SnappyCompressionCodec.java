@@ -0,0 +1,82 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.compression;
+
+import java.io.IOException;
+
+import org.bboxdb.network.NetworkConst;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xerial.snappy.Snappy;
+
+public class SnappyCompressionCodec implements CompressionCodec {
+
+	/**
+	 * Is the native library loadable
+	 */
+	private final static boolean available;
+
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(SnappyCompressionCodec.class);
+
+	static {
+		available = checkNativeLibrary();
+	}
+
+	/**
+	 * Check if the snappy native library can be loaded
+	 * @return
+	 */
+	private static boolean checkNativeLibrary() {
+		try {
+			// Load the native library
+			Snappy.compress(new byte[] {0});
+			return true;
+		} catch (Throwable e) {
+			logger.warn("Unable to load snappy library, snappy compression is disabled", e);
+			return false;
+		}
+	}
+
+	@Override
+	public byte getCompressionType() {
+		return NetworkConst.COMPRESSION_TYPE_SNAPPY;
+	}
+
+	@Override
+	public String getName() {
+		return "snappy";
+	}
+
+	@Override
+	public boolean isAvailable() {
+		return available;
+	}
+
+	@Override
+	public byte[] compress(final byte[] uncompressedBytes) throws IOException {
+		return Snappy.compress(uncompressedBytes);
+	}
+
+	@Override
+	public byte[] uncompress(final byte[] compressedBytes) throws IOException {
+		return Snappy.uncompress(compressedBytes);
+	}
+}
@@ -0,0 +1,213 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class OperatorProfile {
+
+	/**
+	 * The name of the operator
+	 */
+	private final String operatorName;
+
+	/**
+	 * The amount of tuples consumed by the operator
+	 */
+	private final long tuplesIn;
+
+	/**
+	 * The amount of tuples produced by the operator
+	 */
+	private final long tuplesOut;
+
+	/**
+	 * The wall time spent in the operator and its inputs (in nanoseconds)
+	 */
+	private final long wallTimeNanos;
+
+	/**
+	 * The bytes read from the tuple stores
+	 */
+	private final long bytesRead;
+
+	/**
+	 * The profiles of the input operators
+	 */
+	private final List<OperatorProfile> inputs;
+
+	/**
+	 * The wall time of operators that are driven by the parent operator
+	 * is not measured separately (e.g., the index reader of a join)
+	 */
+	public final static long WALL_TIME_NOT_MEASURED = -1;
+
+	public OperatorProfile(final String operatorName, final long tuplesIn, final long tuplesOut,
+			final long wallTimeNanos, final long bytesRead, final List<OperatorProfile> inputs) {
+
+		this.operatorName = operatorName;
+		this.tuplesIn = tuplesIn;
+		this.tuplesOut = tuplesOut;
+		this.wallTimeNanos = wallTimeNanos;
+		this.bytesRead = bytesRead;
+		this.inputs = inputs;
+	}
+
+	/**
+	 * Merge the profile with the profile of the same operator tree (e.g., executed
+	 * on another local tuple store of the same query)
+	 *
+	 * @param otherProfile
+	 * @return
+	 */
+	public OperatorProfile merge(final OperatorProfile otherProfile) {
+
+		if(! operatorName.equals(otherProfile.getOperatorName())
+				|| inputs.size() != otherProfile.getInputs().size()) {
+			throw new IllegalArgumentException("Unable to merge different operator trees "
+					+ this + " / " + otherProfile);
+		}
+
+		final List<OperatorProfile> mergedInputs = new ArrayList<>();
+
+		for(int i = 0; i < inputs.size(); i++) {
+			mergedInputs.add(inputs.get(i).merge(otherProfile.getInputs().get(i)));
+		}
+
+		final long mergedWallTime = (wallTimeNanos == WALL_TIME_NOT_MEASURED)
+				? WALL_TIME_NOT_MEASURED : wallTimeNanos + otherProfile.getWallTimeNanos();
+
+		return new OperatorProfile(operatorName, tuplesIn + otherProfile.getTuplesIn(),
+				tuplesOut + otherProfile.getTuplesOut(), mergedWallTime,
+				bytesRead + otherProfile.getBytesRead(), mergedInputs);
+	}
+
+	/**
+	 * Get the profile as a human readable operator tree
+	 * @return
+	 */
+	public String toFormattedString() {
+		final StringBuilder sb = new StringBuilder();
+		appendFormattedString(sb, 0);
+		return sb.toString();
+	}
+
+	/**
+	 * Append this node and all inputs to the string builder
+	 * @param sb
+	 * @param level
+	 */
+	private void appendFormattedString(final StringBuilder sb, final int level) {
+		for(int i = 0; i < level; i++) {
+			sb.append("  ");
+		}
+
+		if(level > 0) {
+			sb.append("-> ");
+		}
+
+		sb.append(operatorName);
+		sb.append(" (tuples in=" + tuplesIn + ", tuples out=" + tuplesOut);
+
+		if(wallTimeNanos != WALL_TIME_NOT_MEASURED) {
+			sb.append(", time=" + TimeUnit.NANOSECONDS.toMillis(wallTimeNanos) + " ms");
+		}
+
+		sb.append(", bytes read=" + bytesRead + ")\n");
+
+		for(final OperatorProfile input : inputs) {
+			input.appendFormattedString(sb, level + 1);
+		}
+	}
+
+	public String getOperatorName() {
+		return operatorName;
+	}
+
+	public long getTuplesIn() {
+		return tuplesIn;
+	}
+
+	public long getTuplesOut() {
+		return tuplesOut;
+	}
+
+	public long getWallTimeNanos() {
+		return wallTimeNanos;
+	}
+
+	public long getBytesRead() {
+		return bytesRead;
+	}
+
+	public List<OperatorProfile> getInputs() {
+		return inputs;
+	}
+
+	@Override
+	public String toString() {
+		return "OperatorProfile [operatorName=" + operatorName + ", tuplesIn=" + tuplesIn + ", tuplesOut="
+				+ tuplesOut + ", wallTimeNanos=" + wallTimeNanos + ", bytesRead=" + bytesRead + ", inputs="
+				+ inputs + "]";
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + (int) (bytesRead ^ (bytesRead >>> 32));
+		result = prime * result + ((inputs == null) ? 0 : inputs.hashCode());
+		result = prime * result + ((operatorName == null) ? 0 : operatorName.hashCode());
+		result = prime * result + (int) (tuplesIn ^ (tuplesIn >>> 32));
+		result = prime * result + (int) (tuplesOut ^ (tuplesOut >>> 32));
+		result = prime * result + (int) (wallTimeNanos ^ (wallTimeNanos >>> 32));
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		OperatorProfile other = (OperatorProfile) obj;
+		if (bytesRead != other.bytesRead)
+			return false;
+		if (inputs == null) {
+			if (other.inputs != null)
+				return false;
+		} else if (!inputs.equals(other.inputs))
+			return false;
+		if (operatorName == null) {
+			if (other.operatorName != null)
+				return false;
+		} else if (!operatorName.equals(other.operatorName))
+			return false;
+		if (tuplesIn != other.tuplesIn)
+			return false;
+		if (tuplesOut != other.tuplesOut)
+			return false;
+		if (wallTimeNanos != other.wallTimeNanos)
+			return false;
+		return true;
+	}
+}
@@ -19,15 +19,17 @@ package org.bboxdb.network.packages;
 
 import java.io.OutputStream;
 
+import org.bboxdb.network.ProtocolVersionHelper;
+
 
 public abstract class NetworkPackage {
 	
 	/**
 	 * The sequence number of the package
 	 */
-	protected final short sequenceNumber;
+	protected final int sequenceNumber;
 	
-	public NetworkPackage(final short sequenceNumber) {
+	public NetworkPackage(final int sequenceNumber) {
 		this.sequenceNumber = sequenceNumber;
 	}
 
@@ -41,7 +43,7 @@ public abstract class NetworkPackage {
 	 * Get the sequence number
 	 * @return
 	 */
-	public short getSequenceNumber() {
+	public int getSequenceNumber() {
 		return sequenceNumber;
 	}
 	
@@ -53,5 +55,19 @@ public abstract class NetworkPackage {
 	 * @return written bytes
 	 */
 	public abstract long writeToOutputStream(final OutputStream outputStream) throws PackageEncodeException;
+	
+	/**
+	 * Write the package to the stream, encoded for the given protocol version
+	 * 
+	 * @param outputStream
+	 * @param protocolVersion
+	 * @return written bytes
+	 * @throws PackageEncodeException
+	 */
+	public long writeToOutputStream(final OutputStream outputStream, final int protocolVersion) 
+			throws PackageEncodeException {
+		
+		return ProtocolVersionHelper.writePackage(this, outputStream, protocolVersion);
+	}
 
 }
@@ -21,7 +21,7 @@ import org.bboxdb.network.routing.RoutingHeader;
 
 public abstract class NetworkQueryRequestPackage extends NetworkRequestPackage {
 
-	public NetworkQueryRequestPackage(final short sequenceNumber, 
+	public NetworkQueryRequestPackage(final int sequenceNumber, 
 			final RoutingHeader routingHeader) {
 		
 		super(sequenceNumber, routingHeader);
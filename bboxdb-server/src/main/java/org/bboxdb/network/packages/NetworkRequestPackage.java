@@ -22,7 +22,9 @@ import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.util.Objects;
 
-import org.bboxdb.misc.Const;
+import org.bboxdb.network.NetworkBufferPool;
+import org.bboxdb.network.NetworkConst;
+import org.bboxdb.network.ProtocolVersionHelper;
 import org.bboxdb.network.routing.RoutingHeader;
 import org.bboxdb.network.routing.RoutingHeaderParser;
 
@@ -33,12 +35,12 @@ public abstract class NetworkRequestPackage extends NetworkPackage {
 	 */
 	private final RoutingHeader routingHeader;
 
-	public NetworkRequestPackage(final short sequenceNumber, final RoutingHeader routingHeader) {
+	public NetworkRequestPackage(final int sequenceNumber, final RoutingHeader routingHeader) {
 		super(sequenceNumber);
 		this.routingHeader = Objects.requireNonNull(routingHeader);
 	}
 
-	public NetworkRequestPackage(final short sequenceNumber) {
+	public NetworkRequestPackage(final int sequenceNumber) {
 		this(sequenceNumber, new RoutingHeader(false));
 	}
 
@@ -54,22 +56,41 @@ public abstract class NetworkRequestPackage extends NetworkPackage {
 	protected int appendRequestPackageHeader(final long bodyLength, final OutputStream bos)
 			throws PackageEncodeException {
 
-		final ByteBuffer byteBuffer = ByteBuffer.allocate(12);
-		byteBuffer.order(Const.APPLICATION_BYTE_ORDER);
-		byteBuffer.putShort(sequenceNumber);
-		byteBuffer.putShort(getPackageType());
-		byteBuffer.putLong(bodyLength);
+		return appendRequestPackageHeader(bodyLength, bos, NetworkConst.PROTOCOL_VERSION);
+	}
 
-		try {
-			bos.write(byteBuffer.array());
+	/**
+	 * Append the request package header in the format of the protocol version
+	 * to the output stream
+	 * @param bodyLength
+	 * @param bos
+	 * @param protocolVersion
+	 * @return
+	 * @throws PackageEncodeException
+	 */
+	protected int appendRequestPackageHeader(final long bodyLength, final OutputStream bos,
+			final int protocolVersion) throws PackageEncodeException {
+
+		final byte[] routingList = RoutingHeaderParser.getRoutingListBytes(routingHeader);
+		final int headerLength = ProtocolVersionHelper.getHeaderLength(protocolVersion)
+				+ RoutingHeaderParser.getEncodedLength(routingList);
 
-			// Write routing header
-			final byte[] routingHeaderBytes = RoutingHeaderParser.encodeHeader(getRoutingHeader());
-			bos.write(routingHeaderBytes);
+		// Package header and routing header are encoded into one pooled buffer
+		final NetworkBufferPool bufferPool = NetworkBufferPool.getInstance();
+		final ByteBuffer byteBuffer = bufferPool.acquire(headerLength);
+
+		try {
+			ProtocolVersionHelper.putSequenceNumber(byteBuffer, sequenceNumber, protocolVersion);
+			byteBuffer.putShort(getPackageType());
+			byteBuffer.putLong(bodyLength);
+			RoutingHeaderParser.encodeHeader(routingHeader, routingList, byteBuffer);
+			bos.write(byteBuffer.array(), 0, headerLength);
 
-			return byteBuffer.capacity() + routingHeaderBytes.length;
+			return headerLength;
 		} catch (IOException e) {
 			throw new PackageEncodeException(e);
+		} finally {
+			bufferPool.release(byteBuffer);
 		}
 	}
 
@@ -21,11 +21,13 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 
-import org.bboxdb.misc.Const;
+import org.bboxdb.network.NetworkBufferPool;
+import org.bboxdb.network.NetworkConst;
+import org.bboxdb.network.ProtocolVersionHelper;
 
 public abstract class NetworkResponsePackage extends NetworkPackage {
 
-	public NetworkResponsePackage(final short sequenceNumber) {
+	public NetworkResponsePackage(final int sequenceNumber) {
 		super(sequenceNumber);
 	}
 
@@ -40,18 +42,36 @@ public abstract class NetworkResponsePackage extends NetworkPackage {
 	protected long appendResponsePackageHeader(final long bodyLength, final OutputStream bos) 
 			throws PackageEncodeException {
 		
-		final ByteBuffer byteBuffer = ByteBuffer.allocate(12);
-		byteBuffer.order(Const.APPLICATION_BYTE_ORDER);
-		byteBuffer.putShort(sequenceNumber);
-		byteBuffer.putShort(getPackageType());
-		byteBuffer.putLong(bodyLength);
-
+		return appendResponsePackageHeader(bodyLength, bos, NetworkConst.PROTOCOL_VERSION);
+	}
+	
+	/**
+	 * Append the response package header in the format of the protocol version 
+	 * to the output stream
+	 * @param bodyLength
+	 * @param bos
+	 * @param protocolVersion
+	 * @return length of the header
+	 * @throws PackageEncodeException
+	 */
+	protected long appendResponsePackageHeader(final long bodyLength, final OutputStream bos, 
+			final int protocolVersion) throws PackageEncodeException {
+		
+		final int headerLength = ProtocolVersionHelper.getHeaderLength(protocolVersion);
+		final NetworkBufferPool bufferPool = NetworkBufferPool.getInstance();
+		final ByteBuffer byteBuffer = bufferPool.acquire(headerLength);
+		
 		try {
-			bos.write(byteBuffer.array());
+			ProtocolVersionHelper.putSequenceNumber(byteBuffer, sequenceNumber, protocolVersion);
+			byteBuffer.putShort(getPackageType());
+			byteBuffer.putLong(bodyLength);
+			bos.write(byteBuffer.array(), 0, headerLength);
 		} catch (IOException e) {
 			throw new PackageEncodeException(e);
+		} finally {
+			bufferPool.release(byteBuffer);
 		}
 		
-		return byteBuffer.capacity();
+		return headerLength;
 	}
 }
@@ -19,10 +19,11 @@ package org.bboxdb.network.packages;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 
 import org.bboxdb.commons.math.Hyperrectangle;
-import org.bboxdb.misc.Const;
+import org.bboxdb.network.NetworkBufferPool;
 import org.bboxdb.storage.entity.DeletedTuple;
 import org.bboxdb.storage.entity.InvalidationTuple;
 import org.bboxdb.storage.entity.Tuple;
@@ -32,6 +33,12 @@ import org.bboxdb.storage.util.TupleHelper;
 
 public class NetworkTupleEncoderDecoder {
 	
+	/**
+	 * The length of the fixed fields (table length, key length, 
+	 * bounding box length, data length and version timestamp)
+	 */
+	private final static int TUPLE_HEADER_LENGTH = 20;
+	
 	/**
 	 * Convert a ByteBuffer into a TupleAndTable object
 	 * @param encodedPackage
@@ -74,9 +81,7 @@ public class NetworkTupleEncoderDecoder {
 	}
 	
 	/**
-	 * Write the tuple and the table onto a ByteArrayOutputStream
-	 * @param bos
-	 * @param routingHeader 
+	 * Encode the tuple and the table into a byte array
 	 * @param tuple
 	 * @param table
 	 * @return 
@@ -84,28 +89,68 @@ public class NetworkTupleEncoderDecoder {
 	 */
 	public static byte[] encode(final Tuple tuple, final String table) throws IOException {
 		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		final ByteBuffer header = encodeHeader(tuple, table);
+		
+		try {
+			writeToStream(header, tuple, bos);
+		} finally {
+			NetworkBufferPool.getInstance().release(header);
+		}
+		
+		bos.close();
 		
+		return bos.toByteArray();
+	}
+	
+	/**
+	 * Encode everything of the tuple except the data bytes (length fields, timestamp, 
+	 * table, key and bounding box). The data bytes of the tuple need to be written directly
+	 * after the header. This avoids copying the (potentially large) data into a temporary 
+	 * buffer when the tuple is written to a stream.
+	 * 
+	 * The header is encoded into a buffer of the network buffer pool, the caller has 
+	 * to release the buffer after the header is written.
+	 * 
+	 * @param tuple
+	 * @param table
+	 * @return
+	 */
+	public static ByteBuffer encodeHeader(final Tuple tuple, final String table) {
 		final byte[] tableBytes = table.getBytes();
 		final byte[] keyBytes = tuple.getKey().getBytes();
 		final byte[] bboxBytes = tuple.getBoundingBoxBytes();
 		
-		final ByteBuffer bb = ByteBuffer.allocate(20);
-		bb.order(Const.APPLICATION_BYTE_ORDER);
+		final ByteBuffer bb = NetworkBufferPool.getInstance().acquire(TUPLE_HEADER_LENGTH 
+				+ tableBytes.length + keyBytes.length + bboxBytes.length);
+		
 		bb.putShort((short) tableBytes.length);
 		bb.putShort((short) keyBytes.length);
 		bb.putInt(bboxBytes.length);
 		bb.putInt(tuple.getDataBytes().length);
 		bb.putLong(tuple.getVersionTimestamp());
-
-		// Write body
-		bos.write(bb.array());
-		bos.write(tableBytes);
-		bos.write(keyBytes);
-		bos.write(bboxBytes);
-		bos.write(tuple.getDataBytes());
+		bb.put(tableBytes);
+		bb.put(keyBytes);
+		bb.put(bboxBytes);
+		bb.flip();
 		
-		bos.close();
+		return bb;
+	}
+	
+	/**
+	 * Write the tuple and the table onto the output stream
+	 * @param header - the result of encodeHeader()
+	 * @param tuple
+	 * @param outputStream
+	 * @return the written bytes
+	 * @throws IOException
+	 */
+	public static long writeToStream(final ByteBuffer header, final Tuple tuple, 
+			final OutputStream outputStream) throws IOException {
 		
-		return bos.toByteArray();
+		final byte[] dataBytes = tuple.getDataBytes();
+		outputStream.write(header.array(), 0, header.limit());
+		outputStream.write(dataBytes);
+		
+		return header.limit() + dataBytes.length;
 	}
 }
\ No newline at end of file
@@ -24,12 +24,13 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.util.List;
-import java.util.zip.GZIPOutputStream;
 
 import org.bboxdb.misc.Const;
 import org.bboxdb.network.NetworkConst;
 import org.bboxdb.network.NetworkHelper;
 import org.bboxdb.network.NetworkPackageDecoder;
+import org.bboxdb.network.compression.AdaptiveCompressionPolicy;
+import org.bboxdb.network.compression.CompressionCodecHelper;
 import org.bboxdb.network.packages.NetworkRequestPackage;
 import org.bboxdb.network.packages.PackageEncodeException;
 
@@ -45,32 +46,65 @@ public class CompressionEnvelopeRequest extends NetworkRequestPackage {
 	 */
 	private List<NetworkRequestPackage> networkRequestPackages;
 
+	/**
+	 * The compression policy, null if the packages should always be compressed
+	 */
+	private final AdaptiveCompressionPolicy compressionPolicy;
+
 	public CompressionEnvelopeRequest(final byte compressionType, 
 			final List<NetworkRequestPackage> networkRequestPackages) {
 		
+		this(compressionType, networkRequestPackages, null);
+	}
+	
+	public CompressionEnvelopeRequest(final byte compressionType, 
+			final List<NetworkRequestPackage> networkRequestPackages, 
+			final AdaptiveCompressionPolicy compressionPolicy) {
+		
 		// Don't use a real sequence number
-		super((short) 0);
+		super(0);
 		
 		this.compressionType = compressionType;
 		this.networkRequestPackages = networkRequestPackages;
+		this.compressionPolicy = compressionPolicy;
 	}
 
 	public long writeToOutputStream(final OutputStream outputStream) throws PackageEncodeException {
+		return writeToOutputStream(outputStream, NetworkConst.PROTOCOL_VERSION);
+	}
+	
+	/**
+	 * Write the envelope, the packages in the envelope are encoded for the 
+	 * given protocol version
+	 */
+	@Override
+	public long writeToOutputStream(final OutputStream outputStream, final int protocolVersion) 
+			throws PackageEncodeException {
+		
 		try {
-			if(compressionType != NetworkConst.COMPRESSION_TYPE_GZIP) {
-				throw new PackageEncodeException("Unknown compression method: " + compressionType);
-			}
-			
 			final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			final OutputStream os = new GZIPOutputStream(baos);
 			
 			// Write packages
 			for(final NetworkRequestPackage networkRequestPackage : networkRequestPackages) {
-				networkRequestPackage.writeToOutputStream(os);
+				networkRequestPackage.writeToOutputStream(baos, protocolVersion);
 			}
 			
-			os.close();
-			final byte[] compressedBytes = baos.toByteArray();
+			final byte[] uncompressedBytes = baos.toByteArray();
+			
+			// Small envelopes are send as uncompressed packages
+			if(compressionPolicy != null && ! compressionPolicy.shouldCompress(uncompressedBytes.length)) {
+				outputStream.write(uncompressedBytes);
+				return uncompressedBytes.length;
+			}
+			
+			final byte[] compressedBytes = CompressionCodecHelper.compress(compressionType, uncompressedBytes);
+			
+			// Incompressible envelopes are send as uncompressed packages
+			if(compressionPolicy != null 
+					&& ! compressionPolicy.isCompressionUseful(uncompressedBytes.length, compressedBytes.length)) {
+				outputStream.write(uncompressedBytes);
+				return uncompressedBytes.length;
+			}
 			
 			// Header
 			final ByteBuffer bb = ByteBuffer.allocate(4);
@@ -81,7 +115,7 @@ public class CompressionEnvelopeRequest extends NetworkRequestPackage {
 			// Body length
 			final long bodyLength = bb.capacity() + compressedBytes.length;
 
-			final long headerLength = appendRequestPackageHeader(bodyLength, outputStream);
+			final long headerLength = appendRequestPackageHeader(bodyLength, outputStream, protocolVersion);
 			
 			// Write body
 			outputStream.write(bb.array());
@@ -110,10 +144,6 @@ public class CompressionEnvelopeRequest extends NetworkRequestPackage {
 		
 		final byte compressionType = encodedPackage.get();
 		
-		if(compressionType != NetworkConst.COMPRESSION_TYPE_GZIP) {
-			throw new PackageEncodeException("Unknown compression type: " + compressionType);
-		}
-		
 		// Skip 3 bytes - Header
 		encodedPackage.getShort();
 		encodedPackage.get();
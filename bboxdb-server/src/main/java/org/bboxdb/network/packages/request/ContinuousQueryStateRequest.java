@@ -35,7 +35,7 @@ public class ContinuousQueryStateRequest extends NetworkRequestPackage {
 	private final TupleStoreName table;
 	
 
-	public ContinuousQueryStateRequest(final short sequenceNumber, final TupleStoreName table) {
+	public ContinuousQueryStateRequest(final int sequenceNumber, final TupleStoreName table) {
 		super(sequenceNumber);
 		
 		this.table = table;
@@ -72,7 +72,7 @@ public class ContinuousQueryStateRequest extends NetworkRequestPackage {
 	 * @throws PackageEncodeException 
 	 */
 	public static ContinuousQueryStateRequest decodeTuple(final ByteBuffer encodedPackage) throws PackageEncodeException {
-		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		final int sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
 		
 		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(encodedPackage, NetworkConst.REQUEST_CONTINUOUS_QUERY_STATE);
 		
@@ -41,7 +41,7 @@ public class CreateDistributionGroupRequest extends NetworkRequestPackage {
 	 */
 	private final DistributionGroupConfiguration distributionGroupConfiguration;
 
-	public CreateDistributionGroupRequest(final short sequencNumber,
+	public CreateDistributionGroupRequest(final int sequencNumber,
 			final String distributionGroup, 
 			final DistributionGroupConfiguration distributionGroupConfiguration) {
 		
@@ -103,7 +103,7 @@ public class CreateDistributionGroupRequest extends NetworkRequestPackage {
 	 * @throws PackageEncodeException 
 	 */
 	public static CreateDistributionGroupRequest decodeTuple(final ByteBuffer encodedPackage) throws PackageEncodeException {
-		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		final int sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
 
 		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(encodedPackage, NetworkConst.REQUEST_TYPE_CREATE_DISTRIBUTION_GROUP);
 		
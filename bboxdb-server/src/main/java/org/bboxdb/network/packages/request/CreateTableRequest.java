@@ -25,6 +25,7 @@ import org.bboxdb.network.NetworkConst;
 import org.bboxdb.network.NetworkPackageDecoder;
 import org.bboxdb.network.packages.NetworkRequestPackage;
 import org.bboxdb.network.packages.PackageEncodeException;
+import org.bboxdb.storage.entity.GeometryEncoding;
 import org.bboxdb.storage.entity.TupleStoreConfiguration;
 import org.bboxdb.storage.entity.TupleStoreName;
 
@@ -40,7 +41,7 @@ public class CreateTableRequest extends NetworkRequestPackage {
 	 */
 	private final TupleStoreConfiguration ssTableConfiguration;
 
-	public CreateTableRequest(final short sequenceNumber, final String table, 
+	public CreateTableRequest(final int sequenceNumber, final String table, 
 			final TupleStoreConfiguration ssTableConfiguration) {
 		super(sequenceNumber);
 		
@@ -62,8 +63,8 @@ public class CreateTableRequest extends NetworkRequestPackage {
 				bb.put((byte) 0x00);
 			}
 			
-			// Unused
-			bb.put((byte) 0x00);
+			// Geometry encoding
+			bb.put(ssTableConfiguration.getGeometryEncoding().getEncodingByte());
 			
 			// TTL
 			bb.putLong(ssTableConfiguration.getTTL());
@@ -105,7 +106,7 @@ public class CreateTableRequest extends NetworkRequestPackage {
 	 * @throws PackageEncodeException 
 	 */
 	public static CreateTableRequest decodeTuple(final ByteBuffer encodedPackage) throws PackageEncodeException {
-		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		final int sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
 		
 		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(encodedPackage, NetworkConst.REQUEST_TYPE_CREATE_TABLE);
 		
@@ -122,8 +123,8 @@ public class CreateTableRequest extends NetworkRequestPackage {
 			allowDuplicates = true;
 		}
 		
-		//Unused
-		encodedPackage.get();
+		// Geometry encoding
+		final GeometryEncoding geometryEncoding = GeometryEncoding.fromByte(encodedPackage.get());
 		
 		// TTL
 		final long ttl = encodedPackage.getLong();
@@ -158,6 +159,7 @@ public class CreateTableRequest extends NetworkRequestPackage {
 		tupleStoreConfiguration.setVersions(versions);
 		tupleStoreConfiguration.setSpatialIndexReader(spatialIndexReader);
 		tupleStoreConfiguration.setSpatialIndexWriter(spatialIndexWriter);
+		tupleStoreConfiguration.setGeometryEncoding(geometryEncoding);
 		
 		if(encodedPackage.remaining() != 0) {
 			throw new PackageEncodeException("Some bytes are left after decoding: " + encodedPackage.remaining());
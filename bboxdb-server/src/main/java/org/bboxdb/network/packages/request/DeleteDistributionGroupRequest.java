@@ -34,7 +34,7 @@ public class DeleteDistributionGroupRequest extends NetworkRequestPackage {
 	 */
 	private final String distributionGroup;
 
-	public DeleteDistributionGroupRequest(final short sequenceNumber, final String distributionGroup) {
+	public DeleteDistributionGroupRequest(final int sequenceNumber, final String distributionGroup) {
 		super(sequenceNumber);
 		this.distributionGroup = distributionGroup;
 	}
@@ -69,7 +69,7 @@ public class DeleteDistributionGroupRequest extends NetworkRequestPackage {
 	 * @throws PackageEncodeException 
 	 */
 	public static DeleteDistributionGroupRequest decodeTuple(final ByteBuffer encodedPackage) throws PackageEncodeException {
-		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		final int sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
 		
 		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(encodedPackage, NetworkConst.REQUEST_TYPE_DELETE_DISTRIBUTION_GROUP);
 		
@@ -35,7 +35,7 @@ public class DeleteTableRequest extends NetworkRequestPackage {
 	 */
 	private final TupleStoreName table;
 
-	public DeleteTableRequest(final short sequenceNumber, final String table) {
+	public DeleteTableRequest(final int sequenceNumber, final String table) {
 		super(sequenceNumber);
 		
 		this.table = new TupleStoreName(table);
@@ -71,7 +71,7 @@ public class DeleteTableRequest extends NetworkRequestPackage {
 	 * @throws PackageEncodeException 
 	 */
 	public static DeleteTableRequest decodeTuple(final ByteBuffer encodedPackage) throws PackageEncodeException {
-		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		final int sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
 		
 		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(encodedPackage, NetworkConst.REQUEST_TYPE_DELETE_TABLE);
 		
@@ -27,7 +27,7 @@ import org.bboxdb.network.packages.PackageEncodeException;
 
 public class DisconnectRequest extends NetworkRequestPackage {
 	
-	public DisconnectRequest(final short sequenceNumber) {
+	public DisconnectRequest(final int sequenceNumber) {
 		super(sequenceNumber);
 	}
 
@@ -54,7 +54,7 @@ public class DisconnectRequest extends NetworkRequestPackage {
 	 * @throws PackageEncodeException 
 	 */
 	public static DisconnectRequest decodeTuple(final ByteBuffer encodedPackage) throws PackageEncodeException {
-		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		final int sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
 		
 		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(encodedPackage, NetworkConst.REQUEST_TYPE_DISCONNECT);
 		
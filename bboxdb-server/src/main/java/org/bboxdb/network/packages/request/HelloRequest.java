@@ -39,7 +39,7 @@ public class HelloRequest extends NetworkRequestPackage {
 	 */
 	protected final PeerCapabilities peerCapabilities;
 	
-	public HelloRequest(final short sequenceNumber, final int protocolVersion, 
+	public HelloRequest(final int sequenceNumber, final int protocolVersion, 
 			final PeerCapabilities peerCapabilities) {
 		
 		super(sequenceNumber);
@@ -77,7 +77,7 @@ public class HelloRequest extends NetworkRequestPackage {
 	 * @throws PackageEncodeException 
 	 */
 	public static HelloRequest decodeRequest(final ByteBuffer encodedPackage) throws PackageEncodeException {
-		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		final int sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
 		
 		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(encodedPackage, NetworkConst.REQUEST_TYPE_HELLO);
 		
@@ -105,6 +105,14 @@ public class HelloRequest extends NetworkRequestPackage {
 	public PeerCapabilities getPeerCapabilities() {
 		return peerCapabilities;
 	}
+	
+	/**
+	 * Get the protocol version
+	 * @return
+	 */
+	public int getProtocolVersion() {
+		return protocolVersion;
+	}
 
 	@Override
 	public byte getPackageType() {
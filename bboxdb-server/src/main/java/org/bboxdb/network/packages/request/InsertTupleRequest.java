@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 
+import org.bboxdb.network.NetworkBufferPool;
 import org.bboxdb.network.NetworkConst;
 import org.bboxdb.network.NetworkPackageDecoder;
 import org.bboxdb.network.packages.NetworkRequestPackage;
@@ -52,7 +53,7 @@ public class InsertTupleRequest extends NetworkRequestPackage {
 	 * @param bbox
 	 * @param data
 	 */
-	public InsertTupleRequest(final short sequenceNumber, final RoutingHeader routingHeader, 
+	public InsertTupleRequest(final int sequenceNumber, final RoutingHeader routingHeader, 
 			final TupleStoreName table, final Tuple tuple) {
 		
 		super(sequenceNumber, routingHeader);
@@ -72,7 +73,7 @@ public class InsertTupleRequest extends NetworkRequestPackage {
 	public static InsertTupleRequest decodeTuple(final ByteBuffer encodedPackage) throws IOException, PackageEncodeException {
 
 
-		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		final int sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
 		
 		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(encodedPackage, NetworkConst.REQUEST_TYPE_INSERT_TUPLE);
 		
@@ -99,18 +100,21 @@ public class InsertTupleRequest extends NetworkRequestPackage {
 	public long writeToOutputStream(final OutputStream outputStream) throws PackageEncodeException {
 
 		try {
-			final byte[] tupleAsByte = NetworkTupleEncoderDecoder.encode(tuple, table.getFullname());
+			final ByteBuffer tupleHeader = NetworkTupleEncoderDecoder.encodeHeader(tuple, table.getFullname());
 			
-			// Body length
-			final long bodyLength = tupleAsByte.length;
-			
-			// Unrouted package
-			final long headerLength = appendRequestPackageHeader(bodyLength, outputStream);
-
-			// Write tuple
-			outputStream.write(tupleAsByte);
-			
-			return headerLength + bodyLength;
+			try {
+				// Body length
+				final long bodyLength = tupleHeader.limit() + tuple.getDataBytes().length;
+				
+				final long headerLength = appendRequestPackageHeader(bodyLength, outputStream);
+	
+				// Write tuple
+				NetworkTupleEncoderDecoder.writeToStream(tupleHeader, tuple, outputStream);
+				
+				return headerLength + bodyLength;
+			} finally {
+				NetworkBufferPool.getInstance().release(tupleHeader);
+			}
 		} catch (IOException e) {
 			throw new PackageEncodeException("Got exception while converting package into bytes", e);
 		}		
@@ -44,11 +44,11 @@ public class KeepAliveRequest extends NetworkRequestPackage {
 	 */
 	private final List<Tuple> tuples;
 
-	public KeepAliveRequest(final short sequenceNumber) {
+	public KeepAliveRequest(final int sequenceNumber) {
 		this(sequenceNumber, "", new ArrayList<>());
 	}
 	
-	public KeepAliveRequest(final short sequenceNumber, final String tablename, 
+	public KeepAliveRequest(final int sequenceNumber, final String tablename, 
 			final List<Tuple> tuples) {
 		
 		super(sequenceNumber);
@@ -112,7 +112,7 @@ public class KeepAliveRequest extends NetworkRequestPackage {
 	 */
 	public static KeepAliveRequest decodeTuple(final ByteBuffer encodedPackage) throws PackageEncodeException {
 		
-		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		final int sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
 		
 		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(encodedPackage, NetworkConst.REQUEST_TYPE_KEEP_ALIVE);
 		
@@ -50,7 +50,7 @@ public class LockTupleRequest extends NetworkRequestPackage {
 	 */
 	private final boolean deleteOnTimeout;
 
-	public LockTupleRequest(final short sequenceNumber, final RoutingHeader routingHeader,
+	public LockTupleRequest(final int sequenceNumber, final RoutingHeader routingHeader,
 			final String tablename, final String key, final long version, final boolean deleteOnTimeout) {
 
 		super(sequenceNumber, routingHeader);
@@ -114,7 +114,7 @@ public class LockTupleRequest extends NetworkRequestPackage {
 	public static LockTupleRequest decodeTuple(final ByteBuffer encodedPackage)
 			throws PackageEncodeException, IOException {
 
-		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		final int sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
 
 		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(encodedPackage, NetworkConst.REQUEST_TYPE_LOCK_TUPLE);
 
@@ -23,6 +23,7 @@ import java.nio.ByteBuffer;
 import org.bboxdb.misc.Const;
 import org.bboxdb.network.NetworkConst;
 import org.bboxdb.network.NetworkPackageDecoder;
+import org.bboxdb.network.ProtocolVersionHelper;
 import org.bboxdb.network.packages.NetworkRequestPackage;
 import org.bboxdb.network.packages.PackageEncodeException;
 
@@ -31,25 +32,35 @@ public class NextPageRequest extends NetworkRequestPackage {
 	/**
 	 * The sequence of the query
 	 */
-	protected final short querySequence;
+	protected final int querySequence;
 	
-	public NextPageRequest(final short packageSequence, final short querySequence) {
+	public NextPageRequest(final int packageSequence, final int querySequence) {
 		super(packageSequence);
 		this.querySequence = querySequence;
 	}
 
 	@Override
 	public long writeToOutputStream(final OutputStream outputStream) throws PackageEncodeException {
+		return writeToOutputStream(outputStream, NetworkConst.PROTOCOL_VERSION);
+	}
+
+	/**
+	 * The sequence number of the query is encoded in the format of the protocol version
+	 */
+	@Override
+	public long writeToOutputStream(final OutputStream outputStream, final int protocolVersion) 
+			throws PackageEncodeException {
 
 		try {
-			final ByteBuffer bb = ByteBuffer.allocate(2);
+			final int sequenceNumberLength = ProtocolVersionHelper.getSequenceNumberLength(protocolVersion);
+			final ByteBuffer bb = ByteBuffer.allocate(sequenceNumberLength);
 			bb.order(Const.APPLICATION_BYTE_ORDER);
-			bb.putShort((short) querySequence);
+			ProtocolVersionHelper.putSequenceNumber(bb, querySequence, protocolVersion);
 			
 			// Calculate body length
 			final long bodyLength = bb.capacity();
 
-			final long headerLength = appendRequestPackageHeader(bodyLength, outputStream);
+			final long headerLength = appendRequestPackageHeader(bodyLength, outputStream, protocolVersion);
 			
 			// Write body
 			outputStream.write(bb.array());
@@ -69,7 +80,7 @@ public class NextPageRequest extends NetworkRequestPackage {
 	 */
 	public static NextPageRequest decodeTuple(final ByteBuffer encodedPackage) throws PackageEncodeException {
 		
-		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		final int sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
 
 		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(encodedPackage, NetworkConst.REQUEST_TYPE_NEXT_PAGE);
 		
@@ -77,7 +88,7 @@ public class NextPageRequest extends NetworkRequestPackage {
 			throw new PackageEncodeException("Unable to decode package");
 		}
 		
-		final short packageSequence = encodedPackage.getShort();
+		final int packageSequence = ProtocolVersionHelper.getSequenceNumber(encodedPackage);
 		
 		if(encodedPackage.remaining() != 0) {
 			throw new PackageEncodeException("Some bytes are left after decoding: " + encodedPackage.remaining());
@@ -91,7 +102,7 @@ public class NextPageRequest extends NetworkRequestPackage {
 		return NetworkConst.REQUEST_TYPE_NEXT_PAGE;
 	}
 
-	public short getQuerySequence() {
+	public int getQuerySequence() {
 		return querySequence;
 	}
 
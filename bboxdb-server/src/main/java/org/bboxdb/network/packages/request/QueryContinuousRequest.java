@@ -38,7 +38,7 @@ public class QueryContinuousRequest extends NetworkQueryRequestPackage {
 	 */
 	private final ContinuousQueryPlan queryPlan;
 
-	public QueryContinuousRequest(final short sequenceNumber, 
+	public QueryContinuousRequest(final int sequenceNumber, 
 			final RoutingHeader routingHeader, final ContinuousQueryPlan queryPlan) {
 		
 		super(sequenceNumber, routingHeader);
@@ -81,7 +81,7 @@ public class QueryContinuousRequest extends NetworkQueryRequestPackage {
 	 * @throws IOException 
 	 */
 	public static QueryContinuousRequest decodeTuple(final ByteBuffer encodedPackage) throws PackageEncodeException, IOException {
-		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		final int sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
 		
 		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(encodedPackage, NetworkConst.REQUEST_TYPE_QUERY);
 		
@@ -59,11 +59,23 @@ public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 	 * The custom filter name
 	 */
 	final List<UserDefinedFilterDefinition> udfs;
+	
+	/**
+	 * Return the profile of the operator tree
+	 */
+	private final boolean profilingEnabled;
 
-	public QueryHyperrectangleRequest(final short sequenceNumber, final RoutingHeader routingHeader,  
+	public QueryHyperrectangleRequest(final int sequenceNumber, final RoutingHeader routingHeader,  
 			final String table,  final Hyperrectangle box, final List<UserDefinedFilterDefinition> udfs, 
 			final boolean pagingEnabled, final short tuplesPerPage) {
 		
+		this(sequenceNumber, routingHeader, table, box, udfs, pagingEnabled, tuplesPerPage, false);
+	}
+	
+	public QueryHyperrectangleRequest(final int sequenceNumber, final RoutingHeader routingHeader,  
+			final String table,  final Hyperrectangle box, final List<UserDefinedFilterDefinition> udfs, 
+			final boolean pagingEnabled, final short tuplesPerPage, final boolean profilingEnabled) {
+		
 		super(sequenceNumber, routingHeader);
 		
 		this.table = new TupleStoreName(table);
@@ -71,6 +83,7 @@ public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 		this.pagingEnabled = pagingEnabled;
 		this.tuplesPerPage = tuplesPerPage;
 		this.udfs = udfs;
+		this.profilingEnabled = profilingEnabled;
 	}
 
 	@Override
@@ -96,7 +109,13 @@ public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 			final byte[] udfsBytes = RequestEncoderHelper.encodeUDFs(udfs);
 			
 			bb.putShort((short) tableBytes.length);
-			bb.put(NetworkConst.UNUSED_BYTE);
+			
+			if(profilingEnabled) {
+				bb.put((byte) 1);
+			} else {
+				bb.put((byte) 0);
+			}
+			
 			bb.put(NetworkConst.UNUSED_BYTE);
 			bb.putInt((int) bboxBytes.length);
 
@@ -128,7 +147,7 @@ public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 	public static QueryHyperrectangleRequest decodeTuple(final ByteBuffer encodedPackage) 
 			throws PackageEncodeException, IOException {
 		
-		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		final int sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
 		
 		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(
 				encodedPackage, NetworkConst.REQUEST_TYPE_QUERY);
@@ -152,8 +171,12 @@ public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 	    final short tuplesPerPage = encodedPackage.getShort();
 		final short tableLength = encodedPackage.getShort();
 		
-	    // 2 unused bytes
-	    encodedPackage.get();
+	    boolean profilingEnabled = false;
+	    if(encodedPackage.get() != 0) {
+	    	profilingEnabled = true;
+	    }
+	    
+	    // 1 unused byte
 	    encodedPackage.get();
 		
 	    final int bboxLength = encodedPackage.getInt();
@@ -176,7 +199,7 @@ public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 		final RoutingHeader routingHeader = NetworkPackageDecoder.getRoutingHeaderFromRequestPackage(encodedPackage);
 
 		return new QueryHyperrectangleRequest(sequenceNumber, routingHeader, table, boundingBox, 
-				udfs, pagingEnabled, tuplesPerPage);
+				udfs, pagingEnabled, tuplesPerPage, profilingEnabled);
 	}
 
 	@Override
@@ -208,11 +231,15 @@ public class QueryHyperrectangleRequest extends NetworkQueryRequestPackage {
 	public List<UserDefinedFilterDefinition> getUdfs() {
 		return udfs;
 	}
+	
+	public boolean isProfilingEnabled() {
+		return profilingEnabled;
+	}
 
 	@Override
 	public String toString() {
 		return "QueryHyperrectangleRequest [table=" + table + ", box=" + box + ", pagingEnabled=" + pagingEnabled
-				+ ", tuplesPerPage=" + tuplesPerPage + ", udfs=" + udfs + "]";
+				+ ", tuplesPerPage=" + tuplesPerPage + ", udfs=" + udfs + ", profilingEnabled=" + profilingEnabled + "]";
 	}
 
 }
@@ -57,7 +57,7 @@ public class QueryHyperrectangleTimeRequest extends NetworkQueryRequestPackage {
 	 */
 	protected final short tuplesPerPage;
 	
-	public QueryHyperrectangleTimeRequest(final short sequenceNumber, final RoutingHeader routingHeader, 
+	public QueryHyperrectangleTimeRequest(final int sequenceNumber, final RoutingHeader routingHeader, 
 			final String table, final Hyperrectangle box, final long timestamp, final boolean pagingEnabled, 
 			final short tuplesPerPage) {
 		
@@ -119,7 +119,7 @@ public class QueryHyperrectangleTimeRequest extends NetworkQueryRequestPackage {
 	 * @throws IOException 
 	 */
 	public static QueryHyperrectangleTimeRequest decodeTuple(final ByteBuffer encodedPackage) throws PackageEncodeException, IOException {
-		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		final int sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
 		
 		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(encodedPackage, NetworkConst.REQUEST_TYPE_QUERY);
 		
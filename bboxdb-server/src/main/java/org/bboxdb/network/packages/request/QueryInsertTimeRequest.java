@@ -51,7 +51,7 @@ public class QueryInsertTimeRequest extends NetworkQueryRequestPackage {
 	 */
 	protected final short tuplesPerPage;
 
-	public QueryInsertTimeRequest(final short packageSequene, final RoutingHeader routingHeader, 
+	public QueryInsertTimeRequest(final int packageSequene, final RoutingHeader routingHeader, 
 			final String table, final long timestamp, final boolean pagingEnabled, 
 			final short tuplesPerPage) {
 		
@@ -106,7 +106,7 @@ public class QueryInsertTimeRequest extends NetworkQueryRequestPackage {
 	 * @throws IOException 
 	 */
 	public static QueryInsertTimeRequest decodeTuple(final ByteBuffer encodedPackage) throws PackageEncodeException, IOException {
-		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		final int sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
 		
 		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(encodedPackage, NetworkConst.REQUEST_TYPE_QUERY);
 		
@@ -62,14 +62,33 @@ public class QueryJoinRequest extends NetworkQueryRequestPackage {
 	 * The UDFs
 	 */
 	final List<UserDefinedFilterDefinition> udfs;
+	
+	/**
+	 * Return the profile of the operator tree
+	 */
+	private final boolean profilingEnabled;
+	
+	/**
+	 * The marker for an enabled profiling
+	 */
+	private final static byte PROFILING_ENABLED = 1;
 
-	public QueryJoinRequest(final short sequenceNumber, final RoutingHeader routingHeader,  
+	public QueryJoinRequest(final int sequenceNumber, final RoutingHeader routingHeader,  
 			final List<TupleStoreName> tables, final Hyperrectangle box, 
 			final List<UserDefinedFilterDefinition> udfs, final boolean pagingEnabled, 
 			final short tuplesPerPage) {
 		
+		this(sequenceNumber, routingHeader, tables, box, udfs, pagingEnabled, tuplesPerPage, false);
+	}
+	
+	public QueryJoinRequest(final int sequenceNumber, final RoutingHeader routingHeader,  
+			final List<TupleStoreName> tables, final Hyperrectangle box, 
+			final List<UserDefinedFilterDefinition> udfs, final boolean pagingEnabled, 
+			final short tuplesPerPage, final boolean profilingEnabled) {
+		
 		super(sequenceNumber, routingHeader);
 		
+		this.profilingEnabled = profilingEnabled;		
 		this.tables = tables;
 		this.box = box;
 		this.pagingEnabled = pagingEnabled;
@@ -109,6 +128,13 @@ public class QueryJoinRequest extends NetworkQueryRequestPackage {
 				bStream.write(tablename);
 			}
 			
+			// The profiling flag is appended after the tables and only written when 
+			// profiling is requested. So, decoders that don't know the flag are 
+			// still able to read all other join requests.
+			if(profilingEnabled) {
+				bStream.write(PROFILING_ENABLED);
+			}
+			
 			final byte[] tablesArray = bStream.toByteArray();
 
 			final long bodyLength = bb.capacity() + tablesArray.length + bboxBytes.length 
@@ -136,7 +162,7 @@ public class QueryJoinRequest extends NetworkQueryRequestPackage {
 	 * @throws IOException 
 	 */
 	public static QueryJoinRequest decodeTuple(final ByteBuffer encodedPackage) throws PackageEncodeException, IOException {
-		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		final int sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
 		
 		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(encodedPackage, NetworkConst.REQUEST_TYPE_QUERY);
 		
@@ -175,6 +201,12 @@ public class QueryJoinRequest extends NetworkQueryRequestPackage {
 			tableNames.add(new TupleStoreName(tablename));
 		}
 		
+		// Optional profiling flag, not present in requests without profiling
+		boolean profilingEnabled = false;
+		if(encodedPackage.remaining() > 0) {
+			profilingEnabled = (encodedPackage.get() == PROFILING_ENABLED);
+		}
+		
 		if(encodedPackage.remaining() != 0) {
 			throw new PackageEncodeException("Some bytes are left after decoding: " + encodedPackage.remaining());
 		}
@@ -182,7 +214,7 @@ public class QueryJoinRequest extends NetworkQueryRequestPackage {
 		final RoutingHeader routingHeader = NetworkPackageDecoder.getRoutingHeaderFromRequestPackage(encodedPackage);
 
 		return new QueryJoinRequest(sequenceNumber, routingHeader, tableNames, boundingBox, 
-				udfs, pagingEnabled, tuplesPerPage);
+				udfs, pagingEnabled, tuplesPerPage, profilingEnabled);
 	}
 
 	@Override
@@ -215,11 +247,15 @@ public class QueryJoinRequest extends NetworkQueryRequestPackage {
 	public List<UserDefinedFilterDefinition> getUdfs() {
 		return udfs;
 	}
+	
+	public boolean isProfilingEnabled() {
+		return profilingEnabled;
+	}
 
 	@Override
 	public String toString() {
 		return "QueryJoinRequest [tables=" + tables + ", box=" + box + ", pagingEnabled=" + pagingEnabled
-				+ ", tuplesPerPage=" + tuplesPerPage + ", udfs=" + udfs + "]";
+				+ ", tuplesPerPage=" + tuplesPerPage + ", udfs=" + udfs + ", profilingEnabled=" + profilingEnabled + "]";
 	}
 
 }
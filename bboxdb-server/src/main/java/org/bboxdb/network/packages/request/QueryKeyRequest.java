@@ -51,7 +51,7 @@ public class QueryKeyRequest extends NetworkQueryRequestPackage {
 	 */
 	protected final short tuplesPerPage;
 
-	public QueryKeyRequest(final short sequenceNumber, final RoutingHeader routingHeader, 
+	public QueryKeyRequest(final int sequenceNumber, final RoutingHeader routingHeader, 
 			final String table, final String key, final boolean pagingEnabled, 
 			final short tuplesPerPage) {
 		
@@ -109,7 +109,7 @@ public class QueryKeyRequest extends NetworkQueryRequestPackage {
 	 */
 	public static QueryKeyRequest decodeTuple(final ByteBuffer encodedPackage) throws PackageEncodeException, IOException {
 		
-		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		final int sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
 
 		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(encodedPackage, NetworkConst.REQUEST_TYPE_QUERY);
 		
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.network.packages.request;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bboxdb.commons.io.DataEncoderHelper;
+import org.bboxdb.misc.Const;
+import org.bboxdb.network.NetworkConst;
+import org.bboxdb.network.NetworkPackageDecoder;
+import org.bboxdb.network.packages.NetworkQueryRequestPackage;
+import org.bboxdb.network.packages.PackageEncodeException;
+import org.bboxdb.network.routing.RoutingHeader;
+import org.bboxdb.storage.entity.TupleStoreName;
+
+public class QueryMultiKeyRequest extends NetworkQueryRequestPackage {
+	
+	/**
+	 * The name of the table
+	 */
+	protected final TupleStoreName table;
+
+	/**
+	 * The keys to query
+	 */
+	protected final List<String> keys;
+	
+	/**
+	 * Paging enables
+	 */
+	protected final boolean pagingEnabled;
+	
+	/**
+	 * The max tuples per page
+	 */
+	protected final short tuplesPerPage;
+
+	public QueryMultiKeyRequest(final int sequenceNumber, final RoutingHeader routingHeader, 
+			final String table, final List<String> keys, final boolean pagingEnabled, 
+			final short tuplesPerPage) {
+		
+		super(sequenceNumber, routingHeader);
+		
+		this.pagingEnabled = pagingEnabled;
+		this.tuplesPerPage = tuplesPerPage;
+		this.table = new TupleStoreName(table);
+		this.keys = keys;
+	}
+
+	@Override
+	public long writeToOutputStream(final OutputStream outputStream) throws PackageEncodeException {
+
+		try {
+			final byte[] tableBytes = table.getFullnameBytes();
+			
+			final ByteBuffer bb = ByteBuffer.allocate(10);
+			bb.order(Const.APPLICATION_BYTE_ORDER);
+			
+			bb.put(getQueryType());
+			
+			if(pagingEnabled) {
+				bb.put((byte) 1);
+			} else {
+				bb.put((byte) 0);
+			}
+			
+			bb.putShort(tuplesPerPage);
+			bb.putShort((short) tableBytes.length);
+			bb.putInt(keys.size());
+			
+			// Keys: <Length><Key> ...
+			final ByteArrayOutputStream keyStream = new ByteArrayOutputStream();
+			
+			for(final String key : keys) {
+				final byte[] keyBytes = key.getBytes(Const.DEFAULT_CHARSET);
+				keyStream.write(DataEncoderHelper.shortToByteBuffer((short) keyBytes.length).array());
+				keyStream.write(keyBytes);
+			}
+			
+			keyStream.close();
+			final byte[] keyBytes = keyStream.toByteArray();
+			
+			final long bodyLength = bb.capacity() + tableBytes.length + keyBytes.length;
+			final long headerLength = appendRequestPackageHeader(bodyLength, outputStream);
+	
+			// Write body
+			outputStream.write(bb.array());
+			outputStream.write(tableBytes);
+			outputStream.write(keyBytes);
+			
+			return headerLength + bodyLength;
+		} catch (IOException e) {
+			throw new PackageEncodeException("Got exception while converting package into bytes", e);
+		}	
+	}
+	
+	/**
+	 * Decode the encoded package into a object
+	 * 
+	 * @param encodedPackage
+	 * @return
+	 * @throws PackageEncodeException 
+	 * @throws IOException 
+	 */
+	public static QueryMultiKeyRequest decodeTuple(final ByteBuffer encodedPackage) throws PackageEncodeException, IOException {
+		
+		final int sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+
+		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(encodedPackage, NetworkConst.REQUEST_TYPE_QUERY);
+		
+		if(decodeResult == false) {
+			throw new PackageEncodeException("Unable to decode package");
+		}
+		
+	    final byte queryType = encodedPackage.get();
+	    
+	    if(queryType != NetworkConst.REQUEST_QUERY_MULTI_KEY) {
+	    	throw new PackageEncodeException("Wrong query type: " + queryType);
+	    }
+		
+	    boolean pagingEnabled = false;
+	    if(encodedPackage.get() != 0) {
+	    	pagingEnabled = true;
+	    }
+	    
+	    final short tuplesPerPage = encodedPackage.getShort();
+	    
+		final short tableLength = encodedPackage.getShort();
+		final int numberOfKeys = encodedPackage.getInt();
+		
+		final byte[] tableBytes = new byte[tableLength];
+		encodedPackage.get(tableBytes, 0, tableBytes.length);
+		final String table = new String(tableBytes);
+		
+		final List<String> keys = new ArrayList<>(numberOfKeys);
+		
+		for(int i = 0; i < numberOfKeys; i++) {
+			final short keyLength = encodedPackage.getShort();
+			final byte[] keyBytes = new byte[keyLength];
+			encodedPackage.get(keyBytes, 0, keyBytes.length);
+			keys.add(new String(keyBytes, Const.DEFAULT_CHARSET));
+		}
+		
+		if(encodedPackage.remaining() != 0) {
+			throw new PackageEncodeException("Some bytes are left after decoding: " + encodedPackage.remaining());
+		}
+		
+		final RoutingHeader routingHeader = NetworkPackageDecoder.getRoutingHeaderFromRequestPackage(encodedPackage);
+
+		return new QueryMultiKeyRequest(sequenceNumber, routingHeader, table, keys, pagingEnabled, tuplesPerPage);
+	}
+
+	@Override
+	public byte getPackageType() {
+		return NetworkConst.REQUEST_TYPE_QUERY;
+	}
+
+	@Override
+	public byte getQueryType() {
+		return NetworkConst.REQUEST_QUERY_MULTI_KEY;
+	}
+	
+	public TupleStoreName getTable() {
+		return table;
+	}
+
+	public List<String> getKeys() {
+		return keys;
+	}
+
+	public short getTuplesPerPage() {
+		return tuplesPerPage;
+	}
+	
+	public boolean isPagingEnabled() {
+		return pagingEnabled;
+	}
+
+	@Override
+	public String toString() {
+		return "QueryMultiKeyRequest [table=" + table + ", keys=" + keys.size() + ", pagingEnabled=" 
+				+ pagingEnabled + ", tuplesPerPage=" + tuplesPerPage + "]";
+	}
+}
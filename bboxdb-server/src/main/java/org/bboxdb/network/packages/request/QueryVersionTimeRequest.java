@@ -51,7 +51,7 @@ public class QueryVersionTimeRequest extends NetworkQueryRequestPackage {
 	 */
 	protected final short tuplesPerPage;
 	
-	public QueryVersionTimeRequest(final short packageSequene, final RoutingHeader routingHeader, 
+	public QueryVersionTimeRequest(final int packageSequene, final RoutingHeader routingHeader, 
 			final String table, final long timestamp, final boolean pagingEnabled, 
 			final short tuplesPerPage) {
 		
@@ -106,7 +106,7 @@ public class QueryVersionTimeRequest extends NetworkQueryRequestPackage {
 	 * @throws IOException 
 	 */
 	public static QueryVersionTimeRequest decodeTuple(final ByteBuffer encodedPackage) throws PackageEncodeException, IOException {
-		final short sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		final int sequenceNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
 		
 		final boolean decodeResult = NetworkPackageDecoder.validateRequestPackageHeader(encodedPackage, NetworkConst.REQUEST_TYPE_QUERY);
 		
@@ -33,7 +33,7 @@ public abstract class AbstractBodyResponse extends NetworkResponsePackage {
 	 */
 	private final String body;
 
-	public AbstractBodyResponse(final short sequenceNumber, final String body) {
+	public AbstractBodyResponse(final int sequenceNumber, final String body) {
 		super(sequenceNumber);
 		this.body = body;
 	}
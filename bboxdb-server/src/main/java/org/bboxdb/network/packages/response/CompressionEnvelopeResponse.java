@@ -24,12 +24,13 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.util.List;
-import java.util.zip.GZIPOutputStream;
 
 import org.bboxdb.misc.Const;
 import org.bboxdb.network.NetworkConst;
 import org.bboxdb.network.NetworkHelper;
 import org.bboxdb.network.NetworkPackageDecoder;
+import org.bboxdb.network.compression.AdaptiveCompressionPolicy;
+import org.bboxdb.network.compression.CompressionCodecHelper;
 import org.bboxdb.network.packages.NetworkResponsePackage;
 import org.bboxdb.network.packages.PackageEncodeException;
 
@@ -45,13 +46,26 @@ public class CompressionEnvelopeResponse extends NetworkResponsePackage {
 	 */
 	protected List<NetworkResponsePackage> networkResponsePackages;
 
+	/**
+	 * The compression policy, null if the packages should always be compressed
+	 */
+	protected final AdaptiveCompressionPolicy compressionPolicy;
+
 	public CompressionEnvelopeResponse(final byte compressionType, 
 			final List<NetworkResponsePackage> networkResponsePackages) {
 		
-		super((short) 0);
+		this(compressionType, networkResponsePackages, null);
+	}
+	
+	public CompressionEnvelopeResponse(final byte compressionType, 
+			final List<NetworkResponsePackage> networkResponsePackages, 
+			final AdaptiveCompressionPolicy compressionPolicy) {
+		
+		super(0);
 
 		this.compressionType = compressionType;
 		this.networkResponsePackages = networkResponsePackages;
+		this.compressionPolicy = compressionPolicy;
 	}
 
 	@Override
@@ -61,22 +75,41 @@ public class CompressionEnvelopeResponse extends NetworkResponsePackage {
 
 	@Override
 	public long writeToOutputStream(final OutputStream outputStream) throws PackageEncodeException {
+		return writeToOutputStream(outputStream, NetworkConst.PROTOCOL_VERSION);
+	}
+	
+	/**
+	 * Write the envelope, the packages in the envelope are encoded for the 
+	 * given protocol version
+	 */
+	@Override
+	public long writeToOutputStream(final OutputStream outputStream, final int protocolVersion) 
+			throws PackageEncodeException {
 
 		try {
-			if(compressionType != NetworkConst.COMPRESSION_TYPE_GZIP) {
-				throw new PackageEncodeException("Unknown compression method: " + compressionType);
-			}
-			
 			final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			final OutputStream os = new GZIPOutputStream(baos);
 			
 			// Write packages
 			for(final NetworkResponsePackage networkResponsePackage : networkResponsePackages) {
-				networkResponsePackage.writeToOutputStream(os);
+				networkResponsePackage.writeToOutputStream(baos, protocolVersion);
+			}
+			
+			final byte[] uncompressedBytes = baos.toByteArray();
+			
+			// Small envelopes are send as uncompressed packages
+			if(compressionPolicy != null && ! compressionPolicy.shouldCompress(uncompressedBytes.length)) {
+				outputStream.write(uncompressedBytes);
+				return uncompressedBytes.length;
 			}
 			
-			os.close();
-			final byte[] compressedBytes = baos.toByteArray();
+			final byte[] compressedBytes = CompressionCodecHelper.compress(compressionType, uncompressedBytes);
+			
+			// Incompressible envelopes are send as uncompressed packages
+			if(compressionPolicy != null 
+					&& ! compressionPolicy.isCompressionUseful(uncompressedBytes.length, compressedBytes.length)) {
+				outputStream.write(uncompressedBytes);
+				return uncompressedBytes.length;
+			}
 			
 			// Header
 			final ByteBuffer bb = ByteBuffer.allocate(4);
@@ -87,8 +120,7 @@ public class CompressionEnvelopeResponse extends NetworkResponsePackage {
 			// Body length
 			final long bodyLength = bb.capacity() + compressedBytes.length;
 
-			// Write body length
-			final long headerLength = appendResponsePackageHeader(bodyLength, outputStream);
+			final long headerLength = appendResponsePackageHeader(bodyLength, outputStream, protocolVersion);
 			
 			// Write body
 			outputStream.write(bb.array());
@@ -117,10 +149,6 @@ public class CompressionEnvelopeResponse extends NetworkResponsePackage {
 		}
 		
 		final byte compressionType = encodedPackage.get();
-		
-		if(compressionType != NetworkConst.COMPRESSION_TYPE_GZIP) {
-			throw new PackageEncodeException("Unknown compression type: " + compressionType);
-		}
 
 		// Skip 3 bytes - Header
 		encodedPackage.getShort();
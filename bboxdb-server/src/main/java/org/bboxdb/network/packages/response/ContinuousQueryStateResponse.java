@@ -44,7 +44,7 @@ public class ContinuousQueryStateResponse extends NetworkResponsePackage {
 	 */
 	private final ContinuousQueryServerState continuousQueryServerState;
 
-	public ContinuousQueryStateResponse(final short sequenceNumber, final ContinuousQueryServerState continuousQueryServerState) {
+	public ContinuousQueryStateResponse(final int sequenceNumber, final ContinuousQueryServerState continuousQueryServerState) {
 		super(sequenceNumber);
 		this.continuousQueryServerState = continuousQueryServerState;
 	}
@@ -152,7 +152,7 @@ public class ContinuousQueryStateResponse extends NetworkResponsePackage {
 	 * @throws PackageEncodeException 
 	 */
 	public static ContinuousQueryStateResponse decodePackage(final ByteBuffer encodedPackage) throws PackageEncodeException {		
-		final short requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
+		final int requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
 
 		final boolean decodeResult = NetworkPackageDecoder.validateResponsePackageHeader(encodedPackage, NetworkConst.RESPONSE_CONTINUOUS_QUERY_STATE);
 
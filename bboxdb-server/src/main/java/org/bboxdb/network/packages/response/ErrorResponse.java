@@ -25,11 +25,11 @@ import org.bboxdb.network.packages.PackageEncodeException;
 
 public class ErrorResponse extends AbstractBodyResponse {
 	
-	public ErrorResponse(final short sequenceNumber) {
+	public ErrorResponse(final int sequenceNumber) {
 		super(sequenceNumber, "");
 	}
 	
-	public ErrorResponse(final short sequenceNumber, final String body) {
+	public ErrorResponse(final int sequenceNumber, final String body) {
 		super(sequenceNumber, body);
 	}
 
@@ -47,7 +47,7 @@ public class ErrorResponse extends AbstractBodyResponse {
 	 */
 	public static ErrorResponse decodePackage(final ByteBuffer encodedPackage) throws PackageEncodeException {
 		final String body = decodeMessage(encodedPackage, NetworkConst.RESPONSE_TYPE_ERROR);
-		final short requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
+		final int requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
 		
 		return new ErrorResponse(requestId, body);
 	}
@@ -40,7 +40,7 @@ public class HelloResponse extends NetworkResponsePackage {
 	protected final PeerCapabilities peerCapabilities;
 	
 	
-	public HelloResponse(final short sequenceNumber, final int protocolVersion, final PeerCapabilities peerCapabilities) {
+	public HelloResponse(final int sequenceNumber, final int protocolVersion, final PeerCapabilities peerCapabilities) {
 		super(sequenceNumber);
 
 		this.protocolVersion = protocolVersion;
@@ -76,7 +76,7 @@ public class HelloResponse extends NetworkResponsePackage {
 	 * @throws PackageEncodeException 
 	 */
 	public static HelloResponse decodePackage(final ByteBuffer encodedPackage) throws PackageEncodeException {		
-		final short requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
+		final int requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
 
 		final boolean decodeResult = NetworkPackageDecoder.validateResponsePackageHeader(encodedPackage, NetworkConst.RESPONSE_TYPE_HELLO);
 
@@ -105,6 +105,14 @@ public class HelloResponse extends NetworkResponsePackage {
 	public PeerCapabilities getPeerCapabilities() {
 		return peerCapabilities;
 	}
+	
+	/**
+	 * Get the protocol version
+	 * @return
+	 */
+	public int getProtocolVersion() {
+		return protocolVersion;
+	}
 
 	@Override
 	public byte getPackageType() {
@@ -39,7 +39,7 @@ public class ListTablesResponse extends NetworkResponsePackage {
 	 */
 	protected final List<TupleStoreName> tables;
 
-	public ListTablesResponse(final short sequenceNumber, final List<TupleStoreName> allTables) {
+	public ListTablesResponse(final int sequenceNumber, final List<TupleStoreName> allTables) {
 		super(sequenceNumber);
 		this.tables = allTables;
 	}
@@ -106,7 +106,7 @@ public class ListTablesResponse extends NetworkResponsePackage {
 	 * @throws PackageEncodeException 
 	 */
 	public static ListTablesResponse decodePackage(final ByteBuffer encodedPackage) throws PackageEncodeException {		
-		final short requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
+		final int requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
 
 		final boolean decodeResult = NetworkPackageDecoder.validateResponsePackageHeader(encodedPackage, NetworkConst.RESPONSE_TYPE_LIST_TABLES);
 
@@ -17,7 +17,6 @@
  *******************************************************************************/
 package org.bboxdb.network.packages.response;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
@@ -25,6 +24,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.bboxdb.commons.io.DataEncoderHelper;
+import org.bboxdb.network.NetworkBufferPool;
 import org.bboxdb.network.NetworkConst;
 import org.bboxdb.network.NetworkPackageDecoder;
 import org.bboxdb.network.packages.NetworkResponsePackage;
@@ -41,7 +41,7 @@ public class MultiTupleResponse extends NetworkResponsePackage {
 	 */
 	private final MultiTuple joinedTuple;
 
-	public MultiTupleResponse(final short sequenceNumber, final MultiTuple joinedTuple) {
+	public MultiTupleResponse(final int sequenceNumber, final MultiTuple joinedTuple) {
 		super(sequenceNumber);
 		this.joinedTuple = joinedTuple;
 	}
@@ -55,24 +55,39 @@ public class MultiTupleResponse extends NetworkResponsePackage {
 	public long writeToOutputStream(final OutputStream outputStream) throws PackageEncodeException {
 
 		try {
-			final ByteArrayOutputStream bStream = new ByteArrayOutputStream();
-			final ByteBuffer encodedTupleAmount = DataEncoderHelper.intToByteBuffer(joinedTuple.getNumberOfTuples());
-			bStream.write(encodedTupleAmount.array());
+			final int numberOfTuples = joinedTuple.getNumberOfTuples();
+			final ByteBuffer[] tupleHeaders = new ByteBuffer[numberOfTuples];
+			final NetworkBufferPool bufferPool = NetworkBufferPool.getInstance();
 			
-			for(int i = 0; i < joinedTuple.getNumberOfTuples(); i++) {
-				final byte[] encodedBytes = NetworkTupleEncoderDecoder.encode(joinedTuple.getTuple(i), 
-						joinedTuple.getTupleStoreName(i));
+			try {
+				// The amount of tuples
+				long bodyLength = DataEncoderHelper.INT_BYTES;
 				
-				bStream.write(encodedBytes);
+				for(int i = 0; i < numberOfTuples; i++) {
+					tupleHeaders[i] = NetworkTupleEncoderDecoder.encodeHeader(joinedTuple.getTuple(i), 
+							joinedTuple.getTupleStoreName(i));
+					
+					bodyLength += tupleHeaders[i].limit() + joinedTuple.getTuple(i).getDataBytes().length;
+				}
+				
+				long writtenBytes = appendResponsePackageHeader(bodyLength, outputStream);
+				
+				DataEncoderHelper.writeIntToStream(numberOfTuples, outputStream);
+				writtenBytes += DataEncoderHelper.INT_BYTES;
+				
+				// The data bytes are written directly to the stream without an intermediate copy
+				for(int i = 0; i < numberOfTuples; i++) {
+					writtenBytes += NetworkTupleEncoderDecoder.writeToStream(tupleHeaders[i], 
+							joinedTuple.getTuple(i), outputStream);
+				}
+				
+				return writtenBytes;
+			} finally {
+				for(final ByteBuffer tupleHeader : tupleHeaders) {
+					bufferPool.release(tupleHeader);
+				}
 			}
 			
-			bStream.close();
-			
-			final byte[] allTupleBytes = bStream.toByteArray();
-			final long headerLength = appendResponsePackageHeader(allTupleBytes.length, outputStream);
-			outputStream.write(allTupleBytes);
-			return headerLength + allTupleBytes.length;
-			
 		} catch (IOException e) {
 			throw new PackageEncodeException("Got exception while converting package into bytes", e);
 		}	
@@ -86,7 +101,7 @@ public class MultiTupleResponse extends NetworkResponsePackage {
 	 * @throws PackageEncodeException 
 	 */
 	public static MultiTupleResponse decodePackage(final ByteBuffer encodedPackage) throws PackageEncodeException {		
-		final short requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
+		final int requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
 
 		final boolean decodeResult = NetworkPackageDecoder.validateResponsePackageHeader(encodedPackage, NetworkConst.RESPONSE_TYPE_JOINED_TUPLE);
 
@@ -27,7 +27,7 @@ import org.bboxdb.network.packages.PackageEncodeException;
 
 public class MultipleTupleEndResponse extends NetworkResponsePackage {
 
-	public MultipleTupleEndResponse(final short sequenceNumber) {
+	public MultipleTupleEndResponse(final int sequenceNumber) {
 		super(sequenceNumber);
 	}
 
@@ -60,7 +60,7 @@ public class MultipleTupleEndResponse extends NetworkResponsePackage {
 			throw new PackageEncodeException("Some bytes are left after encoding: " + encodedPackage.remaining());
 		}
 		
-		final short requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
+		final int requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
 		
 		return new MultipleTupleEndResponse(requestId);
 	}
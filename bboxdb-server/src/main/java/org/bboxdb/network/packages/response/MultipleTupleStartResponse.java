@@ -27,7 +27,7 @@ import org.bboxdb.network.packages.PackageEncodeException;
 
 public class MultipleTupleStartResponse extends NetworkResponsePackage {
 
-	public MultipleTupleStartResponse(final short sequenceNumber) {
+	public MultipleTupleStartResponse(final int sequenceNumber) {
 		super(sequenceNumber);
 	}
 
@@ -60,7 +60,7 @@ public class MultipleTupleStartResponse extends NetworkResponsePackage {
 			throw new PackageEncodeException("Some bytes are left after encoding: " + encodedPackage.remaining());
 		}
 		
-		final short requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
+		final int requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
 		
 		return new MultipleTupleStartResponse(requestId);
 	}
@@ -27,7 +27,7 @@ import org.bboxdb.network.packages.PackageEncodeException;
 
 public class PageEndResponse extends NetworkResponsePackage {
 
-	public PageEndResponse(final short sequenceNumber) {
+	public PageEndResponse(final int sequenceNumber) {
 		super(sequenceNumber);
 	}
 
@@ -60,7 +60,7 @@ public class PageEndResponse extends NetworkResponsePackage {
 			throw new PackageEncodeException("Some bytes are left after encoding: " + encodedPackage.remaining());
 		}
 		
-		final short requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
+		final int requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
 		
 		return new PageEndResponse(requestId);
 	}
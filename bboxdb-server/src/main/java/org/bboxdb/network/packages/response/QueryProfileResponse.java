@@ -0,0 +1,156 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.packages.response;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bboxdb.commons.io.DataEncoderHelper;
+import org.bboxdb.misc.Const;
+import org.bboxdb.network.NetworkConst;
+import org.bboxdb.network.NetworkPackageDecoder;
+import org.bboxdb.network.entity.OperatorProfile;
+import org.bboxdb.network.packages.NetworkResponsePackage;
+import org.bboxdb.network.packages.PackageEncodeException;
+
+public class QueryProfileResponse extends NetworkResponsePackage {
+
+	/**
+	 * The profile of the operator tree
+	 */
+	private final OperatorProfile operatorProfile;
+
+	public QueryProfileResponse(final int sequenceNumber, final OperatorProfile operatorProfile) {
+		super(sequenceNumber);
+		this.operatorProfile = operatorProfile;
+	}
+
+	@Override
+	public byte getPackageType() {
+		return NetworkConst.RESPONSE_TYPE_QUERY_PROFILE;
+	}
+
+	@Override
+	public long writeToOutputStream(final OutputStream outputStream) throws PackageEncodeException {
+
+		try {
+			final ByteArrayOutputStream bodyStream = new ByteArrayOutputStream();
+			writeProfile(operatorProfile, bodyStream);
+			bodyStream.close();
+
+			final byte[] bodyBytes = bodyStream.toByteArray();
+			final long headerLength = appendResponsePackageHeader(bodyBytes.length, outputStream);
+			outputStream.write(bodyBytes);
+
+			return headerLength + bodyBytes.length;
+		} catch (IOException e) {
+			throw new PackageEncodeException("Got exception while converting package into bytes", e);
+		}
+	}
+
+	/**
+	 * Write the profile and all inputs (pre-order) into the stream
+	 * @param profile
+	 * @param bodyStream
+	 * @throws IOException
+	 */
+	private static void writeProfile(final OperatorProfile profile, final ByteArrayOutputStream bodyStream)
+			throws IOException {
+
+		final byte[] nameBytes = profile.getOperatorName().getBytes(Const.DEFAULT_CHARSET);
+		bodyStream.write(DataEncoderHelper.shortToByteBuffer((short) nameBytes.length).array());
+		bodyStream.write(nameBytes);
+
+		bodyStream.write(DataEncoderHelper.longToByteBuffer(profile.getTuplesIn()).array());
+		bodyStream.write(DataEncoderHelper.longToByteBuffer(profile.getTuplesOut()).array());
+		bodyStream.write(DataEncoderHelper.longToByteBuffer(profile.getWallTimeNanos()).array());
+		bodyStream.write(DataEncoderHelper.longToByteBuffer(profile.getBytesRead()).array());
+
+		final List<OperatorProfile> inputs = profile.getInputs();
+		bodyStream.write(DataEncoderHelper.intToByteBuffer(inputs.size()).array());
+
+		for(final OperatorProfile input : inputs) {
+			writeProfile(input, bodyStream);
+		}
+	}
+
+	/**
+	 * Decode the encoded package into a object
+	 *
+	 * @param encodedPackage
+	 * @return
+	 * @throws PackageEncodeException
+	 */
+	public static QueryProfileResponse decodePackage(final ByteBuffer encodedPackage) throws PackageEncodeException {
+		final int requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
+
+		final boolean decodeResult = NetworkPackageDecoder.validateResponsePackageHeader(encodedPackage,
+				NetworkConst.RESPONSE_TYPE_QUERY_PROFILE);
+
+		if(decodeResult == false) {
+			throw new PackageEncodeException("Unable to decode package");
+		}
+
+		final OperatorProfile operatorProfile = readProfile(encodedPackage);
+
+		if(encodedPackage.remaining() != 0) {
+			throw new PackageEncodeException("Some bytes are left after decoding: " + encodedPackage.remaining());
+		}
+
+		return new QueryProfileResponse(requestId, operatorProfile);
+	}
+
+	/**
+	 * Read the profile and all inputs from the buffer
+	 * @param encodedPackage
+	 * @return
+	 */
+	private static OperatorProfile readProfile(final ByteBuffer encodedPackage) {
+		final short nameLength = encodedPackage.getShort();
+		final byte[] nameBytes = new byte[nameLength];
+		encodedPackage.get(nameBytes, 0, nameBytes.length);
+		final String operatorName = new String(nameBytes, Const.DEFAULT_CHARSET);
+
+		final long tuplesIn = encodedPackage.getLong();
+		final long tuplesOut = encodedPackage.getLong();
+		final long wallTimeNanos = encodedPackage.getLong();
+		final long bytesRead = encodedPackage.getLong();
+
+		final int numberOfInputs = encodedPackage.getInt();
+		final List<OperatorProfile> inputs = new ArrayList<>();
+
+		for(int i = 0; i < numberOfInputs; i++) {
+			inputs.add(readProfile(encodedPackage));
+		}
+
+		return new OperatorProfile(operatorName, tuplesIn, tuplesOut, wallTimeNanos, bytesRead, inputs);
+	}
+
+	public OperatorProfile getOperatorProfile() {
+		return operatorProfile;
+	}
+
+	@Override
+	public String toString() {
+		return "QueryProfileResponse [operatorProfile=" + operatorProfile + "]";
+	}
+}
@@ -25,11 +25,11 @@ import org.bboxdb.network.packages.PackageEncodeException;
 
 public class SuccessResponse extends AbstractBodyResponse {
 	
-	public SuccessResponse(final short sequenceNumber) {
+	public SuccessResponse(final int sequenceNumber) {
 		super(sequenceNumber, "");
 	}
 	
-	public SuccessResponse(final short sequenceNumber, final String body) {
+	public SuccessResponse(final int sequenceNumber, final String body) {
 		super(sequenceNumber, body);
 	}
 
@@ -47,7 +47,7 @@ public class SuccessResponse extends AbstractBodyResponse {
 	 */
 	public static SuccessResponse decodePackage(final ByteBuffer encodedPackage) throws PackageEncodeException {
 		final String body = decodeMessage(encodedPackage,  NetworkConst.RESPONSE_TYPE_SUCCESS);
-		final short requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
+		final int requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
 		
 		return new SuccessResponse(requestId, body);
 	}
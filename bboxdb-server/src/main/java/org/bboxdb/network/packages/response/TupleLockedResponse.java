@@ -25,7 +25,7 @@ import org.bboxdb.network.packages.PackageEncodeException;
 
 public class TupleLockedResponse extends AbstractBodyResponse {
 	
-	public TupleLockedResponse(final short sequenceNumber) {
+	public TupleLockedResponse(final int sequenceNumber) {
 		super(sequenceNumber, "");
 	}
 
@@ -43,7 +43,7 @@ public class TupleLockedResponse extends AbstractBodyResponse {
 	 */
 	public static TupleLockedResponse decodePackage(final ByteBuffer encodedPackage) throws PackageEncodeException {
 		decodeMessage(encodedPackage,  NetworkConst.RESPONSE_TYPE_TUPLE_LOCK_SUCCESS);
-		final short requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
+		final int requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
 		
 		return new TupleLockedResponse(requestId);
 	}
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 
+import org.bboxdb.network.NetworkBufferPool;
 import org.bboxdb.network.NetworkConst;
 import org.bboxdb.network.NetworkPackageDecoder;
 import org.bboxdb.network.packages.NetworkResponsePackage;
@@ -41,7 +42,7 @@ public class TupleResponse extends NetworkResponsePackage {
 	 */
 	protected final Tuple tuple;
 
-	public TupleResponse(final short sequenceNumber, final String table, final Tuple tuple) {
+	public TupleResponse(final int sequenceNumber, final String table, final Tuple tuple) {
 		super(sequenceNumber);
 		this.table = table;
 		this.tuple = tuple;
@@ -56,11 +57,17 @@ public class TupleResponse extends NetworkResponsePackage {
 	public long writeToOutputStream(final OutputStream outputStream) throws PackageEncodeException {
 		
 		try {
-			final byte[] encodedBytes = NetworkTupleEncoderDecoder.encode(tuple, table);
-			final long headerLength = appendResponsePackageHeader(encodedBytes.length, outputStream);
-			outputStream.write(encodedBytes);
+			// The data bytes are written directly to the stream without an intermediate copy
+			final ByteBuffer tupleHeader = NetworkTupleEncoderDecoder.encodeHeader(tuple, table);
 			
-			return headerLength + encodedBytes.length;
+			try {
+				final long bodyLength = tupleHeader.limit() + tuple.getDataBytes().length;
+				final long headerLength = appendResponsePackageHeader(bodyLength, outputStream);
+				
+				return headerLength + NetworkTupleEncoderDecoder.writeToStream(tupleHeader, tuple, outputStream);
+			} finally {
+				NetworkBufferPool.getInstance().release(tupleHeader);
+			}
 		} catch (IOException e) {
 			throw new PackageEncodeException("Got exception while converting package into bytes", e);
 		}	
@@ -74,7 +81,7 @@ public class TupleResponse extends NetworkResponsePackage {
 	 * @throws PackageEncodeException 
 	 */
 	public static TupleResponse decodePackage(final ByteBuffer encodedPackage) throws PackageEncodeException {		
-		final short requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
+		final int requestId = NetworkPackageDecoder.getRequestIDFromResponsePackage(encodedPackage);
 
 		final boolean decodeResult = NetworkPackageDecoder.validateResponsePackageHeader(encodedPackage, NetworkConst.RESPONSE_TYPE_TUPLE);
 
@@ -17,25 +17,26 @@
  *******************************************************************************/
 package org.bboxdb.network.routing;
 
-import java.util.concurrent.ExecutionException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
-import org.bboxdb.commons.concurrent.ExceptionSafeRunnable;
 import org.bboxdb.distribution.membership.BBoxDBInstance;
 import org.bboxdb.distribution.membership.MembershipConnectionService;
+import org.bboxdb.distribution.membership.MembershipConnectionService.TrafficClass;
 import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
 import org.bboxdb.misc.BBoxDBException;
-import org.bboxdb.network.client.BBoxDBClient;
 import org.bboxdb.network.client.connection.BBoxDBConnection;
-import org.bboxdb.network.client.future.client.EmptyResultFuture;
-import org.bboxdb.network.packages.PackageEncodeException;
 import org.bboxdb.network.packages.request.InsertTupleRequest;
+import org.bboxdb.network.packages.request.InsertTuplesRequest;
 import org.bboxdb.network.packages.response.ErrorResponse;
 import org.bboxdb.network.packages.response.SuccessResponse;
 import org.bboxdb.network.server.connection.ClientConnectionHandler;
 import org.bboxdb.network.server.query.ErrorMessages;
+import org.bboxdb.storage.entity.Tuple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -72,99 +73,151 @@ public class PackageRouter {
 	 * Perform the routing task async
 	 * @param packageSequence
 	 * @param insertTupleRequest
-	 * @param boundingBox
 	 */
-	public void performInsertPackageRoutingAsync(final short packageSequence, 
+	public void performInsertPackageRoutingAsync(final int packageSequence, 
 			final InsertTupleRequest insertTupleRequest) {
+		
+		performInsertPackageRoutingAsync(packageSequence, insertTupleRequest.getRoutingHeader(),
+				insertTupleRequest.getTable().getFullname(), Arrays.asList(insertTupleRequest.getTuple()));
+	}
 	
-		final Runnable routeRunable = new ExceptionSafeRunnable()  {
-
-			@Override
-			protected void runThread() {
-				
-				boolean operationSuccess = true;
+	/**
+	 * Perform the routing task of the batch insert async
+	 * @param packageSequence
+	 * @param insertTuplesRequest
+	 */
+	public void performInsertPackageRoutingAsync(final int packageSequence, 
+			final InsertTuplesRequest insertTuplesRequest) {
+		
+		performInsertPackageRoutingAsync(packageSequence, insertTuplesRequest.getRoutingHeader(),
+				insertTuplesRequest.getTable().getFullname(), insertTuplesRequest.getTuples());
+	}
+	
+	/**
+	 * Perform the routing task for a part of the tuples of the batch insert async. The 
+	 * routing result is passed to the result writer, which sends the response to the client.
+	 * 
+	 * @param packageSequence
+	 * @param insertTuplesRequest
+	 * @param tuples
+	 * @param resultWriter
+	 */
+	public void performInsertPackageRoutingAsync(final int packageSequence, 
+			final InsertTuplesRequest insertTuplesRequest, final List<Tuple> tuples, 
+			final Consumer<Boolean> resultWriter) {
+		
+		performInsertPackageRoutingAsync(packageSequence, insertTuplesRequest.getRoutingHeader(),
+				insertTuplesRequest.getTable().getFullname(), tuples, resultWriter);
+	}
+	
+	/**
+	 * Forward the tuples to the next hop and write the routing result to the client
+	 * 
+	 * @param packageSequence
+	 * @param routingHeader
+	 * @param table
+	 * @param tuples
+	 */
+	private void performInsertPackageRoutingAsync(final int packageSequence, 
+			final RoutingHeader routingHeader, final String table, final List<Tuple> tuples) {
+		
+		performInsertPackageRoutingAsync(packageSequence, routingHeader, table, tuples, 
+				(success) -> writeRoutingResult(packageSequence, success));
+	}
 
-				try {
-					final RoutingHeader routingHeader = insertTupleRequest.getRoutingHeader();
-					
-					assert (routingHeader.isRoutedPackage()) : "Tuple is not a routed package";
-					
-					if(! routingHeader.reachedFinalInstance()) {
-						routingHeader.dispatchToNextHop();				
-						operationSuccess = sendInsertPackage(insertTupleRequest);
-					}
-					
-				}  catch(InterruptedException e) {
-					logger.error("Exception while routing package", e);
-					Thread.currentThread().interrupt();
-					operationSuccess = false;
-				} catch (PackageEncodeException e) {
-					logger.error("Exception while routing package", e);
-					operationSuccess = false;
-				} 
-				
-				if(operationSuccess) {
-					final SuccessResponse responsePackage = new SuccessResponse(packageSequence);
-					clientConnectionHandler.writeResultPackageNE(responsePackage);
-				} else {
-					final ErrorResponse responsePackage = new ErrorResponse(packageSequence, ErrorMessages.ERROR_ROUTING_FAILED);
-					clientConnectionHandler.writeResultPackageNE(responsePackage);
-				}
-			}
-		};
-		
-		// Submit the runnable to our pool
+	/**
+	 * Forward the tuples to the next hop. The result is send to the client when 
+	 * the next hop has acknowledged the tuples. No thread waits for the next hop.
+	 * 
+	 * @param packageSequence
+	 * @param routingHeader
+	 * @param table
+	 * @param tuples
+	 * @param resultWriter
+	 */
+	private void performInsertPackageRoutingAsync(final int packageSequence, 
+			final RoutingHeader routingHeader, final String table, final List<Tuple> tuples, 
+			final Consumer<Boolean> resultWriter) {
+	
+		assert (routingHeader.isRoutedPackage()) : "Tuple is not a routed package";
+		
 		if(threadPool.isShutdown()) {
 			logger.warn("Thread pool is shutting down, don't route package: {}", packageSequence);
 			final ErrorResponse responsePackage = new ErrorResponse(packageSequence, ErrorMessages.ERROR_QUERY_SHUTDOWN);
 			clientConnectionHandler.writeResultPackageNE(responsePackage);
+			return;
+		}
+		
+		if(routingHeader.reachedFinalInstance()) {
+			resultWriter.accept(true);
+			return;
+		}
+		
+		routingHeader.dispatchToNextHop();
+		
+		final BBoxDBConnection connection = getConnectionForNextHop(routingHeader);
+		
+		if(connection == null) {
+			resultWriter.accept(false);
+			return;
+		}
+		
+		RoutedInsertForwarder.getInstance().forwardInsert(connection, table, routingHeader, tuples, 
+				TimeUnit.SECONDS.toMillis(ROUTING_TIMEOUT_IN_SEC), 
+				(success) -> writeRoutingResultAsync(resultWriter, success));
+	}
+
+	/**
+	 * Write the routing result from the thread pool. The result callback is executed by 
+	 * a network thread of the next hop connection, which should not wait for the client.
+	 * 
+	 * @param resultWriter
+	 * @param operationSuccess
+	 */
+	private void writeRoutingResultAsync(final Consumer<Boolean> resultWriter, final boolean operationSuccess) {
+		try {
+			threadPool.submit(() -> resultWriter.accept(operationSuccess));
+		} catch(RejectedExecutionException e) {
+			logger.debug("Thread pool rejected task, write result directly", e);
+			resultWriter.accept(operationSuccess);
+		}
+	}
+	
+	/**
+	 * Write the routing result to the client
+	 * @param packageSequence
+	 * @param operationSuccess
+	 */
+	private void writeRoutingResult(final int packageSequence, final boolean operationSuccess) {
+		if(operationSuccess) {
+			final SuccessResponse responsePackage = new SuccessResponse(packageSequence);
+			clientConnectionHandler.writeResultPackageNE(responsePackage);
 		} else {
-			threadPool.submit(routeRunable);
+			final ErrorResponse responsePackage = new ErrorResponse(packageSequence, ErrorMessages.ERROR_ROUTING_FAILED);
+			clientConnectionHandler.writeResultPackageNE(responsePackage);
 		}
 	}
 
 	/**
-	 * @param insertTupleRequest
-	 * @return
-	 * @throws InterruptedException
-	 * @throws PackageEncodeException 
-	 * @throws TimeoutException 
-	 * @throws ExecutionException
+	 * Get the connection to the current hop of the routing header
+	 * @param routingHeader
+	 * @return the connection or null
 	 */
-	protected boolean sendInsertPackage(final InsertTupleRequest insertTupleRequest) 
-			throws InterruptedException, PackageEncodeException {
-		
-		final RoutingHeader routingHeader = insertTupleRequest.getRoutingHeader();
+	private BBoxDBConnection getConnectionForNextHop(final RoutingHeader routingHeader) {
 		final RoutingHop routingHop = routingHeader.getRoutingHop();
 		final BBoxDBInstance receiverInstance = routingHop.getDistributedInstance();
 				
 		final BBoxDBConnection connection = MembershipConnectionService
 				.getInstance()
-				.getConnectionForInstance(receiverInstance);
+				.getConnectionForInstance(receiverInstance, TrafficClass.LATENCY_SENSITIVE);
 		
 		if(connection == null) {
 			logger.error("Unable to get a connection to system: {}", receiverInstance);
-			return false;
 		} 
-				
-		final BBoxDBClient bboxDBClient = connection.getBboxDBClient();
-		final EmptyResultFuture insertFuture = bboxDBClient.insertTuple(
-				insertTupleRequest.getTable().getFullname(), 
-				insertTupleRequest.getTuple(), 
-				routingHeader);
 		
-		try {
-			insertFuture.waitForCompletion(ROUTING_TIMEOUT_IN_SEC, TimeUnit.SECONDS);
-		} catch (TimeoutException e) {
-			logger.warn("Routing timeout, retry routing: {}", connection);
-			return false;
-		}
-		
-		final boolean operationSuccess = (! insertFuture.isFailed());
-		return operationSuccess;
+		return connection;
 	}
 	
-	
 	/**
 	 * Ensure that the package is routed to the correct system
 	 * @param localHop
@@ -0,0 +1,391 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.routing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.bboxdb.network.client.BBoxDBClient;
+import org.bboxdb.network.client.connection.BBoxDBConnection;
+import org.bboxdb.network.client.future.client.EmptyResultFuture;
+import org.bboxdb.storage.entity.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.prometheus.client.Gauge;
+
+/**
+ * Forward routed inserts to the next hop without waiting for the result. Per peer,
+ * table and route, only a few forwarded packages are in flight. The inserts that
+ * arrive while the window is full are send as one batch when the next ack arrives.
+ * 
+ * A routing timeout fails the inserts of the package, but the package stays in 
+ * flight until the next hop answers or the connection fails. So, a slow next hop 
+ * is not flooded with retries.
+ *
+ */
+public class RoutedInsertForwarder {
+
+	/**
+	 * The instance
+	 */
+	private static RoutedInsertForwarder instance;
+
+	/**
+	 * The forwarding queues
+	 */
+	private final Map<ForwardingKey, ForwardingQueue> forwardingQueues;
+
+	/**
+	 * The timeout scheduler
+	 */
+	private final ScheduledExecutorService timeoutScheduler;
+
+	/**
+	 * The max amount of in flight packages per forwarding queue
+	 */
+	private final static int MAX_IN_FLIGHT_PACKAGES = 4;
+
+	/**
+	 * The max amount of tuples in a forwarded batch
+	 */
+	private final static int MAX_BATCH_SIZE = 1000;
+
+	/**
+	 * The number of forwarded packages
+	 */
+	private final static Gauge forwardedPackagesTotal = Gauge.build()
+			.name("bboxdb_network_forwarded_insert_packages_total")
+			.help("Total amount of forwarded insert network packages").register();
+
+	/**
+	 * The number of forwarded tuples
+	 */
+	private final static Gauge forwardedTuplesTotal = Gauge.build()
+			.name("bboxdb_network_forwarded_insert_tuples_total")
+			.help("Total amount of forwarded tuples").register();
+
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(RoutedInsertForwarder.class);
+
+	static {
+		instance = new RoutedInsertForwarder();
+	}
+
+	private RoutedInsertForwarder() {
+		// private singleton constructor
+		this.forwardingQueues = new HashMap<>();
+		this.timeoutScheduler = Executors.newScheduledThreadPool(1);
+	}
+
+	@Override
+	protected Object clone() throws CloneNotSupportedException {
+		throw new IllegalArgumentException("Unable to clone a singleton");
+	}
+
+	/**
+	 * Return the instance
+	 * @return
+	 */
+	public static RoutedInsertForwarder getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Forward the tuples to the current hop of the routing header. The callback is
+	 * called with the result of the operation, it is called from a network thread
+	 * and must not block.
+	 *
+	 * @param connection
+	 * @param table
+	 * @param routingHeader
+	 * @param tuples
+	 * @param timeoutMillis
+	 * @param resultCallback
+	 */
+	public void forwardInsert(final BBoxDBConnection connection, final String table,
+			final RoutingHeader routingHeader, final List<Tuple> tuples, final long timeoutMillis,
+			final Consumer<Boolean> resultCallback) {
+
+		final ForwardingKey key = new ForwardingKey(connection, table, routingHeader);
+		final PendingInsert pendingInsert = new PendingInsert(tuples, resultCallback);
+
+		final ForwardingQueue queue;
+
+		synchronized (forwardingQueues) {
+			queue = forwardingQueues.computeIfAbsent(key, k -> new ForwardingQueue(k, timeoutMillis));
+			queue.pendingInserts.add(pendingInsert);
+			queue.pendingTuples += tuples.size();
+		}
+
+		sendNextBatch(queue);
+	}
+
+	/**
+	 * Send the next batch of the queue, if the window allows it
+	 * @param queue
+	 */
+	private void sendNextBatch(final ForwardingQueue queue) {
+
+		final List<PendingInsert> batch = new ArrayList<>();
+
+		synchronized (forwardingQueues) {
+			if(queue.pendingInserts.isEmpty()) {
+				if(queue.inFlightPackages == 0) {
+					forwardingQueues.remove(queue.key);
+				}
+				return;
+			}
+
+			if(queue.inFlightPackages >= MAX_IN_FLIGHT_PACKAGES) {
+				return;
+			}
+
+			int batchSize = 0;
+
+			// Take at least one insert, also when it is larger than the batch size
+			while(! queue.pendingInserts.isEmpty()) {
+				final int tuples = queue.pendingInserts.peek().tuples.size();
+
+				if(! batch.isEmpty() && batchSize + tuples > MAX_BATCH_SIZE) {
+					break;
+				}
+
+				batch.add(queue.pendingInserts.poll());
+				batchSize += tuples;
+			}
+
+			queue.pendingTuples -= batchSize;
+			queue.inFlightPackages++;
+		}
+
+		sendBatch(queue, batch);
+	}
+
+	/**
+	 * Send the batch to the next hop
+	 * @param queue
+	 * @param batch
+	 */
+	private void sendBatch(final ForwardingQueue queue, final List<PendingInsert> batch) {
+
+		final AtomicBoolean resultReported = new AtomicBoolean(false);
+		final AtomicBoolean slotReleased = new AtomicBoolean(false);
+
+		// Called on the routing timeout and on the result
+		final Consumer<Boolean> reportResult = (success) -> {
+			if(resultReported.compareAndSet(false, true)) {
+				batch.forEach(i -> i.resultCallback.accept(success));
+			}
+		};
+
+		// Called on the result or a connection failure
+		final Consumer<Boolean> completeBatch = (success) -> {
+			reportResult.accept(success);
+
+			if(! slotReleased.compareAndSet(false, true)) {
+				return;
+			}
+
+			synchronized (forwardingQueues) {
+				queue.inFlightPackages--;
+			}
+
+			sendNextBatch(queue);
+		};
+
+		try {
+			final ForwardingKey key = queue.key;
+			final BBoxDBClient bboxDBClient = key.connection.getBboxDBClient();
+			final EmptyResultFuture insertFuture;
+
+			if(batch.size() == 1 && batch.get(0).tuples.size() == 1) {
+				insertFuture = bboxDBClient.insertTuple(key.table, batch.get(0).tuples.get(0),
+						key.routingHeader);
+			} else {
+				final List<Tuple> tuples = new ArrayList<>();
+				batch.forEach(i -> tuples.addAll(i.tuples));
+				insertFuture = bboxDBClient.insertTuples(key.table, tuples, key.routingHeader);
+			}
+
+			forwardedPackagesTotal.inc();
+			batch.forEach(i -> forwardedTuplesTotal.inc(i.tuples.size()));
+
+			final ScheduledFuture<?> timeout = timeoutScheduler.schedule(() -> {
+				logger.warn("Routing timeout, retry routing: {}", key.connection);
+				reportResult.accept(false);
+			}, queue.timeoutMillis, TimeUnit.MILLISECONDS);
+
+			insertFuture.addSuccessCallbackConsumer((f) -> {
+				timeout.cancel(false);
+				completeBatch.accept(! f.isFailed());
+			});
+
+			// Future might be completed before the callback was registered
+			if(insertFuture.isDone()) {
+				timeout.cancel(false);
+				completeBatch.accept(! insertFuture.isFailed());
+			}
+		} catch(Exception e) {
+			logger.error("Exception while routing package", e);
+			completeBatch.accept(false);
+		}
+	}
+
+	/**
+	 * Get the amount of tuples that wait for forwarding
+	 * @return
+	 */
+	public long getPendingTuples() {
+		synchronized (forwardingQueues) {
+			return forwardingQueues.values().stream().mapToLong(q -> q.pendingTuples).sum();
+		}
+	}
+
+	/**
+	 * The queue of the inserts for one peer, table and route
+	 */
+	private static class ForwardingQueue {
+
+		/**
+		 * The key of the queue
+		 */
+		private final ForwardingKey key;
+
+		/**
+		 * The routing timeout
+		 */
+		private final long timeoutMillis;
+
+		/**
+		 * The inserts that are not send
+		 */
+		private final Deque<PendingInsert> pendingInserts = new ArrayDeque<>();
+
+		/**
+		 * The amount of tuples in the pending inserts
+		 */
+		private long pendingTuples = 0;
+
+		/**
+		 * The amount of send packages without a result
+		 */
+		private int inFlightPackages = 0;
+
+		public ForwardingQueue(final ForwardingKey key, final long timeoutMillis) {
+			this.key = key;
+			this.timeoutMillis = timeoutMillis;
+		}
+	}
+
+	/**
+	 * An insert that waits for forwarding
+	 */
+	private static class PendingInsert {
+
+		/**
+		 * The tuples
+		 */
+		private final List<Tuple> tuples;
+
+		/**
+		 * The result callback
+		 */
+		private final Consumer<Boolean> resultCallback;
+
+		public PendingInsert(final List<Tuple> tuples, final Consumer<Boolean> resultCallback) {
+			this.tuples = tuples;
+			this.resultCallback = resultCallback;
+		}
+	}
+
+	/**
+	 * The inserts with the same key can be forwarded in one batch
+	 */
+	private static class ForwardingKey {
+
+		/**
+		 * The connection to the next hop
+		 */
+		private final BBoxDBConnection connection;
+
+		/**
+		 * The table
+		 */
+		private final String table;
+
+		/**
+		 * The routing header
+		 */
+		private final RoutingHeader routingHeader;
+
+		public ForwardingKey(final BBoxDBConnection connection, final String table,
+				final RoutingHeader routingHeader) {
+
+			this.connection = connection;
+			this.table = table;
+			this.routingHeader = routingHeader;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((connection == null) ? 0 : connection.hashCode());
+			result = prime * result + ((routingHeader == null) ? 0 : routingHeader.hashCode());
+			result = prime * result + ((table == null) ? 0 : table.hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			ForwardingKey other = (ForwardingKey) obj;
+			if (connection != other.connection)
+				return false;
+			if (routingHeader == null) {
+				if (other.routingHeader != null)
+					return false;
+			} else if (!routingHeader.equals(other.routingHeader))
+				return false;
+			if (table == null) {
+				if (other.table != null)
+					return false;
+			} else if (!table.equals(other.table))
+				return false;
+			return true;
+		}
+	}
+}
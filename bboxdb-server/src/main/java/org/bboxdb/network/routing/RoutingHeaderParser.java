@@ -18,7 +18,6 @@
 package org.bboxdb.network.routing;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
@@ -123,46 +122,84 @@ public class RoutingHeaderParser {
 		return new RoutingHeader(false);
 	}
 
+	/**
+	 * The length of the routing header without the routing list
+	 */
+	private final static int FIXED_ROUTING_HEADER_LENGTH = 6;
+	
+	/**
+	 * The empty routing list of direct packages
+	 */
+	private final static byte[] EMPTY_ROUTING_LIST = new byte[0];
+
 	/**
 	 * Encode the routing header into a byte buffer
 	 * @throws IOException 
 	 */
 	public static byte[] encodeHeader(final RoutingHeader routingHeader) throws IOException {
-		final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		final byte[] routingList = getRoutingListBytes(routingHeader);
+		final ByteBuffer byteBuffer = ByteBuffer.allocate(getEncodedLength(routingList));
+		byteBuffer.order(DataEncoderHelper.APPLICATION_BYTE_ORDER);
+		encodeHeader(routingHeader, routingList, byteBuffer);
+		return byteBuffer.array();
+	}
+	
+	/**
+	 * Get the encoded routing list of the header
+	 * @param routingHeader
+	 * @return
+	 */
+	public static byte[] getRoutingListBytes(final RoutingHeader routingHeader) {
+		if(! routingHeader.isRoutedPackage()) {
+			return EMPTY_ROUTING_LIST;
+		}
+		
+		return routingHeader.getRoutingListAsString().getBytes();
+	}
+	
+	/**
+	 * Get the length of the encoded routing header 
+	 * @param routingList - the result of getRoutingListBytes()
+	 * @return
+	 */
+	public static int getEncodedLength(final byte[] routingList) {
+		return FIXED_ROUTING_HEADER_LENGTH + routingList.length;
+	}
+	
+	/**
+	 * Encode the routing header into the given byte buffer
+	 * @param routingHeader
+	 * @param routingList - the result of getRoutingListBytes()
+	 * @param byteBuffer
+	 */
+	public static void encodeHeader(final RoutingHeader routingHeader, final byte[] routingList, 
+			final ByteBuffer byteBuffer) {
 		
 		if(routingHeader.isRoutedPackage()) {
-			byteArrayOutputStream.write(RoutingHeader.ROUTED_PACKAGE);
+			byteBuffer.put(RoutingHeader.ROUTED_PACKAGE);
 			
 			// Hop
-			final ByteBuffer hop = DataEncoderHelper.shortToByteBuffer(routingHeader.getHop());
-			byteArrayOutputStream.write(hop.array());
+			byteBuffer.putShort(routingHeader.getHop());
 			
 			// Unused
-			byteArrayOutputStream.write(0x00);
+			byteBuffer.put((byte) 0x00);
 			
 			// Length of routing list
-			final String routingList = routingHeader.getRoutingListAsString();
-			final ByteBuffer rountingListLength = DataEncoderHelper.shortToByteBuffer((short) routingList.length());
-			byteArrayOutputStream.write(rountingListLength.array());
+			byteBuffer.putShort((short) routingList.length);
 			
 			// Host list
-			byteArrayOutputStream.write(routingList.getBytes());
-			
+			byteBuffer.put(routingList);
 		} else {
-			byteArrayOutputStream.write(RoutingHeader.DIRECT_PACKAGE);
+			byteBuffer.put(RoutingHeader.DIRECT_PACKAGE);
 			
 			// Hop
-			byteArrayOutputStream.write(0x00);
-			byteArrayOutputStream.write(0x00);
+			byteBuffer.putShort((short) 0);
 			
 			// Unused
-			byteArrayOutputStream.write(0x00);
+			byteBuffer.put((byte) 0x00);
 			
 			// Length of routing list
-			byteArrayOutputStream.write(0x00);
-			byteArrayOutputStream.write(0x00);
+			byteBuffer.putShort((short) 0);
 		}
-		
-		return byteArrayOutputStream.toByteArray();
 	}
 }
@@ -40,6 +40,9 @@ import org.bboxdb.distribution.region.DistributionRegionHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 public class RoutingHopHelper {
 
 	/**
@@ -47,6 +50,13 @@ public class RoutingHopHelper {
 	 */
 	private final static Logger logger = LoggerFactory.getLogger(RoutingHopHelper.class);
 
+	/**
+	 * The compiled routing tables of the distribution region trees. The root
+	 * regions are weak keys, so the tables of replaced trees are removed.
+	 */
+	private final static Cache<DistributionRegion, RoutingTable> routingTables
+		= CacheBuilder.newBuilder().weakKeys().build();
+
 	/**
 	 * Get the a list of systems for the bounding box
 	 * @param routingOptions 
@@ -55,16 +65,12 @@ public class RoutingHopHelper {
 	public static List<RoutingHop> getRoutingHopsForRead(final DistributionRegion rootRegion,
 			final Hyperrectangle boundingBox, final EnumSet<DistributionRegionHandlingFlag> extraOptions) {
 
-		final List<BBoxDBInstance> instances = MembershipConnectionService.getInstance().getAllInstances();
-
-		final Map<Predicate<DistributionRegionState>, EnumSet<DistributionRegionHandlingFlag>> predicateMap = new HashMap<>();
-		
 		final EnumSet<DistributionRegionHandlingFlag> readOptions = EnumSet.noneOf(DistributionRegionHandlingFlag.class);
 		readOptions.addAll(extraOptions);
 
-		predicateMap.put(DistributionRegionHelper.PREDICATE_REGIONS_FOR_READ, readOptions);
+		final List<RoutingHop> hops = getRoutingTable(rootRegion).getHopsForRead(boundingBox, readOptions);
 		
-		return getHopListForPredicateAndBox(rootRegion, boundingBox, instances, predicateMap);
+		return removeUnavailableHops(hops);
 	}
 
 	/**
@@ -74,22 +80,77 @@ public class RoutingHopHelper {
 	public static List<RoutingHop> getRoutingHopsForWrite(final DistributionRegion rootRegion,
 			final Hyperrectangle boundingBox, final Set<DistributionRegionHandlingFlag> extraOptions) {
 
-		final List<BBoxDBInstance> instances = MembershipConnectionService.getInstance().getAllInstances();
-		
-		final Map<Predicate<DistributionRegionState>, EnumSet<DistributionRegionHandlingFlag>> predicateMap = new HashMap<>();
-		
 		final EnumSet<DistributionRegionHandlingFlag> writeOptions = EnumSet.noneOf(DistributionRegionHandlingFlag.class);
 		writeOptions.addAll(extraOptions);
-		predicateMap.put(DistributionRegionHelper.PREDICATE_REGIONS_FOR_WRITE, writeOptions);
 		
 		// Ensure the tuple is also send to the in merging and splitting state regions to trigger 
 		// the continuous queries
 		final EnumSet<DistributionRegionHandlingFlag> streamOptions = EnumSet.noneOf(DistributionRegionHandlingFlag.class);
 		streamOptions.addAll(extraOptions);
 		streamOptions.add(DistributionRegionHandlingFlag.STREAMING_ONLY);
-		predicateMap.put(DistributionRegionHelper.PREDICATE_REGIONS_FOR_STREAM, streamOptions);
 		
-		return getHopListForPredicateAndBox(rootRegion, boundingBox, instances, predicateMap);
+		final List<RoutingHop> hops = getRoutingTable(rootRegion)
+				.getHopsForWrite(boundingBox, writeOptions, streamOptions);
+		
+		return removeUnavailableHops(hops);
+	}
+	
+	/**
+	 * Get the routing table for the tree, the table is compiled again if the tree has changed
+	 * @param rootRegion
+	 * @return
+	 */
+	public static RoutingTable getRoutingTable(final DistributionRegion rootRegion) {
+		final RoutingTable routingTable = routingTables.getIfPresent(rootRegion);
+		
+		if(routingTable != null && routingTable.isUpToDate(rootRegion)) {
+			return routingTable;
+		}
+		
+		final RoutingTable compiledRoutingTable = RoutingTable.compile(rootRegion);
+		routingTables.put(rootRegion, compiledRoutingTable);
+		
+		logger.debug("Compiled routing table for {} with {} regions (version {})", 
+				rootRegion.getDistributionGroupName(), compiledRoutingTable.getNumberOfRegions(), 
+				compiledRoutingTable.getTreeVersion());
+		
+		return compiledRoutingTable;
+	}
+	
+	/**
+	 * Remove the hops to instances that are not ready
+	 * @param hops
+	 * @return
+	 */
+	private static List<RoutingHop> removeUnavailableHops(final List<RoutingHop> hops) {
+		
+		final MembershipConnectionService membershipConnectionService 
+			= MembershipConnectionService.getInstance();
+		
+		// No instances are known, this is this the case when a direct connection without
+		// the membership instance manager is established.
+		if(! membershipConnectionService.hasKnownInstances()) {
+			return hops;
+		}
+		
+		final List<RoutingHop> hopList = new ArrayList<>(hops.size());
+		
+		for(final RoutingHop hop : hops) {
+			final BBoxDBInstance instance = membershipConnectionService
+					.getKnownInstance(hop.getDistributedInstance().getInetSocketAddress());
+			
+			// Send data only to active instances
+			if(instance != null && instance.getState() == BBoxDBInstanceState.READY) {
+				hopList.add(hop);
+			}
+		}
+		
+		if(hopList.isEmpty()) {
+			logger.error("Hop list is empty hops {} / filtered hop list {} / known instances {}",
+					hops, hopList, membershipConnectionService.getAllInstances());
+		}
+		
+		return hopList;
 	}
 
 	/**
@@ -0,0 +1,305 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.routing;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.distribution.membership.BBoxDBInstance;
+import org.bboxdb.distribution.partitioner.DistributionRegionState;
+import org.bboxdb.distribution.region.DistributionRegion;
+import org.bboxdb.distribution.region.DistributionRegionHelper;
+import org.bboxdb.storage.sstable.spatialindex.SpatialIndexEntry;
+import org.bboxdb.storage.sstable.spatialindex.rtree.RTreeBuilder;
+
+/**
+ * An immutable routing snapshot of a distribution region tree. The readable, writable 
+ * and streamable regions are stored in a spatial index together with their systems, 
+ * so the routing of a bounding box is a single index probe.
+ * 
+ * The table is created for a version of the tree (see {@link DistributionRegion#getTreeVersion()})
+ * and has to be compiled again, when the tree has changed.
+ */
+public class RoutingTable {
+
+	/**
+	 * The root region of the tree
+	 */
+	private final DistributionRegion rootRegion;
+	
+	/**
+	 * The version of the tree 
+	 */
+	private final long treeVersion;
+	
+	/**
+	 * The routing entries (index = value of the spatial index entry)
+	 */
+	private final RoutingTableEntry[] entries;
+	
+	/**
+	 * The entries that cover the full space, they are returned for every query.
+	 * The covering box of the spatial index ignores these boxes.
+	 */
+	private final RoutingTableEntry[] fullSpaceEntries;
+	
+	/**
+	 * The spatial index
+	 */
+	private final RTreeBuilder spatialIndex;
+	
+	/**
+	 * All systems of the table (index = system number of the entries)
+	 */
+	private final BBoxDBInstance[] systems;
+	
+	private RoutingTable(final DistributionRegion rootRegion, final long treeVersion, 
+			final List<RoutingTableEntry> entries, final List<RoutingTableEntry> fullSpaceEntries,
+			final List<BBoxDBInstance> systems) {
+		
+		this.rootRegion = rootRegion;
+		this.treeVersion = treeVersion;
+		this.entries = entries.toArray(new RoutingTableEntry[0]);
+		this.fullSpaceEntries = fullSpaceEntries.toArray(new RoutingTableEntry[0]);
+		this.systems = systems.toArray(new BBoxDBInstance[0]);
+		this.spatialIndex = new RTreeBuilder();
+		
+		for(int i = 0; i < this.entries.length; i++) {
+			spatialIndex.insert(new SpatialIndexEntry(this.entries[i].boundingBox, i));
+		}
+	}
+	
+	/**
+	 * Compile the routing table for the given tree
+	 * @param rootRegion
+	 * @return
+	 */
+	public static RoutingTable compile(final DistributionRegion rootRegion) {
+		
+		// Read the version first, a concurrent change leads to a new compilation
+		final long treeVersion = rootRegion.getTreeVersion();
+		
+		final List<RoutingTableEntry> entries = new ArrayList<>();
+		final List<RoutingTableEntry> fullSpaceEntries = new ArrayList<>();
+		final List<BBoxDBInstance> systems = new ArrayList<>();
+		final Map<InetSocketAddress, Integer> systemNumbers = new HashMap<>();
+		
+		for(final DistributionRegion region : rootRegion.getThisAndChildRegions()) {
+			final DistributionRegionState state = region.getState();
+			
+			final boolean readable = DistributionRegionHelper.PREDICATE_REGIONS_FOR_READ.test(state);
+			final boolean writable = DistributionRegionHelper.PREDICATE_REGIONS_FOR_WRITE.test(state);
+			final boolean streamable = DistributionRegionHelper.PREDICATE_REGIONS_FOR_STREAM.test(state);
+			
+			if(! readable && ! writable && ! streamable) {
+				continue;
+			}
+			
+			final List<BBoxDBInstance> regionSystems = region.getSystems();
+			final int[] regionSystemNumbers = new int[regionSystems.size()];
+			
+			for(int i = 0; i < regionSystems.size(); i++) {
+				final BBoxDBInstance system = regionSystems.get(i);
+				
+				regionSystemNumbers[i] = systemNumbers.computeIfAbsent(system.getInetSocketAddress(), a -> {
+					systems.add(system);
+					return systems.size() - 1;
+				});
+			}
+			
+			final RoutingTableEntry entry = new RoutingTableEntry(region.getRegionId(), 
+					region.getConveringBox(), regionSystemNumbers, readable, writable, streamable);
+			
+			if(region.getConveringBox().getDimension() == 0) {
+				fullSpaceEntries.add(entry);
+			} else {
+				entries.add(entry);
+			}
+		}
+		
+		return new RoutingTable(rootRegion, treeVersion, entries, fullSpaceEntries, systems);
+	}
+	
+	/**
+	 * Is the table compiled for the current version of the tree
+	 * @param rootRegion
+	 * @return
+	 */
+	public boolean isUpToDate(final DistributionRegion rootRegion) {
+		return this.rootRegion == rootRegion && treeVersion == rootRegion.getTreeVersion();
+	}
+	
+	/**
+	 * Get the hops for a read operation
+	 * @param boundingBox
+	 * @param readOptions
+	 * @return
+	 */
+	public List<RoutingHop> getHopsForRead(final Hyperrectangle boundingBox, 
+			final EnumSet<DistributionRegionHandlingFlag> readOptions) {
+		
+		return getHops(boundingBox, readOptions, null, null);
+	}
+	
+	/**
+	 * Get the hops for a write operation. The streamable regions (e.g., splitting regions) 
+	 * are included to trigger the continuous queries.
+	 * 
+	 * @param boundingBox
+	 * @param writeOptions
+	 * @param streamOptions
+	 * @return
+	 */
+	public List<RoutingHop> getHopsForWrite(final Hyperrectangle boundingBox, 
+			final EnumSet<DistributionRegionHandlingFlag> writeOptions, 
+			final EnumSet<DistributionRegionHandlingFlag> streamOptions) {
+		
+		return getHops(boundingBox, null, writeOptions, streamOptions);
+	}
+
+	/**
+	 * Get the hops for the bounding box. The options are null for the not requested
+	 * kind of regions.
+	 * 
+	 * @param boundingBox
+	 * @param readOptions
+	 * @param writeOptions
+	 * @param streamOptions
+	 * @return
+	 */
+	private List<RoutingHop> getHops(final Hyperrectangle boundingBox,
+			final EnumSet<DistributionRegionHandlingFlag> readOptions,
+			final EnumSet<DistributionRegionHandlingFlag> writeOptions,
+			final EnumSet<DistributionRegionHandlingFlag> streamOptions) {
+		
+		final RoutingHop[] hops = new RoutingHop[systems.length];
+		
+		for(final RoutingTableEntry entry : fullSpaceEntries) {
+			addEntry(hops, entry, readOptions, writeOptions, streamOptions);
+		}
+		
+		for(final SpatialIndexEntry indexEntry : spatialIndex.getEntriesForRegion(boundingBox)) {
+			addEntry(hops, entries[indexEntry.getValue()], readOptions, writeOptions, streamOptions);
+		}
+		
+		final List<RoutingHop> result = new ArrayList<>();
+		
+		for(final RoutingHop hop : hops) {
+			if(hop != null) {
+				result.add(hop);
+			}
+		}
+		
+		return result;
+	}
+
+	/**
+	 * Add the entry to the hops
+	 * @param hops
+	 * @param entry
+	 * @param readOptions
+	 * @param writeOptions
+	 * @param streamOptions
+	 */
+	private void addEntry(final RoutingHop[] hops, final RoutingTableEntry entry,
+			final EnumSet<DistributionRegionHandlingFlag> readOptions,
+			final EnumSet<DistributionRegionHandlingFlag> writeOptions,
+			final EnumSet<DistributionRegionHandlingFlag> streamOptions) {
+		
+		final EnumSet<DistributionRegionHandlingFlag> options;
+		
+		if(readOptions != null && entry.readable) {
+			options = readOptions;
+		} else if(writeOptions != null && entry.writable) {
+			options = writeOptions;
+		} else if(streamOptions != null && entry.streamable) {
+			options = streamOptions;
+		} else {
+			return;
+		}
+		
+		for(final int systemNumber : entry.systemNumbers) {
+			if(hops[systemNumber] == null) {
+				hops[systemNumber] = new RoutingHop(systems[systemNumber], new HashMap<>());
+			}
+			
+			hops[systemNumber].addRegion(entry.regionId, options);
+		}
+	}
+	
+	/**
+	 * Get the version of the tree
+	 * @return
+	 */
+	public long getTreeVersion() {
+		return treeVersion;
+	}
+	
+	/**
+	 * Get the amount of regions in the table
+	 * @return
+	 */
+	public int getNumberOfRegions() {
+		return entries.length + fullSpaceEntries.length;
+	}
+
+	/**
+	 * A region of the routing table
+	 */
+	private static class RoutingTableEntry {
+		
+		/**
+		 * The id of the region
+		 */
+		private final long regionId;
+		
+		/**
+		 * The bounding box of the region
+		 */
+		private final Hyperrectangle boundingBox;
+		
+		/**
+		 * The systems of the region
+		 */
+		private final int[] systemNumbers;
+		
+		/**
+		 * Is the region readable, writable or streamable
+		 */
+		private final boolean readable;
+		private final boolean writable;
+		private final boolean streamable;
+
+		public RoutingTableEntry(final long regionId, final Hyperrectangle boundingBox, 
+				final int[] systemNumbers, final boolean readable, final boolean writable, 
+				final boolean streamable) {
+			
+			this.regionId = regionId;
+			this.boundingBox = boundingBox;
+			this.systemNumbers = systemNumbers;
+			this.readable = readable;
+			this.writable = writable;
+			this.streamable = streamable;
+		}
+	}
+}
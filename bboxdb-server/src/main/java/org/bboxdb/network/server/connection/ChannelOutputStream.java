@@ -0,0 +1,330 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.server.connection;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+public class ChannelOutputStream extends OutputStream {
+
+	/**
+	 * The socket channel
+	 */
+	private final SocketChannel socketChannel;
+
+	/**
+	 * The callback that enables the write interest of the channel
+	 * in the event loop
+	 */
+	private final Runnable writeInterestCallback;
+
+	/**
+	 * The bytes that are not flushed
+	 */
+	private byte[] buffer;
+
+	/**
+	 * The amount of used bytes in the buffer
+	 */
+	private int bufferedBytes;
+
+	/**
+	 * The flushed bytes that could not be written to the channel yet.
+	 * Guarded by the write lock.
+	 */
+	private final Deque<ByteBuffer> pendingWrites;
+
+	/**
+	 * The amount of bytes in the pending writes
+	 */
+	private long pendingBytes;
+
+	/**
+	 * The lock for the pending writes. The lock is shared with the event loop,
+	 * so it is never held while a package is encoded.
+	 */
+	private final Object writeLock = new Object();
+
+	/**
+	 * Is the stream closed
+	 */
+	private volatile boolean closed;
+
+	/**
+	 * The max time a flush waits for the client to read the pending data
+	 */
+	private final long writeTimeoutMillis;
+
+	/**
+	 * The initial buffer size
+	 */
+	private final static int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+	/**
+	 * The amount of buffered bytes that triggers a flush, so unflushed
+	 * writes (e.g., the tuples of a result page) are send in large batches
+	 */
+	private final static int AUTO_FLUSH_SIZE = 64 * 1024;
+
+	/**
+	 * The max size of a buffer that is reused after a flush
+	 */
+	private final static int MAX_RETAINED_BUFFER_SIZE = 2 * AUTO_FLUSH_SIZE;
+
+	/**
+	 * The amount of pending bytes that blocks the writer until the
+	 * client has read the data (backpressure)
+	 */
+	private final static long MAX_PENDING_BYTES = 4 * 1024 * 1024;
+
+	/**
+	 * The default write timeout
+	 */
+	private final static long DEFAULT_WRITE_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(60);
+
+	public ChannelOutputStream(final SocketChannel socketChannel, final Runnable writeInterestCallback) {
+		this(socketChannel, writeInterestCallback, DEFAULT_WRITE_TIMEOUT_MS);
+	}
+
+	public ChannelOutputStream(final SocketChannel socketChannel, final Runnable writeInterestCallback,
+			final long writeTimeoutMillis) {
+
+		this.socketChannel = socketChannel;
+		this.writeInterestCallback = writeInterestCallback;
+		this.writeTimeoutMillis = writeTimeoutMillis;
+		this.buffer = new byte[INITIAL_BUFFER_SIZE];
+		this.bufferedBytes = 0;
+		this.pendingWrites = new ArrayDeque<>();
+		this.pendingBytes = 0;
+		this.closed = false;
+	}
+
+	@Override
+	public synchronized void write(final int b) throws IOException {
+		ensureCapacity(1);
+		buffer[bufferedBytes++] = (byte) b;
+		flushIfNeeded();
+	}
+
+	@Override
+	public synchronized void write(final byte[] b, final int off, final int len) throws IOException {
+		ensureCapacity(len);
+		System.arraycopy(b, off, buffer, bufferedBytes, len);
+		bufferedBytes += len;
+		flushIfNeeded();
+	}
+
+	/**
+	 * Flush the buffer if the auto flush size is reached
+	 * @throws IOException
+	 */
+	private void flushIfNeeded() throws IOException {
+		if(bufferedBytes >= AUTO_FLUSH_SIZE) {
+			flush();
+		}
+	}
+
+	/**
+	 * Ensure that the buffer can take the given amount of bytes
+	 * @param bytes
+	 * @throws IOException
+	 */
+	private void ensureCapacity(final int bytes) throws IOException {
+		if(closed) {
+			throw new IOException("Unable to write, the channel is closed");
+		}
+
+		final int requiredCapacity = bufferedBytes + bytes;
+
+		if(requiredCapacity > buffer.length) {
+			buffer = Arrays.copyOf(buffer, Math.max(requiredCapacity, buffer.length * 2));
+		}
+	}
+
+	/**
+	 * Write the buffered bytes to the channel. The bytes that are not accepted by the
+	 * channel are written by the event loop. The method blocks if too many bytes are
+	 * waiting for the client. When the client does not read the data within the write
+	 * timeout, the stream is closed and the flush fails.
+	 *
+	 * The buffer is written without copying it. When the channel accepts all bytes,
+	 * the buffer is reused. Otherwise, it is handed over to the event loop.
+	 */
+	@Override
+	public synchronized void flush() throws IOException {
+
+		if(bufferedBytes == 0) {
+			return;
+		}
+
+		final ByteBuffer data = ByteBuffer.wrap(buffer, 0, bufferedBytes);
+		bufferedBytes = 0;
+
+		synchronized (writeLock) {
+			if(closed) {
+				throw new IOException("Unable to flush, the channel is closed");
+			}
+
+			// Preserve the order of the data
+			if(pendingWrites.isEmpty()) {
+				while(data.hasRemaining() && socketChannel.write(data) > 0) {
+					// Write until the socket buffer is full
+				}
+			}
+
+			if(! data.hasRemaining()) {
+				if(buffer.length > MAX_RETAINED_BUFFER_SIZE) {
+					buffer = new byte[INITIAL_BUFFER_SIZE];
+				}
+
+				return;
+			}
+
+			// The remaining bytes are owned by the event loop now
+			buffer = new byte[INITIAL_BUFFER_SIZE];
+
+			final boolean enableWriteInterest = pendingWrites.isEmpty();
+			pendingWrites.add(data);
+			pendingBytes += data.remaining();
+
+			if(enableWriteInterest) {
+				writeInterestCallback.run();
+			}
+
+			final long waitPendingBytes = pendingBytes;
+
+			if(! waitForPendingBytes(MAX_PENDING_BYTES, writeTimeoutMillis)) {
+				close();
+				throw new IOException("Client has not read " + waitPendingBytes
+						+ " pending bytes within " + writeTimeoutMillis + " ms, closing stream");
+			}
+
+			if(closed) {
+				throw new IOException("Unable to flush, the channel is closed");
+			}
+		}
+	}
+
+	/**
+	 * Write the pending data to the channel with one gathering write, called by the event loop
+	 * @return true if all pending data is written
+	 * @throws IOException
+	 */
+	public boolean writePendingData() throws IOException {
+		synchronized (writeLock) {
+			try {
+				if(pendingWrites.isEmpty()) {
+					return true;
+				}
+
+				final ByteBuffer[] data = pendingWrites.toArray(new ByteBuffer[pendingWrites.size()]);
+				pendingBytes -= socketChannel.write(data);
+
+				// Remove the completely written buffers
+				while(! pendingWrites.isEmpty() && ! pendingWrites.peek().hasRemaining()) {
+					pendingWrites.poll();
+				}
+
+				return pendingWrites.isEmpty();
+			} finally {
+				writeLock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Wait until all pending data is written
+	 * @param timeoutMillis
+	 * @throws IOException
+	 */
+	public void awaitPendingWrites(final long timeoutMillis) throws IOException {
+		synchronized (writeLock) {
+			waitForPendingBytes(0, timeoutMillis);
+		}
+	}
+
+	/**
+	 * Wait until the amount of pending bytes is below the given limit.
+	 * The caller has to hold the write lock.
+	 *
+	 * @param maxPendingBytes
+	 * @param timeoutMillis - 0 for no timeout
+	 * @return false if the timeout has expired
+	 * @throws IOException
+	 */
+	private boolean waitForPendingBytes(final long maxPendingBytes, final long timeoutMillis)
+			throws IOException {
+
+		final long waitUntil = System.currentTimeMillis() + timeoutMillis;
+
+		while(pendingBytes > maxPendingBytes && ! closed) {
+			final long waitTime = (timeoutMillis == 0) ? 0 : waitUntil - System.currentTimeMillis();
+
+			if(timeoutMillis != 0 && waitTime <= 0) {
+				return false;
+			}
+
+			try {
+				writeLock.wait(waitTime);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while waiting for the client", e);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Get the amount of bytes waiting for the client
+	 * @return
+	 */
+	public long getPendingBytes() {
+		synchronized (writeLock) {
+			return pendingBytes;
+		}
+	}
+
+	/**
+	 * Is the stream closed
+	 * @return
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * Close the stream, pending data is discarded. The channel is closed
+	 * by the connection handler.
+	 */
+	@Override
+	public void close() {
+		synchronized (writeLock) {
+			closed = true;
+			pendingWrites.clear();
+			pendingBytes = 0;
+			writeLock.notifyAll();
+		}
+	}
+}
@@ -17,30 +17,38 @@
  *******************************************************************************/
 package org.bboxdb.network.server.connection;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.Socket;
 import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 import org.bboxdb.commons.CloseableHelper;
 import org.bboxdb.commons.concurrent.ExceptionSafeRunnable;
-import org.bboxdb.commons.concurrent.ExecutorUtil;
 import org.bboxdb.commons.service.ServiceState;
 import org.bboxdb.misc.Const;
 import org.bboxdb.network.NetworkConst;
 import org.bboxdb.network.NetworkPackageDecoder;
+import org.bboxdb.network.PackageAllocationTracker;
+import org.bboxdb.network.ProtocolVersionHelper;
 import org.bboxdb.network.capabilities.PeerCapabilities;
+import org.bboxdb.network.compression.AdaptiveCompressionPolicy;
 import org.bboxdb.network.packages.NetworkResponsePackage;
 import org.bboxdb.network.packages.PackageEncodeException;
+import org.bboxdb.network.packages.request.HelloRequest;
 import org.bboxdb.network.packages.response.CompressionEnvelopeResponse;
 import org.bboxdb.network.packages.response.ErrorResponse;
 import org.bboxdb.network.packages.response.MultiTupleResponse;
@@ -54,6 +62,7 @@ import org.bboxdb.network.server.connection.handler.query.HandleContinuousQuery;
 import org.bboxdb.network.server.connection.handler.query.HandleInsertTimeQuery;
 import org.bboxdb.network.server.connection.handler.query.HandleJoinQuery;
 import org.bboxdb.network.server.connection.handler.query.HandleKeyQuery;
+import org.bboxdb.network.server.connection.handler.query.HandleMultiKeyQuery;
 import org.bboxdb.network.server.connection.handler.query.HandleVersionTimeQuery;
 import org.bboxdb.network.server.connection.handler.query.QueryHandler;
 import org.bboxdb.network.server.connection.handler.request.CancelRequestHandler;
@@ -66,6 +75,7 @@ import org.bboxdb.network.server.connection.handler.request.DeleteTableHandler;
 import org.bboxdb.network.server.connection.handler.request.DisconnectHandler;
 import org.bboxdb.network.server.connection.handler.request.HandshakeHandler;
 import org.bboxdb.network.server.connection.handler.request.InsertTupleHandler;
+import org.bboxdb.network.server.connection.handler.request.InsertTuplesHandler;
 import org.bboxdb.network.server.connection.handler.request.KeepAliveHandler;
 import org.bboxdb.network.server.connection.handler.request.LockTupleHandler;
 import org.bboxdb.network.server.connection.handler.request.NextPageHandler;
@@ -74,6 +84,7 @@ import org.bboxdb.network.server.connection.lock.LockHelper;
 import org.bboxdb.network.server.connection.lock.LockManager;
 import org.bboxdb.network.server.query.ClientQuery;
 import org.bboxdb.network.server.query.ErrorMessages;
+import org.bboxdb.network.server.query.continuous.ContinuousClientQuery;
 import org.bboxdb.storage.entity.MultiTuple;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
 import org.slf4j.Logger;
@@ -90,15 +101,70 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 	 */
 	public final Socket clientSocket;
 
+	/**
+	 * The channel of the client socket
+	 */
+	private final SocketChannel socketChannel;
+
+	/**
+	 * The event loop that performs the IO of the connection
+	 */
+	private final NetworkEventLoop eventLoop;
+
+	/**
+	 * The selection key of the channel, set by the event loop
+	 */
+	private volatile SelectionKey selectionKey;
+
 	/**
 	 * The output stream of the socket
 	 */
-	private BufferedOutputStream outputStream;
+	private final ChannelOutputStream outputStream;
+
+	/**
+	 * The read buffer, only accessed by the event loop
+	 */
+	private ByteBuffer readBuffer;
 
 	/**
-	 * The input stream of the socket
+	 * The decoded packages that are waiting to be handled
 	 */
-	private InputStream inputStream;
+	private final Queue<ByteBuffer> pendingPackages;
+
+	/**
+	 * The number of decoded packages that are waiting to be handled
+	 */
+	private final AtomicInteger pendingPackagesCounter;
+
+	/**
+	 * Is reading suspended because too many packages are waiting
+	 */
+	private volatile boolean readSuspended;
+
+	/**
+	 * Is the input of the connection closed
+	 */
+	private volatile boolean inputClosed;
+
+	/**
+	 * Is the handling of the pending packages scheduled
+	 */
+	private final AtomicBoolean processingScheduled;
+
+	/**
+	 * Is the maintenance of the connection scheduled
+	 */
+	private final AtomicBoolean maintenanceScheduled;
+
+	/**
+	 * Is the connection finishing
+	 */
+	private final AtomicBoolean connectionFinishing;
+
+	/**
+	 * The thread pool that handles the packages of the connections
+	 */
+	private final ExecutorService connectionThreadPool;
 
 	/**
 	 * The connection state
@@ -110,31 +176,76 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 	 */
 	private PeerCapabilities connectionCapabilities = new PeerCapabilities();
 
+	/**
+	 * The protocol version of the received packages. Changed by the event loop
+	 * when the handshake package is read.
+	 */
+	private volatile int inputProtocolVersion = NetworkConst.PROTOCOL_VERSION_1;
+
+	/**
+	 * The protocol version of the written packages. Changed after the
+	 * handshake response is written.
+	 */
+	private volatile int outputProtocolVersion = NetworkConst.PROTOCOL_VERSION_1;
+
 	/**
 	 * The open query iterators, i.e., the queries that are not finished and waiting
 	 * to send the next page
 	 */
-	private final Map<Short, ClientQuery> activeQueries;
+	private final Map<Integer, ClientQuery> activeQueries;
 
 	/**
-	 * The thread pool
+	 * The thread pool for queries, shared by all connections
 	 */
 	private final ExecutorService threadPool;
 
+	/**
+	 * The thread pool for the pages of continuous queries, shared by all connections. 
+	 * A page waits for new tuples, so these queries need to be isolated from the 
+	 * other queries.
+	 */
+	private final ExecutorService continuousQueryThreadPool;
+
 	/**
 	 * The package router
 	 */
 	private final PackageRouter packageRouter;
 
+	/**
+	 * The compression policy of the connection
+	 */
+	private final AdaptiveCompressionPolicy compressionPolicy;
+
 	/**
 	 * The pending packages for compression
 	 */
 	private final List<NetworkResponsePackage> pendingCompressionPackages;
 
 	/**
-	 * Number of pending requests
+	 * Number of pending packages, reading is suspended above this limit
 	 */
-	private final static int MAX_PENDING_REQUESTS = 1024;
+	private final static int MAX_PENDING_PACKAGES = 1024;
+
+	/**
+	 * Number of packages that are handled before the worker thread
+	 * is released to other connections
+	 */
+	private final static int MAX_PACKAGES_PER_RUN = 64;
+
+	/**
+	 * The default size of the read buffer
+	 */
+	private final static int READ_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The length of the fixed part of the routing header (without the routing list)
+	 */
+	private final static int FIXED_ROUTING_HEADER_LENGTH = 6;
+
+	/**
+	 * The time to wait for the client reading the last responses on close
+	 */
+	private final static long CLOSE_TIMEOUT_MS = 5000;
 
 	/**
 	 * Number of maximal running queries
@@ -151,11 +262,6 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 	 */
 	private Map<Byte, QueryHandler> queryHandlerList;
 
-	/**
-	 * The connection maintenance thread
-	 */
-	private ConnectionMaintenanceRunnable maintenanceThread;
-
 	/**
 	 * The storage reference
 	 */
@@ -206,11 +312,16 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 
 
 	public ClientConnectionHandler(final TupleStoreManagerRegistry storageRegistry,
-			final Socket clientSocket, final LockManager lockManager, 
-			final ClientConnectionRegistry clientConnectionRegistry) {
+			final SocketChannel socketChannel, final NetworkEventLoop eventLoop,
+			final ExecutorService connectionThreadPool, final ExecutorService threadPool,
+			final ExecutorService continuousQueryThreadPool, final ExecutorService routingThreadPool,
+			final LockManager lockManager, final ClientConnectionRegistry clientConnectionRegistry) {
 
 		// Client socket
-		this.clientSocket = clientSocket;
+		this.socketChannel = socketChannel;
+		this.clientSocket = socketChannel.socket();
+		this.eventLoop = eventLoop;
+		this.connectionThreadPool = connectionThreadPool;
 
 		// The storage reference
 		this.storageRegistry = storageRegistry;
@@ -228,38 +339,361 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 
 		serviceState.dipatchToStarting();
 		clientConnectionRegistry.registerClientConnection(this);
-		
-		try {
-			this.outputStream = new BufferedOutputStream(clientSocket.getOutputStream());
-			this.inputStream = new BufferedInputStream(clientSocket.getInputStream());
-		} catch (IOException e) {
-			this.inputStream = null;
-			this.outputStream = null;
-			serviceState.dispatchToFailed(e);
-			logger.error("Exception while creating IO stream", e);
-		}
+
+		this.outputStream = new ChannelOutputStream(socketChannel, () -> enableWriteInterest());
+		this.readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+		this.pendingPackages = new ConcurrentLinkedQueue<>();
+		this.pendingPackagesCounter = new AtomicInteger(0);
+		this.readSuspended = false;
+		this.inputClosed = false;
+		this.processingScheduled = new AtomicBoolean(false);
+		this.maintenanceScheduled = new AtomicBoolean(false);
+		this.connectionFinishing = new AtomicBoolean(false);
 
 		// The active queries
 		this.activeQueries = new ConcurrentHashMap<>();
 
-		// Create a thread pool that blocks after submitting more than MAX_PENDING_REQUESTS
-		this.threadPool = ExecutorUtil.getBoundThreadPoolExecutor(25, MAX_PENDING_REQUESTS);
+		// The shared thread pool, blocks the caller after submitting too many requests
+		this.threadPool = threadPool;
+		this.continuousQueryThreadPool = continuousQueryThreadPool;
 
-		// The package router
-		this.packageRouter = new PackageRouter(threadPool, this);
+		// The package router, the routing results are written by the routing pool
+		this.packageRouter = new PackageRouter(routingThreadPool, this);
 
 		// The pending packages for compression
 		this.pendingCompressionPackages = new ArrayList<>();
-		this.maintenanceThread = new ConnectionMaintenanceRunnable(this);
-
-		final Thread thread = new Thread(maintenanceThread);
-		thread.start();
+		this.compressionPolicy = new AdaptiveCompressionPolicy();
 
 		// Init the request handler map
 		initRequestHandlerMap();
 
 		// Init the query handler map
 		initQueryHandlerMap();
+
+		// Start reading from the channel
+		eventLoop.registerConnection(socketChannel, this);
+	}
+
+	/**
+	 * Set the selection key of the channel, called by the event loop
+	 * @param selectionKey
+	 */
+	protected void setSelectionKey(final SelectionKey selectionKey) {
+		this.selectionKey = selectionKey;
+	}
+
+	/**
+	 * Read the available data from the channel and decode the packages,
+	 * called by the event loop
+	 */
+	protected void handleReadable() {
+		try {
+			final int readBytes = socketChannel.read(readBuffer);
+
+			if(readBytes < 0) {
+				handleInputClosed();
+				return;
+			}
+
+			decodePackages();
+		} catch (IOException | PackageEncodeException e) {
+			logger.debug("Got exception while reading from {}", getConnectionName(), e);
+			handleInputClosed();
+			return;
+		}
+
+		if(pendingPackagesCounter.get() >= MAX_PENDING_PACKAGES) {
+			selectionKey.interestOps(selectionKey.interestOps() & ~SelectionKey.OP_READ);
+			readSuspended = true;
+
+			// The packages could be handled in the meantime
+			if(pendingPackagesCounter.get() < MAX_PENDING_PACKAGES / 2) {
+				resumeReading();
+			}
+		}
+
+		scheduleProcessing();
+	}
+
+	/**
+	 * Write the pending data to the channel, called by the event loop
+	 */
+	protected void handleWritable() {
+		try {
+			if(outputStream.writePendingData()) {
+				selectionKey.interestOps(selectionKey.interestOps() & ~SelectionKey.OP_WRITE);
+			}
+		} catch (IOException e) {
+			logger.debug("Got exception while writing to {}", getConnectionName(), e);
+			outputStream.close();
+			handleInputClosed();
+		}
+	}
+
+	/**
+	 * The input of the connection is closed (or the event loop is shutting down),
+	 * the connection is closed after the pending packages are handled
+	 */
+	protected void handleInputClosed() {
+		inputClosed = true;
+
+		final SelectionKey key = selectionKey;
+
+		if(key != null && key.isValid()) {
+			key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+		}
+
+		scheduleProcessing();
+	}
+
+	/**
+	 * Enable the write interest of the channel in the event loop
+	 */
+	private void enableWriteInterest() {
+		eventLoop.execute(() -> {
+			final SelectionKey key = selectionKey;
+
+			if(key != null && key.isValid()) {
+				key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+			}
+		});
+	}
+
+	/**
+	 * Resume reading from the channel, called by the event loop
+	 */
+	private void resumeReading() {
+		if(! readSuspended || inputClosed) {
+			return;
+		}
+
+		readSuspended = false;
+
+		final SelectionKey key = selectionKey;
+
+		if(key != null && key.isValid()) {
+			key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+		}
+	}
+
+	/**
+	 * Decode all complete packages of the read buffer
+	 * @throws PackageEncodeException
+	 */
+	private void decodePackages() throws PackageEncodeException {
+		int requiredCapacity = 0;
+
+		readBuffer.flip();
+
+		try {
+			while(true) {
+				final int packageHeaderLength = ProtocolVersionHelper.getHeaderLength(inputProtocolVersion);
+				final int headerLength = getHeaderLength(readBuffer, packageHeaderLength);
+
+				if(headerLength < 0) {
+					break;
+				}
+
+				final int packageLength = getPackageLength(readBuffer, packageHeaderLength, headerLength);
+
+				if(readBuffer.remaining() < packageLength) {
+					requiredCapacity = packageLength;
+					break;
+				}
+
+				final byte[] packageBytes = new byte[packageLength];
+				readBuffer.get(packageBytes);
+				readBytesCounter.inc(packageLength);
+
+				final ByteBuffer encodedPackage = convertToCurrentProtocolVersion(packageBytes);
+				handleProtocolVersionChange(encodedPackage);
+
+				// The handlers expect the buffer positioned after the header
+				encodedPackage.position(headerLength + encodedPackage.limit() - packageLength);
+
+				pendingPackages.add(encodedPackage);
+				pendingPackagesCounter.incrementAndGet();
+			}
+		} finally {
+			readBuffer.compact();
+		}
+
+		if(requiredCapacity > readBuffer.capacity()) {
+			final ByteBuffer newReadBuffer = ByteBuffer.allocate(requiredCapacity);
+			readBuffer.flip();
+			newReadBuffer.put(readBuffer);
+			readBuffer = newReadBuffer;
+		} else if(readBuffer.position() == 0 && readBuffer.capacity() > READ_BUFFER_SIZE) {
+			readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+		}
+	}
+
+	/**
+	 * Convert the package into the format of the current protocol version
+	 * @param packageBytes
+	 * @return
+	 */
+	private ByteBuffer convertToCurrentProtocolVersion(final byte[] packageBytes) {
+		if(ProtocolVersionHelper.hasWideSequenceNumbers(inputProtocolVersion)) {
+			return ByteBuffer.wrap(packageBytes);
+		}
+
+		return ByteBuffer.wrap(ProtocolVersionHelper.convertFromProtocolVersion1(packageBytes));
+	}
+
+	/**
+	 * The packages after the handshake package are encoded with the negotiated
+	 * protocol version. The version is changed when the package is read, so the
+	 * following packages are read with the new version.
+	 *
+	 * @param encodedPackage
+	 * @throws PackageEncodeException
+	 */
+	private void handleProtocolVersionChange(final ByteBuffer encodedPackage) throws PackageEncodeException {
+		final short packageType = NetworkPackageDecoder.getPackageTypeFromRequest(encodedPackage);
+
+		if(packageType != NetworkConst.REQUEST_TYPE_HELLO) {
+			return;
+		}
+
+		final HelloRequest helloRequest = HelloRequest.decodeRequest(encodedPackage.duplicate());
+		inputProtocolVersion = ProtocolVersionHelper.negotiateProtocolVersion(helloRequest.getProtocolVersion());
+	}
+
+	/**
+	 * Get the header length of the package at the position of the buffer
+	 * @param buffer
+	 * @param packageHeaderLength
+	 * @return the header length or -1 if the header is incomplete
+	 * @throws PackageEncodeException
+	 */
+	private static int getHeaderLength(final ByteBuffer buffer, final int packageHeaderLength)
+			throws PackageEncodeException {
+
+		final int fixedHeaderLength = packageHeaderLength + FIXED_ROUTING_HEADER_LENGTH;
+
+		if(buffer.remaining() < fixedHeaderLength) {
+			return -1;
+		}
+
+		final int position = buffer.position();
+		final byte routingType = buffer.get(position + packageHeaderLength);
+
+		if(routingType == RoutingHeader.DIRECT_PACKAGE) {
+			return fixedHeaderLength;
+		}
+
+		if(routingType != RoutingHeader.ROUTED_PACKAGE) {
+			throw new PackageEncodeException("Invalid package routing type, unable to decode package "
+					+ "header: " + routingType);
+		}
+
+		final short routingListLength = buffer.getShort(position + packageHeaderLength + 4);
+
+		if(routingListLength < 0) {
+			throw new PackageEncodeException("Invalid routing list length: " + routingListLength);
+		}
+
+		return fixedHeaderLength + routingListLength;
+	}
+
+	/**
+	 * Get the total length of the package at the position of the buffer
+	 * @param buffer
+	 * @param packageHeaderLength
+	 * @param headerLength
+	 * @return
+	 * @throws PackageEncodeException
+	 */
+	private static int getPackageLength(final ByteBuffer buffer, final int packageHeaderLength,
+			final int headerLength) throws PackageEncodeException {
+
+		// The body length is the last field of the package header
+		final long bodyLength = buffer.getLong(buffer.position() + packageHeaderLength - 8);
+
+		if(bodyLength < 0 || bodyLength + headerLength > Integer.MAX_VALUE) {
+			throw new PackageEncodeException("Invalid body length: " + bodyLength);
+		}
+
+		return (int) (headerLength + bodyLength);
+	}
+
+	/**
+	 * Schedule the handling of the pending packages on the connection thread pool.
+	 * The packages of a connection are handled by one thread at a time.
+	 */
+	private void scheduleProcessing() {
+		if(! processingScheduled.compareAndSet(false, true)) {
+			return;
+		}
+
+		try {
+			connectionThreadPool.execute(this);
+		} catch(RejectedExecutionException e) {
+			processingScheduled.set(false);
+			logger.debug("Thread pool is shutting down, unable to handle packages of {}",
+					getConnectionName());
+		}
+	}
+
+	/**
+	 * Is a further run of the handler required
+	 * @return
+	 */
+	private boolean isProcessingRequired() {
+		if(connectionFinishing.get() || serviceState.isInFinishedState()) {
+			return false;
+		}
+
+		return ! pendingPackages.isEmpty() || inputClosed || ! isConnectionActive();
+	}
+
+	/**
+	 * Is the connection in starting or running state
+	 * @return
+	 */
+	private boolean isConnectionActive() {
+		return serviceState.isInRunningState() || serviceState.isInStartingState();
+	}
+
+	/**
+	 * Schedule the maintenance of the connection, called by the
+	 * maintenance thread
+	 */
+	public void scheduleMaintenance() {
+		if(! isConnectionActive()) {
+			return;
+		}
+
+		if(! maintenanceScheduled.compareAndSet(false, true)) {
+			return;
+		}
+
+		try {
+			connectionThreadPool.execute(() -> {
+				try {
+					performMaintenance();
+				} catch(Throwable e) {
+					logger.error("Got exception during maintenance of " + getConnectionName(), e);
+				} finally {
+					maintenanceScheduled.set(false);
+				}
+			});
+		} catch(RejectedExecutionException e) {
+			maintenanceScheduled.set(false);
+		}
+	}
+
+	/**
+	 * Perform the maintenance tasks of the queries and write the
+	 * pending compression packages
+	 */
+	private void performMaintenance() {
+		for(final ClientQuery query : activeQueries.values()) {
+			query.maintenanceCallback();
+		}
+
+		flushPendingCompressionPackages();
 	}
 
 	/**
@@ -269,8 +703,10 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 	 * @throws PackageEncodeException
 	 */
 	private ByteBuffer readNextPackageHeader(final InputStream inputStream) throws IOException, PackageEncodeException {
-		final ByteBuffer bb = ByteBuffer.allocate(12);
-		ByteStreams.readFully(inputStream, bb.array(), 0, bb.limit());
+		final byte[] packageHeader = new byte[ProtocolVersionHelper.getHeaderLength(inputProtocolVersion)];
+		ByteStreams.readFully(inputStream, packageHeader, 0, packageHeader.length);
+
+		final ByteBuffer bb = convertToCurrentProtocolVersion(packageHeader);
 
 		final RoutingHeader routingHeader = RoutingHeaderParser.decodeRoutingHeader(inputStream);
 		final byte[] routingHeaderBytes = RoutingHeaderParser.encodeHeader(routingHeader);
@@ -306,7 +742,8 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 			}
 
 			final NetworkResponsePackage compressionEnvelopeRequest
-				= new CompressionEnvelopeResponse(NetworkConst.COMPRESSION_TYPE_GZIP, packagesToWrite);
+				= new CompressionEnvelopeResponse(connectionCapabilities.getCompressionType(), 
+						packagesToWrite, compressionPolicy);
 
 			try {
 				writePackageToSocket(compressionEnvelopeRequest);
@@ -326,7 +763,7 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 	public synchronized void writeResultPackage(final NetworkResponsePackage responsePackage)
 			throws IOException, PackageEncodeException {
 
-		if(connectionCapabilities.hasGZipCompression()) {
+		if(connectionCapabilities.hasCompression()) {
 			boolean uncompressedQueueFull = false;
 
 			synchronized (pendingCompressionPackages) {
@@ -365,20 +802,96 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 	private void writePackageToSocket(final NetworkResponsePackage responsePackage)
 			throws IOException, PackageEncodeException {
 
+		writePackageToSocket(responsePackage, true);
+	}
+
+	/**
+	 * Write a network package uncompressed
+	 * @param responsePackage
+	 * @param flush - flush the package to the socket
+	 * @throws IOException
+	 * @throws PackageEncodeException
+	 */
+	private void writePackageToSocket(final NetworkResponsePackage responsePackage, final boolean flush)
+			throws IOException, PackageEncodeException {
+
 		synchronized (outputStream) {
-			final long writtenBytes = responsePackage.writeToOutputStream(outputStream);
+			final long allocatedBytes = PackageAllocationTracker.getAllocatedBytes();
+			final long writtenBytes = responsePackage.writeToOutputStream(outputStream, outputProtocolVersion);
+			PackageAllocationTracker.recordAllocations(responsePackage, allocatedBytes);
 			writtenBytesCounter.inc(writtenBytes);
+
+			if(flush) {
+				flushOutputStream();
+			}
+		}
+	}
+
+	/**
+	 * Flush the output stream. The connection is closed when the stream
+	 * is closed during the flush (e.g., the client does not read the data).
+	 * @throws IOException
+	 */
+	private void flushOutputStream() throws IOException {
+		try {
 			outputStream.flush();
+		} catch(IOException e) {
+			if(outputStream.isClosed()) {
+				eventLoop.execute(() -> handleInputClosed());
+			}
+
+			throw e;
 		}
 	}
 
+	/**
+	 * Handle the pending packages of the connection
+	 */
 	@Override
 	public void runThread() {
 		try {
-			logger.debug("Handling new connection from: {}", clientSocket.getInetAddress());
+			handlePendingPackages();
+		} finally {
+			processingScheduled.set(false);
+
+			// New packages could be arrived after the last check
+			if(isProcessingRequired()) {
+				scheduleProcessing();
+			}
+		}
+	}
+
+	/**
+	 * Handle the pending packages in the order of arrival
+	 */
+	private void handlePendingPackages() {
+		try {
+			for(int i = 0; i < MAX_PACKAGES_PER_RUN && isConnectionActive(); i++) {
+				final ByteBuffer encodedPackage = pendingPackages.poll();
+
+				if(encodedPackage == null) {
+					break;
+				}
+
+				handleDecodedPackage(encodedPackage);
+
+				final int pendingPackagesNumber = pendingPackagesCounter.decrementAndGet();
+
+				if(readSuspended && pendingPackagesNumber < MAX_PENDING_PACKAGES / 2) {
+					eventLoop.execute(() -> resumeReading());
+				}
+			}
+
+			if(isConnectionActive()) {
+				if(inputClosed && pendingPackages.isEmpty()) {
+					throw new IOException("Input of the connection is closed");
+				}
+
+				return;
+			}
 
-			while(serviceState.isInRunningState() || serviceState.isInStartingState()) {
-				handleNextPackage(inputStream);
+			if(! connectionFinishing.compareAndSet(false, true)) {
+				return;
 			}
 
 			// Flush all pending results to client
@@ -400,15 +913,18 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 						clientSocket.getInetAddress(), getConnectionState());
 
 				logger.debug("Socket exception", e);
-				
+
 				serviceState.dispatchToStopping();
 				serviceState.dispatchToTerminated();
+			} else if(serviceState.isInStartingState()) {
+				// Connection is closed before the handshake is finished
+				serviceState.forceDispatchToTerminated();
 			}
 		} catch(Throwable e) {
 			if(serviceState.isInRunningState()) {
-				logger.error("Got exception in connection handler for {}", 
+				logger.error("Got exception in connection handler for {}",
 						clientSocket.getInetAddress(), e);
-				
+
 				serviceState.dispatchToFailed(e);
 			}
 		}
@@ -419,14 +935,27 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 	 */
 	private void close() {
 		clientConnectionRegistry.deregisterClientConnection(this);
-		
-		getThreadPool().shutdown();
 
 		// Close active query iterators
 		activeQueries.values().forEach(i -> i.close());
 		activeQueries.clear();
 
-		CloseableHelper.closeWithoutException(clientSocket);
+		// Give the client the chance to read the last responses (e.g., the disconnect response)
+		if(! eventLoop.isInEventLoop() && eventLoop.isActive()) {
+			try {
+				outputStream.awaitPendingWrites(CLOSE_TIMEOUT_MS);
+			} catch (IOException e) {
+				logger.debug("Got exception while waiting for pending writes", e);
+			}
+		}
+
+		outputStream.close();
+		pendingPackages.clear();
+
+		CloseableHelper.closeWithoutException(socketChannel);
+
+		// Let the selector process the closed channel
+		eventLoop.wakeup();
 	}
 
 	/**
@@ -458,29 +987,62 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 	}
 
 	/**
-	 * Handle the next request package
+	 * Handle the next request package of the input stream (e.g., the
+	 * content of a compression envelope)
 	 * @throws IOException
 	 * @throws PackageEncodeException
 	 */
 	public void handleNextPackage(final InputStream inputStream) throws IOException, PackageEncodeException {
 		readPackagesTotal.inc();
-		
+
 		final ByteBuffer packageHeader = readNextPackageHeader(inputStream);
 
-		final short packageSequence = NetworkPackageDecoder.getRequestIDFromRequestPackage(packageHeader);
+		final int packageSequence = NetworkPackageDecoder.getRequestIDFromRequestPackage(packageHeader);
 		final short packageType = NetworkPackageDecoder.getPackageTypeFromRequest(packageHeader);
 
-		if(serviceState.isInStartingState()) {
-			if(packageType != NetworkConst.REQUEST_TYPE_HELLO) {
-				final String errorMessage = "Connection is in handshake state but got package: " + packageType;
-				logger.error(errorMessage);
-				serviceState.dispatchToFailed(new IllegalStateException(errorMessage));
-				return;
-			}
+		if(! isHandshakeValid(packageType)) {
+			return;
 		}
 
 		final ByteBuffer encodedPackage = readFullPackage(packageHeader, inputStream);
 
+		handlePackage(encodedPackage, packageSequence, packageType);
+	}
+
+	/**
+	 * Handle a package that was decoded by the event loop
+	 * @param encodedPackage
+	 * @throws IOException
+	 * @throws PackageEncodeException
+	 */
+	private void handleDecodedPackage(final ByteBuffer encodedPackage)
+			throws IOException, PackageEncodeException {
+
+		readPackagesTotal.inc();
+
+		final int headerLength = encodedPackage.position();
+		final int packageSequence = NetworkPackageDecoder.getRequestIDFromRequestPackage(encodedPackage);
+		final short packageType = NetworkPackageDecoder.getPackageTypeFromRequest(encodedPackage);
+		encodedPackage.position(headerLength);
+
+		if(! isHandshakeValid(packageType)) {
+			return;
+		}
+
+		handlePackage(encodedPackage, packageSequence, packageType);
+	}
+
+	/**
+	 * Handle the package and stop the connection if requested by the handler
+	 * @param encodedPackage
+	 * @param packageSequence
+	 * @param packageType
+	 * @throws IOException
+	 * @throws PackageEncodeException
+	 */
+	private void handlePackage(final ByteBuffer encodedPackage, final int packageSequence,
+			final short packageType) throws IOException, PackageEncodeException {
+
 		final boolean readFurtherPackages = handleBufferedPackage(encodedPackage, packageSequence, packageType);
 
 		if(readFurtherPackages == false) {
@@ -488,6 +1050,24 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 		}
 	}
 
+	/**
+	 * Only the hello package is accepted until the handshake is done
+	 * @param packageType
+	 * @return
+	 */
+	private boolean isHandshakeValid(final short packageType) {
+		if(serviceState.isInStartingState()) {
+			if(packageType != NetworkConst.REQUEST_TYPE_HELLO) {
+				final String errorMessage = "Connection is in handshake state but got package: " + packageType;
+				logger.error(errorMessage);
+				serviceState.dispatchToFailed(new IllegalStateException(errorMessage));
+				return false;
+			}
+		}
+
+		return true;
+	}
+
 	/**
 	 * Send a new result tuple to the client
 	 * @param packageSequence
@@ -496,23 +1076,45 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 	 * @throws PackageEncodeException
 	 * @throws IOException
 	 */
-	public void writeResultTuple(final short packageSequence, final MultiTuple joinedTuple,
+	public void writeResultTuple(final int packageSequence, final MultiTuple joinedTuple,
 			final boolean forceJoinedTupleResult) throws IOException, PackageEncodeException {
 
-		if(joinedTuple.getNumberOfTuples() > 1 || forceJoinedTupleResult) {
-			final MultiTupleResponse responsePackage = new MultiTupleResponse(
-					packageSequence, joinedTuple);
+		writeResultTuple(packageSequence, joinedTuple, forceJoinedTupleResult, true);
+	}
 
-			writeResultPackage(responsePackage);
+	/**
+	 * Send a new result tuple to the client. Without a flush, the tuple is written
+	 * into the buffer of the connection and send together with the next flushed package
+	 * (e.g., the page end package) or when the buffer is full. So, the tuples of a result
+	 * page are written to the socket in a few large writes.
+	 *
+	 * @param packageSequence
+	 * @param joinedTuple
+	 * @param forceJoinedTupleResult
+	 * @param flush
+	 * @throws IOException
+	 * @throws PackageEncodeException
+	 */
+	public synchronized void writeResultTuple(final int packageSequence, final MultiTuple joinedTuple,
+			final boolean forceJoinedTupleResult, final boolean flush) throws IOException, PackageEncodeException {
+
+		final NetworkResponsePackage responsePackage;
+
+		if(joinedTuple.getNumberOfTuples() > 1 || forceJoinedTupleResult) {
+			responsePackage = new MultiTupleResponse(packageSequence, joinedTuple);
 		} else {
-			final TupleResponse responsePackage = new TupleResponse(
+			responsePackage = new TupleResponse(
 					packageSequence,
 					joinedTuple.getTupleStoreName(0),
 					joinedTuple.getTuple(0));
+		}
 
+		// Compressed packages are batched and flushed by the compression envelope
+		if(flush || connectionCapabilities.hasCompression()) {
 			writeResultPackage(responsePackage);
+		} else {
+			writePackageToSocket(responsePackage, false);
 		}
-
 	}
 
 	/**
@@ -523,7 +1125,7 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 	 * @throws PackageEncodeException
 	 * @throws IOException
 	 */
-	private boolean handleQuery(final ByteBuffer encodedPackage, final short packageSequence)
+	private boolean handleQuery(final ByteBuffer encodedPackage, final int packageSequence)
 			throws IOException, PackageEncodeException {
 
 		final byte queryType = NetworkPackageDecoder.getQueryTypeFromRequest(encodedPackage);
@@ -562,7 +1164,7 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 	 * @throws PackageEncodeException
 	 */
 	private boolean handleBufferedPackage(final ByteBuffer encodedPackage,
-			final short packageSequence,
+			final int packageSequence,
 			final short packageType) throws PackageEncodeException, IOException {
 
 		// Handle the different query types
@@ -604,6 +1206,7 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 		requestHandlers.put(NetworkConst.REQUEST_TYPE_CREATE_TABLE, new CreateTableHandler());
 		requestHandlers.put(NetworkConst.REQUEST_TYPE_DELETE_TABLE, new DeleteTableHandler());
 		requestHandlers.put(NetworkConst.REQUEST_TYPE_INSERT_TUPLE, new InsertTupleHandler());
+		requestHandlers.put(NetworkConst.REQUEST_TYPE_INSERT_TUPLES, new InsertTuplesHandler());
 		requestHandlers.put(NetworkConst.REQUEST_TYPE_CREATE_DISTRIBUTION_GROUP, new CreateDistributionGroupHandler());
 		requestHandlers.put(NetworkConst.REQUEST_TYPE_DELETE_DISTRIBUTION_GROUP, new DeleteDistributionGroupHandler());
 		requestHandlers.put(NetworkConst.REQUEST_TYPE_KEEP_ALIVE, new KeepAliveHandler());
@@ -625,6 +1228,7 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 		queryHandlerList.put(NetworkConst.REQUEST_QUERY_BBOX_AND_TIME, new HandleBoundingBoxTimeQuery());
 		queryHandlerList.put(NetworkConst.REQUEST_QUERY_CONTINUOUS_BBOX, new HandleContinuousQuery());
 		queryHandlerList.put(NetworkConst.REQUEST_QUERY_JOIN, new HandleJoinQuery());
+		queryHandlerList.put(NetworkConst.REQUEST_QUERY_MULTI_KEY, new HandleMultiKeyQuery());
 	}
 
 	/**
@@ -634,7 +1238,7 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 	 * @throws PackageEncodeException
 	 * @throws IOException
 	 */
-	public void sendNextResultsForQuery(final short packageSequence, final short querySequence)
+	public void sendNextResultsForQuery(final int packageSequence, final int querySequence)
 			throws IOException, PackageEncodeException {
 
 		if(! activeQueries.containsKey(querySequence)) {
@@ -675,12 +1279,16 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 			}
 		};
 
+		// The pages of continuous queries wait for new tuples and are executed by their own pool
+		final ExecutorService queryThreadPool = (activeQueries.get(querySequence) instanceof ContinuousClientQuery) 
+				? continuousQueryThreadPool : threadPool;
+
 		// Submit the runnable to our pool
-		if(threadPool.isShutdown()) {
+		if(queryThreadPool.isShutdown()) {
 			logger.warn("Thread pool is shutting down, don't execute query: {}", querySequence);
 			writeResultPackage(new ErrorResponse(packageSequence, ErrorMessages.ERROR_EXCEPTION));
 		} else {
-			getThreadPool().submit(queryRunable);
+			queryThreadPool.submit(queryRunable);
 		}
 	}
 
@@ -700,6 +1308,22 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 		this.connectionCapabilities = connectionCapabilities;
 	}
 
+	/**
+	 * Get the protocol version of the written packages
+	 * @return
+	 */
+	public int getOutputProtocolVersion() {
+		return outputProtocolVersion;
+	}
+
+	/**
+	 * Set the protocol version of the written packages
+	 * @param outputProtocolVersion
+	 */
+	public void setOutputProtocolVersion(final int outputProtocolVersion) {
+		this.outputProtocolVersion = outputProtocolVersion;
+	}
+
 	public ServiceState getConnectionState() {
 		return serviceState;
 	}
@@ -708,7 +1332,7 @@ public class ClientConnectionHandler extends ExceptionSafeRunnable {
 		serviceState.dispatchToRunning();
 	}
 
-	public Map<Short, ClientQuery> getActiveQueries() {
+	public Map<Integer, ClientQuery> getActiveQueries() {
 		return activeQueries;
 	}
 
@@ -17,7 +17,6 @@
  *******************************************************************************/
 package org.bboxdb.network.server.connection;
 
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -47,10 +46,10 @@ public class ClientConnectionRegistry {
 	}
 	
 	/**
-	 * Get all active connections
+	 * Get a copy of all active connections
 	 * @return
 	 */
 	public synchronized Set<ClientConnectionHandler> getAllActiveConnections() {
-		return Collections.unmodifiableSet(activeConnections);
+		return new HashSet<>(activeConnections);
 	}
 }
@@ -18,8 +18,10 @@
 package org.bboxdb.network.server.connection;
 
 import java.io.IOException;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 
 import org.bboxdb.commons.CloseableHelper;
@@ -36,9 +38,9 @@ import org.slf4j.LoggerFactory;
 public class ConnectionDispatcherRunable extends ExceptionSafeRunnable {
 
 	/**
-	 * The server socket
+	 * The server socket channel
 	 */
-	private ServerSocket serverSocket;
+	private ServerSocketChannel serverSocket;
 
 	/**
 	 * The listen port
@@ -46,10 +48,35 @@ public class ConnectionDispatcherRunable extends ExceptionSafeRunnable {
 	private final int port;
 
 	/**
-	 * The thread pool for handling connections
+	 * The event loops that perform the IO of the connections
+	 */
+	private final List<NetworkEventLoop> eventLoops;
+
+	/**
+	 * The event loop for the next connection
+	 */
+	private int nextEventLoop;
+
+	/**
+	 * The thread pool for handling the packages of the connections
+	 */
+	private final ExecutorService connectionThreadPool;
+
+	/**
+	 * The thread pool for queries
 	 */
 	private final ExecutorService threadPool;
 
+	/**
+	 * The thread pool for the pages of continuous queries
+	 */
+	private final ExecutorService continuousQueryThreadPool;
+
+	/**
+	 * The thread pool for the results of routed packages
+	 */
+	private final ExecutorService routingThreadPool;
+
 	/**
 	 * The storage registry
 	 */
@@ -76,12 +103,19 @@ public class ConnectionDispatcherRunable extends ExceptionSafeRunnable {
 	final static Logger logger = LoggerFactory.getLogger(ConnectionDispatcherRunable.class);
 
 
-	public ConnectionDispatcherRunable(final int port, final ExecutorService threadPool,
-			final TupleStoreManagerRegistry storageRegistry, final LockManager lockManager, 
+	public ConnectionDispatcherRunable(final int port, final List<NetworkEventLoop> eventLoops,
+			final ExecutorService connectionThreadPool, final ExecutorService threadPool,
+			final ExecutorService continuousQueryThreadPool, final ExecutorService routingThreadPool,
+			final TupleStoreManagerRegistry storageRegistry, final LockManager lockManager,
 			final ClientConnectionRegistry clientConnectionRegistry) {
 
 		this.port = port;
+		this.eventLoops = eventLoops;
+		this.nextEventLoop = 0;
+		this.connectionThreadPool = connectionThreadPool;
 		this.threadPool = threadPool;
+		this.continuousQueryThreadPool = continuousQueryThreadPool;
+		this.routingThreadPool = routingThreadPool;
 		this.storageRegistry = storageRegistry;
 		this.lockManager = lockManager;
 		this.clientConnectionRegistry = clientConnectionRegistry;
@@ -101,12 +135,13 @@ public class ConnectionDispatcherRunable extends ExceptionSafeRunnable {
 	@Override
 	public void runThread() {
 		try {
-			serverSocket = new ServerSocket(port);
-			serverSocket.setReuseAddress(true);
+			serverSocket = ServerSocketChannel.open();
+			serverSocket.socket().setReuseAddress(true);
+			serverSocket.bind(new InetSocketAddress(port));
 
 			while(isThreadActive()) {
-				final Socket clientSocket = serverSocket.accept();
-				handleConnection(clientSocket);
+				final SocketChannel clientChannel = serverSocket.accept();
+				handleConnection(clientChannel);
 			}
 
 		} catch(IOException e) {
@@ -152,15 +187,25 @@ public class ConnectionDispatcherRunable extends ExceptionSafeRunnable {
 	}
 
 	/**
-	 * Dispatch the connection to the thread pool
-	 * @param clientSocket
+	 * Dispatch the connection to the next event loop
+	 * @param clientChannel
 	 */
-	private void handleConnection(final Socket clientSocket) {
-		logger.debug("Got new connection from: {}", clientSocket.getInetAddress());
+	private void handleConnection(final SocketChannel clientChannel) {
+		logger.debug("Got new connection from: {}", clientChannel.socket().getInetAddress());
+
+		try {
+			clientChannel.configureBlocking(false);
+		} catch (IOException e) {
+			logger.error("Unable to configure client channel, closing connection", e);
+			CloseableHelper.closeWithoutException(clientChannel);
+			return;
+		}
 
-		final ClientConnectionHandler task = new ClientConnectionHandler(storageRegistry,
-				clientSocket, lockManager, clientConnectionRegistry);
+		final NetworkEventLoop eventLoop = eventLoops.get(nextEventLoop);
+		nextEventLoop = (nextEventLoop + 1) % eventLoops.size();
 
-		threadPool.submit(task);
+		new ClientConnectionHandler(storageRegistry, clientChannel, eventLoop,
+				connectionThreadPool, threadPool, continuousQueryThreadPool, routingThreadPool, 
+				lockManager, clientConnectionRegistry);
 	}
 }
\ No newline at end of file
@@ -17,21 +17,22 @@
  *******************************************************************************/
 package org.bboxdb.network.server.connection;
 
-import java.util.Map;
-
 import org.bboxdb.commons.concurrent.ExceptionSafeRunnable;
-import org.bboxdb.commons.service.ServiceState;
 import org.bboxdb.network.NetworkConst;
-import org.bboxdb.network.server.query.ClientQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class ConnectionMaintenanceRunnable extends ExceptionSafeRunnable {
 
 	/**
-	 * The connection
+	 * The client connection registry
 	 */
-	private final ClientConnectionHandler clientConnectionHandler;
+	private final ClientConnectionRegistry clientConnectionRegistry;
+
+	/**
+	 * Is a shutdown pending?
+	 */
+	private volatile boolean shutdownPending;
 
 	/**
 	 * The Logger
@@ -39,34 +40,31 @@ public class ConnectionMaintenanceRunnable extends ExceptionSafeRunnable {
 	private final static Logger logger = LoggerFactory.getLogger(ConnectionMaintenanceRunnable.class);
 
 
-	public ConnectionMaintenanceRunnable(final ClientConnectionHandler clientConnectionHandler) {
-		this.clientConnectionHandler = clientConnectionHandler;
+	public ConnectionMaintenanceRunnable(final ClientConnectionRegistry clientConnectionRegistry) {
+		this.clientConnectionRegistry = clientConnectionRegistry;
+		this.shutdownPending = false;
 	}
 
 	@Override
 	protected void beginHook() {
-		logger.debug("Starting connection mainteinance thread for: {}", clientConnectionHandler.getConnectionName());
+		logger.info("Starting connection mainteinance thread");
 	}
 
 	@Override
 	protected void endHook() {
-		logger.debug("Mainteinance thread for {} has terminated", clientConnectionHandler.getConnectionName());
+		logger.info("Connection mainteinance thread has terminated");
 	}
 
 	@Override
 	protected void runThread() throws Exception {
-		final ServiceState serviceState = clientConnectionHandler.getConnectionState();
 
-		while(serviceState.isInStartingState() || serviceState.isInRunningState()) {
+		while(! shutdownPending) {
 
-			// Perform maintenance tasks for the queries
-			final Map<Short, ClientQuery> queries = clientConnectionHandler.getActiveQueries();
-			for(ClientQuery query : queries.values()) {
-				query.maintenanceCallback();
+			// The maintenance tasks (e.g., keep alive of the queries and the
+			// compression flush) are executed by the connection thread pool
+			for(final ClientConnectionHandler connection : clientConnectionRegistry.getAllActiveConnections()) {
+				connection.scheduleMaintenance();
 			}
-			
-			// Write all waiting for compression packages
-			clientConnectionHandler.flushPendingCompressionPackages();
 
 			try {
 				Thread.sleep(NetworkConst.MAX_COMPRESSION_DELAY_MS);
@@ -76,5 +74,11 @@ public class ConnectionMaintenanceRunnable extends ExceptionSafeRunnable {
 			}
 		}
 	}
-}
 
+	/**
+	 * Stop the maintenance thread
+	 */
+	public void shutdown() {
+		shutdownPending = true;
+	}
+}
@@ -17,6 +17,8 @@
  *******************************************************************************/
 package org.bboxdb.network.server.connection;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -25,6 +27,7 @@ import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+import org.bboxdb.commons.concurrent.ExecutorUtil;
 import org.bboxdb.commons.service.ServiceState;
 import org.bboxdb.distribution.membership.BBoxDBInstance;
 import org.bboxdb.distribution.membership.MembershipConnectionService;
@@ -59,9 +62,62 @@ public class NetworkConnectionService implements BBoxDBService {
 	private final BBoxDBConfiguration configuration = BBoxDBConfigurationManager.getConfiguration();
 
 	/**
-	 * Our thread pool to handle connections
+	 * Our thread pool to handle the packages of the connections
 	 */
 	private ExecutorService threadPool;
+
+	/**
+	 * The thread pool for queries
+	 */
+	private ExecutorService queryThreadPool;
+
+	/**
+	 * The thread pool for the pages of continuous queries. A page waits until 
+	 * new tuples are available, so each waiting page holds a thread. 
+	 */
+	private ExecutorService continuousQueryThreadPool;
+
+	/**
+	 * The thread pool that writes the results of routed packages
+	 */
+	private ExecutorService routingThreadPool;
+
+	/**
+	 * The event loops that perform the network IO
+	 */
+	private final List<NetworkEventLoop> eventLoops;
+
+	/**
+	 * The threads of the event loops
+	 */
+	private final List<Thread> eventLoopThreads;
+
+	/**
+	 * The connection maintenance runnable
+	 */
+	private ConnectionMaintenanceRunnable maintenanceRunnable;
+
+	/**
+	 * The number of pending queries, the caller executes
+	 * the query when the queue is full
+	 */
+	private final static int MAX_PENDING_QUERIES = 1024;
+
+	/**
+	 * The threads for the results of the routed packages
+	 */
+	private final static int ROUTING_THREADS = 8;
+
+	/**
+	 * The number of pending routing results, the caller writes
+	 * the result when the queue is full
+	 */
+	private final static int MAX_PENDING_ROUTING_RESULTS = 1024;
+
+	/**
+	 * The time to wait for the termination of the event loops
+	 */
+	private final static long EVENT_LOOP_SHUTDOWN_TIMEOUT_MS = 5000;
 	
 	/**
 	 * The connection handler state
@@ -106,6 +162,8 @@ public class NetworkConnectionService implements BBoxDBService {
 		this.state = new ServiceState();
 		this.lockManager = new LockManager();
 		this.clientConnectionRegistry = new ClientConnectionRegistry();
+		this.eventLoops = new ArrayList<>();
+		this.eventLoopThreads = new ArrayList<>();
 	}
 
 
@@ -128,8 +186,30 @@ public class NetworkConnectionService implements BBoxDBService {
 			if(threadPool == null) {
 				threadPool = Executors.newFixedThreadPool(configuration.getNetworkConnectionThreads());
 			}
-						
-			serverSocketDispatcher = new ConnectionDispatcherRunable(port, threadPool, 
+
+			if(queryThreadPool == null) {
+				queryThreadPool = ExecutorUtil.getBoundThreadPoolExecutor(
+						configuration.getNetworkQueryThreads(), MAX_PENDING_QUERIES);
+			}
+
+			if(continuousQueryThreadPool == null) {
+				continuousQueryThreadPool = Executors.newCachedThreadPool();
+			}
+
+			if(routingThreadPool == null) {
+				routingThreadPool = ExecutorUtil.getBoundThreadPoolExecutor(
+						ROUTING_THREADS, MAX_PENDING_ROUTING_RESULTS);
+			}
+
+			startEventLoops();
+
+			maintenanceRunnable = new ConnectionMaintenanceRunnable(clientConnectionRegistry);
+			final Thread maintenanceThread = new Thread(maintenanceRunnable);
+			maintenanceThread.setName("Connection maintenance thread");
+			maintenanceThread.start();
+
+			serverSocketDispatcher = new ConnectionDispatcherRunable(port, eventLoops, threadPool,
+					queryThreadPool, continuousQueryThreadPool, routingThreadPool, 
 					storageRegistry, lockManager, clientConnectionRegistry);
 			
 			serverSocketDispatchThread = new Thread(serverSocketDispatcher);
@@ -146,6 +226,41 @@ public class NetworkConnectionService implements BBoxDBService {
 		}
 	}
 	
+	/**
+	 * Start the event loops
+	 * @throws IOException
+	 */
+	private void startEventLoops() throws IOException {
+		final int ioThreads = Math.max(1, configuration.getNetworkIOThreads());
+
+		for(int i = 0; i < ioThreads; i++) {
+			final NetworkEventLoop eventLoop = new NetworkEventLoop("Network event loop " + i);
+			eventLoops.add(eventLoop);
+
+			final Thread eventLoopThread = new Thread(eventLoop);
+			eventLoopThread.setName(eventLoop.getName());
+			eventLoopThread.start();
+			eventLoopThreads.add(eventLoopThread);
+		}
+	}
+
+	/**
+	 * Wait until the event loops have handed over the open connections
+	 * to the thread pool
+	 */
+	private void awaitEventLoopTermination() {
+		for(final Thread eventLoopThread : eventLoopThreads) {
+			try {
+				eventLoopThread.join(EVENT_LOOP_SHUTDOWN_TIMEOUT_MS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+
+		eventLoopThreads.clear();
+	}
+
 	/**
 	 * Shutdown the network connection
 	 */
@@ -166,10 +281,35 @@ public class NetworkConnectionService implements BBoxDBService {
 			serverSocketDispatcher = null;
 		}
 		
+		if(maintenanceRunnable != null) {
+			maintenanceRunnable.shutdown();
+			maintenanceRunnable = null;
+		}
+
+		// Stopping the event loops closes the connections
+		eventLoops.forEach(e -> e.shutdown());
+		eventLoops.clear();
+		awaitEventLoopTermination();
+
 		if(threadPool != null) {
 			threadPool.shutdown();
 			threadPool = null;
 		}
+
+		if(queryThreadPool != null) {
+			queryThreadPool.shutdown();
+			queryThreadPool = null;
+		}
+
+		if(continuousQueryThreadPool != null) {
+			continuousQueryThreadPool.shutdown();
+			continuousQueryThreadPool = null;
+		}
+
+		if(routingThreadPool != null) {
+			routingThreadPool.shutdown();
+			routingThreadPool = null;
+		}
 		
 		GlobalDistributionRegionEventBus.getInstance().removeCallback(callback);
 
@@ -194,7 +334,7 @@ public class NetworkConnectionService implements BBoxDBService {
 			final Set<ClientConnectionHandler> allConnections = clientConnectionRegistry.getAllActiveConnections();
 			
 			for(final ClientConnectionHandler connection : allConnections) {
-				final Map<Short, ClientQuery> activeQueries = connection.getActiveQueries();
+				final Map<Integer, ClientQuery> activeQueries = connection.getActiveQueries();
 				
 				for(final ClientQuery clientQuery : activeQueries.values()) {
 					if(! (clientQuery instanceof ContinuousClientQuery)) {
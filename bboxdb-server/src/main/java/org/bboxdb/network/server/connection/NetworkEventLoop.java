@@ -0,0 +1,237 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.server.connection;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.bboxdb.commons.CloseableHelper;
+import org.bboxdb.commons.concurrent.ExceptionSafeRunnable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The event loop performs the network IO of the client connections. The
+ * decoded packages are handled by the worker threads of the connections.
+ *
+ */
+public class NetworkEventLoop extends ExceptionSafeRunnable {
+
+	/**
+	 * The name of the event loop
+	 */
+	private final String name;
+
+	/**
+	 * The selector
+	 */
+	private final Selector selector;
+
+	/**
+	 * The tasks that need to be executed in the event loop
+	 */
+	private final Queue<Runnable> pendingTasks;
+
+	/**
+	 * The thread of the event loop
+	 */
+	private volatile Thread eventLoopThread;
+
+	/**
+	 * Is a shutdown pending?
+	 */
+	private volatile boolean shutdownPending;
+
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(NetworkEventLoop.class);
+
+	public NetworkEventLoop(final String name) throws IOException {
+		this.name = name;
+		this.selector = Selector.open();
+		this.pendingTasks = new ConcurrentLinkedQueue<>();
+		this.shutdownPending = false;
+	}
+
+	@Override
+	protected void beginHook() {
+		logger.info("Starting {}", name);
+	}
+
+	@Override
+	protected void endHook() {
+		logger.info("{} has terminated", name);
+	}
+
+	@Override
+	protected void runThread() throws Exception {
+		eventLoopThread = Thread.currentThread();
+
+		try {
+			while(! shutdownPending && ! Thread.currentThread().isInterrupted()) {
+				selector.select();
+				runPendingTasks();
+
+				final Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+
+				while(iterator.hasNext()) {
+					final SelectionKey key = iterator.next();
+					iterator.remove();
+					handleSelectedKey(key);
+				}
+			}
+		} finally {
+			eventLoopThread = null;
+			closeAllConnections();
+			CloseableHelper.closeWithoutException(selector);
+		}
+	}
+
+	/**
+	 * Dispatch the selected key to the connection handler
+	 * @param key
+	 */
+	private void handleSelectedKey(final SelectionKey key) {
+		final ClientConnectionHandler connectionHandler = (ClientConnectionHandler) key.attachment();
+
+		try {
+			if(key.isValid() && key.isReadable()) {
+				connectionHandler.handleReadable();
+			}
+
+			if(key.isValid() && key.isWritable()) {
+				connectionHandler.handleWritable();
+			}
+		} catch(CancelledKeyException e) {
+			// Connection is closed concurrently
+			logger.debug("Key of {} is cancelled", connectionHandler.getConnectionName());
+		}
+	}
+
+	/**
+	 * Run the pending tasks
+	 */
+	private void runPendingTasks() {
+		Runnable task;
+
+		while((task = pendingTasks.poll()) != null) {
+			try {
+				task.run();
+			} catch(CancelledKeyException e) {
+				// Connection is closed concurrently
+				logger.debug("Got cancelled key exception while running task", e);
+			} catch(Exception e) {
+				logger.error("Got exception while running task in " + name, e);
+			}
+		}
+	}
+
+	/**
+	 * Notify all registered connections that the input is closed
+	 */
+	private void closeAllConnections() {
+		final List<ClientConnectionHandler> connections = new ArrayList<>();
+
+		try {
+			for(final SelectionKey key : selector.keys()) {
+				connections.add((ClientConnectionHandler) key.attachment());
+			}
+		} catch(Exception e) {
+			logger.debug("Unable to get registered connections", e);
+		}
+
+		connections.forEach(c -> c.handleInputClosed());
+	}
+
+	/**
+	 * Register the channel of the connection in the event loop
+	 * @param socketChannel
+	 * @param connectionHandler
+	 */
+	public void registerConnection(final SocketChannel socketChannel,
+			final ClientConnectionHandler connectionHandler) {
+
+		execute(() -> {
+			try {
+				final SelectionKey key = socketChannel.register(selector, SelectionKey.OP_READ,
+						connectionHandler);
+				connectionHandler.setSelectionKey(key);
+			} catch (ClosedChannelException e) {
+				connectionHandler.handleInputClosed();
+			}
+		});
+	}
+
+	/**
+	 * Execute the task in the event loop
+	 * @param task
+	 */
+	public void execute(final Runnable task) {
+		pendingTasks.add(task);
+		selector.wakeup();
+	}
+
+	/**
+	 * Wake up the selector, e.g., to process closed channels
+	 */
+	public void wakeup() {
+		selector.wakeup();
+	}
+
+	/**
+	 * Is the current thread the thread of the event loop
+	 * @return
+	 */
+	public boolean isInEventLoop() {
+		return Thread.currentThread() == eventLoopThread;
+	}
+
+	/**
+	 * Is the event loop active
+	 * @return
+	 */
+	public boolean isActive() {
+		return eventLoopThread != null && ! shutdownPending;
+	}
+
+	/**
+	 * Shutdown the event loop
+	 */
+	public void shutdown() {
+		shutdownPending = true;
+		selector.wakeup();
+	}
+
+	/**
+	 * Get the name of the event loop
+	 * @return
+	 */
+	public String getName() {
+		return name;
+	}
+}
@@ -33,6 +33,7 @@ import org.bboxdb.network.server.query.StreamClientQuery;
 import org.bboxdb.query.filter.UserDefinedFilterDefinition;
 import org.bboxdb.query.queryprocessor.OperatorTreeBuilder;
 import org.bboxdb.query.queryprocessor.operator.Operator;
+import org.bboxdb.query.queryprocessor.operator.ProfilingOperator;
 import org.bboxdb.query.queryprocessor.operator.SpatialIndexReadOperator;
 import org.bboxdb.query.queryprocessor.operator.UserDefinedFiltersOperator;
 import org.bboxdb.storage.entity.TupleStoreName;
@@ -53,7 +54,7 @@ public class HandleBoundingBoxQuery implements QueryHandler {
 	 * Handle a bounding box query
 	 */
 	public void handleQuery(final ByteBuffer encodedPackage,
-			final short packageSequence, final ClientConnectionHandler clientConnectionHandler)
+			final int packageSequence, final ClientConnectionHandler clientConnectionHandler)
 					throws IOException, PackageEncodeException {
 
 		try {
@@ -70,6 +71,7 @@ public class HandleBoundingBoxQuery implements QueryHandler {
 			}
 
 			final List<UserDefinedFilterDefinition> udfs = queryRequest.getUdfs();
+			final boolean profilingEnabled = queryRequest.isProfilingEnabled();
 			
 			final OperatorTreeBuilder operatorTreeBuilder = new OperatorTreeBuilder() {
 
@@ -81,13 +83,15 @@ public class HandleBoundingBoxQuery implements QueryHandler {
 					}
 
 					final Hyperrectangle boundingBox = queryRequest.getBoundingBox();
-					final Operator indexReadOperator = new SpatialIndexReadOperator(
-							storageManager.get(0), boundingBox);
+					final Operator indexReadOperator = ProfilingOperator.profile(profilingEnabled,
+							new SpatialIndexReadOperator(storageManager.get(0), boundingBox));
 
 					// Add the user defined filter operator
 					if(! udfs.isEmpty()) {
 						try {
-							return new UserDefinedFiltersOperator(udfs, indexReadOperator);
+							return ProfilingOperator.profile(profilingEnabled,
+									new UserDefinedFiltersOperator(udfs, requestTable.getFullnameWithoutPrefix(), 
+											indexReadOperator), indexReadOperator);
 						} catch (Exception e) {
 							throw new IllegalArgumentException("Unable to load user defined filter", e);
 						}
@@ -98,7 +102,8 @@ public class HandleBoundingBoxQuery implements QueryHandler {
 			};
 
 			final StreamClientQuery clientQuery = new StreamClientQuery(operatorTreeBuilder, queryRequest.isPagingEnabled(),
-					queryRequest.getTuplesPerPage(), clientConnectionHandler, packageSequence, Arrays.asList(requestTable));
+					queryRequest.getTuplesPerPage(), clientConnectionHandler, packageSequence, Arrays.asList(requestTable),
+					profilingEnabled);
 
 			clientConnectionHandler.getActiveQueries().put(packageSequence, clientQuery);
 			clientConnectionHandler.sendNextResultsForQuery(packageSequence, packageSequence);
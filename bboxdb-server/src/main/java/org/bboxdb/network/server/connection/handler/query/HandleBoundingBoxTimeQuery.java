@@ -52,7 +52,7 @@ public class HandleBoundingBoxTimeQuery implements QueryHandler {
 	 * Handle the bounding box time query
 	 */
 	public void handleQuery(final ByteBuffer encodedPackage, 
-			final short packageSequence, final ClientConnectionHandler clientConnectionHandler) 
+			final int packageSequence, final ClientConnectionHandler clientConnectionHandler) 
 					throws IOException {
 		
 		try {
@@ -50,11 +50,11 @@ public class HandleContinuousQuery implements QueryHandler {
 	 * Handle a bounding box query
 	 */
 	public void handleQuery(final ByteBuffer encodedPackage, 
-			final short packageSequence, final ClientConnectionHandler clientConnectionHandler) 
+			final int packageSequence, final ClientConnectionHandler clientConnectionHandler) 
 					throws IOException, PackageEncodeException {
 		
 		try {
-			final Map<Short, ClientQuery> activeQueries = clientConnectionHandler.getActiveQueries();
+			final Map<Integer, ClientQuery> activeQueries = clientConnectionHandler.getActiveQueries();
 			
 			if(activeQueries.containsKey(packageSequence)) {
 				logger.error("Query sequence {} is already known, please close old query first", packageSequence);
@@ -118,7 +118,7 @@ public class HandleContinuousQuery implements QueryHandler {
 	 * @throws IOException
 	 * @throws PackageEncodeException
 	 */
-	private boolean isQueryAlreadyRegistered(final Map<Short, ClientQuery> activeQueries,
+	private boolean isQueryAlreadyRegistered(final Map<Integer, ClientQuery> activeQueries,
 			final String newUUID) throws IOException, PackageEncodeException {
 		
 		for(final ClientQuery query : activeQueries.values()) {
@@ -32,6 +32,7 @@ import org.bboxdb.network.server.query.StreamClientQuery;
 import org.bboxdb.query.filter.UserDefinedFilterDefinition;
 import org.bboxdb.query.queryprocessor.OperatorTreeBuilder;
 import org.bboxdb.query.queryprocessor.operator.Operator;
+import org.bboxdb.query.queryprocessor.operator.ProfilingOperator;
 import org.bboxdb.query.queryprocessor.operator.SpatialIndexReadOperator;
 import org.bboxdb.query.queryprocessor.operator.join.IndexedSpatialJoinOperator;
 import org.bboxdb.storage.entity.TupleStoreName;
@@ -52,7 +53,7 @@ public class HandleJoinQuery implements QueryHandler {
 	 * Handle a bounding box query
 	 */
 	public void handleQuery(final ByteBuffer encodedPackage, 
-			final short packageSequence, final ClientConnectionHandler clientConnectionHandler) 
+			final int packageSequence, final ClientConnectionHandler clientConnectionHandler) 
 					throws IOException, PackageEncodeException {
 		
 		try {
@@ -65,6 +66,7 @@ public class HandleJoinQuery implements QueryHandler {
 			final List<TupleStoreName> requestTables = queryRequest.getTables();
 			final Hyperrectangle boundingBox = queryRequest.getBoundingBox();
 			final List<UserDefinedFilterDefinition> udfs = queryRequest.getUdfs();
+			final boolean profilingEnabled = queryRequest.isProfilingEnabled();
 			
 			for(final TupleStoreName requestTable : requestTables) {
 				if(! QueryHelper.handleNonExstingTable(requestTable, packageSequence, clientConnectionHandler)) {
@@ -86,18 +88,23 @@ public class HandleJoinQuery implements QueryHandler {
 					}
 					
 					if(storageManager.size() == 2) {
-						final Operator operator1 = new SpatialIndexReadOperator(storageManager.get(0), boundingBox);
+						final Operator operator1 = ProfilingOperator.profile(profilingEnabled, 
+								new SpatialIndexReadOperator(storageManager.get(0), boundingBox));
 						final SpatialIndexReadOperator indexReader = new SpatialIndexReadOperator(storageManager.get(1), boundingBox);
-						return new IndexedSpatialJoinOperator(operator1, indexReader, udfs);			
+						return ProfilingOperator.profile(profilingEnabled, 
+								new IndexedSpatialJoinOperator(operator1, indexReader, udfs), operator1, indexReader);			
 					}
 					
-					Operator operator1 = new SpatialIndexReadOperator(storageManager.get(0), boundingBox);
+					Operator operator1 = ProfilingOperator.profile(profilingEnabled, 
+							new SpatialIndexReadOperator(storageManager.get(0), boundingBox));
 					SpatialIndexReadOperator indexReader = new SpatialIndexReadOperator(storageManager.get(1), boundingBox);
-					operator1 = new IndexedSpatialJoinOperator(operator1, indexReader);
+					operator1 = ProfilingOperator.profile(profilingEnabled, 
+							new IndexedSpatialJoinOperator(operator1, indexReader), operator1, indexReader);
 					
 					for(int i = 3; i < storageManager.size(); i++) {
 						indexReader = new SpatialIndexReadOperator(storageManager.get(i), boundingBox);
-						operator1 = new IndexedSpatialJoinOperator(operator1, indexReader);
+						operator1 = ProfilingOperator.profile(profilingEnabled, 
+								new IndexedSpatialJoinOperator(operator1, indexReader), operator1, indexReader);
 					}
 					
 					return operator1;
@@ -105,7 +112,8 @@ public class HandleJoinQuery implements QueryHandler {
 			};
 					
 			final StreamClientQuery clientQuery = new StreamClientQuery(operatorTreeBuilder, queryRequest.isPagingEnabled(), 
-					queryRequest.getTuplesPerPage(), clientConnectionHandler, packageSequence, requestTables);
+					queryRequest.getTuplesPerPage(), clientConnectionHandler, packageSequence, requestTables, 
+					profilingEnabled);
 			
 			clientConnectionHandler.getActiveQueries().put(packageSequence, clientQuery);
 			clientConnectionHandler.sendNextResultsForQuery(packageSequence, packageSequence);
@@ -46,7 +46,7 @@ public class HandleKeyQuery implements QueryHandler {
 	 * Handle a key query
 	 */
 	public void handleQuery(final ByteBuffer encodedPackage, 
-			final short packageSequence, final ClientConnectionHandler clientConnectionHandler) 
+			final int packageSequence, final ClientConnectionHandler clientConnectionHandler) 
 					throws IOException, PackageEncodeException {
 
 		final Runnable queryRunable = new ExceptionSafeRunnable() {
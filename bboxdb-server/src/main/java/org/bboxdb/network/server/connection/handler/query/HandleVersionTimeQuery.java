@@ -51,7 +51,7 @@ public class HandleVersionTimeQuery implements QueryHandler {
 	 * Handle a time query
 	 */
 	public void handleQuery(final ByteBuffer encodedPackage, 
-			final short packageSequence, final ClientConnectionHandler clientConnectionHandler) 
+			final int packageSequence, final ClientConnectionHandler clientConnectionHandler) 
 					throws IOException, PackageEncodeException {
 				
 		try {
@@ -46,13 +46,13 @@ public class CancelRequestHandler implements RequestHandler {
 	 * Cancel the given query
 	 */
 	public boolean handleRequest(final ByteBuffer encodedPackage, 
-			final short packageSequence, final ClientConnectionHandler clientConnectionHandler) throws IOException, PackageEncodeException {
+			final int packageSequence, final ClientConnectionHandler clientConnectionHandler) throws IOException, PackageEncodeException {
 		
 		try {
 			final CancelRequest cancelPackage = CancelRequest.decodeTuple(encodedPackage);
-			final short queryToCancel = cancelPackage.getQuerySequence();
+			final int queryToCancel = cancelPackage.getQuerySequence();
 			
-			final Map<Short, ClientQuery> activeQueries = clientConnectionHandler.getActiveQueries();
+			final Map<Integer, ClientQuery> activeQueries = clientConnectionHandler.getActiveQueries();
 			
 			final ClientQuery clientQuery = activeQueries.get(queryToCancel);
 
@@ -86,8 +86,8 @@ public class CancelRequestHandler implements RequestHandler {
 	 * @throws IOException
 	 * @throws PackageEncodeException
 	 */
-	private void removeLocks(final short packageSequence, final ClientConnectionHandler clientConnectionHandler,
-			final short requestPackage) throws IOException, PackageEncodeException {
+	private void removeLocks(final int packageSequence, final ClientConnectionHandler clientConnectionHandler,
+			final int requestPackage) throws IOException, PackageEncodeException {
 		
 		final LockManager lockManager = clientConnectionHandler.getLockManager();
 		
@@ -39,7 +39,7 @@ public class CompressionHandler implements RequestHandler {
 	 * Handle compressed packages. Uncompress envelope and handle package
 	 */
 	public boolean handleRequest(final ByteBuffer encodedPackage, 
-			final short packageSequence, final ClientConnectionHandler clientConnectionHandler) {
+			final int packageSequence, final ClientConnectionHandler clientConnectionHandler) {
 		
 		try {
 			final InputStream compressedDataStream = CompressionEnvelopeRequest.decodePackage(encodedPackage);
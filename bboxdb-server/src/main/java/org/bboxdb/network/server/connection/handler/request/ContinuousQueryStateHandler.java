@@ -43,14 +43,14 @@ public class ContinuousQueryStateHandler implements RequestHandler {
 	private final static Logger logger = LoggerFactory.getLogger(ContinuousQueryStateHandler.class);
 	
 	@Override
-	public boolean handleRequest(final ByteBuffer encodedPackage, final short packageSequence,
+	public boolean handleRequest(final ByteBuffer encodedPackage, final int packageSequence,
 			final ClientConnectionHandler clientConnectionHandler) 
 					throws IOException, PackageEncodeException {
 
 		final ContinuousQueryServerState continuousQueryServerState = new ContinuousQueryServerState();
 		
 		final ContinuousQueryStateRequest request = ContinuousQueryStateRequest.decodeTuple(encodedPackage);
-		final short sequenceNumber = request.getSequenceNumber();
+		final int sequenceNumber = request.getSequenceNumber();
 		final TupleStoreName table = request.getTable();
 		
 		logger.debug("Got ContinuousQueryStateHandler package for table {}", table.getFullname());
@@ -59,7 +59,7 @@ public class ContinuousQueryStateHandler implements RequestHandler {
 		final Set<ClientConnectionHandler> allConnections = registry.getAllActiveConnections();
 		
 		for(final ClientConnectionHandler connection : allConnections) {
-			final Map<Short, ClientQuery> activeQueries = connection.getActiveQueries();
+			final Map<Integer, ClientQuery> activeQueries = connection.getActiveQueries();
 			
 			for(final ClientQuery clientQuery : activeQueries.values()) {
 				if(! (clientQuery instanceof ContinuousClientQuery)) {
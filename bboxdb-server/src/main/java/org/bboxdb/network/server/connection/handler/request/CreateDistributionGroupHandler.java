@@ -54,7 +54,7 @@ public class CreateDistributionGroupHandler implements RequestHandler {
 	 * Create a new distribution group
 	 */
 	public boolean handleRequest(final ByteBuffer encodedPackage, 
-			final short packageSequence, final ClientConnectionHandler clientConnectionHandler) throws IOException, PackageEncodeException {
+			final int packageSequence, final ClientConnectionHandler clientConnectionHandler) throws IOException, PackageEncodeException {
 
 		String distributionGroup = null;
 		
@@ -114,7 +114,7 @@ public class CreateDistributionGroupHandler implements RequestHandler {
 	 * @throws IOException
 	 * @throws PackageEncodeException
 	 */
-	private void returnWithError(final String distributionGroup, final short packageSequence, 
+	private void returnWithError(final String distributionGroup, final int packageSequence, 
 			final ClientConnectionHandler clientConnectionHandler, final String errorMessage)
 			throws IOException, PackageEncodeException {
 		
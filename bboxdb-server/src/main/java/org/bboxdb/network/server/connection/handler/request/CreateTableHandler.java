@@ -45,7 +45,7 @@ public class CreateTableHandler implements RequestHandler {
 	 * Handle the create table call
 	 */
 	public boolean handleRequest(final ByteBuffer encodedPackage, 
-			final short packageSequence, final ClientConnectionHandler clientConnectionHandler) 
+			final int packageSequence, final ClientConnectionHandler clientConnectionHandler) 
 					throws IOException, PackageEncodeException {
 		
 		try {			
@@ -90,7 +90,7 @@ public class CreateTableHandler implements RequestHandler {
 	 * @throws IOException
 	 * @throws PackageEncodeException
 	 */
-	private void returnWithError(final short packageSequence, 
+	private void returnWithError(final int packageSequence, 
 			final ClientConnectionHandler clientConnectionHandler, final String errorMessage)
 			throws IOException, PackageEncodeException {
 		
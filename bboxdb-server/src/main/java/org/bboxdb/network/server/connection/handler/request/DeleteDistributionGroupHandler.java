@@ -45,7 +45,7 @@ public class DeleteDistributionGroupHandler implements RequestHandler {
 	 * Delete an existing distribution group
 	 */
 	public boolean handleRequest(final ByteBuffer encodedPackage, 
-			final short packageSequence, final ClientConnectionHandler clientConnectionHandler) throws IOException, PackageEncodeException {
+			final int packageSequence, final ClientConnectionHandler clientConnectionHandler) throws IOException, PackageEncodeException {
 
 		try {
 			final DeleteDistributionGroupRequest deletePackage = DeleteDistributionGroupRequest.decodeTuple(encodedPackage);
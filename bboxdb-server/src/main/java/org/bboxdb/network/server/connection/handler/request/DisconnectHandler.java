@@ -39,7 +39,7 @@ public class DisconnectHandler implements RequestHandler {
 	 * Handle the disconnect request
 	 */
 	public boolean handleRequest(final ByteBuffer encodedPackage, 
-			final short packageSequence, final ClientConnectionHandler clientConnectionHandler) 
+			final int packageSequence, final ClientConnectionHandler clientConnectionHandler) 
 					throws IOException, PackageEncodeException {
 		
 		logger.info("Got disconnect package, preparing for connection close: "  
@@ -21,6 +21,9 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 
 import org.bboxdb.network.NetworkConst;
+import org.bboxdb.network.ProtocolVersionHelper;
+import org.bboxdb.network.capabilities.PeerCapabilities;
+import org.bboxdb.network.compression.CompressionCodecHelper;
 import org.bboxdb.network.packages.PackageEncodeException;
 import org.bboxdb.network.packages.request.HelloRequest;
 import org.bboxdb.network.packages.response.ErrorResponse;
@@ -42,18 +45,35 @@ public class HandshakeHandler implements RequestHandler {
 	 */
 	@Override
 	public boolean handleRequest(final ByteBuffer encodedPackage, 
-			final short packageSequence, final ClientConnectionHandler clientConnectionHandler) throws IOException, PackageEncodeException {
+			final int packageSequence, final ClientConnectionHandler clientConnectionHandler) throws IOException, PackageEncodeException {
 		
 		logger.info("Handshaking with: {}", clientConnectionHandler.clientSocket.getInetAddress());
 		
 		try {	
 			final HelloRequest heloRequest = HelloRequest.decodeRequest(encodedPackage);
-			clientConnectionHandler.setConnectionCapabilities(heloRequest.getPeerCapabilities());
+			final PeerCapabilities peerCapabilities = heloRequest.getPeerCapabilities();
+			
+			// Disable the compressions that are not usable on this system
+			if(! CompressionCodecHelper.isCodecAvailable(NetworkConst.COMPRESSION_TYPE_SNAPPY)) {
+				peerCapabilities.clearSnappyCompression();
+			}
+			
+			final int protocolVersion = ProtocolVersionHelper.negotiateProtocolVersion(
+					heloRequest.getProtocolVersion());
+			
+			// Clients of protocol version 1 can not decode snappy envelopes
+			if(! ProtocolVersionHelper.supportsSnappyCompression(protocolVersion)) {
+				peerCapabilities.clearSnappyCompression();
+			}
 
 			final HelloResponse responsePackage = new HelloResponse(packageSequence, 
-					NetworkConst.PROTOCOL_VERSION, clientConnectionHandler.getConnectionCapabilities());
+					protocolVersion, peerCapabilities);
 			
+			// The response is written uncompressed and with the initial protocol version
 			clientConnectionHandler.writeResultPackage(responsePackage);
+			
+			clientConnectionHandler.setConnectionCapabilities(peerCapabilities);
+			clientConnectionHandler.setOutputProtocolVersion(protocolVersion);
 
 			clientConnectionHandler.setConnectionStateToOpen();
 			return true;
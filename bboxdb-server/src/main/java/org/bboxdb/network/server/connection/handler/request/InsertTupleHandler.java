@@ -19,8 +19,10 @@ package org.bboxdb.network.server.connection.handler.request;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
@@ -80,7 +82,7 @@ public class InsertTupleHandler implements RequestHandler {
 	 * Handle the insert tuple request
 	 */
 	public boolean handleRequest(final ByteBuffer encodedPackage,
-			final short packageSequence, final ClientConnectionHandler clientConnectionHandler)
+			final int packageSequence, final ClientConnectionHandler clientConnectionHandler)
 					throws IOException, PackageEncodeException {
 
 		if(logger.isDebugEnabled()) {
@@ -143,7 +145,7 @@ public class InsertTupleHandler implements RequestHandler {
 	 * @param e
 	 * @return
 	 */
-	private String buildErrorMessage(final String message, final Throwable e) {
+	protected String buildErrorMessage(final String message, final Throwable e) {
 		final StringBuilder sb = new StringBuilder(message);
 
 		sb.append(" ");
@@ -166,7 +168,7 @@ public class InsertTupleHandler implements RequestHandler {
 	 * @throws RejectedException
 	 * @throws PackageEncodeException
 	 */
-	private void processPackageLocally(final short packageSequence,
+	private void processPackageLocally(final int packageSequence,
 			final ClientConnectionHandler clientConnectionHandler,
 			final InsertTupleRequest insertTupleRequest)
 			throws BBoxDBException, RejectedException, PackageEncodeException {
@@ -198,7 +200,7 @@ public class InsertTupleHandler implements RequestHandler {
 	 * @param clientConnectionHandler
 	 * @param insertTupleRequest
 	 */
-	private void forwardRoutedPackage(final short packageSequence,
+	private void forwardRoutedPackage(final int packageSequence,
 			final ClientConnectionHandler clientConnectionHandler,
 			final InsertTupleRequest insertTupleRequest) {
 
@@ -211,16 +213,41 @@ public class InsertTupleHandler implements RequestHandler {
 	 * @param tuple
 	 * @param requestTable
 	 * @param storageRegistry
-	 * @param insertOptions 
-	 * @param routingHeader
-	 * @throws StorageManagerException
+	 * @param distributionRegions
 	 * @throws RejectedException
-	 * @throws BBoxDBException
 	 */
 	protected void processInsertPackage(final Tuple tuple, final TupleStoreName requestTable,
 			final TupleStoreManagerRegistry storageRegistry, 
 			final Map<Long, EnumSet<DistributionRegionHandlingFlag>> distributionRegions) throws RejectedException {
-		
+
+		final List<LocalInsertTarget> insertTargets = getLocalInsertTargets(requestTable,
+				storageRegistry, distributionRegions);
+
+		try {
+			for(final LocalInsertTarget insertTarget : insertTargets) {
+				insertTarget.insertTuple(tuple);
+			}
+		} catch (RejectedException e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new RejectedException(e);
+		}
+	}
+
+	/**
+	 * Get the local tuple stores for the distribution regions of the routing hop.
+	 * Missing tuple stores are created.
+	 *
+	 * @param requestTable
+	 * @param storageRegistry
+	 * @param distributionRegions
+	 * @return
+	 * @throws RejectedException
+	 */
+	protected List<LocalInsertTarget> getLocalInsertTargets(final TupleStoreName requestTable,
+			final TupleStoreManagerRegistry storageRegistry,
+			final Map<Long, EnumSet<DistributionRegionHandlingFlag>> distributionRegions) throws RejectedException {
+
 		try {
 			final String fullname = requestTable.getDistributionGroup();
 			final SpacePartitioner spacePartitioner = SpacePartitionerCache
@@ -243,7 +270,8 @@ public class InsertTupleHandler implements RequestHandler {
 			TupleStoreManagerRegistryHelper.createMissingTables(requestTable, storageRegistry,
 					localTables.keySet());
 
-			// Insert tuples
+			final List<LocalInsertTarget> insertTargets = new ArrayList<>();
+
 			for(final Entry<TupleStoreName, EnumSet<DistributionRegionHandlingFlag>> localTable : localTables.entrySet()) {
 				
 				final long regionid = localTable.getKey().getRegionId().getAsLong();
@@ -255,22 +283,66 @@ public class InsertTupleHandler implements RequestHandler {
 					throw new IllegalArgumentException("Unable to get space for region: " + regionid);
 				}
 				
-				final Hyperrectangle tupleBBox = tuple.getBoundingBox();
 				final boolean storeOnDisk = ! localTable.getValue().contains(DistributionRegionHandlingFlag.STREAMING_ONLY);
-				
-				if(space.get().intersects(tupleBBox)) {
-					final TupleStoreManager storageManager = storageRegistry.getTupleStoreManager(localTable.getKey());
-					storageManager.put(tuple, storeOnDisk, true);
-				} else { 
-					logger.debug("Not inserting into region {} because {} not insertect {}", regionid, 
-							tupleBBox, space);
-				}
-				
+				final TupleStoreManager storageManager = storageRegistry.getTupleStoreManager(localTable.getKey());
+				insertTargets.add(new LocalInsertTarget(regionid, space.get(), storageManager, storeOnDisk));
 			}
-		} catch (RejectedException e) {
-			throw e;
+
+			return insertTargets;
 		} catch (Throwable e) {
 			throw new RejectedException(e);
 		}
 	}
+
+	/**
+	 * A local tuple store that receives the inserted tuples
+	 */
+	protected static class LocalInsertTarget {
+
+		/**
+		 * The region id
+		 */
+		private final long regionId;
+
+		/**
+		 * The space of the region
+		 */
+		private final Hyperrectangle space;
+
+		/**
+		 * The tuple store manager
+		 */
+		private final TupleStoreManager storageManager;
+
+		/**
+		 * Store the tuple on disk or stream it only
+		 */
+		private final boolean storeOnDisk;
+
+		public LocalInsertTarget(final long regionId, final Hyperrectangle space,
+				final TupleStoreManager storageManager, final boolean storeOnDisk) {
+
+			this.regionId = regionId;
+			this.space = space;
+			this.storageManager = storageManager;
+			this.storeOnDisk = storeOnDisk;
+		}
+
+		/**
+		 * Insert the tuple if the tuple intersects the region
+		 * @param tuple
+		 * @throws StorageManagerException
+		 * @throws RejectedException
+		 */
+		public void insertTuple(final Tuple tuple) throws StorageManagerException, RejectedException {
+			final Hyperrectangle tupleBBox = tuple.getBoundingBox();
+
+			if(space.intersects(tupleBBox)) {
+				storageManager.put(tuple, storeOnDisk, true);
+			} else { 
+				logger.debug("Not inserting into region {} because {} not insertect {}", regionId, 
+						tupleBBox, space);
+			}
+		}
+	}
 }
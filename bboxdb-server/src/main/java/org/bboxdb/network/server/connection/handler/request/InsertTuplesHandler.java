@@ -0,0 +1,246 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.server.connection.handler.request;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import org.bboxdb.commons.RejectedException;
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.distribution.DistributionGroupConfigurationCache;
+import org.bboxdb.network.packages.PackageEncodeException;
+import org.bboxdb.network.packages.request.InsertTuplesRequest;
+import org.bboxdb.network.packages.response.ErrorResponse;
+import org.bboxdb.network.routing.DistributionRegionHandlingFlag;
+import org.bboxdb.network.routing.PackageRouter;
+import org.bboxdb.network.routing.RoutingHeader;
+import org.bboxdb.network.routing.RoutingHop;
+import org.bboxdb.network.server.connection.ClientConnectionHandler;
+import org.bboxdb.network.server.connection.lock.LockManager;
+import org.bboxdb.network.server.query.ErrorMessages;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.entity.DistributionGroupConfiguration;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.prometheus.client.Gauge;
+
+public class InsertTuplesHandler extends InsertTupleHandler {
+
+	/**
+	 * The maximal amount of failed tuples that are reported in the error message
+	 */
+	private final static int MAX_REPORTED_FAILURES = 10;
+
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(InsertTuplesHandler.class);
+
+	/**
+	 * The number of read batch insert packages
+	 */
+	private final static Gauge readInsertTuplesPackagesTotal = Gauge.build()
+			.name("bboxdb_network_read_insert_tuples_packages_total")
+			.help("Total amount read batch insert network packages").register();
+
+	/**
+	 * The number of tuples read from batch insert packages
+	 */
+	private final static Gauge readInsertTuplesTotal = Gauge.build()
+			.name("bboxdb_network_read_insert_tuples_total")
+			.help("Total amount of tuples read from batch insert network packages").register();
+
+	@Override
+	/**
+	 * Handle the batch insert request. All tuples share the routing header, the
+	 * client gets one response for the whole batch. Tuples that could not be
+	 * inserted are listed in the error response. The stored tuples are routed 
+	 * to the next hop also when some tuples have failed, so that the replicas 
+	 * stay consistent.
+	 */
+	public boolean handleRequest(final ByteBuffer encodedPackage,
+			final int packageSequence, final ClientConnectionHandler clientConnectionHandler)
+					throws IOException, PackageEncodeException {
+
+		if(logger.isDebugEnabled()) {
+			logger.debug("Got insert tuples request");
+		}
+
+		try {
+			final InsertTuplesRequest insertTuplesRequest = InsertTuplesRequest.decodeTuples(encodedPackage);
+			readInsertTuplesPackagesTotal.inc();
+			readInsertTuplesTotal.inc(insertTuplesRequest.getTuples().size());
+
+			final RoutingHeader routingHeader = insertTuplesRequest.getRoutingHeader();
+
+			if(! routingHeader.isRoutedPackage()) {
+				final String errorMessage = ErrorMessages.ERROR_PACKAGE_NOT_ROUTED;
+				logger.error(errorMessage);
+				final ErrorResponse responsePackage = new ErrorResponse(packageSequence, errorMessage);
+				clientConnectionHandler.writeResultPackage(responsePackage);
+				return true;
+			}
+
+			final List<Tuple> storedTuples = new ArrayList<>();
+			final List<String> failedTuples = processPackageLocally(clientConnectionHandler,
+					insertTuplesRequest, storedTuples);
+
+			final PackageRouter packageRouter = clientConnectionHandler.getPackageRouter();
+
+			if(failedTuples.isEmpty()) {
+				packageRouter.performInsertPackageRoutingAsync(packageSequence, insertTuplesRequest);
+				return true;
+			}
+
+			final String errorMessage = buildBatchErrorMessage(failedTuples);
+
+			if(storedTuples.isEmpty()) {
+				final ErrorResponse responsePackage = new ErrorResponse(packageSequence, errorMessage);
+				clientConnectionHandler.writeResultPackage(responsePackage);
+				return true;
+			}
+
+			// Route the stored tuples, the partial failure is reported after the routing
+			packageRouter.performInsertPackageRoutingAsync(packageSequence, insertTuplesRequest,
+					storedTuples, (success) -> {
+						final String message = success ? errorMessage 
+								: errorMessage + " " + ErrorMessages.ERROR_ROUTING_FAILED;
+						final ErrorResponse responsePackage = new ErrorResponse(packageSequence, message);
+						clientConnectionHandler.writeResultPackageNE(responsePackage);
+					});
+		} catch(RejectedException e) {
+			final String errorMessage = buildErrorMessage(ErrorMessages.ERROR_LOCAL_OPERATION_REJECTED_RETRY, e);
+			final ErrorResponse responsePackage = new ErrorResponse(packageSequence, errorMessage);
+			clientConnectionHandler.writeResultPackage(responsePackage);
+		} catch (Throwable e) {
+			logger.error("Error while inserting tuples", e);
+			final String errorMessage = buildErrorMessage(ErrorMessages.ERROR_EXCEPTION, e);
+			final ErrorResponse responsePackage = new ErrorResponse(packageSequence, errorMessage);
+			clientConnectionHandler.writeResultPackage(responsePackage);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Insert the tuples into the local tuple stores. The tables and the region
+	 * spaces are resolved only once per batch.
+	 *
+	 * @param clientConnectionHandler
+	 * @param insertTuplesRequest
+	 * @param storedTuples - the inserted tuples are added to this list
+	 * @return the description of the tuples that could not be inserted
+	 * @throws Exception
+	 */
+	private List<String> processPackageLocally(final ClientConnectionHandler clientConnectionHandler,
+			final InsertTuplesRequest insertTuplesRequest, final List<Tuple> storedTuples) throws Exception {
+
+		final TupleStoreName requestTable = insertTuplesRequest.getTable();
+		final List<Tuple> tuples = insertTuplesRequest.getTuples();
+
+		final RoutingHop localHop = insertTuplesRequest.getRoutingHeader().getRoutingHop();
+		PackageRouter.checkLocalSystemNameMatchesAndThrowException(localHop);
+
+		final String distributionGroup = requestTable.getDistributionGroup();
+		final DistributionGroupConfiguration groupConfiguration = DistributionGroupConfigurationCache
+				.getInstance().getDistributionGroupConfiguration(distributionGroup);
+		final int groupDimensions = groupConfiguration.getDimensions();
+
+		final Map<Long, EnumSet<DistributionRegionHandlingFlag>> distributionRegions = localHop.getDistributionRegions();
+		final List<LocalInsertTarget> insertTargets = getLocalInsertTargets(requestTable,
+				clientConnectionHandler.getStorageRegistry(), distributionRegions);
+
+		final LockManager lockManager = clientConnectionHandler.getLockManager();
+		final String table = requestTable.getFullnameWithoutPrefix();
+		final List<String> failedTuples = new ArrayList<>();
+
+		for(int i = 0; i < tuples.size(); i++) {
+			final Tuple tuple = tuples.get(i);
+			final Hyperrectangle boundingBox = tuple.getBoundingBox();
+
+			// Does the tuple have the right dimension?
+			if(! boundingBox.equals(Hyperrectangle.FULL_SPACE)
+					&& boundingBox.getDimension() != groupDimensions) {
+
+				failedTuples.add(getFailedTupleDescription(i, tuple,
+						ErrorMessages.ERROR_TUPLE_HAS_WRONG_DIMENSION + " Group "
+						+ groupDimensions + " tuple " + boundingBox.getDimension()));
+				continue;
+			}
+
+			// Remove old locks
+			lockManager.removeLockForConnectionAndKey(clientConnectionHandler, table, tuple.getKey());
+
+			try {
+				for(final LocalInsertTarget insertTarget : insertTargets) {
+					insertTarget.insertTuple(tuple);
+				}
+
+				storedTuples.add(tuple);
+			} catch(StorageManagerException e) {
+				logger.error("Unable to insert tuple " + tuple.getKey(), e);
+				failedTuples.add(getFailedTupleDescription(i, tuple, e.getMessage()));
+			}
+		}
+
+		return failedTuples;
+	}
+
+	/**
+	 * Get the description of a failed tuple
+	 * @param position
+	 * @param tuple
+	 * @param message
+	 * @return
+	 */
+	private String getFailedTupleDescription(final int position, final Tuple tuple,
+			final String message) {
+
+		return "[position=" + position + ", key=" + tuple.getKey() + ", error=" + message + "]";
+	}
+
+	/**
+	 * Build the error message for the failed tuples of the batch
+	 * @param failedTuples
+	 * @return
+	 */
+	private String buildBatchErrorMessage(final List<String> failedTuples) {
+		final StringBuilder sb = new StringBuilder(ErrorMessages.ERROR_BATCH_INSERT_FAILED);
+		sb.append(" (" + failedTuples.size() + " failed)");
+
+		final int reportedFailures = Math.min(failedTuples.size(), MAX_REPORTED_FAILURES);
+
+		for(int i = 0; i < reportedFailures; i++) {
+			sb.append(" ");
+			sb.append(failedTuples.get(i));
+		}
+
+		if(failedTuples.size() > reportedFailures) {
+			sb.append(" and " + (failedTuples.size() - reportedFailures) + " more");
+		}
+
+		return sb.toString();
+	}
+}
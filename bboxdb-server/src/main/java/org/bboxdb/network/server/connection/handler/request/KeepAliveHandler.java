@@ -63,7 +63,7 @@ public class KeepAliveHandler implements RequestHandler {
 	 */
 	@Override
 	public boolean handleRequest(final ByteBuffer encodedPackage, 
-			final short packageSequence, final ClientConnectionHandler clientConnectionHandler) 
+			final int packageSequence, final ClientConnectionHandler clientConnectionHandler) 
 					throws IOException, PackageEncodeException {
 
 		this.clientConnectionHandler = clientConnectionHandler;
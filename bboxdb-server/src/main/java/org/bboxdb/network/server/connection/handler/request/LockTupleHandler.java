@@ -63,11 +63,11 @@ public class LockTupleHandler implements RequestHandler {
 	 * Lock the given tuple
 	 */
 	public boolean handleRequest(final ByteBuffer encodedPackage,
-			final short packageSequence, final ClientConnectionHandler clientConnectionHandler) throws IOException, PackageEncodeException {
+			final int packageSequence, final ClientConnectionHandler clientConnectionHandler) throws IOException, PackageEncodeException {
 
 		try {
 			final LockTupleRequest request = LockTupleRequest.decodeTuple(encodedPackage);
-			final short sequenceNumber = request.getSequenceNumber();
+			final int sequenceNumber = request.getSequenceNumber();
 			final String table = request.getTablename();
 			final String key = request.getKey();
 			final long version = request.getVersion();
@@ -41,11 +41,11 @@ public class NextPageHandler implements RequestHandler {
 	 * Handle the next page package
 	 */
 	public boolean handleRequest(final ByteBuffer encodedPackage, 
-			final short packageSequence, final ClientConnectionHandler clientConnectionHandler) 
+			final int packageSequence, final ClientConnectionHandler clientConnectionHandler) 
 					throws IOException, PackageEncodeException {
 		try {
 			final NextPageRequest nextPagePackage = NextPageRequest.decodeTuple(encodedPackage);
-			final short querySequence = nextPagePackage.getQuerySequence();
+			final int querySequence = nextPagePackage.getQuerySequence();
 			
 			logger.debug("Next page for query {} called", querySequence);
 			
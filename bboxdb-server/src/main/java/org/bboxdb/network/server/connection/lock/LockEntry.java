@@ -27,7 +27,7 @@ public class LockEntry {
 	/**
 	 * The sequence number
 	 */
-	private final short sequenceNumber;
+	private final int sequenceNumber;
 	
 	/**
 	 * The table
@@ -49,7 +49,7 @@ public class LockEntry {
 	 */
 	private boolean deleteOnTimeout;
 	
-	public LockEntry(final Object lockObject, final short sequenceNumber, final String table, 
+	public LockEntry(final Object lockObject, final int sequenceNumber, final String table, 
 			final String key, final long version, final boolean deleteOnTimeout) {
 		
 		this.lockObject = lockObject;
@@ -88,7 +88,7 @@ public class LockEntry {
 	 * Get the sequence number
 	 * @return
 	 */
-	public short getSequenceNumber() {
+	public int getSequenceNumber() {
 		return sequenceNumber;
 	}
 	
@@ -124,7 +124,7 @@ public class LockEntry {
 	 * @param sequence
 	 * @return
 	 */
-	public boolean lockObjectAndSequenceMatches(final Object lockObject, final short sequence) {
+	public boolean lockObjectAndSequenceMatches(final Object lockObject, final int sequence) {
 		return this.lockObject.equals(lockObject)  && this.sequenceNumber == sequence;
 	}
 
@@ -17,10 +17,15 @@
  *******************************************************************************/
 package org.bboxdb.network.server.connection.lock;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import com.google.common.collect.Sets;
 
@@ -36,12 +41,20 @@ public class LockManager {
 			.help("Total amount of active tuple locks").register();
 	
 	/**
-	 * The hold locks
+	 * The hold locks <(Table, Key), Lock>
 	 */
-	private final Set<LockEntry> locks;
+	private final Map<TableAndKey, LockEntry> locks;
+	
+	/**
+	 * The hold locks per lock object (e.g., the connection). All modifications 
+	 * for a lock object are performed atomically by computing the entry of 
+	 * this map. 
+	 */
+	private final Map<Object, Set<LockEntry>> locksPerObject;
 	
 	public LockManager() {
-		this.locks = Sets.newConcurrentHashSet(); 
+		this.locks = new ConcurrentHashMap<>();
+		this.locksPerObject = new ConcurrentHashMap<>();
 	}
 	
 	/**
@@ -53,22 +66,33 @@ public class LockManager {
 	 * @param deleteOnTimeout 
 	 * @return
 	 */
-	public boolean lockTuple(final Object lockObject, final short sequenceNumber, final String table,
+	public boolean lockTuple(final Object lockObject, final int sequenceNumber, final String table,
 			final String key, final long version, final boolean deleteOnTimeout) {
 		
 		final LockEntry lockEntry = new LockEntry(lockObject, sequenceNumber, table, key, 
 				version, deleteOnTimeout);
 		
-		synchronized (this) {
-			if(locks.stream().anyMatch(e -> e.tableAndKeyMatches(table, key))) {
-				return false;
+		final TableAndKey tableAndKey = new TableAndKey(table, key);
+		final AtomicBoolean lockResult = new AtomicBoolean(false);
+		
+		locksPerObject.compute(lockObject, (o, objectLocks) -> {
+			if(locks.putIfAbsent(tableAndKey, lockEntry) != null) {
+				return objectLocks;
 			}
-						
-			locks.add(lockEntry);
+			
+			final Set<LockEntry> newObjectLocks 
+				= (objectLocks == null) ? Sets.newConcurrentHashSet() : objectLocks;
+			
+			newObjectLocks.add(lockEntry);
+			lockResult.set(true);
+			return newObjectLocks;
+		});
+		
+		if(lockResult.get()) {
 			activeLocksTotal.set(locks.size());
 		}
 		
-		return true;
+		return lockResult.get();
 	}
 	
 	/**
@@ -77,9 +101,7 @@ public class LockManager {
 	 * @return 
 	 */
 	public List<LockEntry> removeAllLocksForObject(final Object lockObject) {
-		final Predicate<? super LockEntry> removePredicate = e -> e.getLockObject().equals(lockObject);
-		
-		return removeForPredicate(removePredicate);
+		return removeForPredicate(lockObject, e -> true);
 	}
 	
 	/**
@@ -88,11 +110,13 @@ public class LockManager {
 	 * @return
 	 */
 	public List<LockEntry> getAllLocksForObject(final Object lockObject) {
-		final Predicate<? super LockEntry> predicate = e -> e.getLockObject().equals(lockObject);
+		final Set<LockEntry> objectLocks = locksPerObject.get(lockObject);
 		
-		return locks.stream()
-				.filter(e -> predicate.test(e))
-				.collect(Collectors.toList());
+		if(objectLocks == null) {
+			return new ArrayList<>();
+		}
+		
+		return new ArrayList<>(objectLocks);
 	}
 	
 	/**
@@ -101,27 +125,41 @@ public class LockManager {
 	 * @param sequence
 	 * @return
 	 */
-	public List<LockEntry> removeAllForLocksForObjectAndSequence(final Object lockObject, final short sequence) {
-		final Predicate<? super LockEntry> removePredicate = e -> e.lockObjectAndSequenceMatches(lockObject, 
-				sequence);
-		
-		return removeForPredicate(removePredicate);
+	public List<LockEntry> removeAllForLocksForObjectAndSequence(final Object lockObject, final int sequence) {
+		return removeForPredicate(lockObject, e -> e.getSequenceNumber() == sequence);
 	}
 
 	/**
-	 * Remove and return all elements for the given prediate from the
-	 * locks data structure
+	 * Remove and return all elements of the lock object for the given 
+	 * predicate from the locks data structures
+	 * @param lockObject
 	 * @param removePredicate
 	 * @return
 	 */
-	private List<LockEntry> removeForPredicate(final Predicate<? super LockEntry> removePredicate) {
+	private List<LockEntry> removeForPredicate(final Object lockObject, 
+			final Predicate<? super LockEntry> removePredicate) {
+		
+		final List<LockEntry> elementsToRemove = new ArrayList<>();
 		
-		final List<LockEntry> elementsToRemove = locks.stream()
-				.filter(removePredicate)
-				.collect(Collectors.toList());
+		locksPerObject.computeIfPresent(lockObject, (o, objectLocks) -> {
+			final Iterator<LockEntry> iterator = objectLocks.iterator();
+			
+			while(iterator.hasNext()) {
+				final LockEntry lockEntry = iterator.next();
 				
-		locks.removeAll(elementsToRemove);
-		activeLocksTotal.set(locks.size());
+				if(removePredicate.test(lockEntry)) {
+					iterator.remove();
+					locks.remove(new TableAndKey(lockEntry.getTable(), lockEntry.getKey()), lockEntry);
+					elementsToRemove.add(lockEntry);
+				}
+			}
+			
+			return objectLocks.isEmpty() ? null : objectLocks;
+		});
+		
+		if(! elementsToRemove.isEmpty()) {
+			activeLocksTotal.set(locks.size());
+		}
 
 		return elementsToRemove;
 	}
@@ -135,13 +173,73 @@ public class LockManager {
 	public List<LockEntry> removeLockForConnectionAndKey(final Object lockObject, 
 			final String table, final String key) {
 		
-		final List<LockEntry> locksToRemove = locks.stream()
-				.filter(e -> e.getLockObject().equals(lockObject) && e.tableAndKeyMatches(table, key))
-				.collect(Collectors.toList());
+		final LockEntry lockEntry = locks.get(new TableAndKey(table, key));
+		
+		// Fast path, the tuple is not locked by the lock object
+		if(lockEntry == null || ! lockEntry.getLockObject().equals(lockObject)) {
+			return Collections.emptyList();
+		}
+		
+		return removeForPredicate(lockObject, e -> e == lockEntry);
+	}
+	
+	/**
+	 * Get the amount of hold locks
+	 * @return
+	 */
+	public int getNumberOfLocks() {
+		return locks.size();
+	}
+	
+	/**
+	 * The key of the lock table
+	 */
+	private static class TableAndKey {
 		
-		locks.removeAll(locksToRemove);
-		activeLocksTotal.set(locks.size());
+		/**
+		 * The table
+		 */
+		private final String table;
 		
-		return locksToRemove;
+		/**
+		 * The key
+		 */
+		private final String key;
+
+		public TableAndKey(final String table, final String key) {
+			this.table = table;
+			this.key = key;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((key == null) ? 0 : key.hashCode());
+			result = prime * result + ((table == null) ? 0 : table.hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			TableAndKey other = (TableAndKey) obj;
+			if (key == null) {
+				if (other.key != null)
+					return false;
+			} else if (!key.equals(other.key))
+				return false;
+			if (table == null) {
+				if (other.table != null)
+					return false;
+			} else if (!table.equals(other.table))
+				return false;
+			return true;
+		}
 	}
 }
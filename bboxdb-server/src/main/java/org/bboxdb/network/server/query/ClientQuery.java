@@ -31,7 +31,7 @@ public interface ClientQuery extends Closeable {
 	 * @throws PackageEncodeException 
 	 * @throws IOException 
 	 */
-	public void fetchAndSendNextTuples(short packageSequence) throws IOException, PackageEncodeException;
+	public void fetchAndSendNextTuples(int packageSequence) throws IOException, PackageEncodeException;
 
 	/**
 	 * Is the current query done
@@ -115,4 +115,8 @@ public class ErrorMessages {
 	 */
 	public final static String ERROR_TUPLE_HAS_WRONG_DIMENSION = "The tuple has the wrong dimension for the group";
 
+	/**
+	 * Some tuples of a batch insert are failed
+	 */
+	public final static String ERROR_BATCH_INSERT_FAILED = "Unable to insert some tuples of the batch";
 }
@@ -19,8 +19,11 @@ package org.bboxdb.network.server.query;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import org.bboxdb.commons.DuplicateResolver;
 import org.bboxdb.distribution.partitioner.SpacePartitioner;
@@ -36,6 +39,7 @@ import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.entity.MultiTuple;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.sstable.duplicateresolver.KeyGroupingDuplicateResolver;
 import org.bboxdb.storage.sstable.duplicateresolver.TupleDuplicateResolverFactory;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
@@ -49,14 +53,17 @@ import org.slf4j.LoggerFactory;
  *
  * All tuples for a given key needs to be computed at once
  * so that the duplicates can be removed
+ * 
+ * Multiple keys are resolved together (sorted index probes
+ * per SSTable) and returned in one result stream
  *
  */
 public class KeyClientQuery implements ClientQuery {
 
 	/**
-	 * The key to query
+	 * The keys to query
 	 */
-	protected final String key;
+	protected final SortedSet<String> keys;
 
 	/**
 	 * Page the result
@@ -76,7 +83,7 @@ public class KeyClientQuery implements ClientQuery {
 	/**
 	 * The package sequence of the query
 	 */
-	protected final short querySequence;
+	protected final int querySequence;
 
 	/**
 	 * The request table
@@ -89,7 +96,7 @@ public class KeyClientQuery implements ClientQuery {
 	protected long totalSendTuples;
 
 	/**
-	 * The tuples for the given key
+	 * The tuples for the given keys
 	 */
 	protected final List<Tuple> tuplesForKey = new ArrayList<>();
 
@@ -101,9 +108,17 @@ public class KeyClientQuery implements ClientQuery {
 
 	public KeyClientQuery(final String key, final boolean pageResult, final short tuplesPerPage,
 			final ClientConnectionHandler clientConnectionHandler,
-			final short querySequence, final TupleStoreName requestTable) {
+			final int querySequence, final TupleStoreName requestTable) {
 
-			this.key = key;
+			this(new TreeSet<>(Arrays.asList(key)), pageResult, tuplesPerPage,
+					clientConnectionHandler, querySequence, requestTable);
+	}
+
+	public KeyClientQuery(final SortedSet<String> keys, final boolean pageResult, final short tuplesPerPage,
+			final ClientConnectionHandler clientConnectionHandler,
+			final int querySequence, final TupleStoreName requestTable) {
+
+			this.keys = keys;
 			this.pageResult = pageResult;
 			this.tuplesPerPage = tuplesPerPage;
 			this.clientConnectionHandler = clientConnectionHandler;
@@ -116,7 +131,7 @@ public class KeyClientQuery implements ClientQuery {
 	}
 
 	/**
-	 * Fetch the tuples for the given key and remove the duplicates
+	 * Fetch the tuples for the given keys and remove the duplicates
 	 */
 	protected void computeTuples() {
 		try {
@@ -140,19 +155,19 @@ public class KeyClientQuery implements ClientQuery {
 				final TupleStoreManager storageManager = storageRegistry
 						.getTupleStoreManager(tupleStoreName);
 
-				final List<Tuple> tuplesInTable = storageManager.get(key);
+				final List<Tuple> tuplesInTable = storageManager.get(keys);
 				tuplesForKey.addAll(tuplesInTable);
 			}
 
 			removeDuplicates(localTables);
 		} catch (BBoxDBException | StorageManagerException e) {
-			logger.error("Got an exception while fetching tuples for key " + key, e);
+			logger.error("Got an exception while fetching tuples for keys " + keys, e);
 			tuplesForKey.clear();
 		}
 	}
 
 	/**
-	 * Remove the duplicates for the given key
+	 * Remove the duplicates for the given keys
 	 * @param localTables
 	 * @throws StorageManagerException
 	 */
@@ -167,14 +182,14 @@ public class KeyClientQuery implements ClientQuery {
 				.getStorageRegistry()
 				.getTupleStoreManager(localTables.get(0));
 
-		final DuplicateResolver<Tuple> duplicateResolver
-			= TupleDuplicateResolverFactory.build(storageManager.getTupleStoreConfiguration());
+		final DuplicateResolver<Tuple> duplicateResolver = new KeyGroupingDuplicateResolver(
+				TupleDuplicateResolverFactory.build(storageManager.getTupleStoreConfiguration()));
 
 		duplicateResolver.removeDuplicates(tuplesForKey);
 	}
 
 	@Override
-	public void fetchAndSendNextTuples(final short packageSequence) throws IOException, PackageEncodeException {
+	public void fetchAndSendNextTuples(final int packageSequence) throws IOException, PackageEncodeException {
 
 		long sendTuplesInThisPage = 0;
 		clientConnectionHandler.writeResultPackage(new MultipleTupleStartResponse(packageSequence));
@@ -194,7 +209,7 @@ public class KeyClientQuery implements ClientQuery {
 
 			final MultiTuple joinedTuple = new MultiTuple(tuple, requestTable.getFullname());
 
-			clientConnectionHandler.writeResultTuple(packageSequence, joinedTuple, false);
+			clientConnectionHandler.writeResultTuple(packageSequence, joinedTuple, false, false);
 			totalSendTuples++;
 			sendTuplesInThisPage++;
 		}
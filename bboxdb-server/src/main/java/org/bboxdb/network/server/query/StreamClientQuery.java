@@ -31,13 +31,16 @@ import org.bboxdb.distribution.partitioner.SpacePartitionerCache;
 import org.bboxdb.distribution.region.DistributionRegionIdMapper;
 import org.bboxdb.distribution.zookeeper.ZookeeperException;
 import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.network.entity.OperatorProfile;
 import org.bboxdb.network.packages.PackageEncodeException;
 import org.bboxdb.network.packages.response.MultipleTupleEndResponse;
 import org.bboxdb.network.packages.response.MultipleTupleStartResponse;
 import org.bboxdb.network.packages.response.PageEndResponse;
+import org.bboxdb.network.packages.response.QueryProfileResponse;
 import org.bboxdb.network.server.connection.ClientConnectionHandler;
 import org.bboxdb.query.queryprocessor.OperatorTreeBuilder;
 import org.bboxdb.query.queryprocessor.operator.Operator;
+import org.bboxdb.query.queryprocessor.operator.ProfilingOperator;
 import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.entity.MultiTuple;
 import org.bboxdb.storage.entity.TupleStoreName;
@@ -86,7 +89,7 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 	/**
 	 * The package sequence of the query
 	 */
-	protected final short querySequence;
+	protected final int querySequence;
 
 	/**
 	 * The total amount of send tuples
@@ -98,6 +101,21 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 	 */
 	private final List<TupleStoreName> requestTables;
 
+	/**
+	 * Send the profile of the operator trees to the client
+	 */
+	protected final boolean profilingEnabled;
+
+	/**
+	 * The merged profile of the already executed operator trees
+	 */
+	protected OperatorProfile operatorProfile;
+
+	/**
+	 * The wall time spent for writing the results
+	 */
+	protected long resultWriteNanos;
+
 	/**
 	 * The Logger
 	 */
@@ -105,8 +123,18 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 
 	public StreamClientQuery(final OperatorTreeBuilder operatorTreeBuilder, final boolean pageResult,
 			final short tuplesPerPage, final ClientConnectionHandler clientConnectionHandler,
-			final short querySequence, final List<TupleStoreName> requestTables) {
+			final int querySequence, final List<TupleStoreName> requestTables) {
 
+		this(operatorTreeBuilder, pageResult, tuplesPerPage, clientConnectionHandler,
+				querySequence, requestTables, false);
+	}
+
+	public StreamClientQuery(final OperatorTreeBuilder operatorTreeBuilder, final boolean pageResult,
+			final short tuplesPerPage, final ClientConnectionHandler clientConnectionHandler,
+			final int querySequence, final List<TupleStoreName> requestTables,
+			final boolean profilingEnabled) {
+
+		this.profilingEnabled = profilingEnabled;
 		this.operatorTreeBuilder = operatorTreeBuilder;
 		this.pageResult = pageResult;
 		this.tuplesPerPage = tuplesPerPage;
@@ -167,6 +195,8 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 	 * Close the iterator
 	 */
 	protected void closeIteratorNE() {
+		updateOperatorProfile();
+
 		CloseableHelper.closeWithoutException(activeOperator,
 				(e) -> logger.warn("Got an exception while closing operator", e));
 
@@ -174,11 +204,47 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 		activeOperatorIterator = null;
 	}
 
+	/**
+	 * Merge the profile of the active operator tree into the query profile
+	 */
+	private void updateOperatorProfile() {
+		if(! (activeOperator instanceof ProfilingOperator)) {
+			return;
+		}
+
+		final OperatorProfile activeProfile = ((ProfilingOperator) activeOperator).getProfile();
+
+		if(operatorProfile == null) {
+			operatorProfile = activeProfile;
+		} else {
+			operatorProfile = operatorProfile.merge(activeProfile);
+		}
+	}
+
+	/**
+	 * Send the profile of the query to the client
+	 * @param packageSequence
+	 * @throws IOException
+	 * @throws PackageEncodeException
+	 */
+	private void sendQueryProfile(final int packageSequence) throws IOException, PackageEncodeException {
+		final List<OperatorProfile> inputs = new ArrayList<>();
+
+		if(operatorProfile != null) {
+			inputs.add(operatorProfile);
+		}
+
+		final OperatorProfile resultWriterProfile = new OperatorProfile("ResultWriter",
+				totalSendTuples, totalSendTuples, resultWriteNanos, 0, inputs);
+
+		clientConnectionHandler.writeResultPackage(new QueryProfileResponse(packageSequence, resultWriterProfile));
+	}
+
 	/* (non-Javadoc)
 	 * @see org.bboxdb.network.server.ClientQuery#fetchAndSendNextTuples(short)
 	 */
 	@Override
-	public void fetchAndSendNextTuples(final short packageSequence) throws IOException, PackageEncodeException {
+	public void fetchAndSendNextTuples(final int packageSequence) throws IOException, PackageEncodeException {
 
 		long sendTuplesInThisPage = 0;
 		clientConnectionHandler.writeResultPackage(new MultipleTupleStartResponse(packageSequence));
@@ -205,7 +271,14 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 				// Send next tuple
 				final MultiTuple tuple = activeOperatorIterator.next();
 
-				clientConnectionHandler.writeResultTuple(packageSequence, tuple, false);
+				if(profilingEnabled) {
+					final long startTime = System.nanoTime();
+					clientConnectionHandler.writeResultTuple(packageSequence, tuple, false, false);
+					resultWriteNanos += System.nanoTime() - startTime;
+				} else {
+					clientConnectionHandler.writeResultTuple(packageSequence, tuple, false, false);
+				}
+
 				totalSendTuples++;
 				sendTuplesInThisPage++;
 			}
@@ -213,6 +286,11 @@ public class StreamClientQuery implements Closeable, ClientQuery {
 			closeIteratorNE();
 		}
 
+		// The profile is send before the end package, the client future is done afterwards
+		if(profilingEnabled) {
+			sendQueryProfile(packageSequence);
+		}
+
 		// All tuples are send
 		clientConnectionHandler.writeResultPackage(new MultipleTupleEndResponse(packageSequence));
 		clientConnectionHandler.flushPendingCompressionPackages();
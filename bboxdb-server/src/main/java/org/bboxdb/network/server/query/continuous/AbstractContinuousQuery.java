@@ -19,6 +19,8 @@ package org.bboxdb.network.server.query.continuous;
 
 import java.util.function.BiConsumer;
 
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.network.server.query.continuous.ContinuousQueryExecutionState.EvictedKeys;
 import org.bboxdb.query.ContinuousQueryPlan;
 import org.bboxdb.storage.entity.DeletedTuple;
 import org.bboxdb.storage.entity.InvalidationTuple;
@@ -53,11 +55,21 @@ public abstract class AbstractContinuousQuery<T extends ContinuousQueryPlan> imp
 	protected boolean processSpecialTuples(final TupleStoreName tupleStoreName, final Tuple streamTuple) {
 		
 		if(streamTuple instanceof DeletedTuple) {
+			handleDeletedTuple(streamTuple);
 			return false;
 		}
 		
 		if(streamTuple instanceof WatermarkTuple) {
 			
+			final long watermark = streamTuple.getVersionTimestamp();
+			final EvictedKeys evictedKeys = continuousClientQuery.getContinuousQueryState()
+					.handleWatermark(watermark);
+			
+			// Evicted keys are reported before the watermark
+			if(queryPlan.isReceiveInvalidations() && ! evictedKeys.isEmpty()) {
+				handleEvictedKeys(evictedKeys, watermark);
+			}
+			
 			if(queryPlan.isReceiveWatermarks()) {
 				final MultiTuple joinedTuple = ContinuousQueryHelper.getWatermarkTuple(tupleStoreName, streamTuple);
 				continuousClientQuery.queueTupleForClientProcessing(joinedTuple);
@@ -81,9 +93,66 @@ public abstract class AbstractContinuousQuery<T extends ContinuousQueryPlan> imp
 		return true;
 	}
 
+	/**
+	 * Get the range of the stream tuples that can produce a result for this query. 
+	 * The range is used to dispatch only the relevant tuples to the query.
+	 * 
+	 * @return the range or null, if the query needs to process every tuple
+	 */
+	public Hyperrectangle getDispatchRange() {
+		
+		// Non matching tuples can produce invalidations
+		if(queryPlan.isReceiveInvalidations()) {
+			return null;
+		}
+		
+		final Hyperrectangle matchRange = getMatchRange();
+		
+		if(matchRange == null || matchRange == Hyperrectangle.FULL_SPACE) {
+			return null;
+		}
+		
+		return ContinuousQueryHelper.getStreamTupleRange(queryPlan.getStreamTransformation(), 
+				matchRange);
+	}
+	
+	/**
+	 * Get the range that the transformed stream tuples need to intersect 
+	 * to produce a result
+	 * 
+	 * @return the range or null, if also non intersecting tuples produce results
+	 */
+	protected abstract Hyperrectangle getMatchRange();
+	
 	/**
 	 * Handle the global invalidation tuple
 	 * @param tuple
 	 */
 	protected abstract void handleInvalidationTuple(final Tuple tuple);
+	
+	/**
+	 * Handle the keys that are evicted from the state of the query. The
+	 * results of these keys are invalidated.
+	 * 
+	 * @param evictedKeys
+	 * @param version - the version of the invalidations
+	 */
+	protected void handleEvictedKeys(final EvictedKeys evictedKeys, final long version) {
+		// Default: no state, no invalidations
+	}
+	
+	/**
+	 * Handle the deletion of a stream key
+	 * @param tuple
+	 */
+	protected void handleDeletedTuple(final Tuple tuple) {
+		// Default: deletions produce no results
+	}
+	
+	/**
+	 * Release the resources of the query, called when the query is closed
+	 */
+	public void close() {
+		// Default: nothing to release
+	}
 }
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.server.query.continuous;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bboxdb.storage.entity.MultiTuple;
+import org.bboxdb.storage.entity.Tuple;
+
+public class CoalescingResultBuffer {
+	
+	/**
+	 * The pending results, the key is the list of the tuple keys of the result. 
+	 * The map is in insertion order, an updated result is moved to the end.
+	 */
+	private final Map<List<String>, MultiTuple> pendingResults;
+	
+	/**
+	 * The max amount of pending results
+	 */
+	private final int maxSize;
+	
+	/**
+	 * The amount of results that are replaced by a newer version
+	 */
+	private long coalescedResults;
+	
+	/**
+	 * Is the buffer closed
+	 */
+	private boolean closed;
+	
+	public CoalescingResultBuffer(final int maxSize) {
+		this.pendingResults = new LinkedHashMap<>();
+		this.maxSize = maxSize;
+		this.coalescedResults = 0;
+		this.closed = false;
+	}
+	
+	/**
+	 * Get the coalescing key of the result
+	 * @param result
+	 * @return
+	 */
+	private static List<String> getResultKey(final MultiTuple result) {
+		final List<String> keys = new ArrayList<>(result.getNumberOfTuples());
+		
+		for(final Tuple tuple : result.getTuples()) {
+			keys.add(tuple.getKey());
+		}
+		
+		return keys;
+	}
+	
+	/**
+	 * Add the result, an older pending result with the same keys is replaced
+	 * 
+	 * @param result
+	 * @param waitForSpace - wait if the buffer is full, otherwise the result is discarded
+	 * @return true if the result was added
+	 * @throws InterruptedException
+	 */
+	public synchronized boolean put(final MultiTuple result, final boolean waitForSpace) 
+			throws InterruptedException {
+		
+		final List<String> resultKey = getResultKey(result);
+		
+		final MultiTuple oldResult = pendingResults.remove(resultKey);
+		
+		if(oldResult != null) {
+			coalescedResults++;
+			pendingResults.put(resultKey, result);
+			return true;
+		}
+		
+		while(pendingResults.size() >= maxSize) {
+			if(closed || ! waitForSpace) {
+				return false;
+			}
+			
+			wait();
+		}
+		
+		if(closed) {
+			return false;
+		}
+		
+		pendingResults.put(resultKey, result);
+		notifyAll();
+		
+		return true;
+	}
+	
+	/**
+	 * Remove up to max results from the buffer. Waits up to timeout 
+	 * milliseconds if the buffer is empty.
+	 * 
+	 * @param maxResults
+	 * @param timeout
+	 * @return the results, empty if the timeout has expired or the buffer is woken up
+	 * @throws InterruptedException
+	 */
+	public synchronized List<MultiTuple> drain(final int maxResults, final long timeout) 
+			throws InterruptedException {
+		
+		if(pendingResults.isEmpty() && ! closed && timeout > 0) {
+			wait(timeout);
+		}
+		
+		final List<MultiTuple> results = new ArrayList<>(Math.min(maxResults, pendingResults.size()));
+		final Iterator<MultiTuple> iterator = pendingResults.values().iterator();
+		
+		while(iterator.hasNext() && results.size() < maxResults) {
+			results.add(iterator.next());
+			iterator.remove();
+		}
+		
+		if(! results.isEmpty()) {
+			notifyAll();
+		}
+		
+		return results;
+	}
+	
+	/**
+	 * Wake up the waiting threads
+	 */
+	public synchronized void wakeup() {
+		notifyAll();
+	}
+	
+	/**
+	 * Close the buffer, pending results are discarded
+	 */
+	public synchronized void close() {
+		closed = true;
+		pendingResults.clear();
+		notifyAll();
+	}
+	
+	/**
+	 * Get the amount of pending results
+	 * @return
+	 */
+	public synchronized int size() {
+		return pendingResults.size();
+	}
+	
+	/**
+	 * Get the amount of results that are replaced by a newer version
+	 * @return
+	 */
+	public synchronized long getCoalescedResults() {
+		return coalescedResults;
+	}
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.server.query.continuous;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.misc.Const;
+import org.bboxdb.network.entity.TupleAndBoundingBox;
+import org.bboxdb.network.server.query.continuous.GridCellWindowAggregator.CellCount;
+import org.bboxdb.query.ContinuousAggregateQueryPlan;
+import org.bboxdb.query.filter.UserDefinedFilter;
+import org.bboxdb.query.transformation.TupleTransformation;
+import org.bboxdb.storage.entity.MultiTuple;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.entity.WatermarkTuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ContinuousAggregateQuery extends AbstractContinuousQuery<ContinuousAggregateQueryPlan> {
+
+	/**
+	 * The stream filters
+	 */
+	private final Map<UserDefinedFilter, byte[]> streamFilters;
+	
+	/**
+	 * The window aggregator
+	 */
+	private final GridCellWindowAggregator aggregator;
+	
+	/**
+	 * The prefix of the cell keys
+	 */
+	private final static String CELL_KEY_PREFIX = "cell_";
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(ContinuousAggregateQuery.class);
+	
+	public ContinuousAggregateQuery(final ContinuousClientQuery continuousClientQuery, 
+			final ContinuousAggregateQueryPlan queryPlan) {
+		
+		super(continuousClientQuery, queryPlan);
+		
+		this.streamFilters = ContinuousQueryHelper.getUserDefinedFilter(queryPlan.getStreamFilters());
+		this.aggregator = new GridCellWindowAggregator(queryPlan.getCellSize(), 
+				queryPlan.getWindowSize(), queryPlan.getWindowSlide());
+	}
+
+	@Override
+	public void accept(final TupleStoreName tupleStoreName, final Tuple streamTuple) {
+		
+		// Watermarks close the windows, the changed cells are send before the watermark
+		if(streamTuple instanceof WatermarkTuple) {
+			emitClosedWindows(streamTuple.getVersionTimestamp());
+		}
+		
+		final boolean processFurtherActions = processSpecialTuples(tupleStoreName, streamTuple);
+		
+		if(! processFurtherActions) {
+			return;
+		}
+		
+		final List<TupleTransformation> transformations = queryPlan.getStreamTransformation(); 
+		final TupleAndBoundingBox tuple = ContinuousQueryHelper.applyStreamTupleTransformations(
+				transformations, streamTuple);
+		
+		// Tuple was removed during transformation
+		if(tuple == null) {
+			return;
+		}
+		
+		if(! tuple.getBoundingBox().intersects(queryPlan.getQueryRange())) {
+			return;
+		}
+		
+		final boolean udfMatches = ContinuousQueryHelper.doUserDefinedFilterMatch(
+				queryPlan.getStreamTable(), streamTuple, streamFilters);
+		
+		if(! udfMatches) {
+			return;
+		}
+		
+		final boolean addResult;
+		
+		synchronized (aggregator) {
+			addResult = aggregator.addTuple(streamTuple.getKey(), tuple.getBoundingBox(), 
+					streamTuple.getVersionTimestamp());
+		}
+		
+		if(! addResult) {
+			logger.debug("Ignoring late tuple {} for aggregation", streamTuple.getKey());
+		}
+	}
+
+	/**
+	 * Send the changed cells of the windows that are closed by the watermark
+	 * @param watermark
+	 */
+	private void emitClosedWindows(final long watermark) {
+		
+		final List<CellCount> changedCells;
+		
+		synchronized (aggregator) {
+			changedCells = aggregator.advanceWatermark(watermark);
+		}
+		
+		for(final CellCount cellCount : changedCells) {
+			final List<Long> cell = cellCount.getCell();
+			
+			final String key = CELL_KEY_PREFIX + cell.stream()
+					.map(c -> Long.toString(c))
+					.collect(Collectors.joining("_"));
+			
+			final Hyperrectangle cellBoundingBox = aggregator.getCellBoundingBox(cell);
+			final byte[] value = Long.toString(cellCount.getCount()).getBytes(Const.DEFAULT_CHARSET);
+			
+			final Tuple cellTuple = new Tuple(key, cellBoundingBox, value, cellCount.getWindowEnd());
+			final MultiTuple result = new MultiTuple(cellTuple, queryPlan.getStreamTable());
+			continuousClientQuery.queueTupleForClientProcessing(result);
+		}
+	}
+	
+	@Override
+	protected Hyperrectangle getMatchRange() {
+		return queryPlan.getQueryRange();
+	}
+
+	@Override
+	protected void handleInvalidationTuple(final Tuple tuple) {
+		// Aggregations are not invalidated
+	}
+}
@@ -23,7 +23,6 @@ import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
-import java.util.function.BiConsumer;
 
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.distribution.partitioner.SpacePartitioner;
@@ -41,12 +40,12 @@ import org.bboxdb.network.packages.response.PageEndResponse;
 import org.bboxdb.network.server.connection.ClientConnectionHandler;
 import org.bboxdb.network.server.query.ClientQuery;
 import org.bboxdb.network.server.query.QueryHelper;
+import org.bboxdb.query.ContinuousAggregateQueryPlan;
 import org.bboxdb.query.ContinuousQueryPlan;
 import org.bboxdb.query.ContinuousRangeQueryPlan;
 import org.bboxdb.query.ContinuousSpatialJoinQueryPlan;
 import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.entity.MultiTuple;
-import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreName;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
@@ -68,7 +67,7 @@ public class ContinuousClientQuery implements ClientQuery {
 	/**
 	 * The package sequence of the query
 	 */
-	private final short querySequence;
+	private final int querySequence;
 
 	/**
 	 * The total amount of send tuples
@@ -96,14 +95,24 @@ public class ContinuousClientQuery implements ClientQuery {
 	private long lastFlushTime = System.currentTimeMillis();
 	
 	/**
-	 * The number of tuples per page
+	 * The max time before the page is flushed
 	 */
-	private final static long FLUSH_TIME_IN_MS = TimeUnit.SECONDS.toMillis(1);
+	private final long flushTimeInMs;
+	
+	/**
+	 * The max amount of tuples per page
+	 */
+	private final int maxTuplesPerPage;
+	
+	/**
+	 * The coalescing result buffer (null if the results are not coalesced)
+	 */
+	private final CoalescingResultBuffer coalescingBuffer;
 
 	/**
 	 * The tuple insert callback
 	 */
-	private final BiConsumer<TupleStoreName, Tuple> tupleInsertCallback;
+	private final AbstractContinuousQuery<?> tupleInsertCallback;
 
 	/**
 	 * The tuple store manager
@@ -123,7 +132,7 @@ public class ContinuousClientQuery implements ClientQuery {
 	/**
 	 * The query state
 	 */
-	private final ContinuousQueryExecutionState continuousQueryState = new ContinuousQueryExecutionState();
+	private final ContinuousQueryExecutionState continuousQueryState;
 
 	/**
 	 * The dead pill for the queue
@@ -143,7 +152,7 @@ public class ContinuousClientQuery implements ClientQuery {
 
 	public ContinuousClientQuery(final ContinuousQueryPlan queryPlan,
 			final ClientConnectionHandler clientConnectionHandler,
-			final short querySequence) {
+			final int querySequence) {
 
 			this.queryPlan = queryPlan;
 			this.boundingBox = queryPlan.getQueryRange();
@@ -155,6 +164,20 @@ public class ContinuousClientQuery implements ClientQuery {
 			final int queueSize = configuration.getContinuousClientQueueSize();
 			this.allowDiscardTuples = configuration.isAllowContinuousClientQueueDiscard();
 			this.tupleQueue = new LinkedBlockingQueue<>(queueSize);
+			this.flushTimeInMs = configuration.getContinuousClientFlushInterval();
+			this.maxTuplesPerPage = configuration.getContinuousClientBatchSize();
+			
+			// The TTL is applied to the version timestamps of the stream tuples and watermarks
+			final long stateTTL = configuration.getContinuousQueryTimestampUnitENUM().convert(
+					configuration.getContinuousQueryStateTTL(), TimeUnit.SECONDS);
+			this.continuousQueryState = new ContinuousQueryExecutionState(queryPlan.getQueryUUID(), 
+					configuration.getContinuousQueryStateMaxBytes(), stateTTL);
+			
+			if(configuration.isContinuousClientCoalesceResults()) {
+				this.coalescingBuffer = new CoalescingResultBuffer(queueSize);
+			} else {
+				this.coalescingBuffer = null;
+			}
 
 			this.totalSendTuples = 0;
 			this.tuplesInPage = 0;
@@ -167,6 +190,9 @@ public class ContinuousClientQuery implements ClientQuery {
 			} else if(queryPlan instanceof ContinuousSpatialJoinQueryPlan) {
 				final ContinuousSpatialJoinQueryPlan qp = (ContinuousSpatialJoinQueryPlan) queryPlan;
 				this.tupleInsertCallback = new ContinuousSpatialJoinQuery(this, qp);
+			} else if(queryPlan instanceof ContinuousAggregateQueryPlan) {
+				final ContinuousAggregateQueryPlan qp = (ContinuousAggregateQueryPlan) queryPlan;
+				this.tupleInsertCallback = new ContinuousAggregateQuery(this, qp);
 			} else { 
 				this.tupleInsertCallback = null;
 				logger.error("Unknown query type: " + queryPlan);
@@ -208,12 +234,16 @@ public class ContinuousClientQuery implements ClientQuery {
 			
 			logger.info("Starting new continuous client query (seq={}) on tables={}", querySequence, localTables);
 
+			final ContinuousQueryIndexRegistry queryIndexRegistry = ContinuousQueryIndexRegistry.getInstance();
+			final Hyperrectangle dispatchRange = tupleInsertCallback.getDispatchRange();
+
 			// Register insert new tuple callback
 			for(final TupleStoreName tupleStoreName : localTables) {
 				final TupleStoreManager tableStorageManager 
 					= QueryHelper.getTupleStoreManager(storageRegistry, tupleStoreName);
 				
-				final boolean registerResult = tableStorageManager.registerInsertCallback(tupleInsertCallback);
+				final boolean registerResult = queryIndexRegistry.registerQuery(tableStorageManager, 
+						tupleInsertCallback, dispatchRange);
 				
 				if(! registerResult) {
 					logger.error("Unable to register query callback on {}", tupleStoreName.getFullname());
@@ -236,6 +266,11 @@ public class ContinuousClientQuery implements ClientQuery {
 	 */
 	public void queueTupleForClientProcessing(final MultiTuple tuple) {
 		
+		if(coalescingBuffer != null) {
+			queueTupleForCoalescing(tuple);
+			return;
+		}
+		
 		if(allowDiscardTuples) {
 			final boolean insertResult = tupleQueue.offer(tuple);
 	
@@ -266,16 +301,35 @@ public class ContinuousClientQuery implements ClientQuery {
 		}
 	}
 
+	/**
+	 * Add the tuple to the coalescing buffer, an older pending result 
+	 * for the same keys is replaced
+	 * @param tuple
+	 */
+	private void queueTupleForCoalescing(final MultiTuple tuple) {
+		try {
+			final boolean insertResult = coalescingBuffer.put(tuple, ! allowDiscardTuples);
+			
+			if(! insertResult && queryActive) {
+				logger.error("Unable to add tuple to continuous query, buffer is full (seq={} / size={})", 
+						querySequence, coalescingBuffer.size());
+			}
+		} catch (InterruptedException e) {
+			logger.debug("Wait was interrupted", e);
+			Thread.currentThread().interrupt();
+		}
+	}
+
 	@Override
-	public void fetchAndSendNextTuples(final short packageSequence) throws IOException, PackageEncodeException {
+	public void fetchAndSendNextTuples(final int packageSequence) throws IOException, PackageEncodeException {
 
 		clientConnectionHandler.writeResultPackage(new MultipleTupleStartResponse(packageSequence));
 
 		while(queryActive) {
 			try {
 				
-				// Finish query _PAGE_ after at least FLUSH_TIME_IN_MS
-				if(System.currentTimeMillis() >= lastFlushTime + FLUSH_TIME_IN_MS && tuplesInPage > 0) {
+				// Finish query _PAGE_ after at least flushTimeInMs or when the page is full
+				if(isPageFlushNeeded()) {
 					
 					logger.debug("Flushing page for continous query {}, old time {}, cur time {}, send tuples {}",
 							packageSequence, lastFlushTime, System.currentTimeMillis(), totalSendTuples);
@@ -287,6 +341,11 @@ public class ContinuousClientQuery implements ClientQuery {
 					return;
 				}
 				
+				if(coalescingBuffer != null) {
+					sendCoalescedTuples(packageSequence);
+					continue;
+				}
+				
 				// Send next tuple or wait
 				final MultiTuple tuple = tupleQueue.take();
 				
@@ -327,6 +386,49 @@ public class ContinuousClientQuery implements ClientQuery {
 	}
 	
 
+	/**
+	 * Is the page full or is the flush time reached
+	 * @return
+	 */
+	private boolean isPageFlushNeeded() {
+		
+		if(tuplesInPage == 0) {
+			return false;
+		}
+		
+		if(tuplesInPage >= maxTuplesPerPage) {
+			return true;
+		}
+		
+		return System.currentTimeMillis() >= lastFlushTime + flushTimeInMs;
+	}
+	
+	/**
+	 * Send the pending coalesced tuples, wait until the flush time 
+	 * is reached if no tuples are pending
+	 * 
+	 * @param packageSequence
+	 * @throws InterruptedException
+	 * @throws IOException
+	 * @throws PackageEncodeException
+	 */
+	private void sendCoalescedTuples(final int packageSequence) 
+			throws InterruptedException, IOException, PackageEncodeException {
+		
+		final long waitTime = Math.max(1, lastFlushTime + flushTimeInMs - System.currentTimeMillis());
+		final int maxTuples = (int) Math.max(1, maxTuplesPerPage - tuplesInPage);
+		
+		final List<MultiTuple> tuples = coalescingBuffer.drain(maxTuples, waitTime);
+		
+		// Flush the drained tuples together after the last tuple
+		for(int i = 0; i < tuples.size(); i++) {
+			final boolean lastTuple = (i == tuples.size() - 1);
+			clientConnectionHandler.writeResultTuple(packageSequence, tuples.get(i), true, lastTuple);
+			totalSendTuples++;
+			tuplesInPage++;
+		}
+	}
+	
 	@Override
 	public void maintenanceCallback() {
 		// Release waiting query processors and 
@@ -352,8 +454,11 @@ public class ContinuousClientQuery implements ClientQuery {
 		
 		logger.info("Closing query {} (send {} result tuples)", querySequence, totalSendTuples);
 
+		final ContinuousQueryIndexRegistry queryIndexRegistry = ContinuousQueryIndexRegistry.getInstance();
+		
 		for(final TupleStoreManager tableTupleStoreManager : storageManager) {
-			final boolean removeResult = tableTupleStoreManager.removeInsertCallback(tupleInsertCallback);
+			final boolean removeResult = queryIndexRegistry.removeQuery(tableTupleStoreManager, 
+					tupleInsertCallback);
 			
 			if(! removeResult) {
 				logger.error("Unable to remove insert callback, got bad remove callback");
@@ -363,10 +468,20 @@ public class ContinuousClientQuery implements ClientQuery {
 		if(storageManager.isEmpty()) {
 			logger.error("Unable to remove insert callback, storage manager is NULL");
 		}
+		
+		if(tupleInsertCallback != null) {
+			tupleInsertCallback.close();
+		}
+		
+		continuousQueryState.close();
 
 		// Cancel next page request
 		tupleQueue.clear();
 		
+		if(coalescingBuffer != null) {
+			coalescingBuffer.close();
+		}
+		
 		try {
 			tupleQueue.put(RED_PILL);
 		} catch (InterruptedException e) {
@@ -0,0 +1,536 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.server.query.continuous;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.entity.DeletedTuple;
+import org.bboxdb.storage.entity.InvalidationTuple;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.entity.WatermarkTuple;
+import org.bboxdb.storage.sstable.spatialindex.UpdatableSpatialIndex;
+import org.bboxdb.storage.tuplestore.ReadOnlyTupleStore;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreAquirer;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An in-memory spatial index of the most recent tuple versions of a join table. 
+ * The cache is built by a scan of the tuple store on the load executor and kept 
+ * current by the insert callback of the tuple store. The cache is not usable 
+ * until the scan is complete. When the table grows beyond the max entries, the 
+ * cache is disabled and rebuilt after a delay. The delay grows when the table
+ * overflows again during the rebuild.
+ */
+public class ContinuousJoinTableCache implements BiConsumer<TupleStoreName, Tuple> {
+
+	/**
+	 * The cached tuple store
+	 */
+	private final TupleStoreManager tupleStoreManager;
+	
+	/**
+	 * The max amount of cached tuples
+	 */
+	private final int maxEntries;
+	
+	/**
+	 * The most recent tuple versions
+	 */
+	private final UpdatableSpatialIndex<String, Tuple> storedTuples;
+	
+	/**
+	 * The most recent tuple versions without a bounding box, these 
+	 * tuples intersect every region
+	 */
+	private final Map<String, Tuple> fullSpaceTuples;
+	
+	/**
+	 * The deleted keys and the version of the deletion. The tombstones 
+	 * are pruned by watermarks and don't count as cached tuples.
+	 */
+	private final Map<String, Long> deletedKeys;
+	
+	/**
+	 * The table contains more than max entries tuples
+	 */
+	private volatile boolean overflowed;
+	
+	/**
+	 * The time of the last overflow
+	 */
+	private volatile long overflowTimestamp;
+	
+	/**
+	 * The delay before an overflowed cache is rebuilt
+	 */
+	private final long rebuildDelay;
+	
+	/**
+	 * The amount of overflows since the last complete load
+	 */
+	private volatile int overflowsSinceLoad;
+	
+	/**
+	 * The most recent watermark
+	 */
+	private long watermark;
+	
+	/**
+	 * The cache is loaded from the tuple store
+	 */
+	private volatile boolean loading;
+	
+	/**
+	 * A load of the cache is scheduled or running
+	 */
+	private final AtomicBoolean loadPending;
+	
+	/**
+	 * The cache is no longer used
+	 */
+	private volatile boolean closed;
+	
+	/**
+	 * The executor for the scans of the tuple store
+	 */
+	private final Executor loadExecutor;
+	
+	/**
+	 * The amount of queries that use this cache
+	 */
+	private int usage;
+	
+	/**
+	 * The lock for the cache
+	 */
+	private final ReadWriteLock lock;
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(ContinuousJoinTableCache.class);
+
+	/**
+	 * The default delay before an overflowed cache is rebuilt
+	 */
+	public final static long DEFAULT_REBUILD_DELAY = TimeUnit.MINUTES.toMillis(1);
+	
+	/**
+	 * The max factor of the rebuild delay for tables that keep overflowing
+	 */
+	private final static int MAX_REBUILD_DELAY_SHIFT = 6;
+
+	public ContinuousJoinTableCache(final TupleStoreManager tupleStoreManager, final int maxEntries) {
+		this(tupleStoreManager, maxEntries, DEFAULT_REBUILD_DELAY);
+	}
+	
+	public ContinuousJoinTableCache(final TupleStoreManager tupleStoreManager, final int maxEntries, 
+			final long rebuildDelay) {
+		
+		// Load in the calling thread
+		this(tupleStoreManager, maxEntries, rebuildDelay, Runnable::run);
+	}
+	
+	public ContinuousJoinTableCache(final TupleStoreManager tupleStoreManager, final int maxEntries, 
+			final long rebuildDelay, final Executor loadExecutor) {
+		
+		this.tupleStoreManager = tupleStoreManager;
+		this.maxEntries = maxEntries;
+		this.rebuildDelay = rebuildDelay;
+		this.loadExecutor = loadExecutor;
+		this.storedTuples = new UpdatableSpatialIndex<>();
+		this.fullSpaceTuples = new HashMap<>();
+		this.deletedKeys = new HashMap<>();
+		this.overflowed = false;
+		this.overflowTimestamp = 0;
+		this.overflowsSinceLoad = 0;
+		this.watermark = Long.MIN_VALUE;
+		this.loading = true;
+		this.loadPending = new AtomicBoolean(false);
+		this.closed = false;
+		this.usage = 0;
+		this.lock = new ReentrantReadWriteLock();
+	}
+	
+	/**
+	 * Load the tuples of the tuple store on the load executor. The insert callback 
+	 * needs to be registered before, so that no tuple is missed.
+	 */
+	public void init() {
+		scheduleLoad();
+	}
+	
+	/**
+	 * Schedule a load of the cache, only one load is pending at a time
+	 */
+	private void scheduleLoad() {
+		if(! loadPending.compareAndSet(false, true)) {
+			return;
+		}
+		
+		try {
+			loadExecutor.execute(() -> load());
+		} catch(RejectedExecutionException e) {
+			logger.error("Unable to schedule the load of the join table cache", e);
+			loadPending.set(false);
+			markOverflowed();
+		}
+	}
+	
+	/**
+	 * Load the tuples of the tuple store
+	 */
+	private void load() {
+		try {
+			if(closed) {
+				return;
+			}
+			
+			if(overflowed) {
+				logger.info("Rebuilding join table cache for {}", 
+						tupleStoreManager.getTupleStoreName().getFullname());
+			}
+			
+			// The entries are already removed by the overflow, updates 
+			// received after this point are applied during the scan
+			lock.writeLock().lock();
+			
+			try {
+				overflowed = false;
+				loading = true;
+			} finally {
+				lock.writeLock().unlock();
+			}
+			
+			loadTuples();
+		} catch (StorageManagerException e) {
+			logger.error("Unable to load join table cache", e);
+			markOverflowed();
+		} finally {
+			finishLoading();
+			loadPending.set(false);
+		}
+	}
+	
+	/**
+	 * Scan the tuple stores and add the tuples to the cache
+	 * @throws StorageManagerException
+	 */
+	private void loadTuples() throws StorageManagerException {
+		try(final TupleStoreAquirer tupleStoreAquirer = new TupleStoreAquirer(tupleStoreManager)) {
+			for(final ReadOnlyTupleStore tupleStore : tupleStoreAquirer.getTupleStores()) {
+				for(final Tuple tuple : tupleStore) {
+					updateTuple(tuple);
+					
+					if(overflowed || closed) {
+						return;
+					}
+				}
+			}
+		}
+		
+		logger.info("Join table cache for {} is loaded ({} tuples)", 
+				tupleStoreManager.getTupleStoreName().getFullname(), size());
+	}
+	
+	/**
+	 * Finish the load, the tombstones that are older than the watermark 
+	 * are pruned now
+	 */
+	private void finishLoading() {
+		lock.writeLock().lock();
+		
+		try {
+			// A closed cache stays unusable
+			if(closed) {
+				return;
+			}
+			
+			loading = false;
+			
+			if(! overflowed) {
+				overflowsSinceLoad = 0;
+				pruneTombstones();
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	@Override
+	public void accept(final TupleStoreName tupleStoreName, final Tuple tuple) {
+		
+		if(tuple instanceof WatermarkTuple) {
+			handleWatermark(tuple.getVersionTimestamp());
+			return;
+		}
+		
+		if(tuple instanceof InvalidationTuple) {
+			return;
+		}
+		
+		updateTuple(tuple);
+	}
+	
+	/**
+	 * Store the watermark and remove the older tombstones
+	 * @param watermarkVersion
+	 */
+	private void handleWatermark(final long watermarkVersion) {
+		lock.writeLock().lock();
+		
+		try {
+			watermark = Math.max(watermark, watermarkVersion);
+			pruneTombstones();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Remove the tombstones that are older than the watermark. No older versions 
+	 * of these keys are expected after the watermark. While the cache is loaded, 
+	 * the tombstones are kept, since the scan can still return older versions.
+	 */
+	private void pruneTombstones() {
+		if(loading) {
+			return;
+		}
+		
+		deletedKeys.values().removeIf(v -> v < watermark);
+	}
+
+	/**
+	 * Update the cache with the given tuple, older versions are ignored
+	 * @param tuple
+	 */
+	private void updateTuple(final Tuple tuple) {
+		
+		lock.writeLock().lock();
+		
+		try {
+			if(overflowed) {
+				return;
+			}
+			
+			final String key = tuple.getKey();
+			final long version = tuple.getVersionTimestamp();
+			
+			final Tuple cachedTuple = getCachedTuple(key);
+			
+			if(cachedTuple != null && cachedTuple.getVersionTimestamp() > version) {
+				return;
+			}
+			
+			final Long deletedVersion = deletedKeys.get(key);
+			
+			if(deletedVersion != null && deletedVersion > version) {
+				return;
+			}
+			
+			storedTuples.remove(key);
+			fullSpaceTuples.remove(key);
+			
+			final Hyperrectangle boundingBox = tuple.getBoundingBox();
+			
+			if(tuple instanceof DeletedTuple) {
+				deletedKeys.put(key, version);
+			} else if(boundingBox == null || boundingBox.getDimension() == 0) {
+				deletedKeys.remove(key);
+				fullSpaceTuples.put(key, tuple);
+			} else {
+				deletedKeys.remove(key);
+				storedTuples.put(key, boundingBox, tuple);
+			}
+			
+			if(deletedKeys.size() > maxEntries) {
+				pruneTombstones();
+			}
+			
+			if(deletedKeys.size() > maxEntries) {
+				logger.warn("Join table {} contains more than {} tombstones, disabling cache", 
+						tupleStoreManager.getTupleStoreName().getFullname(), maxEntries);
+				
+				markOverflowed();
+			} else if(storedTuples.size() + fullSpaceTuples.size() > maxEntries) {
+				logger.warn("Join table {} contains more than {} tuples, disabling cache", 
+						tupleStoreManager.getTupleStoreName().getFullname(), maxEntries);
+				
+				markOverflowed();
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Disable the cache until the next rebuild
+	 */
+	private void markOverflowed() {
+		lock.writeLock().lock();
+		
+		try {
+			if(! overflowed) {
+				overflowsSinceLoad++;
+			}
+			
+			overflowed = true;
+			overflowTimestamp = System.currentTimeMillis();
+			clearEntries();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Remove all cached entries
+	 */
+	private void clearEntries() {
+		storedTuples.clear();
+		fullSpaceTuples.clear();
+		deletedKeys.clear();
+	}
+	
+	/**
+	 * Get the cached version of the key
+	 * @param key
+	 * @return the tuple or null
+	 */
+	private Tuple getCachedTuple(final String key) {
+		final Tuple cachedTuple = storedTuples.get(key);
+		
+		if(cachedTuple != null) {
+			return cachedTuple;
+		}
+		
+		return fullSpaceTuples.get(key);
+	}
+	
+	/**
+	 * Get the most recent tuple versions that intersect the bounding box
+	 * @param boundingBox
+	 * @return
+	 */
+	public List<Tuple> getTuplesForRegion(final Hyperrectangle boundingBox) {
+		lock.readLock().lock();
+		
+		try {
+			final List<Tuple> result = storedTuples.getValuesForRegion(boundingBox);
+			result.addAll(fullSpaceTuples.values());
+			return result;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Can the cache be used (i.e., it contains all tuples of the table). The 
+	 * rebuild of an overflowed cache is scheduled when the rebuild delay has passed.
+	 * @return
+	 */
+	public boolean isUsable() {
+		if(overflowed && System.currentTimeMillis() - overflowTimestamp >= getRebuildDelay()) {
+			scheduleLoad();
+		}
+		
+		return ! overflowed && ! loading;
+	}
+	
+	/**
+	 * Get the rebuild delay, the delay is doubled for each overflow since 
+	 * the last complete load
+	 * @return
+	 */
+	private long getRebuildDelay() {
+		final int shift = Math.min(Math.max(overflowsSinceLoad - 1, 0), MAX_REBUILD_DELAY_SHIFT);
+		return rebuildDelay << shift;
+	}
+	
+	/**
+	 * The cache is no longer used, a running load is stopped
+	 */
+	public void close() {
+		closed = true;
+	}
+	
+	/**
+	 * Get the amount of tombstones of deleted keys
+	 * @return
+	 */
+	public int getNumberOfTombstones() {
+		lock.readLock().lock();
+		
+		try {
+			return deletedKeys.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Get the amount of cached tuples
+	 * @return
+	 */
+	public int size() {
+		lock.readLock().lock();
+		
+		try {
+			return storedTuples.size() + fullSpaceTuples.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Get the cached tuple store
+	 * @return
+	 */
+	public TupleStoreManager getTupleStoreManager() {
+		return tupleStoreManager;
+	}
+	
+	/**
+	 * Increment the usage counter (guarded by the registry)
+	 * @return
+	 */
+	int incrementUsage() {
+		return ++usage;
+	}
+	
+	/**
+	 * Decrement the usage counter (guarded by the registry)
+	 * @return
+	 */
+	int decrementUsage() {
+		return --usage;
+	}
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.server.query.continuous;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.bboxdb.misc.BBoxDBConfigurationManager;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+
+public class ContinuousJoinTableCacheRegistry {
+
+	/**
+	 * The instance
+	 */
+	private static ContinuousJoinTableCacheRegistry instance;
+	
+	/**
+	 * The max amount of tuples per cache
+	 */
+	private final int maxEntries;
+	
+	/**
+	 * The caches of the join tables
+	 */
+	private final Map<TupleStoreManager, ContinuousJoinTableCache> caches;
+	
+	/**
+	 * The executor for the scans of the join tables. One scan is executed 
+	 * at a time, each cache has at most one pending scan.
+	 */
+	private final ThreadPoolExecutor loadExecutor;
+	
+	static {
+		final int entries = BBoxDBConfigurationManager.getConfiguration().getContinuousSpatialJoinCacheEntries();
+		instance = new ContinuousJoinTableCacheRegistry(entries);
+	}
+	
+	private ContinuousJoinTableCacheRegistry(final int maxEntries) {
+		// private singleton constructor
+		this.maxEntries = maxEntries;
+		this.caches = new IdentityHashMap<>();
+		this.loadExecutor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+		this.loadExecutor.allowCoreThreadTimeOut(true);
+	}
+
+	@Override
+	protected Object clone() throws CloneNotSupportedException {
+		throw new IllegalArgumentException("Unable to clone a singleton");
+	}
+	
+	/**
+	 * Return the instance
+	 * @return
+	 */
+	public static ContinuousJoinTableCacheRegistry getInstance() {
+		return instance;
+	}
+	
+	/**
+	 * Is the join table cache enabled
+	 * @return
+	 */
+	public boolean isCacheEnabled() {
+		return maxEntries > 0;
+	}
+	
+	/**
+	 * Get the cache of the tuple store manager. The cache is created on the first 
+	 * request and loaded in the background. Until the cache is loaded, it is not 
+	 * usable. Each acquired cache needs to be released.
+	 * 
+	 * @param tupleStoreManager
+	 * @return
+	 * @throws StorageManagerException
+	 */
+	public synchronized ContinuousJoinTableCache acquireCache(final TupleStoreManager tupleStoreManager) 
+			throws StorageManagerException {
+		
+		ContinuousJoinTableCache cache = caches.get(tupleStoreManager);
+		
+		if(cache == null) {
+			cache = new ContinuousJoinTableCache(tupleStoreManager, maxEntries, 
+					ContinuousJoinTableCache.DEFAULT_REBUILD_DELAY, loadExecutor);
+			
+			// Register the callback first, so no insert between loading and registering is lost
+			final boolean registerResult = tupleStoreManager.registerInsertCallback(cache);
+			
+			if(! registerResult) {
+				throw new StorageManagerException("Unable to register join table cache on " 
+						+ tupleStoreManager.getTupleStoreName());
+			}
+			
+			cache.init();
+			caches.put(tupleStoreManager, cache);
+		}
+		
+		cache.incrementUsage();
+		
+		return cache;
+	}
+	
+	/**
+	 * Release the cache. The cache is removed when it is no longer used.
+	 * @param cache
+	 */
+	public synchronized void releaseCache(final ContinuousJoinTableCache cache) {
+		final int usage = cache.decrementUsage();
+		
+		if(usage > 0) {
+			return;
+		}
+		
+		final TupleStoreManager tupleStoreManager = cache.getTupleStoreManager();
+		caches.remove(tupleStoreManager);
+		tupleStoreManager.removeInsertCallback(cache);
+		cache.close();
+	}
+	
+	/**
+	 * Get the amount of active caches
+	 * @return
+	 */
+	public synchronized int getNumberOfCaches() {
+		return caches.size();
+	}
+}
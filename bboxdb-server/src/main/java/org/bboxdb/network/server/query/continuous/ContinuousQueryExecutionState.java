@@ -17,32 +17,152 @@
  *******************************************************************************/
 package org.bboxdb.network.server.query.continuous;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import io.prometheus.client.Gauge;
 
 public class ContinuousQueryExecutionState {
 
 	/**
-	 * The stream tuple that are matched in the last query execution
+	 * The stream tuple that are matched in the last query execution 
+	 * and the version of the last update <Key, Version>
 	 */
-	protected final Set<String> containedStreamKeys;
+	protected final Map<String, Long> containedStreamKeys;
 	
 	/**
 	 * The stream tuples and their join partners that are used in the last execution
 	 */
-	protected final Map<String, Set<String>> containedJoinedKeys;
+	protected final Map<String, JoinPartners> containedJoinedKeys;
+	
+	/**
+	 * The names of the join partners for the current key. The tuples of different 
+	 * keys are processed in parallel, the tuples of one key by one thread. 
+	 */
+	protected final ThreadLocal<Set<String>> joinPartnersForCurrentKey;
+	
+	/**
+	 * The query UUID (used as label of the performance counter, might be null)
+	 */
+	private final String queryUUID;
+	
+	/**
+	 * The max estimated size of the state in bytes (0 = unlimited)
+	 */
+	private final long maxBytes;
+	
+	/**
+	 * The time after a key that is not updated is removed from the state 
+	 * (in the unit of the tuple version timestamps, 0 = no eviction)
+	 */
+	private final long ttl;
+	
+	/**
+	 * The estimated size of the state in bytes
+	 */
+	private final AtomicLong estimatedBytes;
+	
+	/**
+	 * The highest seen watermark
+	 */
+	private final AtomicLong highestWatermark;
+	
+	/**
+	 * New keys are not tracked because the state has reached the max size
+	 */
+	private volatile boolean degraded;
+	
+	/**
+	 * The state is closed, the performance counter is released
+	 */
+	private volatile boolean closed;
+	
+	/**
+	 * The version of keys that are not updated by a stream tuple (e.g., received 
+	 * by a state transfer) 
+	 */
+	public final static long UNKNOWN_VERSION = -1;
+	
+	/**
+	 * After the state has reached the max size, the least recently 
+	 * updated keys are evicted until this fraction of the max size is reached
+	 */
+	private final static double EVICTION_TARGET = 0.75;
+	
+	/**
+	 * The estimated overhead of a state entry (map node, boxed version or partner entry)
+	 */
+	private final static long ENTRY_OVERHEAD_BYTES = 64;
+	
+	/**
+	 * The estimated overhead of a string in bytes (object and char array header)
+	 */
+	private final static long STRING_OVERHEAD_BYTES = 40;
+	
+	/**
+	 * The keys of the stream tuples and the join partners are often contained 
+	 * multiple times in the state (e.g., one join partner for many stream keys). 
+	 * Interning the keys stores each key only once.
+	 */
+	private final static Interner<String> KEY_INTERNER = Interners.newWeakInterner();
+	
+	/**
+	 * The estimated size of the states
+	 */
+	private final static Gauge stateBytes = Gauge.build()
+			.name("bboxdb_continuous_query_state_bytes")
+			.help("Estimated size of the continuous query state")
+			.labelNames("query").register();
+	
+	/**
+	 * The evicted keys
+	 */
+	private final static Gauge evictedKeysTotal = Gauge.build()
+			.name("bboxdb_continuous_query_state_evicted_total")
+			.help("Total amount of evicted continuous query state keys").register();
 	
 	/**
-	 * The names of the join partners for the current key
+	 * The keys that are not tracked because of the size of the state
 	 */
-	protected final Set<String> joinPartnersForCurrentKey;
+	private final static Gauge rejectedKeysTotal = Gauge.build()
+			.name("bboxdb_continuous_query_state_rejected_total")
+			.help("Total amount of continuous query state keys that are rejected by the size limit").register();
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(ContinuousQueryExecutionState.class);
 	
 	public ContinuousQueryExecutionState() {
-		this.containedStreamKeys = new HashSet<>();
-		this.containedJoinedKeys = new HashMap<>();
-		this.joinPartnersForCurrentKey = new HashSet<>();
+		this(null, 0, 0);
+	}
+	
+	public ContinuousQueryExecutionState(final String queryUUID, final long maxBytes, final long ttl) {
+		this.queryUUID = queryUUID;
+		this.maxBytes = maxBytes;
+		this.ttl = ttl;
+		this.containedStreamKeys = new ConcurrentHashMap<>();
+		this.containedJoinedKeys = new ConcurrentHashMap<>();
+		this.joinPartnersForCurrentKey = ThreadLocal.withInitial(() -> new HashSet<>());
+		this.estimatedBytes = new AtomicLong(0);
+		this.highestWatermark = new AtomicLong(Long.MIN_VALUE);
+		this.degraded = false;
+		this.closed = false;
 	}
 	
 	/**
@@ -51,7 +171,7 @@ public class ContinuousQueryExecutionState {
 	 * @return
 	 */
 	public boolean wasStreamKeyContainedInLastRangeQuery(final String key) {
-		return containedStreamKeys.contains(key);
+		return containedStreamKeys.containsKey(key);
 	}
 	
 	/**
@@ -60,7 +180,14 @@ public class ContinuousQueryExecutionState {
 	 * @return
 	 */
 	public boolean removeStreamKeyFromRangeState(final String key) {
-		return containedStreamKeys.remove(key);
+		final Long version = containedStreamKeys.remove(key);
+		
+		if(version == null) {
+			return false;
+		}
+		
+		releaseBytes(estimateKeyBytes(key));
+		return true;
 	}
 	
 	/**
@@ -68,7 +195,75 @@ public class ContinuousQueryExecutionState {
 	 * @param key
 	 */
 	public void addStreamKeyToState(final String key) {
-		containedStreamKeys.add(key);
+		if(containedStreamKeys.containsKey(key)) {
+			return;
+		}
+		
+		addNewStreamKeyToState(key, UNKNOWN_VERSION);
+	}
+	
+	/**
+	 * Add the given key to the state or update the version of the key. Keys that can 
+	 * not be tracked due to the size of the state are reported as new keys.
+	 * 
+	 * @param key
+	 * @param version
+	 * @return true if the key was not contained before
+	 */
+	public boolean addStreamKeyToState(final String key, final long version) {
+		if(containedStreamKeys.computeIfPresent(key, (k, v) -> version) != null) {
+			return false;
+		}
+		
+		addNewStreamKeyToState(key, version);
+		return true;
+	}
+	
+	/**
+	 * Add a new key to the range state
+	 * @param key
+	 * @param version
+	 */
+	private void addNewStreamKeyToState(final String key, final long version) {
+		final long bytes = estimateKeyBytes(key);
+		
+		if(! reserveBytes(bytes)) {
+			return;
+		}
+		
+		if(containedStreamKeys.putIfAbsent(KEY_INTERNER.intern(key), version) != null) {
+			releaseBytes(bytes);
+		}
+	}
+	
+	/**
+	 * Remove all keys from the range state that are not updated since the given version. Keys 
+	 * with an unknown version get the current version, so they expire if they are not updated. 
+	 * 
+	 * @param minVersion
+	 * @param currentVersion
+	 * @return the removed keys
+	 */
+	public List<String> removeExpiredStreamKeys(final long minVersion, final long currentVersion) {
+		final List<String> expiredKeys = new ArrayList<>();
+		
+		for(final Map.Entry<String, Long> entry : containedStreamKeys.entrySet()) {
+			final String key = entry.getKey();
+			final long version = entry.getValue();
+			
+			if(version == UNKNOWN_VERSION) {
+				containedStreamKeys.replace(key, UNKNOWN_VERSION, currentVersion);
+				continue;
+			}
+			
+			// Remove only if the key is not updated concurrently
+			if(version < minVersion && containedStreamKeys.remove(key, version)) {
+				releaseBytes(estimateKeyBytes(key));
+				expiredKeys.add(key);
+			}
+		}
+		
+		return expiredKeys;
 	}
 	
 	/**
@@ -76,7 +271,7 @@ public class ContinuousQueryExecutionState {
 	 * @param key
 	 */
 	public void addJoinCandidateForCurrentKey(final String key) {
-		joinPartnersForCurrentKey.add(key);
+		joinPartnersForCurrentKey.get().add(key);
 	}
 	
 	/**
@@ -85,42 +280,108 @@ public class ContinuousQueryExecutionState {
 	 * @return 
 	 */
 	public Set<String> commitStateAndGetMissingJoinpartners(final String streamKey) {
+		return commitStateAndGetMissingJoinpartners(streamKey, UNKNOWN_VERSION);
+	}
+	
+	/**
+	 * Get the missing join partners for the current key and clear the state
+	 * @param streamKey
+	 * @param version - the version of the stream tuple
+	 * @return 
+	 */
+	public Set<String> commitStateAndGetMissingJoinpartners(final String streamKey, final long version) {
 		
-		final Set<String> oldJoinPartners = containedJoinedKeys.getOrDefault(streamKey, new HashSet<>());
+		final Set<String> currentJoinPartners = joinPartnersForCurrentKey.get();
+		final JoinPartners oldJoinPartners = containedJoinedKeys.get(streamKey);
 		
 		// Calculate the difference between the current join partners and the previous join partners
-		oldJoinPartners.removeAll(joinPartnersForCurrentKey);
+		final Set<String> missingJoinPartners = new HashSet<>();
+		
+		if(oldJoinPartners != null) {
+			for(final String joinPartner : oldJoinPartners.getPartners()) {
+				if(! currentJoinPartners.contains(joinPartner)) {
+					missingJoinPartners.add(joinPartner);
+				}
+			}
+		}
 		
-		final Set<String> seenJoinPartners = new HashSet<>(joinPartnersForCurrentKey);
-		containedJoinedKeys.put(streamKey, seenJoinPartners);
+		// Keys without join partners don't need to be stored
+		if(currentJoinPartners.isEmpty()) {
+			removeStreamKeyFromJoinState(streamKey);
+		} else {
+			final String[] joinPartners = currentJoinPartners.stream()
+					.map(KEY_INTERNER::intern)
+					.toArray(String[]::new);
+			
+			putJoinPartners(streamKey, new JoinPartners(joinPartners, version));
+		}
 		
 		clearJoinPartnerState();
 				
-		return oldJoinPartners;
+		return missingJoinPartners;
+	}
+	
+	/**
+	 * Store the join partners of the stream key, the old state of the 
+	 * key is removed if the new state can not be tracked
+	 * 
+	 * @param streamKey
+	 * @param joinPartners
+	 */
+	private void putJoinPartners(final String streamKey, final JoinPartners joinPartners) {
+		final JoinPartners oldJoinPartners = containedJoinedKeys.get(streamKey);
+		
+		final long oldBytes = (oldJoinPartners == null) ? 0 : estimateJoinBytes(streamKey, oldJoinPartners);
+		final long newBytes = estimateJoinBytes(streamKey, joinPartners);
+		
+		if(newBytes > oldBytes && ! reserveBytes(newBytes - oldBytes)) {
+			removeStreamKeyFromJoinState(streamKey);
+			return;
+		}
+		
+		containedJoinedKeys.put(KEY_INTERNER.intern(streamKey), joinPartners);
+		
+		if(newBytes < oldBytes) {
+			releaseBytes(oldBytes - newBytes);
+		}
 	}
 
 	/**
 	 * Clear the state for the current join partner
 	 */
 	public void clearJoinPartnerState() {
-		joinPartnersForCurrentKey.clear();
+		joinPartnersForCurrentKey.get().clear();
 	}
 	
 	/**
-	 * Get the contained joined keys
+	 * Get a copy of the contained joined keys
 	 * @return
 	 */
 	public Map<String, Set<String>> getContainedJoinedKeys() {
-		return containedJoinedKeys;
+		final Map<String, Set<String>> result = new HashMap<>();
+		
+		for(final Map.Entry<String, JoinPartners> entry : containedJoinedKeys.entrySet()) {
+			result.put(entry.getKey(), new HashSet<>(Arrays.asList(entry.getValue().getPartners())));
+		}
+		
+		return result;
 	}
 	
 	/**
 	 * Remove the stream key from join state
 	 * @param streamKey
-	 * @return 
+	 * @return the join partners of the key or null
 	 */
 	public Set<String> removeStreamKeyFromJoinState(final String streamKey) {
-		return containedJoinedKeys.remove(streamKey);
+		final JoinPartners joinPartners = containedJoinedKeys.remove(streamKey);
+		
+		if(joinPartners == null) {
+			return null;
+		}
+		
+		releaseBytes(estimateJoinBytes(streamKey, joinPartners));
+		
+		return new HashSet<>(Arrays.asList(joinPartners.getPartners()));
 	}
 	
 	/**
@@ -137,7 +398,7 @@ public class ContinuousQueryExecutionState {
 	 * @return
 	 */
 	public Set<String> getContainedTupleKeys() {
-		return containedStreamKeys;
+		return containedStreamKeys.keySet();
 	}
 
 	/**
@@ -145,7 +406,306 @@ public class ContinuousQueryExecutionState {
 	 * @param resultState
 	 */
 	public void merge(final Set<String> rangeQueryState, final Map<String, Set<String>> joinQueryState) {
-		containedStreamKeys.addAll(rangeQueryState);
-		containedJoinedKeys.putAll(joinQueryState);
+		rangeQueryState.forEach(k -> addStreamKeyToState(k));
+		
+		for(final Map.Entry<String, Set<String>> entry : joinQueryState.entrySet()) {
+			final String[] joinPartners = entry.getValue().stream()
+					.map(KEY_INTERNER::intern)
+					.toArray(String[]::new);
+			
+			putJoinPartners(entry.getKey(), new JoinPartners(joinPartners, UNKNOWN_VERSION));
+		}
+	}
+	
+	/**
+	 * Evict the keys that are not updated for the TTL and, if the state has reached its 
+	 * max size, the least recently updated keys. The state is maintained on watermarks. 
+	 * The caller needs to send the invalidations for the evicted keys.
+	 * 
+	 * @param watermark
+	 * @return the evicted keys
+	 */
+	public EvictedKeys handleWatermark(final long watermark) {
+		final long lastWatermark = highestWatermark.getAndAccumulate(watermark, Math::max);
+		final EvictedKeys evictedKeys = new EvictedKeys();
+		
+		if(ttl > 0 && watermark > lastWatermark) {
+			final long minVersion = watermark - ttl;
+			evictedKeys.getStreamKeys().addAll(removeExpiredStreamKeys(minVersion, watermark));
+			removeExpiredJoinKeys(minVersion, watermark, evictedKeys);
+			
+			final int expiredKeys = evictedKeys.size();
+			
+			if(expiredKeys > 0) {
+				logger.debug("Removed {} expired keys from state of query {}", expiredKeys, queryUUID);
+				evictedKeysTotal.inc(expiredKeys);
+			}
+		}
+		
+		if(degraded) {
+			evictLeastRecentlyUpdatedKeys(evictedKeys);
+		}
+		
+		return evictedKeys;
+	}
+	
+	/**
+	 * Remove the join keys that are not updated since the given version
+	 * @param minVersion
+	 * @param currentVersion
+	 * @param evictedKeys - the removed keys are added here
+	 */
+	private void removeExpiredJoinKeys(final long minVersion, final long currentVersion, 
+			final EvictedKeys evictedKeys) {
+		
+		for(final Map.Entry<String, JoinPartners> entry : containedJoinedKeys.entrySet()) {
+			final String key = entry.getKey();
+			final JoinPartners joinPartners = entry.getValue();
+			
+			if(joinPartners.getVersion() == UNKNOWN_VERSION) {
+				containedJoinedKeys.replace(key, joinPartners, 
+						new JoinPartners(joinPartners.getPartners(), currentVersion));
+				continue;
+			}
+			
+			if(joinPartners.getVersion() < minVersion && containedJoinedKeys.remove(key, joinPartners)) {
+				releaseBytes(estimateJoinBytes(key, joinPartners));
+				evictedKeys.addJoinKey(key, joinPartners);
+			}
+		}
+	}
+	
+	/**
+	 * Evict the least recently updated keys until the eviction target is reached. Used 
+	 * when the state has reached its max size and new keys need to be tracked. 
+	 * The caller needs to send the invalidations for the evicted keys.
+	 * 
+	 * @return the evicted keys
+	 */
+	public EvictedKeys evictLeastRecentlyUpdatedKeys() {
+		final EvictedKeys evictedKeys = new EvictedKeys();
+		evictLeastRecentlyUpdatedKeys(evictedKeys);
+		return evictedKeys;
+	}
+	
+	/**
+	 * Evict the least recently updated keys until the eviction target is reached
+	 * @param evictedKeys - the evicted keys are added here
+	 */
+	private synchronized void evictLeastRecentlyUpdatedKeys(final EvictedKeys evictedKeys) {
+		
+		if(maxBytes <= 0) {
+			return;
+		}
+		
+		final long targetBytes = (long) (maxBytes * EVICTION_TARGET);
+		
+		// Evicted concurrently by another thread
+		if(estimatedBytes.get() <= targetBytes) {
+			degraded = false;
+			return;
+		}
+		
+		final List<Map.Entry<String, Long>> rangeKeys = new ArrayList<>(containedStreamKeys.entrySet());
+		Collections.sort(rangeKeys, Comparator.comparingLong(e -> e.getValue()));
+		
+		final List<Map.Entry<String, JoinPartners>> joinKeys = new ArrayList<>(containedJoinedKeys.entrySet());
+		Collections.sort(joinKeys, Comparator.comparingLong(e -> e.getValue().getVersion()));
+		
+		final int alreadyEvictedKeys = evictedKeys.size();
+		int rangePos = 0;
+		int joinPos = 0;
+		
+		while(estimatedBytes.get() > targetBytes) {
+			final boolean rangeAvailable = rangePos < rangeKeys.size();
+			final boolean joinAvailable = joinPos < joinKeys.size();
+			
+			if(! rangeAvailable && ! joinAvailable) {
+				break;
+			}
+			
+			// Evict the oldest key of both states
+			if(rangeAvailable && (! joinAvailable || rangeKeys.get(rangePos).getValue() 
+					<= joinKeys.get(joinPos).getValue().getVersion())) {
+				
+				final Map.Entry<String, Long> entry = rangeKeys.get(rangePos++);
+				
+				if(containedStreamKeys.remove(entry.getKey(), entry.getValue())) {
+					releaseBytes(estimateKeyBytes(entry.getKey()));
+					evictedKeys.getStreamKeys().add(entry.getKey());
+				}
+			} else {
+				final Map.Entry<String, JoinPartners> entry = joinKeys.get(joinPos++);
+				
+				if(containedJoinedKeys.remove(entry.getKey(), entry.getValue())) {
+					releaseBytes(estimateJoinBytes(entry.getKey(), entry.getValue()));
+					evictedKeys.addJoinKey(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+		
+		degraded = false;
+		
+		final int newlyEvictedKeys = evictedKeys.size() - alreadyEvictedKeys;
+		evictedKeysTotal.inc(newlyEvictedKeys);
+		
+		logger.info("Evicted {} least recently updated keys from the state of query {} "
+				+ "(estimated size {} bytes)", newlyEvictedKeys, queryUUID, estimatedBytes.get());
+	}
+	
+	/**
+	 * Reserve the bytes for a new state entry
+	 * @param bytes
+	 * @return true if the entry can be stored
+	 */
+	private boolean reserveBytes(final long bytes) {
+		
+		if(maxBytes > 0 && estimatedBytes.get() + bytes > maxBytes) {
+			
+			if(! degraded) {
+				logger.warn("The state of query {} has reached the max size of {} bytes, "
+						+ "new keys are not tracked until the next watermark", queryUUID, maxBytes);
+				degraded = true;
+			}
+			
+			rejectedKeysTotal.inc();
+			return false;
+		}
+		
+		estimatedBytes.addAndGet(bytes);
+		
+		if(queryUUID != null && ! closed) {
+			stateBytes.labels(queryUUID).inc(bytes);
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Release the bytes of a removed state entry
+	 * @param bytes
+	 */
+	private void releaseBytes(final long bytes) {
+		estimatedBytes.addAndGet(-bytes);
+		
+		if(queryUUID != null && ! closed) {
+			stateBytes.labels(queryUUID).dec(bytes);
+		}
+	}
+	
+	/**
+	 * Estimate the size of a range state entry
+	 * @param key
+	 * @return
+	 */
+	private static long estimateKeyBytes(final String key) {
+		return ENTRY_OVERHEAD_BYTES + STRING_OVERHEAD_BYTES + 2 * key.length();
+	}
+	
+	/**
+	 * Estimate the size of a join state entry
+	 * @param key
+	 * @param joinPartners
+	 * @return
+	 */
+	private static long estimateJoinBytes(final String key, final JoinPartners joinPartners) {
+		long bytes = estimateKeyBytes(key);
+		
+		for(final String joinPartner : joinPartners.getPartners()) {
+			bytes += 8 + STRING_OVERHEAD_BYTES + 2 * joinPartner.length();
+		}
+		
+		return bytes;
+	}
+	
+	/**
+	 * Get the estimated size of the state in bytes
+	 * @return
+	 */
+	public long getEstimatedBytes() {
+		return estimatedBytes.get();
+	}
+	
+	/**
+	 * Are new keys rejected because the state has reached its max size?
+	 * @return
+	 */
+	public boolean isDegraded() {
+		return degraded;
+	}
+	
+	/**
+	 * Release the performance counter of the state
+	 */
+	public void close() {
+		closed = true;
+		
+		if(queryUUID != null) {
+			stateBytes.remove(queryUUID);
+		}
+	}
+	
+	public static class EvictedKeys {
+		
+		/**
+		 * The evicted keys of the range state
+		 */
+		private final List<String> streamKeys;
+		
+		/**
+		 * The evicted keys of the join state and their join partners
+		 */
+		private final Map<String, Set<String>> joinKeys;
+		
+		public EvictedKeys() {
+			this.streamKeys = new ArrayList<>();
+			this.joinKeys = new HashMap<>();
+		}
+		
+		private void addJoinKey(final String streamKey, final JoinPartners joinPartners) {
+			joinKeys.put(streamKey, new HashSet<>(Arrays.asList(joinPartners.getPartners())));
+		}
+		
+		public List<String> getStreamKeys() {
+			return streamKeys;
+		}
+		
+		public Map<String, Set<String>> getJoinKeys() {
+			return joinKeys;
+		}
+		
+		public int size() {
+			return streamKeys.size() + joinKeys.size();
+		}
+		
+		public boolean isEmpty() {
+			return size() == 0;
+		}
+	}
+	
+	protected static class JoinPartners {
+		
+		/**
+		 * The (interned) keys of the join partners
+		 */
+		private final String[] partners;
+		
+		/**
+		 * The version of the stream tuple
+		 */
+		private final long version;
+
+		public JoinPartners(final String[] partners, final long version) {
+			this.partners = partners;
+			this.version = version;
+		}
+		
+		public String[] getPartners() {
+			return partners;
+		}
+		
+		public long getVersion() {
+			return version;
+		}
 	}
 }
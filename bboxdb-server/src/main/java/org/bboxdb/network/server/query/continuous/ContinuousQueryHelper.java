@@ -22,11 +22,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.misc.Const;
 import org.bboxdb.network.entity.TupleAndBoundingBox;
 import org.bboxdb.query.filter.UserDefinedFilter;
 import org.bboxdb.query.filter.UserDefinedFilterDefinition;
+import org.bboxdb.query.filter.UserDefinedFilterRegistry;
+import org.bboxdb.query.transformation.BoundingBoxFilterTransformation;
+import org.bboxdb.query.transformation.EnlargeBoundingBoxByAmountTransformation;
+import org.bboxdb.query.transformation.KeyFilterTransformation;
 import org.bboxdb.query.transformation.TupleTransformation;
+import org.bboxdb.query.transformation.UserDefinedFilterTransformation;
 import org.bboxdb.storage.entity.MultiTuple;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreName;
@@ -71,6 +77,50 @@ public class ContinuousQueryHelper {
 		return tuple;
 	}
 	
+	/**
+	 * Get the range of the untransformed stream tuples that can intersect the match 
+	 * range after the transformations are applied. Filter transformations don't change 
+	 * the bounding box, an enlargement by amount enlarges the range by the same amount.
+	 * 
+	 * @param transformations
+	 * @param matchRange
+	 * @return the range or null, if the range can not be determined
+	 */
+	public static Hyperrectangle getStreamTupleRange(final List<TupleTransformation> transformations, 
+			final Hyperrectangle matchRange) {
+		
+		double enlargement = 0;
+		
+		for(final TupleTransformation transformation : transformations) {
+			
+			if(transformation instanceof BoundingBoxFilterTransformation
+					|| transformation instanceof KeyFilterTransformation
+					|| transformation instanceof UserDefinedFilterTransformation) {
+				continue;
+			}
+			
+			if(transformation instanceof EnlargeBoundingBoxByAmountTransformation) {
+				final double amount = ((EnlargeBoundingBoxByAmountTransformation) transformation).getAmount();
+				
+				if(amount < 0) {
+					return null;
+				}
+				
+				enlargement += amount;
+				continue;
+			}
+			
+			// The enlargement depends on the tuple (e.g., by factor or by meters)
+			return null;
+		}
+		
+		if(enlargement == 0) {
+			return matchRange;
+		}
+		
+		return matchRange.enlargeByAmount(enlargement);
+	}
+	
 	/**
 	 * Get the user defined operators
 	 * @param filters
@@ -80,16 +130,11 @@ public class ContinuousQueryHelper {
 			final List<UserDefinedFilterDefinition> filters) {
 		
 		final Map<UserDefinedFilter, byte[]> operators = new HashMap<>();
+		final UserDefinedFilterRegistry registry = UserDefinedFilterRegistry.getInstance();
 		
 		for(final UserDefinedFilterDefinition filter : filters) {
-			try {
-				final Class<?> filterClass = Class.forName(filter.getUserDefinedFilterClass());
-				final UserDefinedFilter operator = 
-						(UserDefinedFilter) filterClass.newInstance();
-				operators.put(operator, filter.getUserDefinedFilterValue().getBytes(Const.DEFAULT_CHARSET));
-			} catch (ClassNotFoundException | InstantiationException | IllegalAccessException e) {
-				throw new IllegalArgumentException("Unable to find user defined filter class", e);
-			}
+			final UserDefinedFilter operator = registry.getFilter(filter);
+			operators.put(operator, filter.getUserDefinedFilterValue().getBytes(Const.DEFAULT_CHARSET));
 		}
 		
 		return operators;
@@ -104,6 +149,19 @@ public class ContinuousQueryHelper {
 	 */
 	public static boolean doUserDefinedFilterMatch(final Tuple streamTuple,
 			final Map<UserDefinedFilter, byte[]> filters) {
+		
+		return doUserDefinedFilterMatch((String) null, streamTuple, filters);
+	}
+	
+	/**
+	 * Perform the user defined filters on the given stream tuple
+	 * @param streamTable
+	 * @param streamTuple
+	 * @param filters
+	 * @return
+	 */
+	public static boolean doUserDefinedFilterMatch(final String streamTable, final Tuple streamTuple,
+			final Map<UserDefinedFilter, byte[]> filters) {
 				
 		for(final Entry<UserDefinedFilter, byte[]> entry : filters.entrySet()) {
 			
@@ -111,7 +169,7 @@ public class ContinuousQueryHelper {
 			final byte[] value = entry.getValue();
 			
 			final boolean result 
-				= operator.filterTuple(streamTuple, value);
+				= operator.filterTuple(streamTable, streamTuple, value);
 			
 			if(! result) {
 				return false;
@@ -130,6 +188,21 @@ public class ContinuousQueryHelper {
 	 */
 	public static boolean doUserDefinedFilterMatch(final Tuple streamTuple, 
 			final Tuple storedTuple, final Map<UserDefinedFilter, byte[]> filters) {
+		
+		return doUserDefinedFilterMatch(null, streamTuple, null, storedTuple, filters);
+	}
+	
+	/**
+	 * Perform the user defined filters on the given stream and stored tuple
+	 * @param streamTable
+	 * @param streamTuple
+	 * @param storedTable
+	 * @param storedTuple
+	 * @param filters
+	 * @return
+	 */
+	public static boolean doUserDefinedFilterMatch(final String streamTable, final Tuple streamTuple, 
+			final String storedTable, final Tuple storedTuple, final Map<UserDefinedFilter, byte[]> filters) {
 				
 		for(final Entry<UserDefinedFilter, byte[]> entry : filters.entrySet()) {
 			
@@ -137,7 +210,7 @@ public class ContinuousQueryHelper {
 			final byte[] value = entry.getValue();
 			
 			final boolean result 
-				= operator.filterJoinCandidate(streamTuple, storedTuple, value);
+				= operator.filterJoinCandidate(streamTable, streamTuple, storedTable, storedTuple, value);
 			
 			if(! result) {
 				return false;
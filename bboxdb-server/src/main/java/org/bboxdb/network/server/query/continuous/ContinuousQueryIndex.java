@@ -0,0 +1,173 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.server.query.continuous;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.entity.InvalidationTuple;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.entity.WatermarkTuple;
+import org.bboxdb.storage.sstable.spatialindex.UpdatableSpatialIndex;
+
+/**
+ * The continuous queries of one tuple store. The index is registered as the
+ * only insert callback of the tuple store and dispatches each inserted tuple only to 
+ * the queries whose range can be matched by the tuple.
+ */
+public class ContinuousQueryIndex implements BiConsumer<TupleStoreName, Tuple> {
+
+	/**
+	 * The spatial index over the query ranges
+	 */
+	private final UpdatableSpatialIndex<BiConsumer<TupleStoreName, Tuple>, BiConsumer<TupleStoreName, Tuple>> indexedQueries;
+	
+	/**
+	 * The queries that need to process every tuple
+	 */
+	private final List<BiConsumer<TupleStoreName, Tuple>> unindexedQueries;
+	
+	/**
+	 * The lock for the index
+	 */
+	private final ReadWriteLock lock;
+
+	public ContinuousQueryIndex() {
+		this.indexedQueries = new UpdatableSpatialIndex<>();
+		this.unindexedQueries = new CopyOnWriteArrayList<>();
+		this.lock = new ReentrantReadWriteLock();
+	}
+	
+	/**
+	 * Add a query to the index
+	 * @param query
+	 * @param range - the range of the stream tuples that can be matched by 
+	 *                the query or null if every tuple needs to be processed
+	 */
+	public void addQuery(final BiConsumer<TupleStoreName, Tuple> query, final Hyperrectangle range) {
+		
+		if(range == null) {
+			unindexedQueries.add(query);
+			return;
+		}
+		
+		lock.writeLock().lock();
+		
+		try {
+			indexedQueries.put(query, range, query);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	/**
+	 * Remove the query from the index
+	 * @param query
+	 * @return
+	 */
+	public boolean removeQuery(final BiConsumer<TupleStoreName, Tuple> query) {
+		
+		if(unindexedQueries.remove(query)) {
+			return true;
+		}
+		
+		lock.writeLock().lock();
+		
+		try {
+			return indexedQueries.remove(query);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	@Override
+	public void accept(final TupleStoreName tupleStoreName, final Tuple tuple) {
+		
+		final List<BiConsumer<TupleStoreName, Tuple>> queries = getQueriesForTuple(tuple);
+
+		for(final BiConsumer<TupleStoreName, Tuple> query : queries) {
+			query.accept(tupleStoreName, tuple);
+		}
+		
+		for(final BiConsumer<TupleStoreName, Tuple> query : unindexedQueries) {
+			query.accept(tupleStoreName, tuple);
+		}
+	}
+
+	/**
+	 * Get the indexed queries that need to process the given tuple
+	 * @param tuple
+	 * @return
+	 */
+	private List<BiConsumer<TupleStoreName, Tuple>> getQueriesForTuple(final Tuple tuple) {
+		
+		lock.readLock().lock();
+
+		try {
+			// Watermarks and invalidations are processed by all queries
+			if(tuple instanceof WatermarkTuple || tuple instanceof InvalidationTuple) {
+				return indexedQueries.getAllValues();
+			}
+			
+			return indexedQueries.getValuesForRegion(tuple.getBoundingBox());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Is the index empty
+	 * @return
+	 */
+	public boolean isEmpty() {
+		lock.readLock().lock();
+		
+		try {
+			return indexedQueries.isEmpty() && unindexedQueries.isEmpty();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Get the number of indexed queries
+	 * @return
+	 */
+	public int getNumberOfIndexedQueries() {
+		lock.readLock().lock();
+		
+		try {
+			return indexedQueries.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+	
+	/**
+	 * Get the number of queries that process every tuple
+	 * @return
+	 */
+	public int getNumberOfUnindexedQueries() {
+		return unindexedQueries.size();
+	}
+}
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.server.query.continuous;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ContinuousQueryIndexRegistry {
+
+	/**
+	 * The instance
+	 */
+	private static ContinuousQueryIndexRegistry instance;
+	
+	/**
+	 * The query indexes of the tuple store managers
+	 */
+	private final Map<TupleStoreManager, ContinuousQueryIndex> queryIndexes;
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(ContinuousQueryIndexRegistry.class);
+	
+	static {
+		instance = new ContinuousQueryIndexRegistry();
+	}
+	
+	private ContinuousQueryIndexRegistry() {
+		// private singleton constructor
+		this.queryIndexes = new IdentityHashMap<>();
+	}
+
+	@Override
+	protected Object clone() throws CloneNotSupportedException {
+		throw new IllegalArgumentException("Unable to clone a singleton");
+	}
+	
+	/**
+	 * Return the instance
+	 * @return
+	 */
+	public static ContinuousQueryIndexRegistry getInstance() {
+		return instance;
+	}
+	
+	/**
+	 * Register the query on the tuple store manager. The query index of the tuple store 
+	 * is created and registered as insert callback on the first query.
+	 * 
+	 * @param tupleStoreManager
+	 * @param query
+	 * @param range - the range of the query or null if the query needs to process every tuple
+	 * @return
+	 */
+	public synchronized boolean registerQuery(final TupleStoreManager tupleStoreManager, 
+			final BiConsumer<TupleStoreName, Tuple> query, final Hyperrectangle range) {
+		
+		ContinuousQueryIndex queryIndex = queryIndexes.get(tupleStoreManager);
+		
+		if(queryIndex == null) {
+			queryIndex = new ContinuousQueryIndex();
+			
+			final boolean registerResult = tupleStoreManager.registerInsertCallback(queryIndex);
+			
+			if(! registerResult) {
+				logger.error("Unable to register query index on {}", tupleStoreManager.getTupleStoreName());
+				return false;
+			}
+			
+			queryIndexes.put(tupleStoreManager, queryIndex);
+		}
+		
+		queryIndex.addQuery(query, range);
+		
+		return true;
+	}
+	
+	/**
+	 * Remove the query from the tuple store manager. The query index is removed 
+	 * from the tuple store when the last query is removed.
+	 * 
+	 * @param tupleStoreManager
+	 * @param query
+	 * @return
+	 */
+	public synchronized boolean removeQuery(final TupleStoreManager tupleStoreManager, 
+			final BiConsumer<TupleStoreName, Tuple> query) {
+		
+		final ContinuousQueryIndex queryIndex = queryIndexes.get(tupleStoreManager);
+		
+		if(queryIndex == null) {
+			return false;
+		}
+		
+		final boolean removeResult = queryIndex.removeQuery(query);
+		
+		if(queryIndex.isEmpty()) {
+			queryIndexes.remove(tupleStoreManager);
+			tupleStoreManager.removeInsertCallback(queryIndex);
+		}
+		
+		return removeResult;
+	}
+	
+	/**
+	 * Get the query index of the tuple store manager
+	 * @param tupleStoreManager
+	 * @return the index or null
+	 */
+	public synchronized ContinuousQueryIndex getQueryIndex(final TupleStoreManager tupleStoreManager) {
+		return queryIndexes.get(tupleStoreManager);
+	}
+}
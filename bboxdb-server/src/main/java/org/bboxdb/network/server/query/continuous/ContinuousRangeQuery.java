@@ -20,7 +20,9 @@ package org.bboxdb.network.server.query.continuous;
 import java.util.List;
 import java.util.Map;
 
+import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.network.entity.TupleAndBoundingBox;
+import org.bboxdb.network.server.query.continuous.ContinuousQueryExecutionState.EvictedKeys;
 import org.bboxdb.query.ContinuousRangeQueryPlan;
 import org.bboxdb.query.filter.UserDefinedFilter;
 import org.bboxdb.query.transformation.TupleTransformation;
@@ -28,6 +30,7 @@ import org.bboxdb.storage.entity.InvalidationTuple;
 import org.bboxdb.storage.entity.MultiTuple;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.entity.WatermarkTuple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,6 +63,11 @@ public class ContinuousRangeQuery extends AbstractContinuousQuery<ContinuousRang
 	@Override
 	public void accept(final TupleStoreName tupleStoreName, final Tuple streamTuple) {
 		
+		// Keys that are not updated for the TTL left the region, reported before the watermark
+		if(streamTuple instanceof WatermarkTuple && queryPlan.getMembershipTTL() > 0) {
+			removeExpiredKeys(streamTuple.getVersionTimestamp());
+		}
+		
 		final boolean processFurtherActions = processSpecialTuples(tupleStoreName, streamTuple);
 		
 		if(! processFurtherActions) {
@@ -78,7 +86,7 @@ public class ContinuousRangeQuery extends AbstractContinuousQuery<ContinuousRang
 		
 		// Perform stream UDFs
 		final boolean udfMatches = ContinuousQueryHelper.doUserDefinedFilterMatch(
-				streamTuple, streamFilters);
+				queryPlan.getStreamTable(), streamTuple, streamFilters);
 		
 		if(! udfMatches) {
 			handleNonMatch(streamTuple);
@@ -88,23 +96,30 @@ public class ContinuousRangeQuery extends AbstractContinuousQuery<ContinuousRang
 		// Is the tuple important for the query?
 		if(tuple.getBoundingBox().intersects(queryPlan.getCompareRectangle())) {
 			if(queryPlan.isReportPositive()) {
-				final MultiTuple joinedTuple = new MultiTuple(streamTuple, queryPlan.getStreamTable());
-				handleMatch(streamTuple);
-				continuousClientQuery.queueTupleForClientProcessing(joinedTuple);
+				reportMatch(streamTuple);
 			} else {
 				handleNonMatch(streamTuple);
 			}
 		} else {
 			if(! queryPlan.isReportPositive()) {
-				final MultiTuple joinedTuple = new MultiTuple(streamTuple, queryPlan.getStreamTable());
-				handleMatch(streamTuple);
-				continuousClientQuery.queueTupleForClientProcessing(joinedTuple);
+				reportMatch(streamTuple);
 			} else {
 				handleNonMatch(streamTuple);
 			}
 		}
 	}
 	
+	@Override
+	protected Hyperrectangle getMatchRange() {
+		
+		// Negated queries report the non intersecting tuples
+		if(! queryPlan.isReportPositive()) {
+			return null;
+		}
+		
+		return queryPlan.getCompareRectangle();
+	}
+	
 	/**
 	 * Handle the non match of the stream tuple
 	 * @param streamTuple
@@ -122,16 +137,81 @@ public class ContinuousRangeQuery extends AbstractContinuousQuery<ContinuousRang
 		}
 	}
 	
+	/**
+	 * Update the state and send the matching stream tuple to the client
+	 * @param streamTuple
+	 */
+	private void reportMatch(final Tuple streamTuple) {
+		final boolean reportTuple = handleMatch(streamTuple);
+		
+		if(reportTuple) {
+			final MultiTuple joinedTuple = new MultiTuple(streamTuple, queryPlan.getStreamTable());
+			continuousClientQuery.queueTupleForClientProcessing(joinedTuple);
+		}
+	}
+	
 	/**
 	 * Handle the match of the stream tuple
 	 * @param streamTuple
+	 * @return true if the stream tuple needs to be reported
 	 */
-	protected void handleMatch(final Tuple streamTuple) {
+	protected boolean handleMatch(final Tuple streamTuple) {
 		if(! queryPlan.isReceiveInvalidations()) {
-			return;
+			return true;
 		}
 		
-		continuousQueryState.addStreamKeyToState(streamTuple.getKey());
+		final String streamKey = streamTuple.getKey();
+		final long version = streamTuple.getVersionTimestamp();
+		final boolean enter = continuousQueryState.addStreamKeyToState(streamKey, version);
+		
+		if(! queryPlan.isReportEnterAndExit()) {
+			return true;
+		}
+		
+		// The state has reached its max size. Evict the least recently updated keys (reported 
+		// as EXIT), so that the key is tracked and not reported as ENTER on every update.
+		if(enter && ! continuousQueryState.wasStreamKeyContainedInLastRangeQuery(streamKey)) {
+			handleEvictedKeys(continuousQueryState.evictLeastRecentlyUpdatedKeys(), version);
+			continuousQueryState.addStreamKeyToState(streamKey, version);
+		}
+		
+		// In the enter and exit mode, keys that are already contained are not reported again
+		return enter;
+	}
+	
+	/**
+	 * Remove the keys that are not updated for the membership TTL and report the EXIT
+	 * @param watermark
+	 */
+	private void removeExpiredKeys(final long watermark) {
+		final long minVersion = watermark - queryPlan.getMembershipTTL();
+		final List<String> expiredKeys = continuousQueryState.removeExpiredStreamKeys(minVersion, watermark);
+		
+		for(final String streamKey : expiredKeys) {
+			logger.debug("Key {} is expired, sending invalidation tuple", streamKey);
+			queueInvalidationTuple(streamKey, watermark);
+		}
+	}
+	
+	/**
+	 * The evicted keys are no longer tracked. In the enter and exit mode, 
+	 * this is reported as the EXIT of the keys.
+	 */
+	@Override
+	protected void handleEvictedKeys(final EvictedKeys evictedKeys, final long version) {
+		for(final String streamKey : evictedKeys.getStreamKeys()) {
+			logger.debug("Key {} is evicted, sending invalidation tuple", streamKey);
+			queueInvalidationTuple(streamKey, version);
+		}
+	}
+
+	/**
+	 * A deleted key is no longer contained in the region. In the enter and 
+	 * exit mode, this is reported as the EXIT of the key.
+	 */
+	@Override
+	protected void handleDeletedTuple(final Tuple streamTuple) {
+		handleNonMatch(streamTuple);
 	}
 
 	@Override
@@ -156,8 +236,15 @@ public class ContinuousRangeQuery extends AbstractContinuousQuery<ContinuousRang
 			final ContinuousQueryExecutionState continuousQueryState, final String streamKey) {
 		
 		continuousQueryState.removeStreamKeyFromRangeState(streamKey);
-		
-		final long versionTimestamp = streamTuple.getVersionTimestamp();
+		queueInvalidationTuple(streamKey, streamTuple.getVersionTimestamp());
+	}
+	
+	/**
+	 * Send an invalidation tuple for the stream key to the client
+	 * @param streamKey
+	 * @param versionTimestamp
+	 */
+	private void queueInvalidationTuple(final String streamKey, final long versionTimestamp) {
 		final InvalidationTuple tuple = new InvalidationTuple(streamKey, versionTimestamp);
 		final MultiTuple joinedTuple = new MultiTuple(tuple, queryPlan.getStreamTable());
 		continuousClientQuery.queueTupleForClientProcessing(joinedTuple);
@@ -17,27 +17,41 @@
  *******************************************************************************/
 package org.bboxdb.network.server.query.continuous;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 
 import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.distribution.membership.BBoxDBInstance;
+import org.bboxdb.distribution.partitioner.SpacePartitioner;
+import org.bboxdb.distribution.partitioner.SpacePartitionerCache;
 import org.bboxdb.distribution.partitioner.regionsplit.RangeQueryExecutor;
 import org.bboxdb.distribution.partitioner.regionsplit.RangeQueryExecutor.ExecutionPolicy;
+import org.bboxdb.distribution.region.DistributionRegion;
+import org.bboxdb.distribution.region.DistributionRegionHelper;
+import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
+import org.bboxdb.distribution.zookeeper.ZookeeperException;
 import org.bboxdb.misc.BBoxDBConfiguration.ContinuousSpatialJoinFetchMode;
 import org.bboxdb.misc.BBoxDBConfigurationManager;
 import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.misc.Const;
 import org.bboxdb.network.entity.TupleAndBoundingBox;
+import org.bboxdb.network.routing.RoutingHopHelper;
+import org.bboxdb.network.server.query.continuous.ContinuousQueryExecutionState.EvictedKeys;
+import org.bboxdb.network.server.query.QueryHelper;
 import org.bboxdb.query.ContinuousSpatialJoinQueryPlan;
 import org.bboxdb.query.filter.UserDefinedFilter;
 import org.bboxdb.query.transformation.TupleTransformation;
+import org.bboxdb.storage.StorageManagerException;
 import org.bboxdb.storage.entity.InvalidationTuple;
 import org.bboxdb.storage.entity.MultiTuple;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,6 +67,16 @@ public class ContinuousSpatialJoinQuery extends AbstractContinuousQuery<Continuo
 	 * The join filters
 	 */
 	private final Map<UserDefinedFilter, byte[]> joinFilters;
+	
+	/**
+	 * The acquired join table caches of this query
+	 */
+	private final Map<TupleStoreManager, ContinuousJoinTableCache> joinTableCaches;
+	
+	/**
+	 * The join table caches are released
+	 */
+	private boolean joinTableCachesReleased;
 
 	/**
 	 * The Logger
@@ -66,6 +90,8 @@ public class ContinuousSpatialJoinQuery extends AbstractContinuousQuery<Continuo
 		
 		this.streamFilters = ContinuousQueryHelper.getUserDefinedFilter(queryPlan.getStreamFilters());
 		this.joinFilters = ContinuousQueryHelper.getUserDefinedFilter(queryPlan.getAfterJoinFilter());
+		this.joinTableCaches = new IdentityHashMap<>();
+		this.joinTableCachesReleased = false;
 	}
 	
 	@Override
@@ -98,7 +124,7 @@ public class ContinuousSpatialJoinQuery extends AbstractContinuousQuery<Continuo
 		
 		// Perform stream UDFs
 		final boolean udfMatches = ContinuousQueryHelper.doUserDefinedFilterMatch(
-				streamTuple, streamFilters);
+				queryPlan.getStreamTable(), streamTuple, streamFilters);
 		
 		if(! udfMatches) {
 			handleNonMatch(streamTuple);
@@ -122,6 +148,19 @@ public class ContinuousSpatialJoinQuery extends AbstractContinuousQuery<Continuo
 				executionPolicy = ExecutionPolicy.ALL;
 			} 
 			
+			// Only local data is read, try to use the in-memory join table caches
+			if(executionPolicy == ExecutionPolicy.LOCAL_ONLY 
+					&& ContinuousJoinTableCacheRegistry.getInstance().isCacheEnabled()) {
+				
+				final boolean cacheResult = readJoinPartnersFromCache(joinTableName, 
+						transformedStreamTuple.getBoundingBox(), tupleConsumer, storageRegistry);
+				
+				if(cacheResult) {
+					handleJoinMatchFinal(streamTuple);
+					return;
+				}
+			}
+			
 			final RangeQueryExecutor rangeQueryExecutor = new RangeQueryExecutor(joinTableName, 
 					transformedStreamTuple.getBoundingBox(), 
 					tupleConsumer, storageRegistry,
@@ -141,6 +180,99 @@ public class ContinuousSpatialJoinQuery extends AbstractContinuousQuery<Continuo
 		}	
 	}
 	
+	@Override
+	protected Hyperrectangle getMatchRange() {
+		return queryPlan.getQueryRange();
+	}
+	
+	/**
+	 * Read the join partners from the in-memory caches of the local join tables
+	 * 
+	 * @param joinTableName
+	 * @param boundingBox
+	 * @param tupleConsumer
+	 * @param storageRegistry
+	 * @return false if the caches can not be used and the tuple stores needs to be read
+	 * @throws BBoxDBException
+	 */
+	private boolean readJoinPartnersFromCache(final TupleStoreName joinTableName, 
+			final Hyperrectangle boundingBox, final Consumer<Tuple> tupleConsumer, 
+			final TupleStoreManagerRegistry storageRegistry) throws BBoxDBException {
+		
+		final SpacePartitioner partitioner = SpacePartitionerCache.getInstance()
+				.getSpacePartitionerForGroupName(joinTableName.getDistributionGroup());
+		
+		final List<DistributionRegion> regions = RoutingHopHelper.getRegionsForPredicate(
+				partitioner.getRootNode(), boundingBox, DistributionRegionHelper.PREDICATE_REGIONS_FOR_READ);
+		
+		final BBoxDBInstance localInstance = ZookeeperClientFactory.getLocalInstanceName();
+		final List<ContinuousJoinTableCache> caches = new ArrayList<>();
+		
+		try {
+			for(final DistributionRegion region : regions) {
+				
+				if(! region.getSystems().contains(localInstance)) {
+					continue;
+				}
+				
+				final TupleStoreName regionTableName = joinTableName.cloneWithDifferntRegionId(region.getRegionId());
+				final TupleStoreManager tupleStoreManager = QueryHelper.getTupleStoreManager(storageRegistry, regionTableName);
+				final ContinuousJoinTableCache cache = getJoinTableCache(tupleStoreManager);
+				
+				if(cache == null || ! cache.isUsable()) {
+					return false;
+				}
+				
+				caches.add(cache);
+			}
+		} catch (StorageManagerException | ZookeeperException e) {
+			throw new BBoxDBException(e);
+		}
+		
+		for(final ContinuousJoinTableCache cache : caches) {
+			cache.getTuplesForRegion(boundingBox).forEach(tupleConsumer);
+		}
+		
+		return true;
+	}
+
+	/**
+	 * Get the join table cache of the tuple store manager, the cache is acquired on first use
+	 * @param tupleStoreManager
+	 * @return the cache or null if the query is closed
+	 * @throws StorageManagerException
+	 */
+	private ContinuousJoinTableCache getJoinTableCache(final TupleStoreManager tupleStoreManager) 
+			throws StorageManagerException {
+		
+		synchronized (joinTableCaches) {
+			
+			if(joinTableCachesReleased) {
+				return null;
+			}
+			
+			ContinuousJoinTableCache cache = joinTableCaches.get(tupleStoreManager);
+			
+			if(cache == null) {
+				cache = ContinuousJoinTableCacheRegistry.getInstance().acquireCache(tupleStoreManager);
+				joinTableCaches.put(tupleStoreManager, cache);
+			}
+			
+			return cache;
+		}
+	}
+	
+	@Override
+	public void close() {
+		final ContinuousJoinTableCacheRegistry cacheRegistry = ContinuousJoinTableCacheRegistry.getInstance();
+		
+		synchronized (joinTableCaches) {
+			joinTableCaches.values().forEach(c -> cacheRegistry.releaseCache(c));
+			joinTableCaches.clear();
+			joinTableCachesReleased = true;
+		}
+	}
+	
 	/**
 	 * The callback handler for the range query of a continuous spatial join
 	 * @param qp
@@ -175,7 +307,7 @@ public class ContinuousSpatialJoinQuery extends AbstractContinuousQuery<Continuo
 			
 				// Perform expensive UDF
 				final boolean udfMatches = ContinuousQueryHelper.doUserDefinedFilterMatch(
-						streamTuple, storedTuple, filters);
+						qp.getStreamTable(), streamTuple, qp.getJoinTable(), storedTuple, filters);
 
 				if(udfMatches == true) {
 					final MultiTuple joinedTuple = new MultiTuple(
@@ -252,13 +384,35 @@ public class ContinuousSpatialJoinQuery extends AbstractContinuousQuery<Continuo
 		final ContinuousQueryExecutionState continuousQueryState = continuousClientQuery.getContinuousQueryState();
 		final String streamKey = streamTuple.getKey();
 		
-		final List<String> tables = Arrays.asList(queryPlan.getStreamTable(), queryPlan.getJoinTable());
-		
 		// Invalidate join query results
-		final Set<String> joinPartners = continuousQueryState.commitStateAndGetMissingJoinpartners(streamKey);
+		final Set<String> joinPartners = continuousQueryState.commitStateAndGetMissingJoinpartners(streamKey, 
+				streamTuple.getVersionTimestamp());
+		
+		queueInvalidationTuples(streamKey, joinPartners, streamTuple.getVersionTimestamp());
+	}
+	
+	/**
+	 * The evicted stream keys are no longer tracked, invalidate their join results
+	 */
+	@Override
+	protected void handleEvictedKeys(final EvictedKeys evictedKeys, final long version) {
+		for(final Map.Entry<String, Set<String>> entry : evictedKeys.getJoinKeys().entrySet()) {
+			queueInvalidationTuples(entry.getKey(), entry.getValue(), version);
+		}
+	}
+	
+	/**
+	 * Send the invalidation tuples for the stream key and the join partners to the client
+	 * @param streamKey
+	 * @param joinPartners
+	 * @param versionTimestamp
+	 */
+	private void queueInvalidationTuples(final String streamKey, final Set<String> joinPartners, 
+			final long versionTimestamp) {
+		
+		final List<String> tables = Arrays.asList(queryPlan.getStreamTable(), queryPlan.getJoinTable());
 		
 		for(final String joinPartner : joinPartners) {
-			final long versionTimestamp = streamTuple.getVersionTimestamp();
 			final InvalidationTuple tuple = new InvalidationTuple(streamKey, versionTimestamp);
 			
 			final Tuple joinPartnerTuple = new Tuple(joinPartner, Hyperrectangle.FULL_SPACE, "".getBytes(Const.DEFAULT_CHARSET));
@@ -0,0 +1,264 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.network.server.query.continuous;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+
+public class GridCellWindowAggregator {
+	
+	/**
+	 * The edge length of the cells
+	 */
+	private final double cellSize;
+	
+	/**
+	 * The slide of the window
+	 */
+	private final long windowSlide;
+	
+	/**
+	 * The amount of panes (slides) per window
+	 */
+	private final long panesPerWindow;
+	
+	/**
+	 * The last position of each key per pane <Pane, <Key, Position>>
+	 */
+	private final TreeMap<Long, Map<String, KeyPosition>> panePositions;
+	
+	/**
+	 * The last emitted counts per cell
+	 */
+	private Map<List<Long>, Long> lastCounts;
+	
+	/**
+	 * The end of the next window that is closed (null if no data is pending)
+	 */
+	private Long nextWindowEnd;
+	
+	/**
+	 * The end of the last closed window (null if no window is closed)
+	 */
+	private Long lastClosedWindowEnd;
+	
+	public GridCellWindowAggregator(final double cellSize, final long windowSize, final long windowSlide) {
+		this.cellSize = cellSize;
+		this.windowSlide = windowSlide;
+		this.panesPerWindow = windowSize / windowSlide;
+		this.panePositions = new TreeMap<>();
+		this.lastCounts = new HashMap<>();
+		this.nextWindowEnd = null;
+		this.lastClosedWindowEnd = null;
+	}
+	
+	/**
+	 * Count the key in the cell of the center of the bounding box. Each key 
+	 * is counted once per window, in the cell of its most recent version.
+	 * @param key
+	 * @param boundingBox
+	 * @param timestamp
+	 * @return false if all windows of the timestamp are already closed
+	 */
+	public boolean addTuple(final String key, final Hyperrectangle boundingBox, final long timestamp) {
+		final long pane = Math.floorDiv(timestamp, windowSlide);
+		
+		// The last window that contains the pane is closed
+		if(lastClosedWindowEnd != null && (pane + panesPerWindow) * windowSlide <= lastClosedWindowEnd) {
+			return false;
+		}
+		
+		long firstOpenWindowEnd = (pane + 1) * windowSlide;
+		
+		if(lastClosedWindowEnd != null) {
+			firstOpenWindowEnd = Math.max(firstOpenWindowEnd, lastClosedWindowEnd + windowSlide);
+		}
+		
+		if(nextWindowEnd == null || firstOpenWindowEnd < nextWindowEnd) {
+			nextWindowEnd = firstOpenWindowEnd;
+		}
+		
+		final KeyPosition position = new KeyPosition(getCell(boundingBox), timestamp);
+		
+		// Older versions of the key in the same pane don't move the key
+		panePositions.computeIfAbsent(pane, p -> new HashMap<>()).merge(key, position, 
+				(oldPosition, newPosition) -> 
+				newPosition.timestamp >= oldPosition.timestamp ? newPosition : oldPosition);
+		
+		return true;
+	}
+	
+	/**
+	 * Get the cell of the center of the bounding box
+	 * @param boundingBox
+	 * @return
+	 */
+	private List<Long> getCell(final Hyperrectangle boundingBox) {
+		final List<Long> cell = new ArrayList<>(boundingBox.getDimension());
+		
+		for(int dimension = 0; dimension < boundingBox.getDimension(); dimension++) {
+			final double center = (boundingBox.getCoordinateLow(dimension) 
+					+ boundingBox.getCoordinateHigh(dimension)) / 2.0;
+			
+			cell.add((long) Math.floor(center / cellSize));
+		}
+		
+		return cell;
+	}
+	
+	/**
+	 * Get the bounding box of the cell
+	 * @param cell
+	 * @return
+	 */
+	public Hyperrectangle getCellBoundingBox(final List<Long> cell) {
+		final double[] values = new double[cell.size() * 2];
+		
+		for(int dimension = 0; dimension < cell.size(); dimension++) {
+			values[2 * dimension] = cell.get(dimension) * cellSize;
+			values[2 * dimension + 1] = (cell.get(dimension) + 1) * cellSize;
+		}
+		
+		return new Hyperrectangle(values);
+	}
+	
+	/**
+	 * Close all windows that end before or at the watermark
+	 * @param watermark
+	 * @return the changed cells of the closed windows
+	 */
+	public List<CellCount> advanceWatermark(final long watermark) {
+		final List<CellCount> changedCells = new ArrayList<>();
+		
+		while(nextWindowEnd != null && nextWindowEnd <= watermark) {
+			final long windowEnd = nextWindowEnd;
+			final long lastPane = (windowEnd / windowSlide) - 1;
+			final long firstPane = lastPane - panesPerWindow + 1;
+			
+			// The panes are ordered, the positions of later panes replace the older ones
+			final Map<String, List<Long>> windowCells = new HashMap<>();
+			
+			for(final Map<String, KeyPosition> positions : panePositions.subMap(firstPane, true, lastPane, true).values()) {
+				positions.forEach((key, position) -> windowCells.put(key, position.cell));
+			}
+			
+			final Map<List<Long>, Long> windowCounts = new HashMap<>();
+			windowCells.values().forEach(cell -> windowCounts.merge(cell, 1L, Long::sum));
+			
+			// Changed and new cells
+			windowCounts.forEach((cell, count) -> {
+				if(! count.equals(lastCounts.get(cell))) {
+					changedCells.add(new CellCount(cell, windowEnd, count));
+				}
+			});
+			
+			// Cells without tuples in this window
+			for(final List<Long> cell : lastCounts.keySet()) {
+				if(! windowCounts.containsKey(cell)) {
+					changedCells.add(new CellCount(cell, windowEnd, 0));
+				}
+			}
+			
+			lastCounts = windowCounts;
+			lastClosedWindowEnd = windowEnd;
+			
+			// The first pane is not part of the next window
+			panePositions.headMap(firstPane, true).clear();
+			
+			if(panePositions.isEmpty() && lastCounts.isEmpty()) {
+				nextWindowEnd = null;
+			} else {
+				nextWindowEnd = windowEnd + windowSlide;
+			}
+		}
+		
+		return changedCells;
+	}
+	
+	/**
+	 * Get the amount of panes with pending counts
+	 * @return
+	 */
+	public int getNumberOfPendingPanes() {
+		return panePositions.size();
+	}
+	
+	private static class KeyPosition {
+		
+		/**
+		 * The cell of the key
+		 */
+		private final List<Long> cell;
+		
+		/**
+		 * The version of the key
+		 */
+		private final long timestamp;
+		
+		public KeyPosition(final List<Long> cell, final long timestamp) {
+			this.cell = cell;
+			this.timestamp = timestamp;
+		}
+	}
+	
+	public static class CellCount {
+		
+		/**
+		 * The cell
+		 */
+		private final List<Long> cell;
+		
+		/**
+		 * The end of the window
+		 */
+		private final long windowEnd;
+		
+		/**
+		 * The count
+		 */
+		private final long count;
+		
+		public CellCount(final List<Long> cell, final long windowEnd, final long count) {
+			this.cell = cell;
+			this.windowEnd = windowEnd;
+			this.count = count;
+		}
+
+		public List<Long> getCell() {
+			return cell;
+		}
+
+		public long getWindowEnd() {
+			return windowEnd;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		@Override
+		public String toString() {
+			return "CellCount [cell=" + cell + ", windowEnd=" + windowEnd + ", count=" + count + "]";
+		}
+	}
+}
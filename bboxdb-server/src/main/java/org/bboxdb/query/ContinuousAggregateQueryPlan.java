@@ -0,0 +1,135 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.query;
+
+import java.util.List;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.query.filter.UserDefinedFilterDefinition;
+import org.bboxdb.query.transformation.TupleTransformation;
+
+public class ContinuousAggregateQueryPlan extends ContinuousQueryPlan {
+
+	/**
+	 * The edge length of the grid cells
+	 */
+	private final double cellSize;
+	
+	/**
+	 * The size of the window (in the unit of the tuple version timestamps)
+	 */
+	private final long windowSize;
+	
+	/**
+	 * The slide of the window (equal to the window size for tumbling windows)
+	 */
+	private final long windowSlide;
+
+	public ContinuousAggregateQueryPlan(final String queryUUID, final String streamTable,
+			final List<TupleTransformation> streamTransformation,
+			final Hyperrectangle queryRectangle,
+			final double cellSize, final long windowSize, final long windowSlide,
+			final List<UserDefinedFilterDefinition> streamFilters,
+			final boolean receiveWatermarks) {
+		
+			super(queryUUID, streamTable, streamTransformation, queryRectangle, streamFilters, 
+					receiveWatermarks, false);
+			
+			if(cellSize <= 0) {
+				throw new IllegalArgumentException("The cell size has to be positive: " + cellSize);
+			}
+			
+			if(windowSlide <= 0 || windowSize < windowSlide || windowSize % windowSlide != 0) {
+				throw new IllegalArgumentException("The window size has to be a multiple of the slide: " 
+						+ windowSize + " / " + windowSlide);
+			}
+			
+			this.cellSize = cellSize;
+			this.windowSize = windowSize;
+			this.windowSlide = windowSlide;
+	}
+
+	/**
+	 * Get the edge length of the grid cells
+	 * @return
+	 */
+	public double getCellSize() {
+		return cellSize;
+	}
+
+	/**
+	 * Get the size of the window
+	 * @return
+	 */
+	public long getWindowSize() {
+		return windowSize;
+	}
+
+	/**
+	 * Get the slide of the window
+	 * @return
+	 */
+	public long getWindowSlide() {
+		return windowSlide;
+	}
+	
+	/**
+	 * Is this a tumbling window
+	 * @return
+	 */
+	public boolean isTumblingWindow() {
+		return windowSize == windowSlide;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = super.hashCode();
+		long temp;
+		temp = Double.doubleToLongBits(cellSize);
+		result = prime * result + (int) (temp ^ (temp >>> 32));
+		result = prime * result + (int) (windowSize ^ (windowSize >>> 32));
+		result = prime * result + (int) (windowSlide ^ (windowSlide >>> 32));
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!super.equals(obj))
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		ContinuousAggregateQueryPlan other = (ContinuousAggregateQueryPlan) obj;
+		if (Double.doubleToLongBits(cellSize) != Double.doubleToLongBits(other.cellSize))
+			return false;
+		if (windowSize != other.windowSize)
+			return false;
+		if (windowSlide != other.windowSlide)
+			return false;
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "ContinuousAggregateQueryPlan [cellSize=" + cellSize + ", windowSize=" + windowSize
+				+ ", windowSlide=" + windowSlide + ", toString()=" + super.toString() + "]";
+	}
+
+}
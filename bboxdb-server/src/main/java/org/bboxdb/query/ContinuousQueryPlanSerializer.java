@@ -52,6 +52,7 @@ public class ContinuousQueryPlanSerializer {
 	private static final String QUERY_TYPE_KEY = "query-type";
 	private static final String QUERY_TYPE_JOIN_VALUE = "join-query";
 	private static final String QUERY_TYPE_RANGE_VALUE = "range-query";
+	private static final String QUERY_TYPE_AGGREGATE_VALUE = "aggregate-query";
 	
 	/**
 	 * Misc keys
@@ -64,11 +65,16 @@ public class ContinuousQueryPlanSerializer {
 	private static final String REPORT_POSITIVE_KEY = "report-positive";
 	private static final String REPORT_WATERMARKS_KEY = "report-watermarks";
 	private static final String REPORT_INVALIDATIONS_KEY = "report-invalidations";
+	private static final String REPORT_ENTER_EXIT_KEY = "report-enter-exit";
+	private static final String MEMBERSHIP_TTL_KEY = "membership-ttl";
 
 	private static final String STREAM_TABLE_KEY = "stream-table";
 	private static final String JOIN_TABLE_KEY = "join-table";
 	private static final String QUERY_RANGE_KEY = "query-range";
 	private static final String COMPARE_RECTANGLE_KEY = "compare-rectangle";
+	private static final String CELL_SIZE_KEY = "cell-size";
+	private static final String WINDOW_SIZE_KEY = "window-size";
+	private static final String WINDOW_SLIDE_KEY = "window-slide";
 	
 	/**
 	 * Transformation type
@@ -116,6 +122,8 @@ public class ContinuousQueryPlanSerializer {
 			final ContinuousRangeQueryPlan constQueryPlan = (ContinuousRangeQueryPlan) queryPlan;
 			json.put(COMPARE_RECTANGLE_KEY, constQueryPlan.getCompareRectangle().toCompactString());
 			json.put(REPORT_POSITIVE_KEY, constQueryPlan.isReportPositive());
+			json.put(REPORT_ENTER_EXIT_KEY, constQueryPlan.isReportEnterAndExit());
+			json.put(MEMBERSHIP_TTL_KEY, constQueryPlan.getMembershipTTL());
 		} else if(queryPlan instanceof ContinuousSpatialJoinQueryPlan) {
 			json.put(QUERY_TYPE_KEY, QUERY_TYPE_JOIN_VALUE);
 
@@ -130,6 +138,13 @@ public class ContinuousQueryPlanSerializer {
 			json.put(JOIN_FILTER_KEY, joinFilterJSON);
 			
 			json.put(JOIN_TABLE_KEY, tableQueryPlan.getJoinTable());					
+		} else if(queryPlan instanceof ContinuousAggregateQueryPlan) {
+			json.put(QUERY_TYPE_KEY, QUERY_TYPE_AGGREGATE_VALUE);
+			
+			final ContinuousAggregateQueryPlan aggregateQueryPlan = (ContinuousAggregateQueryPlan) queryPlan;
+			json.put(CELL_SIZE_KEY, aggregateQueryPlan.getCellSize());
+			json.put(WINDOW_SIZE_KEY, aggregateQueryPlan.getWindowSize());
+			json.put(WINDOW_SLIDE_KEY, aggregateQueryPlan.getWindowSlide());
 		} else {
 			throw new IllegalArgumentException("Unknown query type: " + queryPlan);
 		}
@@ -246,9 +261,13 @@ public class ContinuousQueryPlanSerializer {
 
 				final Hyperrectangle compareRectangle = Hyperrectangle.fromString(json.getString(COMPARE_RECTANGLE_KEY));
 				
+				// Optional, not contained in plans of older versions
+				final boolean reportEnterAndExit = json.optBoolean(REPORT_ENTER_EXIT_KEY, false);
+				final long membershipTTL = json.optLong(MEMBERSHIP_TTL_KEY, 0);
+				
 				final ContinuousRangeQueryPlan constQuery = new ContinuousRangeQueryPlan(queryUUID, streamTable, 
 						streamTransformation, queryRectangle, compareRectangle, 
-						reportPositiveNegative, streamFilters, 
+						reportPositiveNegative, reportEnterAndExit, membershipTTL, streamFilters, 
 						receiveWatermarks, receiveInvalidations);
 				
 				return constQuery;
@@ -266,11 +285,21 @@ public class ContinuousQueryPlanSerializer {
 						receiveWatermarks, receiveInvalidations);
 		
 				return tableQuery;
+			case QUERY_TYPE_AGGREGATE_VALUE:
+				final double cellSize = json.getDouble(CELL_SIZE_KEY);
+				final long windowSize = json.getLong(WINDOW_SIZE_KEY);
+				final long windowSlide = json.getLong(WINDOW_SLIDE_KEY);
+				
+				final ContinuousAggregateQueryPlan aggregateQuery = new ContinuousAggregateQueryPlan(queryUUID, 
+						streamTable, streamTransformation, queryRectangle, cellSize, windowSize, 
+						windowSlide, streamFilters, receiveWatermarks);
+				
+				return aggregateQuery;
 			default:
 				throw new BBoxDBException("Unknown query type: " + queryType);
 			}
 			
-		} catch(JSONException e) {
+		} catch(JSONException | IllegalArgumentException e) {
 			throw new BBoxDBException("Unable to handle json: " + jsonString, e);
 		}		
 	}
@@ -35,6 +35,17 @@ public class ContinuousRangeQueryPlan extends ContinuousQueryPlan {
 	 * Report positive or negative elements to the user
 	 */
 	private final boolean reportPositive;
+	
+	/**
+	 * Report only the ENTER and EXIT transitions of the keys (geofence mode)
+	 */
+	private final boolean reportEnterAndExit;
+	
+	/**
+	 * The time after a key that is not updated is considered as left 
+	 * (in the unit of the tuple version timestamps, 0 = no eviction)
+	 */
+	private final long membershipTTL;
 
 	public ContinuousRangeQueryPlan(final String queryUUID, final String streamTable,
 			final List<TupleTransformation> streamTransformation,
@@ -44,11 +55,37 @@ public class ContinuousRangeQueryPlan extends ContinuousQueryPlan {
 			final List<UserDefinedFilterDefinition> streamFilters,
 			final boolean receiveWatermarks, final boolean receiveInvalidations) {
 		
+			this(queryUUID, streamTable, streamTransformation, queryRectangle, compareRectangle, 
+					reportPositiveNegative, false, 0, streamFilters, receiveWatermarks, 
+					receiveInvalidations);
+	}
+	
+	public ContinuousRangeQueryPlan(final String queryUUID, final String streamTable,
+			final List<TupleTransformation> streamTransformation,
+			final Hyperrectangle queryRectangle,
+			final Hyperrectangle compareRectangle,
+			final boolean reportPositiveNegative, 
+			final boolean reportEnterAndExit,
+			final long membershipTTL,
+			final List<UserDefinedFilterDefinition> streamFilters,
+			final boolean receiveWatermarks, final boolean receiveInvalidations) {
+		
 			super(queryUUID, streamTable, streamTransformation, queryRectangle, streamFilters, 
 					receiveWatermarks, receiveInvalidations);
 			
+			if(reportEnterAndExit && (! reportPositiveNegative || ! receiveInvalidations)) {
+				throw new IllegalArgumentException("Enter and exit events require positive matches "
+						+ "and invalidations");
+			}
+			
+			if(membershipTTL < 0 || (membershipTTL > 0 && ! reportEnterAndExit)) {
+				throw new IllegalArgumentException("Invalid membership TTL: " + membershipTTL);
+			}
+			
 			this.compareRectangle = Objects.requireNonNull(compareRectangle);
 			this.reportPositive = reportPositiveNegative;
+			this.reportEnterAndExit = reportEnterAndExit;
+			this.membershipTTL = membershipTTL;
 	}
 
 	/** 
@@ -65,12 +102,31 @@ public class ContinuousRangeQueryPlan extends ContinuousQueryPlan {
 	public boolean isReportPositive() {
 		return reportPositive;
 	}
+	
+	/**
+	 * Are only the ENTER (new tuple) and EXIT (invalidation tuple) 
+	 * transitions of the keys reported?
+	 * @return
+	 */
+	public boolean isReportEnterAndExit() {
+		return reportEnterAndExit;
+	}
+	
+	/**
+	 * Get the membership TTL (0 = no eviction)
+	 * @return
+	 */
+	public long getMembershipTTL() {
+		return membershipTTL;
+	}
 
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = super.hashCode();
 		result = prime * result + ((compareRectangle == null) ? 0 : compareRectangle.hashCode());
+		result = prime * result + (int) (membershipTTL ^ (membershipTTL >>> 32));
+		result = prime * result + (reportEnterAndExit ? 1231 : 1237);
 		result = prime * result + (reportPositive ? 1231 : 1237);
 		return result;
 	}
@@ -89,6 +145,10 @@ public class ContinuousRangeQueryPlan extends ContinuousQueryPlan {
 				return false;
 		} else if (!compareRectangle.equals(other.compareRectangle))
 			return false;
+		if (membershipTTL != other.membershipTTL)
+			return false;
+		if (reportEnterAndExit != other.reportEnterAndExit)
+			return false;
 		if (reportPositive != other.reportPositive)
 			return false;
 		return true;
@@ -97,6 +157,7 @@ public class ContinuousRangeQueryPlan extends ContinuousQueryPlan {
 	@Override
 	public String toString() {
 		return "ContinuousRangeQueryPlan [compareRectangle=" + compareRectangle + ", reportPositive=" + reportPositive
+				+ ", reportEnterAndExit=" + reportEnterAndExit + ", membershipTTL=" + membershipTTL 
 				+ ", toString()=" + super.toString() + "]";
 	}
 
@@ -91,6 +91,31 @@ public class QueryPlanBuilder {
 	 * This query should receive invalidations
 	 */
 	private boolean receiveInvalidations;
+	
+	/**
+	 * The edge length of the grid cells for aggregations
+	 */
+	private double aggregateCellSize;
+	
+	/**
+	 * The window size for aggregations
+	 */
+	private long aggregateWindowSize;
+	
+	/**
+	 * The window slide for aggregations
+	 */
+	private long aggregateWindowSlide;
+	
+	/**
+	 * Report only the enter and exit transitions of the keys
+	 */
+	private boolean reportEnterAndExit;
+	
+	/**
+	 * The membership TTL of the enter and exit mode
+	 */
+	private long membershipTTL;
 
 	public QueryPlanBuilder(final String tablename) {
 		this.queryUUID = UUID.randomUUID().toString();
@@ -103,6 +128,9 @@ public class QueryPlanBuilder {
 		this.receiveInvalidations = false;
 		this.receiveWatermarks = false;
 		this.queryRegion = Hyperrectangle.FULL_SPACE;
+		this.aggregateCellSize = 0;
+		this.reportEnterAndExit = false;
+		this.membershipTTL = 0;
 	}
 
 	/**
@@ -145,6 +173,34 @@ public class QueryPlanBuilder {
 		return this;
 	}
 	
+	/**
+	 * Count the tuples per grid cell in a tumbling window
+	 * @param cellSize - the edge length of the cells
+	 * @param windowSize - the window size (in the unit of the tuple version timestamps)
+	 * @return
+	 */
+	public QueryPlanBuilder countTuplesPerCellInTumblingWindow(final double cellSize, 
+			final long windowSize) {
+		
+		return countTuplesPerCellInSlidingWindow(cellSize, windowSize, windowSize);
+	}
+	
+	/**
+	 * Count the tuples per grid cell in a sliding window
+	 * @param cellSize - the edge length of the cells
+	 * @param windowSize - the window size (in the unit of the tuple version timestamps)
+	 * @param windowSlide - the window slide, the window size has to be a multiple of the slide 
+	 * @return
+	 */
+	public QueryPlanBuilder countTuplesPerCellInSlidingWindow(final double cellSize, 
+			final long windowSize, final long windowSlide) {
+		
+		this.aggregateCellSize = cellSize;
+		this.aggregateWindowSize = windowSize;
+		this.aggregateWindowSlide = windowSlide;
+		return this;
+	}
+	
 	/**
 	 * Report only positive matches
 	 * @return
@@ -163,6 +219,28 @@ public class QueryPlanBuilder {
 		return this;
 	}
 	
+	/**
+	 * Report only the ENTER and EXIT transitions of the keys in the static region. An 
+	 * ENTER is reported as the tuple, an EXIT as an invalidation tuple.
+	 * @return
+	 */
+	public QueryPlanBuilder reportEnterAndExitEvents() {
+		return reportEnterAndExitEvents(0);
+	}
+	
+	/**
+	 * Report only the ENTER and EXIT transitions of the keys in the static region. Keys 
+	 * that are not updated for the TTL are reported as EXIT on the next watermark.
+	 * @param membershipTTL - the TTL (in the unit of the tuple version timestamps)
+	 * @return
+	 */
+	public QueryPlanBuilder reportEnterAndExitEvents(final long membershipTTL) {
+		this.reportEnterAndExit = true;
+		this.membershipTTL = membershipTTL;
+		this.receiveInvalidations = true;
+		return this;
+	}
+	
 	/**
 	 * Receive watermarks (if available)
 	 * @return
@@ -304,10 +382,27 @@ public class QueryPlanBuilder {
 					+ "const hyperrectangle and join table");
 		}
 		
+		if(reportEnterAndExit && regionConst == null) {
+			throw new IllegalArgumentException("Enter and exit events are only supported "
+					+ "for queries with a const hyperrectangle");
+		}
+		
+		if(aggregateCellSize > 0) {
+			
+			if(regionConst != null || joinTable != null) {
+				throw new IllegalArgumentException("Unable to construct aggregate query plan with "
+						+ "const hyperrectangle or join table");
+			}
+			
+			return new ContinuousAggregateQueryPlan(queryUUID, streamTable, streamTupleTransformation, 
+					queryRegion, aggregateCellSize, aggregateWindowSize, aggregateWindowSlide, 
+					streamFilters, receiveWatermarks);
+		}
+		
 		if(regionConst != null) {
 			return new ContinuousRangeQueryPlan(queryUUID, streamTable, streamTupleTransformation, 
-					queryRegion, regionConst, reportPositiveMatches, streamFilters, 
-					receiveWatermarks, receiveInvalidations);
+					queryRegion, regionConst, reportPositiveMatches, reportEnterAndExit, membershipTTL, 
+					streamFilters, receiveWatermarks, receiveInvalidations);
 		}
 		
 		if(joinTable != null) {
@@ -321,7 +416,7 @@ public class QueryPlanBuilder {
 					streamFilters, joinFilters, receiveWatermarks, receiveInvalidations);
 		}
 		
-		throw new IllegalArgumentException("Join table or const region need to be set");
+		throw new IllegalArgumentException("Join table, const region or aggregation need to be set");
 	}
 
 }
@@ -0,0 +1,236 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.query.filter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bboxdb.distribution.TupleStoreConfigurationCache;
+import org.bboxdb.misc.BBoxDBConfigurationManager;
+import org.bboxdb.storage.entity.GeometryEncoding;
+import org.bboxdb.storage.entity.Tuple;
+
+import com.esri.core.geometry.ogc.OGCGeometry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import io.prometheus.client.Gauge;
+
+public class GeometryCache {
+
+	/**
+	 * The instance
+	 */
+	private static GeometryCache instance;
+
+	/**
+	 * The cached geometries <(Table, Key, Version), Geometry>
+	 */
+	private final Cache<GeometryCacheKey, OGCGeometry> cache;
+	
+	/**
+	 * The geometry encodings of the tables
+	 */
+	private final Map<String, GeometryEncoding> tableEncodings;
+
+	/**
+	 * The cache hits
+	 */
+	private final static Gauge cacheHitsTotal = Gauge.build()
+			.name("bboxdb_udf_geometry_cache_hits_total")
+			.help("Total amount of geometry cache hits").register();
+
+	/**
+	 * The cache misses
+	 */
+	private final static Gauge cacheMissesTotal = Gauge.build()
+			.name("bboxdb_udf_geometry_cache_misses_total")
+			.help("Total amount of geometry cache misses").register();
+
+	static {
+		final int entries = BBoxDBConfigurationManager.getConfiguration().getUdfGeometryCacheEntries();
+		instance = new GeometryCache(entries);
+	}
+
+	private GeometryCache(final int entries) {
+		// private singleton constructor
+		tableEncodings = new ConcurrentHashMap<>();
+		
+		if(entries > 0) {
+			cache = CacheBuilder.newBuilder().maximumSize(entries).build();
+		} else {
+			cache = null;
+		}
+	}
+
+	@Override
+	protected Object clone() throws CloneNotSupportedException {
+		throw new IllegalArgumentException("Unable to clone a singleton");
+	}
+
+	/**
+	 * Return the instance
+	 * @return
+	 */
+	public static GeometryCache getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Get the geometry of the tuple. The geometry is decoded with the encoding 
+	 * of the table and parsed only once per table, key and version as long as 
+	 * it is not evicted from the cache. When the table is unknown (null), the 
+	 * encoding is detected from the data and the geometry is not cached.
+	 *
+	 * @param tablename
+	 * @param tuple
+	 * @return
+	 */
+	public OGCGeometry getGeometry(final String tablename, final Tuple tuple) {
+
+		final GeometryEncoding encoding = getEncoding(tablename, tuple.getDataBytes());
+		
+		if(cache == null || tablename == null) {
+			return GeometryHelper.extractGeometry(tuple.getDataBytes(), encoding);
+		}
+
+		final GeometryCacheKey cacheKey 
+			= new GeometryCacheKey(tablename, tuple.getKey(), tuple.getVersionTimestamp());
+
+		final OGCGeometry cachedGeometry = cache.getIfPresent(cacheKey);
+
+		if(cachedGeometry != null) {
+			cacheHitsTotal.inc();
+			return cachedGeometry;
+		}
+
+		cacheMissesTotal.inc();
+		final OGCGeometry geometry = GeometryHelper.extractGeometry(tuple.getDataBytes(), encoding);
+		cache.put(cacheKey, geometry);
+
+		return geometry;
+	}
+	
+	/**
+	 * Get the geometry encoding of the given table. The encoding is detected from 
+	 * the data, when the table is not known or the configuration could not be read.
+	 * 
+	 * @param tablename
+	 * @param data
+	 * @return
+	 */
+	public GeometryEncoding getEncoding(final String tablename, final byte[] data) {
+		
+		if(tablename == null) {
+			return GeometryHelper.getEncoding(data);
+		}
+		
+		final GeometryEncoding encoding = tableEncodings.computeIfAbsent(tablename, 
+				t -> TupleStoreConfigurationCache.getInstance().getGeometryEncodingForTupleStore(t));
+		
+		if(encoding == null) {
+			return GeometryHelper.getEncoding(data);
+		}
+		
+		return encoding;
+	}
+
+	/**
+	 * Remove all cached geometries
+	 */
+	public void clear() {
+		tableEncodings.clear();
+		
+		if(cache != null) {
+			cache.invalidateAll();
+		}
+	}
+
+	/**
+	 * Get the amount of cached geometries
+	 * @return
+	 */
+	public long size() {
+		if(cache == null) {
+			return 0;
+		}
+
+		return cache.size();
+	}
+	
+	/**
+	 * The key of a cached geometry
+	 */
+	private static class GeometryCacheKey {
+		
+		/**
+		 * The table of the tuple
+		 */
+		private final String tablename;
+		
+		/**
+		 * The key of the tuple
+		 */
+		private final String key;
+		
+		/**
+		 * The version of the tuple
+		 */
+		private final long version;
+
+		public GeometryCacheKey(final String tablename, final String key, final long version) {
+			this.tablename = tablename;
+			this.key = key;
+			this.version = version;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((key == null) ? 0 : key.hashCode());
+			result = prime * result + ((tablename == null) ? 0 : tablename.hashCode());
+			result = prime * result + (int) (version ^ (version >>> 32));
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			GeometryCacheKey other = (GeometryCacheKey) obj;
+			if (key == null) {
+				if (other.key != null)
+					return false;
+			} else if (!key.equals(other.key))
+				return false;
+			if (tablename == null) {
+				if (other.tablename != null)
+					return false;
+			} else if (!tablename.equals(other.tablename))
+				return false;
+			if (version != other.version)
+				return false;
+			return true;
+		}
+	}
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.query.filter;
+
+import java.nio.ByteBuffer;
+
+import org.bboxdb.storage.entity.GeometryEncoding;
+import org.json.JSONObject;
+
+import com.esri.core.geometry.MapOGCStructure;
+import com.esri.core.geometry.Operator;
+import com.esri.core.geometry.OperatorFactoryLocal;
+import com.esri.core.geometry.OperatorImportFromGeoJson;
+import com.esri.core.geometry.WktImportFlags;
+import com.esri.core.geometry.ogc.OGCGeometry;
+
+public class GeometryHelper {
+
+	/**
+	 * The WKB byte order marker for big endian
+	 */
+	private final static byte WKB_BIG_ENDIAN = 0x00;
+
+	/**
+	 * The WKB byte order marker for little endian
+	 */
+	private final static byte WKB_LITTLE_ENDIAN = 0x01;
+
+	/**
+	 * The size of the WKB header (byte order + geometry type)
+	 */
+	private final static int WKB_HEADER_SIZE = 5;
+
+	/**
+	 * Get the encoding of the given data. GeoJSON data always starts with a
+	 * printable character, WKB data with the byte order marker.
+	 *
+	 * @param data
+	 * @return
+	 */
+	public static GeometryEncoding getEncoding(final byte[] data) {
+
+		if(data.length < WKB_HEADER_SIZE) {
+			return GeometryEncoding.GEOJSON;
+		}
+
+		if(data[0] == WKB_BIG_ENDIAN || data[0] == WKB_LITTLE_ENDIAN) {
+			return GeometryEncoding.WKB;
+		}
+
+		return GeometryEncoding.GEOJSON;
+	}
+
+	/**
+	 * Extract the geometry from the given tuple data, the encoding is detected from the data
+	 * @param data
+	 * @return
+	 */
+	public static OGCGeometry extractGeometry(final byte[] data) {
+		return extractGeometry(data, getEncoding(data));
+	}
+	
+	/**
+	 * Extract the geometry from the given tuple data with the given encoding
+	 * @param data
+	 * @param encoding
+	 * @return
+	 */
+	public static OGCGeometry extractGeometry(final byte[] data, final GeometryEncoding encoding) {
+
+		if(encoding == GeometryEncoding.WKB) {
+			return wkbToGeometry(data);
+		}
+
+		final JSONObject jsonObject = new JSONObject(new String(data));
+		return extractGeometry(jsonObject);
+	}
+
+	/**
+	 * Extract the geometry from the given GeoJSON object
+	 * @param jsonObject
+	 * @return
+	 */
+	public static OGCGeometry extractGeometry(final JSONObject jsonObject) {
+
+		// Extract geometry (if exists)
+		final JSONObject geometryObject = jsonObject.optJSONObject("geometry");
+
+		if(geometryObject != null) {
+			return geoJsonToGeometry(geometryObject.toString());
+		}
+
+		return geoJsonToGeometry(jsonObject.toString());
+	}
+
+	/**
+	 * Convert the GeoJSON element to a ESRI geometry
+	 * @param jsonString
+	 * @return
+	 */
+	public static OGCGeometry geoJsonToGeometry(final String jsonString) {
+
+		final OperatorImportFromGeoJson op = (OperatorImportFromGeoJson) OperatorFactoryLocal
+		        .getInstance().getOperator(Operator.Type.ImportFromGeoJson);
+
+	    final MapOGCStructure structure = op.executeOGC(WktImportFlags.wktImportDefaults, jsonString, null);
+
+	    return OGCGeometry.createFromOGCStructure(structure.m_ogcStructure,
+	    		structure.m_spatialReference);
+	}
+
+	/**
+	 * Convert the WKB data to a ESRI geometry
+	 * @param data
+	 * @return
+	 */
+	public static OGCGeometry wkbToGeometry(final byte[] data) {
+		return OGCGeometry.fromBinary(ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * Convert the ESRI geometry into WKB
+	 * @param geometry
+	 * @return
+	 */
+	public static byte[] geometryToWKB(final OGCGeometry geometry) {
+		final ByteBuffer byteBuffer = geometry.asBinary();
+		final byte[] result = new byte[byteBuffer.remaining()];
+		byteBuffer.get(result);
+		return result;
+	}
+
+	/**
+	 * Convert the GeoJSON string (feature or geometry) into WKB
+	 * @param geoJson
+	 * @return
+	 */
+	public static byte[] geoJsonToWKB(final String geoJson) {
+		final JSONObject jsonObject = new JSONObject(geoJson);
+		final OGCGeometry geometry = extractGeometry(jsonObject);
+		return geometryToWKB(geometry);
+	}
+}
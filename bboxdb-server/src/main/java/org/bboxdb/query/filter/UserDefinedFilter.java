@@ -20,6 +20,14 @@ package org.bboxdb.query.filter;
 
 import org.bboxdb.storage.entity.Tuple;
 
+/**
+ * A user defined filter. Instances are created via the {@link UserDefinedFilterRegistry} 
+ * and reused for all queries with the same filter class and custom data. The same 
+ * instance can be called concurrently by multiple threads, so implementations have 
+ * to be thread-safe. State that is derived from the custom data (e.g., a parsed 
+ * query geometry) can be cached in the instance, state that depends on a single 
+ * query or tuple must not be stored.
+ */
 public interface UserDefinedFilter {
 	
 	/**
@@ -49,4 +57,36 @@ public interface UserDefinedFilter {
 		throw new UnsupportedOperationException("The filterTuple method is not implemented");
 	}
 	
+	/**
+	 * Filter a single tuple of the given table via UDF. The default implementation 
+	 * ignores the table. Implementations can use the table to scope cached state.
+	 * 
+	 * @param tablename - the table of the tuple or null if the table is not known
+	 * @param tuple - the tuple to filter
+	 * @param customData - custom data to execute the operation
+	 * 
+	 * @return true or false
+	 */
+	public default boolean filterTuple(final String tablename, final Tuple tuple, final byte[] customData) {
+		return filterTuple(tuple, customData);
+	}
+	
+	/**
+	 * Filter a join candidate of the given tables via UDF. The default implementation 
+	 * ignores the tables. Implementations can use the tables to scope cached state.
+	 * 
+	 * @param tablename1 - the table of the first tuple or null if the table is not known
+	 * @param tuple1 - The first tuple of the join candidate
+	 * @param tablename2 - the table of the second tuple or null if the table is not known
+	 * @param tuple2 - The second tuple of the join candidate
+	 * @param customData - custom data to execute the operation
+	 * 
+	 * @return true or false
+	 */
+	public default boolean filterJoinCandidate(final String tablename1, final Tuple tuple1, 
+			final String tablename2, final Tuple tuple2, final byte[] customData) {
+		
+		return filterJoinCandidate(tuple1, tuple2, customData);
+	}
+	
 }
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.query.filter;
+
+import org.bboxdb.misc.BBoxDBConfigurationManager;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import io.prometheus.client.Gauge;
+
+public class UserDefinedFilterRegistry {
+
+	/**
+	 * The instance
+	 */
+	private static UserDefinedFilterRegistry instance;
+
+	/**
+	 * The cached filters <(Class, Custom data), Filter>. The filters are shared
+	 * between queries and threads, see the contract of {@link UserDefinedFilter}.
+	 */
+	private final Cache<UserDefinedFilterDefinition, UserDefinedFilter> cache;
+
+	/**
+	 * The cache hits
+	 */
+	private final static Gauge cacheHitsTotal = Gauge.build()
+			.name("bboxdb_udf_instance_cache_hits_total")
+			.help("Total amount of user defined filter instance cache hits").register();
+
+	/**
+	 * The cache misses
+	 */
+	private final static Gauge cacheMissesTotal = Gauge.build()
+			.name("bboxdb_udf_instance_cache_misses_total")
+			.help("Total amount of user defined filter instance cache misses").register();
+
+	static {
+		final int entries = BBoxDBConfigurationManager.getConfiguration().getUdfInstanceCacheEntries();
+		instance = new UserDefinedFilterRegistry(entries);
+	}
+
+	private UserDefinedFilterRegistry(final int entries) {
+		// private singleton constructor
+		if(entries > 0) {
+			cache = CacheBuilder.newBuilder().maximumSize(entries).build();
+		} else {
+			cache = null;
+		}
+	}
+
+	@Override
+	protected Object clone() throws CloneNotSupportedException {
+		throw new IllegalArgumentException("Unable to clone a singleton");
+	}
+
+	/**
+	 * Return the instance
+	 * @return
+	 */
+	public static UserDefinedFilterRegistry getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Get the filter instance for the given definition. The same instance is
+	 * returned for the same class and custom data as long as it is not evicted.
+	 *
+	 * @param definition
+	 * @return
+	 * @throws IllegalArgumentException - when the filter could not be instantiated
+	 */
+	public UserDefinedFilter getFilter(final UserDefinedFilterDefinition definition) {
+
+		if(cache == null) {
+			return createFilter(definition);
+		}
+
+		final UserDefinedFilter cachedFilter = cache.getIfPresent(definition);
+
+		if(cachedFilter != null) {
+			cacheHitsTotal.inc();
+			return cachedFilter;
+		}
+
+		cacheMissesTotal.inc();
+		final UserDefinedFilter filter = createFilter(definition);
+
+		// Keep the first instance when two threads create the filter concurrently
+		final UserDefinedFilter existingFilter = cache.asMap().putIfAbsent(definition, filter);
+
+		if(existingFilter != null) {
+			return existingFilter;
+		}
+
+		return filter;
+	}
+
+	/**
+	 * Create a new instance of the filter
+	 * @param definition
+	 * @return
+	 */
+	private UserDefinedFilter createFilter(final UserDefinedFilterDefinition definition) {
+		try {
+			final Class<?> filterClass = Class.forName(definition.getUserDefinedFilterClass());
+			return (UserDefinedFilter) filterClass.newInstance();
+		} catch (ClassNotFoundException | InstantiationException | IllegalAccessException | ClassCastException e) {
+			throw new IllegalArgumentException("Unable to instantiate user defined filter: "
+					+ definition.getUserDefinedFilterClass(), e);
+		}
+	}
+
+	/**
+	 * Remove all cached filters
+	 */
+	public void clear() {
+		if(cache != null) {
+			cache.invalidateAll();
+		}
+	}
+
+	/**
+	 * Get the amount of cached filters
+	 * @return
+	 */
+	public long size() {
+		if(cache == null) {
+			return 0;
+		}
+
+		return cache.size();
+	}
+}
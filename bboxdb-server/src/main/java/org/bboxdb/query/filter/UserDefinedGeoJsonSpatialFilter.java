@@ -17,28 +17,25 @@
  *******************************************************************************/
 package org.bboxdb.query.filter;
 
+import org.bboxdb.storage.entity.GeometryEncoding;
 import org.bboxdb.storage.entity.Tuple;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.esri.core.geometry.GeometryEngine;
-import com.esri.core.geometry.MapOGCStructure;
-import com.esri.core.geometry.Operator;
-import com.esri.core.geometry.OperatorFactoryLocal;
-import com.esri.core.geometry.OperatorImportFromGeoJson;
 import com.esri.core.geometry.Point;
 import com.esri.core.geometry.Proximity2DResult;
-import com.esri.core.geometry.WktImportFlags;
 import com.esri.core.geometry.ogc.OGCGeometry;
 import com.esri.core.geometry.ogc.OGCPoint;
 
 public class UserDefinedGeoJsonSpatialFilter implements UserDefinedFilter {
 
 	/**
-	 * The cached geometry
+	 * The cached geometry (the instance is shared between threads, 
+	 * the geometry is only derived from the custom data)
 	 */
-	private OGCGeometry customGeomety = null;
+	private volatile OGCGeometry customGeomety = null;
 	
 	/**
 	 * The overlapping distance
@@ -56,6 +53,14 @@ public class UserDefinedGeoJsonSpatialFilter implements UserDefinedFilter {
 	 */
 	@Override
 	public boolean filterTuple(final Tuple tuple, final byte[] customData) {
+		return filterTuple(null, tuple, customData);
+	}
+	
+	/**
+	 * Perform a real filter based on the geometry of the data
+	 */
+	@Override
+	public boolean filterTuple(final String tablename, final Tuple tuple, final byte[] customData) {
 		
 		// No custom geometry is passed
 		if(customData == null) { 
@@ -64,9 +69,6 @@ public class UserDefinedGeoJsonSpatialFilter implements UserDefinedFilter {
 		
 		final String customString = new String(customData);
 		
-		final String geoJsonString = new String(tuple.getDataBytes());
-		final JSONObject geoJsonObject = new JSONObject(geoJsonString);
-		
 		if(!customString.startsWith("{") && customString.contains(":")) {
 			
 			final String[] customParts = customString.split(":");
@@ -78,15 +80,15 @@ public class UserDefinedGeoJsonSpatialFilter implements UserDefinedFilter {
 			final String key = customParts[0];
 			final String value = customParts[1];
 						
-			return containsProperty(geoJsonObject, key, value);
+			return containsProperty(tablename, tuple, key, value);
 		}
 		
 		// Cache the custom geometry between method calls
 		if(customGeomety == null) {
-			customGeomety = geoJoinToGeomety(customString);
+			customGeomety = GeometryHelper.geoJsonToGeometry(customString);
 		}
 
-		final OGCGeometry geometry = extractGeometry(geoJsonObject);
+		final OGCGeometry geometry = GeometryCache.getInstance().getGeometry(tablename, tuple);
 
         return geometry.intersects(customGeomety);
 	}
@@ -96,12 +98,15 @@ public class UserDefinedGeoJsonSpatialFilter implements UserDefinedFilter {
 	 */
 	@Override
 	public boolean filterJoinCandidate(final Tuple tuple1, final Tuple tuple2, final byte[] customData) {
-		
-		final String geoJsonString1 = new String(tuple1.getDataBytes());
-		final String geoJsonString2 = new String(tuple2.getDataBytes());
-
-		final JSONObject jsonObject1 = new JSONObject(geoJsonString1);
-		final JSONObject jsonObject2 = new JSONObject(geoJsonString2);
+		return filterJoinCandidate(null, tuple1, null, tuple2, customData);
+	}
+	
+	/**
+	 * Perform a real join based on the geometry of the data
+	 */
+	@Override
+	public boolean filterJoinCandidate(final String tablename1, final Tuple tuple1, 
+			final String tablename2, final Tuple tuple2, final byte[] customData) {
 		
 		// Full text search on string (if provided)
 		if(customData != null && customData.length > 1) {
@@ -116,17 +121,43 @@ public class UserDefinedGeoJsonSpatialFilter implements UserDefinedFilter {
 			final String key = customParts[0];
 			final String value = customParts[1];
 			
-			if(! containsProperty(jsonObject1, key, value) && ! containsProperty(jsonObject2, key, value)) {
+			if(! containsProperty(tablename1, tuple1, key, value) 
+					&& ! containsProperty(tablename2, tuple2, key, value)) {
+				
 				return false;
 			}
 		}
 		
-		final OGCGeometry geometry1 = extractGeometry(jsonObject1);
-		final OGCGeometry geometry2 = extractGeometry(jsonObject2);
+		final GeometryCache geometryCache = GeometryCache.getInstance();
+		final OGCGeometry geometry1 = geometryCache.getGeometry(tablename1, tuple1);
+		final OGCGeometry geometry2 = geometryCache.getGeometry(tablename2, tuple2);
 		
 		return performIntersectionTest(geometry1, geometry2);
 	}
 
+	/**
+	 * Contains the given tuple a proper element in the properties map? Only
+	 * GeoJSON encoded tuples have properties.
+	 * 
+	 * @param tablename
+	 * @param tuple
+	 * @param key
+	 * @param value
+	 * @return
+	 */
+	private boolean containsProperty(final String tablename, final Tuple tuple, 
+			final String key, final String value) {
+		
+		final byte[] data = tuple.getDataBytes();
+		
+		if(GeometryCache.getInstance().getEncoding(tablename, data) != GeometryEncoding.GEOJSON) {
+			return false;
+		}
+		
+		final JSONObject json = new JSONObject(new String(data));
+		return containsProperty(json, key, value);
+	}
+
 	/**
 	 * Contains the given JSON a proper element in the map?
 	 * @param json
@@ -191,37 +222,4 @@ public class UserDefinedGeoJsonSpatialFilter implements UserDefinedFilter {
 		return distance <= MAX_OVERLAPPING_POINT_DISTANCE_METER;
 	}
 
-	/**
-	 * Extract the geometry from the tuple
-	 * @param tuple
-	 * @return
-	 */
-	private OGCGeometry extractGeometry(final JSONObject jsonObject) {
-		
-		// Extract geometry (if exists)
-		final JSONObject geometryObject = jsonObject.optJSONObject("geometry");
-		
-		if(geometryObject != null) {
-			return geoJoinToGeomety(geometryObject.toString());
-		}
-		
-		return geoJoinToGeomety(jsonObject.toString());
-	}
-
-	/**
-	 * Convert the GeoJSON element to a ESRI geometry
-	 * @param jsonString
-	 * @return
-	 */
-	private OGCGeometry geoJoinToGeomety(final String jsonString) {
-		
-		final OperatorImportFromGeoJson op = (OperatorImportFromGeoJson) OperatorFactoryLocal
-		        .getInstance().getOperator(Operator.Type.ImportFromGeoJson);
-				
-	    final MapOGCStructure structure = op.executeOGC(WktImportFlags.wktImportDefaults, jsonString, null);
-
-	    return OGCGeometry.createFromOGCStructure(structure.m_ogcStructure,
-	    		structure.m_spatialReference);
-	}
-
 }
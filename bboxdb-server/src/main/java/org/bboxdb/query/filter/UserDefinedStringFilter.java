@@ -21,7 +21,10 @@ import org.bboxdb.storage.entity.Tuple;
 
 public class UserDefinedStringFilter implements UserDefinedFilter {
 	
-	private String customDataString = null;
+	/**
+	 * The cached custom data (the instance is shared between threads)
+	 */
+	private volatile String customDataString = null;
 
 	@Override
 	public boolean filterTuple(final Tuple tuple, final byte[] customData) {
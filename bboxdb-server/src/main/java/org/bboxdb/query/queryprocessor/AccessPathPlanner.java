@@ -0,0 +1,166 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.query.queryprocessor;
+
+import org.bboxdb.commons.math.DoubleInterval;
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.misc.BBoxDBConfigurationManager;
+import org.bboxdb.storage.entity.TupleStoreMetaData;
+import org.bboxdb.storage.sstable.reader.SSTableFacade;
+import org.bboxdb.storage.tuplestore.ReadOnlyTupleStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.prometheus.client.Gauge;
+
+public class AccessPathPlanner {
+
+	public enum AccessPath {
+
+		/**
+		 * Read the tuples via the spatial index (random access)
+		 */
+		INDEX_SCAN("index_scan"),
+
+		/**
+		 * Read all tuples sequentially and filter the bounding box
+		 */
+		FULL_SCAN("full_scan");
+
+		private final String pathName;
+
+		AccessPath(final String pathName) {
+			this.pathName = pathName;
+		}
+
+		public String getPathName() {
+			return pathName;
+		}
+	}
+
+	/**
+	 * The selectivity above a full scan is performed
+	 */
+	private final double fullScanSelectivity;
+
+	/**
+	 * The chosen access paths
+	 */
+	private final static Gauge accessPathTotal = Gauge.build()
+			.name("bboxdb_query_access_path_total")
+			.help("Total amount of the chosen access paths per tuple store")
+			.labelNames("path").register();
+
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(AccessPathPlanner.class);
+
+	public AccessPathPlanner() {
+		this(BBoxDBConfigurationManager.getConfiguration().getQueryFullScanSelectivity());
+	}
+
+	public AccessPathPlanner(final double fullScanSelectivity) {
+		this.fullScanSelectivity = fullScanSelectivity;
+	}
+
+	/**
+	 * Choose the access path for the given tuple store and query box
+	 * @param tupleStore
+	 * @param queryBox
+	 * @return
+	 */
+	public AccessPath getAccessPath(final ReadOnlyTupleStore tupleStore, final Hyperrectangle queryBox) {
+		final AccessPath accessPath = determineAccessPath(tupleStore, queryBox);
+		accessPathTotal.labels(accessPath.getPathName()).inc();
+		return accessPath;
+	}
+
+	/**
+	 * Determine the access path for the given tuple store and query box
+	 * @param tupleStore
+	 * @param queryBox
+	 * @return
+	 */
+	private AccessPath determineAccessPath(final ReadOnlyTupleStore tupleStore, final Hyperrectangle queryBox) {
+
+		// Memtables are in memory, the index is always cheap
+		if(! (tupleStore instanceof SSTableFacade)) {
+			return AccessPath.INDEX_SCAN;
+		}
+
+		final SSTableFacade facade = (SSTableFacade) tupleStore;
+		final TupleStoreMetaData metaData = facade.getSsTableMetadata();
+
+		if(metaData == null || metaData.getBoundingBoxData() == null
+				|| metaData.getBoundingBoxData().length == 0) {
+			return AccessPath.INDEX_SCAN;
+		}
+
+		final Hyperrectangle coveringBox = new Hyperrectangle(metaData.getBoundingBoxData());
+		final double selectivity = estimateSelectivity(coveringBox, queryBox);
+
+		logger.debug("Estimated selectivity for {} is {}", facade.getInternalName(), selectivity);
+
+		if(selectivity >= fullScanSelectivity) {
+			return AccessPath.FULL_SCAN;
+		}
+
+		return AccessPath.INDEX_SCAN;
+	}
+
+	/**
+	 * Estimate the fraction of the tuples of the covering box that are returned
+	 * by the query box. A uniform distribution of the tuples is assumed.
+	 *
+	 * @param coveringBox
+	 * @param queryBox
+	 * @return
+	 */
+	public static double estimateSelectivity(final Hyperrectangle coveringBox, final Hyperrectangle queryBox) {
+
+		if(queryBox == Hyperrectangle.FULL_SPACE || queryBox.getDimension() == 0) {
+			return 1.0;
+		}
+
+		if(coveringBox.getDimension() != queryBox.getDimension()) {
+			return 1.0;
+		}
+
+		double selectivity = 1.0;
+
+		for(int d = 0; d < coveringBox.getDimension(); d++) {
+			final DoubleInterval coveringInterval = coveringBox.getIntervalForDimension(d);
+			final DoubleInterval queryInterval = queryBox.getIntervalForDimension(d);
+			final DoubleInterval intersection = coveringInterval.getIntersection(queryInterval);
+
+			if(intersection == null) {
+				return 0.0;
+			}
+
+			// All tuples are located on a point in this dimension
+			if(coveringInterval.getLength() == 0) {
+				continue;
+			}
+
+			selectivity = selectivity * (intersection.getLength() / coveringInterval.getLength());
+		}
+
+		return selectivity;
+	}
+}
@@ -94,6 +94,8 @@ public abstract class AbstractTablescanOperator implements Operator {
 				}
 
 				final Tuple possibleTuple = activeIterator.next();
+				readTuples++;
+				readBytes += possibleTuple.getSize();
 				
 				final String key = possibleTuple.getKey();
 				
@@ -115,6 +117,11 @@ public abstract class AbstractTablescanOperator implements Operator {
 				throws StorageManagerException {
 			
 			final List<Tuple> tupleVersions = tupleStoreManager.getVersionsForTuple(key);
+			
+			for(final Tuple tupleVersion : tupleVersions) {
+				readTuples++;
+				readBytes += tupleVersion.getSize();
+			}
 									
 			filterTupleVersions(tupleVersions);
 			
@@ -150,6 +157,7 @@ public abstract class AbstractTablescanOperator implements Operator {
 				throw new IllegalStateException("Next tuple is empty, did you really call hasNext() before?");
 			}
 			
+			emittedTuples++;
 			return nextTuples.remove();
 		}
 	}
@@ -178,6 +186,21 @@ public abstract class AbstractTablescanOperator implements Operator {
 	 * Is the iterator ready?
 	 */
 	protected boolean ready;
+	
+	/**
+	 * The amount of tuples read from the tuple stores (including all versions)
+	 */
+	protected long readTuples;
+	
+	/**
+	 * The amount of bytes read from the tuple stores
+	 */
+	protected long readBytes;
+	
+	/**
+	 * The amount of tuples returned by the operator
+	 */
+	protected long emittedTuples;
 
 	/**
 	 * The Logger
@@ -230,6 +253,30 @@ public abstract class AbstractTablescanOperator implements Operator {
 		return tupleStoreManager.getTupleStoreName();
 	}
 	
+	/**
+	 * Get the amount of tuples read from the tuple stores
+	 * @return
+	 */
+	public long getReadTuples() {
+		return readTuples;
+	}
+	
+	/**
+	 * Get the amount of bytes read from the tuple stores
+	 * @return
+	 */
+	public long getReadBytes() {
+		return readBytes;
+	}
+	
+	/**
+	 * Get the amount of tuples returned by the operator
+	 * @return
+	 */
+	public long getEmittedTuples() {
+		return emittedTuples;
+	}
+	
 	/**
 	 * Setup the next tuplestore
 	 * @param nextStorage 
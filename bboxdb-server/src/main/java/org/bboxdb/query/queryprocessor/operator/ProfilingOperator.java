@@ -0,0 +1,166 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.query.queryprocessor.operator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.bboxdb.network.entity.OperatorProfile;
+import org.bboxdb.storage.entity.MultiTuple;
+
+public class ProfilingOperator implements Operator {
+
+	/**
+	 * The profiled operator
+	 */
+	private final Operator operator;
+
+	/**
+	 * The inputs of the profiled operator
+	 */
+	private final List<Operator> inputs;
+
+	/**
+	 * The amount of produced tuples
+	 */
+	private long tuplesOut;
+
+	/**
+	 * The wall time spent in the operator
+	 */
+	private long wallTimeNanos;
+
+	public ProfilingOperator(final Operator operator, final List<Operator> inputs) {
+		this.operator = operator;
+		this.inputs = inputs;
+		this.tuplesOut = 0;
+		this.wallTimeNanos = 0;
+	}
+
+	/**
+	 * Wrap the operator into a profiling operator if profiling is enabled
+	 *
+	 * @param profilingEnabled
+	 * @param operator
+	 * @param inputs - the (already wrapped) inputs of the operator
+	 * @return
+	 */
+	public static Operator profile(final boolean profilingEnabled, final Operator operator,
+			final Operator... inputs) {
+
+		if(! profilingEnabled) {
+			return operator;
+		}
+
+		return new ProfilingOperator(operator, Arrays.asList(inputs));
+	}
+
+	@Override
+	public Iterator<MultiTuple> iterator() {
+		final long startTime = System.nanoTime();
+		final Iterator<MultiTuple> iterator = operator.iterator();
+		wallTimeNanos += System.nanoTime() - startTime;
+
+		return new Iterator<MultiTuple>() {
+
+			@Override
+			public boolean hasNext() {
+				final long startTime = System.nanoTime();
+
+				try {
+					return iterator.hasNext();
+				} finally {
+					wallTimeNanos += System.nanoTime() - startTime;
+				}
+			}
+
+			@Override
+			public MultiTuple next() {
+				final long startTime = System.nanoTime();
+
+				try {
+					final MultiTuple tuple = iterator.next();
+					tuplesOut++;
+					return tuple;
+				} finally {
+					wallTimeNanos += System.nanoTime() - startTime;
+				}
+			}
+		};
+	}
+
+	/**
+	 * Get the profile of this operator and all inputs
+	 * @return
+	 */
+	public OperatorProfile getProfile() {
+		final List<OperatorProfile> inputProfiles = new ArrayList<>();
+
+		for(final Operator input : inputs) {
+			inputProfiles.add(getInputProfile(input));
+		}
+
+		final String operatorName = operator.getClass().getSimpleName();
+
+		// Scan operators consume the tuples of the tuple stores
+		if(operator instanceof AbstractTablescanOperator) {
+			final AbstractTablescanOperator scanOperator = (AbstractTablescanOperator) operator;
+			return new OperatorProfile(operatorName, scanOperator.getReadTuples(), tuplesOut,
+					wallTimeNanos, scanOperator.getReadBytes(), inputProfiles);
+		}
+
+		final long tuplesIn = inputProfiles.stream().mapToLong(p -> p.getTuplesOut()).sum();
+
+		return new OperatorProfile(operatorName, tuplesIn, tuplesOut, wallTimeNanos, 0,
+				inputProfiles);
+	}
+
+	/**
+	 * Get the profile of the given input. Inputs that are driven directly by the
+	 * operator (e.g., the index reader of a join) are not wrapped, the counters
+	 * of the scan operator are used for these inputs.
+	 *
+	 * @param input
+	 * @return
+	 */
+	private OperatorProfile getInputProfile(final Operator input) {
+
+		if(input instanceof ProfilingOperator) {
+			return ((ProfilingOperator) input).getProfile();
+		}
+
+		final String operatorName = input.getClass().getSimpleName();
+
+		if(input instanceof AbstractTablescanOperator) {
+			final AbstractTablescanOperator scanOperator = (AbstractTablescanOperator) input;
+			return new OperatorProfile(operatorName, scanOperator.getReadTuples(),
+					scanOperator.getEmittedTuples(), OperatorProfile.WALL_TIME_NOT_MEASURED,
+					scanOperator.getReadBytes(), new ArrayList<>());
+		}
+
+		throw new IllegalArgumentException("Unable to profile input operator: " + operatorName);
+	}
+
+	@Override
+	public void close() throws IOException {
+		operator.close();
+	}
+}
@@ -21,9 +21,14 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.query.queryprocessor.AccessPathPlanner;
+import org.bboxdb.query.queryprocessor.AccessPathPlanner.AccessPath;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.tuplestore.ReadOnlyTupleStore;
 import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.bboxdb.storage.util.TupleHelper;
+
+import com.google.common.collect.Iterators;
 
 public class SpatialIndexReadOperator extends AbstractTablescanOperator {
 
@@ -31,12 +36,24 @@ public class SpatialIndexReadOperator extends AbstractTablescanOperator {
 	 * The bounding box
 	 */
 	private Hyperrectangle boundingBox;
+	
+	/**
+	 * The access path planner
+	 */
+	private final AccessPathPlanner accessPathPlanner;
 
 	public SpatialIndexReadOperator(final TupleStoreManager tupleStoreManager,
 			final Hyperrectangle boundingBox) {
 
+		this(tupleStoreManager, boundingBox, new AccessPathPlanner());
+	}
+	
+	public SpatialIndexReadOperator(final TupleStoreManager tupleStoreManager,
+			final Hyperrectangle boundingBox, final AccessPathPlanner accessPathPlanner) {
+
 		super(tupleStoreManager);
 		this.boundingBox = boundingBox;
+		this.accessPathPlanner = accessPathPlanner;
 	}
 
 	/**
@@ -49,6 +66,16 @@ public class SpatialIndexReadOperator extends AbstractTablescanOperator {
 
 	@Override
 	protected Iterator<Tuple> setupNewTuplestore(final ReadOnlyTupleStore nextStorage) {
+		
+		final AccessPath accessPath = accessPathPlanner.getAccessPath(nextStorage, boundingBox);
+		
+		// The query covers most of the tuple store, a sequential scan is cheaper
+		if(accessPath == AccessPath.FULL_SCAN) {
+			final Hyperrectangle queryBox = boundingBox;
+			return Iterators.filter(nextStorage.iterator(), 
+					t -> ! TupleHelper.isDeletedTuple(t) && t.getBoundingBox().intersects(queryBox));
+		}
+		
 		return nextStorage.getAllTuplesInBoundingBox(boundingBox);
 	}
 
@@ -38,15 +38,23 @@ public class UserDefinedFiltersOperator implements Operator {
 	 * The user defined filter operator
 	 */
 	private final List<UserDefinedFilterDefinition> udfs;
+	
+	/**
+	 * The table of the filtered tuples
+	 */
+	private final String tablename;
 
-	public UserDefinedFiltersOperator(final List<UserDefinedFilterDefinition> udfs, final Operator parentOperator) {
+	public UserDefinedFiltersOperator(final List<UserDefinedFilterDefinition> udfs, final String tablename, 
+			final Operator parentOperator) {
+		
 		this.udfs = udfs;
+		this.tablename = tablename;
 		this.parentOperator = parentOperator;
 	}
 
 	@Override
 	public Iterator<MultiTuple> iterator() {
-		final Predicate predicate = new UserDefinedFiltersPredicate(udfs);
+		final Predicate predicate = new UserDefinedFiltersPredicate(udfs, tablename);
 		return new PredicateJoinedTupleFilterIterator(parentOperator.iterator(), predicate);
 	}
 
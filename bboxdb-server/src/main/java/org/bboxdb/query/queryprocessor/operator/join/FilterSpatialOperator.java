@@ -23,6 +23,7 @@ import java.util.List;
 import org.bboxdb.misc.Const;
 import org.bboxdb.query.filter.UserDefinedFilter;
 import org.bboxdb.query.filter.UserDefinedFilterDefinition;
+import org.bboxdb.query.filter.UserDefinedFilterRegistry;
 import org.bboxdb.query.queryprocessor.operator.SpatialIndexReadOperator;
 import org.bboxdb.storage.entity.MultiTuple;
 import org.bboxdb.storage.entity.Tuple;
@@ -60,10 +61,12 @@ public class FilterSpatialOperator extends SpatialIterator {
 		try {
 			// Pass tuple to the user defined filters
 			for(final UserDefinedFilterDefinition udf : udfs) {
-				final Class<?> filterClass = Class.forName(udf.getUserDefinedFilterClass());
-				final UserDefinedFilter userDefinedFilter = (UserDefinedFilter) filterClass.newInstance();
+				final UserDefinedFilter userDefinedFilter = UserDefinedFilterRegistry.getInstance().getFilter(udf);
 				
-				final boolean match = userDefinedFilter.filterJoinCandidate(tuple.getTuple(0), tuple.getTuple(1), udf.getUserDefinedFilterValue().getBytes(Const.DEFAULT_CHARSET));
+				final boolean match = userDefinedFilter.filterJoinCandidate(
+						tuple.getTupleStoreName(0), tuple.getTuple(0), 
+						tuple.getTupleStoreName(1), tuple.getTuple(1), 
+						udf.getUserDefinedFilterValue().getBytes(Const.DEFAULT_CHARSET));
 				
 				if(! match) {
 					return null;
@@ -17,10 +17,13 @@
  *******************************************************************************/
 package org.bboxdb.query.queryprocessor.predicate;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import org.bboxdb.misc.Const;
 import org.bboxdb.query.filter.UserDefinedFilter;
 import org.bboxdb.query.filter.UserDefinedFilterDefinition;
+import org.bboxdb.query.filter.UserDefinedFilterRegistry;
 import org.bboxdb.storage.entity.Tuple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,24 +35,42 @@ public class UserDefinedFiltersPredicate implements Predicate {
 	 */
 	private final List<UserDefinedFilterDefinition> udfs;
 	
+	/**
+	 * The table of the filtered tuples
+	 */
+	private final String tablename;
+	
+	/**
+	 * The resolved filter instances (created on first use)
+	 */
+	private List<UserDefinedFilter> filters;
+	
+	/**
+	 * The custom data of the filters
+	 */
+	private List<byte[]> filterValues;
+	
 	/**
 	 * The Logger
 	 */
 	private final static Logger logger = LoggerFactory.getLogger(UserDefinedFiltersPredicate.class);
 
 
-	public UserDefinedFiltersPredicate(final List<UserDefinedFilterDefinition> udfs) {
+	public UserDefinedFiltersPredicate(final List<UserDefinedFilterDefinition> udfs, final String tablename) {
 		this.udfs = udfs;
+		this.tablename = tablename;
 	}
 
 	@Override
 	public boolean matches(final Tuple tuple) {
 		
 		try {
-			for(final UserDefinedFilterDefinition udf : udfs) {
-				final Class<?> userDefinedFilterClass = Class.forName(udf.getUserDefinedFilterClass());
-				final UserDefinedFilter userDefinedFilter = (UserDefinedFilter) userDefinedFilterClass.newInstance();
-				final boolean matches = userDefinedFilter.filterTuple(tuple, udf.getUserDefinedFilterValue().getBytes());
+			if(filters == null) {
+				resolveFilters();
+			}
+			
+			for(int i = 0; i < filters.size(); i++) {
+				final boolean matches = filters.get(i).filterTuple(tablename, tuple, filterValues.get(i));
 			
 				if(! matches) {
 					return false;
@@ -64,6 +85,23 @@ public class UserDefinedFiltersPredicate implements Predicate {
 		return true;
 	}
 
+	/**
+	 * Get the filter instances from the registry
+	 */
+	private void resolveFilters() {
+		final UserDefinedFilterRegistry registry = UserDefinedFilterRegistry.getInstance();
+		final List<UserDefinedFilter> resolvedFilters = new ArrayList<>();
+		final List<byte[]> resolvedValues = new ArrayList<>();
+		
+		for(final UserDefinedFilterDefinition udf : udfs) {
+			resolvedFilters.add(registry.getFilter(udf));
+			resolvedValues.add(udf.getUserDefinedFilterValue().getBytes(Const.DEFAULT_CHARSET));
+		}
+		
+		filterValues = resolvedValues;
+		filters = resolvedFilters;
+	}
+
 	@Override
 	public String toString() {
 		return "UserDefinedFilterPredicate [userDefinedFilter=" + udfs + "]";
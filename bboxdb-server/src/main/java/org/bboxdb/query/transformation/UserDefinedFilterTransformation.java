@@ -20,6 +20,7 @@ package org.bboxdb.query.transformation;
 import org.bboxdb.network.entity.TupleAndBoundingBox;
 import org.bboxdb.query.filter.UserDefinedFilter;
 import org.bboxdb.query.filter.UserDefinedFilterDefinition;
+import org.bboxdb.query.filter.UserDefinedFilterRegistry;
 
 public class UserDefinedFilterTransformation implements TupleTransformation {
 	
@@ -54,12 +55,7 @@ public class UserDefinedFilterTransformation implements TupleTransformation {
 	public TupleAndBoundingBox apply(final TupleAndBoundingBox input) {
 		
 		if(filter == null) {
-			try {
-				final Class<?> className = Class.forName(userDefinedFilterDefinition.getUserDefinedFilterClass());
-				filter = (UserDefinedFilter) className.newInstance();
-			} catch (Exception e) {
-				throw new IllegalArgumentException("Unable to instance user defined fitler", e);
-			} 
+			filter = UserDefinedFilterRegistry.getInstance().getFilter(userDefinedFilterDefinition);
 		}
 		
 		final byte[] value = userDefinedFilterDefinition.getUserDefinedFilterValue().getBytes();
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.storage.entity;
+
+public enum GeometryEncoding {
+
+	/**
+	 * The geometry is stored as GeoJSON text
+	 */
+	GEOJSON((byte) 0x00, "geojson"),
+
+	/**
+	 * The geometry is stored as well-known binary (WKB)
+	 */
+	WKB((byte) 0x01, "wkb");
+
+	/**
+	 * The byte representation (used in network packages)
+	 */
+	private final byte encodingByte;
+
+	/**
+	 * The string representation (used in zookeeper)
+	 */
+	private final String encodingString;
+
+	GeometryEncoding(final byte encodingByte, final String encodingString) {
+		this.encodingByte = encodingByte;
+		this.encodingString = encodingString;
+	}
+
+	public byte getEncodingByte() {
+		return encodingByte;
+	}
+
+	public String getEncodingString() {
+		return encodingString;
+	}
+
+	/**
+	 * Get the encoding for the given byte, GeoJSON is the default encoding
+	 * @param value
+	 * @return
+	 */
+	public static GeometryEncoding fromByte(final byte value) {
+		for (GeometryEncoding encoding : GeometryEncoding.values()) {
+			if (encoding.getEncodingByte() == value) {
+				return encoding;
+			}
+		}
+
+		return GeometryEncoding.GEOJSON;
+	}
+
+	/**
+	 * Get the encoding for the given string, GeoJSON is the default encoding
+	 * @param value
+	 * @return
+	 */
+	public static GeometryEncoding fromString(final String value) {
+		for (GeometryEncoding encoding : GeometryEncoding.values()) {
+			if (encoding.getEncodingString().equalsIgnoreCase(value)) {
+				return encoding;
+			}
+		}
+
+		return GeometryEncoding.GEOJSON;
+	}
+}
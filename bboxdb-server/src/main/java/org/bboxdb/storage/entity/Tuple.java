@@ -36,6 +36,11 @@ public class Tuple implements Comparable<Tuple>, PagedTransferableEntity {
 	 */
 	protected Hyperrectangle boundingBox;
 	
+	/**
+	 * The encoded bounding box (lazy initialized)
+	 */
+	protected byte[] boundingBoxBytes;
+	
 	/**
 	 * The data of the tuple
 	 */
@@ -79,6 +84,14 @@ public class Tuple implements Comparable<Tuple>, PagedTransferableEntity {
 		this.versionTimestamp = versionTimestamp;
 		this.receivedTimestamp = receivedTimestamp;
 	}
+	
+	public Tuple(final String key, final Hyperrectangle boundingBox, 
+			final byte[] boundingBoxBytes, final byte[] dataBytes, 
+			final long versionTimestamp, final long receivedTimestamp) {
+		
+		this(key, boundingBox, dataBytes, versionTimestamp, receivedTimestamp);
+		this.boundingBoxBytes = boundingBoxBytes;
+	}
 
 	/**
 	 * Returns the size of the tuple in byte
@@ -105,6 +118,7 @@ public class Tuple implements Comparable<Tuple>, PagedTransferableEntity {
 	 */
 	public void setBoundingBox(final Hyperrectangle boundingBox) {
 		this.boundingBox = boundingBox;
+		this.boundingBoxBytes = null;
 	}
 	
 	/**
@@ -144,11 +158,17 @@ public class Tuple implements Comparable<Tuple>, PagedTransferableEntity {
 	}
 	
 	/**
-	 * Get the byte array of the bounding box
+	 * Get the byte array of the bounding box. The encoded bounding box 
+	 * is cached, so the returned array must not be modified.
+	 * 
 	 * @return
 	 */
 	public byte[] getBoundingBoxBytes() {
-		return boundingBox.toByteArray();
+		if(boundingBoxBytes == null) {
+			boundingBoxBytes = boundingBox.toByteArray();
+		}
+		
+		return boundingBoxBytes;
 	}
 	
 	@Override
@@ -56,6 +56,11 @@ public class TupleStoreConfiguration {
 	 * The spatial index reader
 	 */
 	protected String spatialIndexReader = "org.bboxdb.storage.sstable.spatialindex.rtree.mmf.RTreeMMFReader";
+	
+	/**
+	 * The encoding of the geometries stored in the tuples
+	 */
+	protected GeometryEncoding geometryEncoding = GeometryEncoding.GEOJSON;
 
 	/**
 	 * The logger
@@ -109,11 +114,20 @@ public class TupleStoreConfiguration {
 		this.spatialIndexReader = spatialIndexReader;
 	}
 
+	public GeometryEncoding getGeometryEncoding() {
+		return geometryEncoding;
+	}
+
+	public void setGeometryEncoding(final GeometryEncoding geometryEncoding) {
+		this.geometryEncoding = geometryEncoding;
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + (allowDuplicates ? 1231 : 1237);
+		result = prime * result + ((geometryEncoding == null) ? 0 : geometryEncoding.hashCode());
 		result = prime * result + ((spatialIndexReader == null) ? 0 : spatialIndexReader.hashCode());
 		result = prime * result + ((spatialIndexWriter == null) ? 0 : spatialIndexWriter.hashCode());
 		result = prime * result + (int) (ttl ^ (ttl >>> 32));
@@ -132,6 +146,8 @@ public class TupleStoreConfiguration {
 		TupleStoreConfiguration other = (TupleStoreConfiguration) obj;
 		if (allowDuplicates != other.allowDuplicates)
 			return false;
+		if (geometryEncoding != other.geometryEncoding)
+			return false;
 		if (spatialIndexReader == null) {
 			if (other.spatialIndexReader != null)
 				return false;
@@ -153,7 +169,7 @@ public class TupleStoreConfiguration {
 	public String toString() {
 		return "TupleStoreConfiguration [allowDuplicates=" + allowDuplicates + ", ttl=" + ttl + ", versions=" + versions
 				+ ", spatialIndexWriter=" + spatialIndexWriter + ", spatialIndexReader=" + spatialIndexReader
-				+ "]";
+				+ ", geometryEncoding=" + geometryEncoding + "]";
 	}
 
 	/**
@@ -192,6 +208,7 @@ public class TupleStoreConfiguration {
 		data.put("allowDuplicates", allowDuplicates);
 	    data.put("spatialIndexReader", spatialIndexReader);
 	    data.put("spatialIndexWriter", spatialIndexWriter);
+	    data.put("geometryEncoding", geometryEncoding.name());
 	    data.put("ttl", ttl);
 		data.put("versions", versions);
 		return data;
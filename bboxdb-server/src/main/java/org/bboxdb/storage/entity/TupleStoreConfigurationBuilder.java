@@ -85,6 +85,16 @@ public class TupleStoreConfigurationBuilder {
 		return this;
 	}
 	
+	/**
+	 * Use the geometry encoding
+	 * @param geometryEncoding
+	 * @return
+	 */
+	public TupleStoreConfigurationBuilder withGeometryEncoding(final GeometryEncoding geometryEncoding) {
+		ssTableConfiguration.setGeometryEncoding(geometryEncoding);
+		return this;
+	}
+	
 	/**
 	 * Return the resulting configuration object
 	 * @return
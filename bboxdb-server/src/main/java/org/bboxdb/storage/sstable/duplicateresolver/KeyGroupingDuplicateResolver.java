@@ -0,0 +1,59 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.sstable.duplicateresolver;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bboxdb.commons.DuplicateResolver;
+import org.bboxdb.storage.entity.Tuple;
+
+/**
+ * The tuple duplicate resolvers expect the tuples of a single key. This 
+ * resolver groups the tuples by key and applies the resolver per group.
+ */
+public class KeyGroupingDuplicateResolver implements DuplicateResolver<Tuple> {
+
+	/**
+	 * The resolver for the tuples of one key
+	 */
+	private final DuplicateResolver<Tuple> keyDuplicateResolver;
+
+	public KeyGroupingDuplicateResolver(final DuplicateResolver<Tuple> keyDuplicateResolver) {
+		this.keyDuplicateResolver = keyDuplicateResolver;
+	}
+
+	@Override
+	public void removeDuplicates(final List<Tuple> unconsumedDuplicates) {
+		final Map<String, List<Tuple>> tuplesPerKey = new LinkedHashMap<>();
+		
+		for(final Tuple tuple : unconsumedDuplicates) {
+			tuplesPerKey.computeIfAbsent(tuple.getKey(), k -> new ArrayList<>()).add(tuple);
+		}
+		
+		unconsumedDuplicates.clear();
+		
+		for(final List<Tuple> tuplesForKey : tuplesPerKey.values()) {
+			keyDuplicateResolver.removeDuplicates(tuplesForKey);
+			unconsumedDuplicates.addAll(tuplesForKey);
+		}
+	}
+
+}
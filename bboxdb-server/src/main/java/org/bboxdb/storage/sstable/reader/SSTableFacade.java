@@ -21,8 +21,11 @@ import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.bboxdb.commons.math.Hyperrectangle;
@@ -407,6 +410,44 @@ public class SSTableFacade implements BBoxDBService, ReadOnlyTupleStore {
 		return resultList;
 	}
 
+	@Override
+	public List<Tuple> get(final SortedSet<String> keys) throws StorageManagerException {
+		
+		assert (usage.get() > 0);
+		
+		final SortedSet<String> candidateKeys;
+		
+		if(bloomfilter == null) {
+			logger.warn("File {} does not have a bloom filter", tablename);
+			candidateKeys = keys;
+		} else {
+			candidateKeys = new TreeSet<>();
+			
+			for(final String key : keys) {
+				if(bloomfilter.mightContain(key)) {
+					candidateKeys.add(key);
+				}
+			}
+		}
+		
+		final List<Tuple> resultList = new ArrayList<>();
+		
+		if(candidateKeys.isEmpty()) {
+			return resultList;
+		}
+		
+		final List<Integer> positions = ssTableKeyIndexReader.getPositionsForTuples(candidateKeys);
+		
+		// Read the tuples in file order
+		Collections.sort(positions);
+		
+		for(final Integer position : positions) {
+			resultList.add(ssTableReader.getTupleAtPosition(position));
+		}
+		
+		return resultList;
+	}
+
 	@Override
 	public Iterator<Tuple> iterator() {
 		
@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.SortedSet;
 import java.util.concurrent.ExecutionException;
 
 import org.bboxdb.storage.StorageManagerException;
@@ -154,6 +155,60 @@ public class SSTableKeyIndexReader extends AbstractFileReader implements Iterabl
 		return new ArrayList<>();
 	}
 
+	/**
+	 * Get the positions for multiple keys. The keys are probed in ascending 
+	 * order, so each binary search starts at the index entry where the search 
+	 * for the previous key has ended.
+	 * 
+	 * @param keys
+	 * @return
+	 * @throws StorageManagerException
+	 */
+	public List<Integer> getPositionsForTuples(final SortedSet<String> keys) throws StorageManagerException {
+		
+		final List<Integer> positions = new ArrayList<>();
+		final int lastEntry = getNumberOfEntries() - 1;
+		
+		try {
+			int lowerBound = 0;
+			
+			for(final String key : keys) {
+				
+				if(lowerBound > lastEntry) {
+					break;
+				}
+				
+				// Search the first entry >= key
+				int firstEntry = lowerBound;
+				int upperBound = lastEntry + 1;
+				
+				while(firstEntry < upperBound) {
+					final int curEntry = (firstEntry + upperBound) >>> 1;
+					final String curEntryValue = getKeyForIndexEntry(curEntry);
+					
+					if(curEntryValue.compareTo(key) < 0) {
+						firstEntry = curEntry + 1;
+					} else {
+						upperBound = curEntry;
+					}
+				}
+				
+				// The SSTable can contain duplicates
+				int curEntry = firstEntry;
+				while(curEntry <= lastEntry && getKeyForIndexEntry(curEntry).equals(key)) {
+					positions.add(convertEntryToPosition(curEntry));
+					curEntry++;
+				}
+				
+				lowerBound = curEntry;
+			}
+		} catch (IOException e) {
+			throw new StorageManagerException("Error while reading index file", e);
+		}
+		
+		return positions;
+	}
+
 	/**
 	 * The SSTable can contain duplicates, so we nee to scan up and down from
 	 * the given position to retrive all keys
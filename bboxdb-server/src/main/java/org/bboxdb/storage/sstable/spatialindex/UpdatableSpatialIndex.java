@@ -0,0 +1,234 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.storage.sstable.spatialindex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.sstable.spatialindex.rtree.RTreeBuilder;
+
+/**
+ * An in-memory spatial index that supports updates and removals. The R-tree does 
+ * not support deletions, so removed entries are only marked as removed. The tree 
+ * is rebuilt as soon as more than half of the entries are removed.
+ * 
+ * The index is not thread-safe.
+ *
+ * @param <K> - the key of the entry
+ * @param <V> - the value of the entry
+ */
+public class UpdatableSpatialIndex<K, V> {
+
+	/**
+	 * The spatial index (value = slot of the entry)
+	 */
+	private RTreeBuilder spatialIndex;
+	
+	/**
+	 * The values of the slots, removed entries are replaced by null
+	 */
+	private final List<V> slotValues;
+	
+	/**
+	 * The bounding boxes of the slots
+	 */
+	private final List<Hyperrectangle> slotBoundingBoxes;
+	
+	/**
+	 * The slots of the keys
+	 */
+	private final Map<K, Integer> keySlots;
+	
+	/**
+	 * The minimal amount of removed slots before the index is rebuilt
+	 */
+	private final static int MIN_REMOVED_SLOTS_FOR_REBUILD = 16;
+	
+	public UpdatableSpatialIndex() {
+		this.spatialIndex = new RTreeBuilder();
+		this.slotValues = new ArrayList<>();
+		this.slotBoundingBoxes = new ArrayList<>();
+		this.keySlots = new HashMap<>();
+	}
+	
+	/**
+	 * Insert or replace the entry for the key
+	 * @param key
+	 * @param boundingBox
+	 * @param value
+	 */
+	public void put(final K key, final Hyperrectangle boundingBox, final V value) {
+		removeSlot(key);
+		
+		final int slot = slotValues.size();
+		slotValues.add(value);
+		slotBoundingBoxes.add(boundingBox);
+		keySlots.put(key, slot);
+		spatialIndex.insert(new SpatialIndexEntry(boundingBox, slot));
+		
+		rebuildIfNeeded();
+	}
+	
+	/**
+	 * Remove the entry for the key
+	 * @param key
+	 * @return
+	 */
+	public boolean remove(final K key) {
+		final boolean result = removeSlot(key);
+		rebuildIfNeeded();
+		return result;
+	}
+
+	/**
+	 * Mark the slot of the key as removed
+	 * @param key
+	 * @return
+	 */
+	private boolean removeSlot(final K key) {
+		final Integer slot = keySlots.remove(key);
+		
+		if(slot == null) {
+			return false;
+		}
+		
+		slotValues.set(slot, null);
+		slotBoundingBoxes.set(slot, null);
+		
+		return true;
+	}
+	
+	/**
+	 * Rebuild the tree if more than half of the slots are removed
+	 */
+	private void rebuildIfNeeded() {
+		final int removedSlots = slotValues.size() - keySlots.size();
+		
+		if(removedSlots < MIN_REMOVED_SLOTS_FOR_REBUILD || removedSlots <= keySlots.size()) {
+			return;
+		}
+		
+		final List<V> oldValues = new ArrayList<>(slotValues);
+		final List<Hyperrectangle> oldBoundingBoxes = new ArrayList<>(slotBoundingBoxes);
+		final Map<K, Integer> oldKeySlots = new HashMap<>(keySlots);
+		
+		spatialIndex = new RTreeBuilder();
+		slotValues.clear();
+		slotBoundingBoxes.clear();
+		keySlots.clear();
+		
+		for(final Map.Entry<K, Integer> entry : oldKeySlots.entrySet()) {
+			final int oldSlot = entry.getValue();
+			final int slot = slotValues.size();
+			final Hyperrectangle boundingBox = oldBoundingBoxes.get(oldSlot);
+			
+			slotValues.add(oldValues.get(oldSlot));
+			slotBoundingBoxes.add(boundingBox);
+			keySlots.put(entry.getKey(), slot);
+			spatialIndex.insert(new SpatialIndexEntry(boundingBox, slot));
+		}
+	}
+	
+	/**
+	 * Get the values whose bounding box intersects the given region
+	 * @param boundingBox
+	 * @return
+	 */
+	public List<V> getValuesForRegion(final Hyperrectangle boundingBox) {
+		final List<V> result = new ArrayList<>();
+		
+		final List<? extends SpatialIndexEntry> entries = spatialIndex.getEntriesForRegion(boundingBox);
+		
+		for(final SpatialIndexEntry entry : entries) {
+			final V value = slotValues.get(entry.getValue());
+			
+			if(value != null) {
+				result.add(value);
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Get all values
+	 * @return
+	 */
+	public List<V> getAllValues() {
+		final List<V> result = new ArrayList<>();
+		
+		for(final int slot : keySlots.values()) {
+			result.add(slotValues.get(slot));
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Remove all entries
+	 */
+	public void clear() {
+		spatialIndex = new RTreeBuilder();
+		slotValues.clear();
+		slotBoundingBoxes.clear();
+		keySlots.clear();
+	}
+	
+	/**
+	 * Get the value for the key
+	 * @param key
+	 * @return the value or null
+	 */
+	public V get(final K key) {
+		final Integer slot = keySlots.get(key);
+		
+		if(slot == null) {
+			return null;
+		}
+		
+		return slotValues.get(slot);
+	}
+	
+	/**
+	 * Contains the index the key
+	 * @param key
+	 * @return
+	 */
+	public boolean containsKey(final K key) {
+		return keySlots.containsKey(key);
+	}
+	
+	/**
+	 * Get the number of entries
+	 * @return
+	 */
+	public int size() {
+		return keySlots.size();
+	}
+	
+	/**
+	 * Is the index empty
+	 * @return
+	 */
+	public boolean isEmpty() {
+		return keySlots.isEmpty();
+	}
+}
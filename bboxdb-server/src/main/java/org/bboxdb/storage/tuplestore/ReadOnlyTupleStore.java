@@ -17,8 +17,10 @@
  *******************************************************************************/
 package org.bboxdb.storage.tuplestore;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.SortedSet;
 
 import org.bboxdb.commons.concurrent.AcquirableResource;
 import org.bboxdb.commons.math.Hyperrectangle;
@@ -47,6 +49,22 @@ public interface ReadOnlyTupleStore extends Iterable<Tuple>, AcquirableResource
 	 * @throws StorageManagerException
 	 */
 	public List<Tuple> get(final String key) throws StorageManagerException;
+	
+	/**
+	 * Search for the tuples of multiple keys
+	 * @param keys
+	 * @return
+	 * @throws StorageManagerException
+	 */
+	public default List<Tuple> get(final SortedSet<String> keys) throws StorageManagerException {
+		final List<Tuple> resultList = new ArrayList<>();
+		
+		for(final String key : keys) {
+			resultList.addAll(get(key));
+		}
+		
+		return resultList;
+	}
 
 	/**
 	 * Get all tuples that are inside the bounding box
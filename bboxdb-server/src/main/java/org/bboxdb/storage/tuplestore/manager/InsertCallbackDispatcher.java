@@ -0,0 +1,211 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.storage.tuplestore.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bboxdb.commons.concurrent.BlockingQueueWithSingleExecutor;
+import org.bboxdb.misc.BBoxDBConfigurationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Summary;
+
+public class InsertCallbackDispatcher {
+
+	/**
+	 * The instance
+	 */
+	private static InsertCallbackDispatcher instance;
+	
+	/**
+	 * The partitions, each partition executes the callbacks in queue order
+	 */
+	private final List<BlockingQueueWithSingleExecutor> partitions;
+	
+	/**
+	 * Ensures that barriers are queued in the same order on all partitions
+	 */
+	private final Object barrierMutex = new Object();
+	
+	/**
+	 * The pending callbacks
+	 */
+	private final static Gauge pendingCallbacksTotal = Gauge.build()
+			.name("bboxdb_insert_callback_pending_total")
+			.help("Total amount of queued but not executed insert callbacks").register();
+	
+	/**
+	 * The time between queuing and executing a callback
+	 */
+	private final static Summary callbackLag = Summary.build()
+			.name("bboxdb_insert_callback_lag_seconds")
+			.help("Time between queuing and executing an insert callback in seconds.").register();
+	
+	/**
+	 * The Logger
+	 */
+	private final static Logger logger = LoggerFactory.getLogger(InsertCallbackDispatcher.class);
+	
+	static {
+		int threads = BBoxDBConfigurationManager.getConfiguration().getInsertCallbackThreads();
+		
+		if(threads <= 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		
+		final int queueSize = BBoxDBConfigurationManager.getConfiguration().getInsertCallbackQueueSize();
+		instance = new InsertCallbackDispatcher(threads, queueSize);
+	}
+	
+	public InsertCallbackDispatcher(final int threads, final int queueSize) {
+		this.partitions = new ArrayList<>(threads);
+		
+		for(int i = 0; i < threads; i++) {
+			final String name = "Insert callback executor " + i;
+			partitions.add(new BlockingQueueWithSingleExecutor(name, queueSize, true));
+		}
+	}
+
+	@Override
+	protected Object clone() throws CloneNotSupportedException {
+		throw new IllegalArgumentException("Unable to clone a singleton");
+	}
+	
+	/**
+	 * Return the instance
+	 * @return
+	 */
+	public static InsertCallbackDispatcher getInstance() {
+		return instance;
+	}
+	
+	/**
+	 * Queue the runnable. All runnables with the same callback and key are
+	 * executed in queue order by the same thread.
+	 * 
+	 * @param callback
+	 * @param key
+	 * @param runnable
+	 * @throws InterruptedException
+	 */
+	public void dispatch(final Object callback, final String key, final Runnable runnable) 
+			throws InterruptedException {
+		
+		final int hash = 31 * System.identityHashCode(callback) + key.hashCode();
+		final int partition = Math.floorMod(hash, partitions.size());
+		
+		queueOnPartition(partition, runnable);
+	}
+	
+	/**
+	 * Queue the runnable as barrier. The runnable is executed after all previously 
+	 * queued runnables are executed and before any runnable that is queued later.
+	 * 
+	 * @param runnable
+	 * @throws InterruptedException
+	 */
+	public void dispatchBarrier(final Runnable runnable) throws InterruptedException {
+		
+		final AtomicInteger pendingPartitions = new AtomicInteger(partitions.size());
+		final CountDownLatch executedLatch = new CountDownLatch(1);
+		
+		// The last partition that reaches the barrier executes the runnable, 
+		// the other partitions wait until the runnable is executed
+		final Runnable barrier = () -> {
+			if(pendingPartitions.decrementAndGet() == 0) {
+				try {
+					runnable.run();
+				} finally {
+					executedLatch.countDown();
+				}
+				return;
+			}
+			
+			try {
+				executedLatch.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+		
+		synchronized (barrierMutex) {
+			for(int partition = 0; partition < partitions.size(); partition++) {
+				queueOnPartition(partition, barrier);
+			}
+		}
+	}
+	
+	/**
+	 * Queue the runnable on the given partition
+	 * @param partition
+	 * @param runnable
+	 * @throws InterruptedException
+	 */
+	private void queueOnPartition(final int partition, final Runnable runnable) 
+			throws InterruptedException {
+		
+		final long queueTime = System.nanoTime();
+		pendingCallbacksTotal.inc();
+		
+		final boolean queueResult = partitions.get(partition).queue(() -> {
+			pendingCallbacksTotal.dec();
+			callbackLag.observe((System.nanoTime() - queueTime) / 1_000_000_000.0);
+			
+			try {
+				runnable.run();
+			} catch(Throwable e) {
+				logger.error("Got exception while executing insert callback", e);
+			}
+		});
+		
+		if(! queueResult) {
+			pendingCallbacksTotal.dec();
+		}
+	}
+	
+	/**
+	 * Get the amount of pending callbacks
+	 * @return
+	 */
+	public int getPendingCallbacks() {
+		return partitions.stream().mapToInt(p -> p.getQueueSize()).sum();
+	}
+	
+	/**
+	 * Get the amount of partitions
+	 * @return
+	 */
+	public int getNumberOfPartitions() {
+		return partitions.size();
+	}
+	
+	/**
+	 * Shutdown the dispatcher, pending callbacks are discarded
+	 * @throws InterruptedException
+	 */
+	public void shutdown() throws InterruptedException {
+		for(final BlockingQueueWithSingleExecutor partition : partitions) {
+			partition.shutdown(true);
+		}
+	}
+}
@@ -22,13 +22,13 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.SortedSet;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 
 import org.bboxdb.commons.DuplicateResolver;
 import org.bboxdb.commons.RejectedException;
-import org.bboxdb.commons.concurrent.BlockingQueueWithSingleExecutor;
 import org.bboxdb.commons.service.ServiceState;
 import org.bboxdb.commons.service.ServiceState.State;
 import org.bboxdb.distribution.DistributionGroupMetadataHelper;
@@ -47,9 +47,11 @@ import org.bboxdb.storage.entity.MemtableAndTupleStoreManagerPair;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreConfiguration;
 import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.entity.WatermarkTuple;
 import org.bboxdb.storage.memtable.Memtable;
 import org.bboxdb.storage.sstable.SSTableConst;
 import org.bboxdb.storage.sstable.SSTableHelper;
+import org.bboxdb.storage.sstable.duplicateresolver.KeyGroupingDuplicateResolver;
 import org.bboxdb.storage.sstable.duplicateresolver.TupleDuplicateResolverFactory;
 import org.bboxdb.storage.sstable.reader.SSTableFacade;
 import org.bboxdb.storage.tuplestore.DiskStorage;
@@ -105,9 +107,14 @@ public class TupleStoreManager implements BBoxDBService {
 	protected final List<BiConsumer<TupleStoreName, Tuple>> insertCallbacks;
 
 	/**
-	 * The callback execution thread
+	 * The dispatcher for the insert callbacks
 	 */
-	protected final BlockingQueueWithSingleExecutor callbackExecutor;
+	protected final InsertCallbackDispatcher callbackDispatcher;
+	
+	/**
+	 * Are the insert callbacks executed
+	 */
+	protected volatile boolean callbacksActive;
 	
 	/**
 	 * The get performance counter
@@ -134,9 +141,8 @@ public class TupleStoreManager implements BBoxDBService {
 		this.tupleStoreInstances = new TupleStoreInstanceManager();
 		this.insertCallbacks = new CopyOnWriteArrayList<>();
 		
-		// Prevent race conditions between watermarks and callbacks by 
-		// limiting the thread pool to one.
-		this.callbackExecutor = new BlockingQueueWithSingleExecutor("Executor for: " + sstablename.getFullname(), 10);
+		this.callbackDispatcher = InsertCallbackDispatcher.getInstance();
+		this.callbacksActive = true;
 
 		// Close open resources when the failed state is entered
 		this.serviceState = new ServiceState();
@@ -172,6 +178,7 @@ public class TupleStoreManager implements BBoxDBService {
 
 			nextFreeTableNumber.set(getLastSequencenumberFromReader() + 1);
 			tupleStoreInstances.setReadWrite();
+			callbacksActive = true;
 
 			// Apply WAL after write access is possible
 			applyWal();
@@ -222,11 +229,8 @@ public class TupleStoreManager implements BBoxDBService {
 	protected void closeRessources() {
 		setToReadOnly();
 		
-		try {
-			callbackExecutor.shutdown(true);
-		} catch (InterruptedException e) {
-			Thread.currentThread().interrupt();
-		}
+		// Discard the pending callbacks
+		callbacksActive = false;
 		
 		for(final BBoxDBService service : tupleStoreInstances.getSstableFacades()) {
 			try {
@@ -607,6 +611,39 @@ public class TupleStoreManager implements BBoxDBService {
 		return tupleList;
 	}
 
+	/**
+	 * Search for the most recent versions of the tuples for multiple keys
+	 * @param keys
+	 * @return The tuples
+	 * @throws StorageManagerException
+	 */
+	public List<Tuple> get(final SortedSet<String> keys) throws StorageManagerException {
+
+		if(! serviceState.isInRunningState()) {
+			throw new StorageManagerException("Storage manager is not ready: "
+					+ tupleStoreName.getFullname() + " state: " + serviceState);
+		}
+
+		final Summary.Timer requestTimer = getRequestLatency.startTimer();
+
+		final List<Tuple> tupleList = new ArrayList<>();
+
+		try(final TupleStoreAquirer tupleStoreAquirer = new TupleStoreAquirer(this)) {
+			for(final ReadOnlyTupleStore tupleStorage : tupleStoreAquirer.getTupleStores()) {
+				final List<Tuple> resultTuples = tupleStorage.get(keys);
+				tupleList.addAll(resultTuples);
+			}
+		} finally {
+			requestTimer.observeDuration();
+		}
+
+		final DuplicateResolver<Tuple> resolver = new KeyGroupingDuplicateResolver(
+				TupleDuplicateResolverFactory.build(tupleStoreConfiguration));
+		resolver.removeDuplicates(tupleList);
+
+		return tupleList;
+	}
+
 	/**
 	 * Get and increase the table number
 	 * @return
@@ -731,9 +768,7 @@ public class TupleStoreManager implements BBoxDBService {
 
 			// Notify callbacks
 			if(runCallbacks) {
-				callbackExecutor.queue(() -> {
-					insertCallbacks.forEach(c -> c.accept(tupleStoreName, tuple));
-				});
+				runInsertCallbacks(tuple);
 			}
 			
 		} catch (StorageManagerException e) {
@@ -745,6 +780,35 @@ public class TupleStoreManager implements BBoxDBService {
 		}
 	}
 
+	/**
+	 * Queue the insert callbacks for the tuple. The callbacks are partitioned by 
+	 * callback and key, so the tuples of a key are processed in insert order. 
+	 * Watermarks are processed after all previously inserted tuples.
+	 * 
+	 * @param tuple
+	 * @throws InterruptedException
+	 */
+	private void runInsertCallbacks(final Tuple tuple) throws InterruptedException {
+		
+		if(tuple instanceof WatermarkTuple) {
+			callbackDispatcher.dispatchBarrier(() -> {
+				if(callbacksActive) {
+					insertCallbacks.forEach(c -> c.accept(tupleStoreName, tuple));
+				}
+			});
+			
+			return;
+		}
+		
+		for(final BiConsumer<TupleStoreName, Tuple> callback : insertCallbacks) {
+			callbackDispatcher.dispatch(callback, tuple.getKey(), () -> {
+				if(callbacksActive) {
+					callback.accept(tupleStoreName, tuple);
+				}
+			});
+		}
+	}
+
 	/**
 	 * Delete the given tuple
 	 * @param key
@@ -17,9 +17,8 @@
  *******************************************************************************/
 package org.bboxdb.storage.util;
 
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
+import java.util.LinkedHashMap;
 import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
@@ -32,9 +31,10 @@ import org.slf4j.LoggerFactory;
 public class TimeBasedEntityDuplicateTracker {
 
 	/**
-	 * The seen keys and versions
+	 * The seen keys and versions, ordered by the last access. So, the
+	 * eldest entries can be evicted without scanning the whole map.
 	 */
-	protected Map<EntityIdentifier, Long> seenKeysAndVersions = new HashMap<>();
+	protected final LinkedHashMap<EntityIdentifier, Long> seenKeysAndVersions;
 	
 	/**
 	 * The lock of the map
@@ -46,6 +46,11 @@ public class TimeBasedEntityDuplicateTracker {
 	 */
 	protected long lastEviction = System.currentTimeMillis();
 	
+	/**
+	 * The max amount of tracked entities
+	 */
+	protected final int maxEntries;
+	
 	/**
 	 * The eviction time
 	 */
@@ -56,11 +61,39 @@ public class TimeBasedEntityDuplicateTracker {
 	 */
 	protected final long EVICT_WAKUP_TIME = TimeUnit.SECONDS.toMillis(30);
 
+	/**
+	 * The max amount of tracked entities for streamed results. The replicas of an 
+	 * entity are received at nearly the same time, so a bounded window is sufficient.
+	 */
+	public final static int STREAM_MAX_ENTRIES = 1_000_000;
+
 	/**
 	 * The logger
 	 */
 	private final static Logger logger = LoggerFactory.getLogger(TimeBasedEntityDuplicateTracker.class);
 	
+	public TimeBasedEntityDuplicateTracker() {
+		this(Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Create a tracker for the given amount of entities. When more entities are 
+	 * tracked, the least recently seen entities are evicted. So, the memory is 
+	 * bounded for large streamed results, but a duplicate is only detected 
+	 * while the first copy is tracked.
+	 * 
+	 * @param maxEntries
+	 */
+	public TimeBasedEntityDuplicateTracker(final int maxEntries) {
+		
+		if(maxEntries <= 0) {
+			throw new IllegalArgumentException("Max entries has to be > 0: " + maxEntries);
+		}
+		
+		this.maxEntries = maxEntries;
+		this.seenKeysAndVersions = new LinkedHashMap<>(16, 0.75f, true);
+	}
+	
 	/**
 	 * Is the element already seen ? 
 	 * @param entity
@@ -78,6 +111,12 @@ public class TimeBasedEntityDuplicateTracker {
 		mapLock.lock();
 		try {
 			oldValue = seenKeysAndVersions.put(entityIdentifier, System.currentTimeMillis());
+			
+			if(seenKeysAndVersions.size() > maxEntries) {
+				final Iterator<EntityIdentifier> iter = seenKeysAndVersions.keySet().iterator();
+				iter.next();
+				iter.remove();
+			}
 		} finally {
 			mapLock.unlock();
 		}
@@ -88,6 +127,19 @@ public class TimeBasedEntityDuplicateTracker {
 		
 		return true;
 	}
+	
+	/**
+	 * Get the amount of tracked entities
+	 * @return
+	 */
+	public int size() {
+		mapLock.lock();
+		try {
+			return seenKeysAndVersions.size();
+		} finally {
+			mapLock.unlock();
+		}
+	}
 
 	/**
 	 * Cleanup the old elements
@@ -106,13 +158,16 @@ public class TimeBasedEntityDuplicateTracker {
 
 			final Iterator<Entry<EntityIdentifier, Long>> iter = seenKeysAndVersions.entrySet().iterator();
 			
+			// The entries are ordered by the last access, stop at the first non expired entry
 			while(iter.hasNext()) {
 				final Entry<EntityIdentifier, Long> entry = iter.next();
 				
-				if(System.currentTimeMillis() > entry.getValue() + EVICT_TIME) {
-					iter.remove();
-					removedElements++;
+				if(System.currentTimeMillis() <= entry.getValue() + EVICT_TIME) {
+					break;
 				}
+				
+				iter.remove();
+				removedElements++;
 			}
 			
 			mapSizeAfterClean = seenKeysAndVersions.size();
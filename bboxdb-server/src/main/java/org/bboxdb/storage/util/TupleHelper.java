@@ -165,7 +165,7 @@ public class TupleHelper {
 		
 		final Hyperrectangle boundingBox = Hyperrectangle.fromByteArray(boxBytes);
 		
-		return new Tuple(keyString, boundingBox, dataBytes, versionTimestamp, receivedTimestamp);
+		return new Tuple(keyString, boundingBox, boxBytes, dataBytes, versionTimestamp, receivedTimestamp);
 	}
 	
 	/**
@@ -212,7 +212,7 @@ public class TupleHelper {
 						
 		final Hyperrectangle boundingBox = Hyperrectangle.fromByteArray(boxBytes);
 		
-		return new Tuple(keyString, boundingBox, dataBytes, versionTimestamp, receivedTimestamp);
+		return new Tuple(keyString, boundingBox, boxBytes, dataBytes, versionTimestamp, receivedTimestamp);
 	}
 	
 	/**
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.test.distribution;
+
+import java.net.InetSocketAddress;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.bboxdb.distribution.membership.MembershipConnectionService.TrafficClass;
+import org.bboxdb.distribution.membership.PeerConnectionPool;
+import org.bboxdb.network.client.connection.BBoxDBConnection;
+import org.bboxdb.network.packages.request.DisconnectRequest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPeerConnectionPool {
+	
+	/**
+	 * The address of the peer
+	 */
+	private final static InetSocketAddress PEER_ADDRESS = new InetSocketAddress("192.168.1.10", 50505);
+
+	@Test(timeout=60000)
+	public void testPoolSize() {
+		final PeerConnectionPool pool = new PeerConnectionPool(PEER_ADDRESS, 3, 2, 
+				() -> new BBoxDBConnection(PEER_ADDRESS));
+		
+		Assert.assertEquals(3, pool.getNumberOfConnections(TrafficClass.LATENCY_SENSITIVE));
+		Assert.assertEquals(2, pool.getNumberOfConnections(TrafficClass.BULK));
+		Assert.assertEquals(5, new HashSet<>(pool.getAllConnections()).size());
+		Assert.assertSame(pool.getPrimaryConnection(), pool.getPrimaryConnection());
+		Assert.assertSame(pool.getPrimaryConnection(), pool.getConnection(TrafficClass.LATENCY_SENSITIVE));
+		Assert.assertNotSame(pool.getPrimaryConnection(), pool.getConnection(TrafficClass.BULK));
+		Assert.assertEquals(PEER_ADDRESS, pool.getPeerAddress());
+	}
+	
+	@Test(timeout=60000)
+	public void testSharedBulkConnections() {
+		final PeerConnectionPool pool = new PeerConnectionPool(PEER_ADDRESS, 0, 0, 
+				() -> new BBoxDBConnection(PEER_ADDRESS));
+		
+		Assert.assertEquals(1, pool.getNumberOfConnections(TrafficClass.LATENCY_SENSITIVE));
+		Assert.assertEquals(1, pool.getNumberOfConnections(TrafficClass.BULK));
+		Assert.assertEquals(1, pool.getAllConnections().size());
+		Assert.assertSame(pool.getPrimaryConnection(), pool.getConnection(TrafficClass.BULK));
+	}
+	
+	@Test(timeout=60000)
+	public void testLeastLoadedSelection() {
+		final PeerConnectionPool pool = new PeerConnectionPool(PEER_ADDRESS, 3, 0, 
+				() -> new BBoxDBConnection(PEER_ADDRESS));
+		
+		final BBoxDBConnection connection1 = pool.getConnection(TrafficClass.LATENCY_SENSITIVE);
+		addInFlightCalls(connection1, 2);
+		
+		final BBoxDBConnection connection2 = pool.getConnection(TrafficClass.LATENCY_SENSITIVE);
+		Assert.assertNotSame(connection1, connection2);
+		addInFlightCalls(connection2, 1);
+		
+		final BBoxDBConnection connection3 = pool.getConnection(TrafficClass.LATENCY_SENSITIVE);
+		Assert.assertNotSame(connection1, connection3);
+		Assert.assertNotSame(connection2, connection3);
+		addInFlightCalls(connection3, 3);
+		
+		// The primary connection is not changed by the load
+		Assert.assertSame(connection1, pool.getPrimaryConnection());
+		
+		final Set<BBoxDBConnection> selected = new HashSet<>();
+		selected.add(pool.getConnection(TrafficClass.LATENCY_SENSITIVE));
+		selected.add(pool.getConnection(TrafficClass.BULK));
+		
+		Assert.assertEquals(1, selected.size());
+		Assert.assertTrue(selected.contains(connection2));
+	}
+
+	/**
+	 * Register the given amount of calls on the connection
+	 * @param connection
+	 * @param calls
+	 */
+	private void addInFlightCalls(final BBoxDBConnection connection, final int calls) {
+		for(int i = 0; i < calls; i++) {
+			final int sequenceNumber = connection.getNextSequenceNumber();
+			connection.registerPackageCallback(new DisconnectRequest(sequenceNumber), null);
+		}
+		
+		Assert.assertEquals(calls, connection.getInFlightCalls());
+	}
+}
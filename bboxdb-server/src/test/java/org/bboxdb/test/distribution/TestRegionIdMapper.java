@@ -18,9 +18,14 @@
 package org.bboxdb.test.distribution;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.distribution.DistributionGroupConfigurationCache;
@@ -177,6 +182,72 @@ public class TestRegionIdMapper {
 		Assert.assertEquals(3, mappingResult.size());
 	}
 	
+	/**
+	 * Test the lookup with many regions and removed regions
+	 */
+	@Test(timeout=60000)
+	public void testManyMappings() {
+		final DistributionRegionIdMapper regionIdMapper = new DistributionRegionIdMapper(DISTRIBUTION_REGION_NAME);
+		final Map<Long, Hyperrectangle> regions = new HashMap<>();
+		
+		// A grid of 50 x 50 regions
+		for(int x = 0; x < 50; x++) {
+			for(int y = 0; y < 50; y++) {
+				final long regionId = x * 50 + y;
+				final Hyperrectangle space = new Hyperrectangle((double) x, x + 1d, (double) y, y + 1d);
+				regions.put(regionId, space);
+				Assert.assertTrue(regionIdMapper.addMapping(regionId, space));
+			}
+		}
+		
+		// Remove every third region
+		for(long regionId = 0; regionId < 2500; regionId = regionId + 3) {
+			Assert.assertTrue(regionIdMapper.removeMapping(regionId));
+			regions.remove(regionId);
+		}
+		
+		Assert.assertFalse(regionIdMapper.removeMapping(0));
+		Assert.assertEquals(regions.keySet(), regionIdMapper.getAllRegionIds());
+		
+		final Random random = new Random(42);
+		
+		for(int i = 0; i < 100; i++) {
+			final double x = random.nextDouble() * 50;
+			final double y = random.nextDouble() * 50;
+			final Hyperrectangle query = new Hyperrectangle(x, x + random.nextDouble() * 5, 
+					y, y + random.nextDouble() * 5);
+			
+			final Set<Long> expected = regions.entrySet()
+					.stream()
+					.filter(e -> e.getValue().intersects(query))
+					.map(e -> e.getKey())
+					.collect(Collectors.toSet());
+			
+			Assert.assertEquals(expected, regionIdMapper.getRegionIdsForRegion(query));
+		}
+		
+		Assert.assertEquals(regions.keySet(), regionIdMapper.getRegionIdsForRegion(Hyperrectangle.FULL_SPACE));
+		
+		regionIdMapper.clear();
+		Assert.assertTrue(regionIdMapper.getRegionIdsForRegion(Hyperrectangle.FULL_SPACE).isEmpty());
+	}
+	
+	/**
+	 * Test the lookup of a region that covers the full space
+	 */
+	@Test(timeout=60000)
+	public void testFullSpaceMapping() {
+		final DistributionRegionIdMapper regionIdMapper = new DistributionRegionIdMapper(DISTRIBUTION_REGION_NAME);
+		regionIdMapper.addMapping(1, Hyperrectangle.FULL_SPACE);
+		regionIdMapper.addMapping(2, new Hyperrectangle(10d, 20d, 10d, 20d));
+		
+		Assert.assertEquals(2, regionIdMapper.getRegionIdsForRegion(new Hyperrectangle(15d, 16d, 15d, 16d)).size());
+		Assert.assertEquals(1, regionIdMapper.getRegionIdsForRegion(new Hyperrectangle(1d, 2d, 1d, 2d)).size());
+		
+		regionIdMapper.removeMapping(1);
+		Assert.assertEquals(0, regionIdMapper.getRegionIdsForRegion(new Hyperrectangle(1d, 2d, 1d, 2d)).size());
+	}
+	
 	/**
 	 * Wait until mapping appears
 	 * @throws InterruptedException 
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.test.network;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bboxdb.commons.CloseableHelper;
+import org.bboxdb.network.server.connection.ChannelOutputStream;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestChannelOutputStream {
+
+	/**
+	 * The server socket
+	 */
+	private ServerSocketChannel serverSocketChannel;
+
+	/**
+	 * The channel of the client
+	 */
+	private SocketChannel clientChannel;
+
+	/**
+	 * The channel of the server, the output stream writes to this channel
+	 */
+	private SocketChannel serverChannel;
+
+	/**
+	 * The amount of write interest callbacks
+	 */
+	private AtomicInteger writeInterestCalls;
+
+	@Before
+	public void before() throws IOException {
+		serverSocketChannel = ServerSocketChannel.open();
+		serverSocketChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+
+		clientChannel = SocketChannel.open();
+		clientChannel.setOption(StandardSocketOptions.SO_RCVBUF, 8 * 1024);
+		clientChannel.connect(serverSocketChannel.getLocalAddress());
+
+		serverChannel = serverSocketChannel.accept();
+		serverChannel.configureBlocking(false);
+		serverChannel.setOption(StandardSocketOptions.SO_SNDBUF, 8 * 1024);
+
+		writeInterestCalls = new AtomicInteger(0);
+	}
+
+	@After
+	public void after() {
+		CloseableHelper.closeWithoutException(clientChannel);
+		CloseableHelper.closeWithoutException(serverChannel);
+		CloseableHelper.closeWithoutException(serverSocketChannel);
+	}
+
+	/**
+	 * Get the test data
+	 * @param size
+	 * @return
+	 */
+	private static byte[] getTestData(final int size) {
+		final byte[] data = new byte[size];
+
+		for(int i = 0; i < size; i++) {
+			data[i] = (byte) (i % 251);
+		}
+
+		return data;
+	}
+
+	/**
+	 * Read the given amount of bytes from the client channel in a new thread
+	 * @param size
+	 * @param result
+	 * @return
+	 */
+	private Thread startReader(final int size, final AtomicReference<byte[]> result) {
+		final Thread reader = new Thread(() -> {
+			try {
+				final byte[] data = new byte[size];
+				new DataInputStream(clientChannel.socket().getInputStream()).readFully(data);
+				result.set(data);
+			} catch (IOException e) {
+				// Result is not set
+			}
+		});
+
+		reader.start();
+		return reader;
+	}
+
+	/**
+	 * Write the data and flush the stream in a new thread
+	 * @param outputStream
+	 * @param data
+	 * @param exception
+	 * @return
+	 */
+	private static Thread startWriter(final ChannelOutputStream outputStream, final byte[] data,
+			final AtomicReference<IOException> exception) {
+
+		final Thread writer = new Thread(() -> {
+			try {
+				outputStream.write(data);
+				outputStream.flush();
+			} catch (IOException e) {
+				exception.set(e);
+			}
+		});
+
+		writer.start();
+		return writer;
+	}
+
+	@Test(timeout=60_000)
+	public void testPartialWrites() throws Exception {
+		final ChannelOutputStream outputStream = new ChannelOutputStream(serverChannel,
+				() -> writeInterestCalls.incrementAndGet());
+
+		final byte[] data = getTestData(1024 * 1024);
+
+		// Multiple auto flushes, the channel accepts only a part of the data
+		for(int i = 0; i < 4; i++) {
+			outputStream.write(data, i * data.length / 4, data.length / 4);
+		}
+
+		outputStream.flush();
+
+		Assert.assertTrue(outputStream.getPendingBytes() > 0);
+		Assert.assertTrue(writeInterestCalls.get() > 0);
+
+		final AtomicReference<byte[]> readData = new AtomicReference<>();
+		final Thread reader = startReader(data.length, readData);
+
+		// Perform the work of the event loop
+		while(! outputStream.writePendingData()) {
+			Thread.sleep(1);
+		}
+
+		reader.join();
+
+		Assert.assertEquals(0, outputStream.getPendingBytes());
+		Assert.assertArrayEquals(data, readData.get());
+	}
+
+	@Test(timeout=60_000)
+	public void testBackpressure() throws Exception {
+		final ChannelOutputStream outputStream = new ChannelOutputStream(serverChannel,
+				() -> writeInterestCalls.incrementAndGet(), 30_000);
+
+		final byte[] data = getTestData(8 * 1024 * 1024);
+		final AtomicReference<IOException> exception = new AtomicReference<>();
+		final Thread writer = startWriter(outputStream, data, exception);
+
+		// The writer is blocked until the pending data is read
+		while(outputStream.getPendingBytes() == 0) {
+			Thread.sleep(1);
+		}
+
+		Thread.sleep(100);
+		Assert.assertTrue(writer.isAlive());
+
+		final AtomicReference<byte[]> readData = new AtomicReference<>();
+		final Thread reader = startReader(data.length, readData);
+
+		boolean allWritten = false;
+
+		while(writer.isAlive() || ! allWritten) {
+			allWritten = outputStream.writePendingData();
+			Thread.sleep(1);
+		}
+
+		reader.join();
+
+		Assert.assertNull(exception.get());
+		Assert.assertArrayEquals(data, readData.get());
+	}
+
+	@Test(timeout=60_000)
+	public void testWriteTimeout() throws Exception {
+		final ChannelOutputStream outputStream = new ChannelOutputStream(serverChannel,
+				() -> writeInterestCalls.incrementAndGet(), 200);
+
+		final byte[] data = getTestData(8 * 1024 * 1024);
+
+		// The client does not read the data
+		try {
+			outputStream.write(data);
+			outputStream.flush();
+			Assert.fail("Flush should fail");
+		} catch(IOException e) {
+			// Expected
+		}
+
+		Assert.assertTrue(outputStream.isClosed());
+		Assert.assertEquals(0, outputStream.getPendingBytes());
+
+		try {
+			outputStream.write(1);
+			Assert.fail("Write should fail");
+		} catch(IOException e) {
+			// Expected
+		}
+	}
+
+	@Test(timeout=60_000)
+	public void testPeerCloseWithPendingBytes() throws Exception {
+		final ChannelOutputStream outputStream = new ChannelOutputStream(serverChannel,
+				() -> writeInterestCalls.incrementAndGet(), 30_000);
+
+		final byte[] data = getTestData(8 * 1024 * 1024);
+		final AtomicReference<IOException> exception = new AtomicReference<>();
+		final Thread writer = startWriter(outputStream, data, exception);
+
+		while(outputStream.getPendingBytes() == 0) {
+			Thread.sleep(1);
+		}
+
+		clientChannel.close();
+
+		// The event loop gets a write error and closes the stream
+		while(true) {
+			try {
+				outputStream.writePendingData();
+				Thread.sleep(1);
+			} catch(IOException e) {
+				outputStream.close();
+				break;
+			}
+		}
+
+		// The blocked writer is released
+		writer.join();
+		Assert.assertNotNull(exception.get());
+		Assert.assertEquals(0, outputStream.getPendingBytes());
+	}
+}
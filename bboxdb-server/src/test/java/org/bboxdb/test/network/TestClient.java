@@ -17,11 +17,27 @@
  *******************************************************************************/
 package org.bboxdb.test.network;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+import org.bboxdb.network.NetworkConst;
+import org.bboxdb.network.NetworkPackageDecoder;
+import org.bboxdb.network.ProtocolVersionHelper;
 import org.bboxdb.network.client.connection.BBoxDBConnection;
+import org.bboxdb.network.packages.request.HelloRequest;
+import org.bboxdb.network.packages.response.HelloResponse;
+import org.bboxdb.network.routing.RoutingHeader;
+import org.bboxdb.network.routing.RoutingHeaderParser;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import com.google.common.io.ByteStreams;
+
 public class TestClient {
 
 	/**
@@ -55,5 +71,104 @@ public class TestClient {
 		Assert.assertEquals(1000, bBoxDBConnection.getMaxInFlightCalls());
 	}
 	
+	/**
+	 * Test the in flight window of the protocol versions
+	 */
+	@Test(timeout=10000)
+	public void testInFlightWindow() {
+		final BBoxDBConnection bBoxDBConnection = new BBoxDBConnection();
+		bBoxDBConnection.setMaxInFlightCalls(100000);
+		
+		bBoxDBConnection.setProtocolVersion(NetworkConst.PROTOCOL_VERSION_1);
+		Assert.assertEquals(BBoxDBConnection.MAX_IN_FLIGHT_CALLS_PROTOCOL_1, 
+				bBoxDBConnection.getMaxInFlightCalls());
+		
+		bBoxDBConnection.setProtocolVersion(NetworkConst.PROTOCOL_VERSION_2);
+		Assert.assertEquals(100000, bBoxDBConnection.getMaxInFlightCalls());
+		
+		bBoxDBConnection.setMaxInFlightCalls(Integer.MAX_VALUE);
+		Assert.assertEquals(BBoxDBConnection.MAX_IN_FLIGHT_CALLS, bBoxDBConnection.getMaxInFlightCalls());
+	}
 	
+	/**
+	 * Test an invalid in flight window
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidInFlightWindow() {
+		final BBoxDBConnection bBoxDBConnection = new BBoxDBConnection();
+		bBoxDBConnection.setMaxInFlightCalls(0);
+	}
+	
+	/**
+	 * Test the handshake with a protocol version 1 server that echoes the 
+	 * capabilities of the client
+	 * @throws Exception 
+	 */
+	@Test(timeout=60000)
+	public void testSnappyWithProtocolVersion1Server() throws Exception {
+		try(final ServerSocket serverSocket = new ServerSocket(0)) {
+			final Thread serverThread = new Thread(() -> runEchoingProtocolVersion1Server(serverSocket));
+			serverThread.start();
+			
+			final BBoxDBConnection bBoxDBConnection = new BBoxDBConnection(
+					new InetSocketAddress("127.0.0.1", serverSocket.getLocalPort()));
+			
+			bBoxDBConnection.getClientCapabilities().setGZipCompression();
+			bBoxDBConnection.getClientCapabilities().setSnappyCompression();
+			
+			Assert.assertTrue(bBoxDBConnection.openNetworkConnection());
+			Assert.assertEquals(NetworkConst.PROTOCOL_VERSION_1, bBoxDBConnection.getProtocolVersion());
+			Assert.assertTrue(bBoxDBConnection.getConnectionCapabilities().hasGZipCompression());
+			Assert.assertFalse(bBoxDBConnection.getConnectionCapabilities().hasSnappyCompression());
+			Assert.assertEquals(NetworkConst.COMPRESSION_TYPE_GZIP, 
+					bBoxDBConnection.getConnectionCapabilities().getCompressionType());
+			
+			bBoxDBConnection.terminateConnection();
+			serverThread.join();
+		}
+	}
+
+	/**
+	 * Answer the handshake like a protocol version 1 server: the capabilities 
+	 * of the client are echoed back unchanged
+	 * @param serverSocket
+	 */
+	private void runEchoingProtocolVersion1Server(final ServerSocket serverSocket) {
+		try(final Socket socket = serverSocket.accept()) {
+			final InputStream inputStream = socket.getInputStream();
+			final OutputStream outputStream = socket.getOutputStream();
+			
+			final byte[] packageHeader = new byte[NetworkConst.PACKAGE_HEADER_LENGTH_V1];
+			ByteStreams.readFully(inputStream, packageHeader);
+			final byte[] convertedHeader = ProtocolVersionHelper.convertFromProtocolVersion1(packageHeader);
+			
+			final RoutingHeader routingHeader = RoutingHeaderParser.decodeRoutingHeader(inputStream);
+			final byte[] routingHeaderBytes = RoutingHeaderParser.encodeHeader(routingHeader);
+			
+			final ByteBuffer header = ByteBuffer.allocate(convertedHeader.length + routingHeaderBytes.length);
+			header.put(convertedHeader);
+			header.put(routingHeaderBytes);
+			
+			final int bodyLength = (int) NetworkPackageDecoder.getBodyLengthFromRequestPackage(header);
+			final byte[] encodedPackage = new byte[header.limit() + bodyLength];
+			System.arraycopy(header.array(), 0, encodedPackage, 0, header.limit());
+			ByteStreams.readFully(inputStream, encodedPackage, header.limit(), bodyLength);
+			
+			final HelloRequest helloRequest = HelloRequest.decodeRequest(
+					NetworkPackageDecoder.encapsulateBytes(encodedPackage));
+			
+			final HelloResponse helloResponse = new HelloResponse(helloRequest.getSequenceNumber(), 
+					NetworkConst.PROTOCOL_VERSION_1, helloRequest.getPeerCapabilities());
+			
+			ProtocolVersionHelper.writePackage(helloResponse, outputStream, NetworkConst.PROTOCOL_VERSION_1);
+			outputStream.flush();
+			
+			// Wait for the client to close the connection
+			while(inputStream.read() != -1) {
+				// Ignore the remaining packages
+			}
+		} catch (Exception e) {
+			// The assertions are performed by the client side
+		}
+	}
 }
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.test.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.bboxdb.commons.CloseableHelper;
+import org.bboxdb.misc.Const;
+import org.bboxdb.network.NetworkConst;
+import org.bboxdb.network.NetworkPackageDecoder;
+import org.bboxdb.network.ProtocolVersionHelper;
+import org.bboxdb.network.capabilities.PeerCapabilities;
+import org.bboxdb.network.packages.PackageEncodeException;
+import org.bboxdb.network.packages.request.HelloRequest;
+import org.bboxdb.network.packages.request.KeepAliveRequest;
+import org.bboxdb.network.packages.response.HelloResponse;
+import org.bboxdb.network.packages.response.SuccessResponse;
+import org.bboxdb.network.server.connection.ClientConnectionHandler;
+import org.bboxdb.network.server.connection.ClientConnectionRegistry;
+import org.bboxdb.network.server.connection.NetworkEventLoop;
+import org.bboxdb.network.server.connection.lock.LockManager;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestClientConnectionHandler {
+
+	/**
+	 * The event loop
+	 */
+	private NetworkEventLoop eventLoop;
+
+	/**
+	 * The thread pool of the connection
+	 */
+	private ExecutorService threadPool;
+
+	/**
+	 * The server socket
+	 */
+	private ServerSocketChannel serverSocketChannel;
+
+	/**
+	 * The channel of the client
+	 */
+	private SocketChannel clientChannel;
+
+	/**
+	 * The connection registry
+	 */
+	private ClientConnectionRegistry connectionRegistry;
+
+	/**
+	 * The connection handler
+	 */
+	private ClientConnectionHandler connectionHandler;
+
+	@Before
+	public void before() throws IOException {
+		eventLoop = new NetworkEventLoop("Test event loop");
+		new Thread(eventLoop).start();
+
+		threadPool = Executors.newCachedThreadPool();
+
+		serverSocketChannel = ServerSocketChannel.open();
+		serverSocketChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+
+		clientChannel = SocketChannel.open(serverSocketChannel.getLocalAddress());
+
+		final SocketChannel serverChannel = serverSocketChannel.accept();
+		serverChannel.configureBlocking(false);
+
+		connectionRegistry = new ClientConnectionRegistry();
+		connectionHandler = new ClientConnectionHandler(null, serverChannel, eventLoop,
+				threadPool, threadPool, threadPool, threadPool, new LockManager(), connectionRegistry);
+	}
+
+	@After
+	public void after() {
+		CloseableHelper.closeWithoutException(clientChannel);
+		CloseableHelper.closeWithoutException(serverSocketChannel);
+		eventLoop.shutdown();
+		threadPool.shutdownNow();
+	}
+
+	/**
+	 * Get the encoded handshake, the handshake is encoded with protocol version 1
+	 * @return
+	 * @throws PackageEncodeException
+	 */
+	private static byte[] getEncodedHandshake() throws PackageEncodeException {
+		final HelloRequest helloRequest = new HelloRequest(0, NetworkConst.PROTOCOL_VERSION,
+				new PeerCapabilities());
+
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		ProtocolVersionHelper.writePackage(helloRequest, bos, NetworkConst.PROTOCOL_VERSION_1);
+		return bos.toByteArray();
+	}
+
+	/**
+	 * Get the encoded keep alive requests
+	 * @param firstSequenceNumber
+	 * @param requests
+	 * @return
+	 * @throws PackageEncodeException
+	 */
+	private static byte[] getEncodedKeepAlives(final int firstSequenceNumber, final int requests)
+			throws PackageEncodeException {
+
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+		for(int i = 0; i < requests; i++) {
+			new KeepAliveRequest(firstSequenceNumber + i).writeToOutputStream(bos);
+		}
+
+		return bos.toByteArray();
+	}
+
+	/**
+	 * Read the next response package
+	 * @param inputStream
+	 * @param protocolVersion
+	 * @return the package in the format of the current protocol version
+	 * @throws IOException
+	 */
+	private static ByteBuffer readResponse(final DataInputStream inputStream,
+			final int protocolVersion) throws IOException {
+
+		final int headerLength = ProtocolVersionHelper.getHeaderLength(protocolVersion);
+		final byte[] header = new byte[headerLength];
+		inputStream.readFully(header);
+
+		// The body length is the last field of the header
+		final ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+		headerBuffer.order(Const.APPLICATION_BYTE_ORDER);
+		final int bodyLength = (int) headerBuffer.getLong(headerLength - 8);
+
+		final byte[] encodedPackage = new byte[headerLength + bodyLength];
+		System.arraycopy(header, 0, encodedPackage, 0, headerLength);
+		inputStream.readFully(encodedPackage, headerLength, bodyLength);
+
+		if(ProtocolVersionHelper.hasWideSequenceNumbers(protocolVersion)) {
+			return NetworkPackageDecoder.encapsulateBytes(encodedPackage);
+		}
+
+		return NetworkPackageDecoder.encapsulateBytes(
+				ProtocolVersionHelper.convertFromProtocolVersion1(encodedPackage));
+	}
+
+	/**
+	 * Read and check the handshake response
+	 * @param inputStream
+	 * @throws IOException
+	 * @throws PackageEncodeException
+	 */
+	private static void readHandshakeResponse(final DataInputStream inputStream)
+			throws IOException, PackageEncodeException {
+
+		final HelloResponse helloResponse = HelloResponse.decodePackage(
+				readResponse(inputStream, NetworkConst.PROTOCOL_VERSION_1));
+
+		Assert.assertEquals(NetworkConst.PROTOCOL_VERSION, helloResponse.getProtocolVersion());
+	}
+
+	@Test(timeout=60_000)
+	public void testFrameDecodingAcrossPartialReads() throws Exception {
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		bos.write(getEncodedHandshake());
+		bos.write(getEncodedKeepAlives(1, 2));
+		final byte[] requests = bos.toByteArray();
+
+		// Each byte is read by the event loop on its own
+		final OutputStream outputStream = clientChannel.socket().getOutputStream();
+
+		for(final byte requestByte : requests) {
+			outputStream.write(requestByte);
+			outputStream.flush();
+			Thread.sleep(1);
+		}
+
+		final DataInputStream inputStream = new DataInputStream(clientChannel.socket().getInputStream());
+		readHandshakeResponse(inputStream);
+
+		for(int i = 1; i <= 2; i++) {
+			final SuccessResponse response = SuccessResponse.decodePackage(
+					readResponse(inputStream, NetworkConst.PROTOCOL_VERSION));
+
+			Assert.assertEquals(i, response.getSequenceNumber());
+		}
+	}
+
+	@Test(timeout=60_000)
+	public void testMultipleFramesInOneRead() throws Exception {
+		final int requests = 5000;
+
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		bos.write(getEncodedHandshake());
+		bos.write(getEncodedKeepAlives(1, requests));
+
+		final OutputStream outputStream = clientChannel.socket().getOutputStream();
+		outputStream.write(bos.toByteArray());
+		outputStream.flush();
+
+		final DataInputStream inputStream = new DataInputStream(clientChannel.socket().getInputStream());
+		readHandshakeResponse(inputStream);
+
+		// The responses are received in the order of the requests
+		for(int i = 1; i <= requests; i++) {
+			final SuccessResponse response = SuccessResponse.decodePackage(
+					readResponse(inputStream, NetworkConst.PROTOCOL_VERSION));
+
+			Assert.assertEquals(i, response.getSequenceNumber());
+		}
+	}
+
+	@Test(timeout=60_000)
+	public void testPeerCloseWithPendingBytes() throws Exception {
+		Assert.assertEquals(1, connectionRegistry.getAllActiveConnections().size());
+
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		bos.write(getEncodedHandshake());
+		bos.write(getEncodedKeepAlives(1, 50_000));
+
+		// The responses are never read by the client
+		final OutputStream outputStream = clientChannel.socket().getOutputStream();
+		outputStream.write(bos.toByteArray());
+		outputStream.flush();
+		clientChannel.close();
+
+		// The connection is closed and removed from the registry
+		while(! connectionRegistry.getAllActiveConnections().isEmpty()) {
+			Thread.sleep(10);
+		}
+
+		Assert.assertTrue(connectionHandler.getConnectionState().isInFinishedState());
+	}
+}
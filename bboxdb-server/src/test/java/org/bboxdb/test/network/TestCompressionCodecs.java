@@ -0,0 +1,131 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.test.network;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.bboxdb.network.NetworkConst;
+import org.bboxdb.network.compression.AdaptiveCompressionPolicy;
+import org.bboxdb.network.compression.CompressionCodecHelper;
+import org.bboxdb.network.packages.PackageEncodeException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestCompressionCodecs {
+
+	/**
+	 * Test the gzip codec
+	 * @throws PackageEncodeException
+	 */
+	@Test(timeout=60000)
+	public void testGZipCodec() throws PackageEncodeException {
+		testCodec(NetworkConst.COMPRESSION_TYPE_GZIP);
+	}
+	
+	/**
+	 * Test the snappy codec
+	 * @throws PackageEncodeException
+	 */
+	@Test(timeout=60000)
+	public void testSnappyCodec() throws PackageEncodeException {
+		Assert.assertTrue(CompressionCodecHelper.isCodecAvailable(NetworkConst.COMPRESSION_TYPE_SNAPPY));
+		testCodec(NetworkConst.COMPRESSION_TYPE_SNAPPY);
+	}
+	
+	/**
+	 * Test an unknown codec
+	 * @throws PackageEncodeException
+	 */
+	@Test(expected=PackageEncodeException.class)
+	public void testUnknownCodec() throws PackageEncodeException {
+		Assert.assertFalse(CompressionCodecHelper.isCodecAvailable((byte) 0x7F));
+		CompressionCodecHelper.compress((byte) 0x7F, new byte[10]);
+	}
+	
+	/**
+	 * Compress and uncompress data with the given codec
+	 * @param compressionType
+	 * @throws PackageEncodeException
+	 */
+	private void testCodec(final byte compressionType) throws PackageEncodeException {
+		final byte[] data = new byte[10000];
+		Arrays.fill(data, (byte) 'a');
+		
+		final byte[] compressedData = CompressionCodecHelper.compress(compressionType, data);
+		Assert.assertTrue(compressedData.length < data.length);
+		
+		final byte[] uncompressedData = CompressionCodecHelper.uncompress(compressionType, compressedData);
+		Assert.assertArrayEquals(data, uncompressedData);
+	}
+	
+	/**
+	 * Small envelopes are not compressed
+	 */
+	@Test(timeout=60000)
+	public void testPolicySmallEnvelopes() {
+		final AdaptiveCompressionPolicy policy = new AdaptiveCompressionPolicy(100);
+		Assert.assertFalse(policy.shouldCompress(10));
+		Assert.assertFalse(policy.shouldCompress(99));
+		Assert.assertTrue(policy.shouldCompress(100));
+		Assert.assertTrue(policy.shouldCompress(1000));
+	}
+	
+	/**
+	 * Incompressible envelopes cause skipped envelopes with backoff
+	 */
+	@Test(timeout=60000)
+	public void testPolicyIncompressibleEnvelopes() {
+		final AdaptiveCompressionPolicy policy = new AdaptiveCompressionPolicy(100);
+		
+		Assert.assertTrue(policy.shouldCompress(1000));
+		Assert.assertTrue(policy.isCompressionUseful(1000, 100));
+		Assert.assertTrue(policy.shouldCompress(1000));
+		
+		// Skip one envelope
+		Assert.assertFalse(policy.isCompressionUseful(1000, 1000));
+		Assert.assertFalse(policy.shouldCompress(1000));
+		Assert.assertTrue(policy.shouldCompress(1000));
+		
+		// Skip two envelopes
+		Assert.assertFalse(policy.isCompressionUseful(1000, 990));
+		Assert.assertFalse(policy.shouldCompress(1000));
+		Assert.assertFalse(policy.shouldCompress(1000));
+		Assert.assertTrue(policy.shouldCompress(1000));
+		
+		// Compressible data resets the backoff
+		Assert.assertTrue(policy.isCompressionUseful(1000, 500));
+		Assert.assertFalse(policy.isCompressionUseful(1000, 1000));
+		Assert.assertFalse(policy.shouldCompress(1000));
+		Assert.assertTrue(policy.shouldCompress(1000));
+	}
+	
+	/**
+	 * Random data is not worth to be compressed
+	 * @throws PackageEncodeException
+	 */
+	@Test(timeout=60000)
+	public void testRandomData() throws PackageEncodeException {
+		final byte[] data = new byte[10000];
+		new Random(42).nextBytes(data);
+		
+		final byte[] compressedData = CompressionCodecHelper.compress(NetworkConst.COMPRESSION_TYPE_SNAPPY, data);
+		final AdaptiveCompressionPolicy policy = new AdaptiveCompressionPolicy();
+		Assert.assertFalse(policy.isCompressionUseful(data.length, compressedData.length));
+	}
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.test.network;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.misc.Const;
+import org.bboxdb.network.NetworkBufferPool;
+import org.bboxdb.network.PackageAllocationTracker;
+import org.bboxdb.network.packages.response.TupleResponse;
+import org.bboxdb.storage.entity.Tuple;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestNetworkBufferPool {
+
+	@Before
+	public void before() {
+		NetworkBufferPool.getInstance().clear();
+	}
+
+	@Test(timeout=60000)
+	public void testAcquireBuffer() {
+		final NetworkBufferPool bufferPool = NetworkBufferPool.getInstance();
+
+		final ByteBuffer buffer1 = bufferPool.acquire(14);
+		Assert.assertEquals(0, buffer1.position());
+		Assert.assertEquals(14, buffer1.limit());
+		Assert.assertEquals(256, buffer1.capacity());
+		Assert.assertEquals(Const.APPLICATION_BYTE_ORDER, buffer1.order());
+
+		final ByteBuffer buffer2 = bufferPool.acquire(257);
+		Assert.assertEquals(257, buffer2.limit());
+		Assert.assertEquals(512, buffer2.capacity());
+
+		final ByteBuffer buffer3 = bufferPool.acquire(1024);
+		Assert.assertEquals(1024, buffer3.capacity());
+	}
+
+	@Test(timeout=60000)
+	public void testReuseBuffer() {
+		final NetworkBufferPool bufferPool = NetworkBufferPool.getInstance();
+		Assert.assertEquals(0, bufferPool.getPooledBuffers());
+
+		final ByteBuffer buffer1 = bufferPool.acquire(100);
+		buffer1.putLong(1234);
+		bufferPool.release(buffer1);
+		Assert.assertEquals(1, bufferPool.getPooledBuffers());
+
+		final ByteBuffer buffer2 = bufferPool.acquire(200);
+		Assert.assertSame(buffer1, buffer2);
+		Assert.assertEquals(0, buffer2.position());
+		Assert.assertEquals(200, buffer2.limit());
+		Assert.assertEquals(0, bufferPool.getPooledBuffers());
+
+		// Different size
+		bufferPool.release(buffer2);
+		final ByteBuffer buffer3 = bufferPool.acquire(300);
+		Assert.assertNotSame(buffer2, buffer3);
+		Assert.assertEquals(1, bufferPool.getPooledBuffers());
+	}
+
+	@Test(timeout=60000)
+	public void testUnpooledBuffers() {
+		final NetworkBufferPool bufferPool = NetworkBufferPool.getInstance();
+
+		// Too large to be pooled
+		final ByteBuffer buffer1 = bufferPool.acquire(2 * 1024 * 1024);
+		Assert.assertEquals(2 * 1024 * 1024, buffer1.capacity());
+		bufferPool.release(buffer1);
+		Assert.assertEquals(0, bufferPool.getPooledBuffers());
+
+		// Not created by the pool
+		bufferPool.release(ByteBuffer.allocate(100));
+		bufferPool.release(ByteBuffer.allocateDirect(256));
+		bufferPool.release(null);
+		Assert.assertEquals(0, bufferPool.getPooledBuffers());
+	}
+
+	@Test(timeout=60000)
+	public void testMaxPooledBuffers() {
+		final NetworkBufferPool bufferPool = NetworkBufferPool.getInstance();
+
+		for(int i = 0; i < 1000; i++) {
+			bufferPool.release(ByteBuffer.allocate(256));
+		}
+
+		Assert.assertTrue(bufferPool.getPooledBuffers() > 0);
+		Assert.assertTrue(bufferPool.getPooledBuffers() < 1000);
+
+		bufferPool.clear();
+		Assert.assertEquals(0, bufferPool.getPooledBuffers());
+	}
+
+	@Test(timeout=60000)
+	public void testAllocationTracking() throws Exception {
+		final boolean oldState = PackageAllocationTracker.isEnabled();
+
+		try {
+			PackageAllocationTracker.setEnabled(true);
+			Assume.assumeTrue(PackageAllocationTracker.isEnabled());
+
+			final double trackedPackages = PackageAllocationTracker.getTrackedPackages(TupleResponse.class);
+			final double allocatedBytes = PackageAllocationTracker.getAllocatedBytes(TupleResponse.class);
+
+			final Tuple tuple = new Tuple("abc", new Hyperrectangle(1d, 2d), new byte[100_000]);
+			final TupleResponse tupleResponse = new TupleResponse(1, "mygroup_abc", tuple);
+
+			final long startBytes = PackageAllocationTracker.getAllocatedBytes();
+			Assert.assertTrue(startBytes >= 0);
+
+			// The output stream allocates at least the size of the tuple
+			tupleResponse.writeToOutputStream(new ByteArrayOutputStream());
+			PackageAllocationTracker.recordAllocations(tupleResponse, startBytes);
+
+			Assert.assertEquals(trackedPackages + 1,
+					PackageAllocationTracker.getTrackedPackages(TupleResponse.class), 0.1);
+
+			Assert.assertTrue(PackageAllocationTracker.getAllocatedBytes(TupleResponse.class)
+					>= allocatedBytes + 100_000);
+		} finally {
+			PackageAllocationTracker.setEnabled(oldState);
+		}
+	}
+
+	@Test(timeout=60000)
+	public void testAllocationTrackingDisabled() {
+		final boolean oldState = PackageAllocationTracker.isEnabled();
+
+		try {
+			PackageAllocationTracker.setEnabled(false);
+			Assert.assertEquals(-1, PackageAllocationTracker.getAllocatedBytes());
+		} finally {
+			PackageAllocationTracker.setEnabled(oldState);
+		}
+	}
+}
@@ -36,9 +36,12 @@ import org.bboxdb.distribution.membership.BBoxDBInstance;
 import org.bboxdb.misc.Const;
 import org.bboxdb.network.NetworkConst;
 import org.bboxdb.network.NetworkPackageDecoder;
+import org.bboxdb.network.ProtocolVersionHelper;
 import org.bboxdb.network.capabilities.PeerCapabilities;
+import org.bboxdb.network.compression.AdaptiveCompressionPolicy;
 import org.bboxdb.network.client.connection.SequenceNumberGenerator;
 import org.bboxdb.network.entity.ContinuousQueryServerState;
+import org.bboxdb.network.entity.OperatorProfile;
 import org.bboxdb.network.packages.NetworkPackage;
 import org.bboxdb.network.packages.PackageEncodeException;
 import org.bboxdb.network.packages.request.CancelRequest;
@@ -51,6 +54,7 @@ import org.bboxdb.network.packages.request.DeleteTableRequest;
 import org.bboxdb.network.packages.request.DisconnectRequest;
 import org.bboxdb.network.packages.request.HelloRequest;
 import org.bboxdb.network.packages.request.InsertTupleRequest;
+import org.bboxdb.network.packages.request.InsertTuplesRequest;
 import org.bboxdb.network.packages.request.KeepAliveRequest;
 import org.bboxdb.network.packages.request.LockTupleRequest;
 import org.bboxdb.network.packages.request.NextPageRequest;
@@ -60,12 +64,14 @@ import org.bboxdb.network.packages.request.QueryHyperrectangleTimeRequest;
 import org.bboxdb.network.packages.request.QueryInsertTimeRequest;
 import org.bboxdb.network.packages.request.QueryJoinRequest;
 import org.bboxdb.network.packages.request.QueryKeyRequest;
+import org.bboxdb.network.packages.request.QueryMultiKeyRequest;
 import org.bboxdb.network.packages.request.QueryVersionTimeRequest;
 import org.bboxdb.network.packages.response.CompressionEnvelopeResponse;
 import org.bboxdb.network.packages.response.ContinuousQueryStateResponse;
 import org.bboxdb.network.packages.response.HelloResponse;
 import org.bboxdb.network.packages.response.MultiTupleResponse;
 import org.bboxdb.network.packages.response.ListTablesResponse;
+import org.bboxdb.network.packages.response.QueryProfileResponse;
 import org.bboxdb.network.packages.response.SuccessResponse;
 import org.bboxdb.network.packages.response.TupleLockedResponse;
 import org.bboxdb.network.packages.response.TupleResponse;
@@ -76,6 +82,7 @@ import org.bboxdb.query.filter.UserDefinedFilterDefinition;
 import org.bboxdb.storage.entity.DeletedTuple;
 import org.bboxdb.storage.entity.DistributionGroupConfiguration;
 import org.bboxdb.storage.entity.DistributionGroupConfigurationBuilder;
+import org.bboxdb.storage.entity.GeometryEncoding;
 import org.bboxdb.storage.entity.MultiTuple;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreConfiguration;
@@ -134,8 +141,8 @@ public class TestNetworkClasses {
 	 */
 	@Test(timeout=60000)
 	public void testRequestPackageHeader() throws IOException, PackageEncodeException {
-		final short currentSequenceNumber = sequenceNumberGenerator.getLastGeneratedNumber();
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int currentSequenceNumber = sequenceNumberGenerator.getLastGeneratedNumber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 		
 		final KeepAliveRequest listTablesRequest = new KeepAliveRequest(sequenceNumber);
 		
@@ -146,16 +153,113 @@ public class TestNetworkClasses {
 
 		final byte[] encodedPackage = bos.toByteArray();
 		
-		Assert.assertEquals(26, encodedPackage.length);
+		Assert.assertEquals(28, encodedPackage.length);
 		
 		final ByteBuffer bb = ByteBuffer.wrap(encodedPackage);
 		bb.order(Const.APPLICATION_BYTE_ORDER);
 		
 		// Check fields
-		Assert.assertEquals(currentSequenceNumber, bb.getShort());
+		Assert.assertEquals(currentSequenceNumber, bb.getInt());
 		Assert.assertEquals(NetworkConst.REQUEST_TYPE_KEEP_ALIVE, bb.getShort());
 	}
 	
+	/**
+	 * Test the encoding of the request package header in protocol version 1
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void testRequestPackageHeaderProtocolVersion1() throws IOException, PackageEncodeException {
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final KeepAliveRequest keepAliveRequest = new KeepAliveRequest(sequenceNumber);
+		
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		final long writtenBytes = keepAliveRequest.writeToOutputStream(bos, NetworkConst.PROTOCOL_VERSION_1);
+		final byte[] encodedPackage = bos.toByteArray();
+		
+		Assert.assertEquals(26, encodedPackage.length);
+		Assert.assertEquals(26, writtenBytes);
+		
+		final ByteBuffer bb = ByteBuffer.wrap(encodedPackage);
+		bb.order(Const.APPLICATION_BYTE_ORDER);
+		Assert.assertEquals(sequenceNumber, bb.getShort());
+		Assert.assertEquals(NetworkConst.REQUEST_TYPE_KEEP_ALIVE, bb.getShort());
+		
+		// Convert back into the current protocol version
+		final byte[] convertedPackage = ProtocolVersionHelper.convertFromProtocolVersion1(encodedPackage);
+		Assert.assertArrayEquals(networkPackageToByte(keepAliveRequest), convertedPackage);
+		
+		final KeepAliveRequest decodedPackage = KeepAliveRequest.decodeTuple(
+				NetworkPackageDecoder.encapsulateBytes(convertedPackage));
+		
+		Assert.assertEquals(keepAliveRequest, decodedPackage);
+	}
+	
+	/**
+	 * Sequence numbers above 16 bit can only be encoded in protocol version 2 
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void testWideSequenceNumber() throws IOException, PackageEncodeException {
+		final int sequenceNumber = Short.MAX_VALUE + 100;
+		final int querySequence = Short.MAX_VALUE + 200;
+
+		final CancelRequest cancelRequest = new CancelRequest(sequenceNumber, querySequence);
+		final byte[] encodedVersion = networkPackageToByte(cancelRequest);
+
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedVersion);
+		final CancelRequest decodedPackage = CancelRequest.decodeTuple(bb);
+		
+		Assert.assertEquals(sequenceNumber, decodedPackage.getSequenceNumber());
+		Assert.assertEquals(querySequence, decodedPackage.getQuerySequence());
+		
+		try {
+			cancelRequest.writeToOutputStream(new ByteArrayOutputStream(), NetworkConst.PROTOCOL_VERSION_1);
+			Assert.fail("Exception expected");
+		} catch(PackageEncodeException e) {
+			// Expected exception
+		}
+	}
+	
+	/**
+	 * The encoding and decoding of a cancel query package in protocol version 1
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void encodeAndDecodeCancelQueryProtocolVersion1() throws IOException, PackageEncodeException {
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final CancelRequest cancelRequest = new CancelRequest(sequenceNumber, 12);
+		
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		cancelRequest.writeToOutputStream(bos, NetworkConst.PROTOCOL_VERSION_1);
+		
+		// Header, routing header and 16 bit query sequence
+		Assert.assertEquals(NetworkConst.PACKAGE_HEADER_LENGTH_V1 + 6 + 2, bos.size());
+
+		final byte[] convertedPackage = ProtocolVersionHelper.convertFromProtocolVersion1(bos.toByteArray());
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(convertedPackage);
+		final CancelRequest decodedPackage = CancelRequest.decodeTuple(bb);
+		
+		Assert.assertEquals(cancelRequest, decodedPackage);
+	}
+	
+	/**
+	 * The negotiation of the protocol version
+	 */
+	@Test(timeout=60000)
+	public void testProtocolVersionNegotiation() {
+		Assert.assertEquals(NetworkConst.PROTOCOL_VERSION_1, 
+				ProtocolVersionHelper.negotiateProtocolVersion(NetworkConst.PROTOCOL_VERSION_1));
+		Assert.assertEquals(NetworkConst.PROTOCOL_VERSION_2, 
+				ProtocolVersionHelper.negotiateProtocolVersion(NetworkConst.PROTOCOL_VERSION_2));
+		Assert.assertEquals(NetworkConst.PROTOCOL_VERSION, 
+				ProtocolVersionHelper.negotiateProtocolVersion(NetworkConst.PROTOCOL_VERSION + 1));
+		Assert.assertEquals(NetworkConst.PROTOCOL_VERSION_1, 
+				ProtocolVersionHelper.negotiateProtocolVersion(0));
+	}
+	
 	/**
 	 * The the encoding and decoding of an insert tuple package
 	 * @throws IOException 
@@ -164,7 +268,7 @@ public class TestNetworkClasses {
 	@Test(timeout=60000)
 	public void encodeAndDecodeDeletedTuple1() throws IOException, PackageEncodeException {
 		final Tuple tuple = new DeletedTuple("key", 12);
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final InsertTupleRequest insertPackage = new InsertTupleRequest(sequenceNumber, 
 				ROUTING_HEADER_UNROUTED, new TupleStoreName("test"), tuple);
@@ -193,7 +297,7 @@ public class TestNetworkClasses {
 	@Test(timeout=60000)
 	public void encodeAndDecodeInsertTuple1() throws IOException, PackageEncodeException {
 		final Tuple tuple = new Tuple("key", Hyperrectangle.FULL_SPACE, "abc".getBytes(), 12);
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final InsertTupleRequest insertPackage = new InsertTupleRequest(sequenceNumber, 
 				ROUTING_HEADER_UNROUTED, new TupleStoreName("test"), tuple);
@@ -220,7 +324,7 @@ public class TestNetworkClasses {
 	@Test(timeout=60000)
 	public void encodeAndDecodeInsertTuple2() throws IOException, PackageEncodeException {
 		final Tuple tuple = new Tuple("key", new Hyperrectangle(1.3244343224, 232.232333343, 34324.343, 343243.0), "abc".getBytes(), 12);
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final InsertTupleRequest insertPackage = new InsertTupleRequest(sequenceNumber, 
 				ROUTING_HEADER_UNROUTED, new TupleStoreName("test"), tuple);
@@ -250,7 +354,7 @@ public class TestNetworkClasses {
 		final Tuple tuple2 = new Tuple("key2", new Hyperrectangle(1.32443453224, 545334.03, 34324.343, 343243.0), "abc".getBytes(), 12);
 		final Tuple tuple3 = new Tuple("key3", new Hyperrectangle(1.35433224, 5453.43, 34324.343, 343243.0), "abc".getBytes(), 12);
 
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final List<Tuple> tupleList = Arrays.asList(tuple1, tuple2, tuple3);
 		final List<String> tableNames = Arrays.asList("abc", "def", "geh");
@@ -285,7 +389,7 @@ public class TestNetworkClasses {
 	public void encodeAndDecodeInsertTupleWithCustomHeader() throws IOException, PackageEncodeException {
 		final RoutingHeader routingHeader = ROUTING_HEADER_ROUTED;
 		final Tuple tuple = new Tuple("key", Hyperrectangle.FULL_SPACE, "abc".getBytes(), 12);
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final InsertTupleRequest insertPackage = new InsertTupleRequest(sequenceNumber, 
 				ROUTING_HEADER_ROUTED, new TupleStoreName("test"), tuple);
@@ -307,6 +411,40 @@ public class TestNetworkClasses {
 		Assert.assertTrue(insertPackage.toString().length() > 10);
 	}
 	
+	/**
+	 * The the encoding and decoding of a batch insert package
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void encodeAndDecodeInsertTuples() throws IOException, PackageEncodeException {
+		final RoutingHeader routingHeader = ROUTING_HEADER_ROUTED;
+		final Tuple tuple1 = new Tuple("key1", Hyperrectangle.FULL_SPACE, "abc".getBytes(), 12);
+		final Tuple tuple2 = new Tuple("key2", new Hyperrectangle(1d, 2d, 3d, 4d), "def".getBytes(), 14);
+		final DeletedTuple tuple3 = new DeletedTuple("key3", 15);
+		final List<Tuple> tuples = Arrays.asList(tuple1, tuple2, tuple3);
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+
+		final InsertTuplesRequest insertPackage = new InsertTuplesRequest(sequenceNumber, 
+				routingHeader, new TupleStoreName("test"), tuples);
+		Assert.assertEquals(routingHeader, insertPackage.getRoutingHeader());
+		
+		byte[] encodedVersion = networkPackageToByte(insertPackage);
+		Assert.assertNotNull(encodedVersion);
+
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedVersion);
+		final InsertTuplesRequest decodedPackage = InsertTuplesRequest.decodeTuples(bb);
+				
+		Assert.assertEquals(tuples, decodedPackage.getTuples());
+		Assert.assertTrue(decodedPackage.getTuples().get(2) instanceof DeletedTuple);
+		Assert.assertEquals(insertPackage.getTable(), decodedPackage.getTable());
+		Assert.assertEquals(routingHeader, decodedPackage.getRoutingHeader());
+		Assert.assertEquals(insertPackage, decodedPackage);
+		
+		Assert.assertEquals(insertPackage.hashCode(), decodedPackage.hashCode());
+		Assert.assertTrue(insertPackage.toString().length() > 10);
+	}
+	
 	/**
 	 * The the encoding and decoding of an create distribution group package
 	 * @throws IOException 
@@ -314,7 +452,7 @@ public class TestNetworkClasses {
 	 */
 	@Test(timeout=60000)
 	public void encodeAndDecodeCreateDistributionGroup() throws IOException, PackageEncodeException {
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final DistributionGroupConfiguration distributionGroupConfiguration = DistributionGroupConfigurationBuilder.create(4)
 				.withPlacementStrategy("abc", "def")
@@ -347,7 +485,7 @@ public class TestNetworkClasses {
 	 */
 	@Test(timeout=60000)
 	public void encodeAndDecodeDeleteDistributionGroup() throws IOException, PackageEncodeException {
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final DeleteDistributionGroupRequest groupPackage = new DeleteDistributionGroupRequest(sequenceNumber, "test");
 		
@@ -371,9 +509,9 @@ public class TestNetworkClasses {
 	 */
 	@Test(timeout=60000)
 	public void encodeAndDecodeNextPage() throws IOException, PackageEncodeException {
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
-		final short querySequence = 12;
+		final int querySequence = 12;
 		final NextPageRequest nextPageRequest = new NextPageRequest(sequenceNumber, querySequence);
 		
 		byte[] encodedVersion = networkPackageToByte(nextPageRequest);
@@ -396,9 +534,9 @@ public class TestNetworkClasses {
 	 */
 	@Test(timeout=60000)
 	public void encodeAndDecodeCancelQuery() throws IOException, PackageEncodeException {
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
-		final short querySequence = 12;
+		final int querySequence = 12;
 		final CancelRequest cancelQueryRequest = new CancelRequest(sequenceNumber, querySequence);
 		
 		byte[] encodedVersion = networkPackageToByte(cancelQueryRequest);
@@ -419,7 +557,7 @@ public class TestNetworkClasses {
 	 */
 	@Test(timeout=60000)
 	public void encodeAndDecodeLockTuple() throws IOException, PackageEncodeException {
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final LockTupleRequest request = new LockTupleRequest(sequenceNumber, ROUTING_HEADER_ROUTED, 
 				"abc", "key1", 12, true);
@@ -444,7 +582,7 @@ public class TestNetworkClasses {
 	 */
 	@Test(timeout=60000)
 	public void encodeAndDecodeDeleteTable() throws IOException, PackageEncodeException {
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final DeleteTableRequest deletePackage = new DeleteTableRequest(sequenceNumber, "test");
 		
@@ -467,7 +605,7 @@ public class TestNetworkClasses {
 	 */
 	@Test(timeout=60000)
 	public void encodeAndDecodeCreateTable() throws IOException, PackageEncodeException {
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final TupleStoreConfiguration ssTableConfiguration = TupleStoreConfigurationBuilder
 				.create()
@@ -475,6 +613,7 @@ public class TestNetworkClasses {
 				.withVersions(666)
 				.withSpatialIndexReader("reader")
 				.withSpatialIndexWriter("writer")
+				.withGeometryEncoding(GeometryEncoding.WKB)
 				.build();
 		
 		final CreateTableRequest createPackage = new CreateTableRequest(sequenceNumber, "test", ssTableConfiguration);
@@ -502,7 +641,7 @@ public class TestNetworkClasses {
 	public void testDecodeKeyQuery() throws IOException, PackageEncodeException {
 		final String table = "1_mygroup_table1";
 		final String key = "key1";
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final QueryKeyRequest queryKeyRequest = new QueryKeyRequest(sequenceNumber, ROUTING_HEADER_UNROUTED, table, key, false, (short) 10);
 		final byte[] encodedPackage = networkPackageToByte(queryKeyRequest);
@@ -522,6 +661,36 @@ public class TestNetworkClasses {
 		Assert.assertEquals(queryKeyRequest.toString(), decodedPackage.toString());
 	}
 	
+	/**
+	 * Test decoding and encoding of the multi key query
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void testDecodeMultiKeyQuery() throws IOException, PackageEncodeException {
+		final String table = "1_mygroup_table1";
+		final List<String> keys = Arrays.asList("key1", "key2", "äöü");
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+
+		final QueryMultiKeyRequest queryKeyRequest = new QueryMultiKeyRequest(sequenceNumber, 
+				ROUTING_HEADER_UNROUTED, table, keys, true, (short) 10);
+		final byte[] encodedPackage = networkPackageToByte(queryKeyRequest);
+		Assert.assertNotNull(encodedPackage);
+
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedPackage);
+		final boolean result = NetworkPackageDecoder.validateRequestPackageHeader(bb, NetworkConst.REQUEST_TYPE_QUERY);
+		Assert.assertTrue(result);
+
+		final QueryMultiKeyRequest decodedPackage = QueryMultiKeyRequest.decodeTuple(bb);
+		Assert.assertEquals(queryKeyRequest.getKeys(), decodedPackage.getKeys());
+		Assert.assertEquals(queryKeyRequest.getTable(), decodedPackage.getTable());
+		Assert.assertEquals(queryKeyRequest.isPagingEnabled(), decodedPackage.isPagingEnabled());
+		Assert.assertEquals(queryKeyRequest.getTuplesPerPage(), decodedPackage.getTuplesPerPage());
+		Assert.assertEquals(NetworkConst.REQUEST_QUERY_MULTI_KEY, NetworkPackageDecoder.getQueryTypeFromRequest(bb));
+	
+		Assert.assertEquals(queryKeyRequest.toString(), decodedPackage.toString());
+	}
+	
 	/**
 	 * Test decode bounding box query - with UDFs
 	 * @throws IOException 
@@ -531,7 +700,7 @@ public class TestNetworkClasses {
 	public void testDecodeBoundingBoxQuery1() throws IOException, PackageEncodeException {
 		final String table = "table1";
 		final Hyperrectangle boundingBox = new Hyperrectangle(10d, 20d);
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final String customFilterName = "org.bboxdb.myfilter";
 		final String customFilterValue = "myvalue1";
@@ -571,7 +740,7 @@ public class TestNetworkClasses {
 	public void testDecodeBoundingBoxQuery2() throws IOException, PackageEncodeException {
 		final String table = "table1";
 		final Hyperrectangle boundingBox = new Hyperrectangle(10d, 20d);
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 		
 		final QueryHyperrectangleRequest queryRequest = new QueryHyperrectangleRequest(
 				sequenceNumber, ROUTING_HEADER_ROUTED, table, boundingBox, 
@@ -606,7 +775,7 @@ public class TestNetworkClasses {
 		final Hyperrectangle boundingBox = new Hyperrectangle(10d, 20d);
 		final ContinuousRangeQueryPlan constQueryPlan = new ContinuousRangeQueryPlan(UUID.randomUUID().toString(),
 				table, new ArrayList<>(), boundingBox, boundingBox, true, new ArrayList<>(), false, false);
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 		
 		final QueryContinuousRequest queryRequest = new QueryContinuousRequest(sequenceNumber, ROUTING_HEADER_ROUTED, constQueryPlan);
 		byte[] encodedPackage = networkPackageToByte(queryRequest);
@@ -631,7 +800,7 @@ public class TestNetworkClasses {
 	public void testDecodeVersionTimeQuery() throws IOException, PackageEncodeException {
 		final String table = "table1";
 		final long timeStamp = 4711;
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final QueryVersionTimeRequest queryRequest = new QueryVersionTimeRequest(sequenceNumber, ROUTING_HEADER_ROUTED, table, timeStamp, true, (short) 50);
 		byte[] encodedPackage = networkPackageToByte(queryRequest);
@@ -661,7 +830,7 @@ public class TestNetworkClasses {
 	public void testDecodeInsertTimeQuery() throws IOException, PackageEncodeException {
 		final String table = "table1";
 		final long timeStamp = 4711;
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final QueryInsertTimeRequest queryRequest = new QueryInsertTimeRequest(sequenceNumber, ROUTING_HEADER_ROUTED, table, timeStamp, true, (short) 50);
 		byte[] encodedPackage = networkPackageToByte(queryRequest);
@@ -693,7 +862,7 @@ public class TestNetworkClasses {
 		final long timeStamp = 4711;
 		final Hyperrectangle boundingBox = new Hyperrectangle(10d, 20d);
 
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final QueryHyperrectangleTimeRequest queryRequest = new QueryHyperrectangleTimeRequest(sequenceNumber, ROUTING_HEADER_ROUTED, table, boundingBox, timeStamp, true, (short) 50);
 		byte[] encodedPackage = networkPackageToByte(queryRequest);
@@ -726,7 +895,7 @@ public class TestNetworkClasses {
 				new TupleStoreName("3dgroup_table2"), new TupleStoreName("3dgroup_table3"));
 		
 		final Hyperrectangle boundingBox = new Hyperrectangle(10d, 20d);
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 		
 		final String customFilterName = "org.bboxdb.myfilter";
 		final String customFilterValue = "myvalue1";
@@ -768,7 +937,7 @@ public class TestNetworkClasses {
 				new TupleStoreName("3dgroup_table2"), new TupleStoreName("3dgroup_table3"));
 		
 		final Hyperrectangle boundingBox = new Hyperrectangle(10d, 20d);
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 	
 		final QueryJoinRequest queryRequest = new QueryJoinRequest(sequenceNumber, ROUTING_HEADER_ROUTED, 
 				tables, boundingBox, new ArrayList<>(), false, (short) 10);
@@ -799,7 +968,7 @@ public class TestNetworkClasses {
 	 */
 	@Test(timeout=60000)
 	public void encodeAndDecodeDisconnect() throws IOException, PackageEncodeException {
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final DisconnectRequest listPackage = new DisconnectRequest(sequenceNumber);
 		
@@ -822,7 +991,7 @@ public class TestNetworkClasses {
 	@Test(timeout=60000)
 	public void encodeAndDecodeHeloRequest1() throws IOException, PackageEncodeException {
 		final PeerCapabilities peerCapabilities = new PeerCapabilities();
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final HelloRequest helloPackage = new HelloRequest(sequenceNumber, 2, peerCapabilities);
 		
@@ -850,7 +1019,7 @@ public class TestNetworkClasses {
 		final PeerCapabilities peerCapabilities = new PeerCapabilities();
 		peerCapabilities.setGZipCompression();
 		
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final HelloRequest helloPackage = new HelloRequest(sequenceNumber, 2, peerCapabilities);
 		
@@ -877,7 +1046,7 @@ public class TestNetworkClasses {
 	public void encodeAndDecodeHeloResponse1() throws IOException, PackageEncodeException {
 		final PeerCapabilities peerCapabilities = new PeerCapabilities();
 		
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 		final HelloResponse helloPackage = new HelloResponse(sequenceNumber, 2, peerCapabilities);
 		
 		byte[] encodedVersion = networkPackageToByte(helloPackage);
@@ -904,7 +1073,7 @@ public class TestNetworkClasses {
 		final PeerCapabilities peerCapabilities = new PeerCapabilities();
 		peerCapabilities.setGZipCompression();
 		
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 		final HelloResponse helloPackage = new HelloResponse(sequenceNumber, 2, peerCapabilities);
 		
 		byte[] encodedVersion = networkPackageToByte(helloPackage);
@@ -930,7 +1099,7 @@ public class TestNetworkClasses {
 	@Test(timeout=60000)
 	public void testDecodePackage() throws IOException, PackageEncodeException {
 		final Tuple tuple = new Tuple("key", Hyperrectangle.FULL_SPACE, "abc".getBytes(), 12);
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final InsertTupleRequest insertPackage = new InsertTupleRequest(sequenceNumber, 
 				ROUTING_HEADER_UNROUTED, new TupleStoreName("test"), tuple);
@@ -957,14 +1126,14 @@ public class TestNetworkClasses {
 		sequenceNumberGenerator.getNextSequenceNummber();
 		sequenceNumberGenerator.getNextSequenceNummber();
 		
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 		final InsertTupleRequest insertPackage = new InsertTupleRequest(sequenceNumber, 
 				ROUTING_HEADER_UNROUTED, new TupleStoreName("test"), tuple);
 
 		final byte[] encodedPackage = networkPackageToByte(insertPackage);
 		
 		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedPackage);
-		final short packageSequencenNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(bb);
+		final int packageSequencenNumber = NetworkPackageDecoder.getRequestIDFromRequestPackage(bb);
 		
 		Assert.assertEquals(sequenceNumber, packageSequencenNumber);		
 	}
@@ -977,7 +1146,7 @@ public class TestNetworkClasses {
 	@Test(timeout=60000)
 	public void testGetRequestBodyLength() throws IOException, PackageEncodeException {
 		final Tuple tuple = new Tuple("key", Hyperrectangle.FULL_SPACE, "abc".getBytes(), 12);
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final InsertTupleRequest insertPackage = new InsertTupleRequest(sequenceNumber, 
 				ROUTING_HEADER_UNROUTED, new TupleStoreName("test"), tuple);
@@ -985,8 +1154,8 @@ public class TestNetworkClasses {
 		final byte[] encodedPackage = networkPackageToByte(insertPackage);
 		Assert.assertNotNull(encodedPackage);
 		
-		// 18 Byte package header
-		final int calculatedBodyLength = encodedPackage.length - 18;
+		// 20 Byte package header
+		final int calculatedBodyLength = encodedPackage.length - 20;
 		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedPackage);
 		final long bodyLength = NetworkPackageDecoder.getBodyLengthFromRequestPackage(bb);
 		
@@ -1151,6 +1320,58 @@ public class TestNetworkClasses {
 		Assert.assertEquals(singleTupleResponse.toString(), responseDecoded.toString());
 	}
 
+	/**
+	 * Test the decoding and the encoding of a snappy compressed request package
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void testCompressionSnappyRequest() throws IOException, PackageEncodeException {
+		final Tuple tuple = new Tuple("key", Hyperrectangle.FULL_SPACE, "abc".getBytes(), 12);
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+
+		final InsertTupleRequest insertPackage = new InsertTupleRequest(sequenceNumber, 
+				ROUTING_HEADER_ROUTED, new TupleStoreName("test"), tuple);
+		
+		final CompressionEnvelopeRequest compressionPackage = new CompressionEnvelopeRequest(
+				NetworkConst.COMPRESSION_TYPE_SNAPPY, Arrays.asList(insertPackage));
+		
+		final byte[] encodedVersion = networkPackageToByte(compressionPackage);
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedVersion);
+
+		final InputStream uncompressedByteStream = CompressionEnvelopeRequest.decodePackage(bb);
+		final byte[] uncompressedBytes = ByteStreams.toByteArray(uncompressedByteStream);
+		final ByteBuffer uncompressedByteBuffer = NetworkPackageDecoder.encapsulateBytes(uncompressedBytes);
+		
+		final InsertTupleRequest decodedPackage = InsertTupleRequest.decodeTuple(uncompressedByteBuffer);
+		Assert.assertEquals(insertPackage, decodedPackage);
+	}
+	
+	/**
+	 * Small envelopes are written as uncompressed packages
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void testCompressionSkipSmallEnvelope() throws IOException, PackageEncodeException {
+		final Tuple tuple = new Tuple("key", Hyperrectangle.FULL_SPACE, "abc".getBytes(), 12);
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+
+		final InsertTupleRequest insertPackage = new InsertTupleRequest(sequenceNumber, 
+				ROUTING_HEADER_ROUTED, new TupleStoreName("test"), tuple);
+		
+		final CompressionEnvelopeRequest compressionPackage = new CompressionEnvelopeRequest(
+				NetworkConst.COMPRESSION_TYPE_SNAPPY, Arrays.asList(insertPackage), 
+				new AdaptiveCompressionPolicy());
+		
+		final byte[] encodedVersion = networkPackageToByte(compressionPackage);
+		Assert.assertArrayEquals(networkPackageToByte(insertPackage), encodedVersion);
+		
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedVersion);
+		final InsertTupleRequest decodedPackage = InsertTupleRequest.decodeTuple(bb);
+		Assert.assertEquals(insertPackage, decodedPackage);
+	}
+	
 	/**
 	 * Test the decoding and the encoding of an compressed request package
 	 * @throws IOException
@@ -1161,7 +1382,7 @@ public class TestNetworkClasses {
 		final RoutingHeader routingHeader = ROUTING_HEADER_ROUTED;
 		
 		final Tuple tuple = new Tuple("key", Hyperrectangle.FULL_SPACE, "abc".getBytes(), 12);
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final InsertTupleRequest insertPackage = new InsertTupleRequest(sequenceNumber, 
 				ROUTING_HEADER_ROUTED, new TupleStoreName("test"), tuple);
@@ -1204,7 +1425,7 @@ public class TestNetworkClasses {
 	public void testCompression2Request() throws IOException, PackageEncodeException {
 		final RoutingHeader routingHeader = ROUTING_HEADER_ROUTED;
 		final Tuple tuple = new Tuple("abcdefghijklmopqrstuvxyz", Hyperrectangle.FULL_SPACE, "abcdefghijklmopqrstuvxyzabcdefghijklmopqrstuvxyzabcdefghijklmopqrstuvxyzabcdefghijklmopqrstuvxyzabcdefghijklmopqrstuvxyzabcdefghijklmopqrstuvxyzabcdefghijklmopqrstuvxyzabcdefghijklmopqrstuvxyzabcdefghijklmopqrstuvxyzabcdefghijklmopqrstuvxyz".getBytes(), 12);
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final InsertTupleRequest insertPackage = new InsertTupleRequest(sequenceNumber, 
 				ROUTING_HEADER_ROUTED, new TupleStoreName("test"), tuple);
@@ -1276,7 +1497,7 @@ public class TestNetworkClasses {
 		final PeerCapabilities peerCapabilities = new PeerCapabilities();
 		peerCapabilities.setGZipCompression();
 		
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 		final HelloResponse helloPackage = new HelloResponse(sequenceNumber, 2, peerCapabilities);
 		
 		final CompressionEnvelopeResponse compressionEnvelopeResponse = new CompressionEnvelopeResponse(NetworkConst.COMPRESSION_TYPE_GZIP, Arrays.asList(helloPackage));
@@ -1306,7 +1527,7 @@ public class TestNetworkClasses {
 	 */
 	@Test(timeout=60000)
 	public void encodeAndDecodeKeepAlive1() throws IOException, PackageEncodeException {
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final KeepAliveRequest keepAlivePackage = new KeepAliveRequest(sequenceNumber);
 		
@@ -1329,7 +1550,7 @@ public class TestNetworkClasses {
 	 */
 	@Test(timeout=60000)
 	public void encodeAndDecodeKeepAlive2() throws IOException, PackageEncodeException {
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final String tablename = "testgroup_abc";
 		
@@ -1358,7 +1579,7 @@ public class TestNetworkClasses {
 	@Test(timeout=60000)
 	public void encodeAndDecodeContinuousQueryStateRequest() throws IOException, PackageEncodeException {
 		final TupleStoreName tupleStoreName = new TupleStoreName("dgroup_table_12");
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final ContinuousQueryStateRequest request = new ContinuousQueryStateRequest(sequenceNumber, tupleStoreName);
 		
@@ -1381,7 +1602,7 @@ public class TestNetworkClasses {
 	public void testContinuousQueryStateResponse0() throws IOException, PackageEncodeException {
 		
 		final ContinuousQueryServerState continuousQueryServerState = new ContinuousQueryServerState();
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final ContinuousQueryStateResponse continuousQueryStateResponse 
 			= new ContinuousQueryStateResponse(sequenceNumber, continuousQueryServerState);
@@ -1416,7 +1637,7 @@ public class TestNetworkClasses {
 		joinPartners.put("def", elements);
 		continuousQueryServerState.addJoinQueryState(UUID.randomUUID().toString(), joinPartners);
 		
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final ContinuousQueryStateResponse continuousQueryStateResponse 
 			= new ContinuousQueryStateResponse(sequenceNumber, continuousQueryServerState);
@@ -1448,7 +1669,7 @@ public class TestNetworkClasses {
 
 		continuousQueryServerState.addRangeQueryState(UUID.randomUUID().toString(), rangeElements);
 		
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final ContinuousQueryStateResponse continuousQueryStateResponse 
 			= new ContinuousQueryStateResponse(sequenceNumber, continuousQueryServerState);
@@ -1488,7 +1709,7 @@ public class TestNetworkClasses {
 
 		continuousQueryServerState.addRangeQueryState(UUID.randomUUID().toString(), rangeElements);
 		
-		final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 
 		final ContinuousQueryStateResponse continuousQueryStateResponse 
 			= new ContinuousQueryStateResponse(sequenceNumber, continuousQueryServerState);
@@ -1503,5 +1724,93 @@ public class TestNetworkClasses {
 
 		Assert.assertEquals(continuousQueryServerState, continuousQueryServerState2);
 	}
-}
 	
+	/**
+	 * Test the profiling flag of the bounding box query
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void testDecodeBoundingBoxQueryProfiling() throws IOException, PackageEncodeException {
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		
+		final QueryHyperrectangleRequest queryRequest = new QueryHyperrectangleRequest(
+				sequenceNumber, ROUTING_HEADER_ROUTED, "table1", new Hyperrectangle(10d, 20d), 
+				new ArrayList<>(), true, (short) 10, true);
+		
+		byte[] encodedPackage = networkPackageToByte(queryRequest);
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedPackage);
+		final QueryHyperrectangleRequest decodedPackage = QueryHyperrectangleRequest.decodeTuple(bb);
+		
+		Assert.assertTrue(decodedPackage.isProfilingEnabled());
+		Assert.assertTrue(decodedPackage.isPagingEnabled());
+		Assert.assertEquals(queryRequest.getBoundingBox(), decodedPackage.getBoundingBox());
+	}
+	
+	/**
+	 * Test the profiling flag of the join query
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void testDecodeJoinQueryProfiling() throws IOException, PackageEncodeException {
+		final List<TupleStoreName> tables = Arrays.asList(new TupleStoreName("3dgroup_table1"),
+				new TupleStoreName("3dgroup_table2"));
+		
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		
+		final QueryJoinRequest queryRequest = new QueryJoinRequest(sequenceNumber, ROUTING_HEADER_ROUTED, 
+				tables, new Hyperrectangle(10d, 20d), new ArrayList<>(), false, (short) 10, true);
+		
+		byte[] encodedPackage = networkPackageToByte(queryRequest);
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedPackage);
+		final QueryJoinRequest decodedPackage = QueryJoinRequest.decodeTuple(bb);
+		
+		Assert.assertTrue(decodedPackage.isProfilingEnabled());
+		Assert.assertEquals(tables, decodedPackage.getTables());
+		
+		final QueryJoinRequest queryRequest2 = new QueryJoinRequest(sequenceNumber, ROUTING_HEADER_ROUTED, 
+				tables, new Hyperrectangle(10d, 20d), new ArrayList<>(), false, (short) 10);
+		
+		final byte[] encodedPackage2 = networkPackageToByte(queryRequest2);
+		final ByteBuffer bb2 = NetworkPackageDecoder.encapsulateBytes(encodedPackage2);
+		Assert.assertFalse(QueryJoinRequest.decodeTuple(bb2).isProfilingEnabled());
+		
+		// The flag is only appended when profiling is enabled
+		Assert.assertEquals(encodedPackage.length - 1, encodedPackage2.length);
+	}
+	
+	/**
+	 * The the encoding and decoding of the query profile response
+	 * @throws IOException 
+	 * @throws PackageEncodeException 
+	 */
+	@Test(timeout=60000)
+	public void testQueryProfileResponse() throws IOException, PackageEncodeException {
+		final OperatorProfile scanProfile = new OperatorProfile("SpatialIndexReadOperator", 
+				100, 50, 1000, 4096, new ArrayList<>());
+		final OperatorProfile indexProfile = new OperatorProfile("SpatialIndexReadOperator", 
+				10, 5, OperatorProfile.WALL_TIME_NOT_MEASURED, 512, new ArrayList<>());
+		final OperatorProfile joinProfile = new OperatorProfile("IndexedSpatialJoinOperator", 
+				55, 20, 5000, 0, Arrays.asList(scanProfile, indexProfile));
+		
+		final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+		final QueryProfileResponse response = new QueryProfileResponse(sequenceNumber, joinProfile);
+		
+		byte[] encodedVersion = networkPackageToByte(response);
+		Assert.assertNotNull(encodedVersion);
+
+		final ByteBuffer bb = NetworkPackageDecoder.encapsulateBytes(encodedVersion);
+		final QueryProfileResponse decodedPackage = QueryProfileResponse.decodePackage(bb);
+		
+		Assert.assertEquals(sequenceNumber, decodedPackage.getSequenceNumber());
+		Assert.assertEquals(joinProfile, decodedPackage.getOperatorProfile());
+		Assert.assertTrue(joinProfile.toFormattedString().contains("IndexedSpatialJoinOperator"));
+		
+		final OperatorProfile mergedProfile = joinProfile.merge(joinProfile);
+		Assert.assertEquals(40, mergedProfile.getTuplesOut());
+		Assert.assertEquals(200, mergedProfile.getInputs().get(0).getTuplesIn());
+		Assert.assertEquals(OperatorProfile.WALL_TIME_NOT_MEASURED, 
+				mergedProfile.getInputs().get(1).getWallTimeNanos());
+	}
+}
@@ -22,7 +22,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.bboxdb.BBoxDBMain;
 import org.bboxdb.commons.math.Hyperrectangle;
@@ -32,6 +36,8 @@ import org.bboxdb.distribution.zookeeper.ZookeeperClientFactory;
 import org.bboxdb.distribution.zookeeper.ZookeeperException;
 import org.bboxdb.misc.BBoxDBConfigurationManager;
 import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.network.NetworkConst;
+import org.bboxdb.network.ProtocolVersionHelper;
 import org.bboxdb.network.client.BBoxDB;
 import org.bboxdb.network.client.BBoxDBClient;
 import org.bboxdb.network.client.connection.BBoxDBConnection;
@@ -40,6 +46,9 @@ import org.bboxdb.network.client.future.client.ContinuousQueryServerStateFuture;
 import org.bboxdb.network.client.future.client.EmptyResultFuture;
 import org.bboxdb.network.client.future.client.FutureRetryPolicy;
 import org.bboxdb.network.client.future.client.TupleListFuture;
+import org.bboxdb.network.client.future.publisher.Flow.Publisher;
+import org.bboxdb.network.client.future.publisher.Flow.Subscriber;
+import org.bboxdb.network.client.future.publisher.Flow.Subscription;
 import org.bboxdb.network.entity.ContinuousQueryServerState;
 import org.bboxdb.network.routing.DistributionRegionHandlingFlag;
 import org.bboxdb.network.routing.RoutingHeader;
@@ -445,6 +454,42 @@ public class TestNetworkCommunication {
 		Assert.assertEquals(tuple2, resultList.get(0));
 	}
 
+	/**
+	 * Test the multi key query
+	 * @throws Exception
+	 */
+	@Test(timeout=60000)
+	public void testMultiKeyQuery() throws Exception {
+		final BBoxDBConnection bboxdbConnection = connectToServer();
+		final BBoxDB bboxdbClient = bboxdbConnection.getBboxDBClient();
+
+		final String table = DISTRIBUTION_GROUP + "_relationmultikey";
+
+		// Create table
+		final EmptyResultFuture resultCreateTable = bboxdbClient.createTable(table, new TupleStoreConfiguration());
+		resultCreateTable.waitForCompletion();
+		Assert.assertFalse(resultCreateTable.isFailed());
+
+		final Tuple tuple1 = new Tuple("abc", Hyperrectangle.FULL_SPACE, "abc".getBytes());
+		final Tuple tuple2 = new Tuple("def", Hyperrectangle.FULL_SPACE, "def".getBytes());
+		final Tuple tuple3 = new Tuple("abc", Hyperrectangle.FULL_SPACE, "efg".getBytes());
+
+		for(final Tuple tuple : Arrays.asList(tuple1, tuple2, tuple3)) {
+			final EmptyResultFuture insertResult = bboxdbClient.insertTuple(table, tuple);
+			insertResult.waitForCompletion();
+			Assert.assertFalse(insertResult.isFailed());
+		}
+
+		final TupleListFuture getResult = bboxdbClient.queryKeys(table, Arrays.asList("def", "abc", "xyz"));
+		getResult.waitForCompletion();
+		Assert.assertFalse(getResult.isFailed());
+		
+		final List<Tuple> resultList = Lists.newArrayList(getResult.iterator());
+		Assert.assertEquals(2, resultList.size());
+		Assert.assertTrue(resultList.contains(tuple2));
+		Assert.assertTrue(resultList.contains(tuple3));
+	}
+
 	/**
 	 * Test the double insert and check for newest version
 	 * @throws Exception
@@ -669,6 +714,88 @@ public class TestNetworkCommunication {
 		System.out.println("=== End testInsertWithWrongDimension");
 	}
 
+	/**
+	 * Test the batch insert
+	 * @throws Exception
+	 */
+	@Test(timeout=60000)
+	public void testInsertTuples() throws Exception {
+		final BBoxDBConnection bboxdbConnection = connectToServer();
+		final BBoxDB bboxdbClient = bboxdbConnection.getBboxDBClient();
+
+		final String table = DISTRIBUTION_GROUP + "_relationbatchinsert";
+
+		// Create table
+		final EmptyResultFuture resultCreateTable = bboxdbClient.createTable(table, new TupleStoreConfiguration());
+		resultCreateTable.waitForCompletion();
+		Assert.assertFalse(resultCreateTable.isFailed());
+
+		final Tuple tuple1 = new Tuple("abc", Hyperrectangle.FULL_SPACE, "abc".getBytes());
+		final Tuple tuple2 = new Tuple("def", new Hyperrectangle(1.0, 2.0, 1.0, 2.0), "def".getBytes());
+		final Tuple tuple3 = new Tuple("ghi", new Hyperrectangle(5.0, 6.0, 5.0, 6.0), "ghi".getBytes());
+
+		final EmptyResultFuture insertResult = bboxdbClient.insertTuples(table, 
+				Arrays.asList(tuple1, tuple2, tuple3));
+		insertResult.waitForCompletion();
+		Assert.assertFalse(insertResult.isFailed());
+		Assert.assertTrue(insertResult.isDone());
+
+		final TupleListFuture getResult = bboxdbClient.queryKeys(table, Arrays.asList("abc", "def", "ghi"));
+		getResult.waitForCompletion();
+		Assert.assertFalse(getResult.isFailed());
+		
+		final List<Tuple> resultList = Lists.newArrayList(getResult.iterator());
+		Assert.assertEquals(3, resultList.size());
+		Assert.assertTrue(resultList.contains(tuple1));
+		Assert.assertTrue(resultList.contains(tuple2));
+		Assert.assertTrue(resultList.contains(tuple3));
+	}
+
+	/**
+	 * Test the batch insert with a tuple of the wrong dimension
+	 * @throws Exception
+	 */
+	@Test(timeout=60000)
+	public void testInsertTuplesWithWrongDimension() throws Exception {
+		final BBoxDBConnection bboxdbConnection = connectToServer();
+		final BBoxDBClient bboxDBClient = bboxdbConnection.getBboxDBClient();
+
+		final String table = DISTRIBUTION_GROUP + "_relationbatchinsertdim";
+
+		final EmptyResultFuture resultCreateTable = bboxDBClient.createTable(table, new TupleStoreConfiguration());
+		resultCreateTable.waitForCompletion();
+		Assert.assertFalse(resultCreateTable.isFailed());
+
+		final RoutingHeader routingHeader = RoutingHeaderHelper.getRoutingHeaderForLocalSystemWriteNE(
+				table, Hyperrectangle.FULL_SPACE, false, bboxdbConnection.getServerAddress(), INSERT_OPTIONS_NONE);
+
+		final Tuple tuple1 = new Tuple("abc", Hyperrectangle.FULL_SPACE, "abc".getBytes());
+		final Tuple tuple2 = new Tuple("def", new Hyperrectangle(1.2, 5.0), "def".getBytes());
+
+		final EmptyResultFuture insertResult = bboxDBClient.insertTuples(table, 
+				Arrays.asList(tuple1, tuple2), routingHeader);
+
+		// Prevent retries
+		insertResult.setRetryPolicy(FutureRetryPolicy.RETRY_POLICY_NONE);
+
+		insertResult.waitForCompletion();
+		final String message = insertResult.getMessage(0);
+
+		Assert.assertTrue(insertResult.isFailed());
+		Assert.assertTrue(message.contains(ErrorMessages.ERROR_BATCH_INSERT_FAILED));
+		Assert.assertTrue(message.contains(ErrorMessages.ERROR_TUPLE_HAS_WRONG_DIMENSION));
+		Assert.assertTrue(message.contains("key=def"));
+		Assert.assertFalse(message.contains("key=abc"));
+
+		// The valid tuple of the batch is stored
+		final TupleListFuture getResult = bboxDBClient.queryKey(table, "abc");
+		getResult.waitForCompletion();
+		final List<Tuple> resultList = Lists.newArrayList(getResult.iterator());
+		Assert.assertEquals(Arrays.asList(tuple1), resultList);
+
+		bboxDBClient.close();
+	}
+
 	/**
 	 * Insert some tuples and start a bounding box query afterwards
 	 * @throws ExecutionException
@@ -949,6 +1076,109 @@ public class TestNetworkCommunication {
 		disconnect(bboxDBClient);
 	}
 
+	/**
+	 * Insert some tuples asynchronously and consume them via a publisher
+	 * @throws ExecutionException
+	 * @throws InterruptedException
+	 * @throws BBoxDBException
+	 */
+	@Test(timeout=60000)
+	public void testPublisherPaging() throws InterruptedException, ExecutionException, BBoxDBException {
+		System.out.println("=== Running testPublisherPaging");
+		final String table = DISTRIBUTION_GROUP + "_relation9998";
+
+		final BBoxDBConnection bboxdbConnection = connectToServer();
+		final BBoxDBClient bboxDBClient = bboxdbConnection.getBboxDBClient();
+
+		// Create table
+		final EmptyResultFuture resultCreateTable = bboxDBClient.createTable(table, new TupleStoreConfiguration());
+		resultCreateTable.waitForCompletion();
+		Assert.assertFalse(resultCreateTable.isFailed());
+
+		final List<CompletableFuture<Void>> insertFutures = new ArrayList<>();
+		
+		for(int i = 0; i < 5; i++) {
+			final Tuple tuple = new Tuple("key" + i, new Hyperrectangle(0d, 1d, 0d, 1d), "abc".getBytes());
+			insertFutures.add(bboxDBClient.insertTupleAsync(table, tuple));
+		}
+		
+		CompletableFuture.allOf(insertFutures.toArray(new CompletableFuture[0])).get();
+		
+		// Request one tuple per call with two tuples per page
+		bboxDBClient.setPagingEnabled(true);
+		bboxDBClient.setTuplesPerPage((short) 2);
+		
+		final Publisher<Tuple> publisher = bboxDBClient.queryRectanglePublisher(table,
+				new Hyperrectangle(-10d, 10d, -10d, 10d), new ArrayList<>());
+		
+		final List<Tuple> resultList = new CopyOnWriteArrayList<>();
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		final CountDownLatch completeLatch = new CountDownLatch(1);
+		
+		publisher.subscribe(new Subscriber<Tuple>() {
+			
+			private Subscription subscription;
+
+			@Override
+			public void onSubscribe(final Subscription subscription) {
+				this.subscription = subscription;
+				subscription.request(1);
+			}
+
+			@Override
+			public void onNext(final Tuple item) {
+				resultList.add(item);
+				subscription.request(1);
+			}
+
+			@Override
+			public void onError(final Throwable throwable) {
+				error.set(throwable);
+				completeLatch.countDown();
+			}
+
+			@Override
+			public void onComplete() {
+				completeLatch.countDown();
+			}
+		});
+		
+		completeLatch.await();
+		Assert.assertNull(error.get());
+		Assert.assertEquals(5, resultList.size());
+		
+		// The publisher can only be subscribed once
+		final CountDownLatch errorLatch = new CountDownLatch(1);
+		
+		publisher.subscribe(new Subscriber<Tuple>() {
+
+			@Override
+			public void onSubscribe(final Subscription subscription) {
+				subscription.request(1);
+			}
+
+			@Override
+			public void onNext(final Tuple item) {
+				Assert.fail("Got tuple from second subscription");
+			}
+
+			@Override
+			public void onError(final Throwable throwable) {
+				errorLatch.countDown();
+			}
+
+			@Override
+			public void onComplete() {
+				Assert.fail("Second subscription is complete");
+			}
+		});
+		
+		errorLatch.await();
+		
+		System.out.println("=== End testPublisherPaging");
+		disconnect(bboxDBClient);
+	}
+
 	/**
 	 * Insert a tuple and request it via key
 	 * @throws ExecutionException
@@ -1077,10 +1307,21 @@ public class TestNetworkCommunication {
 			Assert.assertFalse(bboxDBClient.getClientCapabilities().hasGZipCompression());
 		}
 
+		if(compressPackagesWithSnappy()) {
+			bboxDBClient.getClientCapabilities().setSnappyCompression();
+			Assert.assertTrue(bboxDBClient.getClientCapabilities().hasSnappyCompression());
+		} else {
+			bboxDBClient.getClientCapabilities().clearSnappyCompression();
+			Assert.assertFalse(bboxDBClient.getClientCapabilities().hasSnappyCompression());
+		}
+
+		bboxDBClient.setClientProtocolVersion(getProtocolVersion());
+
 		Assert.assertFalse(bboxDBClient.isConnected());
 		boolean result = bboxDBClient.openNetworkConnection();
 		Assert.assertTrue(result);
 		Assert.assertTrue(bboxDBClient.isConnected());
+		Assert.assertEquals(getProtocolVersion(), bboxDBClient.getProtocolVersion());
 
 		if(compressPackages()) {
 			Assert.assertTrue(bboxDBClient.getConnectionCapabilities().hasGZipCompression());
@@ -1088,6 +1329,12 @@ public class TestNetworkCommunication {
 			Assert.assertFalse(bboxDBClient.getConnectionCapabilities().hasGZipCompression());
 		}
 
+		final boolean snappyNegotiated = compressPackagesWithSnappy() 
+				&& ProtocolVersionHelper.supportsSnappyCompression(getProtocolVersion());
+		
+		Assert.assertEquals(snappyNegotiated,
+				bboxDBClient.getConnectionCapabilities().hasSnappyCompression());
+
 		return bboxDBClient;
 	}
 
@@ -1335,6 +1582,22 @@ public class TestNetworkCommunication {
 		return false;
 	}
 
+	/**
+	 * The protocol version of the connection
+	 * @return
+	 */
+	protected int getProtocolVersion() {
+		return NetworkConst.PROTOCOL_VERSION;
+	}
+
+	/**
+	 * Should the packages be compressed with snappy or not
+	 * @return
+	 */
+	protected boolean compressPackagesWithSnappy() {
+		return false;
+	}
+
 	/**
 	 * Disconnect from server
 	 * @param bboxDBConnection
@@ -0,0 +1,34 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.test.network;
+
+import org.bboxdb.network.NetworkConst;
+
+public class TestNetworkCommunicationProtocolVersion1 extends TestNetworkCommunication {
+
+	@Override
+	protected boolean compressPackages() {
+		return true;
+	}
+	
+	@Override
+	protected int getProtocolVersion() {
+		return NetworkConst.PROTOCOL_VERSION_1;
+	}
+	
+}
@@ -17,10 +17,12 @@
  *******************************************************************************/
 package org.bboxdb.test.network;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 
 import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.network.NetworkBufferPool;
 import org.bboxdb.network.packages.NetworkTupleEncoderDecoder;
 import org.bboxdb.storage.entity.DeletedTuple;
 import org.bboxdb.storage.entity.InvalidationTuple;
@@ -68,6 +70,40 @@ public class TestNetworkTupleEncoderDecoder {
 		testEncoding(tuple2);
 	}
 	
+	@Test(timeout = 60_000)
+	public void testStreamEncoding() throws IOException {
+		final Tuple tuple1 = new Tuple("abc", new Hyperrectangle(1d, 2d), "def".getBytes());
+		testStreamEncoding(tuple1);
+		
+		final Tuple tuple2 = new Tuple("abc", Hyperrectangle.FULL_SPACE, "".getBytes());
+		testStreamEncoding(tuple2);
+		
+		final Tuple tuple3 = new DeletedTuple("abc");
+		testStreamEncoding(tuple3);
+	}
+	
+	/**
+	 * Test the encoding of the header and the data bytes
+	 * @param tuple
+	 * @throws IOException
+	 */
+	private void testStreamEncoding(final Tuple tuple) throws IOException {
+		final String tableName = "mygroup_abc";
+		final ByteBuffer header = NetworkTupleEncoderDecoder.encodeHeader(tuple, tableName);
+		
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		final long writtenBytes = NetworkTupleEncoderDecoder.writeToStream(header, tuple, bos);
+		NetworkBufferPool.getInstance().release(header);
+		
+		final byte[] bytes = bos.toByteArray();
+		Assert.assertEquals(bytes.length, writtenBytes);
+		Assert.assertArrayEquals(NetworkTupleEncoderDecoder.encode(tuple, tableName), bytes);
+		
+		final TupleAndTable decodedData = NetworkTupleEncoderDecoder.decode(ByteBuffer.wrap(bytes));
+		Assert.assertEquals(tuple, decodedData.getTuple());
+		Assert.assertEquals(tableName, decodedData.getTable());
+	}
+	
 	/**
 	 * Test the tuple encoding
 	 * @param tuple
@@ -17,6 +17,7 @@
  *******************************************************************************/
 package org.bboxdb.test.network;
 
+import org.bboxdb.network.NetworkConst;
 import org.bboxdb.network.capabilities.PeerCapabilities;
 import org.junit.Assert;
 import org.junit.Test;
@@ -70,4 +71,41 @@ public class TestPeerCapabilities {
 	public void testPeerCapabilitiesConstruct() {
 		new PeerCapabilities(new byte[20]);
 	}
+	
+	/**
+	 * Test the selection of the compression
+	 */
+	@Test(timeout=60000)
+	public void testCompressionType() {
+		final PeerCapabilities peerCapabilities = new PeerCapabilities();
+		Assert.assertFalse(peerCapabilities.hasCompression());
+		
+		peerCapabilities.setGZipCompression();
+		Assert.assertTrue(peerCapabilities.hasCompression());
+		Assert.assertEquals(NetworkConst.COMPRESSION_TYPE_GZIP, peerCapabilities.getCompressionType());
+		
+		peerCapabilities.setSnappyCompression();
+		Assert.assertTrue(peerCapabilities.hasSnappyCompression());
+		Assert.assertTrue(peerCapabilities.hasGZipCompression());
+		Assert.assertEquals(NetworkConst.COMPRESSION_TYPE_SNAPPY, peerCapabilities.getCompressionType());
+		
+		final PeerCapabilities peerCapabilities2 = new PeerCapabilities(peerCapabilities.toByteArray());
+		Assert.assertEquals(peerCapabilities, peerCapabilities2);
+		
+		peerCapabilities.clearGZipCompression();
+		Assert.assertEquals(NetworkConst.COMPRESSION_TYPE_SNAPPY, peerCapabilities.getCompressionType());
+		
+		peerCapabilities.clearSnappyCompression();
+		Assert.assertFalse(peerCapabilities.hasSnappyCompression());
+		Assert.assertFalse(peerCapabilities.hasCompression());
+	}
+	
+	/**
+	 * Test the compression type without compression
+	 */
+	@Test(expected=IllegalStateException.class)
+	public void testCompressionTypeWithoutCompression() {
+		final PeerCapabilities peerCapabilities = new PeerCapabilities();
+		peerCapabilities.getCompressionType();
+	}
 }
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.test.network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.network.client.BBoxDBClient;
+import org.bboxdb.network.client.connection.BBoxDBConnection;
+import org.bboxdb.network.client.future.client.EmptyResultFuture;
+import org.bboxdb.network.client.future.network.NetworkOperationFuture;
+import org.bboxdb.network.routing.RoutedInsertForwarder;
+import org.bboxdb.network.routing.RoutingHeader;
+import org.bboxdb.storage.entity.Tuple;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+public class TestRoutedInsertForwarder {
+
+	/**
+	 * The table
+	 */
+	private final static String TABLE = "testgroup_table";
+
+	/**
+	 * Test the forwarding of single inserts and the batching of the queued inserts
+	 */
+	@SuppressWarnings("unchecked")
+	@Test(timeout=60000)
+	public void testForwardAndBatch() {
+		final List<Consumer<NetworkOperationFuture>> doneCallbacks = new ArrayList<>();
+		final List<NetworkOperationFuture> networkFutures = new ArrayList<>();
+
+		final BBoxDBConnection connection = Mockito.mock(BBoxDBConnection.class);
+		final BBoxDBClient client = Mockito.mock(BBoxDBClient.class);
+		Mockito.when(connection.getBboxDBClient()).thenReturn(client);
+
+		Mockito.when(client.insertTuple(ArgumentMatchers.anyString(), ArgumentMatchers.any(Tuple.class),
+				ArgumentMatchers.any(RoutingHeader.class)))
+			.thenAnswer(i -> createPendingFuture(networkFutures, doneCallbacks));
+
+		Mockito.when(client.insertTuples(ArgumentMatchers.anyString(), ArgumentMatchers.anyList(),
+				ArgumentMatchers.any(RoutingHeader.class)))
+			.thenAnswer(i -> createPendingFuture(networkFutures, doneCallbacks));
+
+		final RoutedInsertForwarder forwarder = RoutedInsertForwarder.getInstance();
+		final List<Boolean> results = new CopyOnWriteArrayList<>();
+
+		for(int i = 0; i < 7; i++) {
+			final Tuple tuple = new Tuple(Integer.toString(i), Hyperrectangle.FULL_SPACE, "abc".getBytes());
+			forwarder.forwardInsert(connection, TABLE, new RoutingHeader(true), Arrays.asList(tuple),
+					60000, (s) -> results.add(s));
+		}
+
+		// The window is full, 3 tuples are waiting
+		Mockito.verify(client, Mockito.times(4)).insertTuple(ArgumentMatchers.anyString(),
+				ArgumentMatchers.any(Tuple.class), ArgumentMatchers.any(RoutingHeader.class));
+		Mockito.verify(client, Mockito.never()).insertTuples(ArgumentMatchers.anyString(),
+				ArgumentMatchers.anyList(), ArgumentMatchers.any(RoutingHeader.class));
+		Assert.assertEquals(3, forwarder.getPendingTuples());
+		Assert.assertTrue(results.isEmpty());
+
+		// The ack of the first insert sends the waiting tuples in one batch
+		completeFuture(networkFutures.get(0), doneCallbacks.get(0));
+		Assert.assertEquals(Arrays.asList(true), results);
+
+		final ArgumentCaptor<List<Tuple>> batchCaptor = ArgumentCaptor.forClass(List.class);
+		Mockito.verify(client, Mockito.times(1)).insertTuples(ArgumentMatchers.anyString(),
+				batchCaptor.capture(), ArgumentMatchers.any(RoutingHeader.class));
+		Assert.assertEquals(3, batchCaptor.getValue().size());
+		Assert.assertEquals(0, forwarder.getPendingTuples());
+
+		// Complete the batch
+		completeFuture(networkFutures.get(4), doneCallbacks.get(4));
+		Assert.assertEquals(4, results.size());
+
+		for(int i = 1; i < 4; i++) {
+			completeFuture(networkFutures.get(i), doneCallbacks.get(i));
+		}
+
+		Assert.assertEquals(7, results.size());
+		Assert.assertTrue(results.stream().allMatch(r -> r));
+	}
+
+	/**
+	 * Test the routing timeout
+	 * @throws InterruptedException
+	 */
+	@Test(timeout=60000)
+	public void testForwardTimeout() throws InterruptedException {
+		final List<Consumer<NetworkOperationFuture>> doneCallbacks = new ArrayList<>();
+		final List<NetworkOperationFuture> networkFutures = new ArrayList<>();
+
+		final BBoxDBConnection connection = Mockito.mock(BBoxDBConnection.class);
+		final BBoxDBClient client = Mockito.mock(BBoxDBClient.class);
+		Mockito.when(connection.getBboxDBClient()).thenReturn(client);
+
+		Mockito.when(client.insertTuple(ArgumentMatchers.anyString(), ArgumentMatchers.any(Tuple.class),
+				ArgumentMatchers.any(RoutingHeader.class)))
+			.thenAnswer(i -> createPendingFuture(networkFutures, doneCallbacks));
+
+		final List<Boolean> results = new CopyOnWriteArrayList<>();
+		final Tuple tuple = new Tuple("abc", Hyperrectangle.FULL_SPACE, "abc".getBytes());
+
+		RoutedInsertForwarder.getInstance().forwardInsert(connection, TABLE, new RoutingHeader(true),
+				Arrays.asList(tuple), 100, (s) -> results.add(s));
+
+		while(results.isEmpty()) {
+			Thread.sleep(10);
+		}
+
+		Assert.assertEquals(Arrays.asList(false), results);
+
+		// A late ack is ignored
+		completeFuture(networkFutures.get(0), doneCallbacks.get(0));
+		Assert.assertEquals(Arrays.asList(false), results);
+		Assert.assertEquals(0, RoutedInsertForwarder.getInstance().getPendingTuples());
+	}
+	
+	/**
+	 * Test that timed out packages stay in flight until the next hop answers
+	 * @throws InterruptedException
+	 */
+	@Test(timeout=60000)
+	public void testTimeoutKeepsInFlightSlot() throws InterruptedException {
+		final List<Consumer<NetworkOperationFuture>> doneCallbacks = new ArrayList<>();
+		final List<NetworkOperationFuture> networkFutures = new ArrayList<>();
+
+		final BBoxDBConnection connection = Mockito.mock(BBoxDBConnection.class);
+		final BBoxDBClient client = Mockito.mock(BBoxDBClient.class);
+		Mockito.when(connection.getBboxDBClient()).thenReturn(client);
+
+		Mockito.when(client.insertTuple(ArgumentMatchers.anyString(), ArgumentMatchers.any(Tuple.class),
+				ArgumentMatchers.any(RoutingHeader.class)))
+			.thenAnswer(i -> createPendingFuture(networkFutures, doneCallbacks));
+
+		final RoutedInsertForwarder forwarder = RoutedInsertForwarder.getInstance();
+		final List<Boolean> results = new CopyOnWriteArrayList<>();
+
+		for(int i = 0; i < 4; i++) {
+			final Tuple tuple = new Tuple(Integer.toString(i), Hyperrectangle.FULL_SPACE, "abc".getBytes());
+			forwarder.forwardInsert(connection, TABLE, new RoutingHeader(true), Arrays.asList(tuple),
+					100, (s) -> results.add(s));
+		}
+
+		while(results.size() < 4) {
+			Thread.sleep(10);
+		}
+
+		Assert.assertTrue(results.stream().noneMatch(r -> r));
+
+		// The window is still full, the insert is not send
+		final Tuple tuple = new Tuple("4", Hyperrectangle.FULL_SPACE, "abc".getBytes());
+		forwarder.forwardInsert(connection, TABLE, new RoutingHeader(true), Arrays.asList(tuple),
+				60000, (s) -> results.add(s));
+
+		Mockito.verify(client, Mockito.times(4)).insertTuple(ArgumentMatchers.anyString(),
+				ArgumentMatchers.any(Tuple.class), ArgumentMatchers.any(RoutingHeader.class));
+		Assert.assertEquals(1, forwarder.getPendingTuples());
+
+		// The late ack frees the slot
+		completeFuture(networkFutures.get(0), doneCallbacks.get(0));
+		Mockito.verify(client, Mockito.times(5)).insertTuple(ArgumentMatchers.anyString(),
+				ArgumentMatchers.any(Tuple.class), ArgumentMatchers.any(RoutingHeader.class));
+		Assert.assertEquals(0, forwarder.getPendingTuples());
+		Assert.assertEquals(4, results.size());
+
+		for(int i = 1; i < 5; i++) {
+			completeFuture(networkFutures.get(i), doneCallbacks.get(i));
+		}
+
+		Assert.assertEquals(5, results.size());
+		Assert.assertEquals(0, forwarder.getPendingTuples());
+	}
+
+	/**
+	 * Create a future that is completed by the test
+	 * @param networkFutures
+	 * @param doneCallbacks
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	private EmptyResultFuture createPendingFuture(final List<NetworkOperationFuture> networkFutures,
+			final List<Consumer<NetworkOperationFuture>> doneCallbacks) {
+
+		final NetworkOperationFuture networkFuture = Mockito.mock(NetworkOperationFuture.class);
+		final EmptyResultFuture future = new EmptyResultFuture(() -> Arrays.asList(networkFuture));
+
+		final ArgumentCaptor<Consumer<NetworkOperationFuture>> callbackCaptor
+			= ArgumentCaptor.forClass(Consumer.class);
+		Mockito.verify(networkFuture).setDoneCallback(callbackCaptor.capture());
+
+		networkFutures.add(networkFuture);
+		doneCallbacks.add(callbackCaptor.getValue());
+
+		return future;
+	}
+
+	/**
+	 * Complete the network future
+	 * @param networkFuture
+	 * @param doneCallback
+	 */
+	private void completeFuture(final NetworkOperationFuture networkFuture,
+			final Consumer<NetworkOperationFuture> doneCallback) {
+
+		Mockito.when(networkFuture.isDone()).thenReturn(true);
+		doneCallback.accept(networkFuture);
+	}
+}
@@ -24,8 +24,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.function.Predicate;
 
 import org.bboxdb.commons.math.Hyperrectangle;
@@ -40,6 +42,7 @@ import org.bboxdb.network.routing.RoutingHeader;
 import org.bboxdb.network.routing.RoutingHeaderParser;
 import org.bboxdb.network.routing.RoutingHop;
 import org.bboxdb.network.routing.RoutingHopHelper;
+import org.bboxdb.network.routing.RoutingTable;
 import org.bboxdb.network.routing.DistributionRegionHandlingFlag;
 import org.junit.Assert;
 import org.junit.Test;
@@ -206,6 +209,30 @@ public class TestRoutingHeader {
 		Assert.assertEquals(routingHeader, resultRoutingHeader);
 	}
 
+	/**
+	 * Test the encoding of the routing header into an existing buffer
+	 * @throws IOException
+	 * @throws PackageEncodeException
+	 */
+	@Test(timeout=60000)
+	public void testRoutedPackageHeaderIntoBuffer() throws IOException, PackageEncodeException {
+		final RoutingHeader routingHeader = new RoutingHeader((short) 1, "node1:12,1:0;node2:23,2:0");
+		final byte[] routingList = RoutingHeaderParser.getRoutingListBytes(routingHeader);
+		final int encodedLength = RoutingHeaderParser.getEncodedLength(routingList);
+		
+		final ByteBuffer bb = ByteBuffer.allocate(encodedLength + 2);
+		bb.order(Const.APPLICATION_BYTE_ORDER);
+		bb.putShort((short) 4711);
+		RoutingHeaderParser.encodeHeader(routingHeader, routingList, bb);
+		Assert.assertFalse(bb.hasRemaining());
+		
+		final byte[] encodedBytes = RoutingHeaderParser.encodeHeader(routingHeader);
+		Assert.assertArrayEquals(encodedBytes, Arrays.copyOfRange(bb.array(), 2, bb.capacity()));
+		
+		final ByteArrayInputStream bis = new ByteArrayInputStream(bb.array(), 2, encodedLength);
+		Assert.assertEquals(routingHeader, RoutingHeaderParser.decodeRoutingHeader(bis));
+	}
+
 	/**
 	 * Test the encoding and the decoding of an routed package
 	 * @throws IOException
@@ -362,4 +389,99 @@ public class TestRoutingHeader {
 				readOptions);
 		Assert.assertEquals(2, read5.size());
 	}
+
+	/**
+	 * Test the compiled routing table
+	 */
+	@Test(timeout=60000)
+	public void testCompiledRoutingTable() {
+		final BBoxDBInstance system1 = new BBoxDBInstance("192.168.1.10:5050", BBoxDBInstanceState.READY);
+		final BBoxDBInstance system2 = new BBoxDBInstance("192.168.1.11:5050", BBoxDBInstanceState.READY);
+		final BBoxDBInstance system3 = new BBoxDBInstance("192.168.1.12:5050", BBoxDBInstanceState.READY);
+		final List<List<BBoxDBInstance>> systems = Arrays.asList(Arrays.asList(system1, system2), 
+				Arrays.asList(system2, system3), Arrays.asList(system3));
+
+		final DistributionRegion region = new DistributionRegion("0", Hyperrectangle.FULL_SPACE);
+		region.setState(DistributionRegionState.SPLITTING);
+		region.setSystems(Arrays.asList(system1));
+
+		final List<DistributionRegion> children = new ArrayList<>();
+		
+		for(int x = 0; x < 10; x++) {
+			for(int y = 0; y < 10; y++) {
+				final int childNumber = x * 10 + y;
+				final DistributionRegion child = new DistributionRegion("0", region, 
+						new Hyperrectangle(x * 10d, x * 10d + 10, y * 10d, y * 10d + 10), childNumber + 1);
+				child.setState(DistributionRegionState.ACTIVE);
+				child.setSystems(systems.get(childNumber % systems.size()));
+				region.addChildren(childNumber, child);
+				children.add(child);
+			}
+		}
+		
+		final RoutingTable routingTable = RoutingHopHelper.getRoutingTable(region);
+		Assert.assertEquals(101, routingTable.getNumberOfRegions());
+		Assert.assertSame(routingTable, RoutingHopHelper.getRoutingTable(region));
+		
+		assertCompiledRoutingIsEqual(region);
+		
+		// Change the tree
+		children.get(5).setState(DistributionRegionState.SPLITTING);
+		children.get(6).setState(DistributionRegionState.SPLIT);
+		children.get(7).setSystems(Arrays.asList(system1, system2, system3));
+		
+		Assert.assertFalse(routingTable.isUpToDate(region));
+		Assert.assertNotSame(routingTable, RoutingHopHelper.getRoutingTable(region));
+		Assert.assertEquals(100, RoutingHopHelper.getRoutingTable(region).getNumberOfRegions());
+		
+		assertCompiledRoutingIsEqual(region);
+	}
+
+	/**
+	 * Compare the compiled routing with the routing of the region tree
+	 * @param region
+	 */
+	private void assertCompiledRoutingIsEqual(final DistributionRegion region) {
+		final EnumSet<DistributionRegionHandlingFlag> noOptions = EnumSet.noneOf(DistributionRegionHandlingFlag.class);
+		final EnumSet<DistributionRegionHandlingFlag> streamOptions = EnumSet.of(DistributionRegionHandlingFlag.STREAMING_ONLY);
+
+		final Map<Predicate<DistributionRegionState>, EnumSet<DistributionRegionHandlingFlag>> readOptions = new HashMap<>();
+		readOptions.put(DistributionRegionHelper.PREDICATE_REGIONS_FOR_READ, noOptions);
+		
+		final Map<Predicate<DistributionRegionState>, EnumSet<DistributionRegionHandlingFlag>> writeOptions = new HashMap<>();
+		writeOptions.put(DistributionRegionHelper.PREDICATE_REGIONS_FOR_WRITE, noOptions);
+		writeOptions.put(DistributionRegionHelper.PREDICATE_REGIONS_FOR_STREAM, streamOptions);
+
+		final Random random = new Random(42);
+		
+		final List<Hyperrectangle> queryBoxes = new ArrayList<>();
+		queryBoxes.add(Hyperrectangle.FULL_SPACE);
+		queryBoxes.add(new Hyperrectangle(-10d, -5d, -10d, -5d));
+		
+		for(int i = 0; i < 100; i++) {
+			final double x = random.nextDouble() * 100;
+			final double y = random.nextDouble() * 100;
+			queryBoxes.add(new Hyperrectangle(x, x + random.nextDouble() * 20, y, y + random.nextDouble() * 20));
+		}
+		
+		for(final Hyperrectangle queryBox : queryBoxes) {
+			final List<RoutingHop> expectedRead = RoutingHopHelper.getHopListForPredicateAndBox(region, 
+					queryBox, new ArrayList<>(), readOptions);
+			
+			final List<RoutingHop> read = RoutingHopHelper.getRoutingHopsForRead(region, 
+					queryBox, noOptions);
+			
+			Assert.assertEquals(new HashSet<>(expectedRead), new HashSet<>(read));
+			Assert.assertEquals(expectedRead.size(), read.size());
+			
+			final List<RoutingHop> expectedWrite = RoutingHopHelper.getHopListForPredicateAndBox(region, 
+					queryBox, new ArrayList<>(), writeOptions);
+			
+			final List<RoutingHop> write = RoutingHopHelper.getRoutingHopsForWrite(region, 
+					queryBox, noOptions);
+			
+			Assert.assertEquals(new HashSet<>(expectedWrite), new HashSet<>(write));
+			Assert.assertEquals(expectedWrite.size(), write.size());
+		}
+	}
 }
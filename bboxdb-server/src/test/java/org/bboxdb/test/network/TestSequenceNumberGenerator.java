@@ -18,6 +18,8 @@
 package org.bboxdb.test.network;
 
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.bboxdb.network.client.connection.SequenceNumberGenerator;
 import org.junit.Assert;
@@ -36,12 +38,12 @@ public class TestSequenceNumberGenerator {
 	@Test(timeout=60000)
 	public void testSequenceNumberGenerator1() {
 		final int NUMBERS = 1000;
-		final HashMap<Short, Short> sequenceNumberMap = new HashMap<>();
+		final HashMap<Integer, Integer> sequenceNumberMap = new HashMap<>();
 		
 		for(int i = 0; i < NUMBERS; i++) {
-			final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+			final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 			Assert.assertFalse(sequenceNumberMap.containsKey(sequenceNumber));
-			sequenceNumberMap.put(sequenceNumber, (short) 1);
+			sequenceNumberMap.put(sequenceNumber, 1);
 		}
 		
 		Assert.assertEquals(sequenceNumberMap.size(), NUMBERS);
@@ -53,17 +55,17 @@ public class TestSequenceNumberGenerator {
 	 */
 	@Test(timeout=60000)
 	public void testSequenceNumberGenerator2() {
-		final HashMap<Short, Short> sequenceNumberMap = new HashMap<>();
+		final HashMap<Integer, Integer> sequenceNumberMap = new HashMap<>();
 
 		for(int i = 0; i < Integer.MAX_VALUE / 100; i++) {
-			final short sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
+			final int sequenceNumber = sequenceNumberGenerator.getNextSequenceNummber();
 			sequenceNumberGenerator.releaseNumber(sequenceNumber);
 			
 			if(! sequenceNumberMap.containsKey(sequenceNumber)) {
-				sequenceNumberMap.put(sequenceNumber, (short) 1);
+				sequenceNumberMap.put(sequenceNumber, 1);
 			} else {
-				short oldValue = sequenceNumberMap.get(sequenceNumber);
-				sequenceNumberMap.put(sequenceNumber, (short) (oldValue + 1));
+				final int oldValue = sequenceNumberMap.get(sequenceNumber);
+				sequenceNumberMap.put(sequenceNumber, oldValue + 1);
 			}
 		}
 		
@@ -80,4 +82,26 @@ public class TestSequenceNumberGenerator {
 			sequenceNumberGenerator.getNextSequenceNummber();
 		}		
 	}
+	
+	/**
+	 * Ensure that 32 bit sequence numbers don't wrap around after 2^16 numbers
+	 */
+	@Test(timeout=60000)
+	public void testWideSequenceNumbers() {
+		final SequenceNumberGenerator generator = new SequenceNumberGenerator();
+		Assert.assertFalse(generator.isWideSequenceNumbers());
+		generator.setWideSequenceNumbers(true);
+		Assert.assertTrue(generator.isWideSequenceNumbers());
+		
+		final int NUMBERS = 100000;
+		final Set<Integer> sequenceNumbers = new HashSet<>();
+
+		for(int i = 0; i < NUMBERS; i++) {
+			final int sequenceNumber = generator.getNextSequenceNummber();
+			Assert.assertTrue(sequenceNumbers.add(sequenceNumber));
+		}
+		
+		Assert.assertEquals(NUMBERS, generator.getUsedNumbers());
+		Assert.assertEquals(NUMBERS, generator.getLastGeneratedNumber());
+	}
 }
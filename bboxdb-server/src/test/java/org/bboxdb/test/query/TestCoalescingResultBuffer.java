@@ -0,0 +1,104 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.test.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.misc.Const;
+import org.bboxdb.network.server.query.continuous.CoalescingResultBuffer;
+import org.bboxdb.storage.entity.MultiTuple;
+import org.bboxdb.storage.entity.Tuple;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestCoalescingResultBuffer {
+	
+	/**
+	 * Create a result with the given keys
+	 * @param value
+	 * @param keys
+	 * @return
+	 */
+	private static MultiTuple createResult(final String value, final String... keys) {
+		final List<Tuple> tuples = new ArrayList<>();
+		final List<String> tables = new ArrayList<>();
+		
+		for(final String key : keys) {
+			tuples.add(new Tuple(key, Hyperrectangle.FULL_SPACE, value.getBytes(Const.DEFAULT_CHARSET)));
+			tables.add("table");
+		}
+		
+		return new MultiTuple(tuples, tables);
+	}
+	
+	@Test(timeout=60_000)
+	public void testCoalesce() throws InterruptedException {
+		final CoalescingResultBuffer buffer = new CoalescingResultBuffer(10);
+		
+		final MultiTuple result1 = createResult("1", "a");
+		final MultiTuple result2 = createResult("2", "b");
+		final MultiTuple result3 = createResult("3", "a");
+		final MultiTuple result4 = createResult("4", "a", "b");
+		
+		Assert.assertTrue(buffer.put(result1, false));
+		Assert.assertTrue(buffer.put(result2, false));
+		Assert.assertTrue(buffer.put(result3, false));
+		Assert.assertTrue(buffer.put(result4, false));
+		
+		Assert.assertEquals(3, buffer.size());
+		Assert.assertEquals(1, buffer.getCoalescedResults());
+		
+		// The updated result is moved to the end
+		Assert.assertEquals(Arrays.asList(result2, result3), buffer.drain(2, 0));
+		Assert.assertEquals(Arrays.asList(result4), buffer.drain(10, 0));
+		Assert.assertTrue(buffer.drain(10, 1).isEmpty());
+	}
+	
+	@Test(timeout=60_000)
+	public void testFullBuffer() throws InterruptedException {
+		final CoalescingResultBuffer buffer = new CoalescingResultBuffer(2);
+
+		Assert.assertTrue(buffer.put(createResult("1", "a"), false));
+		Assert.assertTrue(buffer.put(createResult("2", "b"), false));
+		
+		// Updates are possible on a full buffer
+		Assert.assertTrue(buffer.put(createResult("3", "a"), false));
+		Assert.assertFalse(buffer.put(createResult("4", "c"), false));
+		
+		// Wait for space
+		final Thread drainThread = new Thread(() -> {
+			try {
+				Thread.sleep(100);
+				buffer.drain(1, 0);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		
+		drainThread.start();
+		Assert.assertTrue(buffer.put(createResult("5", "c"), true));
+		drainThread.join();
+		
+		buffer.close();
+		Assert.assertFalse(buffer.put(createResult("6", "d"), true));
+		Assert.assertEquals(0, buffer.size());
+	}
+}
@@ -0,0 +1,249 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.test.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.misc.Const;
+import org.bboxdb.network.server.query.continuous.ContinuousJoinTableCache;
+import org.bboxdb.storage.StorageManagerException;
+import org.bboxdb.storage.entity.DeletedTuple;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreConfiguration;
+import org.bboxdb.storage.entity.TupleStoreConfigurationBuilder;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.entity.WatermarkTuple;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManager;
+import org.bboxdb.storage.tuplestore.manager.TupleStoreManagerRegistry;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestContinuousJoinTableCache {
+	
+	/**
+	 * The name of the test relation
+	 */
+	private final static TupleStoreName TEST_RELATION = new TupleStoreName("testgroup1_joincache");
+	
+	/**
+	 * The storage registry
+	 */
+	private static TupleStoreManagerRegistry storageRegistry;
+	
+	/**
+	 * The tuple store manager
+	 */
+	private TupleStoreManager storageManager;
+
+	@BeforeClass
+	public static void beforeClass() throws InterruptedException, BBoxDBException {
+		storageRegistry = new TupleStoreManagerRegistry();
+		storageRegistry.init();
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		if(storageRegistry != null) {
+			storageRegistry.shutdown();
+			storageRegistry = null;
+		}
+	}
+
+	@Before
+	public void init() throws StorageManagerException {
+		storageRegistry.deleteTable(TEST_RELATION);
+		final TupleStoreConfiguration tupleStoreConfiguration = TupleStoreConfigurationBuilder.create().build();
+		storageRegistry.createTable(TEST_RELATION, tupleStoreConfiguration);
+		storageManager = storageRegistry.getTupleStoreManager(TEST_RELATION);
+	}
+	
+	/**
+	 * Get the keys of the cached tuples in the region
+	 * @param cache
+	 * @param region
+	 * @return
+	 */
+	private static HashSet<String> getKeys(final ContinuousJoinTableCache cache, final Hyperrectangle region) {
+		final List<String> keys = cache.getTuplesForRegion(region).stream()
+				.map(t -> t.getKey())
+				.collect(Collectors.toList());
+		
+		return new HashSet<>(keys);
+	}
+	
+	@Test(timeout=60_000)
+	public void testLoadAndUpdate() throws Exception {
+		storageManager.put(new Tuple("1", new Hyperrectangle(0d, 1d, 0d, 1d), "a".getBytes(Const.DEFAULT_CHARSET)));
+		storageManager.put(new Tuple("2", new Hyperrectangle(5d, 6d, 5d, 6d), "b".getBytes(Const.DEFAULT_CHARSET)));
+		storageManager.put(new Tuple("2", new Hyperrectangle(0d, 1d, 0d, 1d), "c".getBytes(Const.DEFAULT_CHARSET)));
+		
+		final ContinuousJoinTableCache cache = new ContinuousJoinTableCache(storageManager, 100);
+		cache.init();
+		
+		Assert.assertTrue(cache.isUsable());
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(new HashSet<>(Arrays.asList("1", "2")), getKeys(cache, new Hyperrectangle(0d, 1d, 0d, 1d)));
+		Assert.assertTrue(getKeys(cache, new Hyperrectangle(5d, 6d, 5d, 6d)).isEmpty());
+
+		// Updates are applied via the insert callback
+		cache.accept(TEST_RELATION, new Tuple("3", new Hyperrectangle(5d, 6d, 5d, 6d), "d".getBytes(Const.DEFAULT_CHARSET)));
+		cache.accept(TEST_RELATION, new DeletedTuple("1"));
+		
+		Assert.assertEquals(new HashSet<>(Arrays.asList("2")), getKeys(cache, new Hyperrectangle(0d, 1d, 0d, 1d)));
+		Assert.assertEquals(new HashSet<>(Arrays.asList("3")), getKeys(cache, new Hyperrectangle(5d, 6d, 5d, 6d)));
+		
+		// Tuples without bounding box intersect every region
+		cache.accept(TEST_RELATION, new Tuple("4", Hyperrectangle.FULL_SPACE, "f".getBytes(Const.DEFAULT_CHARSET)));
+		Assert.assertEquals(new HashSet<>(Arrays.asList("3", "4")), getKeys(cache, new Hyperrectangle(5d, 6d, 5d, 6d)));
+		cache.accept(TEST_RELATION, new DeletedTuple("4"));
+		Assert.assertEquals(new HashSet<>(Arrays.asList("3")), getKeys(cache, new Hyperrectangle(5d, 6d, 5d, 6d)));
+		
+		// Older versions are ignored
+		cache.accept(TEST_RELATION, new Tuple("1", new Hyperrectangle(0d, 1d, 0d, 1d), 
+				"e".getBytes(Const.DEFAULT_CHARSET), 1));
+		Assert.assertEquals(new HashSet<>(Arrays.asList("2")), getKeys(cache, new Hyperrectangle(0d, 1d, 0d, 1d)));
+	}
+	
+	@Test(timeout=60_000)
+	public void testOverflow() throws Exception {
+		for(int i = 0; i < 10; i++) {
+			storageManager.put(new Tuple(Integer.toString(i), new Hyperrectangle(0d, 1d, 0d, 1d), 
+					"a".getBytes(Const.DEFAULT_CHARSET)));
+		}
+		
+		final ContinuousJoinTableCache cache = new ContinuousJoinTableCache(storageManager, 5);
+		cache.init();
+		
+		Assert.assertFalse(cache.isUsable());
+		Assert.assertEquals(0, cache.size());
+	}
+	
+	@Test(timeout=60_000)
+	public void testTombstones() throws Exception {
+		final ContinuousJoinTableCache cache = new ContinuousJoinTableCache(storageManager, 4);
+		cache.init();
+		
+		cache.accept(TEST_RELATION, new WatermarkTuple(105));
+		
+		for(int i = 0; i < 8; i++) {
+			cache.accept(TEST_RELATION, new DeletedTuple(Integer.toString(i), 100 + i));
+		}
+		
+		// Tombstones don't count as cached tuples, tombstones older than the watermark are pruned
+		Assert.assertTrue(cache.isUsable());
+		Assert.assertEquals(0, cache.size());
+		Assert.assertEquals(3, cache.getNumberOfTombstones());
+		
+		// The tombstones newer than the watermark are kept and reject older versions
+		cache.accept(TEST_RELATION, new Tuple("7", new Hyperrectangle(0d, 1d, 0d, 1d), 
+				"a".getBytes(Const.DEFAULT_CHARSET), 50));
+		Assert.assertEquals(0, cache.size());
+		
+		// Watermarks remove older tombstones
+		cache.accept(TEST_RELATION, new WatermarkTuple(200));
+		Assert.assertEquals(0, cache.getNumberOfTombstones());
+		Assert.assertTrue(cache.isUsable());
+		
+		// Too many tombstones newer than the watermark disable the cache
+		for(int i = 0; i < 5; i++) {
+			cache.accept(TEST_RELATION, new DeletedTuple(Integer.toString(i), 300 + i));
+		}
+		
+		Assert.assertFalse(cache.isUsable());
+	}
+	
+	@Test(timeout=60_000)
+	public void testAsyncLoad() throws Exception {
+		storageManager.put(new Tuple("1", new Hyperrectangle(0d, 1d, 0d, 1d), "a".getBytes(Const.DEFAULT_CHARSET)));
+		
+		final List<Runnable> pendingTasks = new ArrayList<>();
+		final ContinuousJoinTableCache cache = new ContinuousJoinTableCache(storageManager, 100, 0, 
+				r -> pendingTasks.add(r));
+		
+		cache.init();
+		
+		// The cache is not usable until the tuple store is scanned
+		Assert.assertEquals(1, pendingTasks.size());
+		Assert.assertFalse(cache.isUsable());
+		
+		// Tombstones are kept while the cache is loaded
+		cache.accept(TEST_RELATION, new DeletedTuple("1"));
+		cache.accept(TEST_RELATION, new WatermarkTuple(Long.MAX_VALUE));
+		Assert.assertEquals(1, cache.getNumberOfTombstones());
+		
+		pendingTasks.remove(0).run();
+		
+		Assert.assertTrue(cache.isUsable());
+		Assert.assertEquals(0, cache.size());
+		Assert.assertEquals(0, cache.getNumberOfTombstones());
+		Assert.assertTrue(pendingTasks.isEmpty());
+	}
+	
+	@Test(timeout=60_000)
+	public void testRebuildAfterOverflow() throws Exception {
+		for(int i = 0; i < 3; i++) {
+			storageManager.put(new Tuple(Integer.toString(i), new Hyperrectangle(0d, 1d, 0d, 1d), 
+					"a".getBytes(Const.DEFAULT_CHARSET)));
+		}
+		
+		final ContinuousJoinTableCache cache = new ContinuousJoinTableCache(storageManager, 5, 0);
+		cache.init();
+		Assert.assertTrue(cache.isUsable());
+		Assert.assertEquals(3, cache.size());
+		
+		// Overflow via the insert callback
+		for(int i = 10; i < 13; i++) {
+			cache.accept(TEST_RELATION, new Tuple(Integer.toString(i), new Hyperrectangle(0d, 1d, 0d, 1d), 
+					"a".getBytes(Const.DEFAULT_CHARSET)));
+		}
+		
+		Assert.assertEquals(0, cache.size());
+		
+		// The cache is rebuilt from the tuple store
+		Assert.assertTrue(cache.isUsable());
+		Assert.assertEquals(3, cache.size());
+		
+		// The rebuild is scheduled on the load executor
+		final List<Runnable> pendingTasks = new ArrayList<>();
+		final ContinuousJoinTableCache asyncCache = new ContinuousJoinTableCache(storageManager, 5, 0, 
+				r -> pendingTasks.add(r));
+		asyncCache.init();
+		pendingTasks.remove(0).run();
+		Assert.assertTrue(asyncCache.isUsable());
+		
+		for(int i = 10; i < 13; i++) {
+			asyncCache.accept(TEST_RELATION, new Tuple(Integer.toString(i), new Hyperrectangle(0d, 1d, 0d, 1d), 
+					"a".getBytes(Const.DEFAULT_CHARSET)));
+		}
+		
+		Assert.assertFalse(asyncCache.isUsable());
+		Assert.assertFalse(asyncCache.isUsable());
+		Assert.assertEquals(1, pendingTasks.size());
+		pendingTasks.remove(0).run();
+		Assert.assertTrue(asyncCache.isUsable());
+	}
+}
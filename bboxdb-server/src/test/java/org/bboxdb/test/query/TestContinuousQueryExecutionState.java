@@ -17,9 +17,14 @@
  *******************************************************************************/
 package org.bboxdb.test.query;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.bboxdb.network.server.query.continuous.ContinuousQueryExecutionState;
+import org.bboxdb.network.server.query.continuous.ContinuousQueryExecutionState.EvictedKeys;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -38,6 +43,30 @@ public class TestContinuousQueryExecutionState {
 		Assert.assertFalse(state.wasStreamKeyContainedInLastRangeQuery("abc"));
 	}
 	
+	@Test(timeout = 60_000)
+	public void testStreamStateExpire() {
+		final ContinuousQueryExecutionState state = new ContinuousQueryExecutionState();
+		
+		Assert.assertTrue(state.addStreamKeyToState("abc", 10));
+		Assert.assertFalse(state.addStreamKeyToState("abc", 20));
+		Assert.assertTrue(state.addStreamKeyToState("def", 15));
+		
+		// Key of a state transfer
+		state.merge(new HashSet<>(Arrays.asList("ghi")), new HashMap<>());
+		Assert.assertTrue(state.wasStreamKeyContainedInLastRangeQuery("ghi"));
+		
+		Assert.assertEquals(Arrays.asList("def"), state.removeExpiredStreamKeys(18, 30));
+		Assert.assertTrue(state.wasStreamKeyContainedInLastRangeQuery("abc"));
+		Assert.assertFalse(state.wasStreamKeyContainedInLastRangeQuery("def"));
+		Assert.assertTrue(state.wasStreamKeyContainedInLastRangeQuery("ghi"));
+		
+		// The transferred key got version 30 by the last expire run
+		final List<String> expiredKeys = state.removeExpiredStreamKeys(25, 40);
+		Assert.assertEquals(Arrays.asList("abc"), expiredKeys);
+		Assert.assertEquals(Arrays.asList("ghi"), state.removeExpiredStreamKeys(35, 50));
+		Assert.assertTrue(state.getContainedTupleKeys().isEmpty());
+	}
+	
 	@Test(timeout = 60_000)
 	public void testJoinState() {
 		final ContinuousQueryExecutionState state = new ContinuousQueryExecutionState();
@@ -75,4 +104,74 @@ public class TestContinuousQueryExecutionState {
 		Assert.assertTrue(missingPartners5.isEmpty());
 
 	}
+	
+	@Test(timeout = 60_000)
+	public void testSizeLimit() {
+		final ContinuousQueryExecutionState state = new ContinuousQueryExecutionState(null, 2000, 0);
+		
+		int version = 0;
+		while(! state.isDegraded()) {
+			Assert.assertTrue(state.addStreamKeyToState("key" + version, version));
+			version++;
+		}
+		
+		final int trackedKeys = state.getContainedTupleKeys().size();
+		Assert.assertTrue(trackedKeys > 0);
+		Assert.assertTrue(state.getEstimatedBytes() <= 2000);
+		
+		// Not tracked keys are reported as new keys
+		Assert.assertTrue(state.addStreamKeyToState("newkey", version));
+		Assert.assertTrue(state.addStreamKeyToState("newkey", version));
+		Assert.assertFalse(state.wasStreamKeyContainedInLastRangeQuery("newkey"));
+		
+		// Updated keys are kept
+		Assert.assertFalse(state.addStreamKeyToState("key0", version));
+		
+		// Evict the least recently updated keys
+		final EvictedKeys evictedKeys = state.handleWatermark(version);
+		Assert.assertFalse(state.isDegraded());
+		Assert.assertTrue(evictedKeys.getStreamKeys().contains("key1"));
+		Assert.assertFalse(evictedKeys.getStreamKeys().contains("key0"));
+		Assert.assertEquals(trackedKeys - state.getContainedTupleKeys().size(), evictedKeys.size());
+		Assert.assertTrue(state.getEstimatedBytes() <= 1500);
+		Assert.assertTrue(state.getContainedTupleKeys().size() < trackedKeys);
+		Assert.assertTrue(state.wasStreamKeyContainedInLastRangeQuery("key0"));
+		Assert.assertFalse(state.wasStreamKeyContainedInLastRangeQuery("key1"));
+		
+		Assert.assertTrue(state.addStreamKeyToState("newkey", version));
+		Assert.assertTrue(state.wasStreamKeyContainedInLastRangeQuery("newkey"));
+		
+		while(! state.getContainedTupleKeys().isEmpty()) {
+			state.removeStreamKeyFromRangeState(state.getContainedTupleKeys().iterator().next());
+		}
+		
+		Assert.assertEquals(0, state.getEstimatedBytes());
+	}
+	
+	@Test(timeout = 60_000)
+	public void testJoinStateTTL() {
+		final ContinuousQueryExecutionState state = new ContinuousQueryExecutionState(null, 0, 100);
+		
+		state.addJoinCandidateForCurrentKey("abc");
+		state.commitStateAndGetMissingJoinpartners("stream1", 10);
+		state.addJoinCandidateForCurrentKey("abc");
+		state.commitStateAndGetMissingJoinpartners("stream2", 50);
+		
+		// Keys without join partners are not stored
+		state.commitStateAndGetMissingJoinpartners("stream3", 50);
+		Assert.assertFalse(state.wasStreamKeyContainedInLastJoinQuery("stream3"));
+		
+		Assert.assertEquals(2, state.getContainedJoinedKeys().size());
+		Assert.assertEquals(new HashSet<>(Arrays.asList("abc")), state.getContainedJoinedKeys().get("stream1"));
+		
+		final EvictedKeys evictedKeys = state.handleWatermark(130);
+		Assert.assertEquals(new HashSet<>(Arrays.asList("abc")), evictedKeys.getJoinKeys().get("stream1"));
+		Assert.assertEquals(1, evictedKeys.size());
+		Assert.assertFalse(state.wasStreamKeyContainedInLastJoinQuery("stream1"));
+		Assert.assertTrue(state.wasStreamKeyContainedInLastJoinQuery("stream2"));
+		
+		state.handleWatermark(200);
+		Assert.assertTrue(state.getContainedJoinedKeys().isEmpty());
+		Assert.assertEquals(0, state.getEstimatedBytes());
+	}
 }
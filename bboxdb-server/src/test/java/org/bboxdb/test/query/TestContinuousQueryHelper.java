@@ -27,6 +27,8 @@ import org.bboxdb.network.server.query.continuous.ContinuousQueryHelper;
 import org.bboxdb.query.filter.UserDefinedFilter;
 import org.bboxdb.query.filter.UserDefinedFilterDefinition;
 import org.bboxdb.query.filter.UserDefinedGeoJsonSpatialFilter;
+import org.bboxdb.query.transformation.EnlargeBoundingBoxByAmountTransformation;
+import org.bboxdb.query.transformation.EnlargeBoundingBoxByFactorTransformation;
 import org.bboxdb.query.transformation.KeyFilterTransformation;
 import org.bboxdb.query.transformation.TupleTransformation;
 import org.bboxdb.storage.entity.MultiTuple;
@@ -95,4 +97,23 @@ public class TestContinuousQueryHelper {
 		final boolean filterResult = ContinuousQueryHelper.doUserDefinedFilterMatch(tuple, tuple, udfs);
 		Assert.assertFalse(filterResult);
 	}
+	
+	@Test(timeout=60_000)
+	public void testGetStreamTupleRange() {
+		final Hyperrectangle range = new Hyperrectangle(1d, 2d, 1d, 2d);
+		
+		Assert.assertEquals(range, ContinuousQueryHelper.getStreamTupleRange(Arrays.asList(), range));
+		
+		Assert.assertEquals(range, ContinuousQueryHelper.getStreamTupleRange(
+				Arrays.asList(new KeyFilterTransformation("1")), range));
+		
+		Assert.assertEquals(new Hyperrectangle(-1d, 4d, -1d, 4d), ContinuousQueryHelper.getStreamTupleRange(
+				Arrays.asList(new EnlargeBoundingBoxByAmountTransformation(1), 
+						new KeyFilterTransformation("1"),
+						new EnlargeBoundingBoxByAmountTransformation(1)), range));
+		
+		// Enlargement depends on the tuple
+		Assert.assertNull(ContinuousQueryHelper.getStreamTupleRange(
+				Arrays.asList(new EnlargeBoundingBoxByFactorTransformation(2)), range));
+	}
 }
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.test.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.misc.Const;
+import org.bboxdb.network.server.query.continuous.ContinuousQueryIndex;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.entity.WatermarkTuple;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestContinuousQueryIndex {
+	
+	/**
+	 * The table of the tuples
+	 */
+	private final static TupleStoreName TABLE = new TupleStoreName("abc_table_3");
+
+	/**
+	 * A query that records the received tuple keys
+	 */
+	private static class RecordingQuery implements BiConsumer<TupleStoreName, Tuple> {
+		
+		private final List<String> receivedKeys = new ArrayList<>();
+
+		@Override
+		public void accept(final TupleStoreName tupleStoreName, final Tuple tuple) {
+			receivedKeys.add(tuple.getKey());
+		}
+	}
+	
+	/**
+	 * Create a tuple
+	 * @param key
+	 * @param boundingBox
+	 * @return
+	 */
+	private static Tuple createTuple(final String key, final Hyperrectangle boundingBox) {
+		return new Tuple(key, boundingBox, "".getBytes(Const.DEFAULT_CHARSET));
+	}
+	
+	@Test(timeout=60_000)
+	public void testDispatch() {
+		final ContinuousQueryIndex queryIndex = new ContinuousQueryIndex();
+		
+		final RecordingQuery query1 = new RecordingQuery();
+		final RecordingQuery query2 = new RecordingQuery();
+		final RecordingQuery query3 = new RecordingQuery();
+		
+		queryIndex.addQuery(query1, new Hyperrectangle(0d, 10d, 0d, 10d));
+		queryIndex.addQuery(query2, new Hyperrectangle(20d, 30d, 20d, 30d));
+		queryIndex.addQuery(query3, null);
+		
+		Assert.assertEquals(2, queryIndex.getNumberOfIndexedQueries());
+		Assert.assertEquals(1, queryIndex.getNumberOfUnindexedQueries());
+		
+		queryIndex.accept(TABLE, createTuple("1", new Hyperrectangle(5d, 6d, 5d, 6d)));
+		queryIndex.accept(TABLE, createTuple("2", new Hyperrectangle(25d, 26d, 25d, 26d)));
+		queryIndex.accept(TABLE, createTuple("3", new Hyperrectangle(50d, 60d, 50d, 60d)));
+		queryIndex.accept(TABLE, createTuple("4", new Hyperrectangle(5d, 25d, 5d, 25d)));
+		queryIndex.accept(TABLE, new WatermarkTuple("5", 1));
+		
+		Assert.assertEquals(Arrays.asList("1", "4", "5"), query1.receivedKeys);
+		Assert.assertEquals(Arrays.asList("2", "4", "5"), query2.receivedKeys);
+		Assert.assertEquals(Arrays.asList("1", "2", "3", "4", "5"), query3.receivedKeys);
+		
+		Assert.assertTrue(queryIndex.removeQuery(query1));
+		Assert.assertFalse(queryIndex.removeQuery(query1));
+		Assert.assertTrue(queryIndex.removeQuery(query3));
+		
+		queryIndex.accept(TABLE, createTuple("6", new Hyperrectangle(5d, 25d, 5d, 25d)));
+		Assert.assertEquals(3, query1.receivedKeys.size());
+		Assert.assertEquals(4, query2.receivedKeys.size());
+		Assert.assertEquals(5, query3.receivedKeys.size());
+		
+		Assert.assertFalse(queryIndex.isEmpty());
+		Assert.assertTrue(queryIndex.removeQuery(query2));
+		Assert.assertTrue(queryIndex.isEmpty());
+	}
+	
+	@Test(timeout=60_000)
+	public void testRegisterAndRemoveMany() {
+		final ContinuousQueryIndex queryIndex = new ContinuousQueryIndex();
+		final List<RecordingQuery> queries = new ArrayList<>();
+		
+		for(int i = 0; i < 1000; i++) {
+			final RecordingQuery query = new RecordingQuery();
+			queryIndex.addQuery(query, new Hyperrectangle((double) i, i + 0.5, 0d, 1d));
+			queries.add(query);
+		}
+		
+		// Remove every query with an odd position (triggers the rebuild of the index)
+		for(int i = 1; i < 1000; i = i + 2) {
+			Assert.assertTrue(queryIndex.removeQuery(queries.get(i)));
+		}
+		
+		Assert.assertEquals(500, queryIndex.getNumberOfIndexedQueries());
+
+		for(int i = 0; i < 1000; i++) {
+			queryIndex.accept(TABLE, createTuple(Integer.toString(i), 
+					new Hyperrectangle(i + 0.1, i + 0.2, 0.5d, 0.6d)));
+		}
+		
+		final Set<Integer> queriesWithTuples = new HashSet<>();
+		
+		for(int i = 0; i < 1000; i++) {
+			final List<String> receivedKeys = queries.get(i).receivedKeys;
+			
+			if(! receivedKeys.isEmpty()) {
+				Assert.assertEquals(1, receivedKeys.size());
+				Assert.assertEquals(Integer.toString(i), receivedKeys.get(0));
+				queriesWithTuples.add(i);
+			}
+		}
+		
+		Assert.assertEquals(500, queriesWithTuples.size());
+		Assert.assertTrue(queriesWithTuples.stream().allMatch(i -> i % 2 == 0));
+	}
+}
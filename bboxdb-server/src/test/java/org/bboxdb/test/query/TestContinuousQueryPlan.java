@@ -23,6 +23,7 @@ import java.util.UUID;
 
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.query.ContinuousAggregateQueryPlan;
 import org.bboxdb.query.ContinuousQueryPlan;
 import org.bboxdb.query.ContinuousQueryPlanSerializer;
 import org.bboxdb.query.ContinuousRangeQueryPlan;
@@ -190,6 +191,48 @@ public class TestContinuousQueryPlan {
 		serializeAndDeserialize(continuousQueryPlan);
 	}
 
+	@Test(timeout=60_000)
+	public void testEnterExitRangeQuery() throws BBoxDBException {
+		final ContinuousQueryPlan continuousQueryPlan = new ContinuousRangeQueryPlan(UUID.randomUUID().toString(),
+				"abc", 
+				new ArrayList<>(), 
+				new Hyperrectangle(12d, 13d, 14d, 15d), 
+				new Hyperrectangle(1d, 2d, 3d, 4d), 
+				true, true, 60_000_000, new ArrayList<>(), false, true);
+		
+		serializeAndDeserialize(continuousQueryPlan);
+	}
+	
+	@Test(timeout=60_000, expected=IllegalArgumentException.class)
+	public void testInvalidEnterExitRangeQuery() {
+		// Enter and exit events are send as tuples and invalidations
+		new ContinuousRangeQueryPlan(UUID.randomUUID().toString(), "abc", new ArrayList<>(), 
+				new Hyperrectangle(12d, 13d, 14d, 15d), new Hyperrectangle(1d, 2d, 3d, 4d), 
+				true, true, 0, new ArrayList<>(), false, false);
+	}
+	
+	@Test(timeout=60_000)
+	public void testAggregateQuery() throws BBoxDBException {
+		final ContinuousQueryPlan continuousQueryPlan = new ContinuousAggregateQueryPlan(UUID.randomUUID().toString(),
+				"abc", 
+				Arrays.asList(new KeyFilterTransformation("abcd")), 
+				new Hyperrectangle(12d, 13d, 14d, 15d), 
+				0.5, 60_000_000, 10_000_000,
+				new ArrayList<>(), true);
+		
+		serializeAndDeserialize(continuousQueryPlan);
+	}
+	
+	@Test(timeout=60_000, expected=BBoxDBException.class)
+	public void testInvalidAggregateQuery() throws BBoxDBException {
+		final String json = ContinuousQueryPlanSerializer.toJSON(new ContinuousAggregateQueryPlan(
+				UUID.randomUUID().toString(), "abc", new ArrayList<>(), new Hyperrectangle(12d, 13d, 14d, 15d), 
+				0.5, 20, 10, new ArrayList<>(), true));
+		
+		// Window size is not a multiple of the slide
+		ContinuousQueryPlanSerializer.fromJSON(json.replace("\"window-size\":20", "\"window-size\":25"));
+	}
+
 	/**
 	 * Serialize and deserialize the given query plan
 	 * @param continuousQueryPlan
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.test.query;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.network.server.query.continuous.ContinuousClientQuery;
+import org.bboxdb.network.server.query.continuous.ContinuousQueryExecutionState;
+import org.bboxdb.network.server.query.continuous.ContinuousRangeQuery;
+import org.bboxdb.query.ContinuousRangeQueryPlan;
+import org.bboxdb.query.QueryPlanBuilder;
+import org.bboxdb.storage.entity.DeletedTuple;
+import org.bboxdb.storage.entity.InvalidationTuple;
+import org.bboxdb.storage.entity.MultiTuple;
+import org.bboxdb.storage.entity.Tuple;
+import org.bboxdb.storage.entity.TupleStoreName;
+import org.bboxdb.storage.entity.WatermarkTuple;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+public class TestContinuousRangeQuery {
+
+	/**
+	 * The stream table
+	 */
+	private final static TupleStoreName STREAM_TABLE = new TupleStoreName("testgroup_stream");
+	
+	/**
+	 * The results of the query
+	 */
+	private List<MultiTuple> results;
+	
+	/**
+	 * The query in the enter and exit mode
+	 */
+	private ContinuousRangeQuery query;
+	
+	@Before
+	public void before() {
+		query = createQuery(new ContinuousQueryExecutionState());
+	}
+	
+	/**
+	 * Create the query in the enter and exit mode with the given state
+	 * @param state
+	 * @return
+	 */
+	private ContinuousRangeQuery createQuery(final ContinuousQueryExecutionState state) {
+		final ContinuousRangeQueryPlan queryPlan = (ContinuousRangeQueryPlan) QueryPlanBuilder
+				.createQueryOnTable(STREAM_TABLE.getFullname())
+				.compareWithStaticSpace(new Hyperrectangle(0d, 10d, 0d, 10d))
+				.reportEnterAndExitEvents()
+				.build();
+		
+		results = new CopyOnWriteArrayList<>();
+		
+		final ContinuousClientQuery clientQuery = Mockito.mock(ContinuousClientQuery.class);
+		Mockito.when(clientQuery.getContinuousQueryState()).thenReturn(state);
+		Mockito.doAnswer(i -> results.add(i.getArgument(0)))
+			.when(clientQuery).queueTupleForClientProcessing(ArgumentMatchers.any(MultiTuple.class));
+		
+		return new ContinuousRangeQuery(clientQuery, queryPlan);
+	}
+	
+	/**
+	 * Is the result the ENTER of the key
+	 * @param result
+	 * @param key
+	 */
+	private static void assertEnter(final MultiTuple result, final String key) {
+		Assert.assertFalse(result.getTuple(0) instanceof InvalidationTuple);
+		Assert.assertEquals(key, result.getTuple(0).getKey());
+	}
+	
+	/**
+	 * Is the result the EXIT of the key
+	 * @param result
+	 * @param key
+	 */
+	private static void assertExit(final MultiTuple result, final String key) {
+		Assert.assertTrue(result.getTuple(0) instanceof InvalidationTuple);
+		Assert.assertEquals(key, result.getTuple(0).getKey());
+	}
+	
+	@Test(timeout=60_000)
+	public void testEnterMoveExit() {
+		query.accept(STREAM_TABLE, new Tuple("1", new Hyperrectangle(1d, 2d, 1d, 2d), "".getBytes()));
+		Assert.assertEquals(1, results.size());
+		assertEnter(results.get(0), "1");
+		
+		// Move inside of the region, no result
+		query.accept(STREAM_TABLE, new Tuple("1", new Hyperrectangle(5d, 6d, 5d, 6d), "".getBytes()));
+		Assert.assertEquals(1, results.size());
+		
+		// Move outside of the region
+		query.accept(STREAM_TABLE, new Tuple("1", new Hyperrectangle(15d, 16d, 15d, 16d), "".getBytes()));
+		Assert.assertEquals(2, results.size());
+		assertExit(results.get(1), "1");
+		
+		// Stays outside, no result
+		query.accept(STREAM_TABLE, new Tuple("1", new Hyperrectangle(17d, 18d, 17d, 18d), "".getBytes()));
+		Assert.assertEquals(2, results.size());
+		
+		// Enter again
+		query.accept(STREAM_TABLE, new Tuple("1", new Hyperrectangle(1d, 2d, 1d, 2d), "".getBytes()));
+		Assert.assertEquals(3, results.size());
+		assertEnter(results.get(2), "1");
+	}
+	
+	@Test(timeout=60_000)
+	public void testEnterDeleteExit() {
+		query.accept(STREAM_TABLE, new Tuple("1", new Hyperrectangle(1d, 2d, 1d, 2d), "".getBytes()));
+		Assert.assertEquals(1, results.size());
+		assertEnter(results.get(0), "1");
+		
+		query.accept(STREAM_TABLE, new DeletedTuple("1"));
+		Assert.assertEquals(2, results.size());
+		assertExit(results.get(1), "1");
+		
+		// The key is removed from the state, deleting it again has no result
+		query.accept(STREAM_TABLE, new DeletedTuple("1"));
+		Assert.assertEquals(2, results.size());
+		
+		// Deletion of a key that is not contained has no result
+		query.accept(STREAM_TABLE, new DeletedTuple("2"));
+		Assert.assertEquals(2, results.size());
+		
+		// The key enters again after the deletion
+		query.accept(STREAM_TABLE, new Tuple("1", new Hyperrectangle(1d, 2d, 1d, 2d), "".getBytes()));
+		Assert.assertEquals(3, results.size());
+		assertEnter(results.get(2), "1");
+	}
+	
+	@Test(timeout=60_000)
+	public void testStateTTLExit() {
+		query = createQuery(new ContinuousQueryExecutionState(null, 0, 100));
+		
+		query.accept(STREAM_TABLE, new Tuple("1", new Hyperrectangle(1d, 2d, 1d, 2d), "".getBytes(), 10));
+		query.accept(STREAM_TABLE, new Tuple("2", new Hyperrectangle(1d, 2d, 1d, 2d), "".getBytes(), 50));
+		Assert.assertEquals(2, results.size());
+		
+		// Key 1 is expired by the state TTL and reported as EXIT
+		query.accept(STREAM_TABLE, new WatermarkTuple(130));
+		Assert.assertEquals(3, results.size());
+		assertExit(results.get(2), "1");
+		
+		// Key 1 enters again
+		query.accept(STREAM_TABLE, new Tuple("1", new Hyperrectangle(1d, 2d, 1d, 2d), "".getBytes(), 140));
+		Assert.assertEquals(4, results.size());
+		assertEnter(results.get(3), "1");
+	}
+	
+	@Test(timeout=60_000)
+	public void testStateSizeLimitExit() {
+		final ContinuousQueryExecutionState state = new ContinuousQueryExecutionState(null, 2000, 0);
+		query = createQuery(state);
+		
+		final int keys = 100;
+		
+		for(int version = 0; version < keys; version++) {
+			query.accept(STREAM_TABLE, new Tuple("key" + version, new Hyperrectangle(1d, 2d, 1d, 2d), 
+					"".getBytes(), version));
+		}
+		
+		// Each key entered once, the oldest keys are evicted and reported as EXIT
+		final List<MultiTuple> exitEvents = results.stream()
+				.filter(r -> r.getTuple(0) instanceof InvalidationTuple)
+				.collect(Collectors.toList());
+		
+		Assert.assertEquals(keys, results.size() - exitEvents.size());
+		Assert.assertFalse(exitEvents.isEmpty());
+		assertExit(exitEvents.get(0), "key0");
+		Assert.assertTrue(state.getEstimatedBytes() <= 2000);
+		Assert.assertTrue(state.wasStreamKeyContainedInLastRangeQuery("key" + (keys - 1)));
+		Assert.assertEquals(keys - exitEvents.size(), state.getContainedTupleKeys().size());
+		
+		// Updates of the tracked key are not reported again
+		final int resultsBefore = results.size();
+		query.accept(STREAM_TABLE, new Tuple("key" + (keys - 1), new Hyperrectangle(1d, 2d, 1d, 2d), 
+				"".getBytes(), keys));
+		Assert.assertEquals(resultsBefore, results.size());
+	}
+}
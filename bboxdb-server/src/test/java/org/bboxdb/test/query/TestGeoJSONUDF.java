@@ -18,7 +18,13 @@
 package org.bboxdb.test.query;
 
 import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.query.filter.GeometryCache;
+import org.bboxdb.query.filter.GeometryHelper;
+import org.bboxdb.query.filter.UserDefinedFilter;
+import org.bboxdb.query.filter.UserDefinedFilterDefinition;
+import org.bboxdb.query.filter.UserDefinedFilterRegistry;
 import org.bboxdb.query.filter.UserDefinedGeoJsonSpatialFilter;
+import org.bboxdb.storage.entity.GeometryEncoding;
 import org.bboxdb.storage.entity.Tuple;
 import org.junit.Assert;
 import org.junit.Test;
@@ -62,4 +68,88 @@ public class TestGeoJSONUDF {
 		Assert.assertTrue(filter.filterJoinCandidate(POINT_TUPLE_3, LINE_STRING_TUPLE_1, "".getBytes()));
 		Assert.assertTrue(filter.filterJoinCandidate(LINE_STRING_TUPLE_1, POINT_TUPLE_3, "".getBytes()));
 	}
+	
+	@Test(timeout = 60_000)
+	public void testWKBEncoding() {
+		Assert.assertEquals(GeometryEncoding.GEOJSON, GeometryHelper.getEncoding(POINT_1.getBytes()));
+		Assert.assertEquals(GeometryEncoding.GEOJSON, GeometryHelper.getEncoding(LINE_STRING_1.getBytes()));
+
+		final byte[] wkbPoint = GeometryHelper.geoJsonToWKB(POINT_1);
+		final byte[] wkbLineString = GeometryHelper.geoJsonToWKB(LINE_STRING_1);
+
+		Assert.assertEquals(GeometryEncoding.WKB, GeometryHelper.getEncoding(wkbPoint));
+		Assert.assertEquals(GeometryEncoding.WKB, GeometryHelper.getEncoding(wkbLineString));
+		
+		Assert.assertTrue(GeometryHelper.extractGeometry(POINT_1.getBytes())
+				.Equals(GeometryHelper.extractGeometry(wkbPoint)));
+	}
+	
+	@Test(timeout = 60_000)
+	public void testIntersectWKB() {
+		final Tuple wkbPoint1 = new Tuple("1", Hyperrectangle.FULL_SPACE, GeometryHelper.geoJsonToWKB(POINT_1));
+		final Tuple wkbPoint2 = new Tuple("2", Hyperrectangle.FULL_SPACE, GeometryHelper.geoJsonToWKB(POINT_2));
+		final Tuple wkbLineString = new Tuple("2", Hyperrectangle.FULL_SPACE, GeometryHelper.geoJsonToWKB(LINE_STRING_1));
+
+		final UserDefinedGeoJsonSpatialFilter filter = new UserDefinedGeoJsonSpatialFilter();
+		Assert.assertTrue(filter.filterJoinCandidate(wkbPoint1, wkbPoint1, "".getBytes()));
+		Assert.assertFalse(filter.filterJoinCandidate(wkbPoint1, wkbLineString, "".getBytes()));
+		Assert.assertTrue(filter.filterJoinCandidate(wkbPoint2, wkbLineString, "".getBytes()));
+		
+		// Mixed encodings
+		Assert.assertTrue(filter.filterJoinCandidate(POINT_TUPLE_2, wkbLineString, "".getBytes()));
+		Assert.assertTrue(filter.filterJoinCandidate(wkbPoint2, LINE_STRING_TUPLE_1, "".getBytes()));
+		
+		// WKB tuples don't have properties
+		Assert.assertFalse(filter.filterTuple(wkbLineString, "name:Erich-Weinert-Straße".getBytes()));
+		Assert.assertTrue(filter.filterTuple(LINE_STRING_TUPLE_1, "name:Erich-Weinert-Straße".getBytes()));
+	}
+	
+	@Test(timeout = 60_000)
+	public void testCacheScopedByTable() {
+		GeometryCache.getInstance().clear();
+
+		// Same key and version in two tables, but different geometries
+		final Tuple pointTuple = new Tuple("1", Hyperrectangle.FULL_SPACE, POINT_1.getBytes(), 1);
+		final Tuple lineTuple = new Tuple("1", Hyperrectangle.FULL_SPACE, LINE_STRING_1.getBytes(), 1);
+		final Tuple otherPointTuple = new Tuple("2", Hyperrectangle.FULL_SPACE, POINT_2.getBytes(), 1);
+
+		final UserDefinedGeoJsonSpatialFilter filter = new UserDefinedGeoJsonSpatialFilter();
+
+		Assert.assertFalse(filter.filterJoinCandidate("testgroup_points", pointTuple,
+				"testgroup_other", otherPointTuple, "".getBytes()));
+
+		Assert.assertTrue(filter.filterJoinCandidate("testgroup_lines", lineTuple,
+				"testgroup_other", otherPointTuple, "".getBytes()));
+
+		GeometryCache.getInstance().clear();
+	}
+
+	@Test(timeout = 60_000)
+	public void testFilterRegistry() {
+		final UserDefinedFilterRegistry registry = UserDefinedFilterRegistry.getInstance();
+		final String filterClass = UserDefinedGeoJsonSpatialFilter.class.getName();
+		
+		final UserDefinedFilter filter1 = registry.getFilter(new UserDefinedFilterDefinition(filterClass, "name:Erich-Weinert-Straße"));
+		final UserDefinedFilter filter2 = registry.getFilter(new UserDefinedFilterDefinition(filterClass, "name:Erich-Weinert-Straße"));
+		final UserDefinedFilter filter3 = registry.getFilter(new UserDefinedFilterDefinition(filterClass, "highway:primary"));
+		
+		Assert.assertTrue(filter1 instanceof UserDefinedGeoJsonSpatialFilter);
+		Assert.assertSame(filter1, filter2);
+		Assert.assertNotSame(filter1, filter3);
+		
+		Assert.assertTrue(filter1.filterTuple(LINE_STRING_TUPLE_1, "name:Erich-Weinert-Straße".getBytes()));
+		Assert.assertFalse(filter3.filterTuple(LINE_STRING_TUPLE_1, "highway:primary".getBytes()));
+		
+		registry.clear();
+		Assert.assertEquals(0, registry.size());
+		
+		final UserDefinedFilter filter4 = registry.getFilter(new UserDefinedFilterDefinition(filterClass, "name:Erich-Weinert-Straße"));
+		Assert.assertNotSame(filter1, filter4);
+	}
+	
+	@Test(timeout = 60_000, expected=IllegalArgumentException.class)
+	public void testFilterRegistryUnknownClass() {
+		UserDefinedFilterRegistry.getInstance().getFilter(
+				new UserDefinedFilterDefinition("org.bboxdb.unknown.Filter", ""));
+	}
 }
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.test.query;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.network.server.query.continuous.GridCellWindowAggregator;
+import org.bboxdb.network.server.query.continuous.GridCellWindowAggregator.CellCount;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestGridCellWindowAggregator {
+
+	/**
+	 * Convert the cell counts into a map
+	 * @param cellCounts
+	 * @return
+	 */
+	private static Map<List<Long>, Long> toMap(final List<CellCount> cellCounts) {
+		final Map<List<Long>, Long> result = new HashMap<>();
+		cellCounts.forEach(c -> result.put(c.getCell(), c.getCount()));
+		return result;
+	}
+	
+	@Test(timeout=60_000)
+	public void testTumblingWindow() {
+		final GridCellWindowAggregator aggregator = new GridCellWindowAggregator(1.0, 10, 10);
+		
+		Assert.assertTrue(aggregator.addTuple("1", new Hyperrectangle(0.1, 0.2, 0.1, 0.2), 1));
+		Assert.assertTrue(aggregator.addTuple("2", new Hyperrectangle(0.5, 0.6, 0.5, 0.6), 2));
+		Assert.assertTrue(aggregator.addTuple("3", new Hyperrectangle(1.5, 1.6, 0.5, 0.6), 3));
+		Assert.assertTrue(aggregator.addTuple("4", new Hyperrectangle(0.5, 0.6, 0.5, 0.6), 12));
+		
+		// Window is not closed
+		Assert.assertTrue(aggregator.advanceWatermark(9).isEmpty());
+		
+		final List<CellCount> window1 = aggregator.advanceWatermark(10);
+		Assert.assertEquals(2, window1.size());
+		Assert.assertEquals(10, window1.get(0).getWindowEnd());
+		
+		final Map<List<Long>, Long> counts1 = toMap(window1);
+		Assert.assertEquals(2, (long) counts1.get(Arrays.asList(0L, 0L)));
+		Assert.assertEquals(1, (long) counts1.get(Arrays.asList(1L, 0L)));
+		
+		// Late tuple
+		Assert.assertFalse(aggregator.addTuple("5", new Hyperrectangle(0.5, 0.6, 0.5, 0.6), 5));
+		
+		// Cell (0,0) changed to 1, cell (1,0) is empty
+		final Map<List<Long>, Long> counts2 = toMap(aggregator.advanceWatermark(20));
+		Assert.assertEquals(2, counts2.size());
+		Assert.assertEquals(1, (long) counts2.get(Arrays.asList(0L, 0L)));
+		Assert.assertEquals(0, (long) counts2.get(Arrays.asList(1L, 0L)));
+		
+		// Cell (0,0) is empty
+		final Map<List<Long>, Long> counts3 = toMap(aggregator.advanceWatermark(100));
+		Assert.assertEquals(1, counts3.size());
+		Assert.assertEquals(0, (long) counts3.get(Arrays.asList(0L, 0L)));
+		Assert.assertEquals(0, aggregator.getNumberOfPendingPanes());
+		
+		Assert.assertTrue(aggregator.advanceWatermark(1000).isEmpty());
+	}
+	
+	@Test(timeout=60_000)
+	public void testSlidingWindow() {
+		final GridCellWindowAggregator aggregator = new GridCellWindowAggregator(1.0, 20, 10);
+		
+		Assert.assertTrue(aggregator.addTuple("6", new Hyperrectangle(0.5, 0.5), 1));
+		Assert.assertTrue(aggregator.addTuple("7", new Hyperrectangle(0.5, 0.5), 11));
+		
+		// Window [-10, 10)
+		Assert.assertEquals(1, (long) toMap(aggregator.advanceWatermark(10)).get(Arrays.asList(0L)));
+		
+		// Window [0, 20)
+		Assert.assertEquals(2, (long) toMap(aggregator.advanceWatermark(20)).get(Arrays.asList(0L)));
+		
+		// Tuple is still contained in the open window [10, 30)
+		Assert.assertTrue(aggregator.addTuple("8", new Hyperrectangle(0.5, 0.5), 15));
+		
+		// Window [10, 30) - count is unchanged, nothing is emitted
+		Assert.assertTrue(aggregator.advanceWatermark(30).isEmpty());
+		
+		// Window [20, 40) - no tuples
+		Assert.assertEquals(0, (long) toMap(aggregator.advanceWatermark(40)).get(Arrays.asList(0L)));
+	}
+	
+	@Test(timeout=60_000)
+	public void testKeyUpdatesInWindow() {
+		final GridCellWindowAggregator aggregator = new GridCellWindowAggregator(1.0, 20, 10);
+		
+		// The key moves within the pane and into the next pane
+		Assert.assertTrue(aggregator.addTuple("a", new Hyperrectangle(0.5, 0.5), 1));
+		Assert.assertTrue(aggregator.addTuple("a", new Hyperrectangle(1.5, 1.5), 3));
+		Assert.assertTrue(aggregator.addTuple("a", new Hyperrectangle(0.5, 0.5), 2));
+		Assert.assertTrue(aggregator.addTuple("b", new Hyperrectangle(1.5, 1.5), 4));
+		
+		// Window [-10, 10) - the older version of a (timestamp 2) doesn't move the key back
+		final Map<List<Long>, Long> counts1 = toMap(aggregator.advanceWatermark(10));
+		Assert.assertEquals(1, counts1.size());
+		Assert.assertEquals(2, (long) counts1.get(Arrays.asList(1L)));
+		
+		Assert.assertTrue(aggregator.addTuple("a", new Hyperrectangle(2.5, 2.5), 12));
+		Assert.assertTrue(aggregator.addTuple("a", new Hyperrectangle(0.5, 0.5), 15));
+		
+		// Window [0, 20) - a is counted once, in the cell of its last version
+		final Map<List<Long>, Long> counts2 = toMap(aggregator.advanceWatermark(20));
+		Assert.assertEquals(2, counts2.size());
+		Assert.assertEquals(1, (long) counts2.get(Arrays.asList(0L)));
+		Assert.assertEquals(1, (long) counts2.get(Arrays.asList(1L)));
+		Assert.assertFalse(counts2.containsKey(Arrays.asList(2L)));
+	}
+	
+	@Test(timeout=60_000)
+	public void testCellBoundingBox() {
+		final GridCellWindowAggregator aggregator = new GridCellWindowAggregator(0.5, 10, 10);
+		Assert.assertEquals(new Hyperrectangle(1.0, 1.5, -0.5, 0.0), 
+				aggregator.getCellBoundingBox(Arrays.asList(2L, -1L)));
+	}
+}
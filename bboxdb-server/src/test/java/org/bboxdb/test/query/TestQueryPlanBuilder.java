@@ -18,6 +18,7 @@
 package org.bboxdb.test.query;
 
 import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.query.ContinuousAggregateQueryPlan;
 import org.bboxdb.query.ContinuousQueryPlan;
 import org.bboxdb.query.ContinuousRangeQueryPlan;
 import org.bboxdb.query.ContinuousSpatialJoinQueryPlan;
@@ -147,4 +148,51 @@ public class TestQueryPlanBuilder {
 		Assert.assertEquals(5, cqp.getStreamTransformation().size());
 
 	}
+	
+	@Test(timeout=60_000)
+	public void testEnterExitPlan() {
+		final ContinuousQueryPlan queryPlan = QueryPlanBuilder
+			.createQueryOnTable("table")
+			.compareWithStaticSpace(new Hyperrectangle(2d, 4d))
+			.reportEnterAndExitEvents(1000)
+			.build();
+		
+		final ContinuousRangeQueryPlan cqp = (ContinuousRangeQueryPlan) queryPlan;
+		Assert.assertTrue(cqp.isReportEnterAndExit());
+		Assert.assertTrue(cqp.isReceiveInvalidations());
+		Assert.assertEquals(1000, cqp.getMembershipTTL());
+	}
+	
+	@Test(timeout=60_000, expected=IllegalArgumentException.class)
+	public void testInvalidEnterExitPlan() {
+		QueryPlanBuilder
+			.createQueryOnTable("table")
+			.spatialJoinWithTable("table2")
+			.reportEnterAndExitEvents()
+			.build();
+	}
+	
+	@Test(timeout=60_000)
+	public void testAggregatePlan() {
+		final ContinuousQueryPlan queryPlan = QueryPlanBuilder
+			.createQueryOnTable("table")
+			.forAllNewTuplesInSpace(new Hyperrectangle(3d, 4d))
+			.countTuplesPerCellInSlidingWindow(0.5, 60, 10)
+			.build();
+		
+		final ContinuousAggregateQueryPlan cqp = (ContinuousAggregateQueryPlan) queryPlan;
+		Assert.assertEquals(0.5, cqp.getCellSize(), 0.0001);
+		Assert.assertEquals(60, cqp.getWindowSize());
+		Assert.assertEquals(10, cqp.getWindowSlide());
+		Assert.assertFalse(cqp.isTumblingWindow());
+	}
+	
+	@Test(timeout=60_000, expected=IllegalArgumentException.class)
+	public void testInvalidAggregatePlan() {
+		QueryPlanBuilder
+			.createQueryOnTable("table")
+			.compareWithStaticSpace(new Hyperrectangle(2d, 4d))
+			.countTuplesPerCellInTumblingWindow(0.5, 60)
+			.build();
+	}
 }
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.test.storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bboxdb.storage.tuplestore.manager.InsertCallbackDispatcher;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestInsertCallbackDispatcher {
+
+	@Test(timeout=60_000)
+	public void testKeyOrder() throws InterruptedException {
+		final InsertCallbackDispatcher dispatcher = new InsertCallbackDispatcher(4, 16);
+		final Object callback = new Object();
+		
+		final Map<String, List<Integer>> executions = new HashMap<>();
+		final int keys = 20;
+		final int tuplesPerKey = 100;
+		
+		for(int key = 0; key < keys; key++) {
+			executions.put(Integer.toString(key), Collections.synchronizedList(new ArrayList<>()));
+		}
+		
+		final CountDownLatch latch = new CountDownLatch(keys * tuplesPerKey);
+		
+		for(int i = 0; i < tuplesPerKey; i++) {
+			for(int key = 0; key < keys; key++) {
+				final String keyName = Integer.toString(key);
+				final int value = i;
+				
+				dispatcher.dispatch(callback, keyName, () -> {
+					executions.get(keyName).add(value);
+					latch.countDown();
+				});
+			}
+		}
+		
+		latch.await();
+		
+		for(final List<Integer> execution : executions.values()) {
+			Assert.assertEquals(tuplesPerKey, execution.size());
+			
+			for(int i = 0; i < tuplesPerKey; i++) {
+				Assert.assertEquals(i, (int) execution.get(i));
+			}
+		}
+		
+		dispatcher.shutdown();
+	}
+	
+	@Test(timeout=60_000)
+	public void testBarrier() throws InterruptedException {
+		final InsertCallbackDispatcher dispatcher = new InsertCallbackDispatcher(4, 16);
+		final Object callback = new Object();
+		
+		final AtomicInteger executedBefore = new AtomicInteger();
+		final AtomicInteger executedAfter = new AtomicInteger();
+		final CountDownLatch latch = new CountDownLatch(1);
+		
+		for(int key = 0; key < 100; key++) {
+			dispatcher.dispatch(callback, Integer.toString(key), () -> executedBefore.incrementAndGet());
+		}
+		
+		dispatcher.dispatchBarrier(() -> {
+			Assert.assertEquals(100, executedBefore.get());
+			Assert.assertEquals(0, executedAfter.get());
+			latch.countDown();
+		});
+		
+		for(int key = 0; key < 100; key++) {
+			dispatcher.dispatch(callback, Integer.toString(key), () -> executedAfter.incrementAndGet());
+		}
+		
+		latch.await();
+		
+		while(dispatcher.getPendingCallbacks() > 0) {
+			Thread.sleep(10);
+		}
+		
+		dispatcher.shutdown();
+	}
+}
@@ -25,9 +25,12 @@ import java.util.stream.Collectors;
 import org.bboxdb.commons.RejectedException;
 import org.bboxdb.commons.math.Hyperrectangle;
 import org.bboxdb.misc.BBoxDBException;
+import org.bboxdb.network.entity.OperatorProfile;
+import org.bboxdb.query.queryprocessor.AccessPathPlanner;
 import org.bboxdb.query.queryprocessor.operator.BoundingBoxSelectOperator;
 import org.bboxdb.query.queryprocessor.operator.FullTablescanOperator;
 import org.bboxdb.query.queryprocessor.operator.Operator;
+import org.bboxdb.query.queryprocessor.operator.ProfilingOperator;
 import org.bboxdb.query.queryprocessor.operator.SpatialIndexReadOperator;
 import org.bboxdb.query.queryprocessor.operator.join.IndexedSpatialJoinOperator;
 import org.bboxdb.storage.StorageManagerException;
@@ -301,6 +304,128 @@ public class TestQueryProcessing {
 		Assert.assertTrue(resultTupleList.contains(tuple3));
 	}
 
+	/**
+	 * BBox query on disk - index scan and full scan need to return the same tuples
+	 * @throws StorageManagerException
+	 * @throws InterruptedException
+	 * @throws RejectedException
+	 * @throws IOException
+	 */
+	@Test(timeout=60000)
+	public void testBBoxQueryAccessPath() throws StorageManagerException, InterruptedException, RejectedException, IOException {
+		storageRegistry.deleteTable(TABLE_1);
+		storageRegistry.createTable(TABLE_1, new TupleStoreConfiguration());
+		final TupleStoreManager storageManager = storageRegistry.getTupleStoreManager(TABLE_1);
+
+		final Tuple tuple1 = new Tuple("1", new Hyperrectangle(1.0, 2.0, 1.0, 2.0), "value".getBytes());
+		final Tuple tuple2 = new Tuple("2", new Hyperrectangle(1.5, 2.5, 1.5, 2.5), "value2".getBytes());
+		final Tuple tuple3 = new Tuple("1", new Hyperrectangle(1.0, 2.0, 1.0, 2.0), "value1".getBytes());
+		final Tuple tuple4 = new Tuple("3", new Hyperrectangle(10.0, 12.0, 10.0, 12.0), "value3".getBytes());
+
+		storageManager.put(tuple1);
+		storageManager.put(tuple4);
+		storageManager.flush();
+
+		storageManager.put(tuple2);
+		storageManager.flush();
+
+		storageManager.put(tuple3);
+		storageManager.flush();
+
+		final Hyperrectangle queryBoundingBox = new Hyperrectangle(0.0, 5.0, 0.0, 5.0);
+		
+		// Always use the index / always perform a full scan
+		for(final double threshold : new double[] {2.0, 0.0}) {
+			final AccessPathPlanner planner = new AccessPathPlanner(threshold);
+			final Operator queryPlan = new SpatialIndexReadOperator(storageManager, queryBoundingBox, planner);
+	
+			final Iterator<MultiTuple> iterator = queryPlan.iterator();
+	
+			final List<MultiTuple> resultList = Lists.newArrayList(iterator);
+			final List<Tuple> resultTupleList = resultList.stream().map(t -> t.convertToSingleTupleIfPossible()).collect(Collectors.toList());
+			queryPlan.close();
+	
+			Assert.assertEquals(2, resultList.size());
+			Assert.assertFalse(resultTupleList.contains(tuple1));
+			Assert.assertTrue(resultTupleList.contains(tuple2));
+			Assert.assertTrue(resultTupleList.contains(tuple3));
+			Assert.assertFalse(resultTupleList.contains(tuple4));
+		}
+	}
+	
+	/**
+	 * Test the selectivity estimation
+	 */
+	@Test(timeout=60000)
+	public void testSelectivityEstimation() {
+		final Hyperrectangle coveringBox = new Hyperrectangle(0.0, 10.0, 0.0, 10.0);
+		
+		Assert.assertEquals(1.0, AccessPathPlanner.estimateSelectivity(coveringBox, Hyperrectangle.FULL_SPACE), 0.001);
+		Assert.assertEquals(1.0, AccessPathPlanner.estimateSelectivity(coveringBox, new Hyperrectangle(-5.0, 15.0, -5.0, 15.0)), 0.001);
+		Assert.assertEquals(0.25, AccessPathPlanner.estimateSelectivity(coveringBox, new Hyperrectangle(0.0, 5.0, 0.0, 5.0)), 0.001);
+		Assert.assertEquals(0.01, AccessPathPlanner.estimateSelectivity(coveringBox, new Hyperrectangle(1.0, 2.0, 1.0, 2.0)), 0.001);
+		Assert.assertEquals(0.0, AccessPathPlanner.estimateSelectivity(coveringBox, new Hyperrectangle(20.0, 30.0, 20.0, 30.0)), 0.001);
+		
+		// All tuples on a line
+		final Hyperrectangle lineBox = new Hyperrectangle(0.0, 10.0, 5.0, 5.0);
+		Assert.assertEquals(0.5, AccessPathPlanner.estimateSelectivity(lineBox, new Hyperrectangle(0.0, 5.0, 0.0, 10.0)), 0.001);
+	}
+
+	/**
+	 * Profile a join operator tree
+	 * @throws StorageManagerException
+	 * @throws RejectedException
+	 * @throws IOException
+	 */
+	@Test(timeout=60000)
+	public void testProfileJoin() throws StorageManagerException, RejectedException, IOException {
+		final TupleStoreManager storageManager1 = storageRegistry.getTupleStoreManager(TABLE_1);
+		final TupleStoreManager storageManager2 = storageRegistry.getTupleStoreManager(TABLE_2);
+
+		final Tuple tuple1 = new Tuple("1a", new Hyperrectangle(1.0, 2.0, 1.0, 2.0), "value1".getBytes());
+		final Tuple tuple2 = new Tuple("2a", new Hyperrectangle(4.0, 5.0, 4.0, 5.0), "value2".getBytes());
+		final Tuple tuple3 = new Tuple("1b", new Hyperrectangle(1.5, 2.5, 1.5, 2.5), "value3".getBytes());
+
+		storageManager1.put(tuple1);
+		storageManager1.put(tuple2);
+		storageManager2.put(tuple3);
+
+		final Hyperrectangle queryRange = Hyperrectangle.FULL_SPACE;
+		final Operator operator1 = ProfilingOperator.profile(true, 
+				new SpatialIndexReadOperator(storageManager1, queryRange));
+		final SpatialIndexReadOperator operator2 = new SpatialIndexReadOperator(storageManager2, queryRange);
+
+		final Operator joinQueryProcessor = ProfilingOperator.profile(true, 
+				new IndexedSpatialJoinOperator(operator1, operator2), operator1, operator2);
+
+		final List<MultiTuple> resultList = Lists.newArrayList(joinQueryProcessor.iterator());
+		joinQueryProcessor.close();
+
+		Assert.assertEquals(1, resultList.size());
+
+		final OperatorProfile profile = ((ProfilingOperator) joinQueryProcessor).getProfile();
+		Assert.assertEquals("IndexedSpatialJoinOperator", profile.getOperatorName());
+		Assert.assertEquals(1, profile.getTuplesOut());
+		Assert.assertEquals(2, profile.getInputs().size());
+		Assert.assertTrue(profile.getWallTimeNanos() > 0);
+
+		final OperatorProfile streamProfile = profile.getInputs().get(0);
+		Assert.assertEquals(2, streamProfile.getTuplesOut());
+		Assert.assertTrue(streamProfile.getTuplesIn() >= 2);
+		Assert.assertTrue(streamProfile.getBytesRead() > 0);
+
+		final OperatorProfile indexProfile = profile.getInputs().get(1);
+		Assert.assertEquals(1, indexProfile.getTuplesOut());
+		Assert.assertEquals(OperatorProfile.WALL_TIME_NOT_MEASURED, indexProfile.getWallTimeNanos());
+
+		// Inputs of the join: stream tuples and index lookups
+		Assert.assertEquals(3, profile.getTuplesIn());
+
+		// Profiling disabled
+		final Operator operator3 = new SpatialIndexReadOperator(storageManager1, queryRange);
+		Assert.assertSame(operator3, ProfilingOperator.profile(false, operator3));
+	}
+
 	/**
 	 * Simple Join
 	 * @throws StorageManagerException
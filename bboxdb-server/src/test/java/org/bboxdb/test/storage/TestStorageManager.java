@@ -19,6 +19,8 @@ package org.bboxdb.test.storage;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -205,6 +207,49 @@ public class TestStorageManager {
 		Assert.assertTrue(storageManager.get("1").get(0) instanceof DeletedTuple);
 	}
 
+	@Test(timeout=60000)
+	public void testMultiKeyGet() throws StorageManagerException, InterruptedException, RejectedException {
+		final int MAX_TUPLES = 10000;
+
+		for(int i = 0; i < MAX_TUPLES; i++) {
+			final Tuple createdTuple = new Tuple(Integer.toString(i), Hyperrectangle.FULL_SPACE, "v1".getBytes());
+			storageManager.put(createdTuple);
+		}
+
+		storageManager.flush();
+
+		// Newer versions in a second SSTable and in the memtable
+		storageManager.put(new Tuple("10", Hyperrectangle.FULL_SPACE, "v2".getBytes()));
+		storageManager.put(new Tuple("500", Hyperrectangle.FULL_SPACE, "v2".getBytes()));
+		storageManager.flush();
+		storageManager.put(new Tuple("500", Hyperrectangle.FULL_SPACE, "v3".getBytes()));
+		storageManager.delete("9999", MicroSecondTimestampProvider.getNewTimestamp());
+
+		final SortedSet<String> keys = new TreeSet<>();
+		keys.add("1");
+		keys.add("10");
+		keys.add("500");
+		keys.add("9999");
+		keys.add("abc");
+		keys.add("0000");
+
+		final List<Tuple> readTuples = storageManager.get(keys);
+		Assert.assertEquals(4, readTuples.size());
+
+		for(final String key : keys) {
+			final List<Tuple> expected = storageManager.get(key);
+			final List<Tuple> tuplesForKey = new ArrayList<>();
+			
+			for(final Tuple tuple : readTuples) {
+				if(tuple.getKey().equals(key)) {
+					tuplesForKey.add(tuple);
+				}
+			}
+			
+			Assert.assertEquals(expected, tuplesForKey);
+		}
+	}
+
 	@Test(timeout=60000)
 	public void testDeleteTuple() throws StorageManagerException, InterruptedException, RejectedException {
 		int MAX_TUPLES = 100000;
@@ -94,4 +94,32 @@ public class TestTupleDuplicateRemover {
 		Assert.assertTrue(tupleDuplicateRemover.isElementAlreadySeen(joinedTuple3));
 	}
 
+	@Test(timeout=60000)
+	public void testBoundedTracker() {
+		final TimeBasedEntityDuplicateTracker tupleDuplicateRemover = new TimeBasedEntityDuplicateTracker(2);
+		
+		final Tuple tuple1 = new Tuple("key1", Hyperrectangle.FULL_SPACE, "".getBytes(), 1);
+		final Tuple tuple2 = new Tuple("key2", Hyperrectangle.FULL_SPACE, "".getBytes(), 1);
+		final Tuple tuple3 = new Tuple("key3", Hyperrectangle.FULL_SPACE, "".getBytes(), 1);
+
+		Assert.assertFalse(tupleDuplicateRemover.isElementAlreadySeen(tuple1));
+		Assert.assertFalse(tupleDuplicateRemover.isElementAlreadySeen(tuple2));
+		
+		// Tuple 1 is the most recently seen tuple now
+		Assert.assertTrue(tupleDuplicateRemover.isElementAlreadySeen(tuple1));
+		Assert.assertEquals(2, tupleDuplicateRemover.size());
+
+		// Tuple 2 is evicted
+		Assert.assertFalse(tupleDuplicateRemover.isElementAlreadySeen(tuple3));
+		Assert.assertEquals(2, tupleDuplicateRemover.size());
+		Assert.assertTrue(tupleDuplicateRemover.isElementAlreadySeen(tuple1));
+		Assert.assertTrue(tupleDuplicateRemover.isElementAlreadySeen(tuple3));
+		Assert.assertFalse(tupleDuplicateRemover.isElementAlreadySeen(tuple2));
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidBound() {
+		new TimeBasedEntityDuplicateTracker(0);
+	}
+
 }
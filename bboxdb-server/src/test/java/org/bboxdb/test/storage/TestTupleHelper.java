@@ -309,6 +309,25 @@ public class TestTupleHelper {
 		Assert.assertEquals(tuple, readTuple2);
 	}
 
+	/**
+	 * Test the encoded bounding box of a decoded tuple
+	 * @throws IOException
+	 */
+	@Test(timeout=60000)
+	public void testBoundingBoxBytes() throws IOException {
+		final Hyperrectangle boundingBox = new Hyperrectangle(1.0, 2.0, 3.0, 4.0);
+		final Tuple tuple = new Tuple("abc", boundingBox, "abc".getBytes());
+		
+		final byte[] bytes = TupleHelper.tupleToBytes(tuple);
+		final Tuple readTuple = TupleHelper.decodeTuple(ByteBuffer.wrap(bytes));
+		Assert.assertArrayEquals(boundingBox.toByteArray(), readTuple.getBoundingBoxBytes());
+		
+		// The cached bytes are invalidated on update
+		final Hyperrectangle boundingBox2 = new Hyperrectangle(5.0, 6.0);
+		readTuple.setBoundingBox(boundingBox2);
+		Assert.assertArrayEquals(boundingBox2.toByteArray(), readTuple.getBoundingBoxBytes());
+	}
+
 	/**
 	 * Test misc methods of a tuple
 	 */
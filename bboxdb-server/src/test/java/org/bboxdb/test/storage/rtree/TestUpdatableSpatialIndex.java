@@ -0,0 +1,85 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *  
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *  
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *  
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License. 
+ *    
+ *******************************************************************************/
+package org.bboxdb.test.storage.rtree;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.bboxdb.commons.math.Hyperrectangle;
+import org.bboxdb.storage.sstable.spatialindex.UpdatableSpatialIndex;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestUpdatableSpatialIndex {
+
+	@Test(timeout=60_000)
+	public void testQueryOnEmptyIndex() {
+		final UpdatableSpatialIndex<String, String> index = new UpdatableSpatialIndex<>();
+		Assert.assertTrue(index.isEmpty());
+		Assert.assertTrue(index.getValuesForRegion(new Hyperrectangle(1d, 2d, 1d, 2d)).isEmpty());
+		Assert.assertFalse(index.remove("abc"));
+	}
+	
+	@Test(timeout=60_000)
+	public void testPutAndRemove() {
+		final UpdatableSpatialIndex<String, String> index = new UpdatableSpatialIndex<>();
+		
+		index.put("1", new Hyperrectangle(0d, 1d, 0d, 1d), "v1");
+		index.put("2", new Hyperrectangle(5d, 6d, 5d, 6d), "v2");
+		Assert.assertEquals(2, index.size());
+		Assert.assertEquals("v1", index.get("1"));
+		
+		Assert.assertEquals(Arrays.asList("v1"), index.getValuesForRegion(new Hyperrectangle(0d, 2d, 0d, 2d)));
+
+		// Replace the entry, the old bounding box is removed
+		index.put("1", new Hyperrectangle(5d, 6d, 5d, 6d), "v1b");
+		Assert.assertEquals(2, index.size());
+		Assert.assertTrue(index.getValuesForRegion(new Hyperrectangle(0d, 2d, 0d, 2d)).isEmpty());
+		Assert.assertEquals(new HashSet<>(Arrays.asList("v1b", "v2")), 
+				new HashSet<>(index.getValuesForRegion(new Hyperrectangle(4d, 7d, 4d, 7d))));
+
+		Assert.assertTrue(index.remove("2"));
+		Assert.assertFalse(index.containsKey("2"));
+		Assert.assertNull(index.get("2"));
+		Assert.assertEquals(Arrays.asList("v1b"), index.getValuesForRegion(new Hyperrectangle(4d, 7d, 4d, 7d)));
+	}
+	
+	@Test(timeout=60_000)
+	public void testManyUpdates() {
+		final UpdatableSpatialIndex<Integer, Integer> index = new UpdatableSpatialIndex<>();
+
+		for(int i = 0; i < 1000; i++) {
+			index.put(i, new Hyperrectangle((double) i, (double) i + 0.5, 0d, 1d), i);
+		}
+		
+		// Trigger rebuilds of the index
+		for(int i = 0; i < 1000; i++) {
+			if(i % 10 != 0) {
+				Assert.assertTrue(index.remove(i));
+			}
+		}
+		
+		Assert.assertEquals(100, index.size());
+		Assert.assertEquals(100, index.getAllValues().size());
+		
+		final List<Integer> result = index.getValuesForRegion(new Hyperrectangle(0d, 100d, 0d, 1d));
+		Assert.assertEquals(new HashSet<>(Arrays.asList(0, 10, 20, 30, 40, 50, 60, 70, 80, 90, 100)), 
+				new HashSet<>(result));
+	}
+}
@@ -17,7 +17,9 @@
  *******************************************************************************/
 package org.bboxdb.test.tools;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.bboxdb.network.server.connection.lock.LockEntry;
 import org.bboxdb.network.server.connection.lock.LockManager;
@@ -174,4 +176,70 @@ public class TestLockManager {
 	
 		Assert.assertTrue(removeResult2.isEmpty());
 	}
+	
+	@Test(timeout=60000)
+	public void testManyLocks() {
+		for(int i = 0; i < 10000; i++) {
+			final Object lockObject = (i % 2 == 0) ? LOCK_OBJECT_1 : LOCK_OBJECT_2;
+			Assert.assertTrue(lockManager.lockTuple(lockObject, i % 10, "abc", Integer.toString(i), 12, false));
+		}
+		
+		Assert.assertEquals(10000, lockManager.getNumberOfLocks());
+		Assert.assertEquals(5000, lockManager.getAllLocksForObject(LOCK_OBJECT_1).size());
+		
+		// Wrong lock object
+		Assert.assertTrue(lockManager.removeLockForConnectionAndKey(LOCK_OBJECT_2, "abc", "0").isEmpty());
+		Assert.assertEquals(1, lockManager.removeLockForConnectionAndKey(LOCK_OBJECT_1, "abc", "0").size());
+		Assert.assertEquals(9999, lockManager.getNumberOfLocks());
+		
+		// Sequence 2 of lock object 1: 2, 12, 22, ...
+		Assert.assertEquals(1000, lockManager.removeAllForLocksForObjectAndSequence(LOCK_OBJECT_1, 2).size());
+		Assert.assertEquals(8999, lockManager.getNumberOfLocks());
+		
+		Assert.assertEquals(5000, lockManager.removeAllLocksForObject(LOCK_OBJECT_2).size());
+		Assert.assertEquals(3999, lockManager.getNumberOfLocks());
+		Assert.assertTrue(lockManager.getAllLocksForObject(LOCK_OBJECT_2).isEmpty());
+		
+		Assert.assertTrue(lockManager.lockTuple(LOCK_OBJECT_2, 1, "abc", "1", 12, false));
+		Assert.assertFalse(lockManager.lockTuple(LOCK_OBJECT_2, 1, "abc", "4", 12, false));
+	}
+	
+	@Test(timeout=60000)
+	public void testConcurrentLocking() throws InterruptedException {
+		final List<Object> lockObjects = new ArrayList<>();
+		final List<Thread> threads = new ArrayList<>();
+		final AtomicInteger successfulLocks = new AtomicInteger(0);
+		
+		for(int i = 0; i < 10; i++) {
+			final Object lockObject = new Object();
+			lockObjects.add(lockObject);
+			
+			threads.add(new Thread(() -> {
+				for(int key = 0; key < 1000; key++) {
+					if(lockManager.lockTuple(lockObject, 1, "abc", Integer.toString(key), 12, false)) {
+						successfulLocks.incrementAndGet();
+					}
+				}
+			}));
+		}
+		
+		threads.forEach(t -> t.start());
+		
+		for(final Thread thread : threads) {
+			thread.join();
+		}
+		
+		// Every key is locked exactly once
+		Assert.assertEquals(1000, successfulLocks.get());
+		Assert.assertEquals(1000, lockManager.getNumberOfLocks());
+		
+		final int hold = lockObjects.stream()
+				.mapToInt(o -> lockManager.getAllLocksForObject(o).size())
+				.sum();
+		
+		Assert.assertEquals(1000, hold);
+		
+		lockObjects.forEach(o -> lockManager.removeAllLocksForObject(o));
+		Assert.assertEquals(0, lockManager.getNumberOfLocks());
+	}
 }
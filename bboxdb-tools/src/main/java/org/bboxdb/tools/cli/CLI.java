@@ -59,12 +59,14 @@ import org.bboxdb.network.client.BBoxDBCluster;
 import org.bboxdb.network.client.future.client.EmptyResultFuture;
 import org.bboxdb.network.client.future.client.JoinedTupleListFuture;
 import org.bboxdb.network.client.future.client.TupleListFuture;
+import org.bboxdb.network.client.tools.BatchedTupleInserter;
 import org.bboxdb.network.client.tools.FixedSizeFutureStore;
 import org.bboxdb.query.ContinuousQueryPlan;
 import org.bboxdb.query.QueryPlanBuilder;
 import org.bboxdb.query.filter.UserDefinedFilterDefinition;
 import org.bboxdb.storage.entity.DistributionGroupConfiguration;
 import org.bboxdb.storage.entity.DistributionGroupConfigurationBuilder;
+import org.bboxdb.storage.entity.GeometryEncoding;
 import org.bboxdb.storage.entity.MultiTuple;
 import org.bboxdb.storage.entity.Tuple;
 import org.bboxdb.storage.entity.TupleStoreConfiguration;
@@ -314,6 +316,12 @@ public class CLI implements Runnable, AutoCloseable {
 			final String spatialIndexWriter = line.getOptionValue(CLIParameter.SPATIAL_INDEX_WRITER);
 			ssTableConfigurationBuilder.withSpatialIndexWriter(spatialIndexWriter);
 		}
+		
+		// Geometry encoding
+		if(line.hasOption(CLIParameter.GEOMETRY_ENCODING)) {
+			final String geometryEncoding = line.getOptionValue(CLIParameter.GEOMETRY_ENCODING);
+			ssTableConfigurationBuilder.withGeometryEncoding(GeometryEncoding.fromString(geometryEncoding));
+		}
 
 		final TupleStoreConfiguration configuration = ssTableConfigurationBuilder.build();
 
@@ -1056,6 +1064,9 @@ public class CLI implements Runnable, AutoCloseable {
 		System.out.format("Importing file: %s with padding %f%n", filename, padding);
 
 		final TupleFileReader tupleFile = new TupleFileReader(filename, format, padding);
+		final BatchedTupleInserter tupleInserter = new BatchedTupleInserter(bboxDbConnection,
+				table, pendingFutures);
+
 		tupleFile.addTupleListener(t -> {
 
 			if(tupleFile.getProcessedLines() % 1000 == 0) {
@@ -1063,9 +1074,7 @@ public class CLI implements Runnable, AutoCloseable {
 			}
 
 			try {
-				final EmptyResultFuture result = bboxDbConnection.insertTuple(table, t);
-				pendingFutures.put(result);
-
+				tupleInserter.insertTuple(t);
 			} catch (BBoxDBException e) {
 				logger.error("Got exception while inserting tuple", e);
 			}
@@ -1073,6 +1082,7 @@ public class CLI implements Runnable, AutoCloseable {
 
 		try {
 			tupleFile.processFile();
+			tupleInserter.flush();
 			pendingFutures.waitForCompletion();
 			final long skippedLines = tupleFile.getSkippedLines();
 			final long processedLines = tupleFile.getProcessedLines();
@@ -1082,6 +1092,8 @@ public class CLI implements Runnable, AutoCloseable {
 		} catch (IOException e) {
 			logger.error("Got IO Exception while reading data", e);
 			System.exit(-1);
+		} catch (BBoxDBException e) {
+			logger.error("Got exception while inserting tuples", e);
 		} catch (InterruptedException e) {
 			Thread.currentThread().interrupt();
 			return;
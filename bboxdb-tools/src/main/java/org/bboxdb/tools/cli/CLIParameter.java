@@ -164,6 +164,11 @@ public class CLIParameter {
 	 */
 	public static final String SPATIAL_INDEX_READER = "sindexreader";
 	
+	/**
+	 * The encoding of the geometries in the table
+	 */
+	public static final String GEOMETRY_ENCODING = "geometryencoding";
+	
 	/**
 	 * The number of partitions in the prepartitioning step
 	 */
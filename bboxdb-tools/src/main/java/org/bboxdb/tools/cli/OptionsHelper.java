@@ -161,6 +161,14 @@ public class OptionsHelper {
 				.desc("The amount of versions for a tuple")
 				.build();
 		options.addOption(versionsForTable);
+		
+		// Table geometry encoding
+		final Option geometryEncodingForTable = Option.builder(CLIParameter.GEOMETRY_ENCODING)
+				.hasArg()
+				.argName("geometry encoding")
+				.desc("The encoding of the geometries (geojson or wkb), default: geojson")
+				.build();
+		options.addOption(geometryEncodingForTable);
 
 		// Filename
 		final Option file = Option.builder(CLIParameter.FILE)
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ *
+ *    Copyright (C) 2015-2021 the BBoxDB project
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ *
+ *******************************************************************************/
+package org.bboxdb.tools.converter.tuple;
+
+import org.bboxdb.query.filter.GeometryHelper;
+import org.bboxdb.storage.entity.Tuple;
+
+public class GeoJSONWKBTupleBuilder extends GeoJSONTupleBuilder {
+
+	@Override
+	public Tuple buildTuple(final String valueData, final String keyData) {
+		
+		final Tuple geoJsonTuple = super.buildTuple(valueData, keyData);
+		
+		if(geoJsonTuple == null) {
+			return null;
+		}
+		
+		// Store the geometry as WKB, the GeoJSON properties are not preserved
+		final byte[] wkbBytes = GeometryHelper.geoJsonToWKB(new String(geoJsonTuple.getDataBytes()));
+		
+		return new Tuple(geoJsonTuple.getKey(), geoJsonTuple.getBoundingBox(), 
+				wkbBytes, geoJsonTuple.getVersionTimestamp());
+	}
+
+}
@@ -45,6 +45,11 @@ public class TupleBuilderFactory {
 		 */
 		public static final String GEOJSON = "geojson";
 		
+		/**
+		 * The GEOJson builder - the geometry is stored as WKB
+		 */
+		public static final String GEOJSON_WKB = "geojson_wkb";
+		
 		/**
 		 * The synthetic builder
 		 */
@@ -120,7 +125,7 @@ public class TupleBuilderFactory {
 	 * All known builder
 	 */
 	public static final List<String> ALL_BUILDER = Arrays.asList(
-			Name.GEOJSON, Name.SYNTHETIC,
+			Name.GEOJSON, Name.GEOJSON_WKB, Name.SYNTHETIC,
 			Name.YELLOWTAXI_POINT, Name.YELLOWTAXI_RANGE, 
 			Name.TPCH_LINEITEM_POINT, Name.TPCH_LINEITEM_RANGE, 
 			Name.TPCH_ORDER_POINT, Name.ROME_TAXI_POINT, 
@@ -138,6 +143,8 @@ public class TupleBuilderFactory {
 		switch(format) {
 			case Name.GEOJSON:
 				return new GeoJSONTupleBuilder();
+			case Name.GEOJSON_WKB:
+				return new GeoJSONWKBTupleBuilder();
 			case Name.SYNTHETIC:
 				return new SyntheticTupleBuilder();
 			case Name.YELLOWTAXI_POINT:
@@ -36,7 +36,7 @@ import org.bboxdb.misc.BBoxDBException;
 import org.bboxdb.misc.Const;
 import org.bboxdb.network.client.BBoxDB;
 import org.bboxdb.network.client.BBoxDBCluster;
-import org.bboxdb.network.client.future.client.EmptyResultFuture;
+import org.bboxdb.network.client.tools.BatchedTupleInserter;
 import org.bboxdb.network.client.tools.FixedSizeFutureStore;
 import org.bboxdb.network.routing.DistributionRegionHandlingFlag;
 import org.bboxdb.storage.StorageManagerException;
@@ -155,6 +155,9 @@ public class SocketImporter implements Runnable {
 
 			logger.info("Handle connection from: {}", clientSocket.getRemoteSocketAddress());
 
+			final BatchedTupleInserter tupleInserter = new BatchedTupleInserter(bboxdbClient, 
+					table, insertOptions, pendingFutures, BatchedTupleInserter.DEFAULT_BATCH_SIZE);
+
 			String line;
 			while ((line = inputStream.readLine()) != null) {
 				final Tuple tuple = tupleFactory.buildTuple(line);
@@ -164,11 +167,12 @@ public class SocketImporter implements Runnable {
 					tuple.setBoundingBox(tupleBBox);
 
 					if (!NULL_STRING.equals(table)) {
-						final EmptyResultFuture result = bboxdbClient.insertTuple(table, tuple, insertOptions);
-						pendingFutures.put(result);
+						tupleInserter.insertTuple(tuple);
 					}
 				}
 			}
+			
+			tupleInserter.flush();
 		} catch (Exception e) {
 			logger.error("Got exception", e);
 		}